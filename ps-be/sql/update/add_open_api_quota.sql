@@ -0,0 +1,33 @@
+-- ========================================
+-- 开放API配额
+-- 创建时间: 2026-10-18
+-- 描述: 应用增加每日调用上限、最大并发数；应用API权限增加单API频率上限、每日调用上限；
+--       新增按日汇总的调用用量表，由各节点定时累加写入，配额判断和用量统计不再扫描 tp_api_call_log
+-- ========================================
+
+ALTER TABLE `tp_third_party_app`
+ADD COLUMN IF NOT EXISTS `daily_quota` INTEGER DEFAULT NULL COMMENT '每日调用次数上限，为NULL或0表示不限'
+AFTER `rate_limit`;
+
+ALTER TABLE `tp_third_party_app`
+ADD COLUMN IF NOT EXISTS `max_concurrency` INTEGER DEFAULT NULL COMMENT '单节点最大并发请求数，为NULL或0表示不限'
+AFTER `daily_quota`;
+
+ALTER TABLE `tp_app_api_permission`
+ADD COLUMN IF NOT EXISTS `rate_limit` INTEGER DEFAULT NULL COMMENT '该API频率上限（次/秒），为NULL或0表示不限'
+AFTER `api_id`;
+
+ALTER TABLE `tp_app_api_permission`
+ADD COLUMN IF NOT EXISTS `daily_quota` INTEGER DEFAULT NULL COMMENT '该API每日调用次数上限，为NULL或0表示不限'
+AFTER `rate_limit`;
+
+CREATE TABLE IF NOT EXISTS `tp_app_api_usage` (
+    `stat_date` CHAR(8) NOT NULL COMMENT '统计日期（yyyyMMdd）',
+    `app_id` VARCHAR(19) NOT NULL COMMENT '应用ID',
+    `api_id` VARCHAR(19) NOT NULL DEFAULT '' COMMENT 'API ID，未匹配到API定义的请求为空串',
+    `call_count` BIGINT NOT NULL DEFAULT 0 COMMENT '放行次数',
+    `rejected_count` BIGINT NOT NULL DEFAULT 0 COMMENT '因配额被拒绝的次数',
+    `update_time` VARCHAR(14) DEFAULT NULL COMMENT '最后写入时间',
+    PRIMARY KEY (`stat_date`, `app_id`, `api_id`),
+    KEY `idx_app_date` (`app_id`, `stat_date`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='开放API调用用量表';
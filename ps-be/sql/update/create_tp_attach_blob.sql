@@ -0,0 +1,15 @@
+-- ========================================
+-- 附件内容表创建脚本
+-- 创建时间: 2026-10-18
+-- 描述: 附件按内容（SHA-256）去重存储，记录每份内容被多少条附件记录引用，引用数归零时删除文件
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS `tp_attach_blob` (
+  `DIGEST` char(64) NOT NULL COMMENT '内容摘要 SHA-256',
+  `SAVE_PATH` varchar(200) NOT NULL COMMENT '存放路径，与 tp_attachinfo.SAVE_PATH 一致',
+  `BLOB_SIZE` bigint(20) NOT NULL COMMENT '内容大小（字节）',
+  `REF_COUNT` int(11) NOT NULL DEFAULT 0 COMMENT '引用该内容的附件记录数',
+  `CREATE_TIME` varchar(14) DEFAULT NULL COMMENT '创建时间',
+  `UPDATE_TIME` varchar(14) DEFAULT NULL COMMENT '修改时间',
+  PRIMARY KEY (`DIGEST`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='附件内容表';
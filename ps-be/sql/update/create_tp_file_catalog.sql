@@ -0,0 +1,24 @@
+-- ========================================
+-- 文件目录索引表创建脚本
+-- 创建时间: 2026-10-18
+-- 描述: 记录上传目录（file.upload.path）下的文件，文件列表、搜索、用量统计和过期清理都查询本表，不再遍历磁盘；
+--       上传、删除、重命名、移动时同步更新，定时校对任务按磁盘内容重建
+-- ========================================
+
+CREATE TABLE IF NOT EXISTS `tp_file_catalog` (
+  `FILE_PATH` varchar(255) NOT NULL COMMENT '相对上传目录的路径，如 avatar/2026/10/18/xxx.png',
+  `CATEGORY` varchar(100) NOT NULL DEFAULT '' COMMENT '分类（路径第一级目录）',
+  `FILE_NAME` varchar(150) NOT NULL COMMENT '文件名称',
+  `ORIGINAL_NAME` varchar(255) DEFAULT NULL COMMENT '上传时的原始文件名称',
+  `FILE_EXT` varchar(20) NOT NULL DEFAULT '' COMMENT '小写扩展名，不含点',
+  `FILE_SIZE` bigint(20) NOT NULL DEFAULT 0 COMMENT '文件大小（字节）',
+  `CONTENT_TYPE` varchar(100) DEFAULT NULL COMMENT '内容类型',
+  `MD5` char(32) DEFAULT NULL COMMENT '文件MD5，磁盘上的文件被改动后置空',
+  `LAST_MODIFIED` bigint(20) NOT NULL COMMENT '文件修改时间（毫秒）',
+  `SYNC_TIME` bigint(20) NOT NULL COMMENT '最近一次写入索引的时间（毫秒），校对时早于本次校对开始时间的记录视为已不存在',
+  PRIMARY KEY (`FILE_PATH`),
+  KEY `IDX_FILE_CATALOG_CATEGORY` (`CATEGORY`, `LAST_MODIFIED`),
+  KEY `IDX_FILE_CATALOG_EXT` (`CATEGORY`, `FILE_EXT`, `LAST_MODIFIED`),
+  KEY `IDX_FILE_CATALOG_MODIFIED` (`LAST_MODIFIED`),
+  KEY `IDX_FILE_CATALOG_SYNC` (`SYNC_TIME`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='文件目录索引表';
@@ -14,9 +14,12 @@ import com.jiuxi.admin.core.service.PersonAccountService;
 import com.jiuxi.admin.core.service.impl.PersonAccountServiceAdapter;
 import com.jiuxi.admin.core.service.TpSmsSendService;
 import com.jiuxi.admin.core.service.impl.*;
+import com.jiuxi.admin.core.service.task.FileCatalogReconcileTask;
 import com.jiuxi.admin.core.util.CommonDataPermissionsUtil;
 // import com.jiuxi.easyexcel.service.DownloadDataService;
 import org.mybatis.spring.annotation.MapperScan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -25,6 +28,11 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * @ClassName: AdminAutoConfiguration
  * @Description: 自动配置
@@ -38,6 +46,9 @@ import org.springframework.context.annotation.Import;
 @MapperScan(basePackages = {"com.jiuxi.admin.core.mapper", "com.jiuxi.module.user.infra.persistence.mapper"})
 @ComponentScan({"com.jiuxi.admin.core.controller", "com.jiuxi.admin.core.service", "com.jiuxi.module.user"})
 public class AdminAutoConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdminAutoConfiguration.class);
+
     /**
      * @param
      * @return com.jiuxi.admin.core.service.TpSmsSendService
@@ -195,4 +206,22 @@ public class AdminAutoConfiguration {
         return new AdminLicenceCacheServiceImpl();
     }
 
+    /**
+     * 文件目录索引校对线程
+     * <pre>
+     *     遍历上传目录耗时较长，放在独立线程执行，不占用定时任务调度线程；
+     *     单线程保证启动建索引与定时校对不会同时执行，正在执行时最多再排队一次，其余触发直接丢弃
+     * </pre>
+     *
+     * @return java.util.concurrent.ExecutorService
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    @Bean(value = FileCatalogReconcileTask.EXECUTOR, destroyMethod = "shutdownNow")
+    @ConditionalOnProperty(name = "ps.file.catalog.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+    public ExecutorService fileCatalogReconcileExecutor() {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                r -> new Thread(r, "topinfo-file-catalog"), (r, executor) -> LOGGER.warn("文件目录索引校对正在执行，忽略本次触发"));
+    }
+
 }
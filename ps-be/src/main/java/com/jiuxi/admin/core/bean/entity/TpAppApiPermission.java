@@ -28,6 +28,16 @@ public class TpAppApiPermission implements Serializable {
      * API ID
      */
     private String apiId;
+
+    /**
+     * 该应用调用该API的频率上限（次/秒），为空或0表示不限
+     */
+    private Integer rateLimit;
+
+    /**
+     * 该应用调用该API的每日次数上限，为空或0表示不限
+     */
+    private Integer dailyQuota;
     
     /**
      * 创建人
@@ -0,0 +1,40 @@
+package com.jiuxi.admin.core.bean.entity;
+
+import lombok.Data;
+import java.io.Serializable;
+
+/**
+ * 开放API调用用量（按日汇总）
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Data
+public class TpAppApiUsage implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 统计日期（yyyyMMdd）
+     */
+    private String statDate;
+
+    private String appId;
+
+    /**
+     * API ID，未匹配到API定义的请求为空串
+     */
+    private String apiId;
+
+    /**
+     * 放行次数
+     */
+    private Long callCount;
+
+    /**
+     * 因配额被拒绝的次数
+     */
+    private Long rejectedCount;
+
+    private String updateTime;
+}
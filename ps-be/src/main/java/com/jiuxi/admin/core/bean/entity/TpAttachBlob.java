@@ -0,0 +1,87 @@
+package com.jiuxi.admin.core.bean.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serializable;
+
+/**
+ * 附件内容（按内容寻址存储），多个附件记录可引用同一份内容
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@TableName("tp_attach_blob")
+public class TpAttachBlob implements Serializable {
+
+    /**
+     * 内容摘要 SHA-256（小写十六进制）
+     */
+    private String digest;
+
+    /**
+     * 存放路径，与 tp_attachinfo.SAVE_PATH 一致
+     */
+    private String savePath;
+
+    /**
+     * 内容大小（字节）
+     */
+    private Long blobSize;
+
+    /**
+     * 引用该内容的附件记录数
+     */
+    private Integer refCount;
+
+    private String createTime;
+
+    private String updateTime;
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    public String getSavePath() {
+        return savePath;
+    }
+
+    public void setSavePath(String savePath) {
+        this.savePath = savePath;
+    }
+
+    public Long getBlobSize() {
+        return blobSize;
+    }
+
+    public void setBlobSize(Long blobSize) {
+        this.blobSize = blobSize;
+    }
+
+    public Integer getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(Integer refCount) {
+        this.refCount = refCount;
+    }
+
+    public String getCreateTime() {
+        return createTime;
+    }
+
+    public void setCreateTime(String createTime) {
+        this.createTime = createTime;
+    }
+
+    public String getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(String updateTime) {
+        this.updateTime = updateTime;
+    }
+}
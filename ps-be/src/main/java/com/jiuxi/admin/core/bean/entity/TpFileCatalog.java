@@ -0,0 +1,136 @@
+package com.jiuxi.admin.core.bean.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+
+import java.io.Serializable;
+
+/**
+ * 文件目录索引，对应上传目录下的一个文件
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@TableName("tp_file_catalog")
+public class TpFileCatalog implements Serializable {
+
+    /**
+     * 相对上传目录的路径，统一使用 '/' 分隔
+     */
+    private String filePath;
+
+    /**
+     * 分类（路径第一级目录）
+     */
+    private String category;
+
+    private String fileName;
+
+    /**
+     * 上传时的原始文件名称
+     */
+    private String originalName;
+
+    /**
+     * 小写扩展名，不含点
+     */
+    private String fileExt;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    private String contentType;
+
+    private String md5;
+
+    /**
+     * 文件修改时间（毫秒）
+     */
+    private Long lastModified;
+
+    /**
+     * 最近一次写入索引的时间（毫秒）
+     */
+    private Long syncTime;
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getOriginalName() {
+        return originalName;
+    }
+
+    public void setOriginalName(String originalName) {
+        this.originalName = originalName;
+    }
+
+    public String getFileExt() {
+        return fileExt;
+    }
+
+    public void setFileExt(String fileExt) {
+        this.fileExt = fileExt;
+    }
+
+    public Long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(Long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getMd5() {
+        return md5;
+    }
+
+    public void setMd5(String md5) {
+        this.md5 = md5;
+    }
+
+    public Long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public Long getSyncTime() {
+        return syncTime;
+    }
+
+    public void setSyncTime(Long syncTime) {
+        this.syncTime = syncTime;
+    }
+}
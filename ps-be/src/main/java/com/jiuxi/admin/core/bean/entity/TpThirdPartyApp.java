@@ -68,6 +68,10 @@ public class TpThirdPartyApp implements Serializable {
      * 限流配置（次/秒）
      */
     private Integer rateLimit;
+
+    private Integer dailyQuota;
+
+    private Integer maxConcurrency;
     
     /**
      * 是否有效（1:有效 0:无效）
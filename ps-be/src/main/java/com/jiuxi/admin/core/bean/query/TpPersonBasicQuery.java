@@ -3,6 +3,7 @@ package com.jiuxi.admin.core.bean.query;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import javax.validation.constraints.NotNull;
+import java.util.List;
 
 /**
  * @Description: 用户查询条件
@@ -30,6 +31,12 @@ public class TpPersonBasicQuery {
     @JsonIgnore
     private String deptLevelcode;
 
+    /**
+     * 部门层级索引算出的本级及下级部门id，不为空时替代层级code模糊查询
+     */
+    @JsonIgnore
+    private List<String> deptIds;
+
     /**
      * 账号名称
      */
@@ -102,6 +109,14 @@ public class TpPersonBasicQuery {
         this.deptLevelcode = deptLevelcode;
     }
 
+    public List<String> getDeptIds() {
+        return deptIds;
+    }
+
+    public void setDeptIds(List<String> deptIds) {
+        this.deptIds = deptIds;
+    }
+
     public String getUsername() {
         return username;
     }
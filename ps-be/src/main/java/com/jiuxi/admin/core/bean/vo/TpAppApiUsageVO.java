@@ -0,0 +1,48 @@
+package com.jiuxi.admin.core.bean.vo;
+
+import lombok.Data;
+import java.io.Serializable;
+
+/**
+ * 开放API配额用量VO
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Data
+public class TpAppApiUsageVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String statDate;
+
+    private String appId;
+
+    private String appName;
+
+    private String apiId;
+
+    private String apiName;
+
+    private String apiPath;
+
+    /**
+     * 放行次数
+     */
+    private Long callCount;
+
+    /**
+     * 因配额被拒绝的次数
+     */
+    private Long rejectedCount;
+
+    /**
+     * 该API每日上限，为空表示不限
+     */
+    private Integer apiDailyQuota;
+
+    /**
+     * 应用每日上限，为空表示不限
+     */
+    private Integer appDailyQuota;
+}
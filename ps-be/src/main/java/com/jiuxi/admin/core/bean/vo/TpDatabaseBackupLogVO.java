@@ -148,17 +148,17 @@ public class TpDatabaseBackupLogVO implements Serializable {
     private String updatorName;
 
     /**
-     * 扩展字段01
+     * 扩展字段01：备份文件 SHA-256
      */
     private String extend01;
 
     /**
-     * 扩展字段02
+     * 扩展字段02：导出的原始字节数(未压缩)
      */
     private String extend02;
 
     /**
-     * 扩展字段03
+     * 扩展字段03：导出片段数
      */
     private String extend03;
 
@@ -62,6 +62,16 @@ public class TpThirdPartyAppVO implements Serializable {
      */
     private Integer rateLimit;
 
+    /**
+     * 每日调用次数上限，为空或0表示不限
+     */
+    private Integer dailyQuota;
+
+    /**
+     * 最大并发请求数（单节点），为空或0表示不限
+     */
+    private Integer maxConcurrency;
+
     /**
      * 应用描述
      */
@@ -192,6 +202,22 @@ public class TpThirdPartyAppVO implements Serializable {
         this.rateLimit = rateLimit;
     }
 
+    public Integer getDailyQuota() {
+        return dailyQuota;
+    }
+
+    public void setDailyQuota(Integer dailyQuota) {
+        this.dailyQuota = dailyQuota;
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public void setMaxConcurrency(Integer maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
     public String getDescription() {
         return description;
     }
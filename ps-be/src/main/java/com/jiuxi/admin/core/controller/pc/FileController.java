@@ -89,6 +89,35 @@ public class FileController {
         }
     }
 
+    /**
+     * 秒传接口：客户端先计算文件的 SHA-256，当前登录人上传过相同内容时直接生成附件记录
+     *
+     * @param digest    文件 SHA-256（十六进制）
+     * @param size      文件大小（字节）
+     * @param filename  附件名
+     * @param referId   业务id
+     * @param referType 业务类型
+     * @param request
+     * @return com.jiuxi.common.bean.JsonResponse 内容不存在或不是当前登录人上传过的内容时 data 为空，客户端再调用 /upload 上传
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    @PostMapping(value = "/upload-by-digest")
+    public JsonResponse uploadByDigest(String digest, Long size, String filename,
+                                       @RequestParam(required = false) String referId,
+                                       String jwtpid,
+                                       String referType,
+                                       HttpServletRequest request) {
+        // 校验token
+        this.checkToken(request);
+
+        if (StrUtil.isBlank(digest) || null == size || StrUtil.isBlank(filename)) {
+            throw new TopinfoRuntimeException(-1, "文件摘要、大小和名称不能为空！");
+        }
+        TpAttachinfo model = fileService.uploadByDigest(digest, size, filename, jwtpid, referType, referId);
+        return JsonResponse.buildSuccess(model);
+    }
+
     /**
      * 附件下载 (需要从附件表查询附件的名称)
      *
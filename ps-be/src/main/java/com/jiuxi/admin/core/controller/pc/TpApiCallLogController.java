@@ -40,6 +40,14 @@ public class TpApiCallLogController {
         return JsonResponse.buildSuccess(page).buildPassKey(jwtpid, PASS_KEY);
     }
 
+    /**
+     * 开放API配额用量（按日汇总）
+     */
+    @RequestMapping("/quota-usage")
+    public JsonResponse quotaUsage(String appId, String startDate, String endDate) {
+        return JsonResponse.buildSuccess(tpApiCallLogService.getQuotaUsage(appId, startDate, endDate));
+    }
+
     /**
      * 查看API调用日志详情
      */
@@ -130,6 +130,21 @@ public class TpDatabaseBackupController {
         }
     }
 
+    /**
+     * 校验备份文件
+     */
+    @RequestMapping("/verify-backup")
+    @Authorization(businessKey = PASS_KEY)
+    public JsonResponse verifyBackup(@RequestBody Map<String, Object> requestBody) {
+        String backupId = (String) requestBody.get("backupId");
+
+        if (backupId == null || backupId.trim().isEmpty()) {
+            return JsonResponse.buildFailure("备份记录ID不能为空");
+        }
+
+        return JsonResponse.buildSuccess(databaseBackupService.verifyBackup(backupId));
+    }
+
     /**
      * 检查备份配置
      */
@@ -1,6 +1,7 @@
 package com.jiuxi.admin.core.controller.pc;
 
 import com.jiuxi.common.bean.JsonResponse;
+import com.jiuxi.admin.core.service.KeycloakSyncService;
 import com.jiuxi.admin.core.service.TpKeycloakAccountService;
 import com.jiuxi.module.user.app.service.UserAccountService;
 import com.jiuxi.admin.core.service.TpSystemConfigService;
@@ -55,6 +56,9 @@ public class TpSsoController {
     @Autowired
     private KeycloakSsoProperties keycloakSsoProperties;
     
+    @Autowired
+    private KeycloakSyncService keycloakSyncService;
+    
     @Autowired
     private RestTemplate restTemplate;
     
@@ -928,6 +932,25 @@ public class TpSsoController {
         }
     }
 
+    // ==================== Keycloak 用户对账接口 ====================
+
+    /**
+     * 本地Keycloak账号与Keycloak用户批量对账
+     * 
+     * @param dryRun 为true时只统计差异，不做修改
+     * @return 对账结果
+     */
+    @PostMapping("/admin/user/reconcile")
+    public JsonResponse reconcileUsers(@RequestParam(defaultValue = "true") boolean dryRun) {
+        logger.info("开始Keycloak用户对账，dryRun: {}", dryRun);
+        KeycloakSyncService.ReconcileResult result = keycloakSyncService.reconcileAccounts(dryRun);
+        // 部分用户处理失败时仍返回结果，失败明细见 failures
+        if (result.isSuccess() || result.getFailureCount() > 0) {
+            return JsonResponse.buildSuccess(result);
+        }
+        return JsonResponse.buildFailure(result.getMessage());
+    }
+
     // ==================== Keycloak 客户端管理接口 ====================
 
     /**
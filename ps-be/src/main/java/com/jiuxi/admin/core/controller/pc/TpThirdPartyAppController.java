@@ -118,6 +118,16 @@ public class TpThirdPartyAppController {
         return JsonResponse.buildSuccess(count);
     }
 
+    /**
+     * 配置应用单个API的配额
+     */
+    @PostMapping("/config-api-quota")
+    @Authorization(businessKey = PASS_KEY)
+    public JsonResponse configApiQuota(String appId, String apiId, Integer rateLimit, Integer dailyQuota, String jwtpid) {
+        int count = tpThirdPartyAppService.configApiQuota(appId, apiId, rateLimit, dailyQuota, jwtpid);
+        return JsonResponse.buildSuccess(count);
+    }
+
     /**
      * 查询应用已授权的API列表
      */
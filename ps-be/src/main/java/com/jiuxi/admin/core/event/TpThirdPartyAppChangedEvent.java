@@ -0,0 +1,28 @@
+package com.jiuxi.admin.core.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * @ClassName: TpThirdPartyAppChangedEvent
+ * @Description: 第三方应用或其API权限发生变化的事件，用于刷新开放API鉴权缓存
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class TpThirdPartyAppChangedEvent extends ApplicationEvent {
+
+    private final String appId;
+
+    /**
+     * @param source: 事件源
+     * @param appId:  发生变化的应用ID
+     */
+    public TpThirdPartyAppChangedEvent(Object source, String appId) {
+        super(source);
+        this.appId = appId;
+    }
+
+    public String getAppId() {
+        return appId;
+    }
+}
@@ -1,14 +1,14 @@
 package com.jiuxi.admin.core.interceptor;
 
+import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson.JSONObject;
 import com.jiuxi.admin.core.bean.entity.TpApiDefinition;
-import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
 import com.jiuxi.admin.core.bean.vo.TpThirdPartyAppVO;
-import com.jiuxi.admin.core.mapper.TpAppApiPermissionMapper;
 import com.jiuxi.admin.core.service.TpApiCallLogService;
-import com.jiuxi.admin.core.service.TpApiDefinitionService;
 import com.jiuxi.admin.core.service.TpThirdPartyAppService;
+import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,7 +22,7 @@ import java.io.IOException;
 
 /**
  * @ClassName: ApiKeyInterceptor
- * @Description: API Key验证拦截器
+ * @Description: API Key验证拦截器，应用、API 定义和授权均取自 {@link OpenApiAuthorizationCache}，鉴权过程不访问数据库
  * @Author system
  * @Date 2025-01-28
  * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
@@ -39,15 +39,16 @@ public class ApiKeyInterceptor implements HandlerInterceptor {
     private static final String REQUEST_START_TIME = "requestStartTime";
     private static final String BUSINESS_STATUS_ATTRIBUTE = "businessStatus";
     private static final String BUSINESS_ERROR_ATTRIBUTE = "businessErrorMessage";
+    private static final String QUOTA_PERMIT_ATTRIBUTE = "openApiQuotaPermit";
 
     @Autowired
     private TpThirdPartyAppService tpThirdPartyAppService;
 
     @Autowired
-    private TpApiDefinitionService tpApiDefinitionService;
+    private OpenApiAuthorizationCache openApiAuthorizationCache;
 
     @Autowired
-    private TpAppApiPermissionMapper tpAppApiPermissionMapper;
+    private OpenApiQuotaLimiter openApiQuotaLimiter;
 
     @Autowired
     private TpApiCallLogService tpApiCallLogService;
@@ -66,75 +67,82 @@ public class ApiKeyInterceptor implements HandlerInterceptor {
             }
 
             // 2. 验证API Key
-            TpThirdPartyAppVO app = null;
-            try {
-                app = tpThirdPartyAppService.validateApiKey(apiKey);
-            } catch (TopinfoRuntimeException e) {
-                // validateApiKey 内部验证失败
-                sendErrorResponse(response, e.getErrcode(), e.getMessage());
-                
-                // 尝试查询应用信息，如果能查到说明是应用存在但状态不正常（禁用/过期）
-                TpThirdPartyAppVO appInfo = tpThirdPartyAppService.getByApiKey(apiKey);
-                if (appInfo != null) {
-                    // 应用存在，记录真实的应用信息
-                    logApiCall(appInfo.getAppId(), appInfo.getAppName(), request, e.getErrcode(), e.getMessage());
-                } else {
-                    // 应用不存在，记录为未知应用
-                    logApiCallWithoutApp(apiKey, request, e.getErrcode(), e.getMessage());
-                }
+            OpenApiAuthorizationSnapshot snapshot = openApiAuthorizationCache.current();
+            OpenApiAuthorizationSnapshot.AppEntry entry = snapshot.findApp(apiKey);
+            if (entry == null) {
+                sendErrorResponse(response, 401, "无效的API Key！");
+                // 应用不存在，记录为未知应用
+                logApiCallWithoutApp(apiKey, request, 401, "无效的API Key！");
                 return false;
             }
-            
-            if (app == null) {
-                sendErrorResponse(response, 401, "无效的API Key");
-                // 记录失败日志（使用apiKey作为appId）
-                logApiCallWithoutApp(apiKey, request, 401, "无效的API Key");
+
+            TpThirdPartyApp app = entry.getApp();
+            String rejection = null;
+            if (!entry.isEnabled()) {
+                rejection = "应用已被禁用！";
+            } else if (entry.isExpired(CommonDateUtil.now())) {
+                rejection = "应用已过期！";
+            }
+            if (rejection != null) {
+                // 应用存在但状态不正常（禁用/过期），记录真实的应用信息
+                sendErrorResponse(response, 403, rejection);
+                logApiCall(app.getAppId(), app.getAppName(), request, 403, rejection);
                 return false;
             }
 
             // 3. 检查IP白名单
-            if (StrUtil.isNotBlank(app.getIpWhitelist())) {
-                String clientIp = getClientIp(request);
-                if (!checkIpWhitelist(clientIp, app.getIpWhitelist())) {
-                    LOGGER.warn("IP不在白名单中，应用：{}，客户端IP：{}", app.getAppName(), clientIp);
-                    sendErrorResponse(response, 403, "IP地址不在白名单中");
-                    logApiCall(app.getAppId(), app.getAppName(), request, 403, "IP地址不在白名单中");
-                    return false;
-                }
+            String clientIp = getClientIp(request);
+            if (!entry.isIpAllowed(clientIp)) {
+                LOGGER.warn("IP不在白名单中，应用：{}，客户端IP：{}", app.getAppName(), clientIp);
+                sendErrorResponse(response, 403, "IP地址不在白名单中");
+                logApiCall(app.getAppId(), app.getAppName(), request, 403, "IP地址不在白名单中");
+                return false;
             }
 
-            // 4. 检查API权限
-            String apiPath = request.getRequestURI();
-            String httpMethod = request.getMethod();
-            
-            TpApiDefinition apiDef = tpApiDefinitionService.getByPathAndMethod(apiPath, httpMethod);
-            if (apiDef != null) {
-                TpAppApiPermission permission = tpAppApiPermissionMapper.checkPermission(app.getAppId(), apiDef.getApiId());
-                if (permission == null) {
-                    LOGGER.warn("应用无权访问此API，应用：{}，API路径：{}", app.getAppName(), apiPath);
-                    sendErrorResponse(response, 403, "无权访问此API");
-                    logApiCall(app.getAppId(), app.getAppName(), request, 403, "无权访问此API");
-                    return false;
-                }
+            // 4. 检查API权限（按去掉上下文路径后的路径匹配，支持路径变量）
+            String apiPath = request.getRequestURI().substring(StrUtil.length(request.getContextPath()));
+            int apiOrdinal = snapshot.matchApi(apiPath, request.getMethod());
+            if (apiOrdinal >= 0 && !entry.isPermitted(apiOrdinal)) {
+                LOGGER.warn("应用无权访问此API，应用：{}，API路径：{}", app.getAppName(), apiPath);
+                sendErrorResponse(response, 403, "无权访问此API");
+                logApiCall(app.getAppId(), app.getAppName(), request, 403, "无权访问此API");
+                return false;
             }
 
-            // 5. 将应用信息存入request，供后续使用
+            // 5. 检查配额（并发、频率、每日次数）
+            TpApiDefinition api = snapshot.getApi(apiOrdinal);
+            OpenApiQuotaLimiter.Permit permit = openApiQuotaLimiter.tryAcquire(app,
+                    api != null ? api.getApiId() : null, entry.getApiQuota(apiOrdinal));
+            if (!permit.isAllowed()) {
+                LOGGER.warn("应用超出配额，应用：{}，API路径：{}，原因：{}", app.getAppName(), apiPath, permit.getMessage());
+                response.setHeader("Retry-After", String.valueOf(Math.max(1, (permit.getRetryAfterMillis() + 999) / 1000)));
+                sendErrorResponse(response, 429, permit.getMessage());
+                logApiCall(app.getAppId(), app.getAppName(), request, 429, permit.getMessage());
+                return false;
+            }
+            request.setAttribute(QUOTA_PERMIT_ATTRIBUTE, permit);
+
+            // 6. 将应用信息存入request，供后续使用
+            TpThirdPartyAppVO appInfo = new TpThirdPartyAppVO();
+            BeanUtil.copyProperties(app, appInfo);
             request.setAttribute(APP_ID_ATTRIBUTE, app.getAppId());
             request.setAttribute(APP_NAME_ATTRIBUTE, app.getAppName());
-            request.setAttribute(APP_INFO_ATTRIBUTE, app);
+            request.setAttribute(APP_INFO_ATTRIBUTE, appInfo);
 
-            // 6. 更新应用最后调用时间（异步）
-            tpThirdPartyAppService.updateLastCallTime(app.getAppId());
+            // 7. 记录应用最后调用时间（定时批量写入）
+            tpThirdPartyAppService.recordCall(app.getAppId());
 
             return true;
 
         } catch (TopinfoRuntimeException e) {
             // 其他业务异常（不应该走到这里，因为validateApiKey已经单独处理）
             LOGGER.error("API验证出现未预期的业务异常：{}", e.getMessage());
+            releasePermit(request);
             sendErrorResponse(response, e.getErrcode(), e.getMessage());
             return false;
         } catch (Exception e) {
             LOGGER.error("API Key验证失败", e);
+            releasePermit(request);
             sendErrorResponse(response, 500, "服务器内部错误");
             return false;
         }
@@ -142,6 +150,9 @@ public class ApiKeyInterceptor implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        // 归还并发名额
+        releasePermit(request);
+
         // 记录API调用日志
         try {
             String appId = (String) request.getAttribute(APP_ID_ATTRIBUTE);
@@ -174,6 +185,16 @@ public class ApiKeyInterceptor implements HandlerInterceptor {
         }
     }
 
+    /**
+     * 归还配额申请占用的并发名额
+     */
+    private void releasePermit(HttpServletRequest request) {
+        Object permit = request.getAttribute(QUOTA_PERMIT_ATTRIBUTE);
+        if (permit instanceof OpenApiQuotaLimiter.Permit) {
+            ((OpenApiQuotaLimiter.Permit) permit).release();
+        }
+    }
+
     /**
      * 发送错误响应
      */
@@ -206,23 +227,6 @@ public class ApiKeyInterceptor implements HandlerInterceptor {
         return ip;
     }
 
-    /**
-     * 检查IP是否在白名单中
-     */
-    private boolean checkIpWhitelist(String clientIp, String whitelist) {
-        if (StrUtil.isBlank(whitelist)) {
-            return true;
-        }
-        
-        String[] ips = whitelist.split(",");
-        for (String allowedIp : ips) {
-            if (allowedIp.trim().equals(clientIp)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * 记录API调用日志
      */
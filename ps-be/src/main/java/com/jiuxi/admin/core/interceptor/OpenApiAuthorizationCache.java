@@ -0,0 +1,197 @@
+package com.jiuxi.admin.core.interceptor;
+
+import com.jiuxi.admin.core.bean.entity.TpApiDefinition;
+import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
+import com.jiuxi.admin.core.event.TpThirdPartyAppChangedEvent;
+import com.jiuxi.admin.core.mapper.TpApiDefinitionMapper;
+import com.jiuxi.admin.core.mapper.TpAppApiPermissionMapper;
+import com.jiuxi.admin.core.mapper.TpThirdPartyAppMapper;
+import com.jiuxi.shared.infrastructure.cache.RedisCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @ClassName: OpenApiAuthorizationCache
+ * @Description: 开放API鉴权缓存
+ * <pre>
+ *     1. 启动时加载全部应用、API 定义和授权关系，构建 {@link OpenApiAuthorizationSnapshot}，鉴权过程不再访问数据库
+ *     2. 本节点修改应用或授权后（事务提交后）递增 redis 中的版本号并重新加载；
+ *        其它节点每秒比对版本号，不一致时重新加载，停用、删除、撤销授权、更换密钥在各节点约一秒内生效
+ *     3. 没有 redis 或读取版本号失败时只能依赖定时全量刷新
+ *     4. 加载失败时保留上一份快照
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Component
+public class OpenApiAuthorizationCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenApiAuthorizationCache.class);
+
+    @Autowired
+    private TpThirdPartyAppMapper tpThirdPartyAppMapper;
+
+    @Autowired
+    private TpApiDefinitionMapper tpApiDefinitionMapper;
+
+    @Autowired
+    private TpAppApiPermissionMapper tpAppApiPermissionMapper;
+
+    /**
+     * 鉴权数据版本号的 redis key，用于多节点之间同步
+     */
+    private static final String VERSION_KEY = "ps:openapi:auth:version";
+
+    @Autowired(required = false)
+    private RedisCacheService redisCacheService;
+
+    private final Object lock = new Object();
+
+    private volatile OpenApiAuthorizationSnapshot snapshot;
+
+    private volatile long loadedAt;
+
+    /**
+     * 当前快照对应的集群版本号，-1 表示未知
+     */
+    private volatile long version = -1;
+
+    @PostConstruct
+    public void init() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            LOGGER.warn("加载开放API鉴权缓存失败，将在首次调用时重试: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 当前快照，尚未加载时同步加载
+     */
+    public OpenApiAuthorizationSnapshot current() {
+        OpenApiAuthorizationSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * 从库重新加载
+     */
+    public void refresh() {
+        synchronized (lock) {
+            long start = System.currentTimeMillis();
+            // 先读版本号再加载，加载期间的修改会在下次比对时发现
+            long clusterVersion = readVersion();
+            List<TpThirdPartyApp> apps = tpThirdPartyAppMapper.selectAll();
+            List<TpApiDefinition> apis = tpApiDefinitionMapper.selectAll();
+            List<TpAppApiPermission> permissions = tpAppApiPermissionMapper.selectAll();
+            snapshot = OpenApiAuthorizationSnapshot.build(apps, apis, permissions);
+            version = clusterVersion;
+            loadedAt = System.currentTimeMillis();
+            LOGGER.debug("开放API鉴权缓存加载完成，应用 {} 个，API {} 个，耗时 {} ms",
+                    snapshot.appCount(), snapshot.apiCount(), loadedAt - start);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppChanged(TpThirdPartyAppChangedEvent event) {
+        try {
+            synchronized (lock) {
+                publishVersion();
+                refresh();
+            }
+        } catch (Exception e) {
+            LOGGER.error("应用 {} 变更后刷新开放API鉴权缓存失败: {}", event.getAppId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 比对集群版本号，其它节点修改了应用或授权时重新加载
+     */
+    @Scheduled(fixedDelayString = "${ps.openapi.auth.version-check-interval:1000}")
+    public void syncVersion() {
+        if (redisCacheService == null || snapshot == null) {
+            return;
+        }
+        try {
+            long clusterVersion = readVersion();
+            if (clusterVersion >= 0 && clusterVersion != version) {
+                LOGGER.info("开放API鉴权数据版本变更：{} -> {}，重新加载", version, clusterVersion);
+                refresh();
+            }
+        } catch (Exception e) {
+            LOGGER.warn("开放API鉴权数据版本同步失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定时全量刷新，兜底没有 redis 或版本号同步失败的情况
+     */
+    @Scheduled(fixedDelayString = "${ps.openapi.auth.refresh-interval:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            LOGGER.warn("定时刷新开放API鉴权缓存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 递增集群版本号通知其它节点，失败时其它节点依赖定时刷新
+     */
+    private void publishVersion() {
+        if (redisCacheService == null) {
+            return;
+        }
+        try {
+            redisCacheService.opsForValueIncrement(VERSION_KEY, 1L);
+        } catch (Exception e) {
+            LOGGER.warn("发布开放API鉴权数据版本失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 读取集群版本号，没有 redis 或读取失败时返回 -1
+     */
+    private long readVersion() {
+        if (redisCacheService == null) {
+            return -1;
+        }
+        try {
+            Object value = redisCacheService.getOpsForValue(VERSION_KEY);
+            return value == null ? 0L : Long.parseLong(String.valueOf(value));
+        } catch (Exception e) {
+            LOGGER.warn("读取开放API鉴权数据版本失败: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        OpenApiAuthorizationSnapshot current = snapshot;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("apps", current != null ? current.appCount() : 0);
+        stats.put("apis", current != null ? current.apiCount() : 0);
+        stats.put("loadedAt", loadedAt);
+        stats.put("version", version);
+        return stats;
+    }
+}
@@ -0,0 +1,333 @@
+package com.jiuxi.admin.core.interceptor;
+
+import com.jiuxi.admin.core.bean.entity.TpApiDefinition;
+import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @ClassName: OpenApiAuthorizationSnapshot
+ * @Description: 开放API鉴权快照
+ * <pre>
+ *     1. 应用按 API Key 的 SHA-256 摘要索引，快照中不保留明文 Key 作为索引
+ *     2. API 定义按 请求方法 + 路径 预编译：无路径变量的精确匹配走哈希表；含 {变量} 的按 方法 + 段数 分组逐段比较，
+ *        多个模板同时匹配时取常量段最多的一个
+ *     3. 每个 API 定义分配一个序号，应用的授权以 BitSet 保存，权限判断为一次位运算；配置了单API配额的授权另按序号保存
+ *     4. 实例不可变，由 {@link OpenApiAuthorizationCache} 整体替换
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public final class OpenApiAuthorizationSnapshot {
+
+    private static final OpenApiAuthorizationSnapshot EMPTY = build(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * key: API Key 摘要    val: 应用
+     */
+    private final Map<String, AppEntry> apps;
+
+    /**
+     * 按序号保存的 API 定义
+     */
+    private final List<TpApiDefinition> apis;
+
+    /**
+     * key: 方法 + 空格 + 路径    val: API 序号
+     */
+    private final Map<String, Integer> literalRoutes;
+
+    /**
+     * key: 方法 + 空格 + 段数    val: 路径模板
+     */
+    private final Map<String, List<RouteTemplate>> templateRoutes;
+
+    private OpenApiAuthorizationSnapshot(Map<String, AppEntry> apps, List<TpApiDefinition> apis,
+                                         Map<String, Integer> literalRoutes, Map<String, List<RouteTemplate>> templateRoutes) {
+        this.apps = apps;
+        this.apis = apis;
+        this.literalRoutes = literalRoutes;
+        this.templateRoutes = templateRoutes;
+    }
+
+    public static OpenApiAuthorizationSnapshot empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建快照，路径或方法为空的 API 定义被忽略，同一方法和路径重复定义时保留第一个
+     *
+     * @param apps        全部应用（需包含 API Key）
+     * @param apis        全部 API 定义
+     * @param permissions 全部应用 API 权限
+     */
+    public static OpenApiAuthorizationSnapshot build(List<TpThirdPartyApp> apps, List<TpApiDefinition> apis,
+                                                     List<TpAppApiPermission> permissions) {
+        List<TpApiDefinition> ordered = new ArrayList<>(apis.size());
+        Map<String, Integer> ordinals = new HashMap<>();
+        Map<String, Integer> literalRoutes = new HashMap<>();
+        Map<String, List<RouteTemplate>> templateRoutes = new HashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (TpApiDefinition api : apis) {
+            if (api == null || isBlank(api.getApiPath()) || isBlank(api.getHttpMethod())) {
+                continue;
+            }
+            String method = api.getHttpMethod().trim().toUpperCase(Locale.ROOT);
+            String[] segments = segments(api.getApiPath());
+            if (!seen.add(method + " " + String.join("/", segments))) {
+                continue;
+            }
+            int ordinal = ordered.size();
+            ordered.add(api);
+            if (api.getApiId() != null) {
+                ordinals.putIfAbsent(api.getApiId(), ordinal);
+            }
+            RouteTemplate template = RouteTemplate.compile(segments, ordinal);
+            if (template.variables == 0) {
+                literalRoutes.put(method + " " + String.join("/", segments), ordinal);
+            } else {
+                templateRoutes.computeIfAbsent(method + " " + segments.length, k -> new ArrayList<>()).add(template);
+            }
+        }
+        // 常量段多的模板优先匹配
+        templateRoutes.values().forEach(list -> list.sort((a, b) -> Integer.compare(b.literals(), a.literals())));
+
+        Map<String, BitSet> granted = new HashMap<>();
+        Map<String, Map<Integer, TpAppApiPermission>> quotas = new HashMap<>();
+        for (TpAppApiPermission permission : permissions) {
+            Integer ordinal = permission.getApiId() != null ? ordinals.get(permission.getApiId()) : null;
+            if (permission.getAppId() != null && ordinal != null) {
+                granted.computeIfAbsent(permission.getAppId(), k -> new BitSet(ordered.size())).set(ordinal);
+                if (positive(permission.getRateLimit()) || positive(permission.getDailyQuota())) {
+                    quotas.computeIfAbsent(permission.getAppId(), k -> new HashMap<>()).put(ordinal, permission);
+                }
+            }
+        }
+
+        Map<String, AppEntry> appIndex = new HashMap<>(Math.max(16, (int) (apps.size() / 0.75f) + 1));
+        for (TpThirdPartyApp app : apps) {
+            if (app == null || isBlank(app.getApiKey())) {
+                continue;
+            }
+            BitSet bits = granted.getOrDefault(app.getAppId(), new BitSet(0));
+            Map<Integer, TpAppApiPermission> apiQuotas = quotas.getOrDefault(app.getAppId(), Collections.emptyMap());
+            appIndex.put(hashKey(app.getApiKey()), new AppEntry(app, bits, apiQuotas, parseWhitelist(app.getIpWhitelist())));
+        }
+        return new OpenApiAuthorizationSnapshot(appIndex, Collections.unmodifiableList(ordered), literalRoutes, templateRoutes);
+    }
+
+    /**
+     * 根据 API Key 查找应用，不存在时返回 null
+     */
+    public AppEntry findApp(String apiKey) {
+        return isBlank(apiKey) ? null : apps.get(hashKey(apiKey));
+    }
+
+    /**
+     * 匹配请求路径（不含上下文路径）和方法
+     *
+     * @return API 序号，没有匹配的定义时为 -1
+     */
+    public int matchApi(String path, String method) {
+        if (path == null || isBlank(method)) {
+            return -1;
+        }
+        String upper = method.trim().toUpperCase(Locale.ROOT);
+        String[] segments = segments(path);
+        Integer ordinal = literalRoutes.get(upper + " " + String.join("/", segments));
+        if (ordinal != null) {
+            return ordinal;
+        }
+        List<RouteTemplate> candidates = templateRoutes.get(upper + " " + segments.length);
+        if (candidates != null) {
+            for (RouteTemplate template : candidates) {
+                if (template.matches(segments)) {
+                    return template.ordinal;
+                }
+            }
+        }
+        return -1;
+    }
+
+    public TpApiDefinition getApi(int ordinal) {
+        return ordinal >= 0 && ordinal < apis.size() ? apis.get(ordinal) : null;
+    }
+
+    public int appCount() {
+        return apps.size();
+    }
+
+    public int apiCount() {
+        return apis.size();
+    }
+
+    /**
+     * API Key 摘要（SHA-256 十六进制）
+     */
+    public static String hashKey(String apiKey) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(apiKey.trim().getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 路径按 / 拆分，忽略空段（即忽略重复和结尾的 /）
+     */
+    private static String[] segments(String path) {
+        List<String> list = new ArrayList<>();
+        for (String segment : path.trim().split("/")) {
+            if (!segment.isEmpty()) {
+                list.add(segment);
+            }
+        }
+        return list.toArray(new String[0]);
+    }
+
+    private static Set<String> parseWhitelist(String whitelist) {
+        if (isBlank(whitelist)) {
+            return null;
+        }
+        Set<String> ips = new HashSet<>();
+        for (String ip : whitelist.split(",")) {
+            ips.add(ip.trim());
+        }
+        return ips;
+    }
+
+    private static boolean positive(Integer value) {
+        return value != null && value > 0;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * 应用及其授权
+     */
+    public static final class AppEntry {
+
+        private final TpThirdPartyApp app;
+
+        private final BitSet permissions;
+
+        /**
+         * key: API 序号    val: 配置了配额的授权
+         */
+        private final Map<Integer, TpAppApiPermission> apiQuotas;
+
+        /**
+         * IP 白名单，未配置时为 null
+         */
+        private final Set<String> ipWhitelist;
+
+        private AppEntry(TpThirdPartyApp app, BitSet permissions, Map<Integer, TpAppApiPermission> apiQuotas,
+                         Set<String> ipWhitelist) {
+            this.app = app;
+            this.permissions = permissions;
+            this.apiQuotas = apiQuotas;
+            this.ipWhitelist = ipWhitelist;
+        }
+
+        public TpThirdPartyApp getApp() {
+            return app;
+        }
+
+        /**
+         * 应用是否启用（status = 1）
+         */
+        public boolean isEnabled() {
+            return app.getStatus() != null && app.getStatus() == 1;
+        }
+
+        /**
+         * 是否已过期，now 与 expireTime 同为 yyyyMMddHHmmss 格式
+         */
+        public boolean isExpired(String now) {
+            return !isBlank(app.getExpireTime()) && now.compareTo(app.getExpireTime()) > 0;
+        }
+
+        public boolean isIpAllowed(String clientIp) {
+            return ipWhitelist == null || ipWhitelist.contains(clientIp);
+        }
+
+        public boolean isPermitted(int apiOrdinal) {
+            return apiOrdinal >= 0 && permissions.get(apiOrdinal);
+        }
+
+        /**
+         * 该 API 的配额配置，未配置时返回 null
+         */
+        public TpAppApiPermission getApiQuota(int apiOrdinal) {
+            return apiQuotas.get(apiOrdinal);
+        }
+    }
+
+    /**
+     * 预编译的路径模板，{xxx} 段匹配任意非空段
+     */
+    private static final class RouteTemplate {
+
+        /**
+         * 常量段，变量段为 null
+         */
+        private final String[] segments;
+
+        private final int variables;
+
+        private final int ordinal;
+
+        private RouteTemplate(String[] segments, int variables, int ordinal) {
+            this.segments = segments;
+            this.variables = variables;
+            this.ordinal = ordinal;
+        }
+
+        static RouteTemplate compile(String[] segments, int ordinal) {
+            String[] compiled = new String[segments.length];
+            int variables = 0;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    variables++;
+                } else {
+                    compiled[i] = segment;
+                }
+            }
+            return new RouteTemplate(compiled, variables, ordinal);
+        }
+
+        int literals() {
+            return segments.length - variables;
+        }
+
+        boolean matches(String[] path) {
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i] != null && !segments[i].equals(path[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.jiuxi.admin.core.interceptor;
+
+import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpAppApiUsage;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
+import com.jiuxi.admin.core.mapper.TpAppApiUsageMapper;
+import com.jiuxi.common.util.CommonDateUtil;
+import com.jiuxi.shared.infrastructure.ratelimit.LocalRateLimiterEngine;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitAlgorithm;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitDecision;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitRule;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimiterEngine;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @ClassName: OpenApiQuotaLimiter
+ * @Description: 开放API配额限制
+ * <pre>
+ *     1. 并发：按应用统计本节点进行中的请求数，超过 max_concurrency 拒绝，避免单个应用占满 Tomcat 线程池
+ *     2. 频率：应用 rate_limit、应用API rate_limit（次/秒）走令牌桶，默认使用本地限流引擎；
+ *        开启 ps.openapi.quota.distributed 后使用共享限流引擎（有 Redis 时为 Redis 引擎），各节点共用一个额度
+ *     3. 每日次数：按 日期 + 应用 + API 在内存中计数，定时把增量累加写入 tp_app_api_usage，
+ *        写入后重新读取当天各节点的合计作为基数，因此各节点的每日额度最多滞后一个写入周期
+ *     4. 先计数后判断，超限时回退；写入时先计入写入中再从本地计数扣除，读到中间状态时重复计数。
+ *        单节点并发时通常偏严，但回退与写入交错时被写入带走的计数会在下个写入周期前少计，
+ *        加上多节点的写入滞后，每日额度是近似上限，可能少量超发
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Component
+public class OpenApiQuotaLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OpenApiQuotaLimiter.class);
+
+    static final String RESOURCE = "open-api";
+
+    /**
+     * 应用级每日计数使用的 API 标识
+     */
+    private static final String ALL_APIS = "*";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final RateLimiterEngine engine;
+
+    private final TpAppApiUsageMapper usageMapper;
+
+    /**
+     * 当天日期（yyyyMMdd）
+     */
+    private final Supplier<String> today;
+
+    /**
+     * key: 应用ID    val: 进行中的请求数
+     */
+    private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * key: 日期|应用ID|API ID（应用合计为 *）    val: 计数
+     */
+    private final ConcurrentHashMap<String, DailyCounter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 最近一次从库读取的合计，新建计数器时作为基数，key 同 counters
+     */
+    private volatile Map<String, Long> lastTotals = Collections.emptyMap();
+
+    private final AtomicLong flushFailures = new AtomicLong();
+
+    @Autowired
+    public OpenApiQuotaLimiter(TpAppApiUsageMapper usageMapper, ObjectProvider<RateLimiterEngine> sharedEngine,
+                               @Value("${ps.openapi.quota.distributed:false}") boolean distributed) {
+        this(distributed ? sharedEngine.getIfAvailable(LocalRateLimiterEngine::new) : new LocalRateLimiterEngine(),
+                usageMapper, () -> CommonDateUtil.now().substring(0, 8));
+    }
+
+    OpenApiQuotaLimiter(RateLimiterEngine engine, TpAppApiUsageMapper usageMapper, Supplier<String> today) {
+        this.engine = engine;
+        this.usageMapper = usageMapper;
+        this.today = today;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reloadTotals(today.get());
+        } catch (Exception e) {
+            LOGGER.warn("读取当天开放API用量失败，每日配额从0开始计数: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 申请一次调用，放行后须在请求结束时调用 {@link Permit#release()}
+     *
+     * @param app      应用
+     * @param apiId    匹配到的API ID，未匹配时为 null
+     * @param apiQuota 该应用该API的配额配置，未配置时为 null
+     */
+    public Permit tryAcquire(TpThirdPartyApp app, String apiId, TpAppApiPermission apiQuota) {
+        String appId = app.getAppId();
+        String date = today.get();
+        DailyCounter usage = counter(date, appId, apiId == null ? "" : apiId);
+
+        AtomicInteger running = null;
+        if (positive(app.getMaxConcurrency())) {
+            running = inFlight.computeIfAbsent(appId, k -> new AtomicInteger());
+            if (running.incrementAndGet() > app.getMaxConcurrency()) {
+                running.decrementAndGet();
+                return reject(usage, "并发请求数超过限制", 1000);
+            }
+        }
+
+        if (positive(app.getRateLimit())) {
+            RateLimitDecision decision = engine.tryAcquire(RESOURCE, appId, perSecond(app.getRateLimit()));
+            if (!decision.isAllowed()) {
+                return reject(usage, running, "调用频率超过限制", decision.getRetryAfterMillis());
+            }
+        }
+        if (apiQuota != null && positive(apiQuota.getRateLimit())) {
+            RateLimitDecision decision = engine.tryAcquire(RESOURCE, appId + ":" + apiId, perSecond(apiQuota.getRateLimit()));
+            if (!decision.isAllowed()) {
+                return reject(usage, running, "调用频率超过限制", decision.getRetryAfterMillis());
+            }
+        }
+
+        DailyCounter appTotal = counter(date, appId, ALL_APIS);
+        if (!appTotal.tryConsume(app.getDailyQuota())) {
+            return reject(usage, running, "今日调用次数已达上限", millisUntilTomorrow());
+        }
+        if (!usage.tryConsume(apiQuota != null ? apiQuota.getDailyQuota() : null)) {
+            appTotal.pending.decrement();
+            return reject(usage, running, "今日调用次数已达上限", millisUntilTomorrow());
+        }
+        return new Permit(true, null, 0, running);
+    }
+
+    /**
+     * 应用当天已用次数（含未写入的本地计数）
+     */
+    public long usedToday(String appId, String apiId) {
+        DailyCounter counter = counters.get(today.get() + "|" + appId + "|" + (apiId == null ? ALL_APIS : apiId));
+        return counter != null ? counter.used() : 0L;
+    }
+
+    /**
+     * 把本地计数累加写入用量表，并重新读取当天合计
+     */
+    @Scheduled(fixedDelayString = "${ps.openapi.quota.flush-interval:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        String date = today.get();
+        List<TpAppApiUsage> rows = new ArrayList<>();
+        Map<DailyCounter, long[]> drained = new HashMap<>();
+        String now = CommonDateUtil.now();
+        for (Map.Entry<String, DailyCounter> entry : counters.entrySet()) {
+            DailyCounter counter = entry.getValue();
+            // sumThenReset 不是原子操作，求和与清零之间的计数会丢失；只扣除读到的数量，并发的计数留到下次写入
+            long calls = counter.pending.sum();
+            long rejected = counter.rejected.sum();
+            // 先计入写入中再扣除，期间重复计数只会偏严
+            counter.flushing += calls;
+            counter.pending.add(-calls);
+            counter.rejected.add(-rejected);
+            drained.put(counter, new long[]{calls, rejected});
+            if (!ALL_APIS.equals(counter.apiId) && (calls > 0 || rejected > 0)) {
+                TpAppApiUsage row = new TpAppApiUsage();
+                row.setStatDate(counter.date);
+                row.setAppId(counter.appId);
+                row.setApiId(counter.apiId);
+                row.setCallCount(calls);
+                row.setRejectedCount(rejected);
+                row.setUpdateTime(now);
+                rows.add(row);
+            }
+        }
+
+        try {
+            for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+                usageMapper.batchIncrease(rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+            }
+        } catch (Exception e) {
+            // 写入失败时放回本地计数，下次再写（累加写入，部分批次已成功时会重复累加，偏严）；同样先放回再扣除写入中
+            drained.forEach((counter, values) -> {
+                counter.pending.add(values[0]);
+                counter.rejected.add(values[1]);
+                counter.flushing -= values[0];
+            });
+            flushFailures.incrementAndGet();
+            LOGGER.error("写入开放API用量失败！行数:{}, 错误: {}", rows.size(), ExceptionUtils.getStackTrace(e));
+            return;
+        }
+
+        counters.entrySet().removeIf(entry -> !entry.getValue().date.equals(date));
+        try {
+            reloadTotals(date);
+        } catch (Exception e) {
+            LOGGER.warn("读取当天开放API用量失败，继续使用本地计数: {}", e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("engine", engine.getType());
+        stats.put("counters", counters.size());
+        Map<String, Integer> running = new LinkedHashMap<>();
+        inFlight.forEach((appId, count) -> {
+            if (count.get() > 0) {
+                running.put(appId, count.get());
+            }
+        });
+        stats.put("inFlight", running);
+        stats.put("flushFailures", flushFailures.get());
+        return stats;
+    }
+
+    private void reloadTotals(String date) {
+        Map<String, Long> totals = new HashMap<>();
+        for (TpAppApiUsage row : usageMapper.selectByDate(date)) {
+            long calls = row.getCallCount() != null ? row.getCallCount() : 0L;
+            totals.merge(date + "|" + row.getAppId() + "|" + row.getApiId(), calls, Long::sum);
+            totals.merge(date + "|" + row.getAppId() + "|" + ALL_APIS, calls, Long::sum);
+        }
+        lastTotals = totals;
+        for (Map.Entry<String, DailyCounter> entry : counters.entrySet()) {
+            DailyCounter counter = entry.getValue();
+            // 先更新基数再清零写入中的计数，读到中间状态时只会偏严
+            counter.baseline = totals.getOrDefault(entry.getKey(), 0L);
+            counter.flushing = 0;
+        }
+    }
+
+    private DailyCounter counter(String date, String appId, String apiId) {
+        String key = date + "|" + appId + "|" + apiId;
+        return counters.computeIfAbsent(key, k -> new DailyCounter(date, appId, apiId, lastTotals.getOrDefault(k, 0L)));
+    }
+
+    private Permit reject(DailyCounter usage, AtomicInteger running, String message, long retryAfterMillis) {
+        if (running != null) {
+            running.decrementAndGet();
+        }
+        return reject(usage, message, retryAfterMillis);
+    }
+
+    private Permit reject(DailyCounter usage, String message, long retryAfterMillis) {
+        usage.rejected.increment();
+        return new Permit(false, message, retryAfterMillis, null);
+    }
+
+    private static RateLimitRule perSecond(int limit) {
+        return RateLimitRule.of(limit, 1000, RateLimitAlgorithm.TOKEN_BUCKET);
+    }
+
+    private static long millisUntilTomorrow() {
+        LocalDateTime now = LocalDateTime.now();
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay()).toMillis();
+    }
+
+    private static boolean positive(Integer value) {
+        return value != null && value > 0;
+    }
+
+    /**
+     * 某应用（某API）当天的计数
+     */
+    static final class DailyCounter {
+
+        private final String date;
+
+        private final String appId;
+
+        private final String apiId;
+
+        /**
+         * 尚未写入的放行次数
+         */
+        private final LongAdder pending = new LongAdder();
+
+        /**
+         * 尚未写入的拒绝次数
+         */
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * 正在写入、尚未计入基数的放行次数
+         */
+        private volatile long flushing;
+
+        /**
+         * 最近一次从库读取的各节点合计
+         */
+        private volatile long baseline;
+
+        DailyCounter(String date, String appId, String apiId, long baseline) {
+            this.date = date;
+            this.appId = appId;
+            this.apiId = apiId;
+            this.baseline = baseline;
+        }
+
+        long used() {
+            return baseline + flushing + pending.sum();
+        }
+
+        boolean tryConsume(Integer quota) {
+            pending.increment();
+            if (quota != null && quota > 0 && used() > quota) {
+                pending.decrement();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 申请结果
+     */
+    public static final class Permit {
+
+        private final boolean allowed;
+
+        private final String message;
+
+        private final long retryAfterMillis;
+
+        private AtomicInteger running;
+
+        private Permit(boolean allowed, String message, long retryAfterMillis, AtomicInteger running) {
+            this.allowed = allowed;
+            this.message = message;
+            this.retryAfterMillis = retryAfterMillis;
+            this.running = running;
+        }
+
+        public boolean isAllowed() {
+            return allowed;
+        }
+
+        /**
+         * 拒绝原因
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        public long getRetryAfterMillis() {
+            return retryAfterMillis;
+        }
+
+        /**
+         * 请求结束，归还并发名额，重复调用无副作用
+         */
+        public synchronized void release() {
+            if (running != null) {
+                running.decrementAndGet();
+                running = null;
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import com.jiuxi.admin.core.bean.vo.TpAccountVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -36,4 +37,20 @@ public interface TpAccountMapper {
     int updateStatus(@Param("accountId") String accountId, @Param("enabled") Integer enabled);
     
     int updateLockStatus(@Param("accountId") String accountId, @Param("locked") Integer locked);
+
+    /**
+     * 根据账号名批量查询有效账号（仅返回账号ID、账号名、人员ID）
+     *
+     * @param usernames 账号名集合
+     * @return 账号列表
+     */
+    List<TpAccount> selectByUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * 批量插入账号
+     *
+     * @param list 账号列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<TpAccount> list);
 }
\ No newline at end of file
@@ -8,6 +8,8 @@ import com.jiuxi.admin.core.bean.vo.TpApiCallLogVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.List;
+
 /**
  * API调用日志Mapper
  *
@@ -41,4 +43,12 @@ public interface TpApiCallLogMapper {
      * @return 影响行数
      */
     int insert(TpApiCallLog log);
+
+    /**
+     * 批量插入API调用日志（多行 INSERT）
+     *
+     * @param list 日志实体列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<TpApiCallLog> list);
 }
@@ -49,6 +49,25 @@ public interface TpAppApiPermissionMapper {
      */
     TpAppApiPermission checkPermission(@Param("appId") String appId, @Param("apiId") String apiId);
 
+    /**
+     * 查询全部应用API权限（仅 appId、apiId），用于开放API鉴权缓存
+     *
+     * @return 权限列表
+     */
+    List<TpAppApiPermission> selectAll();
+
+    /**
+     * 更新应用API配额
+     *
+     * @param appId      应用ID
+     * @param apiId      API ID
+     * @param rateLimit  频率上限（次/秒），为空表示不限
+     * @param dailyQuota 每日次数上限，为空表示不限
+     * @return 影响行数
+     */
+    int updateQuota(@Param("appId") String appId, @Param("apiId") String apiId,
+                    @Param("rateLimit") Integer rateLimit, @Param("dailyQuota") Integer dailyQuota);
+
     /**
      * 新增应用API权限
      *
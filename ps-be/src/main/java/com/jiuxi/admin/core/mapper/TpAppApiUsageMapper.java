@@ -0,0 +1,45 @@
+package com.jiuxi.admin.core.mapper;
+
+import com.jiuxi.admin.core.bean.entity.TpAppApiUsage;
+import com.jiuxi.admin.core.bean.vo.TpAppApiUsageVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 开放API调用用量Mapper
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Mapper
+public interface TpAppApiUsageMapper {
+
+    /**
+     * 批量累加用量，记录不存在时新增
+     *
+     * @param list 用量增量
+     * @return 影响行数
+     */
+    int batchIncrease(@Param("list") List<TpAppApiUsage> list);
+
+    /**
+     * 查询指定日期全部应用的用量
+     *
+     * @param statDate 统计日期（yyyyMMdd）
+     * @return 用量列表
+     */
+    List<TpAppApiUsage> selectByDate(@Param("statDate") String statDate);
+
+    /**
+     * 查询配额用量统计
+     *
+     * @param appId     应用ID，为空时查询全部应用
+     * @param startDate 开始日期（yyyyMMdd）
+     * @param endDate   结束日期（yyyyMMdd）
+     * @return 用量列表
+     */
+    List<TpAppApiUsageVO> selectUsage(@Param("appId") String appId, @Param("startDate") String startDate,
+                                      @Param("endDate") String endDate);
+}
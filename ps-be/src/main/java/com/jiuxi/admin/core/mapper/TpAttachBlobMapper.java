@@ -0,0 +1,59 @@
+package com.jiuxi.admin.core.mapper;
+
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+/**
+ * @ClassName: TpAttachBlobMapper
+ * @Description: 附件内容引用计数
+ * @Author jiuxx
+ * @Date 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Mapper
+public interface TpAttachBlobMapper {
+
+    TpAttachBlob view(@Param("digest") String digest);
+
+    /**
+     * 加锁读取内容记录（SELECT ... FOR UPDATE），须在事务中调用，锁持有到事务结束
+     *
+     * @param digest
+     * @return com.jiuxi.admin.core.bean.entity.TpAttachBlob
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    TpAttachBlob viewForUpdate(@Param("digest") String digest);
+
+    /**
+     * 新增引用：内容不存在时插入，引用数为1；已存在时引用数加1
+     *
+     * @param bean
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int acquire(TpAttachBlob bean);
+
+    /**
+     * 释放引用：引用数减1，不会小于0
+     *
+     * @param digest
+     * @param updateTime
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int release(@Param("digest") String digest, @Param("updateTime") String updateTime);
+
+    /**
+     * 删除已无引用的内容记录
+     *
+     * @param digest
+     * @return int 删除成功返回1，仍有引用返回0
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int deleteUnreferenced(@Param("digest") String digest);
+}
@@ -74,4 +74,25 @@ public interface TpAttachinfoMapper {
      */
     String exists(@Param("attachId") String attachId);
 
+    /**
+     * 查询附件存放路径 （忽略actived字段）
+     *
+     * @param attachId
+     * @return java.lang.String
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    String selectSavePath(@Param("attachId") String attachId);
+
+    /**
+     * 查询创建人引用该存放路径的任一附件id （忽略actived字段）
+     *
+     * @param savePath
+     * @param creator
+     * @return java.lang.String 没有时返回 null
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    String selectIdBySavePathAndCreator(@Param("savePath") String savePath, @Param("creator") String creator);
+
 }
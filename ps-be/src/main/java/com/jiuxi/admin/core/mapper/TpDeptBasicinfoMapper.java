@@ -7,6 +7,7 @@ import com.jiuxi.common.bean.TreeNode;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -24,12 +25,13 @@ public interface TpDeptBasicinfoMapper {
      * 根据部门层级code查询部门所有的下级部门列表
      *
      * @param levelCode 层级code
+     * @param deptIds   层级索引算出的本级及下级部门id，不为空时按id查询，为空时按层级code模糊查询
      * @param category  部门类别
      * @return java.util.List<com.jiuxi.admin.core.bean.vo.TpDeptBasicinfoVO>
      * @author Ypp
      * @date 2020/11/20 14:37
      */
-    List<TreeNode> selectDeptListByLevelCode(@Param("levelCode") String levelCode, @Param("category") int category);
+    List<TreeNode> selectDeptListByLevelCode(@Param("levelCode") String levelCode, @Param("deptIds") Collection<String> deptIds, @Param("category") int category);
 
     /**
      * 根据父部门ID Pid查询下级部门列表信息
@@ -135,4 +137,14 @@ public interface TpDeptBasicinfoMapper {
      * @date 2024/12/19
      */
     TpDeptBasicinfoVO selectDeptByName(String deptName);
+
+    /**
+     * 根据部门名称批量查询有效部门，全称或简称命中其一即返回
+     *
+     * @param deptNames 部门名称集合
+     * @return java.util.List<com.jiuxi.admin.core.bean.vo.TpDeptBasicinfoVO>
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    List<TpDeptBasicinfoVO> selectDeptsByNames(@Param("deptNames") Collection<String> deptNames);
 }
@@ -0,0 +1,142 @@
+package com.jiuxi.admin.core.mapper;
+
+import com.jiuxi.admin.core.bean.entity.TpFileCatalog;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @ClassName: TpFileCatalogMapper
+ * @Description: 文件目录索引
+ * @Author jiuxx
+ * @Date 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Mapper
+public interface TpFileCatalogMapper {
+
+    /**
+     * 新增或覆盖一条索引
+     *
+     * @param bean
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int save(TpFileCatalog bean);
+
+    /**
+     * 校对写入：新文件插入；已有记录只更新大小、修改时间和同步时间，保留原始名称等上传信息，
+     * 大小或修改时间变化时MD5置空
+     *
+     * @param list
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int syncBatch(@Param("list") List<TpFileCatalog> list);
+
+    /**
+     * 以源文件的上传信息新增目标文件的索引，源文件没有索引时不新增
+     *
+     * @param sourcePath
+     * @param bean       目标文件
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int copy(@Param("sourcePath") String sourcePath, @Param("bean") TpFileCatalog bean);
+
+    /**
+     * 修改索引的路径
+     *
+     * @param sourcePath
+     * @param bean       新路径、分类、名称、扩展名和同步时间
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int rename(@Param("sourcePath") String sourcePath, @Param("bean") TpFileCatalog bean);
+
+    int delete(@Param("filePath") String filePath);
+
+    int deleteBatch(@Param("list") List<String> filePaths);
+
+    /**
+     * 删除路径以 prefix 开头的索引，prefix 中的 LIKE 通配符需已转义
+     *
+     * @param prefix
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int deleteByPrefix(@Param("prefix") String prefix);
+
+    /**
+     * 删除早于 syncTime 同步的记录，每次最多 limit 条
+     *
+     * @param syncTime
+     * @param limit
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int deleteStale(@Param("syncTime") long syncTime, @Param("limit") int limit);
+
+    /**
+     * 按修改时间倒序分页查询，keyword 中的 LIKE 通配符需已转义
+     *
+     * @param category
+     * @param keyword
+     * @param fileExts
+     * @param offset
+     * @param limit
+     * @return java.util.List<com.jiuxi.admin.core.bean.entity.TpFileCatalog>
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    List<TpFileCatalog> list(@Param("category") String category, @Param("keyword") String keyword,
+                             @Param("fileExts") List<String> fileExts, @Param("offset") long offset,
+                             @Param("limit") int limit);
+
+    long count(@Param("category") String category, @Param("keyword") String keyword,
+               @Param("fileExts") List<String> fileExts);
+
+    /**
+     * 按修改时间、路径顺序取出修改时间早于 before 的记录，从 (afterModified, afterPath) 之后开始
+     *
+     * @param before
+     * @param afterModified
+     * @param afterPath     为空时从头开始
+     * @param limit
+     * @return java.util.List<com.jiuxi.admin.core.bean.entity.TpFileCatalog>
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    List<TpFileCatalog> listExpired(@Param("before") long before, @Param("afterModified") Long afterModified,
+                                    @Param("afterPath") String afterPath, @Param("limit") int limit);
+
+    /**
+     * 按分类汇总文件数和大小
+     *
+     * @return java.util.List<java.util.Map < java.lang.String, java.lang.Object>> category, fileCount, totalSize
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    List<Map<String, Object>> sumByCategory();
+
+    /**
+     * 汇总修改时间在 [from, to) 内的文件数和大小
+     *
+     * @param from 为空时不限制
+     * @param to   为空时不限制
+     * @return java.util.Map<java.lang.String, java.lang.Object> fileCount, totalSize
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    Map<String, Object> sumByTime(@Param("from") Long from, @Param("to") Long to);
+
+    Integer selectAny();
+}
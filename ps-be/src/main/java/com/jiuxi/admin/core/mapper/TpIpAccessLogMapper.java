@@ -97,4 +97,11 @@ public interface TpIpAccessLogMapper extends BaseMapper<TpIpAccessLog> {
     Integer countAccessByIpAndTime(@Param("clientIp") String clientIp, 
                                    @Param("startTime") String startTime, 
                                    @Param("endTime") String endTime);
+
+    /**
+     * 批量插入IP访问日志（多行 INSERT）
+     * @param list 日志列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<TpIpAccessLog> list);
 }
\ No newline at end of file
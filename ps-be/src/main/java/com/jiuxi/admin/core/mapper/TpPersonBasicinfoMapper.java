@@ -8,6 +8,7 @@ import com.jiuxi.admin.core.bean.vo.TpPersonBasicinfoVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -70,4 +71,20 @@ public interface TpPersonBasicinfoMapper {
     void updateAscnIdByDeptIds(@Param("deptIds") List<String> deptIds, @Param("ascnId") String ascnId, @Param("updateTime") String updateTime);
     
     List<TpPersonBasicinfoVO> getBaseInfoByIdCard(String idcard);
+
+    /**
+     * 批量查询已被有效人员占用的身份证号码
+     *
+     * @param idcards 身份证号码集合
+     * @return 已存在的身份证号码
+     */
+    List<String> selectActivedIdcards(@Param("idcards") Collection<String> idcards);
+
+    /**
+     * 批量插入人员基本信息
+     *
+     * @param list 人员列表
+     * @return 影响行数
+     */
+    int batchInsert(@Param("list") List<TpPersonBasicinfo> list);
 }
\ No newline at end of file
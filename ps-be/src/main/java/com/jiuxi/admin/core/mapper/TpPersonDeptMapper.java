@@ -5,6 +5,7 @@ import com.jiuxi.admin.core.bean.vo.TpPersonDeptVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -59,4 +60,24 @@ public interface TpPersonDeptMapper {
 
     int update(TpPersonDept bean);
 
+    /**
+     * 批量查询人员的部门关系
+     *
+     * @param personIds 人员id集合
+     * @return java.util.List<com.jiuxi.admin.core.bean.vo.TpPersonDeptVO>
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    List<TpPersonDeptVO> selectByPersonIds(@Param("personIds") Collection<String> personIds);
+
+    /**
+     * 批量插入人员部门关系
+     *
+     * @param list 人员部门关系
+     * @return int
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    int batchInsert(@Param("list") List<TpPersonDept> list);
+
 }
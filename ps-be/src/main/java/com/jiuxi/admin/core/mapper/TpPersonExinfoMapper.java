@@ -3,6 +3,9 @@ package com.jiuxi.admin.core.mapper;
 import com.jiuxi.admin.core.bean.entity.TpPersonExinfo;
 import com.jiuxi.admin.core.bean.vo.TpPersonExinfoVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * @ClassName: TpPersonExinfoMapper
@@ -22,4 +25,6 @@ public interface TpPersonExinfoMapper {
 
     int update(TpPersonExinfo bean);
 
+    int batchInsert(@Param("list") List<TpPersonExinfo> list);
+
 }
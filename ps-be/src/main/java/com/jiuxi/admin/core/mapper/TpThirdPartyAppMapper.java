@@ -86,6 +86,21 @@ public interface TpThirdPartyAppMapper {
      */
     int updateLastCallTime(@Param("appId") String appId, @Param("lastCallTime") String lastCallTime);
 
+    /**
+     * 批量更新应用最后调用时间
+     *
+     * @param list 应用列表（appId, lastCallTime）
+     * @return 影响行数
+     */
+    int batchUpdateLastCallTime(@Param("list") List<TpThirdPartyAppVO> list);
+
+    /**
+     * 查询全部应用（包含API Key），用于开放API鉴权缓存
+     *
+     * @return 应用列表
+     */
+    List<TpThirdPartyApp> selectAll();
+
     /**
      * 更新应用状态
      *
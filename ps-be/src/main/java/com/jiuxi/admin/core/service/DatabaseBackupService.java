@@ -1,6 +1,7 @@
 package com.jiuxi.admin.core.service;
 
 import com.jiuxi.admin.core.bean.vo.TpDatabaseBackupLogVO;
+import com.jiuxi.shared.infrastructure.persistence.backup.DumpVerifyResult;
 
 /**
  * @ClassName: DatabaseBackupService
@@ -68,6 +69,15 @@ public interface DatabaseBackupService {
      */
     boolean stopBackup(String backupId, String operator);
 
+    /**
+     * 校验备份文件
+     * 重新计算 SHA-256 与备份时记录的值比对，并检查压缩完整性和 mysqldump 结束标记
+     *
+     * @param backupId 备份记录ID
+     * @return 校验结果
+     */
+    DumpVerifyResult verifyBackup(String backupId);
+
     /**
      * 测试mysqldump连接
      *
@@ -71,5 +71,20 @@ public interface FileService {
      */
     void downloadByPath(String filePath, String downFileName, HttpServletRequest request, HttpServletResponse response) throws Exception;
 
+    /**
+     * 秒传：创建人已上传过相同内容时直接生成附件记录
+     *
+     * @param digest    文件 SHA-256（小写十六进制）
+     * @param size      文件大小（字节）
+     * @param fileName  附件名
+     * @param creator   创建人
+     * @param referType 图片类型
+     * @param referId   业务id
+     * @return 附件记录，内容不存在或创建人未上传过该内容时返回 null，需要按普通方式上传
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    TpAttachinfo uploadByDigest(String digest, long size, String fileName, String creator, String referType, String referId) throws TopinfoRuntimeException;
+
 
 }
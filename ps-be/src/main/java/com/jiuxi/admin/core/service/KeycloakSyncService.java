@@ -106,6 +106,14 @@ public interface KeycloakSyncService {
      */
     MultiCredentialSyncResult disableAllCredentials(String accountId);
 
+    /**
+     * 批量对账：分页读取一遍Keycloak用户，与本地Keycloak账号记录比对后只处理差异
+     *
+     * @param dryRun 为true时只统计差异，不做修改
+     * @return 对账结果
+     */
+    ReconcileResult reconcileAccounts(boolean dryRun);
+
     /**
      * Keycloak同步结果
      */
@@ -397,4 +405,170 @@ public interface KeycloakSyncService {
                     '}';
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Keycloak用户对账结果
+     */
+    class ReconcileResult {
+
+        /**
+         * 保留的失败明细条数
+         */
+        private static final int MAX_FAILURES = 100;
+
+        private boolean success;
+        private String message;
+        private boolean dryRun;
+        private int localTotal;
+        private int remoteTotal;
+        /**
+         * 仅存在于Keycloak的用户数（不处理）
+         */
+        private int remoteOnly;
+        private int toCreate;
+        private int toFixUserId;
+        private int toUpdateEnabled;
+        private int created;
+        private int userIdFixed;
+        private int enabledUpdated;
+        private int failureCount;
+        private long elapsedMillis;
+        private List<String> failures = new ArrayList<>();
+
+        /**
+         * 记录失败，明细最多保留100条
+         */
+        public void addFailure(String failure) {
+            failureCount++;
+            if (failures.size() < MAX_FAILURES) {
+                failures.add(failure);
+            }
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public void setSuccess(boolean success) {
+            this.success = success;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public boolean isDryRun() {
+            return dryRun;
+        }
+
+        public void setDryRun(boolean dryRun) {
+            this.dryRun = dryRun;
+        }
+
+        public int getLocalTotal() {
+            return localTotal;
+        }
+
+        public void setLocalTotal(int localTotal) {
+            this.localTotal = localTotal;
+        }
+
+        public int getRemoteTotal() {
+            return remoteTotal;
+        }
+
+        public void setRemoteTotal(int remoteTotal) {
+            this.remoteTotal = remoteTotal;
+        }
+
+        public int getRemoteOnly() {
+            return remoteOnly;
+        }
+
+        public void setRemoteOnly(int remoteOnly) {
+            this.remoteOnly = remoteOnly;
+        }
+
+        public int getToCreate() {
+            return toCreate;
+        }
+
+        public void setToCreate(int toCreate) {
+            this.toCreate = toCreate;
+        }
+
+        public int getToFixUserId() {
+            return toFixUserId;
+        }
+
+        public void setToFixUserId(int toFixUserId) {
+            this.toFixUserId = toFixUserId;
+        }
+
+        public int getToUpdateEnabled() {
+            return toUpdateEnabled;
+        }
+
+        public void setToUpdateEnabled(int toUpdateEnabled) {
+            this.toUpdateEnabled = toUpdateEnabled;
+        }
+
+        public int getCreated() {
+            return created;
+        }
+
+        public void setCreated(int created) {
+            this.created = created;
+        }
+
+        public int getUserIdFixed() {
+            return userIdFixed;
+        }
+
+        public void setUserIdFixed(int userIdFixed) {
+            this.userIdFixed = userIdFixed;
+        }
+
+        public int getEnabledUpdated() {
+            return enabledUpdated;
+        }
+
+        public void setEnabledUpdated(int enabledUpdated) {
+            this.enabledUpdated = enabledUpdated;
+        }
+
+        public int getFailureCount() {
+            return failureCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public void setElapsedMillis(long elapsedMillis) {
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public List<String> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return "ReconcileResult{" +
+                    "success=" + success +
+                    ", dryRun=" + dryRun +
+                    ", localTotal=" + localTotal +
+                    ", remoteTotal=" + remoteTotal +
+                    ", toCreate=" + toCreate +
+                    ", toFixUserId=" + toFixUserId +
+                    ", toUpdateEnabled=" + toUpdateEnabled +
+                    ", failureCount=" + failureCount +
+                    '}';
+        }
+    }
+}
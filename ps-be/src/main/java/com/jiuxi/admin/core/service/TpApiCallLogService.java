@@ -41,4 +41,21 @@ public interface TpApiCallLogService {
      */
     void logApiCall(String appId, String appName, javax.servlet.http.HttpServletRequest request, 
                     Integer businessStatus, Integer responseTime, String errorMessage);
+
+    /**
+     * 获取日志异步写入器的运行统计（待写入、已写入、失败、丢弃行数等）
+     *
+     * @return 统计信息
+     */
+    java.util.Map<String, Object> getLogWriterStatistics();
+
+    /**
+     * 查询开放API配额用量（按日汇总，来自用量表，不扫描调用日志）
+     *
+     * @param appId 应用ID，为空时查询全部应用
+     * @param startDate 开始日期（yyyyMMdd），为空时为当天
+     * @param endDate 结束日期（yyyyMMdd），为空时为当天
+     * @return 用量列表
+     */
+    java.util.List<com.jiuxi.admin.core.bean.vo.TpAppApiUsageVO> getQuotaUsage(String appId, String startDate, String endDate);
 }
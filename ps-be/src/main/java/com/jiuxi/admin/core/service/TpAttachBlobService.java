@@ -0,0 +1,39 @@
+package com.jiuxi.admin.core.service;
+
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
+
+import java.io.InputStream;
+
+/**
+ * @Description: 附件内容去重存储，同一内容只保存一份，按引用数回收
+ * @ClassName: TpAttachBlobService
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public interface TpAttachBlobService {
+
+    /**
+     * 保存上传内容并增加一次引用，内容已存在时只增加引用不重复保存
+     *
+     * @param inputStream 上传内容，不会被关闭
+     * @return 内容记录，savePath 可直接作为附件的存放路径
+     */
+    TpAttachBlob store(InputStream inputStream);
+
+    /**
+     * 秒传：内容已存在时增加一次引用
+     *
+     * @param digest SHA-256（小写十六进制）
+     * @param size   内容大小（字节），与已有内容不一致时视为不存在
+     * @return 内容记录，不存在时返回 null，需要客户端上传
+     */
+    TpAttachBlob acquire(String digest, long size);
+
+    /**
+     * 附件记录被物理删除后释放引用，引用数归零时删除文件
+     *
+     * @param savePath 附件存放路径，不是去重存储的路径时忽略
+     */
+    void release(String savePath);
+}
@@ -110,4 +110,15 @@ public interface TpAttachinfoService {
      */
     boolean exists(String attachId);
 
+    /**
+     * 判断人员是否创建过引用该存放路径的附件 （忽略actived字段）
+     *
+     * @param savePath 附件存放路径
+     * @param creator  人员id
+     * @return boolean
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    boolean referencedBy(String savePath, String creator);
+
 }
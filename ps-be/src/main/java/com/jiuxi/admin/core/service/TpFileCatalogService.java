@@ -0,0 +1,89 @@
+package com.jiuxi.admin.core.service;
+
+import com.jiuxi.admin.core.bean.entity.TpFileCatalog;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description: 文件目录索引，上传目录下文件的查询、统计和过期清理都经由本索引，不再遍历磁盘
+ * @ClassName: TpFileCatalogService
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public interface TpFileCatalogService {
+
+    /**
+     * 记录新上传或被覆盖的文件
+     *
+     * @param filePath     相对上传目录的路径
+     * @param originalName 原始文件名称，可以为空
+     * @param contentType  内容类型，可以为空
+     * @param md5          文件MD5，可以为空
+     * @param fileSize     文件大小
+     * @param lastModified 文件修改时间（毫秒）
+     */
+    void record(String filePath, String originalName, String contentType, String md5, long fileSize, long lastModified);
+
+    /**
+     * 记录复制出的文件，沿用源文件的上传信息
+     */
+    void copy(String sourcePath, String targetPath, long fileSize, long lastModified);
+
+    /**
+     * 修改文件路径，源文件没有索引时按目标文件新增
+     */
+    void rename(String sourcePath, String targetPath, long fileSize, long lastModified);
+
+    void remove(String filePath);
+
+    void removeAll(List<String> filePaths);
+
+    /**
+     * 删除目录下所有文件的索引
+     */
+    void removeFolder(String folderPath);
+
+    /**
+     * 按修改时间倒序分页查询
+     *
+     * @param category 为空时不限分类
+     * @param keyword  按文件名称、原始名称模糊匹配，为空时不限
+     * @param fileExts 扩展名，为空时不限
+     * @param page     从1开始
+     * @param size     每页条数
+     */
+    List<TpFileCatalog> list(String category, String keyword, List<String> fileExts, int page, int size);
+
+    long count(String category, String keyword, List<String> fileExts);
+
+    /**
+     * 修改时间早于 before 的文件，按修改时间、路径顺序从 after 之后取 limit 条
+     *
+     * @param after 上一批的最后一条，为空时从头开始
+     */
+    List<TpFileCatalog> listExpired(long before, TpFileCatalog after, int limit);
+
+    /**
+     * 按分类汇总：category、fileCount、totalSize
+     */
+    List<Map<String, Object>> sumByCategory();
+
+    /**
+     * 汇总修改时间在 [from, to) 内的文件：fileCount、totalSize
+     */
+    Map<String, Object> sumByTime(Long from, Long to);
+
+    boolean isEmpty();
+
+    /**
+     * 按磁盘内容校对索引：新增未索引的文件，更新大小和修改时间，删除磁盘上已不存在的文件的索引。
+     * 同一时间只执行一次校对，已有校对在执行时直接返回
+     *
+     * @param root 上传根目录
+     * @return success、scannedCount、removedCount、costMillis
+     */
+    Map<String, Object> rebuild(Path root);
+}
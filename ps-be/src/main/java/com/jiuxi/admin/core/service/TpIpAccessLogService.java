@@ -126,4 +126,10 @@ public interface TpIpAccessLogService {
      * @return 是否频繁访问
      */
     boolean isFrequentAccess(String clientIp, Integer maxAttempts, Integer timeWindowMinutes);
+
+    /**
+     * 获取日志异步写入器的运行统计（待写入、已写入、失败、丢弃行数等）
+     * @return 统计信息
+     */
+    Map<String, Object> getLogWriterStatistics();
 }
\ No newline at end of file
@@ -86,6 +86,18 @@ public interface TpThirdPartyAppService {
      */
     int configPermissions(String appId, List<String> apiIds, String operator);
 
+    /**
+     * 配置应用单个API的配额
+     *
+     * @param appId 应用ID
+     * @param apiId API ID（须已授权）
+     * @param rateLimit 频率上限（次/秒），为空或0表示不限
+     * @param dailyQuota 每日次数上限，为空或0表示不限
+     * @param operator 操作人
+     * @return 影响行数
+     */
+    int configApiQuota(String appId, String apiId, Integer rateLimit, Integer dailyQuota, String operator);
+
     /**
      * 查询应用已授权的API列表
      *
@@ -127,6 +139,13 @@ public interface TpThirdPartyAppService {
      */
     int updateLastCallTime(String appId);
 
+    /**
+     * 记录应用调用，最后调用时间合并后定时批量写入
+     *
+     * @param appId 应用ID
+     */
+    void recordCall(String appId);
+
     /**
      * 更新应用状态
      *
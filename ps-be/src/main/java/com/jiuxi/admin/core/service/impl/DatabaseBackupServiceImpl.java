@@ -10,6 +10,12 @@ import com.jiuxi.admin.core.service.TpSystemConfigService;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.common.util.SnowflakeIdUtil;
+import com.jiuxi.shared.infrastructure.persistence.backup.DumpArchiveVerifier;
+import com.jiuxi.shared.infrastructure.persistence.backup.DumpProgress;
+import com.jiuxi.shared.infrastructure.persistence.backup.DumpResult;
+import com.jiuxi.shared.infrastructure.persistence.backup.DumpVerifyResult;
+import com.jiuxi.shared.infrastructure.persistence.backup.MysqlDumpEngine;
+import com.jiuxi.shared.infrastructure.persistence.backup.MysqlDumpOptions;
 import org.apache.commons.exec.*;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
@@ -17,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.nio.file.Files;
@@ -25,7 +32,16 @@ import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * @ClassName: DatabaseBackupServiceImpl
@@ -54,6 +70,38 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     private static final int BACKUP_STATUS_SUCCESS = 2; // 成功
     private static final int BACKUP_STATUS_FAILED = 3; // 失败
 
+    /**
+     * 备份进度上报间隔（秒）
+     */
+    private static final long PROGRESS_REPORT_SECONDS = 3;
+
+    /**
+     * 停止进度上报时等待正在执行的上报完成的最长时间（秒）
+     */
+    private static final long PROGRESS_STOP_WAIT_SECONDS = 30;
+
+    /**
+     * 正在执行的备份，key 为备份ID，用于停止备份时终止导出进程
+     */
+    private final Map<String, MysqlDumpEngine> runningEngines = new ConcurrentHashMap<>();
+
+    /**
+     * 备份进度上报调度器，定期把已写入字节数更新到备份记录
+     */
+    private final ScheduledExecutorService progressReporter = Executors.newSingleThreadScheduledExecutor(
+            r -> {
+                Thread thread = new Thread(r, "DatabaseBackup-Progress");
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
+    @PreDestroy
+    public void destroy() {
+        runningEngines.values().forEach(MysqlDumpEngine::cancel);
+        progressReporter.shutdownNow();
+    }
+
     /**
      * 执行数据库备份
      */
@@ -75,17 +123,28 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
             String dbHost = getConfigValue("database_backup_host", "localhost:3306");
             String dbUsername = getConfigValue("database_backup_username", "root");
             String dbPassword = getConfigValue("database_backup_password", "");
+            String mysqldumpPath = getConfigValue("database_backup_mysqldump", "mysqldump");
 
             // 解析主机和端口
             String[] hostParts = dbHost.split(":");
-            String host = hostParts[0];
-            String port = hostParts.length > 1 ? hostParts[1] : "3306";
+
+            MysqlDumpOptions options = new MysqlDumpOptions();
+            options.setMysqldumpPath(mysqldumpPath);
+            options.setMysqlPath(getConfigValue("database_backup_mysql", mysqldumpPath.replace("mysqldump", "mysql")));
+            options.setHost(hostParts[0]);
+            options.setPort(hostParts.length > 1 ? hostParts[1] : "3306");
+            options.setUsername(dbUsername);
+            options.setPassword(dbPassword);
+            options.setDatabaseName(databaseName);
+            options.setParallelism(Integer.parseInt(getConfigValue("database_backup_parallelism", "1")));
+            options.setCompress("1".equals(getConfigValue("database_backup_compress", "1")));
+            options.setTimeoutMillis(Long.parseLong(getConfigValue("database_backup_timeout_minutes", "30")) * 60 * 1000L);
 
             // 创建备份记录
-            TpDatabaseBackupLog backupLog = createBackupLog(databaseName, backupType, operator, tenantId, backupDir);
+            TpDatabaseBackupLog backupLog = createBackupLog(databaseName, backupType, operator, tenantId, backupDir, options.isCompress());
             
             // 异步执行备份
-            CompletableFuture.runAsync(() -> performBackup(backupLog, host, port, dbUsername, dbPassword));
+            CompletableFuture.runAsync(() -> performBackup(backupLog, options));
 
             // 转换为VO并返回
             TpDatabaseBackupLogVO vo = new TpDatabaseBackupLogVO();
@@ -189,7 +248,7 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
             File[] files = backupPath.toFile().listFiles();
             if (files != null) {
                 for (File file : files) {
-                    if (file.isFile() && file.getName().endsWith(".sql") && file.lastModified() < expireTime) {
+                    if (file.isFile() && isBackupFile(file.getName()) && file.lastModified() < expireTime) {
                         if (file.delete()) {
                             cleanedCount++;
                             LOGGER.info("删除过期备份文件: {}", file.getName());
@@ -207,6 +266,13 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
         }
     }
 
+    /**
+     * 备份文件及并行备份残留的片段文件
+     */
+    private boolean isBackupFile(String fileName) {
+        return fileName.endsWith(".sql") || fileName.endsWith(".sql.gz") || fileName.matches(".*\\.sql(\\.gz)?\\.part\\d+$");
+    }
+
     /**
      * 检查是否有正在进行的备份任务
      */
@@ -252,6 +318,12 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
             
             int result = tpDatabaseBackupLogMapper.update(backupLog);
             LOGGER.info("停止备份任务更新结果，影响行数: {}", result);
+
+            // 终止正在执行的导出进程，由备份线程清理未完成的文件
+            MysqlDumpEngine engine = runningEngines.get(backupId);
+            if (engine != null) {
+                engine.cancel();
+            }
             
             boolean success = result > 0;
             if (success) {
@@ -267,10 +339,33 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
         }
     }
 
+    /**
+     * 校验备份文件
+     */
+    @Override
+    public DumpVerifyResult verifyBackup(String backupId) {
+        TpDatabaseBackupLogVO backupLog = tpDatabaseBackupLogMapper.view(backupId);
+        if (backupLog == null) {
+            throw new TopinfoRuntimeException(-1, "找不到备份记录");
+        }
+        if (backupLog.getBackupStatus() == null || backupLog.getBackupStatus() != BACKUP_STATUS_SUCCESS) {
+            throw new TopinfoRuntimeException(-1, "只能校验备份成功的记录");
+        }
+
+        int parts = StrUtil.isNotBlank(backupLog.getExtend03()) ? Integer.parseInt(backupLog.getExtend03()) : 0;
+        DumpVerifyResult result = DumpArchiveVerifier.verify(Paths.get(backupLog.getBackupFilePath()), backupLog.getExtend01(), parts);
+        if (result.isValid()) {
+            LOGGER.info("备份文件校验通过，备份ID: {}, SHA-256: {}", backupId, result.getSha256());
+        } else {
+            LOGGER.warn("备份文件校验不通过，备份ID: {}, 原因: {}", backupId, result.getMessage());
+        }
+        return result;
+    }
+
     /**
      * 创建备份记录
      */
-    private TpDatabaseBackupLog createBackupLog(String databaseName, Integer backupType, String operator, String tenantId, String backupDir) {
+    private TpDatabaseBackupLog createBackupLog(String databaseName, Integer backupType, String operator, String tenantId, String backupDir, boolean compress) {
         try {
             String backupId = SnowflakeIdUtil.nextIdStr();
             String now = CommonDateUtil.now();
@@ -278,7 +373,7 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
             // 生成备份文件名
             SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd_HHmmss");
             String timestamp = sdf.format(new Date());
-            String backupFileName = String.format("%s_backup_%s.sql", databaseName, timestamp);
+            String backupFileName = String.format("%s_backup_%s.sql%s", databaseName, timestamp, compress ? ".gz" : "");
             String backupFilePath = Paths.get(backupDir, backupFileName).toString();
 
             // 生成备份名称
@@ -312,117 +407,81 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     }
 
     /**
-     * 执行实际的备份操作
+     * 执行实际的备份操作：导出内容经管道压缩写入备份文件，备份过程中定期上报已写入大小
      */
-    private void performBackup(TpDatabaseBackupLog backupLog, String host, String port, String username, String password) {
+    private void performBackup(TpDatabaseBackupLog backupLog, MysqlDumpOptions options) {
         long startTime = System.currentTimeMillis();
-        
+        String backupId = backupLog.getBackupId();
+        Path backupFile = Paths.get(backupLog.getBackupFilePath());
+        MysqlDumpEngine engine = new MysqlDumpEngine(options);
+        DumpProgress progress = new DumpProgress();
+        runningEngines.put(backupId, engine);
+
+        ScheduledFuture<?> reporting = progressReporter.scheduleWithFixedDelay(() -> updateBackupProgress(backupId, progress),
+                PROGRESS_REPORT_SECONDS, PROGRESS_REPORT_SECONDS, TimeUnit.SECONDS);
         try {
-            // 确保备份目录存在
-            File backupFile = new File(backupLog.getBackupFilePath());
-            File backupDir = backupFile.getParentFile();
-            if (!backupDir.exists()) {
-                backupDir.mkdirs();
-            }
+            // 密码通过环境变量传递，命令中不含密码
+            String command = engine.describeCommand();
+            LOGGER.info("执行备份命令: {}", command);
+            updateBackupCommand(backupId, command);
 
-            // 构建mysqldump命令
-            String command = buildMysqldumpCommand(host, port, username, password, 
-                                                 backupLog.getDatabaseName(), backupLog.getBackupFilePath());
-            
-            LOGGER.info("执行备份命令: {}", command.replaceAll(password, "****"));
+            DumpResult result = engine.dump(backupFile, progress);
+            stopProgressReporting(backupId, reporting);
 
-            // 更新备份命令到记录中
-            updateBackupCommand(backupLog.getBackupId(), command.replaceAll(password, "****"));
-            
-            // 执行备份命令
-            LOGGER.info("开始解析命令行: {}", command.replaceAll(password, "****"));
-            CommandLine cmdLine = CommandLine.parse(command);
-            LOGGER.info("命令行解析完成，可执行文件: {}, 参数: {}", cmdLine.getExecutable(), java.util.Arrays.toString(cmdLine.getArguments()));
-            
-            DefaultExecutor executor = new DefaultExecutor();
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            ByteArrayOutputStream errorStream = new ByteArrayOutputStream();
-            PumpStreamHandler streamHandler = new PumpStreamHandler(outputStream, errorStream);
-            executor.setStreamHandler(streamHandler);
-
-            // 设置超时时间（30分钟）
-            ExecuteWatchdog watchdog = new ExecuteWatchdog(30 * 60 * 1000);
-            executor.setWatchdog(watchdog);
-            
-            LOGGER.info("开始执行备份命令...");
-            int exitCode = executor.execute(cmdLine);
-            
-            String standardOutput = outputStream.toString();
-            String errorOutput = errorStream.toString();
-            
-            LOGGER.info("命令执行完成，退出码: {}", exitCode);
-            if (StrUtil.isNotBlank(standardOutput)) {
-                LOGGER.info("标准输出: {}", standardOutput);
-            }
-            if (StrUtil.isNotBlank(errorOutput)) {
-                LOGGER.error("错误输出: {}", errorOutput);
-            }
+            int duration = (int) ((System.currentTimeMillis() - startTime) / 1000);
+            updateBackupSuccess(backupId, result, duration);
+            LOGGER.info("数据库备份成功，备份ID: {}, 导出 {} 字节, 文件大小: {} 字节, 片段数: {}, SHA-256: {}, 耗时: {} 秒",
+                    backupId, result.getRawBytes(), result.getFileBytes(), result.getParts(), result.getSha256(), duration);
 
-            long endTime = System.currentTimeMillis();
-            int duration = (int) ((endTime - startTime) / 1000);
+        } catch (Exception e) {
+            stopProgressReporting(backupId, reporting);
+            int duration = (int) ((System.currentTimeMillis() - startTime) / 1000);
 
-            if (exitCode == 0) {
-                // 备份成功
-                long fileSize = backupFile.exists() ? backupFile.length() : 0;
-                updateBackupSuccess(backupLog.getBackupId(), fileSize, duration);
-                LOGGER.info("数据库备份成功，备份ID: {}, 文件大小: {} 字节, 耗时: {} 秒", 
-                           backupLog.getBackupId(), fileSize, duration);
-            } else {
-                // 备份失败
-                String detailedError = String.format("备份命令执行失败，退出码: %d\n错误输出: %s\n标准输出: %s", 
-                                                    exitCode, errorOutput, standardOutput);
-                updateBackupFailure(backupLog.getBackupId(), detailedError, duration);
-                LOGGER.error("数据库备份失败，备份ID: {}, 退出码: {}, 错误信息: {}", 
-                            backupLog.getBackupId(), exitCode, detailedError);
+            String errorMessage = engine.isCancelled() ? "用户手动停止备份" : "备份执行异常: " + e.getMessage();
+            updateBackupFailure(backupId, errorMessage, duration);
+            LOGGER.error("数据库备份异常，备份ID: {}, 错误: {}", backupId, ExceptionUtils.getStackTrace(e));
+
+            // 不保留不完整的备份文件
+            try {
+                Files.deleteIfExists(backupFile);
+            } catch (Exception ex) {
+                LOGGER.warn("删除不完整的备份文件失败: {}, 错误: {}", backupFile, ex.getMessage());
             }
+        } finally {
+            runningEngines.remove(backupId);
+        }
+    }
 
-        } catch (Exception e) {
-            long endTime = System.currentTimeMillis();
-            int duration = (int) ((endTime - startTime) / 1000);
-            
-            String errorMessage = "备份执行异常: " + e.getMessage();
-            updateBackupFailure(backupLog.getBackupId(), errorMessage, duration);
-            LOGGER.error("数据库备份异常，备份ID: {}, 错误: {}", backupLog.getBackupId(), ExceptionUtils.getStackTrace(e));
+    /**
+     * 停止进度上报，并等待正在执行的上报完成，避免其在最终状态之后写入，覆盖最终的文件大小
+     * <p>
+     * 上报调度器是单线程的，取消后再提交一个空任务并等待其执行，此前已开始的上报必然已经结束
+     */
+    private void stopProgressReporting(String backupId, ScheduledFuture<?> reporting) {
+        reporting.cancel(false);
+        try {
+            progressReporter.submit(() -> { }).get(PROGRESS_STOP_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("等待备份进度上报结束时被中断，备份ID: {}", backupId);
+        } catch (RejectedExecutionException | ExecutionException | TimeoutException e) {
+            LOGGER.warn("等待备份进度上报结束失败，备份ID: {}, 错误: {}", backupId, e.getMessage());
         }
     }
 
     /**
-     * 构建mysqldump命令
+     * 更新备份进度：BACKUP_FILE_SIZE 为已写入文件的字节数，EXTEND02 为已导出的原始字节数
      */
-    private String buildMysqldumpCommand(String host, String port, String username, String password, String databaseName, String outputFile) {
-        StringBuilder command = new StringBuilder();
-        
-        // 获取mysqldump程序路径，默认使用mysqldump
-        String mysqldumpPath = getConfigValue("database_backup_mysqldump", "mysqldump");
-        
-        // 基础命令（注意参数间要有空格）
-        command.append(mysqldumpPath);
-        command.append(" -h ").append(host);
-        command.append(" -P ").append(port);
-        command.append(" -u ").append(username);
-        
-        if (StrUtil.isNotBlank(password)) {
-            command.append(" -p").append(password);
+    private void updateBackupProgress(String backupId, DumpProgress progress) {
+        try {
+            TpDatabaseBackupLog backupLog = new TpDatabaseBackupLog();
+            backupLog.setBackupId(backupId);
+            backupLog.setBackupFileSize(progress.getWrittenBytes());
+            backupLog.setExtend02(String.valueOf(progress.getRawBytes()));
+            tpDatabaseBackupLogMapper.update(backupLog);
+        } catch (Exception e) {
+            LOGGER.warn("更新备份进度失败，备份ID: {}, 错误: {}", backupId, e.getMessage());
         }
-        
-        // 备份选项
-        command.append(" --single-transaction");  // 保证事务一致性
-        command.append(" --routines");            // 备份存储过程和函数
-        command.append(" --triggers");            // 备份触发器
-        command.append(" --lock-tables=false");   // 不锁定表
-        command.append(" --add-drop-database");   // 添加删除数据库语句
-        command.append(" --default-character-set=utf8");
-        command.append(" --databases ").append(databaseName);
-        
-        // 使用--result-file参数代替重定向操作符
-        command.append(" --result-file=\"").append(outputFile).append("\"");
-        
-        return command.toString();
     }
 
     /**
@@ -442,13 +501,16 @@ public class DatabaseBackupServiceImpl implements DatabaseBackupService {
     /**
      * 更新备份成功状态
      */
-    private void updateBackupSuccess(String backupId, long fileSize, int duration) {
+    private void updateBackupSuccess(String backupId, DumpResult result, int duration) {
         try {
             String now = CommonDateUtil.now();
             TpDatabaseBackupLog backupLog = new TpDatabaseBackupLog();
             backupLog.setBackupId(backupId);
             backupLog.setBackupStatus(BACKUP_STATUS_SUCCESS);
-            backupLog.setBackupFileSize(fileSize);
+            backupLog.setBackupFileSize(result.getFileBytes());
+            backupLog.setExtend01(result.getSha256());
+            backupLog.setExtend02(String.valueOf(result.getRawBytes()));
+            backupLog.setExtend03(String.valueOf(result.getParts()));
             backupLog.setBackupEndTime(now);
             backupLog.setBackupDuration(duration);
             backupLog.setUpdateTime(now);
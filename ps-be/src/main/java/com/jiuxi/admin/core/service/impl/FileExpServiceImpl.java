@@ -2,6 +2,7 @@ package com.jiuxi.admin.core.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.jiuxi.admin.core.service.FileExpService;
+import com.jiuxi.shared.infrastructure.file.DirectBufferPool;
 // import com.jiuxi.jdfs.common.service.JdfsClientService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.multipart.MultipartFile;
@@ -20,6 +21,17 @@ import java.io.InputStream;
  */
 public class FileExpServiceImpl implements FileExpService {
 
+    /**
+     * 本地上传根目录
+     *
+     * @return java.lang.String
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    public static String getLocalRootDir() {
+        return System.getProperty("user.dir") + "/uploads";
+    }
+
     /**
      * 文件服务器客户端
      */
@@ -57,7 +69,7 @@ public class FileExpServiceImpl implements FileExpService {
             String fileName = com.jiuxi.common.util.SnowflakeIdUtil.nextIdStr() + fileExtName;
             
             // 创建上传目录
-            String rootDir = System.getProperty("user.dir") + "/uploads";
+            String rootDir = getLocalRootDir();
             java.io.File uploadDir = new java.io.File(rootDir);
             if (!uploadDir.exists()) {
                 uploadDir.mkdirs();
@@ -102,7 +114,7 @@ public class FileExpServiceImpl implements FileExpService {
             String fileName = com.jiuxi.common.util.SnowflakeIdUtil.nextIdStr() + fileExtName;
             
             // 创建上传目录
-            String rootDir = System.getProperty("user.dir") + "/uploads";
+            String rootDir = getLocalRootDir();
             java.io.File uploadDir = new java.io.File(rootDir);
             if (!uploadDir.exists()) {
                 uploadDir.mkdirs();
@@ -111,14 +123,7 @@ public class FileExpServiceImpl implements FileExpService {
             // 保存文件
             String relativePath = "/" + fileName;
             java.io.File targetFile = new java.io.File(rootDir + relativePath);
-            
-            try (java.io.FileOutputStream fos = new java.io.FileOutputStream(targetFile)) {
-                byte[] buffer = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = inputStream.read(buffer)) != -1) {
-                    fos.write(buffer, 0, bytesRead);
-                }
-            }
+            DirectBufferPool.SHARED.copy(inputStream, targetFile.toPath());
             
             return relativePath;
         } catch (Exception e) {
@@ -137,7 +142,7 @@ public class FileExpServiceImpl implements FileExpService {
     @Override
     public InputStream getInputStream(String fileid, String filename) {
         try {
-            String rootDir = System.getProperty("user.dir") + "/uploads";
+            String rootDir = getLocalRootDir();
             String filePath = rootDir + fileid;
             java.io.File file = new java.io.File(filePath);
             
@@ -164,10 +169,10 @@ public class FileExpServiceImpl implements FileExpService {
     @Override
     public void downloadFile(String fileid, String filename, HttpServletRequest request, HttpServletResponse response) {
         try {
-            // 使用CommonFileUtil进行文件下载
+            // 使用CommonFileUtil进行文件下载，支持断点续传和条件请求
             // 假设文件存储在本地，fileid就是相对路径
-            String rootDir = System.getProperty("user.dir") + "/uploads"; // 默认上传目录
-            com.jiuxi.common.util.CommonFileUtil.downloadFile(filename, rootDir, fileid, response);
+            String rootDir = getLocalRootDir();
+            com.jiuxi.common.util.CommonFileUtil.downloadFile(filename, rootDir, fileid, request, response);
         } catch (Exception e) {
             throw new RuntimeException("文件下载失败: " + e.getMessage(), e);
         }
@@ -4,9 +4,11 @@ import cn.hutool.core.codec.Base64;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.extra.spring.SpringUtil;
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
 import com.jiuxi.admin.core.bean.entity.TpAttachinfo;
 import com.jiuxi.admin.core.service.FileExpService;
 import com.jiuxi.admin.core.service.FileService;
+import com.jiuxi.admin.core.service.TpAttachBlobService;
 import com.jiuxi.admin.core.service.TpAttachinfoService;
 import com.jiuxi.common.exception.ExceptionUtils;
 import com.jiuxi.common.interfaces.VideoService;
@@ -14,9 +16,11 @@ import com.jiuxi.common.util.CommonFileUtil;
 import com.jiuxi.common.util.FileUtils;
 import com.jiuxi.common.util.SnowflakeIdUtil;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
+import com.jiuxi.shared.infrastructure.file.ContentAddressedStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -24,6 +28,7 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -59,6 +64,18 @@ public class FileServiceImpl implements FileService {
     @Autowired(required = false)
     private VideoService videoService;
 
+    /**
+     * 附件内容去重存储
+     */
+    @Autowired
+    private TpAttachBlobService tpAttachBlobService;
+
+    /**
+     * 是否按内容去重存储附件，仅在使用默认的本地存储时生效
+     */
+    @Value("${ps.file.dedup.enabled:true}")
+    private boolean dedupEnabled;
+
     /**
      * 上传文件 - 普通表单
      *
@@ -88,7 +105,14 @@ public class FileServiceImpl implements FileService {
                 // 附件大小
                 long size = file.getSize();
                 // 上传文件
-                String relDir = fileExpService.uploadFile(file);
+                String relDir;
+                if (this.useBlobStore()) {
+                    try (InputStream inputStream = file.getInputStream()) {
+                        relDir = tpAttachBlobService.store(inputStream).getSavePath();
+                    }
+                } else {
+                    relDir = fileExpService.uploadFile(file);
+                }
 
                 // 初始化数据库数据
                 TpAttachinfo model = this.initModel(fileName, relDir, Double.valueOf(size), creator, referType, referId);
@@ -170,7 +194,9 @@ public class FileServiceImpl implements FileService {
 
                 InputStream inputStream = new ByteArrayInputStream(encodeImage);
                 // 上传文件
-                String relDir = fileExpService.uploadFile(inputStream, encodeImage.length, fileExtName);
+                String relDir = this.useBlobStore()
+                        ? tpAttachBlobService.store(inputStream).getSavePath()
+                        : fileExpService.uploadFile(inputStream, encodeImage.length, fileExtName);
                 // 初始化数据库数据
                 TpAttachinfo model = this.initModel(fileName, relDir, Double.valueOf(encodeImage.length), creator, referType, referId);
                 list.add(model);
@@ -184,6 +210,60 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    /**
+     * 秒传：客户端先计算文件的 SHA-256，内容已存在时直接生成附件记录，无需上传文件
+     * <pre>
+     *     摘要和大小不能证明调用方持有内容，只允许复用调用方自己上传过的内容，否则凭摘要即可取得他人的文件
+     * </pre>
+     *
+     * @param digest    文件 SHA-256（小写十六进制）
+     * @param size      文件大小（字节）
+     * @param fileName  附件名
+     * @param creator   创建人
+     * @param referType 图片类型
+     * @param referId   业务id
+     * @return 附件记录，内容不存在时返回 null，客户端需按普通方式上传
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    @Override
+    @Transactional(rollbackFor = TopinfoRuntimeException.class)
+    public TpAttachinfo uploadByDigest(String digest, long size, String fileName, String creator, String referType, String referId) {
+        if (!this.useBlobStore() || StrUtil.isBlank(fileName)) {
+            return null;
+        }
+        try {
+            // 检查后缀名
+            String ext = CommonFileUtil.getExtName(fileName);
+            if (StrUtil.isBlank(ext)) {
+                throw new IOException("附件上传失败,不支持该类型的文件上传！");
+            }
+            CommonFileUtil.checkWhiteExt(ext);
+        } catch (IOException e) {
+            throw new TopinfoRuntimeException(-101, e.getMessage());
+        }
+
+        String normalized = StrUtil.nullToEmpty(digest).toLowerCase();
+        if (!ContentAddressedStore.isDigest(normalized)
+                || !this.tpAttachInfoService.referencedBy(ContentAddressedStore.relativePath(normalized), creator)) {
+            return null;
+        }
+        TpAttachBlob blob = tpAttachBlobService.acquire(normalized, size);
+        if (blob == null) {
+            return null;
+        }
+        TpAttachinfo model = this.initModel(fileName, blob.getSavePath(), Double.valueOf(size), creator, referType, referId);
+        this.tpAttachInfoService.save(model);
+        return model;
+    }
+
+    /**
+     * 只有默认的本地存储支持去重，自定义的文件服务器扩展仍按原方式上传
+     */
+    private boolean useBlobStore() {
+        return dedupEnabled && fileExpService.getClass() == FileExpServiceImpl.class;
+    }
+
     public TpAttachinfo initModel(String filename, String savePath, Double size, String creator, String referType, String referId) {
         TpAttachinfo model = new TpAttachinfo();
         model.setAttachId(SnowflakeIdUtil.nextIdStr());
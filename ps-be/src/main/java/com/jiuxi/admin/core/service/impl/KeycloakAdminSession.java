@@ -0,0 +1,574 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jiuxi.admin.core.service.TpSystemConfigService;
+import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * @ClassName: KeycloakAdminSession
+ * @Description: Keycloak管理会话
+ * <pre>
+ *     1. 管理员令牌缓存复用，到期前 30 秒（不超过有效期的 1/4）内续期；有刷新令牌时优先 refresh_token 换取，失败再用密码模式
+ *     2. 定时检查令牌，近期被使用过的令牌提前续期，调用线程通常拿到的都是有效令牌
+ *     3. 管理员账号从系统配置读取后缓存 5 分钟，密码模式失败时下次重新读取
+ *     4. 管理接口调用走独立的连接池，收到 401 时作废当前令牌并重试一次
+ *     5. 批量操作在固定大小的线程池中执行，同时在途的请求数不超过 ps.keycloak.admin.max-concurrency
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Component
+public class KeycloakAdminSession {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeycloakAdminSession.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+    };
+
+    private static final TypeReference<List<Map<String, Object>>> LIST_TYPE = new TypeReference<List<Map<String, Object>>>() {
+    };
+
+    /**
+     * 令牌到期前多久开始续期
+     */
+    private static final long REFRESH_AHEAD_MILLIS = 30_000L;
+
+    /**
+     * 管理员账号缓存时间
+     */
+    private static final long CREDENTIALS_TTL_MILLIS = 300_000L;
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+
+    private static final int READ_TIMEOUT = 30_000;
+
+    private final String serverUrl;
+
+    private final String realm;
+
+    private final Supplier<AdminCredentials> credentialsLoader;
+
+    private final LongSupplier clock;
+
+    private final int maxConcurrency;
+
+    private final CloseableHttpClient httpClient;
+
+    private final ExecutorService executor;
+
+    private final Object lock = new Object();
+
+    private volatile TokenState token;
+
+    private volatile AdminCredentials credentials;
+
+    private volatile long credentialsLoadedAt;
+
+    private volatile long lastUsedAt;
+
+    private final AtomicLong passwordGrants = new AtomicLong();
+
+    private final AtomicLong refreshGrants = new AtomicLong();
+
+    private final AtomicLong grantFailures = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong unauthorizedRetries = new AtomicLong();
+
+    @Autowired
+    public KeycloakAdminSession(TpSystemConfigService tpSystemConfigService,
+                                @Value("${keycloak.server-url:http://localhost:8080}") String serverUrl,
+                                @Value("${keycloak.realm:ps-realm}") String realm,
+                                @Value("${ps.keycloak.admin.max-concurrency:8}") int maxConcurrency) {
+        this(serverUrl, realm, () -> new AdminCredentials(
+                tpSystemConfigService.getConfigValue("keycloak.admin.client-id", "admin-cli"),
+                tpSystemConfigService.getConfigValue("keycloak.admin.username", "admin"),
+                tpSystemConfigService.getConfigValue("keycloak.admin.password", "cotticotti")),
+                maxConcurrency, System::currentTimeMillis);
+    }
+
+    KeycloakAdminSession(String serverUrl, String realm, Supplier<AdminCredentials> credentialsLoader,
+                         int maxConcurrency, LongSupplier clock) {
+        this.serverUrl = serverUrl.endsWith("/") ? serverUrl.substring(0, serverUrl.length() - 1) : serverUrl;
+        this.realm = realm;
+        this.credentialsLoader = credentialsLoader;
+        this.clock = clock;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(this.maxConcurrency * 2);
+        connectionManager.setDefaultMaxPerRoute(this.maxConcurrency * 2);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setSocketTimeout(READ_TIMEOUT)
+                .setConnectionRequestTimeout(CONNECT_TIMEOUT)
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                // 连接被服务端关闭后复用会失败，重试一次；重复提交的创建请求会得到 409，按已存在处理
+                .setRetryHandler(new DefaultHttpRequestRetryHandler(1, true))
+                .evictExpiredConnections()
+                .evictIdleConnections(30, TimeUnit.SECONDS)
+                .build();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(this.maxConcurrency, this.maxConcurrency, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "keycloak-admin-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * 获取管理员访问令牌，获取失败时返回 null
+     */
+    public String getAccessToken() {
+        lastUsedAt = clock.getAsLong();
+        TokenState current = token;
+        if (current != null && current.isFresh(clock.getAsLong(), false)) {
+            return current.accessToken;
+        }
+        return renew(false);
+    }
+
+    /**
+     * 作废令牌（仅当仍是当前令牌时），下次获取时重新申请
+     */
+    public void invalidate(String accessToken) {
+        synchronized (lock) {
+            TokenState current = token;
+            if (current != null && current.accessToken.equals(accessToken)) {
+                token = null;
+            }
+        }
+    }
+
+    /**
+     * 定时检查，令牌签发后被使用过才提前续期，长时间无调用时不续期
+     */
+    @Scheduled(fixedDelayString = "${ps.keycloak.admin.token-check-interval:10000}")
+    public void refreshIfNeeded() {
+        TokenState current = token;
+        if (current == null || lastUsedAt < current.issuedAt) {
+            return;
+        }
+        if (!current.isFresh(clock.getAsLong(), true)) {
+            renew(true);
+        }
+    }
+
+    private String renew(boolean early) {
+        synchronized (lock) {
+            long now = clock.getAsLong();
+            TokenState current = token;
+            if (current != null && current.isFresh(now, early)) {
+                return current.accessToken;
+            }
+            TokenState renewed = null;
+            if (current != null && current.canRefresh(now)) {
+                renewed = requestToken(refreshForm(current.refreshToken), now);
+                if (renewed != null) {
+                    refreshGrants.incrementAndGet();
+                }
+            }
+            if (renewed == null) {
+                renewed = requestToken(passwordForm(loadCredentials(now)), now);
+                if (renewed != null) {
+                    passwordGrants.incrementAndGet();
+                } else {
+                    credentialsLoadedAt = 0L;
+                }
+            }
+            if (renewed == null) {
+                grantFailures.incrementAndGet();
+                // 续期失败时，尚未过期的旧令牌仍可使用
+                return current != null && now < current.expiresAt ? current.accessToken : null;
+            }
+            token = renewed;
+            return renewed.accessToken;
+        }
+    }
+
+    private AdminCredentials loadCredentials(long now) {
+        AdminCredentials current = credentials;
+        if (current == null || now - credentialsLoadedAt >= CREDENTIALS_TTL_MILLIS) {
+            current = credentialsLoader.get();
+            credentials = current;
+            credentialsLoadedAt = now;
+        }
+        return current;
+    }
+
+    private List<NameValuePair> passwordForm(AdminCredentials admin) {
+        List<NameValuePair> form = new ArrayList<>(4);
+        form.add(new BasicNameValuePair("grant_type", "password"));
+        form.add(new BasicNameValuePair("client_id", admin.getClientId()));
+        form.add(new BasicNameValuePair("username", admin.getUsername()));
+        form.add(new BasicNameValuePair("password", admin.getPassword()));
+        return form;
+    }
+
+    private List<NameValuePair> refreshForm(String refreshToken) {
+        AdminCredentials admin = credentials;
+        List<NameValuePair> form = new ArrayList<>(3);
+        form.add(new BasicNameValuePair("grant_type", "refresh_token"));
+        form.add(new BasicNameValuePair("client_id", admin != null ? admin.getClientId() : "admin-cli"));
+        form.add(new BasicNameValuePair("refresh_token", refreshToken));
+        return form;
+    }
+
+    private TokenState requestToken(List<NameValuePair> form, long now) {
+        HttpPost post = new HttpPost(serverUrl + "/realms/master/protocol/openid-connect/token");
+        post.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+        try (CloseableHttpResponse response = httpClient.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            String body = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : null;
+            if (status != 200 || body == null) {
+                LOGGER.warn("获取Keycloak管理员令牌失败: grantType={}, status={}", form.get(0).getValue(), status);
+                return null;
+            }
+            Map<String, Object> json = MAPPER.readValue(body, MAP_TYPE);
+            String accessToken = (String) json.get("access_token");
+            if (accessToken == null) {
+                return null;
+            }
+            long expiresIn = toLong(json.get("expires_in"), 60L);
+            long refreshExpiresIn = toLong(json.get("refresh_expires_in"), 0L);
+            String refreshToken = (String) json.get("refresh_token");
+            return new TokenState(accessToken, now, now + expiresIn * 1000L,
+                    refreshToken, refreshToken != null && refreshExpiresIn > 0 ? now + refreshExpiresIn * 1000L : 0L);
+        } catch (IOException e) {
+            LOGGER.error("获取Keycloak管理员令牌失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 调用当前 realm 的管理接口
+     *
+     * @param method HTTP 方法
+     * @param path   /admin/realms/{realm} 之后的路径，可带查询参数
+     * @param body   请求体，序列化为 JSON，可为 null
+     */
+    public Response execute(String method, String path, Object body) throws IOException {
+        String accessToken = getAccessToken();
+        if (accessToken == null) {
+            throw new TopinfoRuntimeException(-1, "获取Keycloak管理员令牌失败");
+        }
+        Response response = send(method, path, body, accessToken);
+        if (response.getStatus() == 401) {
+            unauthorizedRetries.incrementAndGet();
+            invalidate(accessToken);
+            accessToken = getAccessToken();
+            if (accessToken == null) {
+                throw new TopinfoRuntimeException(-1, "获取Keycloak管理员令牌失败");
+            }
+            response = send(method, path, body, accessToken);
+        }
+        return response;
+    }
+
+    private Response send(String method, String path, Object body, String accessToken) throws IOException {
+        requests.incrementAndGet();
+        RequestBuilder builder = RequestBuilder.create(method)
+                .setUri(serverUrl + "/admin/realms/" + realm + path)
+                .setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                .setHeader(HttpHeaders.ACCEPT, "application/json");
+        if (body != null) {
+            builder.setEntity(new StringEntity(MAPPER.writeValueAsString(body), ContentType.APPLICATION_JSON));
+        }
+        HttpUriRequest request = builder.build();
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            String content = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8) : null;
+            Header location = response.getFirstHeader(HttpHeaders.LOCATION);
+            return new Response(response.getStatusLine().getStatusCode(), content, location != null ? location.getValue() : null);
+        }
+    }
+
+    /**
+     * 分页遍历 realm 下的全部用户（简要信息），每页一次请求
+     *
+     * @param pageSize 每页条数
+     * @param consumer 用户处理
+     * @return 遍历的用户数
+     */
+    public int forEachUser(int pageSize, Consumer<Map<String, Object>> consumer) throws IOException {
+        int first = 0;
+        while (true) {
+            Response response = execute("GET", "/users?briefRepresentation=true&first=" + first + "&max=" + pageSize, null);
+            if (response.getStatus() != 200) {
+                throw new IOException("查询Keycloak用户失败: status=" + response.getStatus());
+            }
+            List<Map<String, Object>> page = MAPPER.readValue(response.getBody(), LIST_TYPE);
+            page.forEach(consumer);
+            first += page.size();
+            if (page.size() < pageSize) {
+                return first;
+            }
+        }
+    }
+
+    /**
+     * 按用户名精确查找用户ID，不存在时返回 null
+     */
+    public String findUserId(String username) throws IOException {
+        Response response = execute("GET", "/users?exact=true&username=" + URLEncoder.encode(username, "UTF-8"), null);
+        if (response.getStatus() != 200) {
+            return null;
+        }
+        List<Map<String, Object>> users = MAPPER.readValue(response.getBody(), LIST_TYPE);
+        return users.isEmpty() ? null : (String) users.get(0).get("id");
+    }
+
+    /**
+     * 创建用户，成功返回用户ID；用户名已存在时返回已有用户ID
+     */
+    public String createUser(Map<String, Object> representation) throws IOException {
+        Response response = execute("POST", "/users", representation);
+        if (response.getStatus() == 201) {
+            return response.getLocationId();
+        }
+        if (response.getStatus() == 409) {
+            return findUserId((String) representation.get("username"));
+        }
+        LOGGER.warn("创建Keycloak用户失败: username={}, status={}", representation.get("username"), response.getStatus());
+        return null;
+    }
+
+    /**
+     * 更新用户，只更新 representation 中出现的字段
+     */
+    public boolean updateUser(String userId, Map<String, Object> representation) throws IOException {
+        return execute("PUT", "/users/" + userId, representation).getStatus() == 204;
+    }
+
+    /**
+     * 并发执行批量操作，同时执行的任务数不超过最大并发数；结果顺序与输入一致，单项异常时结果为 null
+     */
+    public <T, R> List<R> executeAll(List<T> items, Function<T, R> operation) {
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        try {
+            for (T item : items) {
+                permits.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return operation.apply(item);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            futures.forEach(f -> f.cancel(true));
+            throw new TopinfoRuntimeException(-1, "批量操作被中断");
+        }
+        List<R> results = new ArrayList<>(futures.size());
+        for (Future<R> future : futures) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                LOGGER.warn("Keycloak批量操作失败: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                results.add(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TopinfoRuntimeException(-1, "批量操作被中断");
+            }
+        }
+        return results;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Map<String, Object> getStatistics() {
+        TokenState current = token;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tokenCached", current != null);
+        stats.put("tokenExpiresAt", current != null ? current.expiresAt : 0L);
+        stats.put("passwordGrants", passwordGrants.get());
+        stats.put("refreshGrants", refreshGrants.get());
+        stats.put("grantFailures", grantFailures.get());
+        stats.put("requests", requests.get());
+        stats.put("unauthorizedRetries", unauthorizedRetries.get());
+        return Collections.unmodifiableMap(stats);
+    }
+
+    @PreDestroy
+    public void close() {
+        executor.shutdownNow();
+        try {
+            httpClient.close();
+        } catch (IOException e) {
+            LOGGER.warn("关闭Keycloak管理连接池失败: {}", e.getMessage());
+        }
+    }
+
+    private static long toLong(Object value, long defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                return defaultValue;
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * 管理员账号
+     */
+    public static final class AdminCredentials {
+
+        private final String clientId;
+
+        private final String username;
+
+        private final String password;
+
+        public AdminCredentials(String clientId, String username, String password) {
+            this.clientId = clientId;
+            this.username = username;
+            this.password = password;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+    }
+
+    /**
+     * 管理接口响应
+     */
+    public static final class Response {
+
+        private final int status;
+
+        private final String body;
+
+        private final String location;
+
+        Response(int status, String body, String location) {
+            this.status = status;
+            this.body = body;
+            this.location = location;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+
+        /**
+         * Location 头最后一段，即新建资源的ID
+         */
+        public String getLocationId() {
+            return location != null ? location.substring(location.lastIndexOf('/') + 1) : null;
+        }
+    }
+
+    private static final class TokenState {
+
+        private final String accessToken;
+
+        private final long issuedAt;
+
+        private final long expiresAt;
+
+        private final String refreshToken;
+
+        private final long refreshExpiresAt;
+
+        private TokenState(String accessToken, long issuedAt, long expiresAt, String refreshToken, long refreshExpiresAt) {
+            this.accessToken = accessToken;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+            this.refreshToken = refreshToken;
+            this.refreshExpiresAt = refreshExpiresAt;
+        }
+
+        /**
+         * 是否无需续期：调用时到期前 30 秒（不超过有效期的 1/4）内需要续期，定时检查提前到 60 秒（不超过有效期的 1/2）
+         */
+        boolean isFresh(long now, boolean early) {
+            long lifetime = expiresAt - issuedAt;
+            long ahead = early ? Math.min(REFRESH_AHEAD_MILLIS * 2, lifetime / 2) : Math.min(REFRESH_AHEAD_MILLIS, lifetime / 4);
+            return now < expiresAt - ahead;
+        }
+
+        boolean canRefresh(long now) {
+            return refreshToken != null && now < refreshExpiresAt - REFRESH_AHEAD_MILLIS;
+        }
+    }
+}
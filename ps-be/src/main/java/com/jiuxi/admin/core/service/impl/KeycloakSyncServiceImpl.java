@@ -3,7 +3,6 @@ package com.jiuxi.admin.core.service.impl;
 import com.jiuxi.admin.core.bean.entity.TpKeycloakAccount;
 import com.jiuxi.admin.core.service.KeycloakSyncService;
 import com.jiuxi.admin.core.service.TpKeycloakAccountService;
-import com.jiuxi.admin.core.service.TpSystemConfigService;
 import com.jiuxi.admin.core.bean.vo.TpAccountVO;
 import com.jiuxi.admin.core.bean.vo.TpPersonBasicinfoVO;
 import com.jiuxi.admin.security.credential.CredentialType;
@@ -16,8 +15,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
@@ -36,9 +33,6 @@ public class KeycloakSyncServiceImpl implements KeycloakSyncService {
     @Autowired
     private TpKeycloakAccountService tpKeycloakAccountService;
 
-    @Autowired
-    private TpSystemConfigService tpSystemConfigService;
-
     @Autowired
     private RestTemplate restTemplate;
 
@@ -48,33 +42,18 @@ public class KeycloakSyncServiceImpl implements KeycloakSyncService {
     @Autowired(required = false)
     private ObjectProvider<UserPersonService> userPersonServiceProvider;
 
+    @Autowired
+    private KeycloakAdminSession keycloakAdminSession;
+
+    @Autowired
+    private KeycloakUserReconciler keycloakUserReconciler;
+
     @Value("${keycloak.server-url:http://localhost:8080}")
     private String keycloakServerUrl;
 
     @Value("${keycloak.realm:ps-realm}")
     private String keycloakRealm;
 
-    /**
-     * 获取Keycloak管理员客户端ID
-     */
-    private String getAdminClientId() {
-        return tpSystemConfigService.getConfigValue("keycloak.admin.client-id", "admin-cli");
-    }
-
-    /**
-     * 获取Keycloak管理员用户名
-     */
-    private String getAdminUsername() {
-        return tpSystemConfigService.getConfigValue("keycloak.admin.username", "admin");
-    }
-
-    /**
-     * 获取Keycloak管理员密码
-     */
-    private String getAdminPassword() {
-        return tpSystemConfigService.getConfigValue("keycloak.admin.password", "cotticotti");
-    }
-
     @Override
     public KeycloakSyncResult syncAccountToKeycloak(String accountId, String username, String password, String creator) {
         try {
@@ -325,31 +304,10 @@ public class KeycloakSyncServiceImpl implements KeycloakSyncService {
     }
 
     /**
-     * 获取管理员访问令牌
+     * 获取管理员访问令牌（由管理会话缓存和续期）
      */
     private String getAdminAccessToken() {
-        try {
-            String tokenUrl = keycloakServerUrl + "/realms/master/protocol/openid-connect/token";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-
-            MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
-            params.add("grant_type", "password");
-            params.add("client_id", getAdminClientId());
-            params.add("username", getAdminUsername());
-            params.add("password", getAdminPassword());
-
-            HttpEntity<MultiValueMap<String, String>> request = new HttpEntity<>(params, headers);
-            ResponseEntity<Map> response = restTemplate.postForEntity(tokenUrl, request, Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return (String) response.getBody().get("access_token");
-            }
-        } catch (Exception e) {
-            log.error("获取Keycloak管理员令牌失败: {}", e.getMessage(), e);
-        }
-        return null;
+        return keycloakAdminSession.getAccessToken();
     }
 
     /**
@@ -894,6 +852,19 @@ public class KeycloakSyncServiceImpl implements KeycloakSyncService {
         return performOperationOnAllCredentials(accountId, "disable", "禁用");
     }
 
+    @Override
+    public ReconcileResult reconcileAccounts(boolean dryRun) {
+        try {
+            return keycloakUserReconciler.reconcileAll(dryRun);
+        } catch (Exception e) {
+            log.error("Keycloak用户对账失败: dryRun={}, error={}", dryRun, e.getMessage(), e);
+            ReconcileResult result = new ReconcileResult();
+            result.setDryRun(dryRun);
+            result.setMessage("对账失败: " + e.getMessage());
+            return result;
+        }
+    }
+
     /**
      * 对所有凭据执行操作（删除/启用/禁用）
      */
@@ -0,0 +1,284 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpKeycloakAccount;
+import com.jiuxi.admin.core.service.KeycloakSyncService.ReconcileResult;
+import com.jiuxi.admin.core.service.TpKeycloakAccountService;
+import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @ClassName: KeycloakUserReconciler
+ * @Description: Keycloak用户批量对账
+ * <pre>
+ *     1. 分页读取一遍 Keycloak 用户（简要信息），与 tp_keycloak_account 在内存中按用户名比对
+ *     2. 只处理差异：Keycloak 缺失的用户补建；本地 kcUserId 与 Keycloak 不一致的校准本地记录；启用状态以本地为准推送到 Keycloak
+ *     3. Keycloak 侧多出的用户（手机号、证件号凭据或其它系统用户）只计数，不删除
+ *     4. 补建和状态推送经 {@link KeycloakAdminSession} 并发执行，共用一个管理员令牌；本地校准批量写库
+ *     5. 姓名、邮箱等属性不在对账范围内，仍由单账号同步维护
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Component
+public class KeycloakUserReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeycloakUserReconciler.class);
+
+    private final KeycloakAdminSession session;
+
+    private final TpKeycloakAccountService tpKeycloakAccountService;
+
+    private final int pageSize;
+
+    @Autowired
+    public KeycloakUserReconciler(KeycloakAdminSession session, TpKeycloakAccountService tpKeycloakAccountService,
+                                  @Value("${ps.keycloak.reconcile.page-size:500}") int pageSize) {
+        this.session = session;
+        this.tpKeycloakAccountService = tpKeycloakAccountService;
+        this.pageSize = Math.max(1, pageSize);
+    }
+
+    /**
+     * 对账全部本地 Keycloak 账号记录
+     *
+     * @param dryRun 为 true 时只统计差异，不做修改
+     */
+    public ReconcileResult reconcileAll(boolean dryRun) {
+        List<TpKeycloakAccount> accounts = tpKeycloakAccountService.list();
+        Reconciliation reconciliation = reconcile(accounts, dryRun);
+        List<TpKeycloakAccount> fixes = reconciliation.getIdFixes();
+        if (!dryRun && !fixes.isEmpty()) {
+            tpKeycloakAccountService.updateBatchById(fixes, 500);
+        }
+        return reconciliation.getResult();
+    }
+
+    /**
+     * 比对并修正 Keycloak 侧差异，本地需要校准的记录通过 {@link Reconciliation#getIdFixes()} 返回，由调用方写库
+     */
+    Reconciliation reconcile(List<TpKeycloakAccount> accounts, boolean dryRun) {
+        long start = System.currentTimeMillis();
+        Map<String, RemoteUser> remote = new HashMap<>();
+        int remoteTotal;
+        try {
+            remoteTotal = session.forEachUser(pageSize, user -> {
+                String username = (String) user.get("username");
+                if (username != null) {
+                    remote.put(username.toLowerCase(Locale.ROOT), new RemoteUser((String) user.get("id"), !Boolean.FALSE.equals(user.get("enabled"))));
+                }
+            });
+        } catch (IOException | TopinfoRuntimeException e) {
+            LOGGER.error("读取Keycloak用户失败，对账终止: {}", e.getMessage());
+            ReconcileResult result = new ReconcileResult();
+            result.setSuccess(false);
+            result.setMessage("读取Keycloak用户失败: " + e.getMessage());
+            return new Reconciliation(result, Collections.emptyList());
+        }
+
+        Plan plan = plan(accounts, remote);
+        ReconcileResult result = new ReconcileResult();
+        result.setDryRun(dryRun);
+        result.setLocalTotal(accounts.size());
+        result.setRemoteTotal(remoteTotal);
+        result.setRemoteOnly(plan.remoteOnly);
+        result.setToCreate(plan.creates.size());
+        result.setToFixUserId(plan.idFixes.size());
+        result.setToUpdateEnabled(plan.enabledUpdates.size());
+
+        List<TpKeycloakAccount> idFixes = new ArrayList<>(plan.idFixes);
+        if (!dryRun) {
+            List<String> createdIds = session.executeAll(plan.creates, account -> {
+                try {
+                    return session.createUser(representation(account));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            for (int i = 0; i < createdIds.size(); i++) {
+                TpKeycloakAccount account = plan.creates.get(i);
+                String userId = createdIds.get(i);
+                if (userId != null) {
+                    result.setCreated(result.getCreated() + 1);
+                    idFixes.add(withUserId(account, userId));
+                } else {
+                    result.addFailure("创建失败: " + account.getKcUsername());
+                }
+            }
+
+            List<Boolean> updated = session.executeAll(plan.enabledUpdates, account -> {
+                Map<String, Object> representation = new HashMap<>(2);
+                representation.put("enabled", isEnabled(account));
+                try {
+                    return session.updateUser(remote.get(key(account)).id, representation);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+            });
+            for (int i = 0; i < updated.size(); i++) {
+                if (Boolean.TRUE.equals(updated.get(i))) {
+                    result.setEnabledUpdated(result.getEnabledUpdated() + 1);
+                } else {
+                    result.addFailure("状态更新失败: " + plan.enabledUpdates.get(i).getKcUsername());
+                }
+            }
+            result.setUserIdFixed(idFixes.size());
+        }
+        result.setSuccess(result.getFailureCount() == 0);
+        result.setMessage(dryRun ? "差异统计完成" : "对账完成");
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        LOGGER.info("Keycloak用户对账完成: dryRun={}, 本地={}, Keycloak={}, 补建={}, 校准={}, 状态={}, 失败={}, 耗时={}ms",
+                dryRun, result.getLocalTotal(), result.getRemoteTotal(), result.getToCreate(), result.getToFixUserId(),
+                result.getToUpdateEnabled(), result.getFailureCount(), result.getElapsedMillis());
+        return new Reconciliation(result, idFixes);
+    }
+
+    /**
+     * 按用户名（不区分大小写，Keycloak 用户名统一小写）比对，同一用户名重复的本地记录只取第一条
+     */
+    static Plan plan(List<TpKeycloakAccount> accounts, Map<String, RemoteUser> remote) {
+        Plan plan = new Plan();
+        Set<String> matched = new HashSet<>();
+        for (TpKeycloakAccount account : accounts) {
+            if (account.getKcUsername() == null || account.getKcUsername().trim().isEmpty()) {
+                continue;
+            }
+            String key = key(account);
+            if (!matched.add(key)) {
+                continue;
+            }
+            RemoteUser user = remote.get(key);
+            if (user == null) {
+                plan.creates.add(account);
+                continue;
+            }
+            if (!user.id.equals(account.getKcUserId())) {
+                plan.idFixes.add(withUserId(account, user.id));
+            }
+            if (user.enabled != isEnabled(account)) {
+                plan.enabledUpdates.add(account);
+            }
+        }
+        for (String key : remote.keySet()) {
+            if (!matched.contains(key)) {
+                plan.remoteOnly++;
+            }
+        }
+        return plan;
+    }
+
+    private static Map<String, Object> representation(TpKeycloakAccount account) {
+        Map<String, Object> representation = new LinkedHashMap<>();
+        representation.put("username", account.getKcUsername().trim());
+        representation.put("enabled", isEnabled(account));
+        if (account.getKcPassword() != null && !account.getKcPassword().isEmpty()) {
+            Map<String, Object> credential = new HashMap<>();
+            credential.put("type", "password");
+            credential.put("value", account.getKcPassword());
+            credential.put("temporary", false);
+            representation.put("credentials", Collections.singletonList(credential));
+        }
+        return representation;
+    }
+
+    private static TpKeycloakAccount withUserId(TpKeycloakAccount account, String userId) {
+        TpKeycloakAccount fix = new TpKeycloakAccount();
+        fix.setId(account.getId());
+        fix.setKcUserId(userId);
+        return fix;
+    }
+
+    private static String key(TpKeycloakAccount account) {
+        return account.getKcUsername().trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isEnabled(TpKeycloakAccount account) {
+        return account.getEnabled() == null || account.getEnabled() == 1;
+    }
+
+    /**
+     * Keycloak 侧用户
+     */
+    static final class RemoteUser {
+
+        private final String id;
+
+        private final boolean enabled;
+
+        RemoteUser(String id, boolean enabled) {
+            this.id = id;
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * 差异清单
+     */
+    static final class Plan {
+
+        private final List<TpKeycloakAccount> creates = new ArrayList<>();
+
+        /**
+         * 只含 id 和 kcUserId 的待更新记录
+         */
+        private final List<TpKeycloakAccount> idFixes = new ArrayList<>();
+
+        private final List<TpKeycloakAccount> enabledUpdates = new ArrayList<>();
+
+        private int remoteOnly;
+
+        List<TpKeycloakAccount> getCreates() {
+            return creates;
+        }
+
+        List<TpKeycloakAccount> getIdFixes() {
+            return idFixes;
+        }
+
+        List<TpKeycloakAccount> getEnabledUpdates() {
+            return enabledUpdates;
+        }
+
+        int getRemoteOnly() {
+            return remoteOnly;
+        }
+    }
+
+    /**
+     * 对账结果及待写库的本地校准记录
+     */
+    static final class Reconciliation {
+
+        private final ReconcileResult result;
+
+        private final List<TpKeycloakAccount> idFixes;
+
+        Reconciliation(ReconcileResult result, List<TpKeycloakAccount> idFixes) {
+            this.result = result;
+            this.idFixes = idFixes;
+        }
+
+        ReconcileResult getResult() {
+            return result;
+        }
+
+        List<TpKeycloakAccount> getIdFixes() {
+            return idFixes;
+        }
+    }
+}
@@ -6,22 +6,30 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.jiuxi.admin.core.bean.entity.TpApiCallLog;
 import com.jiuxi.admin.core.bean.query.TpApiCallLogQuery;
 import com.jiuxi.admin.core.bean.vo.TpApiCallLogVO;
+import com.jiuxi.admin.core.bean.vo.TpAppApiUsageVO;
 import com.jiuxi.admin.core.mapper.TpApiCallLogMapper;
+import com.jiuxi.admin.core.mapper.TpAppApiUsageMapper;
 import com.jiuxi.admin.core.service.TpApiCallLogService;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.common.util.SnowflakeIdUtil;
+import com.jiuxi.shared.infrastructure.persistence.batch.BatchLogWriter;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
- * API调用日志Service实现
+ * API调用日志Service实现，日志经 {@link BatchLogWriter} 异步批量入库
  *
  * @author system
  * @date 2025-11-30
@@ -34,6 +42,31 @@ public class TpApiCallLogServiceImpl implements TpApiCallLogService {
     @Autowired
     private TpApiCallLogMapper tpApiCallLogMapper;
 
+    @Autowired
+    private TpAppApiUsageMapper tpAppApiUsageMapper;
+
+    @Value("${ps.log.ingest.capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${ps.log.ingest.batch-size:200}")
+    private int batchSize;
+
+    @Value("${ps.log.ingest.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    private BatchLogWriter<TpApiCallLog> logWriter;
+
+    @PostConstruct
+    public void init() {
+        logWriter = new BatchLogWriter<>("api-call-log", bufferCapacity, batchSize, flushIntervalMillis,
+                tpApiCallLogMapper::batchInsert);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        logWriter.shutdown(flushIntervalMillis * 10);
+    }
+
     /**
      * 分页查询API调用日志列表
      *
@@ -90,7 +123,7 @@ public class TpApiCallLogServiceImpl implements TpApiCallLogService {
     public void logApiCall(String appId, String appName, javax.servlet.http.HttpServletRequest request,
                           Integer businessStatus, Integer responseTime, String errorMessage) {
         try {
-            LOGGER.info("开始记录API调用日志，appId={}, appName={}, URI={}, method={}, businessStatus={}", 
+            LOGGER.debug("开始记录API调用日志，appId={}, appName={}, URI={}, method={}, businessStatus={}", 
                 appId, appName, request.getRequestURI(), request.getMethod(), businessStatus);
             
             TpApiCallLog log = new TpApiCallLog();
@@ -114,12 +147,10 @@ public class TpApiCallLogServiceImpl implements TpApiCallLogService {
             log.setErrorMessage(errorMessage);
             log.setCallTime(CommonDateUtil.now());
             
-            // 异步插入日志（避免影响主请求）
-            // 这里简化处理，直接同步插入
-            // 生产环境建议使用@Async异步处理
-            LOGGER.info("准备插入日志记录，logId={}", log.getLogId());
-            int rows = tpApiCallLogMapper.insert(log);
-            LOGGER.info("日志记录插入完成，影响行数={}", rows);
+            // 放入缓冲区后由后台线程批量插入，避免影响主请求
+            if (!logWriter.offer(log)) {
+                LOGGER.debug("API调用日志缓冲区已满，丢弃日志，logId={}", log.getLogId());
+            }
             
         } catch (Exception e) {
             // 日志记录失败不影响主流程
@@ -127,6 +158,24 @@ public class TpApiCallLogServiceImpl implements TpApiCallLogService {
         }
     }
     
+    @Override
+    public Map<String, Object> getLogWriterStatistics() {
+        return logWriter.getStatistics();
+    }
+
+    @Override
+    public List<TpAppApiUsageVO> getQuotaUsage(String appId, String startDate, String endDate) {
+        try {
+            String today = CommonDateUtil.now().substring(0, 8);
+            return tpAppApiUsageMapper.selectUsage(appId,
+                    Optional.ofNullable(startDate).filter(s -> !s.isEmpty()).orElse(today),
+                    Optional.ofNullable(endDate).filter(s -> !s.isEmpty()).orElse(today));
+        } catch (Exception e) {
+            LOGGER.error("查询开放API配额用量失败！appId:{}, 错误: {}", appId, ExceptionUtils.getStackTrace(e));
+            throw new TopinfoRuntimeException(-1, "查询开放API配额用量失败！");
+        }
+    }
+
     /**
      * 获取客户端IP地址
      */
@@ -0,0 +1,167 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
+import com.jiuxi.admin.core.mapper.TpAttachBlobMapper;
+import com.jiuxi.admin.core.service.TpAttachBlobService;
+import com.jiuxi.common.exception.ExceptionUtils;
+import com.jiuxi.common.util.CommonDateUtil;
+import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
+import com.jiuxi.shared.infrastructure.file.ContentAddressedStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @Description: 附件内容去重存储
+ * <pre>
+ *     文件存放在本地上传目录的 cas 子目录下，tp_attach_blob 记录每份内容的引用数。
+ *     增加引用先写数据库再落文件，释放引用在事务中减引用、删记录，事务提交后在新事务中加锁确认记录仍不存在再删文件，
+ *     事务回滚时记录和文件都保留。删文件时持有记录锁：并发上传已插入记录（未提交）时等待其提交后看到记录，保留文件；
+ *     尚未插入时间隙锁使插入等到文件删除、锁释放后再执行，随后发现文件不存在会重新落盘；
+ *     秒传增加引用后再次确认文件存在，文件已被并发删除时撤销引用，由客户端重新上传
+ * </pre>
+ * @ClassName: TpAttachBlobServiceImpl
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Service("tpAttachBlobService")
+public class TpAttachBlobServiceImpl implements TpAttachBlobService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TpAttachBlobServiceImpl.class);
+
+    @Autowired
+    private TpAttachBlobMapper tpAttachBlobMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ContentAddressedStore store;
+
+    public TpAttachBlobServiceImpl() {
+        this(new ContentAddressedStore(FileExpServiceImpl.getLocalRootDir()));
+    }
+
+    TpAttachBlobServiceImpl(ContentAddressedStore store) {
+        this.store = store;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public TpAttachBlob store(InputStream inputStream) {
+        ContentAddressedStore.StagedBlob staged = null;
+        try {
+            staged = store.stage(inputStream);
+            TpAttachBlob blob = newBlob(staged.getDigest(), staged.getSize());
+            tpAttachBlobMapper.acquire(blob);
+            store.commit(staged);
+            return blob;
+        } catch (IOException e) {
+            discard(staged);
+            LOGGER.error("附件内容保存失败！错误:{}", ExceptionUtils.getStackTrace(e));
+            throw new TopinfoRuntimeException(-101, "附件上传失败!");
+        } catch (RuntimeException e) {
+            discard(staged);
+            throw e;
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public TpAttachBlob acquire(String digest, long size) {
+        if (!ContentAddressedStore.isDigest(digest)) {
+            return null;
+        }
+        TpAttachBlob existing = tpAttachBlobMapper.view(digest);
+        if (existing == null || existing.getBlobSize() == null || existing.getBlobSize() != size || !store.exists(digest)) {
+            return null;
+        }
+        TpAttachBlob blob = newBlob(digest, size);
+        tpAttachBlobMapper.acquire(blob);
+        // 检查与加引用之间文件可能被并发释放删除，撤销本次引用，客户端上传时经 store 重新落盘
+        if (!store.exists(digest)) {
+            tpAttachBlobMapper.release(digest, CommonDateUtil.now());
+            tpAttachBlobMapper.deleteUnreferenced(digest);
+            return null;
+        }
+        return blob;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void release(String savePath) {
+        String digest = ContentAddressedStore.digestOf(savePath);
+        if (digest == null) {
+            return;
+        }
+        tpAttachBlobMapper.release(digest, CommonDateUtil.now());
+        if (tpAttachBlobMapper.deleteUnreferenced(digest) == 0) {
+            return;
+        }
+        // 文件删除不可回滚，等调用方事务提交后再删
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteContent(digest);
+                }
+            });
+        } else {
+            deleteContent(digest);
+        }
+    }
+
+    /**
+     * 删除内容文件，在新事务中加锁确认记录仍不存在（期间可能已被重新上传），持锁删除文件
+     * <pre>
+     *     afterCommit 中调用方事务的连接仍绑定在当前线程，必须开启新事务才能加锁；
+     *     不加锁的读看不到并发上传未提交的插入，而该上传可能因文件仍存在已丢弃临时文件，删除后只剩引用没有文件
+     * </pre>
+     */
+    private void deleteContent(String digest) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        template.executeWithoutResult(status -> {
+            if (tpAttachBlobMapper.viewForUpdate(digest) != null) {
+                return;
+            }
+            try {
+                store.delete(digest);
+            } catch (IOException e) {
+                LOGGER.warn("删除附件内容文件失败！digest: {}, 错误:{}", digest, e.getMessage());
+            }
+        });
+    }
+
+    private TpAttachBlob newBlob(String digest, long size) {
+        String now = CommonDateUtil.now();
+        TpAttachBlob blob = new TpAttachBlob();
+        blob.setDigest(digest);
+        blob.setSavePath(ContentAddressedStore.relativePath(digest));
+        blob.setBlobSize(size);
+        blob.setCreateTime(now);
+        blob.setUpdateTime(now);
+        return blob;
+    }
+
+    private void discard(ContentAddressedStore.StagedBlob staged) {
+        if (staged == null) {
+            return;
+        }
+        try {
+            store.discard(staged);
+        } catch (IOException e) {
+            LOGGER.warn("删除附件临时文件失败！错误:{}", e.getMessage());
+        }
+    }
+}
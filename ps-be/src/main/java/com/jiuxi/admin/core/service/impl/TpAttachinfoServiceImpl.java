@@ -10,6 +10,7 @@ import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.common.util.SnowflakeIdUtil;
 import com.jiuxi.admin.core.bean.entity.TpAttachinfo;
 import com.jiuxi.admin.core.bean.vo.TpAttachinfoRefVO;
+import com.jiuxi.admin.core.service.TpAttachBlobService;
 import com.jiuxi.admin.core.service.TpAttachinfoService;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import org.slf4j.Logger;
@@ -35,6 +36,9 @@ public class TpAttachinfoServiceImpl implements TpAttachinfoService {
     @Autowired
     private TpAttachinfoMapper tpAttachinfoMapper;
 
+    @Autowired
+    private TpAttachBlobService tpAttachBlobService;
+
     @Override
     public int save(TpAttachinfo bean) {
         try {
@@ -112,7 +116,12 @@ public class TpAttachinfoServiceImpl implements TpAttachinfoService {
             int count = 0;
             if (StrUtil.isBlank(referId)) {
                 // 如果 referId 为空，则只能删除当前登录人自己创建的附件，物理删除
+                String savePath = tpAttachinfoMapper.selectSavePath(attachId);
                 count = tpAttachinfoMapper.physicsDelete(attachId, jwtpid);
+                if (count > 0) {
+                    // 释放去重存储的引用
+                    tpAttachBlobService.release(savePath);
+                }
             } else {
                 // 逻辑删除
                 count = tpAttachinfoMapper.logicDelete(attachId, jwtpid, CommonDateUtil.now());
@@ -135,7 +144,12 @@ public class TpAttachinfoServiceImpl implements TpAttachinfoService {
     @Override
     public int delete(String attachId) {
         try {
+            String savePath = tpAttachinfoMapper.selectSavePath(attachId);
             int count = tpAttachinfoMapper.delete(attachId);
+            if (count > 0) {
+                // 释放去重存储的引用
+                tpAttachBlobService.release(savePath);
+            }
             return count;
         } catch (Exception e) {
             LOGGER.error("删除附件信息失败！attachId:{}, 错误:{}", attachId, ExceptionUtils.getStackTrace(e));
@@ -283,4 +297,21 @@ public class TpAttachinfoServiceImpl implements TpAttachinfoService {
         String id = tpAttachinfoMapper.exists(attachId);
         return StrUtil.isNotBlank(id);
     }
+
+    /**
+     * 判断人员是否创建过引用该存放路径的附件 （忽略actived字段）
+     *
+     * @param savePath 附件存放路径
+     * @param creator  人员id
+     * @return boolean
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    @Override
+    public boolean referencedBy(String savePath, String creator) {
+        if (StrUtil.isBlank(savePath) || StrUtil.isBlank(creator)) {
+            return false;
+        }
+        return StrUtil.isNotBlank(tpAttachinfoMapper.selectIdBySavePathAndCreator(savePath, creator));
+    }
 }
@@ -15,6 +15,7 @@ import com.jiuxi.common.constant.TpConstant;
 import com.jiuxi.common.exception.ExceptionUtils;
 import com.jiuxi.common.util.CommonTreeUtil;
 import com.jiuxi.common.util.SnowflakeIdUtil;
+import com.jiuxi.module.org.infra.performance.OrgHierarchyIndexService;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +46,9 @@ public class TpDataPermissionsServiceImpl implements TpDataPermissionsService {
     @Autowired
     private TpDeptBasicinfoService tpDeptBasicinfoService;
 
+    @Autowired
+    private OrgHierarchyIndexService orgHierarchyIndexService;
+
     /**
      * 保存数据权限，删除原有的数据
      *
@@ -211,6 +215,11 @@ public class TpDataPermissionsServiceImpl implements TpDataPermissionsService {
         if (null == dept){
             return null;
         }
+        // 层级索引可用时，直接在当前人员的权限部门中筛选本级及下级，不再关联部门表按层级code模糊查询
+        Set<String> permIds = orgHierarchyIndexService.retainDescendants(tpDataPermissionsMapper.listPermIds(personId), dept.getDeptLevelcode());
+        if (null != permIds) {
+            return permIds;
+        }
         return tpDataPermissionsMapper.listAllDeptDataPermissions(personId, dept.getDeptLevelcode());
     }
 
@@ -26,6 +26,9 @@ import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.common.util.CommonUniqueIndexUtil;
 import com.jiuxi.common.util.CommonTreeUtil;
 import com.jiuxi.common.util.SnowflakeIdUtil;
+import com.jiuxi.module.org.domain.event.DepartmentCreatedEvent;
+import com.jiuxi.module.org.domain.event.DepartmentDeletedEvent;
+import com.jiuxi.module.org.infra.performance.OrgHierarchyIndexService;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import com.jiuxi.common.bean.SessionVO;
 import com.jiuxi.security.core.holder.SessionHolder;
@@ -96,6 +99,9 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private OrgHierarchyIndexService orgHierarchyIndexService;
+
     /**
      * 机构树
      *
@@ -261,8 +267,9 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
      */
     private List<TreeNode> deptList(TpDeptBasicinfoVO deptBasicinfoVO, int category) {
         String levelCode = deptBasicinfoVO.getDeptLevelcode();
-        // 根据部门层级查询所有子级部门
-        List<TreeNode> deptList = tpDeptBasicinfoMapper.selectDeptListByLevelCode(levelCode, category);
+        // 根据部门层级查询所有子级部门，层级索引可用时按部门id查询，否则按层级code模糊查询
+        List<String> deptIds = orgHierarchyIndexService.descendantIdsForQuery(levelCode);
+        List<TreeNode> deptList = tpDeptBasicinfoMapper.selectDeptListByLevelCode(levelCode, deptIds, category);
         return deptList;
     }
 
@@ -275,22 +282,21 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
      */
     private TreeNode syncTree(TreeNode rootNode, List<TreeNode> deptList) {
 
-        // 按pid分组
-        Map<String, List<TreeNode>> map = deptList.stream().collect(Collectors.groupingBy(TreeNode::getPid, Collectors.toList()));
+        // 根节点替换查询结果中的本级部门，保持查询的排序，不再重新排序
+        List<TreeNode> nodes = new ArrayList<>(deptList.size() + 1);
+        nodes.add(rootNode);
+        for (TreeNode treeNode : deptList) {
+            if (!StrUtil.equals(treeNode.getId(), rootNode.getId())) {
+                nodes.add(treeNode);
+            }
+        }
 
         // 组装树结构，避免使用递归
-        deptList.forEach(treeNode -> {
-            List<TreeNode> children = map.get(treeNode.getValue());
-            if (null != children) {
-                treeNode.setLeaf(false);
-                treeNode.addChildrens(children);
-            } else {
-                treeNode.setLeaf(true);
-            }
-            if (StrUtil.equals(treeNode.getPid(), rootNode.getId())) {
-                rootNode.addChildren(treeNode);
-            }
-        });
+        CommonTreeUtil.TreeResult<TreeNode> result = CommonTreeUtil.assembleTree(nodes, true, null, treeNode -> treeNode == rootNode);
+        if (!result.getOrphans().isEmpty() || !result.getCyclic().isEmpty()) {
+            LOGGER.warn("部门树存在无法挂接的部门，根部门：{}，孤儿部门数：{}，循环引用部门数：{}",
+                    rootNode.getId(), result.getOrphans().size(), result.getCyclic().size());
+        }
         return rootNode;
     }
 
@@ -394,6 +400,10 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
 
             tpDeptBasicinfoMapper.save(bean);
 
+            // 发布事件，维护部门层级索引
+            applicationContext.publishEvent(new DepartmentCreatedEvent(bean.getDeptId(), bean.getDeptFullName(), bean.getPdeptId(),
+                    bean.getDeptLevelcode(), null, bean.getTenantId(), pid));
+
             // 发布事件，推送部门基本信息给第三方系统
             if (null != tpDeptBasicinfoEventService) {
                 applicationContext.publishEvent(new TpDeptBasicinfoEvent("部门基本信息新增同步监听", tpDeptBasicinfoEventService, bean, OpertionTypeEnum.ADD.getOpertionType()));
@@ -799,6 +809,10 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
             // 删除时，唯一索引字段需要添加删除时间
             int updateCount = tpDeptBasicinfoMapper.deleteByDeptId(bean.getDeptId(), bean.getUpdateTime(), bean.getUpdator(), CommonUniqueIndexUtil.addDeleteTime(bean.getDeptLevelcode()));
 
+            // 发布事件，维护部门层级索引
+            applicationContext.publishEvent(new DepartmentDeletedEvent(vo.getDeptId(), vo.getDeptFullName(), vo.getPdeptId(),
+                    vo.getDeptLevelcode(), vo.getTenantId(), jwtpid));
+
             // 在删除操作后，获取变更后的完整组织树
             List<TreeNode> afterFullTree = null;
             try {
@@ -869,6 +883,8 @@ public class TpDeptBasicinfoServiceImpl implements TpDeptBasicinfoService {
         List<TpDeptBasicinfoVO> deptIds = tpDeptBasicinfoMapper.listByEntId(ascnId);
         for (TpDeptBasicinfoVO vo: deptIds) {
             tpDeptBasicinfoMapper.deleteByDeptId(vo.getDeptId(), now, jwtpid, CommonUniqueIndexUtil.addDeleteTime(vo.getDeptLevelcode()));
+            applicationContext.publishEvent(new DepartmentDeletedEvent(vo.getDeptId(), vo.getDeptFullName(), vo.getPdeptId(),
+                    vo.getDeptLevelcode(), vo.getTenantId(), jwtpid));
         }
     }
 
@@ -0,0 +1,202 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpFileCatalog;
+import com.jiuxi.admin.core.mapper.TpFileCatalogMapper;
+import com.jiuxi.admin.core.service.TpFileCatalogService;
+import com.jiuxi.shared.infrastructure.file.FileCatalogScanner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @Description: 文件目录索引
+ * <pre>
+ *     1. 每条记录带同步时间，写入索引时更新；校对时先按磁盘内容写入全部文件，再删除同步时间早于校对开始时间的记录，
+ *        校对期间新上传的文件同步时间晚于开始时间，不会被误删
+ *     2. 上传目录不存在时不校对，避免挂载失败时清空索引
+ *     3. 写入、删除按批执行，单条语句涉及的行数有上限
+ * </pre>
+ * @ClassName: TpFileCatalogServiceImpl
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Service("tpFileCatalogService")
+public class TpFileCatalogServiceImpl implements TpFileCatalogService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TpFileCatalogServiceImpl.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    @Autowired
+    private TpFileCatalogMapper tpFileCatalogMapper;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    @Override
+    public void record(String filePath, String originalName, String contentType, String md5, long fileSize, long lastModified) {
+        TpFileCatalog bean = newCatalog(filePath, fileSize, lastModified);
+        bean.setOriginalName(originalName);
+        bean.setContentType(contentType);
+        bean.setMd5(md5);
+        tpFileCatalogMapper.save(bean);
+    }
+
+    @Override
+    public void copy(String sourcePath, String targetPath, long fileSize, long lastModified) {
+        TpFileCatalog bean = newCatalog(targetPath, fileSize, lastModified);
+        if (tpFileCatalogMapper.copy(FileCatalogScanner.normalize(sourcePath), bean) == 0) {
+            tpFileCatalogMapper.save(bean);
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public void rename(String sourcePath, String targetPath, long fileSize, long lastModified) {
+        TpFileCatalog bean = newCatalog(targetPath, fileSize, lastModified);
+        // 重命名会覆盖已存在的同名文件
+        tpFileCatalogMapper.delete(bean.getFilePath());
+        if (tpFileCatalogMapper.rename(FileCatalogScanner.normalize(sourcePath), bean) == 0) {
+            tpFileCatalogMapper.save(bean);
+        }
+    }
+
+    @Override
+    public void remove(String filePath) {
+        tpFileCatalogMapper.delete(FileCatalogScanner.normalize(filePath));
+    }
+
+    @Override
+    public void removeAll(List<String> filePaths) {
+        for (int i = 0; i < filePaths.size(); i += BATCH_SIZE) {
+            tpFileCatalogMapper.deleteBatch(filePaths.subList(i, Math.min(i + BATCH_SIZE, filePaths.size())));
+        }
+    }
+
+    @Override
+    public void removeFolder(String folderPath) {
+        String prefix = FileCatalogScanner.normalize(folderPath);
+        if (prefix.isEmpty()) {
+            return;
+        }
+        if (!prefix.endsWith("/")) {
+            prefix = prefix + "/";
+        }
+        tpFileCatalogMapper.deleteByPrefix(escapeLike(prefix));
+    }
+
+    @Override
+    public List<TpFileCatalog> list(String category, String keyword, List<String> fileExts, int page, int size) {
+        long offset = (long) (Math.max(page, 1) - 1) * size;
+        return tpFileCatalogMapper.list(category, escapeLike(keyword), fileExts, offset, size);
+    }
+
+    @Override
+    public long count(String category, String keyword, List<String> fileExts) {
+        return tpFileCatalogMapper.count(category, escapeLike(keyword), fileExts);
+    }
+
+    @Override
+    public List<TpFileCatalog> listExpired(long before, TpFileCatalog after, int limit) {
+        return after == null
+                ? tpFileCatalogMapper.listExpired(before, null, null, limit)
+                : tpFileCatalogMapper.listExpired(before, after.getLastModified(), after.getFilePath(), limit);
+    }
+
+    @Override
+    public List<Map<String, Object>> sumByCategory() {
+        return tpFileCatalogMapper.sumByCategory();
+    }
+
+    @Override
+    public Map<String, Object> sumByTime(Long from, Long to) {
+        Map<String, Object> sum = tpFileCatalogMapper.sumByTime(from, to);
+        return sum != null ? sum : Collections.emptyMap();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return tpFileCatalogMapper.selectAny() == null;
+    }
+
+    @Override
+    public Map<String, Object> rebuild(Path root) {
+        Map<String, Object> result = new HashMap<>();
+        if (!Files.isDirectory(root)) {
+            result.put("success", false);
+            result.put("message", "上传目录不存在: " + root);
+            return result;
+        }
+        if (!rebuilding.compareAndSet(false, true)) {
+            result.put("success", false);
+            result.put("message", "文件目录索引正在校对中");
+            return result;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long scanned = FileCatalogScanner.scan(root, BATCH_SIZE, files -> {
+                List<TpFileCatalog> list = new ArrayList<>(files.size());
+                for (FileCatalogScanner.ScannedFile file : files) {
+                    TpFileCatalog bean = newCatalog(file.getRelativePath(), file.getSize(), file.getLastModified());
+                    bean.setSyncTime(start);
+                    list.add(bean);
+                }
+                tpFileCatalogMapper.syncBatch(list);
+            });
+
+            long removed = 0;
+            int n;
+            do {
+                n = tpFileCatalogMapper.deleteStale(start, BATCH_SIZE);
+                removed += n;
+            } while (n == BATCH_SIZE);
+
+            long cost = System.currentTimeMillis() - start;
+            LOGGER.info("文件目录索引校对完成，扫描 {} 个文件，删除 {} 条失效索引，耗时 {} ms", scanned, removed, cost);
+            result.put("success", true);
+            result.put("scannedCount", scanned);
+            result.put("removedCount", removed);
+            result.put("costMillis", cost);
+        } catch (IOException e) {
+            LOGGER.error("文件目录索引校对失败！错误:{}", e.getMessage(), e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        } finally {
+            rebuilding.set(false);
+        }
+        return result;
+    }
+
+    private TpFileCatalog newCatalog(String filePath, long fileSize, long lastModified) {
+        String path = FileCatalogScanner.normalize(filePath);
+        String fileName = FileCatalogScanner.fileNameOf(path);
+        TpFileCatalog bean = new TpFileCatalog();
+        bean.setFilePath(path);
+        bean.setCategory(FileCatalogScanner.categoryOf(path));
+        bean.setFileName(fileName);
+        bean.setFileExt(FileCatalogScanner.extensionOf(fileName));
+        bean.setFileSize(fileSize);
+        bean.setLastModified(lastModified);
+        bean.setSyncTime(System.currentTimeMillis());
+        return bean;
+    }
+
+    private static String escapeLike(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
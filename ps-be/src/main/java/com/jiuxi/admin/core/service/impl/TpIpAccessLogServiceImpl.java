@@ -11,11 +11,16 @@ import com.jiuxi.admin.core.bean.vo.TpIpAccessLogVO;
 import com.jiuxi.admin.core.mapper.TpIpAccessLogMapper;
 import com.jiuxi.admin.core.service.TpIpAccessLogService;
 import com.jiuxi.admin.core.util.IpAccessControlUtil;
+import com.jiuxi.shared.infrastructure.cache.SlidingWindowCounter;
+import com.jiuxi.shared.infrastructure.persistence.batch.BatchLogWriter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.servlet.http.HttpServletRequest;
 import java.util.Date;
 import java.util.List;
@@ -23,7 +28,8 @@ import java.util.Map;
 
 /**
  * @ClassName: TpIpAccessLogServiceImpl
- * @Description: IP访问控制日志表服务实现类
+ * @Description: IP访问控制日志表服务实现类，日志经 {@link BatchLogWriter} 异步批量入库，
+ *               近期访问次数由内存滑动窗口统计
  * @Author: Qdd
  * @Date: 2024-01-27
  * @Copyright: www.jiuxi.com Inc. All rights reserved.
@@ -35,6 +41,40 @@ public class TpIpAccessLogServiceImpl implements TpIpAccessLogService {
     @Autowired
     private TpIpAccessLogMapper tpIpAccessLogMapper;
 
+    @Value("${ps.log.ingest.capacity:10000}")
+    private int bufferCapacity;
+
+    @Value("${ps.log.ingest.batch-size:200}")
+    private int batchSize;
+
+    @Value("${ps.log.ingest.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${ps.log.ingest.ip-window-minutes:60}")
+    private int ipWindowMinutes;
+
+    @Value("${ps.log.ingest.ip-window-max-keys:100000}")
+    private int ipWindowMaxKeys;
+
+    private BatchLogWriter<TpIpAccessLog> logWriter;
+
+    /**
+     * 每个IP近 ipWindowMinutes 分钟的访问次数，按分钟分桶
+     */
+    private SlidingWindowCounter recentAccessCounter;
+
+    @PostConstruct
+    public void init() {
+        recentAccessCounter = new SlidingWindowCounter(60_000L, ipWindowMinutes, ipWindowMaxKeys);
+        logWriter = new BatchLogWriter<>("ip-access-log", bufferCapacity, batchSize, flushIntervalMillis,
+                tpIpAccessLogMapper::batchInsert);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        logWriter.shutdown(flushIntervalMillis * 10);
+    }
+
     @Override
     public IPage<TpIpAccessLogVO> queryPage(TpIpAccessLogQuery query) {
         Page<TpIpAccessLogVO> page = new Page<>(query.getCurrent(), query.getSize());
@@ -99,7 +139,8 @@ public class TpIpAccessLogServiceImpl implements TpIpAccessLogService {
             accessLog.setActived(TpIpAccessLog.ACTIVED_YES);
             accessLog.setCreateTime(new Date());
             
-            tpIpAccessLogMapper.insert(accessLog);
+            recentAccessCounter.increment(clientIp, accessLog.getAccessTime().getTime());
+            logWriter.offer(accessLog);
         } catch (Exception e) {
             log.error("记录IP访问日志详情失败", e);
         }
@@ -120,6 +161,13 @@ public class TpIpAccessLogServiceImpl implements TpIpAccessLogService {
         return tpIpAccessLogMapper.statisticsDailyAccess(query);
     }
 
+    @Override
+    public Map<String, Object> getLogWriterStatistics() {
+        Map<String, Object> statistics = logWriter.getStatistics();
+        statistics.put("trackedIps", recentAccessCounter.size());
+        return statistics;
+    }
+
     @Override
     public int cleanExpiredLogs(int days) {
         try {
@@ -142,20 +190,17 @@ public class TpIpAccessLogServiceImpl implements TpIpAccessLogService {
         return tpIpAccessLogMapper.selectRecentByIp(clientIp, limit);
     }
 
+    /**
+     * 统计本节点近 minutes 分钟内该IP的访问次数，精度为1分钟，最多统计 ipWindowMinutes 分钟
+     */
     @Override
     public Integer countRecentAccessByIp(String clientIp, Integer minutes) {
         if (StrUtil.isBlank(clientIp) || minutes == null || minutes <= 0) {
             return 0;
         }
         
-        Date endTime = new Date();
-        Date startTime = DateUtil.offsetMinute(endTime, -minutes);
-        
-        String startTimeStr = DateUtil.format(startTime, "yyyy-MM-dd HH:mm:ss");
-        String endTimeStr = DateUtil.format(endTime, "yyyy-MM-dd HH:mm:ss");
-        
-        Integer count = tpIpAccessLogMapper.countAccessByIpAndTime(clientIp, startTimeStr, endTimeStr);
-        return count != null ? count : 0;
+        long count = recentAccessCounter.count(clientIp, minutes * 60_000L);
+        return (int) Math.min(count, Integer.MAX_VALUE);
     }
 
     @Override
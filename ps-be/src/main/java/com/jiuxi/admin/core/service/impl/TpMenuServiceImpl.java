@@ -9,6 +9,7 @@ import com.jiuxi.admin.core.bean.entity.TpMenu;
 import com.jiuxi.admin.core.bean.vo.TpMenuVO;
 import com.jiuxi.admin.core.enums.MenuTypeEnum;
 import com.jiuxi.admin.core.mapper.TpMenuMapper;
+import com.jiuxi.shared.infrastructure.messaging.event.TpRoleAuthorizationEvent;
 import com.jiuxi.admin.core.service.TpMenuService;
 import com.jiuxi.admin.core.service.TpMenuHistoryService;
 import com.jiuxi.common.bean.TreeNode;
@@ -20,6 +21,7 @@ import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -51,6 +53,9 @@ public class TpMenuServiceImpl implements TpMenuService {
     @Autowired
     private TpMenuHistoryService tpMenuHistoryService;
 
+    @Autowired
+    private ApplicationContext applicationContext;
+
     /**
      * 菜单树
      * 只有超级管理员具有操作菜单的权限，查询所有菜单树。默认展开
@@ -353,6 +358,9 @@ public class TpMenuServiceImpl implements TpMenuService {
             bean.setUpdateTime(CommonDateUtil.now());
 
             tpMenuMapper.update(bean);
+
+            // 菜单uri可能变更，发布 角色授权 事件，重建鉴权索引
+            applicationContext.publishEvent(new TpRoleAuthorizationEvent("菜单修改事件"));
             
             // 记录修改历史
             try {
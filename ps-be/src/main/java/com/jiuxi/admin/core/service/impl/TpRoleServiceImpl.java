@@ -401,7 +401,7 @@ public class TpRoleServiceImpl implements TpRoleService {
         try {
 
             // 发布 角色授权 事件， 用于清除 角色菜单的缓存
-            applicationContext.publishEvent(new TpRoleAuthorizationEvent("角色授权事件"));
+            applicationContext.publishEvent(new TpRoleAuthorizationEvent(this, roleId, menuIds, null));
 
             // 根据roleId先将原来的权限删除掉
             tpRoleMenuMapper.delete(roleId, "");
@@ -11,6 +11,7 @@ import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
 import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
 import com.jiuxi.admin.core.bean.query.TpThirdPartyAppQuery;
 import com.jiuxi.admin.core.bean.vo.TpThirdPartyAppVO;
+import com.jiuxi.admin.core.event.TpThirdPartyAppChangedEvent;
 import com.jiuxi.admin.core.mapper.TpApiDefinitionMapper;
 import com.jiuxi.admin.core.mapper.TpAppApiPermissionMapper;
 import com.jiuxi.admin.core.mapper.TpThirdPartyAppMapper;
@@ -22,13 +23,19 @@ import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -52,6 +59,14 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
     @Autowired
     private TpApiDefinitionMapper tpApiDefinitionMapper;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * 待写入的最后调用时间，key: 应用ID    val: 最后调用时间
+     */
+    private final Map<String, String> pendingCallTimes = new ConcurrentHashMap<>();
+
     /**
      * 分页查询第三方应用列表
      *
@@ -152,7 +167,7 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
 
             // 保存API权限
             if (vo.getApiIds() != null && !vo.getApiIds().isEmpty()) {
-                saveAppPermissions(appId, vo.getApiIds(), creator);
+                saveAppPermissions(appId, vo.getApiIds(), creator, Collections.emptyMap());
             }
 
             // 返回VO
@@ -160,6 +175,8 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             BeanUtil.copyProperties(bean, result);
             result.setApiIds(vo.getApiIds());
 
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
+
             LOGGER.info("创建第三方应用成功，应用ID：{}, 应用名称：{}", appId, vo.getAppName());
             return result;
         } catch (TopinfoRuntimeException e) {
@@ -204,6 +221,7 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             bean.setApiKey(null);
 
             int count = tpThirdPartyAppMapper.update(bean);
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, vo.getAppId()));
 
             LOGGER.info("更新第三方应用成功，应用ID：{}", vo.getAppId());
             return count;
@@ -260,6 +278,8 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             bean.setUpdateTime(CommonDateUtil.now());
 
             int count = tpThirdPartyAppMapper.delete(bean);
+            pendingCallTimes.remove(appId);
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
             return count;
         } catch (Exception e) {
             LOGGER.error("删除第三方应用失败！appId:{}, 错误: {}", appId, ExceptionUtils.getStackTrace(e));
@@ -288,6 +308,7 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             bean.setUpdateTime(CommonDateUtil.now());
 
             tpThirdPartyAppMapper.update(bean);
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
 
             LOGGER.warn("操作人：{}, 重新生成了应用：{} 的API Key", operator, appId);
             return newApiKey;
@@ -309,12 +330,17 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
     @Transactional(rollbackFor = TopinfoRuntimeException.class)
     public int configPermissions(String appId, List<String> apiIds, String operator) {
         try {
+            // 保留仍授权的API已配置的配额
+            Map<String, TpAppApiPermission> existing = tpAppApiPermissionMapper.selectByAppId(appId).stream()
+                    .collect(Collectors.toMap(TpAppApiPermission::getApiId, p -> p, (a, b) -> a));
+
             // 先删除该应用的所有权限
             tpAppApiPermissionMapper.deleteByAppId(appId);
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
 
             // 批量新增权限关系
             if (apiIds != null && !apiIds.isEmpty()) {
-                return saveAppPermissions(appId, apiIds, operator);
+                return saveAppPermissions(appId, apiIds, operator, existing);
             }
 
             return 0;
@@ -324,6 +350,35 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
         }
     }
 
+    /**
+     * 配置应用单个API的配额
+     *
+     * @param appId 应用ID
+     * @param apiId API ID（须已授权）
+     * @param rateLimit 频率上限（次/秒），为空或0表示不限
+     * @param dailyQuota 每日次数上限，为空或0表示不限
+     * @param operator 操作人
+     * @return 影响行数
+     */
+    @Override
+    @Transactional(rollbackFor = TopinfoRuntimeException.class)
+    public int configApiQuota(String appId, String apiId, Integer rateLimit, Integer dailyQuota, String operator) {
+        try {
+            int count = tpAppApiPermissionMapper.updateQuota(appId, apiId, rateLimit, dailyQuota);
+            if (count == 0) {
+                throw new TopinfoRuntimeException(-1, "应用未授权该API！");
+            }
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
+            LOGGER.info("操作人：{}, 配置了应用：{} 的API：{} 配额，频率：{}，每日：{}", operator, appId, apiId, rateLimit, dailyQuota);
+            return count;
+        } catch (TopinfoRuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.error("配置应用API配额失败！appId:{}, apiId:{}, 错误: {}", appId, apiId, ExceptionUtils.getStackTrace(e));
+            throw new TopinfoRuntimeException(-1, "配置应用API配额失败！");
+        }
+    }
+
     /**
      * 查询应用已授权的API列表
      *
@@ -447,6 +502,50 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
         }
     }
 
+    /**
+     * 记录应用调用，最后调用时间由定时任务合并批量写入
+     *
+     * @param appId 应用ID
+     */
+    @Override
+    public void recordCall(String appId) {
+        if (StrUtil.isNotBlank(appId)) {
+            pendingCallTimes.put(appId, CommonDateUtil.now());
+        }
+    }
+
+    /**
+     * 批量写入待更新的最后调用时间
+     */
+    @Scheduled(fixedDelayString = "${ps.openapi.last-call-flush-interval:10000}")
+    @PreDestroy
+    public void flushLastCallTimes() {
+        if (pendingCallTimes.isEmpty()) {
+            return;
+        }
+        List<TpThirdPartyAppVO> batch = new ArrayList<>(pendingCallTimes.size());
+        for (String appId : new ArrayList<>(pendingCallTimes.keySet())) {
+            String lastCallTime = pendingCallTimes.remove(appId);
+            if (lastCallTime != null) {
+                TpThirdPartyAppVO vo = new TpThirdPartyAppVO();
+                vo.setAppId(appId);
+                vo.setLastCallTime(lastCallTime);
+                batch.add(vo);
+            }
+        }
+        try {
+            for (int from = 0; from < batch.size(); from += 500) {
+                tpThirdPartyAppMapper.batchUpdateLastCallTime(batch.subList(from, Math.min(batch.size(), from + 500)));
+            }
+        } catch (Exception e) {
+            // 更新最后调用时间失败不影响业务，放回等待下次写入（不覆盖更新的时间）
+            for (TpThirdPartyAppVO vo : batch) {
+                pendingCallTimes.putIfAbsent(vo.getAppId(), vo.getLastCallTime());
+            }
+            LOGGER.error("批量更新应用最后调用时间失败！数量:{}, 错误: {}", batch.size(), ExceptionUtils.getStackTrace(e));
+        }
+    }
+
     /**
      * 生成API Key
      */
@@ -457,7 +556,7 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
     /**
      * 保存应用权限
      */
-    private int saveAppPermissions(String appId, List<String> apiIds, String operator) {
+    private int saveAppPermissions(String appId, List<String> apiIds, String operator, Map<String, TpAppApiPermission> existing) {
         List<TpAppApiPermission> permissions = new ArrayList<>();
         String now = CommonDateUtil.now();
 
@@ -466,6 +565,11 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             permission.setPermissionId(SnowflakeIdUtil.nextIdStr());
             permission.setAppId(appId);
             permission.setApiId(apiId);
+            TpAppApiPermission old = existing.get(apiId);
+            if (old != null) {
+                permission.setRateLimit(old.getRateLimit());
+                permission.setDailyQuota(old.getDailyQuota());
+            }
             permission.setCreator(operator);
             permission.setCreateTime(now);
             permissions.add(permission);
@@ -493,6 +597,7 @@ public class TpThirdPartyAppServiceImpl implements TpThirdPartyAppService {
             bean.setUpdateTime(CommonDateUtil.now());
 
             int count = tpThirdPartyAppMapper.updateStatus(bean);
+            eventPublisher.publishEvent(new TpThirdPartyAppChangedEvent(this, appId));
             LOGGER.info("更新应用状态成功，应用ID：{}, 状态：{}", appId, status);
             return count;
         } catch (Exception e) {
@@ -0,0 +1,72 @@
+package com.jiuxi.admin.core.service.task;
+
+import com.jiuxi.admin.core.service.TpFileCatalogService;
+import com.jiuxi.common.service.FileUploadService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * @ClassName: FileCatalogReconcileTask
+ * @Description: 文件目录索引校对任务，按磁盘内容修正索引（补录未索引的文件、删除已不存在文件的索引）
+ * @Author: jiuxx
+ * @Date: 2026-10-18
+ * @Copyright: Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@Component
+@ConditionalOnProperty(name = "ps.file.catalog.reconcile.enabled", havingValue = "true", matchIfMissing = true)
+public class FileCatalogReconcileTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCatalogReconcileTask.class);
+
+    /**
+     * 执行建索引和校对的线程池名称，遍历上传目录不占用定时任务调度线程
+     */
+    public static final String EXECUTOR = "fileCatalogReconcileExecutor";
+
+    @Autowired
+    private FileUploadService fileUploadService;
+
+    @Autowired
+    private TpFileCatalogService tpFileCatalogService;
+
+    /**
+     * 启动后索引为空（首次部署）时在后台建立索引
+     */
+    @Async(EXECUTOR)
+    @EventListener(ApplicationReadyEvent.class)
+    public void initCatalog() {
+        try {
+            if (tpFileCatalogService.isEmpty()) {
+                LOGGER.info("文件目录索引为空，开始按上传目录建立索引");
+                fileUploadService.rebuildCatalog();
+            }
+        } catch (Exception e) {
+            LOGGER.error("建立文件目录索引失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时校对，默认每天凌晨4点执行，调度线程提交后立即返回
+     */
+    @Async(EXECUTOR)
+    @Scheduled(cron = "${ps.file.catalog.reconcile.cron:0 0 4 * * ?}")
+    public void reconcile() {
+        try {
+            Map<String, Object> result = fileUploadService.rebuildCatalog();
+            if (!Boolean.TRUE.equals(result.get("success"))) {
+                LOGGER.warn("文件目录索引校对未完成: {}", result.get("message"));
+            }
+        } catch (Exception e) {
+            LOGGER.error("执行文件目录索引校对任务失败: {}", e.getMessage(), e);
+        }
+    }
+}
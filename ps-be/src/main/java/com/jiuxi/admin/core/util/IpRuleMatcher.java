@@ -0,0 +1,619 @@
+package com.jiuxi.admin.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 预编译的IP规则匹配器，不可变，可在线程间共享
+ * <pre>
+ *     规则格式与 {@link IpAccessControlUtil} 一致，多个规则用分号或换行分隔：
+ *     1. 精确IP：192.168.1.100、2001:db8::1
+ *     2. CIDR：192.168.1.0/24、2001:db8::/32
+ *     3. 通配符（仅IPv4）：192.168.1.*、10.*.1.*
+ *     4. IP范围：192.168.1.1-192.168.1.100、2001:db8::1-2001:db8::ff
+ *     5. *：匹配所有IP
+ *
+ *     精确IP与CIDR编译为二叉前缀树，范围与通配符编译为排序合并后的区间数组；
+ *     IPv4 与 IPv6 各一套，IPv4 映射地址（::ffff:a.b.c.d）按IPv4匹配。
+ *     匹配时手工解析地址、不做DNS解析，复杂度 O(地址位数)，除每线程一次的IPv6缓冲外不分配对象。
+ * </pre>
+ *
+ * @author system
+ * @date 2025-01-20
+ */
+public final class IpRuleMatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(IpRuleMatcher.class);
+
+    public static final IpRuleMatcher EMPTY = new IpRuleMatcher(false, Family.empty(32), Family.empty(128), 0);
+
+    // 通配符展开的区间上限，超过时该规则被忽略
+    private static final int MAX_WILDCARD_INTERVALS = 65536;
+
+    private static final ThreadLocal<long[]> IPV6_SCRATCH = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final boolean matchAll;
+    private final Family ipv4;
+    private final Family ipv6;
+    private final int ruleCount;
+
+    private IpRuleMatcher(boolean matchAll, Family ipv4, Family ipv6, int ruleCount) {
+        this.matchAll = matchAll;
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+        this.ruleCount = ruleCount;
+    }
+
+    /**
+     * 编译规则字符串，无法识别的规则记录告警后忽略
+     */
+    public static IpRuleMatcher compile(String rules) {
+        if (!StringUtils.hasText(rules)) {
+            return EMPTY;
+        }
+
+        FamilyBuilder v4 = new FamilyBuilder(32);
+        FamilyBuilder v6 = new FamilyBuilder(128);
+        boolean matchAll = false;
+        int count = 0;
+        long[] scratch = new long[4];
+
+        for (String raw : rules.split("[;\\r\\n]")) {
+            String rule = raw.trim();
+            if (rule.isEmpty()) {
+                continue;
+            }
+            if ("*".equals(rule)) {
+                matchAll = true;
+            } else if (!compileRule(rule, v4, v6, scratch)) {
+                logger.warn("无法识别的IP规则，已忽略: {}", rule);
+                continue;
+            }
+            count++;
+        }
+        return new IpRuleMatcher(matchAll, v4.build(), v6.build(), count);
+    }
+
+    /**
+     * 判断IP是否命中任一规则，非法地址返回 false
+     */
+    public boolean matches(String ip) {
+        if (!StringUtils.hasText(ip)) {
+            return false;
+        }
+        if (matchAll) {
+            return true;
+        }
+
+        if (ip.indexOf(':') < 0) {
+            long v4 = parseIpv4(ip, 0, ip.length());
+            return v4 >= 0 && ipv4.contains(v4 << 32, 0L);
+        }
+
+        long[] address = IPV6_SCRATCH.get();
+        if (!parseIpv6(ip, address)) {
+            return false;
+        }
+        if (address[0] == 0L && (address[1] >>> 32) == 0xFFFFL) {
+            return ipv4.contains(address[1] << 32, 0L);
+        }
+        return ipv6.contains(address[0], address[1]);
+    }
+
+    /**
+     * 是否为合法的IPv4/IPv6字面量，不做DNS解析
+     */
+    public static boolean isIpLiteral(String ip) {
+        if (!StringUtils.hasText(ip)) {
+            return false;
+        }
+        if (ip.indexOf(':') < 0) {
+            return parseIpv4(ip, 0, ip.length()) >= 0;
+        }
+        return parseIpv6(ip, IPV6_SCRATCH.get());
+    }
+
+    public boolean isEmpty() {
+        return !matchAll && ipv4.isEmpty() && ipv6.isEmpty();
+    }
+
+    /**
+     * 成功编译的规则数量
+     */
+    public int getRuleCount() {
+        return ruleCount;
+    }
+
+    // ================================ 规则编译 ================================
+
+    private static boolean compileRule(String rule, FamilyBuilder v4, FamilyBuilder v6, long[] scratch) {
+        int slash = rule.indexOf('/');
+        if (slash >= 0) {
+            return compileCidr(rule.substring(0, slash).trim(), rule.substring(slash + 1).trim(), v4, v6, scratch);
+        }
+        if (rule.indexOf('*') >= 0) {
+            return compileWildcard(rule, v4);
+        }
+        int dash = rule.indexOf('-');
+        if (dash >= 0) {
+            return compileRange(rule.substring(0, dash).trim(), rule.substring(dash + 1).trim(), v4, v6, scratch);
+        }
+        return compileCidr(rule, null, v4, v6, scratch);
+    }
+
+    private static boolean compileCidr(String address, String prefix, FamilyBuilder v4, FamilyBuilder v6, long[] scratch) {
+        int length;
+        try {
+            length = prefix == null ? -1 : Integer.parseInt(prefix);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (prefix != null && length < 0) {
+            return false;
+        }
+
+        if (address.indexOf(':') < 0) {
+            long ip = parseIpv4(address, 0, address.length());
+            if (ip < 0 || length > 32) {
+                return false;
+            }
+            v4.addPrefix(ip << 32, 0L, length < 0 ? 32 : length);
+            return true;
+        }
+        if (!parseIpv6(address, scratch) || length > 128) {
+            return false;
+        }
+        v6.addPrefix(scratch[0], scratch[1], length < 0 ? 128 : length);
+        return true;
+    }
+
+    private static boolean compileRange(String start, String end, FamilyBuilder v4, FamilyBuilder v6, long[] scratch) {
+        boolean startV6 = start.indexOf(':') >= 0;
+        if (startV6 != end.indexOf(':') >= 0) {
+            return false;
+        }
+
+        if (!startV6) {
+            long from = parseIpv4(start, 0, start.length());
+            long to = parseIpv4(end, 0, end.length());
+            if (from < 0 || to < 0 || from > to) {
+                return false;
+            }
+            v4.addInterval(from << 32, 0L, to << 32, 0L);
+            return true;
+        }
+
+        long[] to = new long[2];
+        if (!parseIpv6(start, scratch) || !parseIpv6(end, to) || compare(scratch[0], scratch[1], to[0], to[1]) > 0) {
+            return false;
+        }
+        v6.addInterval(scratch[0], scratch[1], to[0], to[1]);
+        return true;
+    }
+
+    /**
+     * 通配符按最后一个确定段展开：其后的 * 合并为一个区间，其前的 * 逐值展开
+     */
+    private static boolean compileWildcard(String rule, FamilyBuilder v4) {
+        String[] parts = rule.split("\\.", -1);
+        if (parts.length != 4) {
+            return false;
+        }
+
+        int[] octets = new int[4];
+        int lastFixed = -1;
+        int expansions = 1;
+        for (int i = 0; i < 4; i++) {
+            String part = parts[i].trim();
+            if ("*".equals(part)) {
+                octets[i] = -1;
+                continue;
+            }
+            long value = parseIpv4Octet(part);
+            if (value < 0) {
+                return false;
+            }
+            octets[i] = (int) value;
+            lastFixed = i;
+        }
+        for (int i = 0; i < lastFixed; i++) {
+            if (octets[i] < 0) {
+                expansions *= 256;
+            }
+        }
+        if (expansions > MAX_WILDCARD_INTERVALS) {
+            logger.warn("IP通配符规则展开后区间过多，已忽略: {}", rule);
+            return false;
+        }
+
+        long span = (1L << (8 * (3 - lastFixed))) - 1;
+        for (int n = 0; n < expansions; n++) {
+            long base = 0;
+            int remaining = n;
+            for (int i = 0; i < 4; i++) {
+                int octet;
+                if (i > lastFixed) {
+                    octet = 0;
+                } else if (octets[i] >= 0) {
+                    octet = octets[i];
+                } else {
+                    octet = remaining & 0xFF;
+                    remaining >>>= 8;
+                }
+                base = (base << 8) | octet;
+            }
+            v4.addInterval(base << 32, 0L, (base | span) << 32, 0L);
+        }
+        return true;
+    }
+
+    // ================================ 地址解析 ================================
+
+    /**
+     * 解析点分十进制IPv4，非法时返回 -1
+     */
+    static long parseIpv4(String ip, int begin, int end) {
+        long result = 0;
+        int octets = 0;
+        int value = 0;
+        int digits = 0;
+        for (int i = begin; i < end; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (digits == 3) {
+                    return -1;
+                }
+                value = value * 10 + (c - '0');
+                digits++;
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (digits == 0 || octets == 3) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (digits == 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+    private static long parseIpv4Octet(String part) {
+        if (part.isEmpty() || part.length() > 3) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < part.length(); i++) {
+            char c = part.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value > 255 ? -1 : value;
+    }
+
+    /**
+     * 解析IPv6（支持 :: 压缩、内嵌IPv4、方括号与 %zone），结果写入 out[0]/out[1] 的高低64位
+     */
+    static boolean parseIpv6(String ip, long[] out) {
+        int begin = 0;
+        int end = ip.length();
+        if (end > 1 && ip.charAt(0) == '[' && ip.charAt(end - 1) == ']') {
+            begin++;
+            end--;
+        }
+        int zone = ip.indexOf('%', begin);
+        if (zone >= 0 && zone < end) {
+            end = zone;
+        }
+        if (end - begin < 2) {
+            return false;
+        }
+
+        long headHi = 0;
+        long headLo = 0;
+        long tailHi = 0;
+        long tailLo = 0;
+        int headGroups = 0;
+        int tailGroups = 0;
+        boolean compressed = false;
+
+        int i = begin;
+        if (ip.charAt(i) == ':') {
+            if (ip.charAt(i + 1) != ':') {
+                return false;
+            }
+            compressed = true;
+            i += 2;
+        }
+
+        while (i < end) {
+            int start = i;
+            int value = 0;
+            while (i < end) {
+                int digit = hexValue(ip.charAt(i));
+                if (digit < 0) {
+                    break;
+                }
+                value = (value << 4) | digit;
+                i++;
+                if (i - start > 4) {
+                    return false;
+                }
+            }
+
+            if (i < end && ip.charAt(i) == '.') {
+                // 内嵌IPv4，占最后两组
+                long v4 = parseIpv4(ip, start, end);
+                if (v4 < 0 || headGroups + tailGroups > 6) {
+                    return false;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | v4;
+                    tailGroups += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | v4;
+                    headGroups += 2;
+                }
+                break;
+            }
+
+            if (i == start || headGroups + tailGroups == 8) {
+                return false;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | value;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | value;
+                headGroups++;
+            }
+
+            if (i == end) {
+                break;
+            }
+            if (ip.charAt(i) != ':' || ++i == end) {
+                return false;
+            }
+            if (ip.charAt(i) == ':') {
+                if (compressed) {
+                    return false;
+                }
+                compressed = true;
+                i++;
+            }
+        }
+
+        int groups = headGroups + tailGroups;
+        if (compressed ? groups > 7 : groups != 8) {
+            return false;
+        }
+
+        // 头部左移到高位，与尾部合并
+        int shift = 16 * (8 - headGroups);
+        if (shift >= 128) {
+            headHi = 0;
+            headLo = 0;
+        } else if (shift >= 64) {
+            headHi = headLo << (shift - 64);
+            headLo = 0;
+        } else if (shift > 0) {
+            headHi = (headHi << shift) | (headLo >>> (64 - shift));
+            headLo = headLo << shift;
+        }
+        out[0] = headHi | tailHi;
+        out[1] = headLo | tailLo;
+        return true;
+    }
+
+    private static int hexValue(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static int compare(long hi1, long lo1, long hi2, long lo2) {
+        int result = Long.compareUnsigned(hi1, hi2);
+        return result != 0 ? result : Long.compareUnsigned(lo1, lo2);
+    }
+
+    // ================================ 编译结果 ================================
+
+    /**
+     * 单个地址族的编译结果：前缀树 + 区间数组，地址统一左对齐存放在128位（hi, lo）中
+     */
+    private static final class Family {
+        private final int bits;
+        // 前缀树：节点0为根，子节点下标为0表示不存在
+        private final int[] zero;
+        private final int[] one;
+        private final boolean[] terminal;
+        // 合并后的区间，按起点升序
+        private final long[] startHi;
+        private final long[] startLo;
+        private final long[] endHi;
+        private final long[] endLo;
+
+        Family(int bits, int[] zero, int[] one, boolean[] terminal,
+               long[] startHi, long[] startLo, long[] endHi, long[] endLo) {
+            this.bits = bits;
+            this.zero = zero;
+            this.one = one;
+            this.terminal = terminal;
+            this.startHi = startHi;
+            this.startLo = startLo;
+            this.endHi = endHi;
+            this.endLo = endLo;
+        }
+
+        static Family empty(int bits) {
+            return new Family(bits, new int[1], new int[1], new boolean[1],
+                    new long[0], new long[0], new long[0], new long[0]);
+        }
+
+        boolean isEmpty() {
+            return !terminal[0] && zero[0] == 0 && one[0] == 0 && startHi.length == 0;
+        }
+
+        boolean contains(long hi, long lo) {
+            return trieContains(hi, lo) || intervalContains(hi, lo);
+        }
+
+        private boolean trieContains(long hi, long lo) {
+            int node = 0;
+            for (int depth = 0; depth < bits; depth++) {
+                if (terminal[node]) {
+                    return true;
+                }
+                long bit = depth < 64 ? (hi >>> (63 - depth)) & 1L : (lo >>> (127 - depth)) & 1L;
+                node = bit == 0 ? zero[node] : one[node];
+                if (node == 0) {
+                    return false;
+                }
+            }
+            return terminal[node];
+        }
+
+        private boolean intervalContains(long hi, long lo) {
+            int low = 0;
+            int high = startHi.length - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(startHi[mid], startLo[mid], hi, lo) <= 0) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found >= 0 && compare(hi, lo, endHi[found], endLo[found]) <= 0;
+        }
+    }
+
+    private static final class FamilyBuilder {
+        private final int bits;
+        private int[] zero = new int[64];
+        private int[] one = new int[64];
+        private boolean[] terminal = new boolean[64];
+        private int nodes = 1;
+        private final List<long[]> intervals = new ArrayList<>();
+
+        FamilyBuilder(int bits) {
+            this.bits = bits;
+        }
+
+        void addPrefix(long hi, long lo, int length) {
+            int node = 0;
+            for (int depth = 0; depth < length; depth++) {
+                if (terminal[node]) {
+                    // 已被更短的前缀覆盖
+                    return;
+                }
+                long bit = depth < 64 ? (hi >>> (63 - depth)) & 1L : (lo >>> (127 - depth)) & 1L;
+                int child = bit == 0 ? zero[node] : one[node];
+                if (child == 0) {
+                    // newNode 可能扩容数组，先分配再写回
+                    child = newNode();
+                    if (bit == 0) {
+                        zero[node] = child;
+                    } else {
+                        one[node] = child;
+                    }
+                }
+                node = child;
+            }
+            terminal[node] = true;
+        }
+
+        void addInterval(long fromHi, long fromLo, long toHi, long toLo) {
+            intervals.add(new long[]{fromHi, fromLo, toHi, toLo});
+        }
+
+        Family build() {
+            intervals.sort(Comparator.<long[]>comparingLong(r -> r[0] ^ Long.MIN_VALUE)
+                    .thenComparingLong(r -> r[1] ^ Long.MIN_VALUE));
+
+            List<long[]> merged = new ArrayList<>(intervals.size());
+            for (long[] range : intervals) {
+                long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+                if (last != null && (compare(range[0], range[1], last[2], last[3]) <= 0 || isSuccessor(last[2], last[3], range[0], range[1]))) {
+                    if (compare(range[2], range[3], last[2], last[3]) > 0) {
+                        last[2] = range[2];
+                        last[3] = range[3];
+                    }
+                } else {
+                    merged.add(range.clone());
+                }
+            }
+
+            int size = merged.size();
+            long[] startHi = new long[size];
+            long[] startLo = new long[size];
+            long[] endHi = new long[size];
+            long[] endLo = new long[size];
+            for (int i = 0; i < size; i++) {
+                long[] range = merged.get(i);
+                startHi[i] = range[0];
+                startLo[i] = range[1];
+                endHi[i] = range[2];
+                endLo[i] = range[3];
+            }
+            return new Family(bits, Arrays.copyOf(zero, nodes), Arrays.copyOf(one, nodes),
+                    Arrays.copyOf(terminal, nodes), startHi, startLo, endHi, endLo);
+        }
+
+        /**
+         * (hi2, lo2) 是否紧接在 (hi1, lo1) 之后一个地址单位
+         */
+        private boolean isSuccessor(long hi1, long lo1, long hi2, long lo2) {
+            // 地址左对齐存放，一个地址单位是最低有效位
+            int unitShift = 128 - bits;
+            long unitHi = unitShift >= 64 ? 1L << (unitShift - 64) : 0L;
+            long unitLo = unitShift >= 64 ? 0L : 1L << unitShift;
+            long sumLo = lo1 + unitLo;
+            long carry = Long.compareUnsigned(sumLo, lo1) < 0 ? 1L : 0L;
+            long sumHi = hi1 + unitHi + carry;
+            if (Long.compareUnsigned(sumHi, hi1) < 0) {
+                return false;
+            }
+            return sumHi == hi2 && sumLo == lo2;
+        }
+
+        private int newNode() {
+            if (nodes == terminal.length) {
+                int capacity = nodes * 2;
+                zero = Arrays.copyOf(zero, capacity);
+                one = Arrays.copyOf(one, capacity);
+                terminal = Arrays.copyOf(terminal, capacity);
+            }
+            return nodes++;
+        }
+    }
+}
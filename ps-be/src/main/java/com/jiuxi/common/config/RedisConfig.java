@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -60,6 +61,14 @@ public class RedisConfig {
         return template;
     }
     
+    /**
+     * Redis key 遍历与批量删除，全局共用一个实例，UNLINK 不可用时只探测一次
+     */
+    @Bean
+    public RedisKeyScanner redisKeyScanner(RedisTemplate<String, Object> redisTemplate) {
+        return new RedisKeyScanner(redisTemplate);
+    }
+
     /**
      * 配置缓存管理器
      */
@@ -242,6 +242,12 @@ public interface FileUploadService {
      */
     Map<String, Object> getStorageUsage();
     
+    /**
+     * 按磁盘内容校对文件目录索引（列表、搜索、统计和过期清理均查询该索引）
+     * @return 校对结果（扫描文件数、删除的失效索引数等）
+     */
+    Map<String, Object> rebuildCatalog();
+    
     /**
      * 备份文件
      * @param filePath 文件路径
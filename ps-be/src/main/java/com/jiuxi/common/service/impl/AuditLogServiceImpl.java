@@ -2,12 +2,14 @@ package com.jiuxi.common.service.impl;
 
 import com.jiuxi.common.service.AuditLogService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -21,24 +23,18 @@ import java.util.stream.Collectors;
 @Service
 public class AuditLogServiceImpl implements AuditLogService {
     
-    // 内存存储审计日志（实际项目中应使用数据库）
-    private final Map<String, List<Map<String, Object>>> auditLogs = new ConcurrentHashMap<>();
+    // 内存存储审计日志（实际项目中应使用数据库），每类日志有条数上限，超出后淘汰最早的
+    private final Map<String, LogBuffer> auditLogs = new ConcurrentHashMap<>();
     private final List<Map<String, Object>> alertRules = new ArrayList<>();
     
     private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
-    public AuditLogServiceImpl() {
+    public AuditLogServiceImpl(@Value("${ps.audit.memory.max-entries-per-type:10000}") int maxEntriesPerType) {
         // 初始化日志分类
-        auditLogs.put("operation", new ArrayList<>());
-        auditLogs.put("login", new ArrayList<>());
-        auditLogs.put("logout", new ArrayList<>());
-        auditLogs.put("permission", new ArrayList<>());
-        auditLogs.put("data", new ArrayList<>());
-        auditLogs.put("system", new ArrayList<>());
-        auditLogs.put("security", new ArrayList<>());
-        auditLogs.put("api", new ArrayList<>());
-        auditLogs.put("file", new ArrayList<>());
-        auditLogs.put("config", new ArrayList<>());
+        for (String logType : new String[]{"operation", "login", "logout", "permission", "data", "system",
+                "security", "api", "file", "config"}) {
+            auditLogs.put(logType, new LogBuffer(maxEntriesPerType));
+        }
     }
     
     @Override
@@ -428,7 +424,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> stats = new HashMap<>();
         
         try {
-            List<Map<String, Object>> loginLogs = auditLogs.get("login");
+            List<Map<String, Object>> loginLogs = logs("login");
             List<Map<String, Object>> filteredLogs = filterLogsByTime(loginLogs, startTime, endTime);
             
             long totalLogins = filteredLogs.size();
@@ -462,7 +458,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> stats = new HashMap<>();
         
         try {
-            List<Map<String, Object>> securityLogs = auditLogs.get("security");
+            List<Map<String, Object>> securityLogs = logs("security");
             List<Map<String, Object>> filteredLogs = filterLogsByTime(securityLogs, startTime, endTime);
             
             long totalEvents = filteredLogs.size();
@@ -495,7 +491,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> stats = new HashMap<>();
         
         try {
-            List<Map<String, Object>> apiLogs = auditLogs.get("api");
+            List<Map<String, Object>> apiLogs = logs("api");
             List<Map<String, Object>> filteredLogs = filterLogsByTime(apiLogs, startTime, endTime);
             
             long totalCalls = filteredLogs.size();
@@ -534,7 +530,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            List<Map<String, Object>> logs = auditLogs.getOrDefault(logType, new ArrayList<>());
+            List<Map<String, Object>> logs = logs(logType);
             
             // 应用过滤条件
             List<Map<String, Object>> filteredLogs = applyFilters(logs, filters);
@@ -562,15 +558,13 @@ public class AuditLogServiceImpl implements AuditLogService {
         
         try {
             LocalDateTime cutoffDate = LocalDateTime.now().minusDays(retentionDays);
-            List<Map<String, Object>> logs = auditLogs.get(logType);
+            LogBuffer logs = auditLogs.get(logType);
             
             if (logs != null) {
-                int originalSize = logs.size();
-                logs.removeIf(log -> {
+                int cleanedCount = logs.removeIf(log -> {
                     LocalDateTime timestamp = (LocalDateTime) log.get("timestamp");
                     return timestamp.isBefore(cutoffDate);
                 });
-                int cleanedCount = originalSize - logs.size();
                 
                 result.put("success", true);
                 result.put("cleanedCount", cleanedCount);
@@ -619,11 +613,11 @@ public class AuditLogServiceImpl implements AuditLogService {
         
         try {
             long totalLogs = auditLogs.values().stream()
-                    .mapToLong(List::size)
+                    .mapToLong(LogBuffer::size)
                     .sum();
             
             Map<String, Integer> logTypeCounts = new HashMap<>();
-            for (Map.Entry<String, List<Map<String, Object>>> entry : auditLogs.entrySet()) {
+            for (Map.Entry<String, LogBuffer> entry : auditLogs.entrySet()) {
                 logTypeCounts.put(entry.getKey(), entry.getValue().size());
             }
             
@@ -643,7 +637,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            List<Map<String, Object>> logs = auditLogs.get(logType);
+            List<Map<String, Object>> logs = logs(logType);
             List<Map<String, Object>> filteredLogs = filterLogsByTime(logs, startTime, endTime);
             
             // 简化的完整性检查
@@ -790,7 +784,7 @@ public class AuditLogServiceImpl implements AuditLogService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            List<Map<String, Object>> logs = auditLogs.getOrDefault(logType, new ArrayList<>());
+            List<Map<String, Object>> logs = logs(logType);
             
             // 应用过滤条件
             List<Map<String, Object>> filteredLogs = applyFilters(logs, filters);
@@ -824,6 +818,14 @@ public class AuditLogServiceImpl implements AuditLogService {
         return result;
     }
     
+    /**
+     * 某类日志的快照，日志类型不存在时返回空列表
+     */
+    private List<Map<String, Object>> logs(String logType) {
+        LogBuffer buffer = auditLogs.get(logType);
+        return buffer == null ? new ArrayList<>() : buffer.snapshot();
+    }
+    
     private Map<String, Object> buildOperationFilter(String userId, String action, String resource) {
         Map<String, Object> filter = new HashMap<>();
         if (userId != null) filter.put("userId", userId);
@@ -922,7 +924,8 @@ public class AuditLogServiceImpl implements AuditLogService {
     private List<Map<String, Object>> getAllLogsForUser(String userId, String startTime, String endTime) {
         List<Map<String, Object>> userLogs = new ArrayList<>();
         
-        for (List<Map<String, Object>> logs : auditLogs.values()) {
+        for (LogBuffer buffer : auditLogs.values()) {
+            List<Map<String, Object>> logs = buffer.snapshot();
             List<Map<String, Object>> filteredLogs = logs.stream()
                     .filter(log -> userId.equals(log.get("userId")))
                     .collect(Collectors.toList());
@@ -936,7 +939,8 @@ public class AuditLogServiceImpl implements AuditLogService {
     private List<Map<String, Object>> getAllLogsInPeriod(String startTime, String endTime) {
         List<Map<String, Object>> allLogs = new ArrayList<>();
         
-        for (List<Map<String, Object>> logs : auditLogs.values()) {
+        for (LogBuffer buffer : auditLogs.values()) {
+            List<Map<String, Object>> logs = buffer.snapshot();
             List<Map<String, Object>> filteredLogs = filterLogsByTime(logs, startTime, endTime);
             allLogs.addAll(filteredLogs);
         }
@@ -972,4 +976,39 @@ public class AuditLogServiceImpl implements AuditLogService {
         // 简化实现，实际项目中需要执行告警动作（发送邮件、短信等）
         log.warn("触发日志告警: ruleName={}", rule.get("name"));
     }
-}
\ No newline at end of file
+    
+    /**
+     * 有界日志缓冲，超出上限时淘汰最早的日志；读取时返回快照，避免遍历时并发修改
+     */
+    private static final class LogBuffer {
+        
+        private final ArrayDeque<Map<String, Object>> entries = new ArrayDeque<>();
+        
+        private final int capacity;
+        
+        private LogBuffer(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+        
+        synchronized void add(Map<String, Object> entry) {
+            if (entries.size() >= capacity) {
+                entries.pollFirst();
+            }
+            entries.addLast(entry);
+        }
+        
+        synchronized List<Map<String, Object>> snapshot() {
+            return new ArrayList<>(entries);
+        }
+        
+        synchronized int removeIf(Predicate<Map<String, Object>> filter) {
+            int originalSize = entries.size();
+            entries.removeIf(filter);
+            return originalSize - entries.size();
+        }
+        
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
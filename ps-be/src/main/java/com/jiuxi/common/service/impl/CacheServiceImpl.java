@@ -1,6 +1,7 @@
 package com.jiuxi.common.service.impl;
 
 import com.jiuxi.common.service.CacheService;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
@@ -22,6 +23,9 @@ public class CacheServiceImpl implements CacheService {
     
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
     
     // 分布式锁释放脚本
     private static final String UNLOCK_SCRIPT = 
@@ -90,15 +94,12 @@ public class CacheServiceImpl implements CacheService {
     
     @Override
     public Set<String> keys(String pattern) {
-        return redisTemplate.keys(pattern);
+        return redisKeyScanner.collect(pattern);
     }
     
     @Override
     public void deleteByPattern(String pattern) {
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        redisKeyScanner.deleteByPattern(pattern);
     }
     
     // ========== Hash操作 ==========
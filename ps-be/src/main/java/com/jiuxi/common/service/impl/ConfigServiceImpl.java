@@ -1,6 +1,7 @@
 package com.jiuxi.common.service.impl;
 
 import com.jiuxi.common.service.ConfigService;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
@@ -25,6 +26,9 @@ public class ConfigServiceImpl implements ConfigService {
     
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
     
     // 内存存储（生产环境应使用数据库）
     private final Map<String, ConfigItem> configs = new ConcurrentHashMap<>();
@@ -470,12 +474,9 @@ public class ConfigServiceImpl implements ConfigService {
     @Override
     public void refreshConfigCache() {
         // 刷新缓存逻辑
-        if (redisTemplate != null) {
+        if (redisKeyScanner != null) {
             // 清除Redis缓存
-            Set<String> keys = redisTemplate.keys("config:*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+            redisKeyScanner.deleteByPattern("config:*");
         }
     }
     
@@ -1,6 +1,7 @@
 package com.jiuxi.common.service.impl;
 
 import com.jiuxi.common.service.DictService;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
@@ -24,6 +25,9 @@ public class DictServiceImpl implements DictService {
     
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
     
     // 内存存储（生产环境应使用数据库）
     private final Map<String, DictType> dictTypes = new ConcurrentHashMap<>();
@@ -744,11 +748,8 @@ public class DictServiceImpl implements DictService {
     
     @Override
     public void refreshDictCache() {
-        if (redisTemplate != null) {
-            Set<String> keys = redisTemplate.keys("dict:*");
-            if (keys != null && !keys.isEmpty()) {
-                redisTemplate.delete(keys);
-            }
+        if (redisKeyScanner != null) {
+            redisKeyScanner.deleteByPattern("dict:*");
         }
     }
     
@@ -1,7 +1,11 @@
 package com.jiuxi.common.service.impl;
 
+import com.jiuxi.admin.core.bean.entity.TpFileCatalog;
+import com.jiuxi.admin.core.service.TpFileCatalogService;
 import com.jiuxi.common.service.FileUploadService;
+import com.jiuxi.shared.infrastructure.file.DirectBufferPool;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -11,8 +15,11 @@ import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
 import java.nio.file.*;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
@@ -21,6 +28,10 @@ import java.util.stream.Collectors;
 /**
  * @ClassName: FileUploadServiceImpl
  * @Description: 文件上传服务实现类
+ * <pre>
+ *     文件列表、搜索、用量统计和过期清理查询文件目录索引（tp_file_catalog），不再遍历上传目录；
+ *     上传、删除、复制、移动、重命名时同步更新索引，索引更新失败只记录日志，由定时校对任务按磁盘内容修正
+ * </pre>
  * @Author: Qdd
  * @Date: 2025/01/07
  * @Copyright: 2025 www.jiuxi.com Inc. All rights reserved.
@@ -41,6 +52,14 @@ public class FileUploadServiceImpl implements FileUploadService {
     @Value("${file.upload.base-url:http://192.168.0.139:8082/ps-be}")
     private String baseUrl;
     
+    @Autowired
+    private TpFileCatalogService tpFileCatalogService;
+    
+    /**
+     * 过期清理每批处理的文件数
+     */
+    private static final int EXPIRE_BATCH_SIZE = 500;
+    
     @Override
     public Map<String, Object> uploadFile(MultipartFile file, String category) {
         Map<String, Object> result = new HashMap<>();
@@ -81,11 +100,14 @@ public class FileUploadServiceImpl implements FileUploadService {
                 targetFile.getParentFile().mkdirs();
             }
             
-            // 保存文件
-            file.transferTo(targetFile);
-            
-            // 计算MD5
-            String md5 = calculateFileMD5(file);
+            // 保存文件，写入的同时计算MD5，只读取一次上传内容
+            MessageDigest md = MessageDigest.getInstance("MD5");
+            try (InputStream inputStream = new DigestInputStream(file.getInputStream(), md)) {
+                DirectBufferPool.SHARED.copy(inputStream, targetFile.toPath());
+            }
+            String md5 = toHex(md.digest());
+            updateCatalog(relativePath, () -> tpFileCatalogService.record(relativePath, file.getOriginalFilename(),
+                    file.getContentType(), md5, targetFile.length(), targetFile.lastModified()));
             
             result.put("success", true);
             result.put("fileName", fileName);
@@ -136,6 +158,8 @@ public class FileUploadServiceImpl implements FileUploadService {
             
             // 保存文件
             Files.copy(inputStream, targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            updateCatalog(relativePath, () -> tpFileCatalogService.record(relativePath, fileName, contentType, null,
+                    targetFile.length(), targetFile.lastModified()));
             
             result.put("success", true);
             result.put("fileName", newFileName);
@@ -191,10 +215,12 @@ public class FileUploadServiceImpl implements FileUploadService {
             if (file.exists()) {
                 boolean deleted = file.delete();
                 if (deleted) {
+                    updateCatalog(filePath, () -> tpFileCatalogService.remove(filePath));
                     log.info("文件删除成功: {}", filePath);
                 }
                 return deleted;
             }
+            updateCatalog(filePath, () -> tpFileCatalogService.remove(filePath));
             return false;
         } catch (Exception e) {
             log.error("文件删除失败: {}", filePath, e);
@@ -299,6 +325,8 @@ public class FileUploadServiceImpl implements FileUploadService {
             }
             
             Files.copy(sourceFile.toPath(), targetFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            updateCatalog(targetPath, () -> tpFileCatalogService.copy(sourcePath, targetPath,
+                    targetFile.length(), targetFile.lastModified()));
             log.info("文件复制成功: {} -> {}", sourcePath, targetPath);
             return true;
             
@@ -340,6 +368,8 @@ public class FileUploadServiceImpl implements FileUploadService {
             
             if (file.renameTo(newFile)) {
                 String newRelativePath = filePath.substring(0, filePath.lastIndexOf("/") + 1) + newFileName;
+                updateCatalog(newRelativePath, () -> tpFileCatalogService.rename(filePath, newRelativePath,
+                        newFile.length(), newFile.lastModified()));
                 result.put("success", true);
                 result.put("oldPath", filePath);
                 result.put("newPath", newRelativePath);
@@ -361,73 +391,49 @@ public class FileUploadServiceImpl implements FileUploadService {
     
     @Override
     public Map<String, Object> getFileList(String category, int page, int size) {
-        Map<String, Object> result = new HashMap<>();
-        List<Map<String, Object>> files = new ArrayList<>();
-        
-        try {
-            String categoryPath = uploadPath + "/" + (category != null ? category : "");
-            File dir = new File(categoryPath);
-            
-            if (dir.exists() && dir.isDirectory()) {
-                File[] fileArray = dir.listFiles();
-                if (fileArray != null) {
-                    Arrays.sort(fileArray, (f1, f2) -> Long.compare(f2.lastModified(), f1.lastModified()));
-                    
-                    int start = (page - 1) * size;
-                    int end = Math.min(start + size, fileArray.length);
-                    
-                    for (int i = start; i < end; i++) {
-                        File file = fileArray[i];
-                        if (file.isFile()) {
-                            Map<String, Object> fileInfo = new HashMap<>();
-                            String relativePath = file.getAbsolutePath().replace(uploadPath + "/", "").replace("\\", "/");
-                            
-                            fileInfo.put("fileName", file.getName());
-                            fileInfo.put("filePath", relativePath);
-                            fileInfo.put("fileSize", file.length());
-                            fileInfo.put("lastModified", new Date(file.lastModified()));
-                            fileInfo.put("url", generateFileUrl(relativePath));
-                            
-                            files.add(fileInfo);
-                        }
-                    }
-                    
-                    result.put("records", files);
-                    result.put("total", fileArray.length);
-                    result.put("current", page);
-                    result.put("size", size);
-                    result.put("pages", (int) Math.ceil((double) fileArray.length / size));
-                }
-            }
-            
-        } catch (Exception e) {
-            log.error("获取文件列表失败", e);
-            result.put("records", files);
-            result.put("total", 0);
-            result.put("current", page);
-            result.put("size", size);
-            result.put("pages", 0);
-        }
-        
-        return result;
+        return queryCatalog(null, category, null, page, size);
     }
     
     @Override
     public Map<String, Object> searchFiles(String keyword, String category, String fileType, int page, int size) {
-        // 简化实现，实际项目中可能需要更复杂的搜索逻辑
-        return getFileList(category, page, size);
+        List<String> fileExts = new ArrayList<>();
+        if (fileType != null) {
+            for (String ext : fileType.split(",")) {
+                String value = ext.trim().toLowerCase(Locale.ROOT);
+                if (value.startsWith(".")) {
+                    value = value.substring(1);
+                }
+                if (!value.isEmpty()) {
+                    fileExts.add(value);
+                }
+            }
+        }
+        String trimmedKeyword = keyword != null ? keyword.trim() : null;
+        return queryCatalog(trimmedKeyword, category, fileExts, page, size);
     }
     
     @Override
     public Map<String, Object> getUploadStatistics(String startDate, String endDate) {
         Map<String, Object> stats = new HashMap<>();
-        
-        // 简化实现，实际项目中需要从数据库获取统计数据
         stats.put("totalFiles", 0);
         stats.put("totalSize", 0L);
         stats.put("uploadCount", 0);
+        // 删除操作不保留记录，无法统计
         stats.put("deleteCount", 0);
         
+        try {
+            Long from = parseDateMillis(startDate, 0);
+            Long to = parseDateMillis(endDate, 1);
+            Map<String, Object> sum = tpFileCatalogService.sumByTime(from, to);
+            long fileCount = toLong(sum.get("fileCount"));
+            stats.put("totalFiles", fileCount);
+            stats.put("totalSize", toLong(sum.get("totalSize")));
+            stats.put("uploadCount", fileCount);
+            stats.put("categories", tpFileCatalogService.sumByCategory());
+        } catch (Exception e) {
+            log.error("获取文件上传统计失败", e);
+        }
+        
         return stats;
     }
     
@@ -439,11 +445,38 @@ public class FileUploadServiceImpl implements FileUploadService {
         
         try {
             long expireTime = System.currentTimeMillis() - (days * 24 * 60 * 60 * 1000L);
-            File uploadDir = new File(uploadPath);
-            
-            if (uploadDir.exists()) {
-                cleanedCount = cleanExpiredFilesRecursive(uploadDir, expireTime);
-            }
+            TpFileCatalog cursor = null;
+            List<TpFileCatalog> batch;
+            do {
+                batch = tpFileCatalogService.listExpired(expireTime, cursor, EXPIRE_BATCH_SIZE);
+                List<String> removed = new ArrayList<>(batch.size());
+                for (TpFileCatalog item : batch) {
+                    Path path = Paths.get(uploadPath, item.getFilePath());
+                    try {
+                        if (!Files.exists(path)) {
+                            removed.add(item.getFilePath());
+                            continue;
+                        }
+                        // 索引尚未校对时文件可能已被覆盖，以磁盘上的修改时间为准
+                        if (Files.getLastModifiedTime(path).toMillis() >= expireTime) {
+                            continue;
+                        }
+                        long fileSize = Files.size(path);
+                        Files.delete(path);
+                        removed.add(item.getFilePath());
+                        cleanedCount++;
+                        cleanedSize += fileSize;
+                    } catch (IOException e) {
+                        log.warn("删除过期文件失败: {}, 错误: {}", item.getFilePath(), e.getMessage());
+                    }
+                }
+                if (!removed.isEmpty()) {
+                    tpFileCatalogService.removeAll(removed);
+                }
+                if (!batch.isEmpty()) {
+                    cursor = batch.get(batch.size() - 1);
+                }
+            } while (batch.size() == EXPIRE_BATCH_SIZE);
             
             result.put("success", true);
             result.put("cleanedCount", cleanedCount);
@@ -565,11 +598,11 @@ public class FileUploadServiceImpl implements FileUploadService {
                 return false;
             }
             
-            if (recursive) {
-                return deleteFolderRecursive(folder);
-            } else {
-                return folder.delete();
+            boolean deleted = recursive ? deleteFolderRecursive(folder) : folder.delete();
+            if (deleted) {
+                updateCatalog(folderPath, () -> tpFileCatalogService.removeFolder(folderPath));
             }
+            return deleted;
             
         } catch (Exception e) {
             log.error("删除文件夹失败: {}", folderPath, e);
@@ -618,15 +651,15 @@ public class FileUploadServiceImpl implements FileUploadService {
     public String calculateFileMD5(MultipartFile file) {
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] bytes = file.getBytes();
-            byte[] digest = md.digest(bytes);
-            
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+            try (InputStream inputStream = file.getInputStream()) {
+                byte[] buffer = new byte[8192];
+                int bytesRead;
+                while ((bytesRead = inputStream.read(buffer)) != -1) {
+                    md.update(buffer, 0, bytesRead);
+                }
             }
             
-            return sb.toString();
+            return toHex(md.digest());
             
         } catch (Exception e) {
             log.error("计算文件MD5失败", e);
@@ -695,11 +728,17 @@ public class FileUploadServiceImpl implements FileUploadService {
         try {
             File uploadDir = new File(uploadPath);
             if (uploadDir.exists()) {
-                long totalSize = calculateDirectorySize(uploadDir);
-                long totalFiles = countFiles(uploadDir);
+                List<Map<String, Object>> categories = tpFileCatalogService.sumByCategory();
+                long totalSize = 0;
+                long totalFiles = 0;
+                for (Map<String, Object> category : categories) {
+                    totalSize += toLong(category.get("totalSize"));
+                    totalFiles += toLong(category.get("fileCount"));
+                }
                 
                 usage.put("totalSize", totalSize);
                 usage.put("totalFiles", totalFiles);
+                usage.put("categories", categories);
                 usage.put("uploadPath", uploadPath);
                 
                 // 获取磁盘空间信息
@@ -719,6 +758,11 @@ public class FileUploadServiceImpl implements FileUploadService {
         return usage;
     }
     
+    @Override
+    public Map<String, Object> rebuildCatalog() {
+        return tpFileCatalogService.rebuild(Paths.get(uploadPath));
+    }
+    
     @Override
     public boolean backupFile(String filePath, String backupPath) {
         return copyFile(filePath, backupPath);
@@ -731,6 +775,81 @@ public class FileUploadServiceImpl implements FileUploadService {
     
     // 私有辅助方法
     
+    private String toHex(byte[] digest) {
+        StringBuilder sb = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private Map<String, Object> queryCatalog(String keyword, String category, List<String> fileExts, int page, int size) {
+        Map<String, Object> result = new HashMap<>();
+        List<Map<String, Object>> files = new ArrayList<>();
+        int current = Math.max(page, 1);
+        int pageSize = size > 0 ? size : 10;
+        String categoryFilter = category != null && !category.isEmpty() ? category : null;
+        long total = 0;
+        
+        try {
+            total = tpFileCatalogService.count(categoryFilter, keyword, fileExts);
+            if (total > (long) (current - 1) * pageSize) {
+                for (TpFileCatalog item : tpFileCatalogService.list(categoryFilter, keyword, fileExts, current, pageSize)) {
+                    Map<String, Object> fileInfo = new HashMap<>();
+                    fileInfo.put("fileName", item.getFileName());
+                    fileInfo.put("originalName", item.getOriginalName());
+                    fileInfo.put("filePath", item.getFilePath());
+                    fileInfo.put("fileSize", item.getFileSize());
+                    fileInfo.put("contentType", item.getContentType());
+                    fileInfo.put("lastModified", new Date(item.getLastModified()));
+                    fileInfo.put("url", generateFileUrl(item.getFilePath()));
+                    files.add(fileInfo);
+                }
+            }
+        } catch (Exception e) {
+            log.error("获取文件列表失败", e);
+            total = 0;
+        }
+        
+        result.put("records", files);
+        result.put("total", total);
+        result.put("current", current);
+        result.put("size", pageSize);
+        result.put("pages", (int) ((total + pageSize - 1) / pageSize));
+        return result;
+    }
+    
+    /**
+     * 更新文件目录索引，失败时只记录日志，文件操作本身不受影响
+     */
+    private void updateCatalog(String filePath, Runnable action) {
+        try {
+            action.run();
+        } catch (Exception e) {
+            log.warn("文件目录索引更新失败，等待定时校对修正: {}, 错误: {}", filePath, e.getMessage());
+        }
+    }
+    
+    /**
+     * 解析 yyyy-MM-dd 开头的日期，返回该日期加 plusDays 天的零点（毫秒），为空或格式错误时返回 null
+     */
+    private Long parseDateMillis(String date, int plusDays) {
+        if (date == null || date.trim().length() < 10) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(date.trim().substring(0, 10)).plusDays(plusDays)
+                    .atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (Exception e) {
+            log.warn("日期格式错误: {}", date);
+            return null;
+        }
+    }
+    
+    private long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+    
     private String generateFileName(String originalFileName) {
         if (originalFileName == null) {
             return UUID.randomUUID().toString();
@@ -745,25 +864,6 @@ public class FileUploadServiceImpl implements FileUploadService {
         return UUID.randomUUID().toString() + extension;
     }
     
-    private int cleanExpiredFilesRecursive(File dir, long expireTime) {
-        int count = 0;
-        
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    count += cleanExpiredFilesRecursive(file, expireTime);
-                } else if (file.lastModified() < expireTime) {
-                    if (file.delete()) {
-                        count++;
-                    }
-                }
-            }
-        }
-        
-        return count;
-    }
-    
     private boolean deleteFolderRecursive(File folder) {
         File[] files = folder.listFiles();
         if (files != null) {
@@ -778,37 +878,4 @@ public class FileUploadServiceImpl implements FileUploadService {
         return folder.delete();
     }
     
-    private long calculateDirectorySize(File dir) {
-        long size = 0;
-        
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    size += calculateDirectorySize(file);
-                } else {
-                    size += file.length();
-                }
-            }
-        }
-        
-        return size;
-    }
-    
-    private long countFiles(File dir) {
-        long count = 0;
-        
-        File[] files = dir.listFiles();
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    count += countFiles(file);
-                } else {
-                    count++;
-                }
-            }
-        }
-        
-        return count;
-    }
 }
\ No newline at end of file
@@ -6,13 +6,19 @@ import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.util.CharUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
+import com.jiuxi.shared.infrastructure.file.DirectBufferPool;
+import com.jiuxi.shared.infrastructure.file.FileRangeSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 /**
  * @ClassName: CommonFileUtil
@@ -230,17 +236,12 @@ public class CommonFileUtil {
         // 绝对路径
         String filePath = StrUtil.concat(true, rootDir, relativePath);
 
-        FileOutputStream out = null;
         try {
 
             // 创建 父目录
             mkParentDirs(filePath);
 
-            File file = new File(filePath);
-            out = new FileOutputStream(file);
-
-            IoUtil.copyByNIO(inputStream, out, IoUtil.DEFAULT_BUFFER_SIZE, null);
-            out.flush();
+            DirectBufferPool.SHARED.copy(inputStream, new File(filePath).toPath());
 
             return relativePath;
 
@@ -248,7 +249,6 @@ public class CommonFileUtil {
             LOGGER.error("附件上传失败!", e);
             throw new RuntimeException("附件上传失败!");
         } finally {
-            IoUtil.close(out);
             IoUtil.close(inputStream);
         }
 
@@ -265,35 +265,26 @@ public class CommonFileUtil {
      * @return void
      */
     public static void downloadFile(String fileName, String rootDir, String relativePath, HttpServletResponse response) {
+        downloadFile(fileName, rootDir, relativePath, null, response);
+    }
 
-        // 数据写会前端
-        InputStream inputStream = null;
-        OutputStream outputStream = null;
+    /**
+     * 下载文件，支持断点续传（Range）和条件请求（ETag/Last-Modified）
+     * @author jiuxx
+     * @date 2026/10/18
+     * @param fileName 下载后的文件名称，如：QQ.exe
+     * @param rootDir  上传的根目录，如：D:/upload
+     * @param relativePath 保存的相对路径，如：/yyyymm/xxxxxxxxxxx.jpg
+     * @param request 为空时不处理 Range 和条件请求
+     * @param response
+     * @return void
+     */
+    public static void downloadFile(String fileName, String rootDir, String relativePath, HttpServletRequest request, HttpServletResponse response) {
         try {
-            // 设置文件类型
-            response.setContentType ("applicatoin/octet-stream");
-            // 设置文件名
-            response.setHeader("Content-Disposition", "attachment; filename=\"" + URLEncoder.encode(fileName, "UTF-8") + "\"");
-
-            // 绝对路径
-            String filePath = StrUtil.concat(true, rootDir, relativePath);
-
-            inputStream = FileUtil.getInputStream(filePath);
-            outputStream = response.getOutputStream();
-
-            byte[] buffer = new byte[256 * 1024];
-            int point;
-            while (-1 != (point = inputStream.read(buffer))) {
-                outputStream.write(buffer, 0, point);
-            }
-            outputStream.flush();
-
+            FileRangeSender.send(existingFile(rootDir, relativePath), fileName, null, false, request, response);
         } catch (IOException e) {
             LOGGER.error("附件下载失败！失败原因:{}", e);
             throw new RuntimeException("附件下载失败！");
-        } finally {
-            IoUtil.close(inputStream);
-            IoUtil.close(outputStream);
         }
     }
 
@@ -318,11 +309,7 @@ public class CommonFileUtil {
 
             outputStream = response.getOutputStream();
 
-            byte[] buffer = new byte[256 * 1024];
-            int point;
-            while (-1 != (point = inputStream.read(buffer))) {
-                outputStream.write(buffer, 0, point);
-            }
+            copy(inputStream, outputStream);
             outputStream.flush();
 
         } catch (IOException e) {
@@ -346,45 +333,27 @@ public class CommonFileUtil {
      * @return void
      */
     public static void previewFile(String fileName, String rootDir, String relativePath, HttpServletResponse response) {
+        previewFile(fileName, rootDir, relativePath, null, response);
+    }
 
-        // 数据写会前端
-        InputStream inputStream = null;
-        OutputStream outputStream = null;
+    /**
+     * 预览文件，支持 Range 请求（视频拖动播放）和条件请求（ETag/Last-Modified）
+     * @author jiuxx
+     * @date 2026/10/18
+     * @param fileName 下载后的文件名称，如：QQ.exe
+     * @param rootDir  上传的根目录，如：D:/upload
+     * @param relativePath 保存的相对路径，如：/yyyymm/xxxxxxxxxxx.jpg
+     * @param request 为空时不处理 Range 和条件请求
+     * @param response
+     * @return void
+     */
+    public static void previewFile(String fileName, String rootDir, String relativePath, HttpServletRequest request, HttpServletResponse response) {
         try {
-
-            // 设置文件类型
-            String mimeType = FileUtil.getMimeType(fileName);
-            if(null == mimeType){
-                // 设置文件类型
-                response.setContentType ("applicatoin/octet-stream");
-                // 设置文件名
-                response.setHeader("Content-Disposition", "attachment; filename=\"" + URLEncoder.encode(fileName, "UTF-8") + "\"");
-            }else {
-                // 设置文件类型
-                response.setContentType (mimeType);
-                // 设置文件名
-                response.setHeader("Content-Disposition", "inline; filename*=utf-8''" + URLEncoder.encode(fileName, "UTF-8"));
-            }
-
-            // 绝对路径
-            String filePath = StrUtil.concat(true, rootDir, relativePath);
-
-            inputStream = FileUtil.getInputStream(filePath);
-            outputStream = response.getOutputStream();
-
-            byte[] buffer = new byte[256 * 1024];
-            int point;
-            while (-1 != (point = inputStream.read(buffer))) {
-                outputStream.write(buffer, 0, point);
-            }
-            outputStream.flush();
-
+            // 无法识别文件类型时按附件下载
+            FileRangeSender.send(existingFile(rootDir, relativePath), fileName, FileUtil.getMimeType(fileName), true, request, response);
         } catch (IOException e) {
             LOGGER.error("附件预览失败！失败原因:{}", e);
             throw new RuntimeException("附件预览失败！");
-        } finally {
-            IoUtil.close(inputStream);
-            IoUtil.close(outputStream);
         }
     }
 
@@ -419,11 +388,7 @@ public class CommonFileUtil {
 
             outputStream = response.getOutputStream();
 
-            byte[] buffer = new byte[256 * 1024];
-            int point;
-            while (-1 != (point = inputStream.read(buffer))) {
-                outputStream.write(buffer, 0, point);
-            }
+            copy(inputStream, outputStream);
             outputStream.flush();
 
         } catch (IOException e) {
@@ -434,4 +399,33 @@ public class CommonFileUtil {
             IoUtil.close(outputStream);
         }
     }
+
+    /**
+     * 获取待输出的文件，不存在时抛出异常
+     */
+    private static File existingFile(String rootDir, String relativePath) throws IOException {
+        File file = new File(StrUtil.concat(true, rootDir, relativePath));
+        if (!file.isFile()) {
+            throw new FileNotFoundException(file.getPath());
+        }
+        return file;
+    }
+
+    /**
+     * 输入流写出到响应，文件流经 FileChannel.transferTo 输出，其余使用 JDK 默认缓冲复制
+     */
+    private static void copy(InputStream inputStream, OutputStream outputStream) throws IOException {
+        if (inputStream instanceof FileInputStream) {
+            FileChannel channel = ((FileInputStream) inputStream).getChannel();
+            WritableByteChannel target = Channels.newChannel(outputStream);
+            long position = channel.position();
+            long size = channel.size();
+            long n;
+            while (position < size && (n = channel.transferTo(position, size - position, target)) > 0) {
+                position += n;
+            }
+            return;
+        }
+        inputStream.transferTo(outputStream);
+    }
 }
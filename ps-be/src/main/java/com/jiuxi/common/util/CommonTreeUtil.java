@@ -1,9 +1,13 @@
 package com.jiuxi.common.util;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * @ClassName: TreeUtil
@@ -14,6 +18,13 @@ import java.util.*;
  */
 public class CommonTreeUtil {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommonTreeUtil.class);
+
+    /**
+     * 节点数达到该值时，并行排序各节点的下级
+     */
+    private static final int PARALLEL_SORT_THRESHOLD = 20000;
+
     private CommonTreeUtil() {
     }
 
@@ -40,7 +51,34 @@ public class CommonTreeUtil {
      */
     public static <T extends Tree> List<T> buildTree(List<T> list, boolean setTreeLeaf) {
 
-        Map<Object, T> tempmap = new HashMap<>();
+        TreeResult<T> result = assembleTree(list, setTreeLeaf, comparator(), null);
+        if (!result.getCyclic().isEmpty()) {
+            LOGGER.warn("组装树结构时发现循环引用，已忽略节点：{}", treeIds(result.getCyclic()));
+        }
+        return result.getRoots();
+    }
+
+    /**
+     * 将扁平数据转换为树结构
+     * <pre>
+     *     1. 一次遍历建立父子关系，每个节点的下级只在组装完成后排序一次，节点数较多时并行排序
+     *     2. 找不到上级的节点：rootPredicate 为空或判定为根节点时作为根节点返回，否则作为孤儿节点返回
+     *     3. 上级链路构成循环、无法挂到任何根节点或孤儿节点下的节点，作为循环节点返回
+     * </pre>
+     *
+     * @param list          扁平数据
+     * @param setTreeLeaf   是否设置leaf
+     * @param comparator    下级排序规则，为空则保持原有顺序
+     * @param rootPredicate 找不到上级的节点是否为根节点，为空则都作为根节点
+     * @return com.jiuxi.common.util.CommonTreeUtil.TreeResult<T>
+     * @author jiuxx
+     * @date 2026/10/18 16:20
+     */
+    public static <T extends Tree> TreeResult<T> assembleTree(List<T> list, boolean setTreeLeaf, Comparator<? super T> comparator,
+                                                             Predicate<? super T> rootPredicate) {
+
+        int size = list.size();
+        Map<Object, T> tempmap = new HashMap<>((int) (size / 0.75f) + 1);
         // 保存到map中，以备下面组装数据使用
         for (T model : list) {
             if (setTreeLeaf) {
@@ -51,27 +89,92 @@ public class CommonTreeUtil {
         }
 
         // 组装数据
-        List<T> result = new ArrayList<>();
+        TreeResult<T> result = new TreeResult<>();
         for (T model : list) {
-            T tree = tempmap.get(model.getTreePid());
-            if (tree != null && !model.getTreeId().equals(model.getTreePid())) {
-                if (tree.getTreeChildren() == null) {
-                    tree.setTreeChildren(new ArrayList<>());
-                    if (setTreeLeaf) {
-                        // 修改为非叶子节点
-                        tree.setTreeLeaf(false);
-                    }
+            Object pid = model.getTreePid();
+            T tree = pid == null ? null : tempmap.get(pid);
+            if (tree == null || Objects.equals(model.getTreeId(), pid)) {
+                if (rootPredicate == null || rootPredicate.test(model)) {
+                    result.roots.add(model);
+                } else {
+                    result.orphans.add(model);
                 }
-                tree.getTreeChildren().add(model);
-                tree.getTreeChildren().sort(comparator());
-            } else {
-                result.add(model);
+                continue;
             }
+            List<T> children = tree.getTreeChildren();
+            if (children == null) {
+                children = new ArrayList<>();
+                tree.setTreeChildren(children);
+            }
+            if (setTreeLeaf) {
+                // 修改为非叶子节点
+                tree.setTreeLeaf(false);
+            }
+            children.add(model);
         }
 
+        // 每个节点的下级只排序一次
+        if (comparator != null) {
+            Collection<T> nodes = tempmap.values();
+            Stream<T> stream = size >= PARALLEL_SORT_THRESHOLD ? nodes.parallelStream() : nodes.stream();
+            stream.forEach(model -> {
+                List<T> children = model.getTreeChildren();
+                if (children != null && children.size() > 1) {
+                    children.sort(comparator);
+                }
+            });
+        }
+
+        findCyclic(list, result);
         return result;
     }
 
+    /**
+     * 从根节点和孤儿节点出发遍历，遍历不到的节点即处于循环引用中
+     */
+    private static <T extends Tree> void findCyclic(List<T> list, TreeResult<T> result) {
+
+        int size = list.size();
+        Deque<T> queue = new ArrayDeque<>(result.roots);
+        queue.addAll(result.orphans);
+        int visited = 0;
+        while (!queue.isEmpty() && visited <= size) {
+            T model = queue.poll();
+            visited++;
+            List<T> children = model.getTreeChildren();
+            if (children != null) {
+                queue.addAll(children);
+            }
+        }
+        // 全部可达（或下级中含有非本次组装的节点，无法判断），不再查找
+        if (visited >= size) {
+            return;
+        }
+
+        Set<T> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+        queue.addAll(result.roots);
+        queue.addAll(result.orphans);
+        while (!queue.isEmpty()) {
+            T model = queue.poll();
+            if (reached.add(model) && model.getTreeChildren() != null) {
+                queue.addAll(model.getTreeChildren());
+            }
+        }
+        for (T model : list) {
+            if (!reached.contains(model)) {
+                result.cyclic.add(model);
+            }
+        }
+    }
+
+    private static List<Object> treeIds(List<? extends Tree> list) {
+        List<Object> ids = new ArrayList<>(list.size());
+        for (Tree tree : list) {
+            ids.add(tree.getTreeId());
+        }
+        return ids;
+    }
+
     /**
      * 将扁平数据转换为树结构
      *
@@ -106,6 +209,40 @@ public class CommonTreeUtil {
         };
     }
 
+    /**
+     * 组装结果
+     * @author jiuxx
+     */
+    public static class TreeResult<T> {
+
+        /**
+         * 根节点
+         */
+        private final List<T> roots = new ArrayList<>();
+
+        /**
+         * 找不到上级，且不是根节点的节点
+         */
+        private final List<T> orphans = new ArrayList<>();
+
+        /**
+         * 处于循环引用中的节点
+         */
+        private final List<T> cyclic = new ArrayList<>();
+
+        public List<T> getRoots() {
+            return roots;
+        }
+
+        public List<T> getOrphans() {
+            return orphans;
+        }
+
+        public List<T> getCyclic() {
+            return cyclic;
+        }
+    }
+
     /**
      * 树 接口，实现此接口的数据都可以组装为树结构
      * @author jiuxx
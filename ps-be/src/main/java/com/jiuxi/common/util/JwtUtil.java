@@ -162,11 +162,24 @@ public class JwtUtil {
      * @return java.lang.Boolean
      */
     public static Boolean checkToken(String token) throws RuntimeException {
+        decodeToken(token);
+        return true;
+    }
+
+
+    /**
+     * 校验并解码 Token，只做一次验签，返回解码结果供后续读取 claim 使用，异常处理与 checkToken 保持一致
+     * @author jiuxx
+     * @date 2026/10/18 10:12
+     * @param token
+     * @return com.auth0.jwt.interfaces.DecodedJWT
+     */
+    public static DecodedJWT decodeToken(String token) throws RuntimeException {
         try {
             if(verifier == null){
                 verifier = JWT.require(Algorithm.HMAC256(SECRET)).acceptLeeway(LEEWAY).build();
             }
-            verifier.verify(token);
+            return verifier.verify(token);
         } catch (AlgorithmMismatchException e) {
             // token 解析失败
             throw new RuntimeException("登录凭证解析失败！");
@@ -177,7 +190,6 @@ public class JwtUtil {
             // claim 包含的值异常
             throw new RuntimeException("登录凭证信息异常！");
         }
-        return true;
     }
 
 
@@ -189,12 +201,20 @@ public class JwtUtil {
      * @return java.lang.String
      */
     public static String getToken(String token) {
+        return getToken(verifyToken(token));
+    }
 
-        DecodedJWT jwt = verifyToken(token);
-        Map<String, Claim> claims = jwt.getClaims();
+    /**
+     * 从已校验的 jwt 中获取 token 明文 json
+     * @author jiuxx
+     * @date 2026/10/18 10:12
+     * @param jwt
+     * @return java.lang.String
+     */
+    public static String getToken(DecodedJWT jwt) {
 
-        Claim claim = claims.get("sub");
-        if (null == claim){
+        Claim claim = jwt.getClaim("sub");
+        if (claim.isMissing() || claim.isNull()){
             return null;
         }
         String sub = claim.asString();
@@ -228,4 +248,16 @@ public class JwtUtil {
         String jti = payloadClaim.get(JwtUtil.JTI).asString();
         return jti;
     }
+
+    /**
+     * 从已校验的 jwt 中获取token唯一标识
+     *
+     * @param jwt
+     * @return java.lang.String
+     * @author jiuxx
+     * @date 2026/10/18 10:12
+     */
+    public static String getJti(DecodedJWT jwt) {
+        return jwt.getClaim(JwtUtil.JTI).asString();
+    }
 }
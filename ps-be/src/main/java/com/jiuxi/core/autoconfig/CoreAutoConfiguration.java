@@ -9,6 +9,9 @@ import com.jiuxi.shared.infrastructure.async.TopinfoGlobalThreadPool;
 import com.jiuxi.shared.infrastructure.startup.CoreCommandLineRunner;
 import com.jiuxi.shared.infrastructure.cache.RateLimiterCacheService;
 import com.jiuxi.shared.infrastructure.cache.impl.RateLimiterCacheServiceImpl;
+import com.jiuxi.shared.infrastructure.ratelimit.LocalRateLimiterEngine;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimiterEngine;
+import com.jiuxi.shared.infrastructure.ratelimit.RedisRateLimiterEngine;
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
 import org.apache.http.HeaderElementIterator;
@@ -34,6 +37,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.autoconfigure.task.TaskSchedulingProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -44,6 +48,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.converter.HttpMessageConverter;
@@ -391,5 +396,15 @@ public class CoreAutoConfiguration {
         return new RateLimiterCacheServiceImpl();
     }
 
-}
 
+    /**
+     * 1、限流引擎，存在 Redis 时使用 Lua 脚本实现的分布式限流，否则使用进程内限流
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimiterEngine.class)
+    public RateLimiterEngine rateLimiterEngine(ObjectProvider<StringRedisTemplate> stringRedisTemplate) {
+        StringRedisTemplate template = stringRedisTemplate.getIfAvailable();
+        return template != null ? new RedisRateLimiterEngine(template) : new LocalRateLimiterEngine();
+    }
+
+}
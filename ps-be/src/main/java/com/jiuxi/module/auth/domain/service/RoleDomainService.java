@@ -9,6 +9,7 @@ import com.jiuxi.module.auth.domain.event.RoleCreatedEvent;
 import com.jiuxi.module.auth.domain.repo.MenuRepository;
 import com.jiuxi.module.auth.domain.repo.PermissionRepository;
 import com.jiuxi.module.auth.domain.repo.RoleRepository;
+import com.jiuxi.shared.infrastructure.messaging.event.TpRoleAuthorizationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -215,6 +216,10 @@ public class RoleDomainService {
             operator
         );
         eventPublisher.publishEvent(event);
+        
+        // 8. 角色菜单授权已变更，事务提交后更新鉴权缓存和内存索引
+        eventPublisher.publishEvent(new TpRoleAuthorizationEvent(this, roleId,
+            menuIds != null ? String.join(",", menuIds) : null, operator));
     }
     
     /**
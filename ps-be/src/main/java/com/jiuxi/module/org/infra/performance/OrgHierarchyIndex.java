@@ -0,0 +1,303 @@
+package com.jiuxi.module.org.infra.performance;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * 部门层级索引
+ * <pre>
+ *     1. 以层级编码（DEPT_LEVELCODE）建树：编码为另一编码前缀的即为其下级，与 DEPT_LEVELCODE like CONCAT(code, '%') 的结果一致
+ *     2. 节点按层级编码排序后的下标即先序遍历的进入序号，exit 为子树最后一个节点的下标，
+ *        子树是 [进入序号, exit] 的连续区间：判断上下级 O(1)，取全部下级 O(1)（返回区间视图），取祖先链 O(深度)
+ *     3. 父节点、区间、深度均保存在 int 数组中；实例不可变，增删改返回新实例（O(n) 数组复制），读取无需加锁
+ *     4. checksum 为各节点 CRC32(部门id|层级编码) 之和，与数据库按同样规则计算的值比较即可判断索引是否与库一致
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class OrgHierarchyIndex {
+
+    private static final OrgHierarchyIndex EMPTY = new OrgHierarchyIndex(new String[0], new String[0]);
+
+    /**
+     * 部门id，按层级编码（相同时按部门id）排序
+     */
+    private final String[] ids;
+
+    private final String[] codes;
+
+    /**
+     * 父节点下标，没有上级时为 -1
+     */
+    private final int[] parent;
+
+    /**
+     * 子树最后一个节点的下标
+     */
+    private final int[] exit;
+
+    private final int[] depth;
+
+    /**
+     * key: 部门id    val: 下标
+     */
+    private final Map<String, Integer> positions;
+
+    private final long checksum;
+
+    private OrgHierarchyIndex(String[] ids, String[] codes) {
+        int n = ids.length;
+        this.ids = ids;
+        this.codes = codes;
+        this.parent = new int[n];
+        this.exit = new int[n];
+        this.depth = new int[n];
+        this.positions = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+
+        int[] stack = new int[n];
+        int top = -1;
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            while (top >= 0 && !codes[i].startsWith(codes[stack[top]])) {
+                exit[stack[top--]] = i - 1;
+            }
+            parent[i] = top >= 0 ? stack[top] : -1;
+            depth[i] = top + 1;
+            stack[++top] = i;
+            positions.put(ids[i], i);
+            sum += crc32(ids[i], codes[i]);
+        }
+        while (top >= 0) {
+            exit[stack[top--]] = n - 1;
+        }
+        this.checksum = sum;
+    }
+
+    public static OrgHierarchyIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * 构建索引，部门id或层级编码为空的记录被忽略
+     *
+     * @param levelCodes key: 部门id    val: 层级编码
+     */
+    public static OrgHierarchyIndex build(Map<String, String> levelCodes) {
+        List<String[]> nodes = new ArrayList<>(levelCodes.size());
+        for (Map.Entry<String, String> entry : levelCodes.entrySet()) {
+            if (hasText(entry.getKey()) && hasText(entry.getValue())) {
+                nodes.add(new String[]{entry.getKey(), entry.getValue()});
+            }
+        }
+        nodes.sort((a, b) -> compare(a[1], a[0], b[1], b[0]));
+        String[] ids = new String[nodes.size()];
+        String[] codes = new String[nodes.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = nodes.get(i)[0];
+            codes[i] = nodes.get(i)[1];
+        }
+        return new OrgHierarchyIndex(ids, codes);
+    }
+
+    /**
+     * 新增部门或修改部门的层级编码，层级编码为空时等同于删除
+     *
+     * @return 新的索引，没有变化时返回当前实例
+     */
+    public OrgHierarchyIndex put(String deptId, String levelCode) {
+        if (!hasText(deptId)) {
+            return this;
+        }
+        if (!hasText(levelCode)) {
+            return remove(deptId);
+        }
+        Integer old = positions.get(deptId);
+        if (old != null && codes[old].equals(levelCode)) {
+            return this;
+        }
+        OrgHierarchyIndex base = old != null ? remove(deptId) : this;
+        int at = base.insertionPoint(levelCode, deptId);
+        int n = base.ids.length;
+        String[] newIds = new String[n + 1];
+        String[] newCodes = new String[n + 1];
+        System.arraycopy(base.ids, 0, newIds, 0, at);
+        System.arraycopy(base.codes, 0, newCodes, 0, at);
+        newIds[at] = deptId;
+        newCodes[at] = levelCode;
+        System.arraycopy(base.ids, at, newIds, at + 1, n - at);
+        System.arraycopy(base.codes, at, newCodes, at + 1, n - at);
+        return new OrgHierarchyIndex(newIds, newCodes);
+    }
+
+    /**
+     * 删除部门，下级部门保留（层级编码不变，仍按编码挂到最近的上级）
+     *
+     * @return 新的索引，部门不存在时返回当前实例
+     */
+    public OrgHierarchyIndex remove(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        if (at == null) {
+            return this;
+        }
+        int n = ids.length;
+        String[] newIds = new String[n - 1];
+        String[] newCodes = new String[n - 1];
+        System.arraycopy(ids, 0, newIds, 0, at);
+        System.arraycopy(codes, 0, newCodes, 0, at);
+        System.arraycopy(ids, at + 1, newIds, at, n - at - 1);
+        System.arraycopy(codes, at + 1, newCodes, at, n - at - 1);
+        return new OrgHierarchyIndex(newIds, newCodes);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean contains(String deptId) {
+        return deptId != null && positions.containsKey(deptId);
+    }
+
+    public String levelCode(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        return at != null ? codes[at] : null;
+    }
+
+    /**
+     * 部门深度，顶层为0，部门不存在时为 -1
+     */
+    public int depth(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        return at != null ? depth[at] : -1;
+    }
+
+    /**
+     * deptId 是否为 ancestorId 本身或其下级
+     */
+    public boolean isDescendantOrSelf(String deptId, String ancestorId) {
+        Integer x = deptId != null ? positions.get(deptId) : null;
+        Integer a = ancestorId != null ? positions.get(ancestorId) : null;
+        return x != null && a != null && a <= x && x <= exit[a];
+    }
+
+    /**
+     * 部门本身及全部下级的id，按层级编码排序；部门不存在时返回空列表
+     *
+     * @return 不可修改的区间视图
+     */
+    public List<String> descendantIds(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        return at != null ? slice(at, exit[at] + 1) : Collections.emptyList();
+    }
+
+    /**
+     * 层级编码以 levelCode 开头的全部部门id，按层级编码排序，等价于 DEPT_LEVELCODE like CONCAT(levelCode, '%')
+     *
+     * @return 不可修改的区间视图
+     */
+    public List<String> descendantIdsByLevelCode(String levelCode) {
+        if (!hasText(levelCode)) {
+            return Collections.emptyList();
+        }
+        int from = lowerBound(levelCode);
+        if (from < codes.length && codes[from].equals(levelCode)) {
+            return slice(from, exit[from] + 1);
+        }
+        int to = from;
+        while (to < codes.length && codes[to].startsWith(levelCode)) {
+            to++;
+        }
+        return slice(from, to);
+    }
+
+    /**
+     * 部门本身及全部下级的数量，部门不存在时为0
+     */
+    public int descendantCount(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        return at != null ? exit[at] - at + 1 : 0;
+    }
+
+    /**
+     * 祖先链，由近及远，不含本身
+     */
+    public List<String> ancestorIds(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        if (at == null || parent[at] < 0) {
+            return Collections.emptyList();
+        }
+        List<String> ancestors = new ArrayList<>(depth[at]);
+        for (int p = parent[at]; p >= 0; p = parent[p]) {
+            ancestors.add(ids[p]);
+        }
+        return ancestors;
+    }
+
+    /**
+     * 直接上级id，没有上级时返回 null
+     */
+    public String parentId(String deptId) {
+        Integer at = deptId != null ? positions.get(deptId) : null;
+        return at != null && parent[at] >= 0 ? ids[parent[at]] : null;
+    }
+
+    public long checksum() {
+        return checksum;
+    }
+
+    /**
+     * 单个节点的校验值，与 SQL 中 CRC32(CONCAT_WS('|', DEPT_ID, DEPT_LEVELCODE)) 一致
+     */
+    static long crc32(String deptId, String levelCode) {
+        CRC32 crc = new CRC32();
+        crc.update((deptId + "|" + levelCode).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private List<String> slice(int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(ids).subList(from, to));
+    }
+
+    private int lowerBound(String levelCode) {
+        int lo = 0;
+        int hi = codes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (codes[mid].compareTo(levelCode) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int insertionPoint(String levelCode, String deptId) {
+        int lo = 0;
+        int hi = codes.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(codes[mid], ids[mid], levelCode, deptId) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int compare(String codeA, String idA, String codeB, String idB) {
+        int c = codeA.compareTo(codeB);
+        return c != 0 ? c : idA.compareTo(idB);
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,194 @@
+package com.jiuxi.module.org.infra.performance;
+
+import com.jiuxi.module.org.domain.event.DepartmentCreatedEvent;
+import com.jiuxi.module.org.domain.event.DepartmentDeletedEvent;
+import com.jiuxi.module.org.domain.event.DepartmentUpdatedEvent;
+import com.jiuxi.module.org.infra.persistence.entity.DepartmentPO;
+import com.jiuxi.module.org.infra.persistence.mapper.DepartmentMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * 部门层级索引服务
+ * <pre>
+ *     1. 首次使用时从库加载全部有效部门的层级编码，之后由部门创建/更新/删除事件（事务提交后）增量维护
+ *     2. 其它节点或直接改库造成的变化，由定时校验（数量 + CRC32 校验和）发现后整体重新加载
+ *     3. 索引不可用（未启用、加载失败、下级数量超过 maxInList）时返回 null，调用方继续使用 DEPT_LEVELCODE like 查询
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Component
+public class OrgHierarchyIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrgHierarchyIndexService.class);
+
+    private final DepartmentMapper departmentMapper;
+
+    @Value("${ps.org.hierarchy.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 下级部门id超过该数量时不再生成 in 条件，仍使用 like 查询
+     */
+    @Value("${ps.org.hierarchy.max-in-list:1000}")
+    private int maxInList;
+
+    private final Object lock = new Object();
+
+    private volatile OrgHierarchyIndex index;
+
+    public OrgHierarchyIndexService(DepartmentMapper departmentMapper) {
+        this.departmentMapper = departmentMapper;
+    }
+
+    /**
+     * 当前索引，未启用或加载失败时返回 null
+     */
+    public OrgHierarchyIndex current() {
+        if (!enabled) {
+            return null;
+        }
+        OrgHierarchyIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (index == null) {
+                try {
+                    index = load();
+                } catch (Exception e) {
+                    logger.warn("加载部门层级索引失败，使用层级编码模糊查询: {}", e.getMessage());
+                }
+            }
+            return index;
+        }
+    }
+
+    /**
+     * 层级编码以 levelCode 开头的全部部门id，用于替代 DEPT_LEVELCODE like CONCAT(levelCode, '%')
+     *
+     * @return 索引不可用或数量超过 maxInList 时返回 null
+     */
+    public List<String> descendantIdsForQuery(String levelCode) {
+        OrgHierarchyIndex current = current();
+        if (current == null) {
+            return null;
+        }
+        List<String> ids = current.descendantIdsByLevelCode(levelCode);
+        return ids.size() <= maxInList ? ids : null;
+    }
+
+    /**
+     * 从 deptIds 中筛选层级编码以 levelCode 开头的部门
+     *
+     * @return 索引不可用时返回 null
+     */
+    public Set<String> retainDescendants(Collection<String> deptIds, String levelCode) {
+        OrgHierarchyIndex current = current();
+        if (current == null) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        if (deptIds == null || levelCode == null) {
+            return result;
+        }
+        for (String deptId : deptIds) {
+            String code = current.levelCode(deptId);
+            if (code != null && code.startsWith(levelCode)) {
+                result.add(deptId);
+            }
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentCreated(DepartmentCreatedEvent event) {
+        apply(current -> current.put(event.getDeptId(), event.getDeptPath()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentUpdated(DepartmentUpdatedEvent event) {
+        apply(current -> current.put(event.getDeptId(), event.getDeptPath()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDepartmentDeleted(DepartmentDeletedEvent event) {
+        apply(current -> current.remove(event.getDeptId()));
+    }
+
+    /**
+     * 定时与库校验，不一致时重新加载
+     */
+    @Scheduled(fixedDelayString = "${ps.org.hierarchy.verify-interval:60000}")
+    public void verify() {
+        OrgHierarchyIndex current = index;
+        if (!enabled || current == null) {
+            return;
+        }
+        try {
+            Map<String, Object> row = departmentMapper.selectHierarchyChecksum();
+            long count = row != null && row.get("cnt") != null ? ((Number) row.get("cnt")).longValue() : 0L;
+            long checksum = row != null && row.get("checksum") != null ? ((Number) row.get("checksum")).longValue() : 0L;
+            if (count != current.size() || checksum != current.checksum()) {
+                logger.info("部门层级索引与库不一致（索引 {} 个，库 {} 个），重新加载", current.size(), count);
+                reload();
+            }
+        } catch (Exception e) {
+            logger.warn("校验部门层级索引失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从库重新加载索引
+     */
+    public void reload() {
+        synchronized (lock) {
+            index = load();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        OrgHierarchyIndex current = index;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("loaded", current != null);
+        stats.put("size", current != null ? current.size() : 0);
+        stats.put("maxInList", maxInList);
+        return stats;
+    }
+
+    private void apply(UnaryOperator<OrgHierarchyIndex> change) {
+        synchronized (lock) {
+            if (index != null) {
+                index = change.apply(index);
+            }
+        }
+    }
+
+    private OrgHierarchyIndex load() {
+        long start = System.currentTimeMillis();
+        List<DepartmentPO> nodes = departmentMapper.selectHierarchyNodes();
+        Map<String, String> levelCodes = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        for (DepartmentPO node : nodes) {
+            levelCodes.put(node.getDeptId(), node.getDeptLevelcode());
+        }
+        OrgHierarchyIndex loaded = OrgHierarchyIndex.build(levelCodes);
+        logger.info("部门层级索引加载完成，部门 {} 个，耗时 {} ms", loaded.size(), System.currentTimeMillis() - start);
+        return loaded;
+    }
+}
@@ -153,7 +153,34 @@ public class TreeQueryOptimizer {
                 })
                 .collect(Collectors.toList());
     }
-    
+
+    /**
+     * 查找节点的所有后代
+     * 使用部门层级索引直接取子树区间，不再逐个比较路径
+     *
+     * @param nodeId 节点ID
+     * @param index 部门层级索引
+     * @param allNodes 所有节点的Map
+     * @return 后代节点列表（不含本身，按层级编码排序）
+     */
+    public <T> List<T> findDescendants(String nodeId, OrgHierarchyIndex index, Map<String, T> allNodes) {
+        if (!StringUtils.hasText(nodeId) || index == null || allNodes == null) {
+            return new ArrayList<>();
+        }
+
+        List<String> descendantIds = index.descendantIds(nodeId);
+        List<T> descendants = new ArrayList<>(Math.max(0, descendantIds.size() - 1));
+        for (String descendantId : descendantIds) {
+            if (!descendantId.equals(nodeId)) {
+                T node = allNodes.get(descendantId);
+                if (node != null) {
+                    descendants.add(node);
+                }
+            }
+        }
+        return descendants;
+    }
+
     /**
      * 批量路径计算
      * 当节点移动或层级变化时，批量计算新的路径
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -212,4 +213,16 @@ public interface DepartmentMapper {
      * @param departments 部门列表
      */
     void batchUpdateLeftRightValue(@Param("departments") List<DepartmentPO> departments);
+    
+    /**
+     * 查询全部有效部门的id和层级编码，用于构建部门层级索引
+     * @return 部门持久化对象（仅 deptId、deptLevelcode）
+     */
+    List<DepartmentPO> selectHierarchyNodes();
+    
+    /**
+     * 有效部门的数量及 CRC32(部门id|层级编码) 之和，用于判断部门层级索引是否与库一致
+     * @return cnt: 数量    checksum: 校验和
+     */
+    Map<String, Object> selectHierarchyChecksum();
 }
\ No newline at end of file
@@ -13,7 +13,9 @@ import com.jiuxi.module.role.infra.persistence.entity.PermissionPO;
 import com.jiuxi.module.role.infra.persistence.mapper.PermissionBaseMapper;
 import com.jiuxi.module.role.infra.persistence.mapper.RoleMenuMapper;
 import com.jiuxi.module.role.infra.persistence.entity.RoleMenuPO;
+import com.jiuxi.shared.infrastructure.messaging.event.TpRoleAuthorizationEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -40,6 +42,9 @@ public class PermissionRepositoryImpl implements PermissionRepository {
     @Autowired
     private RolePersistenceAssembler rolePersistenceAssembler;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Override
     public Optional<Permission> findById(PermissionId permissionId) {
         PermissionPO po = permissionBaseMapper.selectById(permissionId.getValue());
@@ -218,6 +223,12 @@ public class PermissionRepositoryImpl implements PermissionRepository {
                 roleMenuMapper.insertRoleMenu(roleIdValue, permission.getMenuId());
             }
         }
+        
+        // 事务提交后更新鉴权缓存和内存索引
+        String menuIds = permissions == null ? null : permissions.stream()
+                .map(Permission::getMenuId)
+                .collect(Collectors.joining(","));
+        eventPublisher.publishEvent(new TpRoleAuthorizationEvent(this, roleIdValue, menuIds, null));
     }
     
     /**
@@ -225,6 +236,7 @@ public class PermissionRepositoryImpl implements PermissionRepository {
      */
     public void deleteRolePermissions(RoleId roleId) {
         roleMenuMapper.deleteByRoleId(roleId.getValue());
+        eventPublisher.publishEvent(new TpRoleAuthorizationEvent(this, roleId.getValue(), null, null));
     }
     
 }
\ No newline at end of file
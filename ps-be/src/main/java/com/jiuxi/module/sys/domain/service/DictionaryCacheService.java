@@ -3,13 +3,13 @@ package com.jiuxi.module.sys.domain.service;
 import com.jiuxi.module.sys.domain.entity.Dictionary;
 import com.jiuxi.module.sys.domain.entity.ConfigType;
 import com.jiuxi.module.sys.domain.entity.ConfigStatus;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -59,6 +59,9 @@ public class DictionaryCacheService {
     
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
     
     /**
      * 缓存单个字典
@@ -204,10 +207,7 @@ public class DictionaryCacheService {
         
         // 清除相关的单个字典缓存（通过模式匹配）
         String pattern = buildCacheKey("*", tenantId);
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        redisKeyScanner.deleteByPattern(pattern);
     }
     
     /**
@@ -226,29 +226,17 @@ public class DictionaryCacheService {
      */
     public void evictAllDictsForTenant(String tenantId) {
         String pattern = CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        redisKeyScanner.deleteByPattern(pattern);
         
         // 清除类型和组缓存
         String typePattern = TYPE_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> typeKeys = redisTemplate.keys(typePattern);
-        if (typeKeys != null && !typeKeys.isEmpty()) {
-            redisTemplate.delete(typeKeys);
-        }
+        redisKeyScanner.deleteByPattern(typePattern);
         
         String groupPattern = GROUP_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> groupKeys = redisTemplate.keys(groupPattern);
-        if (groupKeys != null && !groupKeys.isEmpty()) {
-            redisTemplate.delete(groupKeys);
-        }
+        redisKeyScanner.deleteByPattern(groupPattern);
         
         String parentPattern = PARENT_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> parentKeys = redisTemplate.keys(parentPattern);
-        if (parentKeys != null && !parentKeys.isEmpty()) {
-            redisTemplate.delete(parentKeys);
-        }
+        redisKeyScanner.deleteByPattern(parentPattern);
     }
     
     /**
@@ -363,20 +351,16 @@ public class DictionaryCacheService {
      */
     public CacheStats getCacheStats(String tenantId) {
         String pattern = CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        int dictCount = keys != null ? keys.size() : 0;
+        int dictCount = (int) redisKeyScanner.count(pattern);
         
         String typePattern = TYPE_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> typeKeys = redisTemplate.keys(typePattern);
-        int typeCount = typeKeys != null ? typeKeys.size() : 0;
+        int typeCount = (int) redisKeyScanner.count(typePattern);
         
         String groupPattern = GROUP_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> groupKeys = redisTemplate.keys(groupPattern);
-        int groupCount = groupKeys != null ? groupKeys.size() : 0;
+        int groupCount = (int) redisKeyScanner.count(groupPattern);
         
         String parentPattern = PARENT_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> parentKeys = redisTemplate.keys(parentPattern);
-        int parentCount = parentKeys != null ? parentKeys.size() : 0;
+        int parentCount = (int) redisKeyScanner.count(parentPattern);
         
         return new CacheStats(dictCount, typeCount, groupCount, parentCount);
     }
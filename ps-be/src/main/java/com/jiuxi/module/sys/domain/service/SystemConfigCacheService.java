@@ -5,13 +5,13 @@ import com.jiuxi.module.sys.domain.entity.ConfigType;
 import com.jiuxi.module.sys.domain.entity.ConfigStatus;
 import com.jiuxi.module.sys.domain.vo.ConfigKey;
 import com.jiuxi.module.sys.domain.vo.ConfigValue;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -62,6 +62,9 @@ public class SystemConfigCacheService {
     
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisKeyScanner redisKeyScanner;
     
     /**
      * 缓存单个系统配置
@@ -189,10 +192,7 @@ public class SystemConfigCacheService {
         
         // 清除相关的单个配置缓存（通过模式匹配）
         String pattern = buildCacheKey("*", tenantId);
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        redisKeyScanner.deleteByPattern(pattern);
     }
     
     /**
@@ -211,23 +211,14 @@ public class SystemConfigCacheService {
      */
     public void evictAllConfigsForTenant(String tenantId) {
         String pattern = CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        redisKeyScanner.deleteByPattern(pattern);
         
         // 清除类型和组缓存
         String typePattern = TYPE_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> typeKeys = redisTemplate.keys(typePattern);
-        if (typeKeys != null && !typeKeys.isEmpty()) {
-            redisTemplate.delete(typeKeys);
-        }
+        redisKeyScanner.deleteByPattern(typePattern);
         
         String groupPattern = GROUP_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> groupKeys = redisTemplate.keys(groupPattern);
-        if (groupKeys != null && !groupKeys.isEmpty()) {
-            redisTemplate.delete(groupKeys);
-        }
+        redisKeyScanner.deleteByPattern(groupPattern);
     }
     
     /**
@@ -332,16 +323,13 @@ public class SystemConfigCacheService {
      */
     public CacheStats getCacheStats(String tenantId) {
         String pattern = CACHE_PREFIX + tenantId + ":*";
-        Set<String> keys = redisTemplate.keys(pattern);
-        int configCount = keys != null ? keys.size() : 0;
+        int configCount = (int) redisKeyScanner.count(pattern);
         
         String typePattern = TYPE_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> typeKeys = redisTemplate.keys(typePattern);
-        int typeCount = typeKeys != null ? typeKeys.size() : 0;
+        int typeCount = (int) redisKeyScanner.count(typePattern);
         
         String groupPattern = GROUP_CACHE_PREFIX + "*:" + tenantId;
-        Set<String> groupKeys = redisTemplate.keys(groupPattern);
-        int groupCount = groupKeys != null ? groupKeys.size() : 0;
+        int groupCount = (int) redisKeyScanner.count(groupPattern);
         
         return new CacheStats(configCount, typeCount, groupCount);
     }
@@ -0,0 +1,64 @@
+package com.jiuxi.module.user.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+
+/**
+ * 导入进度DTO
+ * 导入过程中按块更新，前端可通过任务ID轮询
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportProgressDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String PHASE_READING = "READING";
+    public static final String PHASE_VALIDATING = "VALIDATING";
+    public static final String PHASE_IMPORTING = "IMPORTING";
+    public static final String PHASE_SUCCESS = "SUCCESS";
+    public static final String PHASE_FAILED = "FAILED";
+
+    /**
+     * 任务ID
+     */
+    private String taskId;
+
+    /**
+     * 当前阶段：READING/VALIDATING/IMPORTING/SUCCESS/FAILED
+     */
+    private String phase;
+
+    /**
+     * 总行数（读取阶段结束前为已读取行数）
+     */
+    private Integer totalRows;
+
+    /**
+     * 当前阶段已处理行数
+     */
+    private Integer processedRows;
+
+    /**
+     * 已发现的错误数
+     */
+    private Integer errorCount;
+
+    /**
+     * 更新时间（毫秒）
+     */
+    private Long updateTime;
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+        return PHASE_SUCCESS.equals(phase) || PHASE_FAILED.equals(phase);
+    }
+}
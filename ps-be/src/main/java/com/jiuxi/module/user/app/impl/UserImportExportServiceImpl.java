@@ -3,9 +3,7 @@ package com.jiuxi.module.user.app.impl;
 import cn.hutool.core.date.DateUtil;
 import com.jiuxi.admin.core.bean.entity.*;
 import com.jiuxi.admin.core.bean.vo.TpDeptBasicinfoVO;
-import com.jiuxi.admin.core.bean.vo.TpPersonBasicinfoVO;
 import com.jiuxi.admin.core.bean.vo.TpPersonDeptVO;
-import com.jiuxi.admin.core.bean.vo.TpPersonExinfoVO;
 import com.jiuxi.admin.core.mapper.*;
 import com.jiuxi.common.bean.TreeNode;
 import com.jiuxi.common.util.CommonDateUtil;
@@ -13,18 +11,30 @@ import com.jiuxi.common.util.SmUtils;
 import com.jiuxi.common.util.SnowflakeIdUtil;
 import com.jiuxi.module.user.app.dto.*;
 import com.jiuxi.module.user.app.service.UserImportExportService;
+import com.jiuxi.module.user.infra.persistence.mapper.UserPersonMapper;
 import com.jiuxi.shared.common.utils.ExcelUtil;
 import com.jiuxi.shared.common.utils.ValidationUtil;
+import org.apache.ibatis.cursor.Cursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 用户导入导出应用服务实现
@@ -37,6 +47,16 @@ public class UserImportExportServiceImpl implements UserImportExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserImportExportServiceImpl.class);
 
+    /**
+     * 导入进度保留时长，任务结束超过该时长的进度在下次导入时清理
+     */
+    private static final long PROGRESS_RETENTION_MILLIS = 30 * 60 * 1000L;
+
+    /**
+     * 指定人员导出时每次查询的ID数
+     */
+    private static final int EXPORT_ID_BATCH_SIZE = 1000;
+
     @Autowired
     private TpPersonBasicinfoMapper tpPersonBasicinfoMapper;
 
@@ -55,6 +75,20 @@ public class UserImportExportServiceImpl implements UserImportExportService {
     @Autowired
     private TpPersonDeptMapper tpPersonDeptMapper;
 
+    @Autowired
+    private UserPersonMapper userPersonMapper;
+
+    /**
+     * 导入时每块读取、校验、入库的行数
+     */
+    @Value("${ps.user.import.chunk-size:500}")
+    private int importChunkSize;
+
+    /**
+     * 任务ID -> 导入进度
+     */
+    private final Map<String, ImportProgressDTO> importProgressMap = new ConcurrentHashMap<>();
+
     /**
      * 导入用户数据
      * 采用全量预验证 + 单事务提交模式
@@ -62,114 +96,150 @@ public class UserImportExportServiceImpl implements UserImportExportService {
     @Override
     @Transactional(timeout = 300, rollbackFor = Exception.class)
     public ImportResultDTO importUsers(MultipartFile file, String operatorId, String tenantId, String ascnId) {
-        logger.info("开始导入用户数据，操作人：{}, 租户：{}", operatorId, tenantId);
+        return importUsers(file, operatorId, tenantId, ascnId, null);
+    }
+
+    /**
+     * 导入用户数据
+     * 采用全量预验证 + 单事务提交模式，文件落盘后按SAX事件模型分块流式读取三遍：
+     * 统计行数及账号出现次数 -> 分块预校验 -> 分块批量入库，内存中只保留当前块和去重后的校验键
+     */
+    @Override
+    @Transactional(timeout = 300, rollbackFor = Exception.class)
+    public ImportResultDTO importUsers(MultipartFile file, String operatorId, String tenantId, String ascnId, String taskId) {
+        logger.info("开始导入用户数据，操作人：{}, 租户：{}, 任务：{}", operatorId, tenantId, taskId);
 
+        evictExpiredProgress();
+        ImportContext context = new ImportContext();
+        reportProgress(taskId, ImportProgressDTO.PHASE_READING, context);
+
+        File tempFile = null;
         try {
-            // 阶段1：读取并解析Excel文件
-            List<UserImportDTO> importDataList = ExcelUtil.parseImportExcel(file.getInputStream());
-            
-            if (importDataList == null || importDataList.isEmpty()) {
+            // 阶段1：读取Excel文件，统计行数及每个账号出现的次数
+            tempFile = File.createTempFile("user-import-", ".xlsx");
+            try (InputStream inputStream = file.getInputStream()) {
+                Files.copy(inputStream, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            int totalRows = ExcelUtil.readImportExcel(tempFile, importChunkSize, chunk -> {
+                for (UserImportDTO dto : chunk) {
+                    context.usernameCountMap.merge(dto.getUsername().trim(), 1, Integer::sum);
+                }
+                context.totalRows += chunk.size();
+                reportProgress(taskId, ImportProgressDTO.PHASE_READING, context);
+            });
+
+            if (totalRows == 0) {
+                reportProgress(taskId, ImportProgressDTO.PHASE_FAILED, context);
                 return ImportResultDTO.failure(0, Collections.singletonList(
                     new ImportErrorDTO(null, null, null, "Excel文件无有效数据")
                 ));
             }
 
-            int totalRows = importDataList.size();
             logger.info("成功解析Excel文件，共{}行数据", totalRows);
 
-            // 阶段2：全量预校验（不写库）
-            ImportResultDTO validationResult = validateAllData(importDataList, tenantId);
-            if (!validationResult.getSuccess()) {
-                logger.warn("数据校验失败，发现{}个错误", validationResult.getErrors().size());
-                return validationResult;
+            // 阶段2：分块预校验（不写库）
+            reportProgress(taskId, ImportProgressDTO.PHASE_VALIDATING, context);
+            ExcelUtil.readImportExcel(tempFile, importChunkSize, chunk -> {
+                validateChunk(chunk, context);
+                context.processedRows += chunk.size();
+                reportProgress(taskId, ImportProgressDTO.PHASE_VALIDATING, context);
+            });
+            if (!context.errors.isEmpty()) {
+                logger.warn("数据校验失败，发现{}个错误", context.errors.size());
+                reportProgress(taskId, ImportProgressDTO.PHASE_FAILED, context);
+                return ImportResultDTO.failure(totalRows, context.errors);
             }
 
-            // 阶段3：数据入库
-            importDataToDB(importDataList, operatorId, tenantId, ascnId);
+            // 阶段3：分块入库
+            String now = CommonDateUtil.now();
+            context.processedRows = 0;
+            reportProgress(taskId, ImportProgressDTO.PHASE_IMPORTING, context);
+            ExcelUtil.readImportExcel(tempFile, importChunkSize, chunk -> {
+                importChunk(chunk, operatorId, tenantId, ascnId, now, context);
+                context.processedRows += chunk.size();
+                reportProgress(taskId, ImportProgressDTO.PHASE_IMPORTING, context);
+            });
 
             logger.info("用户数据导入成功，共导入{}条记录", totalRows);
+            reportProgressAfterCompletion(taskId, context);
             return ImportResultDTO.success(totalRows);
 
         } catch (Exception e) {
+            reportProgress(taskId, ImportProgressDTO.PHASE_FAILED, context);
             logger.error("用户数据导入失败", e);
             throw new RuntimeException("用户数据导入失败：" + e.getMessage(), e);
+        } finally {
+            if (tempFile != null && !tempFile.delete()) {
+                logger.warn("导入临时文件删除失败：{}", tempFile.getAbsolutePath());
+            }
         }
     }
 
+    @Override
+    public ImportProgressDTO getImportProgress(String taskId) {
+        return taskId == null ? null : importProgressMap.get(taskId);
+    }
+
     /**
-     * 阶段2：全量数据预校验
+     * 阶段2：分块预校验
+     * 先做格式校验，再把本块涉及的部门、账号、身份证、已有部门关系各用一次 IN 查询取回，逐行校验只查内存
      */
-    private ImportResultDTO validateAllData(List<UserImportDTO> dataList, String tenantId) {
-        List<ImportErrorDTO> errors = new ArrayList<>();
-
-        // 用于缓存校验过程中的查询结果
-        Map<String, String> deptPathToDeptIdMap = new HashMap<>();
-        Set<String> existingUsernames = new HashSet<>();
-        Set<String> existingIdcards = new HashSet<>();
-        Map<String, List<String>> userDeptMap = new HashMap<>(); // 账号 -> 部门ID列表（用于兼职重复检查）
-        Map<String, Integer> usernameCountMap = new HashMap<>(); // 统计每个账号在导入数据中出现的次数
-
-        // 第一遍：统计账号出现次数
-        for (UserImportDTO dto : dataList) {
-            String username = dto.getUsername() != null ? dto.getUsername().trim() : "";
-            usernameCountMap.put(username, usernameCountMap.getOrDefault(username, 0) + 1);
-        }
-
-        for (UserImportDTO dto : dataList) {
-            // 基础格式校验
-            validateBasicFormat(dto, errors);
-            
-            if (errors.stream().anyMatch(e -> e.getRow().equals(dto.getRowNumber()))) {
-                // 如果已有错误，跳过后续业务校验
-                continue;
+    private void validateChunk(List<UserImportDTO> chunk, ImportContext context) {
+        List<UserImportDTO> formatPassed = new ArrayList<>(chunk.size());
+        for (UserImportDTO dto : chunk) {
+            // 基础格式校验，有错误的行跳过后续业务校验
+            if (validateBasicFormat(dto, context.errors)) {
+                formatPassed.add(dto);
             }
+        }
+        if (formatPassed.isEmpty()) {
+            return;
+        }
+
+        prefetchDepts(formatPassed, context.deptPathToDeptIdMap);
+        Map<String, TpAccount> existingAccounts = selectExistingAccounts(formatPassed, Collections.emptyMap());
+        Set<String> existingIdcards = selectExistingIdcards(formatPassed);
+        Map<String, Set<String>> existingPersonDepts = selectPersonDepts(existingAccounts.values());
 
+        for (UserImportDTO dto : formatPassed) {
             // 部门路径校验
-            String deptId = validateDeptPath(dto, tenantId, deptPathToDeptIdMap, errors);
-            
-            // 账号唯一性校验
-            validateUsernameUniqueness(dto, tenantId, existingUsernames, errors);
-            
+            String deptId = validateDeptPath(dto, context.deptPathToDeptIdMap, context.errors);
+
             // 判断是否为兼职场景
             String username = dto.getUsername().trim();
-            boolean isPartTime = false;
-            
-            // 场景1：账号在本次导入中出现多次（兼职）
-            if (usernameCountMap.getOrDefault(username, 0) > 1) {
-                isPartTime = true;
+            TpAccount existingAccount = existingAccounts.get(username);
+            if (existingAccount != null) {
+                // 账号已存在，标记为兼职导入（不报错，后续作为兼职处理）
+                logger.debug("账号{}已存在，将作为兼职部门导入", username);
             }
-            
+
+            // 场景1：账号在本次导入中出现多次（兼职）
             // 场景2：账号在数据库中已存在（兼职）
-            if (!isPartTime) {
-                TpAccount existingAccount = tpAccountMapper.selectByUsername(username);
-                if (existingAccount != null && (existingAccount.getActived() == null || existingAccount.getActived() == 1)) {
-                    isPartTime = true;
-                }
-            }
-            
+            boolean isPartTime = context.usernameCountMap.getOrDefault(username, 0) > 1 || existingAccount != null;
+
             // 身份证唯一性校验（兼职时跳过）
             if (!isPartTime) {
-                validateIdcardUniqueness(dto, existingIdcards, errors);
+                validateIdcardUniqueness(dto, context.idcards, existingIdcards, context.errors);
             }
-            
+
             // 兼职重复性校验
             if (deptId != null && ValidationUtil.isNotEmpty(dto.getUsername())) {
-                validatePartTimeDuplication(dto, deptId, userDeptMap, errors);
+                Set<String> existingDeptIds = existingAccount != null
+                    ? existingPersonDepts.getOrDefault(existingAccount.getPersonId(), Collections.emptySet())
+                    : Collections.emptySet();
+                validatePartTimeDuplication(dto, deptId, context.userDeptMap, existingDeptIds, context.errors);
             }
         }
-
-        if (errors.isEmpty()) {
-            return ImportResultDTO.success(dataList.size());
-        } else {
-            return ImportResultDTO.failure(dataList.size(), errors);
-        }
     }
 
     /**
      * 基础格式校验
+     *
+     * @return 是否通过
      */
-    private void validateBasicFormat(UserImportDTO dto, List<ImportErrorDTO> errors) {
+    private boolean validateBasicFormat(UserImportDTO dto, List<ImportErrorDTO> errors) {
         Integer row = dto.getRowNumber();
+        int errorCount = errors.size();
 
         // 必填字段校验
         String error = ValidationUtil.validateUsername(dto.getUsername());
@@ -217,6 +287,40 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         if (error != null) {
             errors.add(new ImportErrorDTO(row, "职称", dto.getTitleName(), error));
         }
+
+        return errors.size() == errorCount;
+    }
+
+    /**
+     * 批量查询本块中尚未缓存的部门路径，结果（含不存在的路径）写入缓存
+     * 与逐条查询一致，部门全称或简称命中其一即可，全称优先
+     */
+    private void prefetchDepts(List<UserImportDTO> rows, Map<String, String> cacheMap) {
+        Set<String> deptPaths = new LinkedHashSet<>();
+        for (UserImportDTO dto : rows) {
+            String deptPath = dto.getDeptPath().trim();
+            if (!cacheMap.containsKey(deptPath)) {
+                deptPaths.add(deptPath);
+            }
+        }
+        if (deptPaths.isEmpty()) {
+            return;
+        }
+
+        Map<String, String> byFullName = new HashMap<>();
+        Map<String, String> bySimpleName = new HashMap<>();
+        for (TpDeptBasicinfoVO dept : tpDeptBasicinfoMapper.selectDeptsByNames(deptPaths)) {
+            if (dept.getDeptFullName() != null) {
+                byFullName.putIfAbsent(dept.getDeptFullName(), dept.getDeptId());
+            }
+            if (dept.getDeptSimpleName() != null) {
+                bySimpleName.putIfAbsent(dept.getDeptSimpleName(), dept.getDeptId());
+            }
+        }
+        for (String deptPath : deptPaths) {
+            String deptId = byFullName.get(deptPath);
+            cacheMap.put(deptPath, deptId != null ? deptId : bySimpleName.get(deptPath));
+        }
     }
 
     /**
@@ -224,66 +328,89 @@ public class UserImportExportServiceImpl implements UserImportExportService {
      * 
      * @return 部门ID（校验通过时）
      */
-    private String validateDeptPath(UserImportDTO dto, String tenantId, 
-                                    Map<String, String> cacheMap, List<ImportErrorDTO> errors) {
+    private String validateDeptPath(UserImportDTO dto, Map<String, String> cacheMap, List<ImportErrorDTO> errors) {
         String deptPath = dto.getDeptPath().trim();
-        Integer row = dto.getRowNumber();
-
-        // 先从缓存查找
-        if (cacheMap.containsKey(deptPath)) {
-            return cacheMap.get(deptPath);
+        String deptId = cacheMap.get(deptPath);
+        if (deptId == null) {
+            errors.add(new ImportErrorDTO(dto.getRowNumber(), "部门", deptPath, "部门路径不存在"));
         }
+        return deptId;
+    }
 
-        // 数据库查询
-        TpDeptBasicinfoVO dept = tpDeptBasicinfoMapper.selectDeptByName(deptPath);
-        
-        if (dept == null) {
-            errors.add(new ImportErrorDTO(row, "部门", deptPath, "部门路径不存在"));
-            return null;
+    /**
+     * 批量查询本块中在系统内已存在的有效账号
+     *
+     * @param excluded 无需查询的账号（本次导入已新建）
+     * @return 账号名 -> 账号
+     */
+    private Map<String, TpAccount> selectExistingAccounts(List<UserImportDTO> rows, Map<String, ?> excluded) {
+        Set<String> usernames = new LinkedHashSet<>();
+        for (UserImportDTO dto : rows) {
+            String username = dto.getUsername().trim();
+            if (!excluded.containsKey(username)) {
+                usernames.add(username);
+            }
         }
-
-        // 检查部门是否已停用（允许actived为空，视为有效）
-        if (dept.getActived() != null && dept.getActived() != 1) {
-            errors.add(new ImportErrorDTO(row, "部门", deptPath, "部门已停用"));
-            return null;
+        if (usernames.isEmpty()) {
+            return Collections.emptyMap();
         }
 
-        // 加入缓存
-        cacheMap.put(deptPath, dept.getDeptId());
-        return dept.getDeptId();
+        Map<String, TpAccount> accounts = new HashMap<>();
+        for (TpAccount account : tpAccountMapper.selectByUsernames(usernames)) {
+            accounts.putIfAbsent(account.getUsername(), account);
+        }
+        return accounts;
     }
 
     /**
-     * 账号唯一性校验
-     * 注意：允许同一账号在本次导入中多次出现（处理为兼职）
-     * - 如果系统中已存在，则本次导入的所有记录都作为兼职部门
-     * - 如果系统中不存在，第一次出现作为主部门，其余作为兼职部门
+     * 批量查询本块中已被有效人员占用的身份证号码（统一转大写）
      */
-    private void validateUsernameUniqueness(UserImportDTO dto, String tenantId,
-                                            Set<String> cache, List<ImportErrorDTO> errors) {
-        String username = dto.getUsername().trim();
-        Integer row = dto.getRowNumber();
+    private Set<String> selectExistingIdcards(List<UserImportDTO> rows) {
+        Set<String> idcards = new LinkedHashSet<>();
+        for (UserImportDTO dto : rows) {
+            if (ValidationUtil.isNotEmpty(dto.getIdcard())) {
+                idcards.add(dto.getIdcard().trim().toUpperCase());
+            }
+        }
+        if (idcards.isEmpty()) {
+            return Collections.emptySet();
+        }
 
-        // 注释原有的重复检查逻辑，允许账号名在本次导入中重复（用于兼职场景）
-        // if (cache.contains(username)) {
-        //     errors.add(new ImportErrorDTO(row, "账号名", username, "账号名在本次导入中重复"));
-        //     return;
-        // }
+        Set<String> existing = new HashSet<>();
+        for (String idcard : tpPersonBasicinfoMapper.selectActivedIdcards(idcards)) {
+            if (idcard != null) {
+                existing.add(idcard.trim().toUpperCase());
+            }
+        }
+        return existing;
+    }
 
-        // 检查数据库中是否已存在
-        TpAccount existingAccount = tpAccountMapper.selectByUsername(username);
-        if (existingAccount != null && (existingAccount.getActived() == null || existingAccount.getActived() == 1)) {
-            // 账号已存在，标记为兼职导入（不报错，后续作为兼职处理）
-            logger.debug("账号{}已存在，将作为兼职部门导入", username);
+    /**
+     * 批量查询已有账号所在的部门
+     *
+     * @return 人员ID -> 部门ID集合
+     */
+    private Map<String, Set<String>> selectPersonDepts(Collection<TpAccount> accounts) {
+        if (accounts.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<String> personIds = new HashSet<>();
+        for (TpAccount account : accounts) {
+            personIds.add(account.getPersonId());
         }
 
-        cache.add(username);
+        Map<String, Set<String>> personDepts = new HashMap<>();
+        for (TpPersonDeptVO pd : tpPersonDeptMapper.selectByPersonIds(personIds)) {
+            personDepts.computeIfAbsent(pd.getPersonId(), k -> new HashSet<>()).add(pd.getDeptId());
+        }
+        return personDepts;
     }
 
     /**
      * 身份证唯一性校验
      */
-    private void validateIdcardUniqueness(UserImportDTO dto, Set<String> cache, List<ImportErrorDTO> errors) {
+    private void validateIdcardUniqueness(UserImportDTO dto, Set<String> cache, Set<String> existingIdcards,
+                                          List<ImportErrorDTO> errors) {
         if (ValidationUtil.isEmpty(dto.getIdcard())) {
             return; // 身份证非必填
         }
@@ -298,8 +425,7 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         }
 
         // 检查数据库中是否已存在
-        TpPersonBasicinfo existingPerson = tpPersonBasicinfoMapper.selectByIdCard(idcard);
-        if (existingPerson != null && existingPerson.getActived() == 1) {
+        if (existingIdcards.contains(idcard)) {
             errors.add(new ImportErrorDTO(row, "身份证号码", idcard, "身份证号码已存在"));
             return;
         }
@@ -309,13 +435,15 @@ public class UserImportExportServiceImpl implements UserImportExportService {
 
     /**
      * 兼职重复性校验
+     *
+     * @param existingDeptIds 账号在系统中已有的部门（新账号为空）
      */
-    private void validatePartTimeDuplication(UserImportDTO dto, String deptId,
-                                            Map<String, List<String>> userDeptMap, List<ImportErrorDTO> errors) {
+    private void validatePartTimeDuplication(UserImportDTO dto, String deptId, Map<String, Set<String>> userDeptMap,
+                                             Set<String> existingDeptIds, List<ImportErrorDTO> errors) {
         String username = dto.getUsername().trim();
         Integer row = dto.getRowNumber();
 
-        List<String> deptIds = userDeptMap.computeIfAbsent(username, k -> new ArrayList<>());
+        Set<String> deptIds = userDeptMap.computeIfAbsent(username, k -> new HashSet<>());
 
         // 检查是否在同一部门重复
         if (deptIds.contains(deptId)) {
@@ -325,67 +453,74 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         }
 
         // 如果账号已存在，检查是否与已有部门重复
-        TpAccount existingAccount = tpAccountMapper.selectByUsername(username);
-        if (existingAccount != null && (existingAccount.getActived() == null || existingAccount.getActived() == 1)) {
-            // 查询该账号已有的所有部门
-            List<TpPersonDeptVO> existingDepts = tpPersonDeptMapper.select(null, existingAccount.getPersonId(), null);
-            for (TpPersonDeptVO pd : existingDepts) {
-                if (pd.getDeptId().equals(deptId)) {
-                    errors.add(new ImportErrorDTO(row, "部门", dto.getDeptPath(), 
-                        "账号[" + username + "]已在部门[" + dto.getDeptPath() + "]中"));
-                    return;
-                }
-            }
+        if (existingDeptIds.contains(deptId)) {
+            errors.add(new ImportErrorDTO(row, "部门", dto.getDeptPath(), 
+                "账号[" + username + "]已在部门[" + dto.getDeptPath() + "]中"));
+            return;
         }
 
         deptIds.add(deptId);
     }
 
     /**
-     * 阶段3：数据入库
+     * 阶段3：分块入库
+     * 账号第一次出现时创建人员、账号及主部门关系，再次出现或系统中已存在的账号只添加兼职部门；
+     * 本块数据按表各用一条多值 INSERT 写入
      */
-    private void importDataToDB(List<UserImportDTO> dataList, String operatorId, String tenantId, String ascnId) {
-        String now = CommonDateUtil.now();
-
-        // 按账号分组（同一账号的多条数据表示兼职）
-        Map<String, List<UserImportDTO>> userGroups = dataList.stream()
-            .collect(Collectors.groupingBy(dto -> dto.getUsername().trim()));
-
-        for (Map.Entry<String, List<UserImportDTO>> entry : userGroups.entrySet()) {
-            String username = entry.getKey();
-            List<UserImportDTO> userDataList = entry.getValue();
-
-            // 检查账号是否已存在
-            TpAccount existingAccount = tpAccountMapper.selectByUsername(username);
-            
-            if (existingAccount == null) {
-                // 新用户：创建人员、账号、部门关系
-                createNewUser(userDataList, operatorId, tenantId, ascnId, now);
-            } else {
-                // 已有用户：仅添加兼职部门
-                addPartTimeDepts(existingAccount.getPersonId(), userDataList, now);
+    private void importChunk(List<UserImportDTO> chunk, String operatorId, String tenantId, String ascnId,
+                             String now, ImportContext context) {
+        Map<String, TpAccount> existingAccounts = selectExistingAccounts(chunk, context.createdPersonIds);
+
+        List<TpPersonBasicinfo> persons = new ArrayList<>();
+        List<TpPersonExinfo> exinfos = new ArrayList<>();
+        List<TpAccount> accounts = new ArrayList<>();
+        List<TpPersonDept> personDepts = new ArrayList<>(chunk.size());
+
+        for (UserImportDTO dto : chunk) {
+            String username = dto.getUsername().trim();
+            String deptId = context.deptPathToDeptIdMap.get(dto.getDeptPath().trim());
+
+            String personId = context.createdPersonIds.get(username);
+            if (personId == null && existingAccounts.containsKey(username)) {
+                personId = existingAccounts.get(username).getPersonId();
+            }
+            if (personId != null) {
+                // 已有用户或本次已创建的用户：仅添加兼职部门
+                personDepts.add(buildPersonDept(personId, deptId, 0));
+                continue;
             }
+
+            // 新用户：创建人员、账号，第一次出现的部门为主部门
+            personId = SnowflakeIdUtil.nextIdStr();
+            persons.add(buildPerson(dto, personId, operatorId, tenantId, ascnId, now));
+            exinfos.add(buildExinfo(dto, personId, tenantId));
+            accounts.add(buildAccount(dto, personId, tenantId, now));
+            personDepts.add(buildPersonDept(personId, deptId, 1));
+            context.createdPersonIds.put(username, personId);
+        }
+
+        if (!persons.isEmpty()) {
+            tpPersonBasicinfoMapper.batchInsert(persons);
+            tpPersonExinfoMapper.batchInsert(exinfos);
+            tpAccountMapper.batchInsert(accounts);
         }
+        tpPersonDeptMapper.batchInsert(personDepts);
+
+        logger.debug("导入数据块入库完成：{}行，新建用户{}个，兼职部门{}个",
+            chunk.size(), persons.size(), personDepts.size() - persons.size());
     }
 
     /**
-     * 创建新用户
+     * 创建人员基本信息
      */
-    private void createNewUser(List<UserImportDTO> userDataList, String operatorId, 
-                               String tenantId, String ascnId, String now) {
-        // 使用第一条数据的信息创建人员和账号
-        UserImportDTO firstData = userDataList.get(0);
-        
-        String personId = SnowflakeIdUtil.nextIdStr();
-        String accountId = SnowflakeIdUtil.nextIdStr();
-
-        // 1. 创建人员基本信息
+    private TpPersonBasicinfo buildPerson(UserImportDTO dto, String personId, String operatorId,
+                                          String tenantId, String ascnId, String now) {
         TpPersonBasicinfo person = new TpPersonBasicinfo();
         person.setPersonId(personId);
-        person.setPersonName(firstData.getPersonName().trim());
-        person.setSex(parseSex(firstData.getSex()));
-        person.setIdcard(ValidationUtil.isNotEmpty(firstData.getIdcard()) ? firstData.getIdcard().trim() : null);
-        person.setOffice(ValidationUtil.isNotEmpty(firstData.getRank()) ? firstData.getRank().trim() : null);
+        person.setPersonName(dto.getPersonName().trim());
+        person.setSex(parseSex(dto.getSex()));
+        person.setIdcard(ValidationUtil.isNotEmpty(dto.getIdcard()) ? dto.getIdcard().trim() : null);
+        person.setOffice(ValidationUtil.isNotEmpty(dto.getRank()) ? dto.getRank().trim() : null);
         person.setAscnId(ascnId);
         person.setActived(1);
         person.setCategory(0); // 默认政府人员
@@ -394,26 +529,32 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         person.setUpdator(operatorId);
         person.setUpdateTime(now);
         person.setTenantId(tenantId);
+        return person;
+    }
 
-        tpPersonBasicinfoMapper.save(person);
-
-        // 2. 创建人员扩展信息
+    /**
+     * 创建人员扩展信息
+     */
+    private TpPersonExinfo buildExinfo(UserImportDTO dto, String personId, String tenantId) {
         TpPersonExinfo exinfo = new TpPersonExinfo();
         exinfo.setPersonId(personId);
         // 将 YYYY-MM-DD 格式转换为 YYYYMMDD 格式存储
-        exinfo.setPartWorkDate(ValidationUtil.formatDateToYYYYMMDD(firstData.getPartWorkDate()));
+        exinfo.setPartWorkDate(ValidationUtil.formatDateToYYYYMMDD(dto.getPartWorkDate()));
         // 新字段：职务职级、职称
-        exinfo.setZwzj(ValidationUtil.isNotEmpty(firstData.getZwzj()) ? firstData.getZwzj().trim() : null);
-        exinfo.setZhicheng(ValidationUtil.isNotEmpty(firstData.getZhicheng()) ? firstData.getZhicheng().trim() : null);
+        exinfo.setZwzj(ValidationUtil.isNotEmpty(dto.getZwzj()) ? dto.getZwzj().trim() : null);
+        exinfo.setZhicheng(ValidationUtil.isNotEmpty(dto.getZhicheng()) ? dto.getZhicheng().trim() : null);
         exinfo.setTenantId(tenantId);
-        
-        tpPersonExinfoMapper.save(exinfo);
+        return exinfo;
+    }
 
-        // 3. 创建账号
+    /**
+     * 创建账号
+     */
+    private TpAccount buildAccount(UserImportDTO dto, String personId, String tenantId, String now) {
         TpAccount account = new TpAccount();
-        account.setAccountId(accountId);
-        account.setUsername(firstData.getUsername().trim());
-        account.setUserpwd(SmUtils.digestHexSM3(firstData.getPassword().trim())); // SM3加密
+        account.setAccountId(SnowflakeIdUtil.nextIdStr());
+        account.setUsername(dto.getUsername().trim());
+        account.setUserpwd(SmUtils.digestHexSM3(dto.getPassword().trim())); // SM3加密
         account.setPersonId(personId);
         account.setLocked(0); // 未冻结
         account.setEnabled(1); // 启用
@@ -423,49 +564,58 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         account.setTenantId(tenantId);
         // 设置密码修改时间为导入时间，避免密码过期检查失败
         account.setLastPasswordChangeTime(now);
+        return account;
+    }
 
-        tpAccountMapper.insert(account);
-
-        // 4. 创建人员部门关系（第一个为主部门，其余为兼职部门）
-        for (int i = 0; i < userDataList.size(); i++) {
-            UserImportDTO dto = userDataList.get(i);
-            String deptId = getDeptIdByPath(dto.getDeptPath().trim());
-
-            TpPersonDept personDept = new TpPersonDept();
-            personDept.setPersonId(personId);
-            personDept.setDeptId(deptId);
-            personDept.setDefaultDept(i == 0 ? 1 : 0); // 第一个为主部门
+    /**
+     * 创建人员部门关系
+     */
+    private TpPersonDept buildPersonDept(String personId, String deptId, int defaultDept) {
+        TpPersonDept personDept = new TpPersonDept();
+        personDept.setPersonId(personId);
+        personDept.setDeptId(deptId);
+        personDept.setDefaultDept(defaultDept);
+        return personDept;
+    }
 
-            tpPersonDeptMapper.save(personDept);
+    /**
+     * 更新导入进度（未指定任务ID时不记录）
+     * 每次写入新的快照对象，轮询方读到的总是完整的一组数据
+     */
+    private void reportProgress(String taskId, String phase, ImportContext context) {
+        if (taskId == null) {
+            return;
         }
-
-        logger.debug("成功创建新用户：{}", firstData.getUsername());
+        importProgressMap.put(taskId, new ImportProgressDTO(taskId, phase, context.totalRows,
+            context.processedRows, context.errors.size(), System.currentTimeMillis()));
     }
 
     /**
-     * 为已有用户添加兼职部门
+     * 入库完成后，按事务最终提交结果更新导入进度
      */
-    private void addPartTimeDepts(String personId, List<UserImportDTO> userDataList, String now) {
-        for (UserImportDTO dto : userDataList) {
-            String deptId = getDeptIdByPath(dto.getDeptPath().trim());
-
-            TpPersonDept personDept = new TpPersonDept();
-            personDept.setPersonId(personId);
-            personDept.setDeptId(deptId);
-            personDept.setDefaultDept(0); // 所有导入的都是兼职部门
-
-            tpPersonDeptMapper.save(personDept);
+    private void reportProgressAfterCompletion(String taskId, ImportContext context) {
+        if (taskId == null) {
+            return;
         }
-
-        logger.debug("为用户{}添加{}个兼职部门", personId, userDataList.size());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            reportProgress(taskId, ImportProgressDTO.PHASE_SUCCESS, context);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                reportProgress(taskId, status == STATUS_COMMITTED
+                    ? ImportProgressDTO.PHASE_SUCCESS : ImportProgressDTO.PHASE_FAILED, context);
+            }
+        });
     }
 
     /**
-     * 根据部门路径获取部门ID
+     * 清理已结束且超过保留时长的导入进度
      */
-    private String getDeptIdByPath(String deptPath) {
-        TpDeptBasicinfoVO dept = tpDeptBasicinfoMapper.selectDeptByName(deptPath);
-        return dept != null ? dept.getDeptId() : null;
+    private void evictExpiredProgress() {
+        long expireBefore = System.currentTimeMillis() - PROGRESS_RETENTION_MILLIS;
+        importProgressMap.values().removeIf(progress -> progress.isFinished() && progress.getUpdateTime() < expireBefore);
     }
 
     /**
@@ -485,128 +635,99 @@ public class UserImportExportServiceImpl implements UserImportExportService {
         }
     }
 
+    /**
+     * 导出用户数据
+     * 以游标逐行读取并直接写入SXSSF工作簿，不在内存中汇总全部用户；
+     * 指定人员时按每批1000个ID依次打开游标
+     */
     @Override
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
     public void exportUsers(String deptId, String deptLevelcode, List<String> selectedUserIds, 
                            String tenantId, OutputStream outputStream) throws Exception {
         logger.info("开始导出用户数据 - 部门ID：{}, 层级码：{}", deptId, deptLevelcode);
 
-        // 查询用户数据
-        List<UserExportDTO> exportDataList = queryUsersForExport(deptId, deptLevelcode, selectedUserIds, tenantId);
-        
-        if (exportDataList.isEmpty()) {
-            logger.warn("没有可导出的用户数据");
-            throw new RuntimeException("没有可导出的用户数据");
+        List<List<String>> batches = new ArrayList<>();
+        if (selectedUserIds != null && !selectedUserIds.isEmpty()) {
+            List<String> personIds = new ArrayList<>(new LinkedHashSet<>(selectedUserIds));
+            for (int i = 0; i < personIds.size(); i += EXPORT_ID_BATCH_SIZE) {
+                batches.add(personIds.subList(i, Math.min(i + EXPORT_ID_BATCH_SIZE, personIds.size())));
+            }
+        } else {
+            batches.add(null);
         }
 
-        logger.info("查询到{}条用户数据，开始写入Excel", exportDataList.size());
-        
-        // 写入Excel文件
-        ExcelUtil.writeExportExcel(exportDataList, outputStream);
-        
-        logger.info("用户数据导出成功");
+        try (ExportRowIterator rows = new ExportRowIterator(batches,
+                personIds -> userPersonMapper.selectExportCursor(deptId, deptLevelcode, personIds))) {
+            if (!rows.hasNext()) {
+                logger.warn("没有可导出的用户数据");
+                throw new RuntimeException("没有可导出的用户数据");
+            }
+
+            // 边读边写入Excel文件
+            int count = ExcelUtil.writeExportExcel(() -> rows, outputStream);
+
+            logger.info("用户数据导出成功，共{}条", count);
+        }
     }
 
     /**
-     * 查询待导出的用户数据
+     * 依次遍历各批次游标的导出行，当前游标读完后关闭并打开下一批
      */
-    private List<UserExportDTO> queryUsersForExport(String deptId, String deptLevelcode, 
-                                                     List<String> selectedUserIds, String tenantId) {
-        List<UserExportDTO> resultList = new ArrayList<>();
-        
-        try {
-            List<TpPersonBasicinfoVO> personList = new ArrayList<>();
-            
-            // 1. 如果selectedUserIds不为空，按ID查询指定用户
-            if (selectedUserIds != null && !selectedUserIds.isEmpty()) {
-                for (String userId : selectedUserIds) {
-                    TpPersonBasicinfoVO person = tpPersonBasicinfoMapper.view(userId);
-                    if (person != null && person.getActived() == 1) {
-                        personList.add(person);
-                    }
+    private static class ExportRowIterator implements Iterator<UserExportDTO>, Closeable {
+
+        private final Iterator<List<String>> batches;
+
+        private final Function<List<String>, Cursor<UserExportDTO>> cursorOpener;
+
+        private Cursor<UserExportDTO> cursor;
+
+        private Iterator<UserExportDTO> current = Collections.emptyIterator();
+
+        ExportRowIterator(List<List<String>> batches, Function<List<String>, Cursor<UserExportDTO>> cursorOpener) {
+            this.batches = batches.iterator();
+            this.cursorOpener = cursorOpener;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext()) {
+                closeCursor();
+                if (!batches.hasNext()) {
+                    return false;
                 }
-            } else {
-                // 2. 查询部门及子部门的所有用户
-                // 构造查询条件
-                com.jiuxi.admin.core.bean.query.TpPersonBasicQuery query = 
-                    new com.jiuxi.admin.core.bean.query.TpPersonBasicQuery();
-                query.setDeptId(deptId);
-                query.setDeptLevelcode(deptLevelcode);
-                query.setCurrent(1);
-                query.setSize(Integer.MAX_VALUE);
-                
-                // 查询分页数据
-                com.baomidou.mybatisplus.core.metadata.IPage<TpPersonBasicinfoVO> page = 
-                    tpPersonBasicinfoMapper.getPage(
-                        new com.baomidou.mybatisplus.extension.plugins.pagination.Page<>(1, Integer.MAX_VALUE),
-                        query
-                    );
-                personList = page.getRecords();
+                cursor = cursorOpener.apply(batches.next());
+                current = cursor.iterator();
             }
-            
-            // 3. 转换为UserExportDTO
-            for (TpPersonBasicinfoVO person : personList) {
-                UserExportDTO dto = new UserExportDTO();
-                
-                // 基本信息
-                dto.setPersonName(person.getPersonName());
-                dto.setSexName(convertSexToName(person.getSex()));
-                dto.setIdcard(person.getIdcard());
-                
-                // 查询账号信息
-                TpAccount account = tpAccountMapper.selectByPersonId(person.getPersonId());
-                if (account != null) {
-                    dto.setUsername(account.getUsername());
-                }
-                
-                // 查询部门信息：查询用户的主部门（DEFAULT_DEPT=1）
-                List<TpPersonDeptVO> personDepts = tpPersonDeptMapper.select(null, person.getPersonId(), 1);
-                if (personDepts != null && !personDepts.isEmpty()) {
-                    // 获取主部门ID
-                    String personDeptId = personDepts.get(0).getDeptId();
-                    TpDeptBasicinfoVO dept = tpDeptBasicinfoMapper.selectDeptById(personDeptId);
-                    if (dept != null) {
-                        // 直接使用DEPT_FULL_NAME
-                        dto.setDeptFullPath(dept.getDeptFullName());
-                    }
-                }
-                
-                // 查询扩展信息
-                TpPersonExinfoVO exinfo = tpPersonExinfoMapper.view(person.getPersonId());
-                if (exinfo != null) {
-                    // 将 YYYYMMDD 格式转换为 YYYY-MM-DD 格式导出
-                    dto.setPartWorkDate(ValidationUtil.formatDateToYYYYMMDD_Hyphen(exinfo.getPartWorkDate()));
-                    
-                    // 新字段：职务职级、职称
-                    dto.setZwzj(exinfo.getZwzj());
-                    dto.setZhicheng(exinfo.getZhicheng());
-                }
-                
-                resultList.add(dto);
+            return true;
+        }
+
+        @Override
+        public UserExportDTO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            
-            logger.info("查询用户数据完成，共{}条", resultList.size());
-            return resultList;
-            
-        } catch (Exception e) {
-            logger.error("查询用户数据失败", e);
-            throw new RuntimeException("查询用户数据失败：" + e.getMessage(), e);
+            UserExportDTO dto = current.next();
+            // 将 YYYYMMDD 格式转换为 YYYY-MM-DD 格式导出
+            dto.setPartWorkDate(ValidationUtil.formatDateToYYYYMMDD_Hyphen(dto.getPartWorkDate()));
+            return dto;
         }
-    }
-    
-    /**
-     * 性别数字转文本
-     */
-    private String convertSexToName(Integer sex) {
-        if (sex == null) {
-            return "";
-        }
-        switch (sex) {
-            case 1:
-                return "男";
-            case 2:
-                return "女";
-            default:
-                return "";
+
+        @Override
+        public void close() {
+            current = Collections.emptyIterator();
+            closeCursor();
+        }
+
+        private void closeCursor() {
+            if (cursor == null) {
+                return;
+            }
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                logger.warn("关闭导出游标失败：{}", e.getMessage());
+            }
+            cursor = null;
         }
     }
 
@@ -639,4 +760,41 @@ public class UserImportExportServiceImpl implements UserImportExportService {
             return null;
         }
     }
+
+    /**
+     * 单次导入跨块共享的状态，只保存去重后的账号、身份证、部门等校验键，不保存行数据
+     */
+    private static class ImportContext {
+
+        private final List<ImportErrorDTO> errors = new ArrayList<>();
+
+        /**
+         * 每个账号在导入数据中出现的次数
+         */
+        private final Map<String, Integer> usernameCountMap = new HashMap<>();
+
+        /**
+         * 部门路径 -> 部门ID（部门不存在时为null）
+         */
+        private final Map<String, String> deptPathToDeptIdMap = new HashMap<>();
+
+        /**
+         * 本次导入中已出现的身份证号码
+         */
+        private final Set<String> idcards = new HashSet<>();
+
+        /**
+         * 账号 -> 部门ID集合（用于兼职重复检查）
+         */
+        private final Map<String, Set<String>> userDeptMap = new HashMap<>();
+
+        /**
+         * 本次导入新建的账号 -> 人员ID
+         */
+        private final Map<String, String> createdPersonIds = new HashMap<>();
+
+        private int totalRows;
+
+        private int processedRows;
+    }
 }
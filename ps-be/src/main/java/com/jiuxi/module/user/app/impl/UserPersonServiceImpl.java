@@ -35,6 +35,7 @@ import com.jiuxi.module.user.app.service.UserAccountService;
 import com.jiuxi.admin.core.service.TpAttachinfoService;
 import com.jiuxi.admin.core.service.TpSystemConfigService;
 import com.jiuxi.module.user.app.service.UserPersonService;
+import com.jiuxi.module.org.infra.performance.OrgHierarchyIndexService;
 import com.jiuxi.common.bean.JsonResponse;
 import com.jiuxi.common.bean.SessionVO;
 import com.jiuxi.common.exception.ExceptionUtils;
@@ -123,6 +124,9 @@ public class UserPersonServiceImpl implements UserPersonService {
     @Autowired
     private TpSystemConfigService tpSystemConfigService;
 
+    @Autowired
+    private OrgHierarchyIndexService orgHierarchyIndexService;
+
     /**
      * 用户信息分页查询
      *
@@ -169,6 +173,8 @@ public class UserPersonServiceImpl implements UserPersonService {
                 TpDeptBasicinfoVO deptBasicinfoVO = tpDeptBasicinfoMapper.view(deptId);
                 query.setDeptId("");
                 query.setDeptLevelcode(deptBasicinfoVO.getDeptLevelcode());
+                // 层级索引可用时直接按本级及下级部门id查询
+                query.setDeptIds(orgHierarchyIndexService.descendantIdsForQuery(deptBasicinfoVO.getDeptLevelcode()));
 
                 iPage = tpPersonBasicinfoMapper.getPage(page, query);
             }
@@ -1,5 +1,6 @@
 package com.jiuxi.module.user.app.service;
 
+import com.jiuxi.module.user.app.dto.ImportProgressDTO;
 import com.jiuxi.module.user.app.dto.ImportResultDTO;
 import com.jiuxi.module.user.app.dto.UserExportDTO;
 import com.jiuxi.module.user.app.dto.UserImportDTO;
@@ -29,6 +30,26 @@ public interface UserImportExportService {
      */
     ImportResultDTO importUsers(MultipartFile file, String operatorId, String tenantId, String ascnId);
 
+    /**
+     * 导入用户数据（从Excel文件），导入过程中按任务ID记录进度
+     * 
+     * @param file Excel文件
+     * @param operatorId 操作人ID
+     * @param tenantId 租户ID
+     * @param ascnId 所属机构ID
+     * @param taskId 任务ID（由调用方生成，为空时不记录进度）
+     * @return 导入结果
+     */
+    ImportResultDTO importUsers(MultipartFile file, String operatorId, String tenantId, String ascnId, String taskId);
+
+    /**
+     * 查询导入进度
+     * 
+     * @param taskId 任务ID
+     * @return 导入进度，任务不存在或已过期时返回null
+     */
+    ImportProgressDTO getImportProgress(String taskId);
+
     /**
      * 导出用户数据（到Excel文件）
      * 
@@ -5,9 +5,12 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.jiuxi.admin.core.bean.entity.TpPersonBasicinfo;
 import com.jiuxi.admin.core.bean.query.TpPersonBasicQuery;
 import com.jiuxi.admin.core.bean.vo.TpPersonBasicinfoVO;
+import com.jiuxi.module.user.app.dto.UserExportDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -78,5 +81,19 @@ public interface UserPersonMapper {
     int physicalDeleteByPersonId(@Param("personId") String personId);
 
     List<TpPersonBasicinfoVO> getBaseInfoByIdCard(@Param("idcard") String idcard);
-    
+
+    /**
+     * 以游标方式查询导出数据，账号、主部门、扩展信息在SQL中关联，每个人员一行
+     * 需在事务内使用，读取完毕后关闭游标
+     *
+     * @param deptId        部门id（指定人员时忽略）
+     * @param deptLevelcode 部门层级码，包含子部门（指定人员时忽略）
+     * @param personIds     指定导出的人员id，为空时按部门导出
+     * @return org.apache.ibatis.cursor.Cursor<com.jiuxi.module.user.app.dto.UserExportDTO>
+     * @author jiuxx
+     * @date 2026/10/18
+     */
+    Cursor<UserExportDTO> selectExportCursor(@Param("deptId") String deptId, @Param("deptLevelcode") String deptLevelcode,
+                                             @Param("personIds") Collection<String> personIds);
+
 }
@@ -8,6 +8,7 @@ import com.jiuxi.admin.core.bean.vo.TpAccountVO;
 import com.jiuxi.admin.core.bean.vo.TpPersonBasicinfoVO;
 import com.jiuxi.admin.core.bean.vo.TpPersonExinfoVO;
 import com.jiuxi.admin.core.bean.vo.TpPersonRoleVO;
+import com.jiuxi.module.user.app.dto.ImportProgressDTO;
 import com.jiuxi.module.user.app.dto.ImportResultDTO;
 import com.jiuxi.module.user.app.service.UserImportExportService;
 import com.jiuxi.module.user.app.service.UserAccountService;
@@ -340,7 +341,6 @@ public class UserPersonController {
      */
     @RequestMapping(value = "/person-roles")
     @IgnoreAuthorization
-    @Authorization(businessKey = PASS_KEY)
     public JsonResponse personRoles(String deptId, String personId) {
         List<TpPersonRoleVO> list = tpPersonBasicinfoService.personRoles(deptId, personId);
 
@@ -389,16 +389,18 @@ public class UserPersonController {
     @RequestMapping(value = "/import-excel")
     public JsonResponse importExcel(@RequestParam("file") MultipartFile file, 
                                     @RequestParam(value = "deptId", required = false) String deptId, 
+                                    @RequestParam(value = "taskId", required = false) String taskId,
                                     String jwtpid, 
                                     String jwtTid,
                                     String jwtAscnId) {
         try {
-            // 调用新的导入服务
+            // 调用新的导入服务，传入taskId时可通过 /import-progress 轮询进度
             ImportResultDTO result = userImportExportService.importUsers(
                 file,
                 jwtpid,
                 jwtTid,
-                jwtAscnId
+                jwtAscnId,
+                taskId
             );
 
             if (result.getSuccess()) {
@@ -412,6 +414,18 @@ public class UserPersonController {
         }
     }
 
+    /**
+     * 查询Excel导入进度
+     */
+    @RequestMapping(value = "/import-progress")
+    public JsonResponse importProgress(@RequestParam("taskId") String taskId) {
+        ImportProgressDTO progress = userImportExportService.getImportProgress(taskId);
+        if (progress == null) {
+            return JsonResponse.buildFailure("导入任务不存在或已过期");
+        }
+        return JsonResponse.buildSuccess(progress);
+    }
+
     /**
      * 下载Excel导入模板（重构版本）
      */
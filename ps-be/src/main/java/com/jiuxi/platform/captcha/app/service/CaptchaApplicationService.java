@@ -5,6 +5,7 @@ import com.jiuxi.platform.captcha.domain.service.CaptchaGenerator;
 import com.jiuxi.platform.captcha.domain.valueobject.CaptchaCoordinate;
 import com.jiuxi.platform.captcha.domain.valueobject.CaptchaType;
 import com.jiuxi.platform.captcha.infrastructure.cache.CaptchaCacheRepository;
+import com.jiuxi.platform.captcha.infrastructure.pool.CaptchaChallengePool;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -31,6 +32,11 @@ public class CaptchaApplicationService {
     private final CaptchaCacheRepository cacheRepository;
     private final CaptchaValidationService validationService;
     
+    /**
+     * 预生成验证码池，未启用时为空，每次请求同步生成
+     */
+    private CaptchaChallengePool challengePool;
+    
     @Autowired
     public CaptchaApplicationService(List<CaptchaGenerator> captchaGenerators,
                                    CaptchaCacheRepository cacheRepository,
@@ -40,6 +46,11 @@ public class CaptchaApplicationService {
         this.validationService = validationService;
     }
     
+    @Autowired(required = false)
+    public void setChallengePool(CaptchaChallengePool challengePool) {
+        this.challengePool = challengePool;
+    }
+    
     /**
      * 生成验证码挑战
      */
@@ -52,7 +63,9 @@ public class CaptchaApplicationService {
                 return CaptchaResponse.error("不支持的验证码类型: " + captchaTypeCode);
             }
             
-            CaptchaChallenge challenge = generator.generateChallenge(captchaType);
+            CaptchaChallenge challenge = challengePool != null
+                    ? challengePool.take(captchaType)
+                    : generator.generateChallenge(captchaType);
             cacheRepository.saveChallenge(challenge);
             
             return CaptchaResponse.success(challenge);
@@ -162,6 +175,10 @@ public class CaptchaApplicationService {
         }
         stats.put("generators", generators);
         
+        if (challengePool != null) {
+            stats.put("pool", challengePool.getStatistics());
+        }
+        
         return stats;
     }
     
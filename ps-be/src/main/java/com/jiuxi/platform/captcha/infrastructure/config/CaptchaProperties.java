@@ -23,6 +23,11 @@ public class CaptchaProperties {
      */
     private ImageConfig image = new ImageConfig();
     
+    /**
+     * 预生成验证码池配置
+     */
+    private PoolConfig pool = new PoolConfig();
+    
     public int getMaxAttempts() {
         return maxAttempts;
     }
@@ -39,6 +44,14 @@ public class CaptchaProperties {
         this.image = image;
     }
     
+    public PoolConfig getPool() {
+        return pool;
+    }
+    
+    public void setPool(PoolConfig pool) {
+        this.pool = pool;
+    }
+    
     /**
      * 图片配置
      */
@@ -48,6 +61,11 @@ public class CaptchaProperties {
          */
         private String externalDir;
         
+        /**
+         * PNG 压缩级别 0-9，级别越低编码越快、图片越大，-1 使用 JDK 默认级别
+         */
+        private int pngCompressionLevel = -1;
+        
         public String getExternalDir() {
             return externalDir;
         }
@@ -55,5 +73,70 @@ public class CaptchaProperties {
         public void setExternalDir(String externalDir) {
             this.externalDir = externalDir;
         }
+        
+        public int getPngCompressionLevel() {
+            return pngCompressionLevel;
+        }
+        
+        public void setPngCompressionLevel(int pngCompressionLevel) {
+            this.pngCompressionLevel = pngCompressionLevel;
+        }
+    }
+    
+    /**
+     * 预生成验证码池配置
+     */
+    public static class PoolConfig {
+        /**
+         * 是否启用，关闭时每次请求同步生成
+         */
+        private boolean enabled = true;
+        
+        /**
+         * 每种验证码类型预生成的数量
+         */
+        private int capacity = 50;
+        
+        /**
+         * 后台生成线程数，小于等于0时取CPU核数
+         */
+        private int workers = 0;
+        
+        /**
+         * 预生成的验证码最长保留时间（秒），超过后丢弃重新生成
+         */
+        private int maxIdleSeconds = 600;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getCapacity() {
+            return capacity;
+        }
+        
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+        
+        public int getWorkers() {
+            return workers;
+        }
+        
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+        
+        public int getMaxIdleSeconds() {
+            return maxIdleSeconds;
+        }
+        
+        public void setMaxIdleSeconds(int maxIdleSeconds) {
+            this.maxIdleSeconds = maxIdleSeconds;
+        }
     }
 }
@@ -9,16 +9,19 @@ import com.jiuxi.platform.captcha.infrastructure.generator.ConcatCaptchaGenerato
 import com.jiuxi.platform.captcha.infrastructure.generator.RotateCaptchaGenerator;
 import com.jiuxi.platform.captcha.infrastructure.generator.SliderCaptchaGenerator;
 import com.jiuxi.platform.captcha.infrastructure.generator.ResourceSliderCaptchaGenerator;
+import com.jiuxi.platform.captcha.infrastructure.pool.CaptchaChallengePool;
 import com.jiuxi.platform.captcha.infrastructure.storage.RedisCaptchaStorageRepository;
 import com.jiuxi.platform.captcha.app.service.CaptchaValidationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.core.RedisTemplate;
 
+import java.time.Duration;
 import java.util.List;
 
 @Configuration
@@ -151,6 +154,21 @@ public class TopinfoCaptchaPlatformAutoConfiguration {
         return new CaptchaApplicationService(captchaGenerators, cacheRepository, validationService);
     }
 
+    /**
+     * 预生成验证码池，captcha.pool.enabled=false 时不创建，每次请求同步生成
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean(CaptchaChallengePool.class)
+    @ConditionalOnProperty(name = "captcha.pool.enabled", havingValue = "true", matchIfMissing = true)
+    public CaptchaChallengePool captchaChallengePool(List<CaptchaGenerator> captchaGenerators,
+                                                     CaptchaProperties captchaProperties) {
+        CaptchaProperties.PoolConfig pool = captchaProperties.getPool();
+        CaptchaChallengePool challengePool = new CaptchaChallengePool(captchaGenerators, pool.getCapacity(),
+                pool.getWorkers(), Duration.ofSeconds(pool.getMaxIdleSeconds()));
+        challengePool.start();
+        return challengePool;
+    }
+
     /**
      * 拼接验证码生成器
      */
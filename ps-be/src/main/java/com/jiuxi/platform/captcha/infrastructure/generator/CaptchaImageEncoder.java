@@ -0,0 +1,73 @@
+package com.jiuxi.platform.captcha.infrastructure.generator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Iterator;
+
+/**
+ * 验证码图片编码
+ * <pre>
+ *     1. ImageIO.write(image, format, OutputStream) 在默认配置下会先把编码结果写入临时文件再复制到输出流，
+ *        这里直接使用内存缓冲的输出流，不经过磁盘
+ *     2. PNG 可指定 deflate 压缩级别（0-9），级别越低编码越快、图片越大；小于0时使用 JDK 默认级别
+ *     3. 输出缓冲区按图片像素数预估大小，减少扩容复制
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class CaptchaImageEncoder {
+
+    public static final String PNG = "png";
+
+    public static final String JPEG = "jpeg";
+
+    private CaptchaImageEncoder() {
+    }
+
+    /**
+     * 编码为 data URI，如：data:image/png;base64,...
+     *
+     * @param image            图片
+     * @param format           {@link #PNG} 或 {@link #JPEG}
+     * @param compressionLevel PNG 压缩级别 0-9，小于0时使用默认级别，JPEG 忽略
+     */
+    public static String toDataUri(BufferedImage image, String format, int compressionLevel) throws IOException {
+        byte[] bytes = encode(image, format, compressionLevel);
+        return "data:image/" + format + ";base64," + Base64.getEncoder().encodeToString(bytes);
+    }
+
+    static byte[] encode(BufferedImage image, String format, int compressionLevel) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("不支持的图片格式: " + format);
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(8192, image.getWidth() * image.getHeight()));
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), writeParam(writer, format, compressionLevel));
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static ImageWriteParam writeParam(ImageWriter writer, String format, int compressionLevel) {
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        if (PNG.equals(format) && compressionLevel >= 0 && param.canWriteCompressed()) {
+            // PNG 写入器按 9 - round(9 * quality) 换算 deflate 级别
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality((9 - Math.min(compressionLevel, 9)) / 9f);
+        }
+        return param;
+    }
+}
@@ -16,13 +16,11 @@ import org.springframework.util.StringUtils;
 import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.FileInputStream;
 import java.nio.file.Paths;
 import java.nio.file.Files;
-import java.util.Base64;
 import java.util.Random;
 import java.io.File;
 import java.util.ArrayList;
@@ -85,11 +83,11 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
 
             // 随机选择一个图片
             String selectedImagePrefix = availableImages.get(random.nextInt(availableImages.size()));
-            logger.info("=== 验证码图片选择信息 ===");
-            logger.info("可用图片列表: {}", availableImages);
-            logger.info("选择的图片前缀: {}", selectedImagePrefix);
-            logger.info("背景图片文件: {}{}", selectedImagePrefix, BACKGROUND_IMAGE_SUFFIX);
-            logger.info("滑块图片文件: {}{}", selectedImagePrefix, SLIDER_IMAGE_SUFFIX);
+            logger.debug("=== 验证码图片选择信息 ===");
+            logger.debug("可用图片列表: {}", availableImages);
+            logger.debug("选择的图片前缀: {}", selectedImagePrefix);
+            logger.debug("背景图片文件: {}{}", selectedImagePrefix, BACKGROUND_IMAGE_SUFFIX);
+            logger.debug("滑块图片文件: {}{}", selectedImagePrefix, SLIDER_IMAGE_SUFFIX);
 
             // 加载背景图片
             BufferedImage backgroundImage = loadBackgroundImage(selectedImagePrefix);
@@ -105,17 +103,17 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
 
             // 读取坐标文件获取正确位置
             CaptchaCoordinate correctPosition = readCoordinateFromFile(selectedImagePrefix);
-            logger.info("=== 坐标信息 ===");
+            logger.debug("=== 坐标信息 ===");
             if (correctPosition != null) {
-                logger.info("从坐标文件读取到的坐标: ({}, {})", correctPosition.getX(), correctPosition.getY());
+                logger.debug("从坐标文件读取到的坐标: ({}, {})", correctPosition.getX(), correctPosition.getY());
             } else {
-                logger.info("未找到坐标文件，将使用随机坐标");
+                logger.debug("未找到坐标文件，将使用随机坐标");
             }
             
             if (correctPosition == null) {
                 // 如果没有坐标文件，随机生成位置
                 correctPosition = generateRandomPosition();
-                logger.info("随机生成的坐标: ({}, {})", correctPosition.getX(), correctPosition.getY());
+                logger.debug("随机生成的坐标: ({}, {})", correctPosition.getX(), correctPosition.getY());
             }
 
             // 设置验证码数据
@@ -161,10 +159,10 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
         
         // 优先尝试使用外部目录
         if (StringUtils.hasText(externalRootDir)) {
-            logger.info("使用外部验证码图片根目录: {}", externalRootDir);
+            logger.debug("使用外部验证码图片根目录: {}", externalRootDir);
             images = getImagesFromExternalDir();
             if (!images.isEmpty()) {
-                logger.info("从外部目录找到 {} 个可用图片", images.size());
+                logger.debug("从外部目录找到 {} 个可用图片", images.size());
                 return images;
             } else {
                 logger.warn("外部目录中未找到可用的验证码图片，将使用内部资源");
@@ -172,9 +170,9 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
         }
         
         // 如果外部目录不可用，使用内部资源
-        logger.info("使用内部验证码图片资源");
+        logger.debug("使用内部验证码图片资源");
         images = getImagesFromInternalResources();
-        logger.info("从内部资源找到 {} 个可用图片", images.size());
+        logger.debug("从内部资源找到 {} 个可用图片", images.size());
         
         return images;
     }
@@ -193,7 +191,7 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
                 return images;
             }
             
-            logger.info("扫描外部slider目录: {}", sliderDir.getAbsolutePath());
+            logger.debug("扫描外部slider目录: {}", sliderDir.getAbsolutePath());
             
             // 扫描数字编号 0-50 的图片资源
             for (int i = 0; i <= 50; i++) {
@@ -362,7 +360,7 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
             
             if (coordFiles != null && coordFiles.length > 0) {
                 String coordFileName = coordFiles[0].getName();
-                logger.info("从外部目录找到坐标文件: {}", coordFileName);
+                logger.debug("从外部目录找到坐标文件: {}", coordFileName);
                 
                 // 从文件名解析坐标，格式为: {imagePrefix}_{x}_{y}.txt
                 String[] parts = coordFileName.replace(".txt", "").split("_");
@@ -370,7 +368,7 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
                 if (parts.length >= 3) {
                     int x = Integer.parseInt(parts[1]);
                     int y = Integer.parseInt(parts[2]);
-                    logger.info("从外部目录文件名解析坐标: {} -> ({}, {})", coordFileName, x, y);
+                    logger.debug("从外部目录文件名解析坐标: {} -> ({}, {})", coordFileName, x, y);
                     return new CaptchaCoordinate(x, y);
                 } else {
                     logger.warn("外部目录坐标文件名格式不正确，期望格式: prefix_x_y.txt，实际: {}", coordFileName);
@@ -414,8 +412,8 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
                         if (parts.length >= 3) {
                             int x = Integer.parseInt(parts[1]);
                             int y = Integer.parseInt(parts[2]);
-                            logger.info("从内部资源找到坐标文件: {}", coordFileName);
-                            logger.info("从内部资源文件名解析坐标: {} -> ({}, {})", coordFileName, x, y);
+                            logger.debug("从内部资源找到坐标文件: {}", coordFileName);
+                            logger.debug("从内部资源文件名解析坐标: {} -> ({}, {})", coordFileName, x, y);
                             return new CaptchaCoordinate(x, y);
                         }
                     }
@@ -449,14 +447,14 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
                     
                     ClassPathResource coordResource = new ClassPathResource(fullCoordPath);
                     if (coordResource.exists()) {
-                        logger.info("自动扫描找到内部资源坐标文件: {}", coordFileName);
-                        logger.info("从扫描结果解析坐标: {} -> ({}, {})", coordFileName, x, y);
+                        logger.debug("自动扫描找到内部资源坐标文件: {}", coordFileName);
+                        logger.debug("从扫描结果解析坐标: {} -> ({}, {})", coordFileName, x, y);
                         return new CaptchaCoordinate(x, y);
                     }
                 }
             }
             
-            logger.info("扫描后仍未在内部资源中找到匹配的坐标文件: {}_*", imagePrefix);
+            logger.debug("扫描后仍未在内部资源中找到匹配的坐标文件: {}_*", imagePrefix);
         } catch (Exception e) {
             logger.warn("扫描坐标文件失败: {}", imagePrefix, e);
         }
@@ -481,20 +479,8 @@ public class ResourceSliderCaptchaGenerator implements CaptchaGenerator {
      * 将图片转换为Base64字符串
      */
     private String imageToBase64(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        // 检查图片是否包含透明度信息
-        boolean hasAlpha = image.getColorModel().hasAlpha();
-        
-        if (hasAlpha) {
-            // 对于包含透明度的图片(PNG)，使用PNG格式
-            ImageIO.write(image, "PNG", baos);
-            byte[] imageBytes = baos.toByteArray();
-            return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
-        } else {
-            // 对于不包含透明度的图片(JPG)，使用JPEG格式
-            ImageIO.write(image, "JPEG", baos);
-            byte[] imageBytes = baos.toByteArray();
-            return "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(imageBytes);
-        }
+        // 包含透明度的图片使用PNG格式，否则使用JPEG格式
+        String format = image.getColorModel().hasAlpha() ? CaptchaImageEncoder.PNG : CaptchaImageEncoder.JPEG;
+        return CaptchaImageEncoder.toDataUri(image, format, captchaProperties.getImage().getPngCompressionLevel());
     }
 }
\ No newline at end of file
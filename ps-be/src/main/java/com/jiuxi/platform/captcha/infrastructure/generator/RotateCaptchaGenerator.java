@@ -8,13 +8,10 @@ import com.jiuxi.platform.captcha.infrastructure.config.CaptchaProperties;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Base64;
 import java.util.Random;
 
 /**
@@ -476,9 +473,7 @@ public class RotateCaptchaGenerator implements CaptchaGenerator {
      * 将图片转换为Base64字符串
      */
     private String imageToBase64(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "PNG", baos);
-        byte[] imageBytes = baos.toByteArray();
-        return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
+        return CaptchaImageEncoder.toDataUri(image, CaptchaImageEncoder.PNG,
+                captchaProperties.getImage().getPngCompressionLevel());
     }
 }
\ No newline at end of file
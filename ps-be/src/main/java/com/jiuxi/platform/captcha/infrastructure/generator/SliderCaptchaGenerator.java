@@ -10,12 +10,9 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Base64;
 import java.util.Random;
 import java.awt.geom.Path2D;
 
@@ -57,7 +54,7 @@ public class SliderCaptchaGenerator implements CaptchaGenerator {
     
     @Override
     public CaptchaChallenge generateChallenge(CaptchaType captchaType) {
-        logger.info("开始生成滑块验证码，类型: {}", captchaType);
+        logger.debug("开始生成滑块验证码，类型: {}", captchaType);
         
         if (!supports(captchaType)) {
             throw new IllegalArgumentException("不支持的验证码类型: " + captchaType);
@@ -88,8 +85,8 @@ public class SliderCaptchaGenerator implements CaptchaGenerator {
             String backgroundImageData = imageToBase64(backgroundImage);
             String puzzleImageData = imageToBase64(puzzleImage);
             
-            logger.info("背景图片数据长度: {}", backgroundImageData != null ? backgroundImageData.length() : "null");
-            logger.info("拼图图片数据长度: {}", puzzleImageData != null ? puzzleImageData.length() : "null");
+            logger.debug("背景图片数据长度: {}", backgroundImageData != null ? backgroundImageData.length() : "null");
+            logger.debug("拼图图片数据长度: {}", puzzleImageData != null ? puzzleImageData.length() : "null");
             
             challenge.setBackgroundImageData(backgroundImageData);
             challenge.setPuzzleImageData(puzzleImageData);
@@ -526,9 +523,7 @@ public class SliderCaptchaGenerator implements CaptchaGenerator {
      * 将图片转换为Base64字符串
      */
     private String imageToBase64(BufferedImage image) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        ImageIO.write(image, "PNG", baos);
-        byte[] imageBytes = baos.toByteArray();
-        return "data:image/png;base64," + Base64.getEncoder().encodeToString(imageBytes);
+        return CaptchaImageEncoder.toDataUri(image, CaptchaImageEncoder.PNG,
+                captchaProperties.getImage().getPngCompressionLevel());
     }
 }
\ No newline at end of file
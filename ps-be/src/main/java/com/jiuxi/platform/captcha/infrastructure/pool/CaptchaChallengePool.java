@@ -0,0 +1,342 @@
+package com.jiuxi.platform.captcha.infrastructure.pool;
+
+import com.jiuxi.platform.captcha.domain.entity.CaptchaChallenge;
+import com.jiuxi.platform.captcha.domain.service.CaptchaGenerator;
+import com.jiuxi.platform.captcha.domain.valueobject.CaptchaType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 预生成验证码池
+ * <pre>
+ *     1. 每种验证码类型一个有界队列，后台线程（默认CPU核数）按缺口大小优先补充，请求线程只取出现成的挑战
+ *     2. 每个挑战只会被取出一次；取出时按原有效期重新计算创建和过期时间，有效期从下发时开始
+ *     3. 队列为空时在请求线程同步生成，与未启用时相同；生成失败的类型暂停补充一段时间，避免后台空转
+ *     4. 超过最长保留时间的挑战由后台线程丢弃并重新生成
+ *     5. 生成器的选择与 CaptchaApplicationService 一致：取第一个支持该类型的生成器
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class CaptchaChallengePool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CaptchaChallengePool.class);
+
+    /**
+     * 没有缺口时后台线程的最长等待时间，到时检查过期挑战
+     */
+    private static final long IDLE_WAIT_MILLIS = 1000;
+
+    /**
+     * 生成失败后暂停补充的时间
+     */
+    private static final long FAILURE_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final Map<CaptchaType, Slot> slots = new EnumMap<>(CaptchaType.class);
+
+    private final int capacity;
+
+    private final int workerCount;
+
+    private final long maxIdleNanos;
+
+    private final Object signal = new Object();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    /**
+     * @param generators 验证码生成器
+     * @param capacity   每种类型预生成的数量
+     * @param workers    后台生成线程数，小于等于0时取CPU核数
+     * @param maxIdle    预生成的挑战最长保留时间
+     */
+    public CaptchaChallengePool(List<CaptchaGenerator> generators, int capacity, int workers, Duration maxIdle) {
+        this.capacity = Math.max(1, capacity);
+        this.workerCount = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.maxIdleNanos = maxIdle.toNanos();
+        for (CaptchaType type : CaptchaType.values()) {
+            for (CaptchaGenerator generator : generators) {
+                if (generator.supports(type)) {
+                    slots.put(type, new Slot(type, generator, this.capacity));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * 启动后台生成线程
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread thread = new Thread(this::refillLoop, "captcha-pool-" + (i + 1));
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.start();
+            workers.add(thread);
+        }
+        logger.info("验证码池已启动，类型: {}，每种 {} 个，后台线程 {} 个", slots.keySet(), capacity, workerCount);
+    }
+
+    /**
+     * 取出一个验证码挑战，池中没有时同步生成
+     *
+     * @throws IllegalArgumentException 没有支持该类型的生成器
+     */
+    public CaptchaChallenge take(CaptchaType captchaType) {
+        Slot slot = slots.get(captchaType);
+        if (slot == null) {
+            throw new IllegalArgumentException("不支持的验证码类型: " + captchaType);
+        }
+        Pooled pooled;
+        while ((pooled = slot.queue.poll()) != null) {
+            if (isStale(pooled)) {
+                slot.expired.increment();
+                continue;
+            }
+            slot.hits.increment();
+            wakeWorker(false);
+            return restartClock(pooled.challenge);
+        }
+        slot.misses.increment();
+        wakeWorker(true);
+        return generate(slot);
+    }
+
+    /**
+     * 池统计：每种类型的队列深度、命中/未命中次数、生成次数、失败次数和生成耗时
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", running);
+        stats.put("capacity", capacity);
+        stats.put("workers", workerCount);
+        Map<String, Object> types = new LinkedHashMap<>();
+        for (Map.Entry<CaptchaType, Slot> entry : slots.entrySet()) {
+            Slot slot = entry.getValue();
+            long generated = slot.generated.sum();
+            long hits = slot.hits.sum();
+            long misses = slot.misses.sum();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("generator", slot.generator.getGeneratorName());
+            item.put("depth", slot.queue.size());
+            item.put("inFlight", slot.inFlight.get());
+            item.put("hits", hits);
+            item.put("misses", misses);
+            item.put("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+            item.put("generated", generated);
+            item.put("failures", slot.failures.sum());
+            item.put("expired", slot.expired.sum());
+            item.put("avgGenerateMillis", generated == 0 ? 0.0 : slot.generateNanos.sum() / 1e6 / generated);
+            item.put("maxGenerateMillis", slot.maxGenerateNanos.get() / 1e6);
+            types.put(entry.getKey().getCode(), item);
+        }
+        stats.put("types", types);
+        return stats;
+    }
+
+    /**
+     * 当前队列深度
+     */
+    public int depth(CaptchaType captchaType) {
+        Slot slot = slots.get(captchaType);
+        return slot != null ? slot.queue.size() : 0;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        workers.clear();
+        for (Slot slot : slots.values()) {
+            slot.queue.clear();
+        }
+    }
+
+    private void refillLoop() {
+        while (running) {
+            Slot slot = reserve();
+            if (slot == null) {
+                synchronized (signal) {
+                    if (!running) {
+                        break;
+                    }
+                    try {
+                        signal.wait(IDLE_WAIT_MILLIS);
+                    } catch (InterruptedException e) {
+                        break;
+                    }
+                }
+                continue;
+            }
+            try {
+                CaptchaChallenge challenge = generate(slot);
+                slot.queue.offer(new Pooled(challenge, System.nanoTime()));
+            } catch (RuntimeException e) {
+                slot.backoffUntil = System.nanoTime() + FAILURE_BACKOFF_NANOS;
+                logger.warn("预生成验证码失败，类型: {}，{} 秒后重试: {}", slot.type.getCode(),
+                        TimeUnit.NANOSECONDS.toSeconds(FAILURE_BACKOFF_NANOS), e.getMessage());
+            } finally {
+                slot.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 丢弃过期的挑战，选出缺口最大的类型并占用一个生成名额，没有缺口时返回 null
+     */
+    private Slot reserve() {
+        long now = System.nanoTime();
+        Slot best = null;
+        int bestDeficit = 0;
+        for (Slot slot : slots.values()) {
+            evictStale(slot);
+            if (now - slot.backoffUntil < 0) {
+                continue;
+            }
+            int deficit = capacity - slot.queue.size() - slot.inFlight.get();
+            if (deficit > bestDeficit) {
+                best = slot;
+                bestDeficit = deficit;
+            }
+        }
+        if (best != null) {
+            best.inFlight.incrementAndGet();
+        }
+        return best;
+    }
+
+    private void evictStale(Slot slot) {
+        Pooled head;
+        while ((head = slot.queue.peek()) != null && isStale(head)) {
+            if (slot.queue.remove(head)) {
+                slot.expired.increment();
+            }
+        }
+    }
+
+    private CaptchaChallenge generate(Slot slot) {
+        long start = System.nanoTime();
+        try {
+            CaptchaChallenge challenge = slot.generator.generateChallenge(slot.type);
+            long cost = System.nanoTime() - start;
+            slot.generated.increment();
+            slot.generateNanos.add(cost);
+            slot.maxGenerateNanos.accumulateAndGet(cost, Math::max);
+            return challenge;
+        } catch (RuntimeException e) {
+            slot.failures.increment();
+            throw e;
+        }
+    }
+
+    private boolean isStale(Pooled pooled) {
+        return System.nanoTime() - pooled.createdNanos > maxIdleNanos;
+    }
+
+    private void wakeWorker(boolean all) {
+        synchronized (signal) {
+            if (all) {
+                signal.notifyAll();
+            } else {
+                signal.notify();
+            }
+        }
+    }
+
+    /**
+     * 有效期从取出时开始计算
+     */
+    private static CaptchaChallenge restartClock(CaptchaChallenge challenge) {
+        LocalDateTime now = LocalDateTime.now();
+        if (challenge.getCreateTime() != null && challenge.getExpireTime() != null) {
+            challenge.setExpireTime(now.plus(Duration.between(challenge.getCreateTime(), challenge.getExpireTime())));
+        }
+        challenge.setCreateTime(now);
+        return challenge;
+    }
+
+    private static final class Slot {
+
+        private final CaptchaType type;
+
+        private final CaptchaGenerator generator;
+
+        private final BlockingQueue<Pooled> queue;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final LongAdder hits = new LongAdder();
+
+        private final LongAdder misses = new LongAdder();
+
+        private final LongAdder generated = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final LongAdder expired = new LongAdder();
+
+        private final LongAdder generateNanos = new LongAdder();
+
+        private final AtomicLong maxGenerateNanos = new AtomicLong();
+
+        private volatile long backoffUntil = System.nanoTime();
+
+        Slot(CaptchaType type, CaptchaGenerator generator, int capacity) {
+            this.type = type;
+            this.generator = generator;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+
+    private static final class Pooled {
+
+        private final CaptchaChallenge challenge;
+
+        private final long createdNanos;
+
+        Pooled(CaptchaChallenge challenge, long createdNanos) {
+            this.challenge = challenge;
+            this.createdNanos = createdNanos;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.jiuxi.platform.monitoring.domain.entity;
 import com.jiuxi.platform.monitoring.domain.valueobject.MetricValue;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 /**
@@ -110,13 +111,13 @@ public class MetricsRecord {
     }
     
     /**
-     * 生成记录ID
+     * 生成记录ID，时间截断到毫秒，与时序存储保存的精度一致，按ID查回的记录ID不变
      */
     private String generateRecordId(String instanceId, MetricValue metricValue) {
         return String.format("%s_%s_%s", 
                 instanceId, 
                 metricValue.getName().replaceAll("\\.", "_"),
-                metricValue.getTimestamp().toString().replaceAll("[:-]", ""));
+                metricValue.getTimestamp().truncatedTo(ChronoUnit.MILLIS).toString().replaceAll("[:-]", ""));
     }
     
     /**
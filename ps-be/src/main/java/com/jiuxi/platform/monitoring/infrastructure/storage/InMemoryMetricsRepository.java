@@ -2,391 +2,519 @@ package com.jiuxi.platform.monitoring.infrastructure.storage;
 
 import com.jiuxi.platform.monitoring.domain.entity.MetricsRecord;
 import com.jiuxi.platform.monitoring.domain.repository.MetricsRepository;
+import com.jiuxi.platform.monitoring.domain.valueobject.MetricValue;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
  * 内存时序数据存储实现
- * 提供高性能的时序数据存储和查询功能
- * 
+ * <pre>
+ *     1. 原始样本按 实例 -> 指标 存放在 {@link MetricsSeriesRing} 中，列式 long[]/double[] 定长环，写入无锁
+ *     2. 区间查询在时间戳上二分查找，只为命中的样本构造 MetricsRecord
+ *     3. 聚合记录按周期结束时间存放在跳表中，同一周期重复归档时覆盖而不是追加
+ *     4. 没有预聚合数据时，聚合查询直接对原始环做降采样
+ * </pre>
+ *
  * @author DDD Refactor
  * @date 2025-09-11
  */
 @Repository
 public class InMemoryMetricsRepository implements MetricsRepository {
-    
-    // 主存储：instance -> metric -> 时间序列记录列表
-    private final Map<String, Map<String, List<MetricsRecord>>> storage = new ConcurrentHashMap<>();
-    
-    // 聚合数据存储：instance -> metric -> aggregationType_interval -> 记录列表
-    private final Map<String, Map<String, Map<String, List<MetricsRecord>>>> aggregatedStorage = new ConcurrentHashMap<>();
-    
-    // 索引：recordId -> record
-    private final Map<String, MetricsRecord> recordIndex = new ConcurrentHashMap<>();
-    
-    // 统计信息
-    private volatile long totalRecords = 0;
-    private volatile long totalStorageSize = 0;
+
+    private static final Set<String> AGGREGATION_TYPES = new HashSet<>(Arrays.asList("AVG", "MAX", "MIN", "SUM", "COUNT"));
+
+    // 每个指标环的样本容量，默认按30秒采集一次约保留11天
+    @Value("${ps.monitoring.storage.series-capacity:32768}")
+    private int seriesCapacity = 32768;
+
+    // 按指标单独设置环容量，格式 指标名:容量，逗号分隔，如 cpu.usage:32768,jvm.threads.count:2048；未列出的指标使用 seriesCapacity
+    @Value("${ps.monitoring.storage.series-capacities:}")
+    private String seriesCapacities = "";
+
+    // 解析后的按指标容量，首次创建环时解析
+    private volatile Map<String, Integer> capacityByMetric;
+
+    // 主存储：instance -> metric -> 环形时序缓冲区
+    private final Map<String, Map<String, MetricsSeriesRing>> storage = new ConcurrentHashMap<>();
+
+    // 聚合数据存储：instance -> metric -> aggregationType_interval -> 周期结束时间(毫秒) -> 记录
+    private final Map<String, Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>>> aggregatedStorage = new ConcurrentHashMap<>();
+
     private final LocalDateTime createTime = LocalDateTime.now();
-    
+
     @Override
     public void save(MetricsRecord record) {
-        if (record == null) {
+        if (record == null || record.getTimestamp() == null || record.getMetricValue() == null) {
             return;
         }
-        
-        synchronized (this) {
-            // 保存到主存储或聚合存储
-            if (record.isAggregatedRecord()) {
-                saveAggregatedRecord(record);
-            } else {
-                saveRawRecord(record);
-            }
-            
-            // 更新索引
-            recordIndex.put(record.getRecordId(), record);
-            
-            // 更新统计信息
-            totalRecords++;
-            totalStorageSize += estimateRecordSize(record);
+
+        // 保存到主存储或聚合存储
+        if (record.isAggregatedRecord()) {
+            saveAggregatedRecord(record);
+        } else {
+            saveRawRecord(record);
         }
     }
-    
+
     @Override
     public void batchSave(List<MetricsRecord> records) {
         if (records == null || records.isEmpty()) {
             return;
         }
-        
-        synchronized (this) {
-            for (MetricsRecord record : records) {
-                if (record.isAggregatedRecord()) {
-                    saveAggregatedRecord(record);
-                } else {
-                    saveRawRecord(record);
-                }
-                
-                recordIndex.put(record.getRecordId(), record);
-                totalRecords++;
-                totalStorageSize += estimateRecordSize(record);
-            }
+
+        for (MetricsRecord record : records) {
+            save(record);
         }
     }
-    
+
     @Override
     public Optional<MetricsRecord> findById(String recordId) {
-        return Optional.ofNullable(recordIndex.get(recordId));
+        if (recordId == null) {
+            return Optional.empty();
+        }
+
+        // 聚合记录
+        for (Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>> instanceAggregated : aggregatedStorage.values()) {
+            for (Map<String, ConcurrentNavigableMap<Long, MetricsRecord>> metricAggregated : instanceAggregated.values()) {
+                for (ConcurrentNavigableMap<Long, MetricsRecord> records : metricAggregated.values()) {
+                    for (MetricsRecord record : records.values()) {
+                        if (recordId.equals(record.getRecordId())) {
+                            return Optional.of(record);
+                        }
+                    }
+                }
+            }
+        }
+
+        // 原始记录没有单独的ID索引，只扫描ID前缀匹配的指标
+        for (Map.Entry<String, Map<String, MetricsSeriesRing>> instanceEntry : storage.entrySet()) {
+            for (Map.Entry<String, MetricsSeriesRing> metricEntry : instanceEntry.getValue().entrySet()) {
+                String prefix = instanceEntry.getKey() + "_" + metricEntry.getKey().replaceAll("\\.", "_") + "_";
+                if (!recordId.startsWith(prefix)) {
+                    continue;
+                }
+                MetricsSeriesRing.Snapshot samples = metricEntry.getValue().range(Long.MIN_VALUE, Long.MAX_VALUE);
+                for (int i = 0; i < samples.size(); i++) {
+                    MetricsRecord record = toRecord(instanceEntry.getKey(), metricEntry.getKey(), metricEntry.getValue(), samples, i);
+                    if (recordId.equals(record.getRecordId())) {
+                        return Optional.of(record);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
     }
-    
+
     @Override
     public List<MetricsRecord> findByInstanceId(String instanceId, LocalDateTime startTime, LocalDateTime endTime) {
-        Map<String, List<MetricsRecord>> instanceData = storage.get(instanceId);
+        Map<String, MetricsSeriesRing> instanceData = storage.get(instanceId);
         if (instanceData == null) {
             return new ArrayList<>();
         }
-        
+
         List<MetricsRecord> results = new ArrayList<>();
-        for (List<MetricsRecord> records : instanceData.values()) {
-            results.addAll(filterByTimeRange(records, startTime, endTime));
+        for (Map.Entry<String, MetricsSeriesRing> entry : instanceData.entrySet()) {
+            MetricsSeriesRing.Snapshot samples = entry.getValue().range(fromMillis(startTime), toMillis(endTime));
+            results.addAll(toRecords(instanceId, entry.getKey(), entry.getValue(), samples, 0));
         }
-        
+
         // 按时间排序
         results.sort(Comparator.comparing(MetricsRecord::getTimestamp));
         return results;
     }
-    
+
     @Override
-    public List<MetricsRecord> findByMetricName(String instanceId, String metricName, 
+    public List<MetricsRecord> findByMetricName(String instanceId, String metricName,
                                                LocalDateTime startTime, LocalDateTime endTime) {
-        Map<String, List<MetricsRecord>> instanceData = storage.get(instanceId);
-        if (instanceData == null) {
+        MetricsSeriesRing ring = getSeries(instanceId, metricName);
+        if (ring == null) {
             return new ArrayList<>();
         }
-        
-        List<MetricsRecord> records = instanceData.get(metricName);
-        if (records == null) {
-            return new ArrayList<>();
+
+        MetricsSeriesRing.Snapshot samples = ring.range(fromMillis(startTime), toMillis(endTime));
+        List<MetricsRecord> records = toRecords(instanceId, metricName, ring, samples, 0);
+        if (!samples.isOrdered()) {
+            records.sort(Comparator.comparing(MetricsRecord::getTimestamp));
         }
-        
-        List<MetricsRecord> filtered = filterByTimeRange(records, startTime, endTime);
-        filtered.sort(Comparator.comparing(MetricsRecord::getTimestamp));
-        return filtered;
+        return records;
     }
-    
+
     @Override
-    public List<MetricsRecord> findRawRecords(String instanceId, String metricName, 
+    public List<MetricsRecord> findRawRecords(String instanceId, String metricName,
                                              LocalDateTime startTime, LocalDateTime endTime, int limit) {
-        List<MetricsRecord> allRecords = findByMetricName(instanceId, metricName, startTime, endTime);
-        
-        // 过滤原始记录
-        List<MetricsRecord> rawRecords = allRecords.stream()
-                .filter(MetricsRecord::isRawRecord)
-                .sorted(Comparator.comparing(MetricsRecord::getTimestamp).reversed())
-                .limit(limit)
-                .collect(Collectors.toList());
-        
-        // 重新按时间正序排列
-        rawRecords.sort(Comparator.comparing(MetricsRecord::getTimestamp));
-        return rawRecords;
+        MetricsSeriesRing ring = getSeries(instanceId, metricName);
+        if (ring == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        MetricsSeriesRing.Snapshot samples = ring.range(fromMillis(startTime), toMillis(endTime));
+        if (!samples.isOrdered()) {
+            List<MetricsRecord> records = toRecords(instanceId, metricName, ring, samples, 0);
+            records.sort(Comparator.comparing(MetricsRecord::getTimestamp));
+            return new ArrayList<>(records.subList(Math.max(0, records.size() - limit), records.size()));
+        }
+
+        // 取最近的 limit 条，按时间正序返回
+        return toRecords(instanceId, metricName, ring, samples, Math.max(0, samples.size() - limit));
     }
-    
+
     @Override
-    public List<MetricsRecord> findAggregatedRecords(String instanceId, String metricName, 
+    public List<MetricsRecord> findAggregatedRecords(String instanceId, String metricName,
                                                     String aggregationType, Integer interval,
                                                     LocalDateTime startTime, LocalDateTime endTime) {
-        Map<String, Map<String, List<MetricsRecord>>> instanceAggregated = aggregatedStorage.get(instanceId);
-        if (instanceAggregated == null) {
-            return new ArrayList<>();
-        }
-        
-        Map<String, List<MetricsRecord>> metricAggregated = instanceAggregated.get(metricName);
-        if (metricAggregated == null) {
-            return new ArrayList<>();
-        }
-        
         String key = aggregationType + "_" + interval;
-        List<MetricsRecord> records = metricAggregated.get(key);
-        if (records == null) {
-            return new ArrayList<>();
+        ConcurrentNavigableMap<Long, MetricsRecord> records = Optional.ofNullable(aggregatedStorage.get(instanceId))
+                .map(instanceAggregated -> instanceAggregated.get(metricName))
+                .map(metricAggregated -> metricAggregated.get(key))
+                .orElse(null);
+
+        if (records != null && !records.isEmpty()) {
+            long from = fromMillis(startTime);
+            long to = toMillis(endTime);
+            if (from > to) {
+                return new ArrayList<>();
+            }
+            return new ArrayList<>(records.subMap(from, true, to, true).values());
         }
-        
-        List<MetricsRecord> filtered = filterByTimeRange(records, startTime, endTime);
-        filtered.sort(Comparator.comparing(MetricsRecord::getTimestamp));
-        return filtered;
+
+        // 没有预聚合数据时对原始样本降采样
+        return downsample(instanceId, metricName, aggregationType, interval, startTime, endTime);
     }
-    
+
     @Override
     public Optional<MetricsRecord> findLatestRecord(String instanceId, String metricName) {
-        Map<String, List<MetricsRecord>> instanceData = storage.get(instanceId);
-        if (instanceData == null) {
+        MetricsSeriesRing ring = getSeries(instanceId, metricName);
+        if (ring == null) {
             return Optional.empty();
         }
-        
-        List<MetricsRecord> records = instanceData.get(metricName);
-        if (records == null || records.isEmpty()) {
+
+        MetricsSeriesRing.Snapshot latest = ring.latest();
+        if (latest.size() == 0) {
             return Optional.empty();
         }
-        
-        // 找到最新的原始记录
-        return records.stream()
-                .filter(MetricsRecord::isRawRecord)
-                .max(Comparator.comparing(MetricsRecord::getTimestamp));
+        return Optional.of(toRecord(instanceId, metricName, ring, latest, 0));
     }
-    
+
     @Override
-    public Map<String, Object> getMetricStatistics(String instanceId, String metricName, 
+    public Map<String, Object> getMetricStatistics(String instanceId, String metricName,
                                                   LocalDateTime startTime, LocalDateTime endTime) {
-        List<MetricsRecord> records = findByMetricName(instanceId, metricName, startTime, endTime);
-        
-        if (records.isEmpty()) {
+        MetricsSeriesRing ring = getSeries(instanceId, metricName);
+        if (ring == null) {
             return Collections.emptyMap();
         }
-        
-        // 只统计原始记录
-        List<Double> values = records.stream()
-                .filter(MetricsRecord::isRawRecord)
-                .map(MetricsRecord::getMetricValue)
-                .collect(Collectors.toList());
-        
-        if (values.isEmpty()) {
+
+        // 只统计原始记录，直接在列上计算
+        MetricsSeriesRing.Snapshot samples = ring.range(fromMillis(startTime), toMillis(endTime));
+        int count = samples.size();
+        if (count == 0) {
             return Collections.emptyMap();
         }
-        
-        Map<String, Object> statistics = new HashMap<>();
-        statistics.put("count", values.size());
-        statistics.put("min", values.stream().min(Double::compare).orElse(0.0));
-        statistics.put("max", values.stream().max(Double::compare).orElse(0.0));
-        statistics.put("avg", values.stream().mapToDouble(Double::doubleValue).average().orElse(0.0));
-        statistics.put("sum", values.stream().mapToDouble(Double::doubleValue).sum());
-        
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0.0;
+        for (int i = 0; i < count; i++) {
+            double value = samples.valueAt(i);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+        }
+        double avg = sum / count;
+
         // 计算标准差
-        double avg = (Double) statistics.get("avg");
-        double variance = values.stream()
-                .mapToDouble(v -> Math.pow(v - avg, 2))
-                .average()
-                .orElse(0.0);
-        statistics.put("stdDev", Math.sqrt(variance));
-        
+        double squares = 0.0;
+        for (int i = 0; i < count; i++) {
+            double diff = samples.valueAt(i) - avg;
+            squares += diff * diff;
+        }
+
+        Map<String, Object> statistics = new HashMap<>();
+        statistics.put("count", count);
+        statistics.put("min", min);
+        statistics.put("max", max);
+        statistics.put("avg", avg);
+        statistics.put("sum", sum);
+        statistics.put("stdDev", Math.sqrt(squares / count));
+
         // 时间范围信息
         statistics.put("startTime", startTime);
         statistics.put("endTime", endTime);
-        statistics.put("duration", ChronoUnit.SECONDS.between(startTime, endTime));
-        
+        if (startTime != null && endTime != null) {
+            statistics.put("duration", ChronoUnit.SECONDS.between(startTime, endTime));
+        }
+
         return statistics;
     }
-    
+
     @Override
     public int deleteExpiredRecords(LocalDateTime expireTime) {
+        if (expireTime == null) {
+            return 0;
+        }
+        long expireMillis = toMillis(expireTime);
         int deletedCount = 0;
-        
-        synchronized (this) {
-            // 删除原始记录
-            for (Map<String, List<MetricsRecord>> instanceData : storage.values()) {
-                for (List<MetricsRecord> records : instanceData.values()) {
-                    int sizeBefore = records.size();
-                    records.removeIf(record -> record.isExpired(expireTime));
-                    deletedCount += sizeBefore - records.size();
-                }
+
+        // 删除原始记录：环上只需前移逻辑下界
+        for (Map<String, MetricsSeriesRing> instanceData : storage.values()) {
+            for (MetricsSeriesRing ring : instanceData.values()) {
+                deletedCount += ring.expireBefore(expireMillis);
             }
-            
-            // 删除聚合记录
-            for (Map<String, Map<String, List<MetricsRecord>>> instanceAggregated : aggregatedStorage.values()) {
-                for (Map<String, List<MetricsRecord>> metricAggregated : instanceAggregated.values()) {
-                    for (List<MetricsRecord> records : metricAggregated.values()) {
-                        int sizeBefore = records.size();
-                        records.removeIf(record -> record.isExpired(expireTime));
-                        deletedCount += sizeBefore - records.size();
-                    }
+        }
+
+        // 删除聚合记录
+        for (Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>> instanceAggregated : aggregatedStorage.values()) {
+            for (Map<String, ConcurrentNavigableMap<Long, MetricsRecord>> metricAggregated : instanceAggregated.values()) {
+                for (ConcurrentNavigableMap<Long, MetricsRecord> records : metricAggregated.values()) {
+                    Map<Long, MetricsRecord> expired = records.headMap(expireMillis, false);
+                    deletedCount += expired.size();
+                    expired.clear();
                 }
             }
-            
-            // 清理索引
-            recordIndex.entrySet().removeIf(entry -> entry.getValue().isExpired(expireTime));
-            
-            // 更新统计信息
-            totalRecords -= deletedCount;
-            // 重新计算存储大小（简化处理）
-            recalculateStorageSize();
-        }
-        
+        }
+
         return deletedCount;
     }
-    
+
     @Override
     public int deleteByInstanceId(String instanceId) {
         int deletedCount = 0;
-        
-        synchronized (this) {
-            // 删除原始数据
-            Map<String, List<MetricsRecord>> instanceData = storage.remove(instanceId);
-            if (instanceData != null) {
-                for (List<MetricsRecord> records : instanceData.values()) {
-                    deletedCount += records.size();
-                }
+
+        // 删除原始数据
+        Map<String, MetricsSeriesRing> instanceData = storage.remove(instanceId);
+        if (instanceData != null) {
+            for (MetricsSeriesRing ring : instanceData.values()) {
+                deletedCount += ring.size();
             }
-            
-            // 删除聚合数据
-            Map<String, Map<String, List<MetricsRecord>>> instanceAggregated = aggregatedStorage.remove(instanceId);
-            if (instanceAggregated != null) {
-                for (Map<String, List<MetricsRecord>> metricAggregated : instanceAggregated.values()) {
-                    for (List<MetricsRecord> records : metricAggregated.values()) {
-                        deletedCount += records.size();
-                    }
+        }
+
+        // 删除聚合数据
+        Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>> instanceAggregated = aggregatedStorage.remove(instanceId);
+        if (instanceAggregated != null) {
+            for (Map<String, ConcurrentNavigableMap<Long, MetricsRecord>> metricAggregated : instanceAggregated.values()) {
+                for (ConcurrentNavigableMap<Long, MetricsRecord> records : metricAggregated.values()) {
+                    deletedCount += records.size();
                 }
             }
-            
-            // 清理索引
-            recordIndex.entrySet().removeIf(entry -> instanceId.equals(entry.getValue().getInstanceId()));
-            
-            // 更新统计信息
-            totalRecords -= deletedCount;
-            recalculateStorageSize();
-        }
-        
+        }
+
         return deletedCount;
     }
-    
+
     @Override
     public int deleteByTimeRange(LocalDateTime startTime, LocalDateTime endTime) {
         return deleteExpiredRecords(endTime); // 删除结束时间之前的所有记录
     }
-    
+
     @Override
     public long countRecords(String instanceId, LocalDateTime startTime, LocalDateTime endTime) {
-        return findByInstanceId(instanceId, startTime, endTime).size();
+        Map<String, MetricsSeriesRing> instanceData = storage.get(instanceId);
+        if (instanceData == null) {
+            return 0;
+        }
+
+        long count = 0;
+        for (MetricsSeriesRing ring : instanceData.values()) {
+            count += ring.range(fromMillis(startTime), toMillis(endTime)).size();
+        }
+        return count;
     }
-    
+
     @Override
     public long getStorageSize() {
-        return totalStorageSize;
+        long size = 0;
+        for (Map<String, MetricsSeriesRing> instanceData : storage.values()) {
+            for (MetricsSeriesRing ring : instanceData.values()) {
+                size += ring.footprintBytes();
+            }
+        }
+        for (Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>> instanceAggregated : aggregatedStorage.values()) {
+            for (Map<String, ConcurrentNavigableMap<Long, MetricsRecord>> metricAggregated : instanceAggregated.values()) {
+                for (ConcurrentNavigableMap<Long, MetricsRecord> records : metricAggregated.values()) {
+                    for (MetricsRecord record : records.values()) {
+                        size += estimateRecordSize(record);
+                    }
+                }
+            }
+        }
+        return size;
     }
-    
+
     @Override
     public List<String> getAllInstanceIds() {
         return new ArrayList<>(storage.keySet());
     }
-    
+
     @Override
     public List<String> getMetricNames(String instanceId) {
-        Map<String, List<MetricsRecord>> instanceData = storage.get(instanceId);
+        Map<String, MetricsSeriesRing> instanceData = storage.get(instanceId);
         return instanceData != null ? new ArrayList<>(instanceData.keySet()) : new ArrayList<>();
     }
-    
+
     @Override
     public boolean isHealthy() {
         return true; // 内存存储总是健康的
     }
-    
+
     @Override
     public Map<String, Object> getRepositoryInfo() {
         Map<String, Object> info = new HashMap<>();
+
+        // 统计各实例的记录数
+        Map<String, Long> instanceStats = new HashMap<>();
+        long totalRecords = 0;
+        int seriesCount = 0;
+        for (Map.Entry<String, Map<String, MetricsSeriesRing>> entry : storage.entrySet()) {
+            long count = 0;
+            for (MetricsSeriesRing ring : entry.getValue().values()) {
+                count += ring.size();
+                seriesCount++;
+            }
+            instanceStats.put(entry.getKey(), count);
+            totalRecords += count;
+        }
+        for (Map<String, Map<String, ConcurrentNavigableMap<Long, MetricsRecord>>> instanceAggregated : aggregatedStorage.values()) {
+            for (Map<String, ConcurrentNavigableMap<Long, MetricsRecord>> metricAggregated : instanceAggregated.values()) {
+                for (ConcurrentNavigableMap<Long, MetricsRecord> records : metricAggregated.values()) {
+                    totalRecords += records.size();
+                }
+            }
+        }
+
         info.put("type", "InMemory");
+        info.put("engine", "ColumnarRing");
+        info.put("seriesCapacity", seriesCapacity);
+        info.put("seriesCount", seriesCount);
         info.put("totalRecords", totalRecords);
-        info.put("storageSize", totalStorageSize);
+        info.put("storageSize", getStorageSize());
         info.put("instanceCount", storage.size());
         info.put("createTime", createTime);
         info.put("uptime", ChronoUnit.SECONDS.between(createTime, LocalDateTime.now()));
         info.put("healthy", isHealthy());
-        
-        // 统计各实例的记录数
-        Map<String, Long> instanceStats = new HashMap<>();
-        for (Map.Entry<String, Map<String, List<MetricsRecord>>> entry : storage.entrySet()) {
-            long count = entry.getValue().values().stream()
-                    .mapToLong(List::size)
-                    .sum();
-            instanceStats.put(entry.getKey(), count);
-        }
         info.put("instanceStats", instanceStats);
-        
+
         return info;
     }
-    
+
     /**
      * 保存原始记录
      */
     private void saveRawRecord(MetricsRecord record) {
-        storage.computeIfAbsent(record.getInstanceId(), k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(record.getMetricName(), k -> new CopyOnWriteArrayList<>())
-                .add(record);
+        MetricsSeriesRing ring = storage.computeIfAbsent(record.getInstanceId(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(record.getMetricName(), k -> new MetricsSeriesRing(capacityOf(k)));
+        if (!Objects.equals(ring.getUnit(), record.getUnit()) || !Objects.equals(ring.getSource(), record.getSource())) {
+            ring.describe(record.getUnit(), record.getSource());
+        }
+        ring.append(toMillis(record.getTimestamp()), record.getMetricValue());
     }
-    
+
     /**
      * 保存聚合记录
      */
     private void saveAggregatedRecord(MetricsRecord record) {
         String key = record.getAggregationType() + "_" + record.getAggregationInterval();
-        
+
         aggregatedStorage.computeIfAbsent(record.getInstanceId(), k -> new ConcurrentHashMap<>())
                 .computeIfAbsent(record.getMetricName(), k -> new ConcurrentHashMap<>())
-                .computeIfAbsent(key, k -> new CopyOnWriteArrayList<>())
-                .add(record);
+                .computeIfAbsent(key, k -> new ConcurrentSkipListMap<>())
+                .put(toMillis(record.getTimestamp()), record);
+    }
+
+    /**
+     * 对原始样本按聚合间隔降采样，生成与预聚合记录同构的记录
+     */
+    private List<MetricsRecord> downsample(String instanceId, String metricName, String aggregationType,
+                                           Integer interval, LocalDateTime startTime, LocalDateTime endTime) {
+        MetricsSeriesRing ring = getSeries(instanceId, metricName);
+        if (ring == null || interval == null || interval <= 0 || aggregationType == null
+                || !AGGREGATION_TYPES.contains(aggregationType.toUpperCase())) {
+            return new ArrayList<>();
+        }
+
+        long bucketMillis = interval * 60_000L;
+        MetricsSeriesRing.Buckets buckets = ring.downsample(fromMillis(startTime), toMillis(endTime), bucketMillis);
+        List<MetricsRecord> records = new ArrayList<>(buckets.asMap().size());
+        for (Map.Entry<Long, double[]> bucket : buckets.asMap().entrySet()) {
+            records.add(MetricsRecord.createAggregatedRecord(instanceId, metricName, aggregationType,
+                    MetricsSeriesRing.Buckets.valueOf(bucket.getValue(), aggregationType),
+                    ring.getUnit(), ring.getSource(),
+                    toDateTime(bucket.getKey()), toDateTime(bucket.getKey() + bucketMillis), interval));
+        }
+        return records;
+    }
+
+    /**
+     * 指标的环容量，每个环按容量预先分配 20 字节/样本
+     */
+    int capacityOf(String metricName) {
+        Map<String, Integer> capacities = capacityByMetric;
+        if (capacities == null) {
+            capacities = new HashMap<>();
+            if (seriesCapacities != null) {
+                for (String item : seriesCapacities.split(",")) {
+                    int separator = item.lastIndexOf(':');
+                    if (separator <= 0) {
+                        continue;
+                    }
+                    try {
+                        int capacity = Integer.parseInt(item.substring(separator + 1).trim());
+                        if (capacity > 0) {
+                            capacities.put(item.substring(0, separator).trim(), capacity);
+                        }
+                    } catch (NumberFormatException ignored) {
+                        // 格式错误的项按未配置处理
+                    }
+                }
+            }
+            capacityByMetric = capacities;
+        }
+        return capacities.getOrDefault(metricName, seriesCapacity);
+    }
+
+    private MetricsSeriesRing getSeries(String instanceId, String metricName) {
+        Map<String, MetricsSeriesRing> instanceData = storage.get(instanceId);
+        return instanceData != null ? instanceData.get(metricName) : null;
     }
-    
+
     /**
-     * 按时间范围过滤记录
+     * 从 from 下标开始把快照中的样本转换为记录
      */
-    private List<MetricsRecord> filterByTimeRange(List<MetricsRecord> records, 
-                                                 LocalDateTime startTime, LocalDateTime endTime) {
-        if (startTime == null && endTime == null) {
-            return new ArrayList<>(records);
-        }
-        
-        return records.stream()
-                .filter(record -> {
-                    LocalDateTime timestamp = record.getTimestamp();
-                    boolean afterStart = startTime == null || !timestamp.isBefore(startTime);
-                    boolean beforeEnd = endTime == null || !timestamp.isAfter(endTime);
-                    return afterStart && beforeEnd;
-                })
-                .collect(Collectors.toList());
+    private List<MetricsRecord> toRecords(String instanceId, String metricName, MetricsSeriesRing ring,
+                                          MetricsSeriesRing.Snapshot samples, int from) {
+        List<MetricsRecord> records = new ArrayList<>(Math.max(0, samples.size() - from));
+        for (int i = from; i < samples.size(); i++) {
+            records.add(toRecord(instanceId, metricName, ring, samples, i));
+        }
+        return records;
     }
-    
+
+    private MetricsRecord toRecord(String instanceId, String metricName, MetricsSeriesRing ring,
+                                   MetricsSeriesRing.Snapshot samples, int index) {
+        MetricValue value = new MetricValue(metricName, samples.valueAt(index), ring.getUnit(),
+                toDateTime(samples.timestampAt(index)), ring.getSource());
+        return new MetricsRecord(instanceId, value);
+    }
+
+    private static long fromMillis(LocalDateTime startTime) {
+        return startTime == null ? Long.MIN_VALUE : toMillis(startTime);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time == null ? Long.MAX_VALUE : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
     /**
      * 估算记录大小
      */
@@ -401,13 +529,4 @@ public class InMemoryMetricsRepository implements MetricsRepository {
         if (record.getAggregationType() != null) size += record.getAggregationType().length() * 2;
         return size;
     }
-    
-    /**
-     * 重新计算存储大小
-     */
-    private void recalculateStorageSize() {
-        totalStorageSize = recordIndex.values().stream()
-                .mapToLong(this::estimateRecordSize)
-                .sum();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,411 @@
+package com.jiuxi.platform.monitoring.infrastructure.storage;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个指标的列式环形时序缓冲区
+ * <pre>
+ *     1. 时间戳（毫秒）与数值分别存放在定长 long[] / double[] 中，另有 int[] 发布戳，每个样本 20 字节
+ *     2. 写入无锁且互不等待：原子自增领取序号，先作废槽位发布戳，写入数据后再发布新戳
+ *     3. 写满后覆盖最旧的样本；读线程按发布戳前后两次校验，丢弃未发布或读取中被覆盖的槽位
+ *     4. 写入后与相邻序号比较时间戳，记录最近一次乱序的序号；保留区间内没有乱序时，
+ *        查询直接在槽位上按序号二分查找，只复制命中的样本，否则退化为线性扫描
+ * </pre>
+ *
+ * @author DDD Refactor
+ * @date 2025-09-11
+ */
+public class MetricsSeriesRing {
+
+    private static final VarHandle STAMPS = MethodHandles.arrayElementVarHandle(int[].class);
+
+    /**
+     * 槽位不可读（未发布或读取中被覆盖）时 {@link #readTimestamp} 的返回值
+     */
+    private static final long UNREADABLE = Long.MIN_VALUE;
+
+    private final long[] timestamps;
+    private final double[] values;
+    // 槽位当前样本的序号 + 1（截断为 int），0 表示未发布或正在写入
+    private final int[] stamps;
+    private final int mask;
+
+    // 已领取的下一个序号
+    private final AtomicLong claimed = new AtomicLong();
+    // 逻辑删除的下界，小于该序号的样本视为已过期
+    private final AtomicLong floor = new AtomicLong();
+    // 最近一次乱序的序号：该序号的时间戳小于前一个序号的时间戳，-1 表示从未乱序
+    private final AtomicLong lastDisorder = new AtomicLong(-1);
+
+    private volatile String unit;
+    private volatile String source;
+
+    public MetricsSeriesRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("容量必须大于0");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.timestamps = new long[size];
+        this.values = new double[size];
+        this.stamps = new int[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * 追加一个样本
+     */
+    public void append(long timestamp, double value) {
+        long seq = claimed.getAndIncrement();
+        int slot = (int) (seq & mask);
+
+        // 先作废，读线程在读取过程中看到戳变化即丢弃该槽位
+        STAMPS.setVolatile(stamps, slot, 0);
+        // volatile 写不阻止其后的普通写提前，需要屏障保证数据写入不早于作废对读线程可见
+        VarHandle.storeStoreFence();
+        timestamps[slot] = timestamp;
+        values[slot] = value;
+        // 发布与读取相邻槽位都是 volatile 访问：相邻两个写线程至少有一个能看到对方已发布，乱序不会漏记
+        STAMPS.setVolatile(stamps, slot, stampOf(seq));
+
+        if (seq > 0) {
+            long previous = readTimestamp(seq - 1);
+            if (previous != UNREADABLE && timestamp < previous) {
+                lastDisorder.accumulateAndGet(seq, Math::max);
+            }
+        }
+        long next = readTimestamp(seq + 1);
+        if (next != UNREADABLE && next < timestamp) {
+            lastDisorder.accumulateAndGet(seq + 1, Math::max);
+        }
+    }
+
+    /**
+     * 复制 [fromMillis, toMillis] 内的样本，按写入顺序返回
+     */
+    public Snapshot range(long fromMillis, long toMillis) {
+        long end = claimed.get();
+        long start = firstSeq(end);
+        if (isOrdered(start)) {
+            long from = lowerBound(start, end, fromMillis);
+            long to = upperBound(from, end, toMillis);
+            return copy(from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+        return copy(start, end, fromMillis, toMillis);
+    }
+
+    /**
+     * 按固定桶宽对 [fromMillis, toMillis] 降采样，每个桶给出 count/sum/min/max，直接读取槽位不复制
+     */
+    public Buckets downsample(long fromMillis, long toMillis, long bucketMillis) {
+        if (bucketMillis <= 0) {
+            throw new IllegalArgumentException("桶宽必须大于0");
+        }
+        long end = claimed.get();
+        long start = firstSeq(end);
+        boolean ordered = isOrdered(start);
+        long from = ordered ? lowerBound(start, end, fromMillis) : start;
+        long to = ordered ? upperBound(from, end, toMillis) : end;
+
+        Buckets buckets = new Buckets();
+        for (long seq = from; seq < to; seq++) {
+            int slot = (int) (seq & mask);
+            int stamp = stampOf(seq);
+            if ((int) STAMPS.getAcquire(stamps, slot) != stamp) {
+                continue;
+            }
+            long timestamp = timestamps[slot];
+            double value = values[slot];
+            VarHandle.loadLoadFence();
+            if ((int) STAMPS.getAcquire(stamps, slot) != stamp || timestamp < fromMillis || timestamp > toMillis) {
+                continue;
+            }
+            buckets.accept(Math.floorDiv(timestamp, bucketMillis) * bucketMillis, value);
+        }
+        return buckets;
+    }
+
+    /**
+     * 时间戳最新的一个样本，没有样本时返回空快照；没有乱序时只读取最新的已发布槽位
+     */
+    public Snapshot latest() {
+        long end = claimed.get();
+        long start = firstSeq(end);
+        boolean ordered = isOrdered(start);
+        long newest = -1;
+        long newestTimestamp = Long.MIN_VALUE;
+        for (long seq = end - 1; seq >= start; seq--) {
+            long timestamp = readTimestamp(seq);
+            if (timestamp == UNREADABLE) {
+                continue;
+            }
+            if (newest < 0 || timestamp > newestTimestamp) {
+                newest = seq;
+                newestTimestamp = timestamp;
+            }
+            if (ordered) {
+                break;
+            }
+        }
+        if (newest < 0) {
+            return new Snapshot(new long[0], new double[0], 0, true);
+        }
+        Snapshot one = copy(newest, newest + 1, Long.MIN_VALUE, Long.MAX_VALUE);
+        // 读取后被覆盖时退回到完整扫描
+        return one.size == 1 || ordered ? one : latest();
+    }
+
+    /**
+     * 逻辑删除时间早于 expireMillis 的样本，返回删除数量
+     * <p>待删除的区间内有写入正在进行时本轮跳过，留给下一次清理</p>
+     */
+    public int expireBefore(long expireMillis) {
+        long end = claimed.get();
+        long start = firstSeq(end);
+        long cut;
+        if (isOrdered(start)) {
+            cut = lowerBound(start, end, expireMillis);
+            for (long seq = start; seq < cut; seq++) {
+                if (readTimestamp(seq) == UNREADABLE) {
+                    return 0;
+                }
+            }
+        } else {
+            // 乱序时只删除从头开始连续过期的部分
+            cut = start;
+            while (cut < end) {
+                long timestamp = readTimestamp(cut);
+                if (timestamp == UNREADABLE) {
+                    return 0;
+                }
+                if (timestamp >= expireMillis) {
+                    break;
+                }
+                cut++;
+            }
+        }
+        if (cut == start) {
+            return 0;
+        }
+
+        long current = floor.get();
+        while (current < cut) {
+            if (floor.compareAndSet(current, cut)) {
+                return (int) (cut - Math.max(current, start));
+            }
+            current = floor.get();
+        }
+        return 0;
+    }
+
+    /**
+     * 当前保留的样本数（含正在写入的样本）
+     */
+    public int size() {
+        long end = claimed.get();
+        return (int) Math.max(0, end - firstSeq(end));
+    }
+
+    public int capacity() {
+        return timestamps.length;
+    }
+
+    /**
+     * 三个数组占用的堆内存（字节），不含对象头
+     */
+    public long footprintBytes() {
+        return (long) timestamps.length * (Long.BYTES + Double.BYTES + Integer.BYTES);
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void describe(String unit, String source) {
+        this.unit = unit;
+        this.source = source;
+    }
+
+    /**
+     * 保留区间的起始序号：未过期且未被覆盖
+     */
+    private long firstSeq(long end) {
+        return Math.max(Math.max(floor.get(), end - timestamps.length), 0);
+    }
+
+    /**
+     * 从 start 开始的样本是否按时间戳有序：最近一次乱序发生在 start 及之前时，区间内相邻样本都有序
+     */
+    private boolean isOrdered(long start) {
+        return lastDisorder.get() <= start;
+    }
+
+    /**
+     * 读取序号 seq 的时间戳，槽位未发布、已被其它序号占用或读取中被覆盖时返回 {@link #UNREADABLE}
+     */
+    private long readTimestamp(long seq) {
+        int slot = (int) (seq & mask);
+        int stamp = stampOf(seq);
+        if ((int) STAMPS.getVolatile(stamps, slot) != stamp) {
+            return UNREADABLE;
+        }
+        long timestamp = timestamps[slot];
+        VarHandle.loadLoadFence();
+        return (int) STAMPS.getAcquire(stamps, slot) == stamp ? timestamp : UNREADABLE;
+    }
+
+    /**
+     * 复制序号 [from, to) 中时间戳在 [fromMillis, toMillis] 内的样本，跳过不可读的槽位
+     */
+    private Snapshot copy(long from, long to, long fromMillis, long toMillis) {
+        int length = (int) Math.max(0, to - from);
+        long[] ts = new long[length];
+        double[] vs = new double[length];
+        int count = 0;
+        boolean ordered = true;
+        for (long seq = from; seq < to; seq++) {
+            int slot = (int) (seq & mask);
+            int stamp = stampOf(seq);
+            if ((int) STAMPS.getAcquire(stamps, slot) != stamp) {
+                continue;
+            }
+            long timestamp = timestamps[slot];
+            double value = values[slot];
+            VarHandle.loadLoadFence();
+            if ((int) STAMPS.getAcquire(stamps, slot) != stamp || timestamp < fromMillis || timestamp > toMillis) {
+                continue;
+            }
+            if (count > 0 && timestamp < ts[count - 1]) {
+                ordered = false;
+            }
+            ts[count] = timestamp;
+            vs[count] = value;
+            count++;
+        }
+        return new Snapshot(ts, vs, count, ordered);
+    }
+
+    /**
+     * 序号 [low, high) 中第一个时间戳不小于 key 的序号，跳过不可读的槽位
+     */
+    private long lowerBound(long low, long high, long key) {
+        return search(low, high, key, false);
+    }
+
+    /**
+     * 序号 [low, high) 中第一个时间戳大于 key 的序号，跳过不可读的槽位
+     */
+    private long upperBound(long low, long high, long key) {
+        return search(low, high, key, true);
+    }
+
+    private long search(long low, long high, long key, boolean inclusive) {
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            // 不可读的槽位向后找最近的可读槽位比较，区间内都不可读时视为不小于 key
+            long probe = mid;
+            long timestamp = readTimestamp(probe);
+            while (timestamp == UNREADABLE && ++probe < high) {
+                timestamp = readTimestamp(probe);
+            }
+            if (timestamp == UNREADABLE) {
+                high = mid;
+            } else if (inclusive ? timestamp <= key : timestamp < key) {
+                low = probe + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int stampOf(long seq) {
+        int stamp = (int) (seq + 1);
+        return stamp == 0 ? 1 : stamp;
+    }
+
+    /**
+     * 样本快照，列式存放
+     */
+    public static class Snapshot {
+        private final long[] timestamps;
+        private final double[] values;
+        private final int size;
+        private final boolean ordered;
+
+        Snapshot(long[] timestamps, double[] values, int size, boolean ordered) {
+            this.timestamps = timestamps;
+            this.values = values;
+            this.size = size;
+            this.ordered = ordered;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public long timestampAt(int index) {
+            return timestamps[index];
+        }
+
+        public double valueAt(int index) {
+            return values[index];
+        }
+
+        public boolean isOrdered() {
+            return ordered;
+        }
+    }
+
+    /**
+     * 降采样结果，按桶起始时间升序
+     */
+    public static class Buckets {
+        private final TreeMap<Long, double[]> buckets = new TreeMap<>();
+
+        void accept(long bucketStart, double value) {
+            double[] stats = buckets.computeIfAbsent(bucketStart,
+                    k -> new double[]{0, 0, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY});
+            stats[0]++;
+            stats[1] += value;
+            stats[2] = Math.min(stats[2], value);
+            stats[3] = Math.max(stats[3], value);
+        }
+
+        public NavigableMap<Long, double[]> asMap() {
+            return buckets;
+        }
+
+        /**
+         * 取桶内的聚合值，type 为 AVG/MAX/MIN/SUM/COUNT
+         */
+        public static double valueOf(double[] stats, String type) {
+            switch (type == null ? "AVG" : type.toUpperCase()) {
+                case "MAX":
+                    return stats[3];
+                case "MIN":
+                    return stats[2];
+                case "SUM":
+                    return stats[1];
+                case "COUNT":
+                    return stats[0];
+                default:
+                    return stats[0] == 0 ? 0.0 : stats[1] / stats[0];
+            }
+        }
+
+        public boolean isEmpty() {
+            return buckets.isEmpty();
+        }
+    }
+}
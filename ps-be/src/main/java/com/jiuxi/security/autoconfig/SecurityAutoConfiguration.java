@@ -3,6 +3,8 @@ package com.jiuxi.security.autoconfig;
 import com.jiuxi.shared.infrastructure.cache.RedisCacheService;
 import com.jiuxi.security.core.conditional.ConditionalAccountExinfo;
 import com.jiuxi.security.core.config.SecurityWebMvcConfigurer;
+import com.jiuxi.security.core.holder.TokenContextCache;
+import com.jiuxi.security.core.holder.TokenContextHolder;
 import com.jiuxi.security.core.interceptor.AnalysisTokenHandlerInterceptor;
 import com.jiuxi.security.core.interceptor.AuthenticationHandlerInterceptor;
 import com.jiuxi.security.core.interceptor.AuthorizationHandlerInterceptor;
@@ -102,7 +104,19 @@ public class SecurityAutoConfiguration {
         // 获取鉴权的模式
         //String mode = properties.getAuthorization().getAuthorizationMode();
 
-        return new AuthorizationHandlerInterceptor(token, authorizationService);
+        return new AuthorizationHandlerInterceptor(token, authorizationService, securityPolicyRegistry());
+    }
+
+    /**
+     * 接口安全策略注册表，启动时解析鉴权注解
+     *
+     * @return com.jiuxi.security.core.service.SecurityPolicyRegistry
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    @Bean
+    public SecurityPolicyRegistry securityPolicyRegistry() {
+        return new SecurityPolicyRegistryImpl(properties.getAuthorization().isPolicyFailFast());
     }
 
     /**
@@ -358,6 +372,20 @@ public class SecurityAutoConfiguration {
         return new TpRoleAuthorizationLisenter();
     }
 
+    /**
+     * 鉴权内存索引，角色菜单授权常驻内存，鉴权时不访问数据库或redis
+     *
+     * @return com.jiuxi.security.core.service.AuthorizationIndexService
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "topinfo.security.authorization", name = "index-enabled", havingValue = "true", matchIfMissing = true)
+    public AuthorizationIndexService authorizationIndexService() {
+        return new AuthorizationIndexServiceImpl();
+    }
+
     /**
      * 鉴权的缓存操作
      *
@@ -384,6 +412,20 @@ public class SecurityAutoConfiguration {
         return new TopinfoSecurityLogoutServiceImpl();
     }
 
+    /**
+     * 已校验 token 的本地缓存，按配置容量创建并交给 TokenContextHolder 使用
+     *
+     * @return com.jiuxi.security.core.holder.TokenContextCache
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    @Bean
+    public TokenContextCache tokenContextCache() {
+        TokenContextCache tokenContextCache = new TokenContextCache(properties.getAuthentication().getTokenCacheSize());
+        TokenContextHolder.setCache(tokenContextCache);
+        return tokenContextCache;
+    }
+
     /**
      * 许可证缓存服务
      * @return
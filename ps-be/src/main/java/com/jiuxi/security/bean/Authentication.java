@@ -76,6 +76,11 @@ public class Authentication {
      */
     private boolean checkLogoutToken = false;
 
+    /**
+     * 已校验 token 的本地缓存容量，默认 10000，即最多缓存 10000 个在线 token 的解析结果
+     */
+    private int tokenCacheSize = 10000;
+
     public String[] getExcludePaths() {
         return excludePaths;
     }
@@ -204,4 +209,12 @@ public class Authentication {
     public void setCheckLogoutToken(boolean checkLogoutToken) {
         this.checkLogoutToken = checkLogoutToken;
     }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    public void setTokenCacheSize(int tokenCacheSize) {
+        this.tokenCacheSize = tokenCacheSize;
+    }
 }
@@ -14,6 +14,21 @@ public class Authorization {
      */
     private String tokenHeader = "Token";
 
+    /**
+     * 是否启用鉴权内存索引，默认启用
+     */
+    private boolean indexEnabled = true;
+
+    /**
+     * 鉴权内存索引多节点版本同步间隔，单位毫秒，默认 30 秒
+     */
+    private long indexSyncInterval = 30000;
+
+    /**
+     * 接口鉴权注解配置冲突时是否启动失败，默认 true；false 则只打印警告
+     */
+    private boolean policyFailFast = true;
+
     public String getTokenHeader() {
         return tokenHeader;
     }
@@ -22,4 +37,27 @@ public class Authorization {
         this.tokenHeader = tokenHeader;
     }
 
+    public boolean isIndexEnabled() {
+        return indexEnabled;
+    }
+
+    public void setIndexEnabled(boolean indexEnabled) {
+        this.indexEnabled = indexEnabled;
+    }
+
+    public long getIndexSyncInterval() {
+        return indexSyncInterval;
+    }
+
+    public void setIndexSyncInterval(long indexSyncInterval) {
+        this.indexSyncInterval = indexSyncInterval;
+    }
+
+    public boolean isPolicyFailFast() {
+        return policyFailFast;
+    }
+
+    public void setPolicyFailFast(boolean policyFailFast) {
+        this.policyFailFast = policyFailFast;
+    }
 }
@@ -11,6 +11,7 @@ import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import com.jiuxi.security.autoconfig.SecurityConfigurationProperties;
 import com.jiuxi.security.core.entity.vo.AccountThirdVO;
 import com.jiuxi.security.core.entity.vo.AccountVO;
+import com.jiuxi.security.core.holder.TokenContextHolder;
 import com.jiuxi.security.core.service.*;
 import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
@@ -326,4 +327,16 @@ public class SecurityPlatformController {
 
         return JsonResponse.buildSuccess();
     }
+
+    /**
+     * token 解析缓存统计，用于确认缓存命中情况
+     *
+     * @return com.jiuxi.common.bean.JsonResponse
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    @RequestMapping("/token-cache-stats")
+    public JsonResponse tokenCacheStats() {
+        return JsonResponse.buildSuccess(TokenContextHolder.getCache().getStats());
+    }
 }
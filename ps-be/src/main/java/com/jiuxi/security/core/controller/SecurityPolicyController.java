@@ -0,0 +1,43 @@
+package com.jiuxi.security.core.controller;
+
+import com.jiuxi.common.bean.JsonResponse;
+import com.jiuxi.security.core.entity.vo.SecurityPolicyVO;
+import com.jiuxi.security.core.service.SecurityPolicyRegistry;
+import com.jiuxi.shared.common.annotation.Authorization;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * @ClassName: SecurityPolicyController
+ * @Description: 接口安全策略查询，用于核对各接口的鉴权配置
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+@RestController
+@RequestMapping("/security")
+@Authorization
+public class SecurityPolicyController {
+
+    @Autowired
+    private SecurityPolicyRegistry securityPolicyRegistry;
+
+    /**
+     * 查询所有接口的安全策略
+     *
+     * @return com.jiuxi.common.bean.JsonResponse
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    @RequestMapping("/policies")
+    public JsonResponse policies() {
+        List<SecurityPolicyVO> list = new ArrayList<>(securityPolicyRegistry.getPolicies());
+        list.sort(Comparator.comparing(SecurityPolicyVO::getHandler));
+        return JsonResponse.buildSuccess(list);
+    }
+}
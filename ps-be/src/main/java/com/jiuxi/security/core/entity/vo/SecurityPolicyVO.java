@@ -0,0 +1,119 @@
+package com.jiuxi.security.core.entity.vo;
+
+import java.util.Set;
+
+/**
+ * @ClassName: SecurityPolicyVO
+ * @Description: 接口安全策略描述，启动时由注解解析一次，请求期间只读
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class SecurityPolicyVO {
+
+    /**
+     * 策略来源：方法注解
+     */
+    public static final String SOURCE_METHOD = "METHOD";
+
+    /**
+     * 策略来源：类注解
+     */
+    public static final String SOURCE_CLASS = "CLASS";
+
+    /**
+     * 策略来源：无注解
+     */
+    public static final String SOURCE_NONE = "NONE";
+
+    /**
+     * 处理方法，格式：类名#方法名
+     */
+    private final String handler;
+
+    /**
+     * 请求地址
+     */
+    private final Set<String> patterns;
+
+    /**
+     * 请求方式
+     */
+    private final Set<String> methods;
+
+    /**
+     * 是否忽略鉴权（@IgnoreAuthorization）
+     */
+    private final boolean ignore;
+
+    /**
+     * 是否需要鉴权（方法或类上有 @Authorization，且未忽略）
+     */
+    private final boolean protect;
+
+    /**
+     * 是否需要角色鉴权
+     */
+    private final boolean roleAuth;
+
+    /**
+     * 横向越权的业务key，为空则不需要横向越权校验
+     */
+    private final String businessKey;
+
+    /**
+     * 注解来源：METHOD、CLASS、NONE
+     */
+    private final String source;
+
+    public SecurityPolicyVO(String handler, Set<String> patterns, Set<String> methods, boolean ignore, boolean protect,
+                            boolean roleAuth, String businessKey, String source) {
+        this.handler = handler;
+        this.patterns = patterns;
+        this.methods = methods;
+        this.ignore = ignore;
+        this.protect = protect;
+        this.roleAuth = roleAuth;
+        this.businessKey = businessKey;
+        this.source = source;
+    }
+
+    public String getHandler() {
+        return handler;
+    }
+
+    public Set<String> getPatterns() {
+        return patterns;
+    }
+
+    public Set<String> getMethods() {
+        return methods;
+    }
+
+    public boolean isIgnore() {
+        return ignore;
+    }
+
+    public boolean isProtect() {
+        return protect;
+    }
+
+    public boolean isRoleAuth() {
+        return roleAuth;
+    }
+
+    public String getBusinessKey() {
+        return businessKey;
+    }
+
+    /**
+     * 超级管理员是否直接放行，需要鉴权的接口超级管理员均放行
+     */
+    public boolean isSuperAdminBypass() {
+        return protect;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jiuxi.security.core.holder;
+
+import com.alibaba.fastjson.JSON;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.jiuxi.common.bean.SessionVO;
+import com.jiuxi.common.util.JwtUtil;
+import org.springframework.beans.BeanUtils;
+
+import java.util.Date;
+
+/**
+ * @ClassName: TokenContext
+ * @Description: 已校验的 token 上下文，一次请求内只验签、解密、解析一次，供拦截器链、参数解析器、退出登录校验共用
+ * @Author: jiuxx
+ * @Date: 2026/10/18 10:20
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class TokenContext {
+
+    /**
+     * 原始 token
+     */
+    private final String token;
+
+    /**
+     * 已验签的 jwt
+     */
+    private final DecodedJWT jwt;
+
+    /**
+     * token 唯一标识
+     */
+    private final String jti;
+
+    /**
+     * 解密后的会话信息，首次使用时解析；上下文会被缓存并跨请求共享，不直接交给调用方
+     */
+    private volatile SessionVO session;
+
+    public TokenContext(String token, DecodedJWT jwt) {
+        this.token = token;
+        this.jwt = jwt;
+        this.jti = JwtUtil.getJti(jwt);
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public DecodedJWT getJwt() {
+        return jwt;
+    }
+
+    /**
+     * token 唯一标识
+     */
+    public String getJti() {
+        return jti;
+    }
+
+    /**
+     * token 过期时间
+     */
+    public Date getExpiresAt() {
+        return jwt.getExpiresAt();
+    }
+
+    /**
+     * 获取会话信息，SM4 解密 + JSON 解析只执行一次；每次返回副本，调用方修改不会影响使用同一 token 的其它请求
+     *
+     * @return com.jiuxi.common.bean.SessionVO
+     * @author jiuxx
+     * @date 2026/10/18 10:20
+     */
+    public SessionVO getSession() {
+        SessionVO sessionVO = session;
+        if (null == sessionVO) {
+            String sub = JwtUtil.getToken(jwt);
+            sessionVO = JSON.parseObject(sub, SessionVO.class);
+            session = sessionVO;
+        }
+        if (null == sessionVO) {
+            return null;
+        }
+        // SessionVO 的字段都是 String/Integer，浅拷贝即可
+        SessionVO copy = new SessionVO();
+        BeanUtils.copyProperties(sessionVO, copy);
+        return copy;
+    }
+}
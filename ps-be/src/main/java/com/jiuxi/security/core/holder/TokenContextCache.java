@@ -0,0 +1,240 @@
+package com.jiuxi.security.core.holder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @ClassName: TokenContextCache
+ * @Description: 已校验 token 上下文的进程内缓存，key 为完整 token，到 token 过期时间自动失效，退出登录时按 jti 立即剔除；
+ *               达到容量时在后台线程清理，请求线程不遍历、不排序，清理完成前最多超出容量的 1/8，再多则不缓存新 token
+ * @Author: jiuxx
+ * @Date: 2026/10/18 14:30
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class TokenContextCache {
+
+    /**
+     * 默认缓存容量
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
+
+    /**
+     * 缓存满时一次淘汰的比例，1/8，同时也是后台清理完成前允许超出容量的比例
+     */
+    private static final int EVICT_DIVISOR = 8;
+
+    /**
+     * 缓存容量
+     */
+    private final int capacity;
+
+    /**
+     * 超出该大小时不再缓存新 token，直到后台清理完成
+     */
+    private final int hardLimit;
+
+    /**
+     * 执行清理，默认每次新建一个守护线程，清理期间只会有一个
+     */
+    private final Executor pruner;
+
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    /**
+     * key: 完整 token，必须用完整 token 做 key，只用签名做 key 会放过篡改过 payload 的 token
+     */
+    private final Map<String, TokenContext> contexts = new ConcurrentHashMap<>();
+
+    /**
+     * key: jti    val: token，用于退出登录时剔除
+     */
+    private final Map<String, String> jtiIndex = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictCount = new LongAdder();
+
+    public TokenContextCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TokenContextCache(int capacity) {
+        this(capacity, task -> {
+            Thread thread = new Thread(task, "token-context-cache-pruner");
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    public TokenContextCache(int capacity, Executor pruner) {
+        this.capacity = capacity > 0 ? capacity : DEFAULT_CAPACITY;
+        this.hardLimit = this.capacity + Math.max(1, this.capacity / EVICT_DIVISOR);
+        this.pruner = pruner;
+    }
+
+    /**
+     * 获取缓存的 token 上下文，已过期的直接剔除
+     *
+     * @param token
+     * @return com.jiuxi.security.core.holder.TokenContext 未命中返回 null
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    public TokenContext get(String token) {
+        TokenContext context = contexts.get(token);
+        if (null == context) {
+            missCount.increment();
+            return null;
+        }
+        if (isExpired(context, System.currentTimeMillis())) {
+            remove(context);
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return context;
+    }
+
+    /**
+     * 放入缓存，没有过期时间或已过期（校验时的误差时间内）的 token 不缓存；达到容量时触发后台清理，超出上限时不缓存
+     *
+     * @param context
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    public void put(TokenContext context) {
+        if (isExpired(context, System.currentTimeMillis())) {
+            return;
+        }
+        if (contexts.size() >= capacity) {
+            schedulePrune();
+        }
+        if (contexts.size() >= hardLimit) {
+            return;
+        }
+        contexts.put(context.getToken(), context);
+        String jti = context.getJti();
+        if (null != jti) {
+            jtiIndex.put(jti, context.getToken());
+        }
+    }
+
+    /**
+     * 按 jti 剔除，退出登录时调用
+     *
+     * @param jti
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    public void evict(String jti) {
+        if (null == jti) {
+            return;
+        }
+        String token = jtiIndex.remove(jti);
+        if (null != token && null != contexts.remove(token)) {
+            evictCount.increment();
+        }
+    }
+
+    /**
+     * 提交后台清理，已有清理在执行时直接返回
+     */
+    private void schedulePrune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pruner.execute(() -> {
+                try {
+                    prune();
+                } finally {
+                    pruning.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pruning.set(false);
+        }
+    }
+
+    /**
+     * 清理：先剔除已过期的，仍然满的话按过期时间淘汰最早过期的 1/8，在后台线程执行
+     */
+    private void prune() {
+        if (contexts.size() < capacity) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<TokenContext> alive = new ArrayList<>(contexts.size());
+        for (TokenContext context : contexts.values()) {
+            if (isExpired(context, now)) {
+                remove(context);
+            } else {
+                alive.add(context);
+            }
+        }
+        int overflow = alive.size() - capacity + Math.max(1, capacity / EVICT_DIVISOR);
+        if (overflow <= 0) {
+            return;
+        }
+        alive.sort(Comparator.comparing(TokenContext::getExpiresAt));
+        for (int i = 0; i < overflow && i < alive.size(); i++) {
+            remove(alive.get(i));
+        }
+    }
+
+    private void remove(TokenContext context) {
+        if (contexts.remove(context.getToken(), context)) {
+            evictCount.increment();
+            String jti = context.getJti();
+            if (null != jti) {
+                jtiIndex.remove(jti, context.getToken());
+            }
+        }
+    }
+
+    private static boolean isExpired(TokenContext context, long now) {
+        Date expiresAt = context.getExpiresAt();
+        return null == expiresAt || expiresAt.getTime() <= now;
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * 缓存统计：容量、当前大小、命中、未命中、淘汰次数、命中率
+     *
+     * @return java.util.Map<java.lang.String, java.lang.Object>
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    public Map<String, Object> getStats() {
+        long hit = hitCount.sum();
+        long miss = missCount.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("capacity", capacity);
+        stats.put("size", contexts.size());
+        stats.put("hitCount", hit);
+        stats.put("missCount", miss);
+        stats.put("evictCount", evictCount.sum());
+        stats.put("hitRate", hit + miss == 0 ? 0D : (double) hit / (hit + miss));
+        return stats;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jiuxi.security.core.holder;
+
+import com.jiuxi.common.util.JwtUtil;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * @ClassName: TokenContextHolder
+ * @Description: 已校验 token 上下文持有，绑定在请求属性上，随请求结束自动释放；跨请求的复用由 TokenContextCache 负责
+ * @Author: jiuxx
+ * @Date: 2026/10/18 10:20
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class TokenContextHolder {
+
+    /**
+     * 请求属性 key
+     */
+    private static final String ATTRIBUTE_KEY = TokenContextHolder.class.getName() + ".CONTEXT";
+
+    /**
+     * 跨请求的 token 上下文缓存，由 SecurityAutoConfiguration 按配置替换
+     */
+    private static volatile TokenContextCache cache = new TokenContextCache();
+
+    /**
+     * 获取 token 上下文：当前请求已校验过同一个 token 时直接复用，其次取缓存，都没有时验签一次并绑定到当前请求
+     *
+     * @param token
+     * @return com.jiuxi.security.core.holder.TokenContext
+     * @throws RuntimeException token 校验失败，异常与 JwtUtil.checkToken 一致
+     * @author jiuxx
+     * @date 2026/10/18 10:20
+     */
+    public static TokenContext resolve(String token) throws RuntimeException {
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (null != attributes) {
+            Object current = attributes.getAttribute(ATTRIBUTE_KEY, RequestAttributes.SCOPE_REQUEST);
+            if (current instanceof TokenContext && ((TokenContext) current).getToken().equals(token)) {
+                return (TokenContext) current;
+            }
+        }
+
+        TokenContext context = cache.get(token);
+        if (null == context) {
+            context = new TokenContext(token, JwtUtil.decodeToken(token));
+            cache.put(context);
+        }
+        if (null != attributes) {
+            attributes.setAttribute(ATTRIBUTE_KEY, context, RequestAttributes.SCOPE_REQUEST);
+        }
+        return context;
+    }
+
+    /**
+     * 获取当前请求已校验的 token 上下文，未校验时返回 null
+     *
+     * @return com.jiuxi.security.core.holder.TokenContext
+     * @author jiuxx
+     * @date 2026/10/18 10:20
+     */
+    public static TokenContext get() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (null == attributes) {
+            return null;
+        }
+        return (TokenContext) attributes.getAttribute(ATTRIBUTE_KEY, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * 按 jti 剔除缓存的 token 上下文，退出登录时调用
+     *
+     * @param jti
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 14:30
+     */
+    public static void evict(String jti) {
+        cache.evict(jti);
+    }
+
+    public static TokenContextCache getCache() {
+        return cache;
+    }
+
+    public static void setCache(TokenContextCache tokenContextCache) {
+        cache = tokenContextCache;
+    }
+}
@@ -1,18 +1,14 @@
 package com.jiuxi.security.core.interceptor;
 
 import cn.hutool.core.util.StrUtil;
-import com.alibaba.fastjson.JSON;
-import com.auth0.jwt.interfaces.Claim;
-import com.jiuxi.common.util.JwtUtil;
-import com.jiuxi.common.bean.SessionVO;
 import com.jiuxi.security.core.holder.SessionHolder;
+import com.jiuxi.security.core.holder.TokenContextHolder;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.util.Map;
 
 /**
  * @ClassName: AnalysisTokenHandlerInterceptor
@@ -67,9 +63,8 @@ public class AnalysisTokenHandlerInterceptor implements HandlerInterceptor {
         }
 
         try{
-            String sub = JwtUtil.getToken(token);
-            SessionVO sessionVO = JSON.parseObject(sub, SessionVO.class);
-            SessionHolder.set(sessionVO);
+            // 认证拦截器已校验过的 token 直接复用，不再重复验签、解密
+            SessionHolder.set(TokenContextHolder.resolve(token).getSession());
         } catch (Exception e){
 
         }
@@ -2,10 +2,10 @@ package com.jiuxi.security.core.interceptor;
 
 import cn.hutool.core.util.StrUtil;
 import com.jiuxi.common.bean.SessionVO;
-import com.jiuxi.shared.common.annotation.Authorization;
-import com.jiuxi.shared.common.annotation.IgnoreAuthorization;
+import com.jiuxi.security.core.entity.vo.SecurityPolicyVO;
 import com.jiuxi.security.core.holder.SessionHolder;
 import com.jiuxi.security.core.service.AuthorizationService;
+import com.jiuxi.security.core.service.SecurityPolicyRegistry;
 import com.jiuxi.security.core.util.AuthorizationHorizontalUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +15,6 @@ import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
-import java.lang.reflect.Method;
 
 /**
  * @ClassName: AuthorizationHandlerInterceptor
@@ -38,9 +37,15 @@ public class AuthorizationHandlerInterceptor implements HandlerInterceptor {
      */
     private AuthorizationService authorizationService;
 
-    public AuthorizationHandlerInterceptor(String token_header, AuthorizationService service) {
+    /**
+     * 接口安全策略注册表
+     */
+    private SecurityPolicyRegistry securityPolicyRegistry;
+
+    public AuthorizationHandlerInterceptor(String token_header, AuthorizationService service, SecurityPolicyRegistry registry) {
         this.token_header = token_header;
         this.authorizationService = service;
+        this.securityPolicyRegistry = registry;
     }
 
 
@@ -67,51 +72,32 @@ public class AuthorizationHandlerInterceptor implements HandlerInterceptor {
             throw new RuntimeException("鉴权失败，缺少鉴权逻辑！");
         }
 
-        // handler强转为HandlerMethod
-        HandlerMethod handlerMethod = (HandlerMethod) handler;
-        // 获取方法
-        Method method = handlerMethod.getMethod();
-
-        // 获取方法上忽略鉴权的注解
-        IgnoreAuthorization ignoreAuthorization = method.getAnnotation(IgnoreAuthorization.class);
-        // 判断方法上面是否有忽略鉴权的注解, 有则放行
-        if (ignoreAuthorization != null) {
+        // 获取启动时解析好的安全策略，忽略鉴权或未配置鉴权注解，则放行
+        SecurityPolicyVO policy = securityPolicyRegistry.getPolicy((HandlerMethod) handler);
+        if (!policy.isProtect()) {
             return true;
         }
 
-        // 获取方法上面的 鉴权注解
-        Authorization authorization = method.getAnnotation(Authorization.class);
-        // 如果方法上没有鉴权注解，则判断类上面是否有
-        if (authorization == null) {
-            // 获取类上鉴权注解
-            authorization = method.getDeclaringClass().getAnnotation(Authorization.class);
-            // 判断类上面有注解, 如果没有注解，则放行
-            if (authorization == null) {
-                return true;
-            }
-        }
-
         // 获取头部的token信息
         SessionVO sessionVO = SessionHolder.get();
 
         // 获取 人员id
         String jwtpid = sessionVO.getPersonId();
 
-        if (StrUtil.equals(jwtpid, "1111111111111111111")) {
+        if (policy.isSuperAdminBypass() && StrUtil.equals(jwtpid, "1111111111111111111")) {
             // 如果是超级管理员，直接放行，操作所有的权限
             return true;
         }
 
         // 获取横向越权的 业务key
-        String businessKey = authorization.businessKey();
+        String businessKey = policy.getBusinessKey();
         // 如果配置了 横向越权，则进入横向越权校验，如果没配置，则跳过
         if (StrUtil.isNotBlank(businessKey)) {
             AuthorizationHorizontalUtil.authHorizontal(businessKey, request);
         }
 
         // 角色鉴权，默认需要true
-        boolean roleAuth = authorization.roleAuth();
-        if (!roleAuth) {
+        if (!policy.isRoleAuth()) {
             // 如果配置为false，则跳过角色鉴权
             return true;
         }
@@ -1,13 +1,17 @@
 package com.jiuxi.security.core.listener;
 
+import cn.hutool.core.util.StrUtil;
 import com.jiuxi.shared.infrastructure.messaging.event.TpRoleAuthorizationEvent;
 import com.jiuxi.security.core.service.AuthorizationCacheService;
+import com.jiuxi.security.core.service.AuthorizationIndexService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 /**
  * @ClassName: TpRoleAuthorizationLisenter
- * @Description: 角色授权的监听，用于清除 角色菜单的缓存
+ * @Description: 角色授权的监听，用于清除 角色菜单的缓存，并更新鉴权内存索引
  * @Author: Ypp
  * @Date: 2022/11/24 9:49
  * @Copyright: 2022 Hangzhou Jiuxi Inc. All rights reserved.
@@ -17,11 +21,44 @@ public class TpRoleAuthorizationLisenter implements ApplicationListener<TpRoleAu
     @Autowired(required = false)
     private AuthorizationCacheService authorizationCacheService;
 
+    @Autowired(required = false)
+    private AuthorizationIndexService authorizationIndexService;
+
     @Override
     public void onApplicationEvent(TpRoleAuthorizationEvent event) {
         if(null != authorizationCacheService){
             // 清除 角色菜单的缓存
             authorizationCacheService.removeAuthorizationCacheInfo();
         }
+        if (null == authorizationIndexService) {
+            return;
+        }
+        // 事件在授权事务中发布，事务提交后才能读到新的授权数据
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshIndex(event.getRoleId());
+                }
+            });
+        } else {
+            refreshIndex(event.getRoleId());
+        }
+    }
+
+    /**
+     * 更新鉴权内存索引：指定了角色只更新该角色，否则全量重建
+     *
+     * @param roleId
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    private void refreshIndex(String roleId) {
+        if (StrUtil.isBlank(roleId)) {
+            authorizationIndexService.rebuild();
+        } else {
+            authorizationIndexService.refreshRole(roleId);
+        }
     }
 }
@@ -0,0 +1,50 @@
+package com.jiuxi.security.core.service;
+
+/**
+ * @ClassName: AuthorizationIndexService
+ * @Description: 鉴权内存索引：每个菜单uri分配一个整数id，每个角色持有一个已授权uri的位图，鉴权时不再访问数据库或redis
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public interface AuthorizationIndexService {
+
+    /**
+     * 索引是否可用，不可用时调用方应回退到原有的鉴权方式
+     *
+     * @return boolean
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    boolean isReady();
+
+    /**
+     * 校验角色是否具有该路径的权限
+     *
+     * @param roles 角色id，多个逗号分隔开，与顺序无关
+     * @param path  请求的路径
+     * @return boolean
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    boolean hasPermission(String roles, String path);
+
+    /**
+     * 重新加载单个角色的授权，其它角色的位图保持不变
+     *
+     * @param roleId 角色id
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    void refreshRole(String roleId);
+
+    /**
+     * 全量重建索引
+     *
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    void rebuild();
+}
@@ -0,0 +1,31 @@
+package com.jiuxi.security.core.service;
+
+import com.jiuxi.security.core.entity.vo.SecurityPolicyVO;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Collection;
+
+/**
+ * @ClassName: SecurityPolicyRegistry
+ * @Description: 接口安全策略注册表，启动时解析所有 HandlerMethod 上的鉴权注解
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public interface SecurityPolicyRegistry {
+
+    /**
+     * 获取处理方法的安全策略，启动后新注册的方法会在首次访问时解析
+     *
+     * @param handlerMethod 处理方法
+     * @return com.jiuxi.security.core.entity.vo.SecurityPolicyVO
+     */
+    SecurityPolicyVO getPolicy(HandlerMethod handlerMethod);
+
+    /**
+     * 所有已注册的安全策略
+     *
+     * @return java.util.Collection<com.jiuxi.security.core.entity.vo.SecurityPolicyVO>
+     */
+    Collection<SecurityPolicyVO> getPolicies();
+}
@@ -1,8 +1,8 @@
 package com.jiuxi.security.core.service.impl;
 
 import com.jiuxi.common.bean.ErrorCode;
-import com.jiuxi.common.util.JwtUtil;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
+import com.jiuxi.security.core.holder.TokenContextHolder;
 import com.jiuxi.security.core.service.AuthenticationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +31,9 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     @Override
     public boolean authentication(String token, HttpServletRequest request, HttpServletResponse response) {
         try {
-            return JwtUtil.checkToken(token);
+            // 验签结果绑定到当前请求，后续退出登录校验、token解析直接复用
+            TokenContextHolder.resolve(token);
+            return true;
         }catch (RuntimeException e){
             LOGGER.error("token 认证失败，非法请求！请求地址为:{}", request.getRequestURI());
             throw new TopinfoRuntimeException(ErrorCode.TOKEN_ERROR.getCode(), ErrorCode.TOKEN_ERROR.getMsg());
@@ -5,6 +5,7 @@ import com.jiuxi.security.autoconfig.SecurityConfigurationProperties;
 import com.jiuxi.common.bean.SessionVO;
 import com.jiuxi.security.core.holder.SessionHolder;
 import com.jiuxi.security.core.service.AuthorizationCacheService;
+import com.jiuxi.security.core.service.AuthorizationIndexService;
 import com.jiuxi.security.core.service.AuthorizationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -37,6 +38,9 @@ public class AuthorizationDBServiceImpl implements AuthorizationService {
     @Autowired(required = false)
     private AuthorizationCacheService authorizationCacheService;
 
+    @Autowired(required = false)
+    private AuthorizationIndexService authorizationIndexService;
+
     @Autowired
     private SecurityConfigurationProperties properties;
 
@@ -72,6 +76,11 @@ public class AuthorizationDBServiceImpl implements AuthorizationService {
             return false;
         }
 
+        // ---- 鉴权内存索引可用，则直接在内存中校验，不再访问数据库或redis
+        if (authorizationIndexService != null && authorizationIndexService.isReady()) {
+            return authorizationIndexService.hasPermission(roles, path);
+        }
+
         // ---- 缓存authorizationCacheService为空，则直接校验
         if (authorizationCacheService == null) {
             return checkAuthorization(roles, path);
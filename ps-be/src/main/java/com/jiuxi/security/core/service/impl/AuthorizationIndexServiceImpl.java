@@ -0,0 +1,342 @@
+package com.jiuxi.security.core.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.jiuxi.common.exception.ExceptionUtils;
+import com.jiuxi.security.core.service.AuthorizationIndexService;
+import com.jiuxi.shared.infrastructure.cache.RedisCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * @ClassName: AuthorizationIndexServiceImpl
+ * @Description: 鉴权内存索引实现，索引以不可变快照的方式整体替换，读取时不加锁
+ * <pre>
+ *     1. 每个 menu_uri 分配一个整数 id
+ *     2. 每个角色持有一个 BitSet，第 n 位表示是否拥有 id 为 n 的 uri
+ *     3. 鉴权：依次取用户角色的位图，测试 uri 对应的位，任一角色命中即有权限
+ *     4. 角色授权变更时只重建该角色的位图；有 redis 时递增版本号，其它节点定时比对版本号后全量重建
+ *     5. 启动完成后在后台线程首次加载，加载完成前 isReady 返回 false，调用方回退到数据库鉴权；加载失败后按指数退避重试，不占用请求线程
+ * </pre>
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class AuthorizationIndexServiceImpl implements AuthorizationIndexService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AuthorizationIndexServiceImpl.class);
+
+    /**
+     * 全量加载角色菜单授权，与 AuthorizationDBServiceImpl 中的鉴权 sql 口径一致
+     */
+    private static final String ALL_SQL = "SELECT rm.role_id, m.menu_uri FROM tp_role_menu rm INNER JOIN tp_menu m ON m.menu_id = rm.menu_id WHERE m.menu_uri IS NOT NULL AND m.menu_uri <> ''";
+
+    /**
+     * 加载单个角色的菜单授权
+     */
+    private static final String ROLE_SQL = "SELECT m.menu_uri FROM tp_role_menu rm INNER JOIN tp_menu m ON m.menu_id = rm.menu_id WHERE rm.role_id = ? AND m.menu_uri IS NOT NULL AND m.menu_uri <> ''";
+
+    /**
+     * 索引版本号的 redis key，用于多节点之间同步
+     */
+    private static final String VERSION_KEY = "tp_authorization_version";
+
+    /**
+     * 首次加载失败后的重试间隔，每次失败翻倍，不超过 MAX_RETRY_MILLIS
+     */
+    private static final long MIN_RETRY_MILLIS = 5000L;
+
+    private static final long MAX_RETRY_MILLIS = 300000L;
+
+    @Autowired(required = false)
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired(required = false)
+    private RedisCacheService redisCacheService;
+
+    /**
+     * 当前索引快照
+     */
+    private volatile Snapshot snapshot;
+
+    /**
+     * 当前快照对应的集群版本号
+     */
+    private volatile long version = -1;
+
+    /**
+     * 执行首次加载，默认每次新建一个守护线程，加载期间只会有一个
+     */
+    private Executor loader = task -> {
+        Thread thread = new Thread(task, "authorization-index-loader");
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final AtomicBoolean loading = new AtomicBoolean();
+
+    /**
+     * 首次加载失败后，在此时间之前不再重试
+     */
+    private volatile long retryAt;
+
+    private long retryMillis;
+
+    @Override
+    public boolean isReady() {
+        if (null != snapshot) {
+            return true;
+        }
+        loadInBackground();
+        return null != snapshot;
+    }
+
+    /**
+     * 启动完成后在后台加载索引
+     *
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        loadInBackground();
+    }
+
+    /**
+     * 尚未加载、不在退避期且没有正在进行的加载时，提交一次首次加载
+     */
+    private void loadInBackground() {
+        if (null == jdbcTemplate || null != snapshot || System.currentTimeMillis() < retryAt
+                || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            loader.execute(() -> {
+                try {
+                    load();
+                } finally {
+                    loading.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            loading.set(false);
+            LOGGER.warn("鉴权索引加载任务提交失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 首次加载，失败时推迟下次重试
+     */
+    private void load() {
+        try {
+            synchronized (this) {
+                if (null == snapshot) {
+                    rebuildSnapshot();
+                }
+                retryMillis = 0;
+            }
+        } catch (Exception e) {
+            synchronized (this) {
+                retryMillis = 0 == retryMillis ? MIN_RETRY_MILLIS : Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+                retryAt = System.currentTimeMillis() + retryMillis;
+            }
+            LOGGER.error("鉴权索引加载失败，{} 毫秒后重试，期间回退到数据库鉴权，错误：{}", retryMillis, ExceptionUtils.getStackTrace(e));
+        }
+    }
+
+    @Override
+    public boolean hasPermission(String roles, String path) {
+        Snapshot current = snapshot;
+        if (null == current || StrUtil.isBlank(roles) || null == path) {
+            return false;
+        }
+        if (current.hasPermission(roles, current.uriIds.get(path))) {
+            return true;
+        }
+        // 兼容路径经过编码的情况
+        try {
+            String encoded = URLEncoder.encode(path, "UTF-8");
+            return !encoded.equals(path) && current.hasPermission(roles, current.uriIds.get(encoded));
+        } catch (UnsupportedEncodingException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void refreshRole(String roleId) {
+        if (null == jdbcTemplate) {
+            return;
+        }
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (null == current) {
+                rebuildSnapshot();
+            } else {
+                List<String> uris = jdbcTemplate.queryForList(ROLE_SQL, String.class, roleId);
+                Map<String, Integer> uriIds = new HashMap<>(current.uriIds);
+                Map<String, BitSet> roleBits = new HashMap<>(current.roleBits);
+                BitSet bits = new BitSet(uriIds.size());
+                for (String uri : uris) {
+                    bits.set(uriIds.computeIfAbsent(uri, key -> uriIds.size()));
+                }
+                if (bits.isEmpty()) {
+                    roleBits.remove(roleId);
+                } else {
+                    roleBits.put(roleId, bits);
+                }
+                snapshot = new Snapshot(uriIds, roleBits);
+                LOGGER.info("鉴权索引已更新角色：{}，授权uri数：{}", roleId, bits.cardinality());
+            }
+            publishVersion();
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        if (null == jdbcTemplate) {
+            return;
+        }
+        synchronized (this) {
+            rebuildSnapshot();
+            publishVersion();
+        }
+    }
+
+    /**
+     * 定时比对集群版本号，其它节点修改了授权时全量重建
+     *
+     * @return void
+     * @author jiuxx
+     * @date 2026/10/18 15:10
+     */
+    @Scheduled(fixedDelayString = "${topinfo.security.authorization.index-sync-interval:30000}")
+    public void syncVersion() {
+        if (null == redisCacheService || null == snapshot) {
+            return;
+        }
+        try {
+            synchronized (this) {
+                long clusterVersion = readVersion();
+                if (clusterVersion != version) {
+                    LOGGER.info("鉴权索引版本变更：{} -> {}，全量重建", version, clusterVersion);
+                    rebuildSnapshot();
+                    version = clusterVersion;
+                }
+            }
+        } catch (Exception e) {
+            LOGGER.warn("鉴权索引版本同步失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库全量加载
+     */
+    private synchronized void rebuildSnapshot() {
+        Map<String, Integer> uriIds = new HashMap<>();
+        Map<String, BitSet> roleBits = new HashMap<>();
+        jdbcTemplate.query(ALL_SQL, rs -> {
+            String roleId = rs.getString(1);
+            String uri = rs.getString(2);
+            int id = uriIds.computeIfAbsent(uri, key -> uriIds.size());
+            roleBits.computeIfAbsent(roleId, key -> new BitSet()).set(id);
+        });
+        snapshot = new Snapshot(uriIds, roleBits);
+        if (null != redisCacheService && version < 0) {
+            try {
+                version = readVersion();
+            } catch (Exception e) {
+                LOGGER.warn("读取鉴权索引版本失败：{}", e.getMessage());
+            }
+        }
+        LOGGER.info("鉴权索引已重建，uri数：{}，角色数：{}", uriIds.size(), roleBits.size());
+    }
+
+    /**
+     * 本节点修改了授权，递增集群版本号通知其它节点。
+     * 递增结果不是本地版本号 +1 时说明其它节点的修改尚未同步到本节点，先全量重建再记录新版本号，
+     * 否则会跳过其它节点的变更。调用方需持有本对象锁，与本地修改保持原子
+     */
+    private void publishVersion() {
+        if (null == redisCacheService) {
+            return;
+        }
+        try {
+            long expected = version;
+            Long newVersion = redisCacheService.opsForValueIncrement(VERSION_KEY, 1L);
+            if (null != newVersion) {
+                if (newVersion != expected + 1) {
+                    LOGGER.info("鉴权索引发布版本时发现未同步的变更：{} -> {}，全量重建", expected, newVersion);
+                    rebuildSnapshot();
+                }
+                version = newVersion;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("发布鉴权索引版本失败：{}", e.getMessage());
+        }
+    }
+
+    private long readVersion() {
+        Object value = redisCacheService.getOpsForValue(VERSION_KEY);
+        return null == value ? 0L : Long.parseLong(String.valueOf(value));
+    }
+
+    /**
+     * 不可变的索引快照
+     */
+    private static final class Snapshot {
+
+        /**
+         * key: menu_uri    val: uri id
+         */
+        private final Map<String, Integer> uriIds;
+
+        /**
+         * key: 角色id    val: 已授权 uri 的位图
+         */
+        private final Map<String, BitSet> roleBits;
+
+        private Snapshot(Map<String, Integer> uriIds, Map<String, BitSet> roleBits) {
+            this.uriIds = uriIds;
+            this.roleBits = roleBits;
+        }
+
+        /**
+         * 逐个角色测试 uri 对应的位，不拆分字符串，与角色顺序无关
+         */
+        private boolean hasPermission(String roles, Integer uriId) {
+            if (null == uriId) {
+                return false;
+            }
+            int start = 0;
+            int length = roles.length();
+            while (start <= length) {
+                int end = roles.indexOf(',', start);
+                if (end < 0) {
+                    end = length;
+                }
+                if (end > start) {
+                    BitSet bits = roleBits.get(roles.substring(start, end).trim());
+                    if (null != bits && bits.get(uriId)) {
+                        return true;
+                    }
+                }
+                start = end + 1;
+            }
+            return false;
+        }
+    }
+}
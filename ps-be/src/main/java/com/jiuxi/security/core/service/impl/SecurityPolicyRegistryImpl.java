@@ -0,0 +1,147 @@
+package com.jiuxi.security.core.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.jiuxi.security.core.entity.vo.SecurityPolicyVO;
+import com.jiuxi.security.core.service.SecurityPolicyRegistry;
+import com.jiuxi.shared.common.annotation.Authorization;
+import com.jiuxi.shared.common.annotation.IgnoreAuthorization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @ClassName: SecurityPolicyRegistryImpl
+ * @Description: 接口安全策略注册表，容器刷新后扫描所有 RequestMappingHandlerMapping，
+ * 将 @IgnoreAuthorization、@Authorization 解析为策略，避免每次请求反射读取注解
+ * @Author: jiuxx
+ * @Date: 2026/10/18 15:10
+ * @Copyright: 2026 Hangzhou Jiuxi Inc. All rights reserved.
+ */
+public class SecurityPolicyRegistryImpl implements SecurityPolicyRegistry, ApplicationListener<ContextRefreshedEvent> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SecurityPolicyRegistryImpl.class);
+
+    /**
+     * 注解冲突时是否启动失败，false 则只打印警告
+     */
+    private final boolean failFast;
+
+    /**
+     * 处理方法 -> 安全策略
+     */
+    private final Map<Method, SecurityPolicyVO> policies = new ConcurrentHashMap<>(512);
+
+    public SecurityPolicyRegistryImpl(boolean failFast) {
+        this.failFast = failFast;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+
+        Map<String, RequestMappingHandlerMapping> mappings = event.getApplicationContext().getBeansOfType(RequestMappingHandlerMapping.class);
+
+        List<String> conflicts = new ArrayList<>();
+        for (RequestMappingHandlerMapping mapping : mappings.values()) {
+            for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : mapping.getHandlerMethods().entrySet()) {
+                HandlerMethod handlerMethod = entry.getValue();
+                String conflict = checkConflict(handlerMethod.getMethod());
+                if (conflict != null) {
+                    conflicts.add(conflict);
+                    continue;
+                }
+                policies.put(handlerMethod.getMethod(), resolve(handlerMethod, entry.getKey()));
+            }
+        }
+
+        if (!conflicts.isEmpty()) {
+            String msg = "接口鉴权注解配置冲突：" + String.join("；", conflicts);
+            if (failFast) {
+                throw new IllegalStateException(msg);
+            }
+            LOGGER.warn(msg);
+        }
+
+        LOGGER.info("接口安全策略注册完成，共 {} 个接口", policies.size());
+    }
+
+    @Override
+    public SecurityPolicyVO getPolicy(HandlerMethod handlerMethod) {
+        SecurityPolicyVO policy = policies.get(handlerMethod.getMethod());
+        if (policy == null) {
+            // 启动后动态注册的接口，首次访问时解析
+            policy = policies.computeIfAbsent(handlerMethod.getMethod(), method -> resolve(handlerMethod, null));
+        }
+        return policy;
+    }
+
+    @Override
+    public Collection<SecurityPolicyVO> getPolicies() {
+        return Collections.unmodifiableCollection(policies.values());
+    }
+
+    /**
+     * 检查注解冲突：忽略鉴权的方法上又声明了鉴权注解
+     *
+     * @param method 处理方法
+     * @return java.lang.String 冲突描述，无冲突返回 null
+     */
+    private String checkConflict(Method method) {
+        if (method.isAnnotationPresent(IgnoreAuthorization.class) && method.isAnnotationPresent(Authorization.class)) {
+            return handlerName(method) + " 同时声明了 @IgnoreAuthorization 和 @Authorization";
+        }
+        return null;
+    }
+
+    /**
+     * 解析处理方法的安全策略，规则与原鉴权拦截器一致：
+     * 方法上有 @IgnoreAuthorization 则忽略；方法上的 @Authorization 优先于类上的。
+     */
+    private SecurityPolicyVO resolve(HandlerMethod handlerMethod, RequestMappingInfo info) {
+
+        Method method = handlerMethod.getMethod();
+        String handler = handlerName(method);
+        Set<String> patterns = info == null ? Collections.emptySet() : info.getPatternValues();
+        Set<String> methods = new LinkedHashSet<>();
+        if (info != null) {
+            for (RequestMethod requestMethod : info.getMethodsCondition().getMethods()) {
+                methods.add(requestMethod.name());
+            }
+        }
+
+        if (method.isAnnotationPresent(IgnoreAuthorization.class)) {
+            return new SecurityPolicyVO(handler, patterns, methods, true, false, false, null, SecurityPolicyVO.SOURCE_METHOD);
+        }
+
+        String source = SecurityPolicyVO.SOURCE_METHOD;
+        Authorization authorization = method.getAnnotation(Authorization.class);
+        if (authorization == null) {
+            source = SecurityPolicyVO.SOURCE_CLASS;
+            authorization = method.getDeclaringClass().getAnnotation(Authorization.class);
+        }
+        if (authorization == null) {
+            return new SecurityPolicyVO(handler, patterns, methods, false, false, false, null, SecurityPolicyVO.SOURCE_NONE);
+        }
+
+        String businessKey = StrUtil.isBlank(authorization.businessKey()) ? null : authorization.businessKey();
+        return new SecurityPolicyVO(handler, patterns, methods, false, true, authorization.roleAuth(), businessKey, source);
+    }
+
+    private static String handlerName(Method method) {
+        return method.getDeclaringClass().getName() + "#" + method.getName();
+    }
+}
@@ -1,18 +1,18 @@
 package com.jiuxi.security.core.service.impl;
 
-import cn.hutool.cache.Cache;
-import cn.hutool.cache.CacheUtil;
 import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.util.IdUtil;
-import cn.hutool.core.util.StrUtil;
 import com.jiuxi.common.exception.ExceptionUtils;
-import com.jiuxi.common.util.CommonDateUtil;
 import com.jiuxi.common.util.JwtUtil;
 // 暂时注释掉redis相关的import
 // import com.jiuxi.plugin.redis.common.core.bean.RedisPubEvent;
 // import com.jiuxi.plugin.redis.common.core.service.pub.RedisPublisherService;
+import com.jiuxi.security.autoconfig.SecurityConfigurationProperties;
 import com.jiuxi.security.constant.SecurityConstant;
+import com.jiuxi.security.core.holder.TokenContext;
+import com.jiuxi.security.core.holder.TokenContextHolder;
 import com.jiuxi.security.core.service.TopinfoSecurityLogoutService;
+import com.jiuxi.shared.security.revocation.TokenRevocationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,18 +35,19 @@ public class TopinfoSecurityLogoutServiceImpl implements TopinfoSecurityLogoutSe
     // private RedisPublisherService redisPublisherService;
 
     /**
-     * 保存退出登录的token
-     * key：token唯一id    val: time
+     * 令牌吊销登记表，本地布隆过滤器 + 精确集合，通过redis在集群内同步
      */
-    private Cache<String, String> logoutTokenCacheService = null;
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private SecurityConfigurationProperties properties;
 
     @PostConstruct
     public void init() {
 
-        // 缓存 1 小时
-        long timeout = DateUnit.HOUR.getMillis();
-
-        logoutTokenCacheService = CacheUtil.newTimedCache(timeout * 2);
+        // 任一节点退出登录时，剔除本地缓存的 token 解析结果
+        tokenRevocationRegistry.addListener(TokenContextHolder::evict);
 
     }
 
@@ -55,7 +56,7 @@ public class TopinfoSecurityLogoutServiceImpl implements TopinfoSecurityLogoutSe
      * <pre>
      *     1. 获取token，获取不到则直接返回
      *     2. 校验token，校验失败则返回
-     *     3. 添加到redis缓存，key:token, val: 当前时间，timeout: 配置时间
+     *     3. 登记到令牌吊销表，保留到token过期，并广播给其它节点
      * </pre>
      *
      * @param token
@@ -68,10 +69,15 @@ public class TopinfoSecurityLogoutServiceImpl implements TopinfoSecurityLogoutSe
 
         LOGGER.debug("退出登录, token: {}", token);
 
-        // 暂时禁用redis发布订阅，直接使用本地缓存
-        invalidateToken(JwtUtil.getJti(token));
-        
-        // 暂时注释掉redis发布订阅功能
+        // 保留到token过期时间（含校验误差时间），token 未携带过期时间时按配置的最长有效期
+        TokenContext context = TokenContextHolder.resolve(token);
+        if (null == context.getExpiresAt()) {
+            invalidateToken(context.getJti());
+        } else {
+            tokenRevocationRegistry.revoke(context.getJti(), context.getExpiresAt().getTime() + DateUnit.MINUTE.getMillis() * 5);
+        }
+
+        // 原redis发布订阅功能，已由 TokenRevocationRegistry 替代
         /*
         if (null == redisPublisherService) {
             // 未引入redis时，直接放入本地缓存
@@ -107,13 +113,8 @@ public class TopinfoSecurityLogoutServiceImpl implements TopinfoSecurityLogoutSe
     @Override
     public boolean isInvalidToken(String token) {
 
-        String val = logoutTokenCacheService.get(JwtUtil.getJti(token));
-        if (StrUtil.isNotBlank(val)) {
-            // 缓存不为空，说明当前token已经退出登录，token不能再使用
-            return true;
-        }
-
-        return false;
+        // 复用当前请求已校验的 token，避免重复验签；未吊销的常见情况只走本地布隆过滤器
+        return tokenRevocationRegistry.isRevoked(TokenContextHolder.resolve(token).getJti());
     }
 
     /**
@@ -126,7 +127,9 @@ public class TopinfoSecurityLogoutServiceImpl implements TopinfoSecurityLogoutSe
      */
     @Override
     public void invalidateToken(String jti) {
-        logoutTokenCacheService.put(jti, CommonDateUtil.now());
+        // 只有jti时按token最长有效期（含校验误差时间）保留
+        long timeout = DateUnit.MINUTE.getMillis() * (properties.getAuthentication().getTokenTimeOut() + 5);
+        tokenRevocationRegistry.revoke(jti, System.currentTimeMillis() + timeout);
     }
 
 }
@@ -1,5 +1,7 @@
 package com.jiuxi.shared.common.annotation;
 
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitAlgorithm;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Inherited;
 import java.lang.annotation.Retention;
@@ -34,6 +36,11 @@ public @interface RateLimiterAnnotation {
      */
     long timeout();
 
+    /**
+     * 限流算法，默认滑动窗口计数
+     */
+    RateLimitAlgorithm algorithm() default RateLimitAlgorithm.SLIDING_WINDOW;
+
     /**
      * 超过限流控制的提示语
      */
@@ -4,7 +4,9 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.DigestUtil;
 import com.jiuxi.shared.common.exception.TopinfoRuntimeException;
 import com.jiuxi.shared.common.annotation.RateLimiterAnnotation;
-import com.jiuxi.shared.infrastructure.cache.RateLimiterCacheService;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitDecision;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimitRule;
+import com.jiuxi.shared.infrastructure.ratelimit.RateLimiterEngine;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
@@ -29,10 +31,10 @@ import javax.servlet.http.HttpServletRequest;
 public class RateLimiterAop {
 
     /**
-     * 缓存
+     * 限流引擎
      */
     @Autowired
-    private RateLimiterCacheService cacheService;
+    private RateLimiterEngine rateLimiterEngine;
 
     /**
      * 定义切入点，切入点为RateLimiter注解
@@ -54,20 +56,23 @@ public class RateLimiterAop {
         ServletRequestAttributes requestAttributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         HttpServletRequest request = requestAttributes.getRequest();
 
-        String requestId = rateLimiter.key();
-        if (StrUtil.isBlank(requestId)) {
+        // 指定了key时，该资源所有请求共用一个计数
+        String resource = rateLimiter.key();
+        String requestId = resource;
+        if (StrUtil.isBlank(resource)) {
             // 获取用户的浏览器类型
             String userAgent = request.getHeader("User-Agent");
             // 获取用户的IP地址串值
             String ip = request.getHeader("X-Forwarded-For");
-            // 如果没有指定key，默认使用ip和浏览器类型
+            // 如果没有指定key，按接口分别计数，默认使用ip和浏览器类型区分请求方
+            resource = joinPoint.getSignature().toShortString();
             requestId = DigestUtil.md5Hex(userAgent + ip);
         }
 
-        long count = cacheService.increment(requestId, rateLimiter.timeout());
-        // 判断一分钟内访问的次数
-        if (count > rateLimiter.count()) {
-            // 限制的时间内，访问的次数，大于最大限制次数，拒绝访问，提示5分钟后再试
+        RateLimitRule rule = RateLimitRule.of(rateLimiter.count(), rateLimiter.timeout(), rateLimiter.algorithm());
+        RateLimitDecision decision = rateLimiterEngine.tryAcquire(resource, requestId, rule);
+        if (!decision.isAllowed()) {
+            // 限制的时间内，访问的次数，大于最大限制次数，拒绝访问
             throw new TopinfoRuntimeException(-1, rateLimiter.msg());
         }
     }
@@ -2,15 +2,29 @@ package com.jiuxi.shared.common.utils;
 
 import com.jiuxi.module.user.app.dto.UserExportDTO;
 import com.jiuxi.module.user.app.dto.UserImportDTO;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Excel文件读写工具类
@@ -38,52 +52,49 @@ public class ExcelUtil {
     };
 
     /**
-     * 读取Excel文件并解析为用户导入DTO列表
+     * 以SAX事件模型流式读取导入文件，每满一块回调一次
+     * 不构建整本工作簿，同一时刻只持有当前块的数据，内存占用与文件大小无关
      * 
-     * @param inputStream Excel文件输入流
-     * @return 用户导入DTO列表
+     * @param file Excel文件
+     * @param chunkSize 每块行数
+     * @param chunkConsumer 块回调
+     * @return 有效数据行数
      * @throws Exception 解析异常
      */
-    public static List<UserImportDTO> parseImportExcel(InputStream inputStream) throws Exception {
-        List<UserImportDTO> dataList = new ArrayList<>();
-        
-        try (Workbook workbook = new XSSFWorkbook(inputStream)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
+    public static int readImportExcel(File file, int chunkSize, Consumer<List<UserImportDTO>> chunkConsumer) throws Exception {
+        OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            StylesTable styles = reader.getStylesTable();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            if (!sheets.hasNext()) {
                 throw new IllegalArgumentException("Excel文件为空或格式错误");
             }
 
-            // 验证表头
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
-                throw new IllegalArgumentException("Excel文件缺少表头");
-            }
-            validateImportHeaders(headerRow);
-
-            // 解析数据行（从第2行开始，第1行是表头）
-            int lastRowNum = sheet.getLastRowNum();
-            for (int i = 1; i <= lastRowNum; i++) {
-                Row row = sheet.getRow(i);
-                if (row == null || isRowEmpty(row)) {
-                    continue;
-                }
-
-                UserImportDTO dto = parseImportRow(row, i + 1); // Excel行号从1开始
-                dataList.add(dto);
+            ImportSheetHandler handler = new ImportSheetHandler(chunkSize, chunkConsumer);
+            try (InputStream sheet = sheets.next()) {
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(styles, strings, handler, new ImportDataFormatter(), false));
+                parser.parse(new InputSource(sheet));
             }
+            return handler.finish();
+        } finally {
+            // 只读打开，不回写
+            pkg.revert();
         }
-
-        return dataList;
     }
 
     /**
-     * 将用户导出DTO列表写入Excel文件
+     * 将用户导出数据写入Excel文件
+     * 边遍历边写入，数据源可以是游标等只能遍历一次的流式结果
      * 
-     * @param dataList 用户导出DTO列表
+     * @param dataList 用户导出数据
      * @param outputStream 输出流
+     * @return 写入的数据行数
      * @throws Exception 写入异常
      */
-    public static void writeExportExcel(List<UserExportDTO> dataList, OutputStream outputStream) throws Exception {
+    public static int writeExportExcel(Iterable<UserExportDTO> dataList, OutputStream outputStream) throws Exception {
         // 使用SXSSFWorkbook支持大数据量导出，内存中保留100行
         try (SXSSFWorkbook workbook = new SXSSFWorkbook(100)) {
             Sheet sheet = workbook.createSheet("用户信息");
@@ -110,6 +121,9 @@ public class ExcelUtil {
             }
 
             workbook.write(outputStream);
+            // 清理SXSSF刷出的临时文件
+            workbook.dispose();
+            return rowIndex - 1;
         }
     }
 
@@ -156,13 +170,12 @@ public class ExcelUtil {
     /**
      * 验证导入文件表头
      */
-    private static void validateImportHeaders(Row headerRow) {
+    private static void validateImportHeaders(String[] headerValues) {
         for (int i = 0; i < IMPORT_HEADERS.length; i++) {
-            Cell cell = headerRow.getCell(i);
-            if (cell == null) {
+            String headerValue = headerValues[i];
+            if (headerValue == null) {
                 throw new IllegalArgumentException("Excel表头缺少第" + (i + 1) + "列");
             }
-            String headerValue = getCellValueAsString(cell).trim();
             if (!IMPORT_HEADERS[i].equals(headerValue)) {
                 throw new IllegalArgumentException(
                     "Excel表头第" + (i + 1) + "列应为[" + IMPORT_HEADERS[i] + "]，实际为[" + headerValue + "]"
@@ -174,22 +187,26 @@ public class ExcelUtil {
     /**
      * 解析导入数据行
      */
-    private static UserImportDTO parseImportRow(Row row, int rowNumber) {
+    private static UserImportDTO parseImportRow(String[] values, int rowNumber) {
         UserImportDTO dto = new UserImportDTO();
         dto.setRowNumber(rowNumber);
-        dto.setUsername(getCellValueAsString(row.getCell(0)));
-        dto.setPassword(getCellValueAsString(row.getCell(1)));
-        dto.setPersonName(getCellValueAsString(row.getCell(2)));
-        dto.setSex(getCellValueAsString(row.getCell(3)));
-        dto.setDeptPath(getCellValueAsString(row.getCell(4)));
-        dto.setPartWorkDate(getCellValueAsString(row.getCell(5)));
+        dto.setUsername(valueOf(values[0]));
+        dto.setPassword(valueOf(values[1]));
+        dto.setPersonName(valueOf(values[2]));
+        dto.setSex(valueOf(values[3]));
+        dto.setDeptPath(valueOf(values[4]));
+        dto.setPartWorkDate(valueOf(values[5]));
         // 新字段：职务职级、职称
-        dto.setZwzj(getCellValueAsString(row.getCell(6)));
-        dto.setZhicheng(getCellValueAsString(row.getCell(7)));
-        dto.setIdcard(getCellValueAsString(row.getCell(8)));
+        dto.setZwzj(valueOf(values[6]));
+        dto.setZhicheng(valueOf(values[7]));
+        dto.setIdcard(valueOf(values[8]));
         return dto;
     }
 
+    private static String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+
     /**
      * 写入导出数据行
      */
@@ -215,57 +232,13 @@ public class ExcelUtil {
         cell.setCellStyle(style);
     }
 
-    /**
-     * 获取单元格值并转为字符串
-     */
-    private static String getCellValueAsString(Cell cell) {
-        if (cell == null) {
-            return "";
-        }
-
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue().trim();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getLocalDateTimeCellValue().toString();
-                } else {
-                    // 数字类型转字符串，去除小数点
-                    double numValue = cell.getNumericCellValue();
-                    if (numValue == (long) numValue) {
-                        return String.valueOf((long) numValue);
-                    } else {
-                        return String.valueOf(numValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                try {
-                    return cell.getStringCellValue().trim();
-                } catch (Exception e) {
-                    return String.valueOf(cell.getNumericCellValue());
-                }
-            case BLANK:
-            default:
-                return "";
-        }
-    }
-
     /**
      * 判断行是否为空
      */
-    private static boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
-        }
-        for (int i = row.getFirstCellNum(); i < row.getLastCellNum(); i++) {
-            Cell cell = row.getCell(i);
-            if (cell != null && cell.getCellType() != CellType.BLANK) {
-                String value = getCellValueAsString(cell);
-                if (value != null && !value.isEmpty()) {
-                    return false;
-                }
+    private static boolean isRowEmpty(String[] values) {
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) {
+                return false;
             }
         }
         return true;
@@ -346,4 +319,105 @@ public class ExcelUtil {
                 return 3000;
         }
     }
+
+    /**
+     * 导入工作表的行事件处理器
+     * 第一行校验表头，其后每行转为DTO，攒满一块后交给回调并清空
+     */
+    private static class ImportSheetHandler implements XSSFSheetXMLHandler.SheetContentsHandler {
+
+        private final int chunkSize;
+
+        private final Consumer<List<UserImportDTO>> chunkConsumer;
+
+        private final String[] values = new String[IMPORT_HEADERS.length];
+
+        private List<UserImportDTO> chunk;
+
+        private int currentRow;
+
+        private int currentCol;
+
+        private boolean headerChecked;
+
+        private int rowCount;
+
+        ImportSheetHandler(int chunkSize, Consumer<List<UserImportDTO>> chunkConsumer) {
+            this.chunkSize = Math.max(1, chunkSize);
+            this.chunkConsumer = chunkConsumer;
+            this.chunk = new ArrayList<>(this.chunkSize);
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            currentRow = rowNum;
+            currentCol = -1;
+            Arrays.fill(values, null);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            currentCol = cellReference != null ? new CellReference(cellReference).getCol() : currentCol + 1;
+            if (currentCol < values.length) {
+                values[currentCol] = formattedValue == null ? "" : formattedValue.trim();
+            }
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (!headerChecked) {
+                // 表头必须位于第1行
+                if (rowNum != 0) {
+                    throw new IllegalArgumentException("Excel文件缺少表头");
+                }
+                validateImportHeaders(values);
+                headerChecked = true;
+                return;
+            }
+            if (isRowEmpty(values)) {
+                return;
+            }
+
+            chunk.add(parseImportRow(values, currentRow + 1)); // Excel行号从1开始
+            rowCount++;
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        int finish() {
+            if (!headerChecked) {
+                throw new IllegalArgumentException("Excel文件缺少表头");
+            }
+            flush();
+            return rowCount;
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<UserImportDTO> full = chunk;
+            chunk = new ArrayList<>(chunkSize);
+            chunkConsumer.accept(full);
+        }
+    }
+
+    /**
+     * 数值单元格的格式化规则与原先逐单元格读取保持一致：
+     * 日期输出为 ISO 日期时间，整数去掉小数点，其余数值原样输出
+     */
+    private static class ImportDataFormatter extends DataFormatter {
+
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toString();
+            }
+            if (value == (long) value) {
+                return String.valueOf((long) value);
+            }
+            return String.valueOf(value);
+        }
+    }
 }
@@ -1,106 +1,109 @@
 package com.jiuxi.shared.config.cache;
 
 import com.jiuxi.module.org.infra.cache.OrgCacheConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Redis缓存配置类
- * 配置RedisCacheManager以支持Spring Cache注解
+ * 配置二级缓存管理器（本地 L1 + Redis L2）以支持Spring Cache注解
  */
 @Configuration
+@EnableConfigurationProperties(MultiLevelCacheProperties.class)
 public class CacheConfiguration {
 
+    /**
+     * 平台服务缓存，过期时间取缓存名中的 $[秒数]
+     */
+    private static final String[] PLATFORM_CACHES = {
+            "platform.{TpMenuService}$[86400]",
+            "platform.{TpParameterConfigService}$[86400]",
+            "platform.{TpDictionaryService}$[86400]",
+            "platform.{TpPersonBasicinfoService}$[86400]",
+            "platform.{TpEntBasicinfoService}$[86400]",
+            "platform.{TpDeptBasicinfoService}$[86400]",
+            "platform.{TpCityService}$[86400]",
+            "platform.{TpDataPermissionsService}$[86400]"
+    };
+
+    @Bean
+    public CacheInvalidationChannel cacheInvalidationChannel(RedisConnectionFactory redisConnectionFactory,
+                                                             StringRedisTemplate stringRedisTemplate,
+                                                             MultiLevelCacheProperties properties) {
+        return new CacheInvalidationChannel(redisConnectionFactory, stringRedisTemplate, properties.getTopic());
+    }
+
     @Bean
     @Primary
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, MultiLevelCacheProperties properties,
+                                     CacheInvalidationChannel cacheInvalidationChannel) {
         // 默认缓存配置
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
-                .entryTtl(Duration.ofHours(1)); // 默认1小时过期
+                .entryTtl(properties.getDefaultTtl()); // 默认1小时过期
 
         // 特定缓存名称的配置
-        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        
-        // 菜单服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpMenuService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 参数配置服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpParameterConfigService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 字典服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpDictionaryService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 人员基础信息服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpPersonBasicinfoService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 企业基础信息服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpEntBasicinfoService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 部门基础信息服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpDeptBasicinfoService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 城市服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpCityService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 数据权限服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpDataPermissionsService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
-        // 菜单服务缓存 - 1天过期
-        cacheConfigurations.put("platform.{TpMenuService}$[86400]", 
-                defaultConfig.entryTtl(Duration.ofDays(1)));
-        
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new LinkedHashMap<>();
+
+        // 平台服务缓存 - 过期时间取缓存名中的秒数
+        for (String name : PLATFORM_CACHES) {
+            cacheConfigurations.put(name, defaultConfig.entryTtl(MultiLevelCacheManager.ttlOf(name, properties.getDefaultTtl())));
+        }
+
         // === 组织模块DDD重构缓存配置 ===
         // 部门缓存配置 - 1小时过期
-        cacheConfigurations.put(OrgCacheConfig.DEPARTMENT_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.DEPARTMENT_CACHE,
                 defaultConfig.entryTtl(Duration.ofHours(1)));
-        
+
         // 企业缓存配置 - 2小时过期
-        cacheConfigurations.put(OrgCacheConfig.ENTERPRISE_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.ENTERPRISE_CACHE,
                 defaultConfig.entryTtl(Duration.ofHours(2)));
-        
+
         // 组织缓存配置 - 2小时过期
-        cacheConfigurations.put(OrgCacheConfig.ORGANIZATION_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.ORGANIZATION_CACHE,
                 defaultConfig.entryTtl(Duration.ofHours(2)));
-        
+
         // 部门树缓存配置 - 30分钟过期，树形结构变化较频繁
-        cacheConfigurations.put(OrgCacheConfig.DEPT_TREE_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.DEPT_TREE_CACHE,
                 defaultConfig.entryTtl(Duration.ofMinutes(30)));
-        
+
         // 组织树缓存配置 - 1小时过期
-        cacheConfigurations.put(OrgCacheConfig.ORG_TREE_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.ORG_TREE_CACHE,
                 defaultConfig.entryTtl(Duration.ofHours(1)));
-        
+
         // 子部门/组织缓存配置 - 15分钟过期
-        cacheConfigurations.put(OrgCacheConfig.DEPT_CHILDREN_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.DEPT_CHILDREN_CACHE,
                 defaultConfig.entryTtl(Duration.ofMinutes(15)));
-        cacheConfigurations.put(OrgCacheConfig.ORG_CHILDREN_CACHE, 
+        cacheConfigurations.put(OrgCacheConfig.ORG_CHILDREN_CACHE,
                 defaultConfig.entryTtl(Duration.ofMinutes(15)));
 
-        return RedisCacheManager.builder(redisConnectionFactory)
-                .cacheDefaults(defaultConfig)
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .build();
+        // 配置文件中按缓存名配置的过期时间优先
+        for (MultiLevelCacheProperties.CacheSpec spec : properties.getCaches()) {
+            if (spec.getName() == null) {
+                continue;
+            }
+            RedisCacheConfiguration existing = cacheConfigurations.get(spec.getName());
+            Duration ttl = spec.getTtl() != null ? spec.getTtl()
+                    : existing != null ? existing.getTtl() : MultiLevelCacheManager.ttlOf(spec.getName(), properties.getDefaultTtl());
+            cacheConfigurations.put(spec.getName(), defaultConfig.entryTtl(ttl));
+        }
+
+        return new MultiLevelCacheManager(RedisCacheWriter.nonLockingRedisCacheWriter(redisConnectionFactory),
+                defaultConfig, cacheConfigurations, properties, cacheInvalidationChannel);
     }
-}
\ No newline at end of file
+}
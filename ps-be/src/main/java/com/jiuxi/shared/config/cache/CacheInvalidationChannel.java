@@ -0,0 +1,100 @@
+package com.jiuxi.shared.config.cache;
+
+import com.alibaba.fastjson.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于 redis 发布订阅的缓存失效广播，通知其他节点清理本地 L1 缓存
+ * <pre>
+ *     消息格式：{"node":"节点id","cache":"缓存名","key":"缓存key"}，key 为空表示清空整个缓存
+ *     本节点发出的消息不再处理
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class CacheInvalidationChannel implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationChannel.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final String topic;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer container;
+
+    private final List<BiConsumer<String, String>> listeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidationChannel(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate, String topic) {
+        this.topic = topic;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.addMessageListener(this::onMessage, new ChannelTopic(topic));
+        this.container.afterPropertiesSet();
+        this.container.start();
+    }
+
+    /**
+     * 广播失效
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存key，为 null 表示清空整个缓存
+     */
+    public void publish(String cacheName, String key) {
+        JSONObject message = new JSONObject();
+        message.put("node", nodeId);
+        message.put("cache", cacheName);
+        message.put("key", key);
+        try {
+            stringRedisTemplate.convertAndSend(topic, message.toJSONString());
+        } catch (RuntimeException e) {
+            // 广播失败时其他节点依靠本地过期时间兜底
+            logger.warn("Publish cache invalidation failed, cache: {}, key: {}", cacheName, key, e);
+        }
+    }
+
+    /**
+     * 订阅其他节点的失效消息，回调参数：缓存名、缓存key（可能为 null）
+     */
+    public void subscribe(BiConsumer<String, String> listener) {
+        listeners.add(listener);
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        JSONObject json;
+        try {
+            json = JSONObject.parseObject(body);
+        } catch (RuntimeException e) {
+            logger.warn("Ignore malformed cache invalidation message: {}", body);
+            return;
+        }
+        if (json == null || nodeId.equals(json.getString("node")) || json.getString("cache") == null) {
+            return;
+        }
+        for (BiConsumer<String, String> listener : listeners) {
+            listener.accept(json.getString("cache"), json.getString("key"));
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+}
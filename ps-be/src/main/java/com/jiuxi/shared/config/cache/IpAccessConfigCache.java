@@ -1,6 +1,6 @@
 package com.jiuxi.shared.config.cache;
 
-import com.jiuxi.admin.core.util.IpAccessControlUtil;
+import com.jiuxi.admin.core.util.IpRuleMatcher;
 import com.jiuxi.admin.core.service.TpSystemConfigService;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
@@ -10,8 +10,8 @@ import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Collections;
@@ -20,6 +20,7 @@ import java.util.stream.Collectors;
 /**
  * IP访问控制配置缓存管理器
  * 提供配置的缓存、更新和查询功能
+ * 黑白名单在刷新时编译为 {@link IpRuleMatcher}，通过 volatile 引用整体发布，匹配时无需加锁
  * 
  * @author ps-bmp
  * @since 2024-01-20
@@ -35,12 +36,11 @@ public class IpAccessConfigCache {
     // 配置缓存
     private final ConcurrentHashMap<String, String> configCache = new ConcurrentHashMap<>();
     
-    // 解析后的IP规则缓存
-    private volatile List<String> whitelistRules;
-    private volatile List<String> blacklistRules;
+    // 编译后的IP规则，刷新时整体替换
+    private volatile CompiledRules compiledRules = CompiledRules.EMPTY;
     
-    // 读写锁，保证配置更新的线程安全
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // 串行化配置刷新
+    private final Lock lock = new ReentrantLock();
     
     // 配置键常量
     private static final String IP_ENABLED_KEY = "security.ip.enabled";
@@ -66,7 +66,7 @@ public class IpAccessConfigCache {
      * 刷新所有配置
      */
     public void refreshAllConfig() {
-        lock.writeLock().lock();
+        lock.lock();
         try {
             // 刷新基础配置
             refreshConfig(IP_ENABLED_KEY);
@@ -82,7 +82,7 @@ public class IpAccessConfigCache {
             
             log.info("IP访问控制配置缓存刷新完成");
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
     
@@ -100,11 +100,11 @@ public class IpAccessConfigCache {
             
             // 如果是IP规则配置，需要重新解析
             if (IP_WHITELIST_KEY.equals(configKey) || IP_BLACKLIST_KEY.equals(configKey)) {
-                lock.writeLock().lock();
+                lock.lock();
                 try {
                     parseIpRules();
                 } finally {
-                    lock.writeLock().unlock();
+                    lock.unlock();
                 }
             }
             
@@ -115,45 +115,22 @@ public class IpAccessConfigCache {
     }
     
     /**
-     * 解析IP规则
+     * 解析并编译IP规则
      */
     private void parseIpRules() {
-        // 解析白名单
         String whitelistConfig = configCache.get(IP_WHITELIST_KEY);
-        if (whitelistConfig != null && !whitelistConfig.trim().isEmpty()) {
-            whitelistRules = Arrays.stream(whitelistConfig.split("\\n"))
-                    .map(String::trim)
-                    .filter(rule -> !rule.isEmpty())
-                    .collect(Collectors.toList());
-        } else {
-            whitelistRules = Collections.emptyList();
-        }
-        
-        // 解析黑名单
         String blacklistConfig = configCache.get(IP_BLACKLIST_KEY);
-        if (blacklistConfig != null && !blacklistConfig.trim().isEmpty()) {
-            blacklistRules = Arrays.stream(blacklistConfig.split("\\n"))
-                    .map(String::trim)
-                    .filter(rule -> !rule.isEmpty())
-                    .collect(Collectors.toList());
-        } else {
-            blacklistRules = Collections.emptyList();
-        }
+        compiledRules = new CompiledRules(whitelistConfig, blacklistConfig);
         
         log.debug("IP规则解析完成 - 白名单: {} 条, 黑名单: {} 条", 
-                whitelistRules.size(), blacklistRules.size());
+                compiledRules.whitelistRules.size(), compiledRules.blacklistRules.size());
     }
     
     /**
      * 获取配置值
      */
     public String getConfigValue(String configKey) {
-        lock.readLock().lock();
-        try {
-            return configCache.get(configKey);
-        } finally {
-            lock.readLock().unlock();
-        }
+        return configCache.get(configKey);
     }
     
     /**
@@ -200,24 +177,14 @@ public class IpAccessConfigCache {
      * 获取白名单规则
      */
     public List<String> getWhitelistRules() {
-        lock.readLock().lock();
-        try {
-            return whitelistRules;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return compiledRules.whitelistRules;
     }
     
     /**
      * 获取黑名单规则
      */
     public List<String> getBlacklistRules() {
-        lock.readLock().lock();
-        try {
-            return blacklistRules;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return compiledRules.blacklistRules;
     }
     
     /**
@@ -228,29 +195,7 @@ public class IpAccessConfigCache {
             return true;
         }
         
-        lock.readLock().lock();
-        try {
-            // 获取原始配置值
-            String whitelistConfig = configCache.get(IP_WHITELIST_KEY);
-            String blacklistConfig = configCache.get(IP_BLACKLIST_KEY);
-            
-            // 先检查黑名单（优先级更高）
-            if (blacklistConfig != null && !blacklistConfig.trim().isEmpty()) {
-                if (IpAccessControlUtil.isIpMatched(clientIp, blacklistConfig)) {
-                    return false;
-                }
-            }
-            
-            // 再检查白名单
-            if (whitelistConfig != null && !whitelistConfig.trim().isEmpty()) {
-                return IpAccessControlUtil.isIpMatched(clientIp, whitelistConfig);
-            }
-            
-            // 如果没有配置白名单，默认允许
-            return true;
-        } finally {
-            lock.readLock().unlock();
-        }
+        return compiledRules.match(clientIp).isAllowed();
     }
     
     /**
@@ -258,35 +203,68 @@ public class IpAccessConfigCache {
      */
     public IpMatchResult getIpMatchResult(String clientIp) {
         if (!isIpAccessControlEnabled()) {
-            return new IpMatchResult(true, null, null, "IP访问控制未启用");
+            return CompiledRules.DISABLED;
         }
         
-        lock.readLock().lock();
-        try {
-            // 获取原始配置值
-            String whitelistConfig = configCache.get(IP_WHITELIST_KEY);
-            String blacklistConfig = configCache.get(IP_BLACKLIST_KEY);
-            
-            // 先检查黑名单
-            if (blacklistConfig != null && !blacklistConfig.trim().isEmpty()) {
-                if (IpAccessControlUtil.isIpMatched(clientIp, blacklistConfig)) {
-                    return new IpMatchResult(false, blacklistConfig, "BLACKLIST", "IP在黑名单中");
-                }
+        return compiledRules.match(clientIp);
+    }
+    
+    /**
+     * 编译后的黑白名单及预先构造好的匹配结果
+     */
+    private static final class CompiledRules {
+        
+        static final IpMatchResult DISABLED = new IpMatchResult(true, null, null, "IP访问控制未启用");
+        
+        static final CompiledRules EMPTY = new CompiledRules(null, null);
+        
+        final List<String> whitelistRules;
+        final List<String> blacklistRules;
+        final IpRuleMatcher whitelist;
+        final IpRuleMatcher blacklist;
+        final boolean hasWhitelist;
+        final boolean hasBlacklist;
+        final IpMatchResult blacklisted;
+        final IpMatchResult whitelisted;
+        final IpMatchResult notWhitelisted;
+        final IpMatchResult unrestricted;
+        
+        CompiledRules(String whitelistConfig, String blacklistConfig) {
+            this.whitelistRules = splitRules(whitelistConfig);
+            this.blacklistRules = splitRules(blacklistConfig);
+            this.hasWhitelist = whitelistConfig != null && !whitelistConfig.trim().isEmpty();
+            this.hasBlacklist = blacklistConfig != null && !blacklistConfig.trim().isEmpty();
+            this.whitelist = hasWhitelist ? IpRuleMatcher.compile(whitelistConfig) : IpRuleMatcher.EMPTY;
+            this.blacklist = hasBlacklist ? IpRuleMatcher.compile(blacklistConfig) : IpRuleMatcher.EMPTY;
+            this.blacklisted = new IpMatchResult(false, blacklistConfig, "BLACKLIST", "IP在黑名单中");
+            this.whitelisted = new IpMatchResult(true, whitelistConfig, "WHITELIST", "IP在白名单中");
+            this.notWhitelisted = new IpMatchResult(false, null, null, "IP不在白名单中");
+            this.unrestricted = new IpMatchResult(true, null, null, "无IP访问限制");
+        }
+        
+        IpMatchResult match(String clientIp) {
+            // 先检查黑名单（优先级更高）
+            if (hasBlacklist && blacklist.matches(clientIp)) {
+                return blacklisted;
             }
             
             // 再检查白名单
-            if (whitelistConfig != null && !whitelistConfig.trim().isEmpty()) {
-                if (IpAccessControlUtil.isIpMatched(clientIp, whitelistConfig)) {
-                    return new IpMatchResult(true, whitelistConfig, "WHITELIST", "IP在白名单中");
-                } else {
-                    return new IpMatchResult(false, null, null, "IP不在白名单中");
-                }
+            if (hasWhitelist) {
+                return whitelist.matches(clientIp) ? whitelisted : notWhitelisted;
             }
             
             // 没有配置规则，默认允许
-            return new IpMatchResult(true, null, null, "无IP访问限制");
-        } finally {
-            lock.readLock().unlock();
+            return unrestricted;
+        }
+        
+        private static List<String> splitRules(String config) {
+            if (config == null || config.trim().isEmpty()) {
+                return Collections.emptyList();
+            }
+            return Collections.unmodifiableList(Arrays.stream(config.split("\\n"))
+                    .map(String::trim)
+                    .filter(rule -> !rule.isEmpty())
+                    .collect(Collectors.toList()));
         }
     }
     
@@ -0,0 +1,326 @@
+package com.jiuxi.shared.config.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 二级缓存：本地 L1 在前，Redis L2 在后
+ * <pre>
+ *     1. 读：L1 命中直接返回，否则读 L2 并回填 L1
+ *     2. 写、删除、清空：先操作 L2，再清理本节点 L1，并广播给其他节点；
+ *        未命中后由 @Cacheable 回写的值与其他节点读到的相同，只写 L2 并回填本节点 L1，不广播
+ *     3. L1 有条目上限和过期时间，超出上限时先清理过期条目，再淘汰最早过期的 1/8
+ *     4. L1 默认保存序列化后的字节，每次命中反序列化出新对象，与直接读 Redis 一样，调用方修改返回值不会影响其他调用方；
+ *        只读缓存可配置为共享对象，由 codec 保存不可变副本，省去反序列化
+ * </pre>
+ * 回填前后比较失效代数，避免读 L2 期间收到的失效被旧值覆盖
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class MultiLevelCache implements Cache {
+
+    private final Cache redisCache;
+
+    private final CacheInvalidationChannel channel;
+
+    private final int localMaxSize;
+
+    private final long localTtlMillis;
+
+    private final LocalValueCodec codec;
+
+    private final Map<Object, LocalEntry> local;
+
+    /**
+     * 失效代数，每次失效加一
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    /**
+     * 当前线程最近一次 L2 未命中的 key，紧随其后的同 key put 视为 @Cacheable 回写
+     */
+    private final ThreadLocal<PendingFill> pendingFill = new ThreadLocal<>();
+
+    private final LongAdder localHits = new LongAdder();
+
+    private final LongAdder redisHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    public MultiLevelCache(Cache redisCache, CacheInvalidationChannel channel, int localMaxSize, long localTtlMillis) {
+        this(redisCache, channel, localMaxSize, localTtlMillis, LocalValueCodec.SHARED);
+    }
+
+    /**
+     * @param codec L1 中值的存取方式，{@link LocalValueCodec#SHARED} 表示所有调用方共享同一对象
+     */
+    public MultiLevelCache(Cache redisCache, CacheInvalidationChannel channel, int localMaxSize, long localTtlMillis,
+                           LocalValueCodec codec) {
+        this.redisCache = redisCache;
+        this.codec = codec;
+        this.channel = channel;
+        this.localMaxSize = localMaxSize;
+        this.localTtlMillis = localTtlMillis;
+        this.local = new ConcurrentHashMap<>(Math.min(localMaxSize, 1024));
+    }
+
+    @Override
+    public String getName() {
+        return redisCache.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        pendingFill.remove();
+        LocalEntry entry = local.get(key);
+        if (entry != null) {
+            if (entry.expireAt > System.currentTimeMillis()) {
+                localHits.increment();
+                return new SimpleValueWrapper(codec.decode(entry.value));
+            }
+            local.remove(key, entry);
+        }
+
+        long gen = generation.get();
+        ValueWrapper wrapper = redisCache.get(key);
+        if (wrapper == null) {
+            misses.increment();
+            pendingFill.set(new PendingFill(key, gen));
+            return null;
+        }
+        redisHits.increment();
+        putLocal(key, wrapper.get(), gen);
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper == null ? null : wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        pendingFill.remove();
+        long gen = generation.get();
+        T value = redisCache.get(key, valueLoader);
+        putLocal(key, value, gen);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        PendingFill fill = pendingFill.get();
+        pendingFill.remove();
+        redisCache.put(key, value);
+        // 未命中回写：其间没有任何失效时直接回填 L1，不广播
+        if (fill != null && fill.key.equals(key) && generation.get() == fill.generation) {
+            putLocal(key, value, fill.generation);
+            return;
+        }
+        invalidateLocal(key);
+        channel.publish(getName(), keyOf(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        pendingFill.remove();
+        ValueWrapper existing = redisCache.putIfAbsent(key, value);
+        invalidateLocal(key);
+        channel.publish(getName(), keyOf(key));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        pendingFill.remove();
+        redisCache.evict(key);
+        invalidateLocal(key);
+        channel.publish(getName(), keyOf(key));
+    }
+
+    @Override
+    public void clear() {
+        pendingFill.remove();
+        redisCache.clear();
+        clearLocal();
+        channel.publish(getName(), null);
+    }
+
+    /**
+     * 处理其他节点的失效广播，只清理本地 L1
+     *
+     * @param key 缓存key，为 null 表示清空
+     */
+    public void onRemoteInvalidation(String key) {
+        remoteInvalidations.increment();
+        if (key == null) {
+            clearLocal();
+        } else {
+            invalidateLocal(key);
+        }
+    }
+
+    /**
+     * 缓存统计
+     */
+    public Map<String, Object> getStats() {
+        long l1 = localHits.sum();
+        long l2 = redisHits.sum();
+        long miss = misses.sum();
+        long total = l1 + l2 + miss;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("localSize", local.size());
+        stats.put("localMaxSize", localMaxSize);
+        stats.put("localHits", l1);
+        stats.put("redisHits", l2);
+        stats.put("misses", miss);
+        stats.put("evictions", evictions.sum());
+        stats.put("remoteInvalidations", remoteInvalidations.sum());
+        stats.put("localHitRatio", total == 0 ? 0D : (double) l1 / total);
+        stats.put("hitRatio", total == 0 ? 0D : (double) (l1 + l2) / total);
+        return stats;
+    }
+
+    private void putLocal(Object key, Object value, long gen) {
+        if (generation.get() != gen) {
+            return;
+        }
+        local.put(key, new LocalEntry(codec.encode(value), System.currentTimeMillis() + localTtlMillis));
+        // 回填后再次确认，期间发生失效则撤销回填
+        if (generation.get() != gen) {
+            local.remove(key);
+        }
+        if (local.size() > localMaxSize) {
+            prune();
+        }
+    }
+
+    private void invalidateLocal(Object key) {
+        generation.incrementAndGet();
+        local.remove(key);
+    }
+
+    private void clearLocal() {
+        generation.incrementAndGet();
+        local.clear();
+    }
+
+    private void prune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            local.entrySet().removeIf(e -> e.getValue().expireAt <= now);
+            int overflow = local.size() - (localMaxSize - localMaxSize / 8);
+            if (overflow <= 0) {
+                return;
+            }
+            List<Map.Entry<Object, LocalEntry>> entries = new ArrayList<>(local.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().expireAt));
+            for (int i = 0; i < overflow && i < entries.size(); i++) {
+                if (local.remove(entries.get(i).getKey(), entries.get(i).getValue())) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    /**
+     * 广播用的 key，非字符串 key 无法在其他节点还原，广播为清空整个缓存
+     */
+    private static String keyOf(Object key) {
+        return key instanceof String ? (String) key : null;
+    }
+
+    /**
+     * L1 中值的存取方式：写入时编码，每次命中时解码
+     */
+    public interface LocalValueCodec {
+
+        /**
+         * 直接保存对象，所有调用方共享同一实例，仅用于值不可变的缓存
+         */
+        LocalValueCodec SHARED = new LocalValueCodec() {
+            @Override
+            public Object encode(Object value) {
+                return value;
+            }
+
+            @Override
+            public Object decode(Object stored) {
+                return stored;
+            }
+        };
+
+        Object encode(Object value);
+
+        Object decode(Object stored);
+    }
+
+    private static final class PendingFill {
+
+        private final Object key;
+
+        /**
+         * 未命中时的失效代数
+         */
+        private final long generation;
+
+        private PendingFill(Object key, long generation) {
+            this.key = key;
+            this.generation = generation;
+        }
+    }
+
+    private static final class LocalEntry {
+
+        /**
+         * 编码后的值，可能为 null（缓存了 null 值）
+         */
+        private final Object value;
+
+        private final long expireAt;
+
+        private LocalEntry(Object value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
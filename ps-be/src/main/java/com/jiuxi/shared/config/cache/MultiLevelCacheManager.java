@@ -0,0 +1,214 @@
+package com.jiuxi.shared.config.cache;
+
+import com.jiuxi.common.util.CommonTreeUtil;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 二级缓存管理器，在 RedisCacheManager 创建的每个缓存前包一层本地 L1
+ * <pre>
+ *     1. 未预先配置的缓存名以 $[秒数] 结尾时，以该秒数作为 Redis 过期时间
+ *     2. 本地 L1 的条目上限和过期时间可按缓存名单独配置，上限为 0 则该缓存不使用 L1
+ *     3. 本地 L1 默认按 Redis 的值序列化方式保存字节，命中时反序列化出新对象；按缓存名配置 share-local-values 后
+ *        回填时复制一份并把其中的集合及树节点的下级列表转为不可变，所有命中共享该副本
+ *     4. 订阅其他节点的失效广播，清理对应的本地 L1
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class MultiLevelCacheManager extends RedisCacheManager {
+
+    /**
+     * 缓存名中的过期秒数，如 platform.{TpCityService}$[86400]
+     */
+    private static final Pattern TTL_SUFFIX = Pattern.compile("\\$\\[(\\d+)]$");
+
+    private final RedisCacheConfiguration defaultConfig;
+
+    private final MultiLevelCacheProperties properties;
+
+    private final CacheInvalidationChannel channel;
+
+    private final Map<String, MultiLevelCache> multiLevelCaches = new ConcurrentHashMap<>();
+
+    public MultiLevelCacheManager(RedisCacheWriter cacheWriter, RedisCacheConfiguration defaultConfig,
+                                  Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                  MultiLevelCacheProperties properties, CacheInvalidationChannel channel) {
+        super(cacheWriter, defaultConfig, initialCacheConfigurations);
+        this.defaultConfig = defaultConfig;
+        this.properties = properties;
+        this.channel = channel;
+        this.channel.subscribe(this::onRemoteInvalidation);
+    }
+
+    /**
+     * 解析缓存名中的过期秒数，没有则返回默认值
+     */
+    public static Duration ttlOf(String cacheName, Duration defaultTtl) {
+        Matcher matcher = TTL_SUFFIX.matcher(cacheName);
+        return matcher.find() ? Duration.ofSeconds(Long.parseLong(matcher.group(1))) : defaultTtl;
+    }
+
+    @Override
+    protected RedisCache getMissingCache(String name) {
+        return createRedisCache(name, defaultConfig.entryTtl(ttlOf(name, defaultConfig.getTtl())));
+    }
+
+    @Override
+    protected Cache decorateCache(Cache cache) {
+        Cache decorated = super.decorateCache(cache);
+        if (!properties.isEnabled()) {
+            return decorated;
+        }
+
+        MultiLevelCacheProperties.CacheSpec spec = findSpec(cache.getName());
+        int localMaxSize = spec != null && spec.getLocalMaxSize() != null ? spec.getLocalMaxSize() : properties.getLocalMaxSize();
+        if (localMaxSize <= 0) {
+            return decorated;
+        }
+
+        // 本地过期时间不超过 Redis 过期时间
+        Duration localTtl = spec != null && spec.getLocalTtl() != null ? spec.getLocalTtl() : properties.getLocalTtl();
+        MultiLevelCache.LocalValueCodec codec = MultiLevelCache.LocalValueCodec.SHARED;
+        if (cache instanceof RedisCache) {
+            RedisCacheConfiguration config = ((RedisCache) cache).getCacheConfiguration();
+            Duration redisTtl = config.getTtl();
+            if (!redisTtl.isZero() && !redisTtl.isNegative() && redisTtl.compareTo(localTtl) < 0) {
+                localTtl = redisTtl;
+            }
+            if (spec != null && Boolean.TRUE.equals(spec.getShareLocalValues())) {
+                codec = new ImmutableCopyCodec(config.getValueSerializationPair());
+            } else {
+                codec = new SerializingCodec(config.getValueSerializationPair());
+            }
+        }
+
+        MultiLevelCache multiLevelCache = new MultiLevelCache(decorated, channel, localMaxSize, localTtl.toMillis(), codec);
+        multiLevelCaches.put(cache.getName(), multiLevelCache);
+        return multiLevelCache;
+    }
+
+    /**
+     * 各缓存的命中统计，key 为缓存名
+     */
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        new TreeMap<>(multiLevelCaches).forEach((name, cache) -> stats.put(name, cache.getStats()));
+        return stats;
+    }
+
+    private void onRemoteInvalidation(String cacheName, String key) {
+        MultiLevelCache cache = multiLevelCaches.get(cacheName);
+        if (cache != null) {
+            cache.onRemoteInvalidation(key);
+        }
+    }
+
+    /**
+     * 按 Redis 的值序列化方式在 L1 中保存字节，每次命中反序列化出新对象
+     */
+    private static final class SerializingCodec implements MultiLevelCache.LocalValueCodec {
+
+        private final RedisSerializationContext.SerializationPair<Object> pair;
+
+        private SerializingCodec(RedisSerializationContext.SerializationPair<Object> pair) {
+            this.pair = pair;
+        }
+
+        @Override
+        public Object encode(Object value) {
+            if (value == null) {
+                return null;
+            }
+            ByteBuffer buffer = pair.write(value);
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        @Override
+        public Object decode(Object stored) {
+            return stored == null ? null : pair.read(ByteBuffer.wrap((byte[]) stored));
+        }
+    }
+
+    /**
+     * 回填时按 Redis 的值序列化方式复制一份，与调用方手中的对象脱离，再把集合转为不可变后共享给所有命中
+     */
+    static final class ImmutableCopyCodec implements MultiLevelCache.LocalValueCodec {
+
+        private final RedisSerializationContext.SerializationPair<Object> pair;
+
+        ImmutableCopyCodec(RedisSerializationContext.SerializationPair<Object> pair) {
+            this.pair = pair;
+        }
+
+        @Override
+        public Object encode(Object value) {
+            return value == null ? null : freeze(pair.read(pair.write(value)));
+        }
+
+        @Override
+        public Object decode(Object stored) {
+            return stored;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static Object freeze(Object value) {
+            if (value instanceof List) {
+                List<Object> list = new ArrayList<>(((List<?>) value).size());
+                for (Object element : (List<?>) value) {
+                    list.add(freeze(element));
+                }
+                return Collections.unmodifiableList(list);
+            }
+            if (value instanceof Set) {
+                Set<Object> set = new LinkedHashSet<>();
+                for (Object element : (Set<?>) value) {
+                    set.add(freeze(element));
+                }
+                return Collections.unmodifiableSet(set);
+            }
+            if (value instanceof Map) {
+                Map<Object, Object> map = new LinkedHashMap<>();
+                ((Map<?, ?>) value).forEach((k, v) -> map.put(k, freeze(v)));
+                return Collections.unmodifiableMap(map);
+            }
+            if (value instanceof CommonTreeUtil.Tree) {
+                CommonTreeUtil.Tree tree = (CommonTreeUtil.Tree) value;
+                if (tree.getTreeChildren() != null) {
+                    tree.setTreeChildren((List) freeze(tree.getTreeChildren()));
+                }
+            }
+            return value;
+        }
+    }
+
+    private MultiLevelCacheProperties.CacheSpec findSpec(String name) {
+        for (MultiLevelCacheProperties.CacheSpec spec : properties.getCaches()) {
+            if (name.equals(spec.getName())) {
+                return spec;
+            }
+        }
+        return null;
+    }
+}
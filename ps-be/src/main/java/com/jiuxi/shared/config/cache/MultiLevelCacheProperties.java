@@ -0,0 +1,176 @@
+package com.jiuxi.shared.config.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 二级缓存配置（本地 L1 + Redis L2）
+ * <pre>
+ * app:
+ *   cache:
+ *     multi-level:
+ *       local-ttl: 5m
+ *       local-max-size: 1000
+ *       caches:
+ *         - name: platform.{TpDictionaryService}$[86400]
+ *           local-max-size: 5000
+ *           share-local-values: true
+ * </pre>
+ * 缓存名以 $[秒数] 结尾时，未单独配置 ttl 则取该秒数作为 Redis 过期时间
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@ConfigurationProperties(prefix = "app.cache.multi-level")
+public class MultiLevelCacheProperties {
+
+    /**
+     * 是否启用本地 L1 缓存，关闭后退化为纯 Redis 缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * Redis 默认过期时间
+     */
+    private Duration defaultTtl = Duration.ofHours(1);
+
+    /**
+     * 本地缓存默认过期时间，不超过 Redis 过期时间
+     */
+    private Duration localTtl = Duration.ofMinutes(5);
+
+    /**
+     * 本地缓存默认最大条目数，0 表示该缓存不使用本地缓存
+     */
+    private int localMaxSize = 1000;
+
+    /**
+     * 缓存失效广播的 Redis 频道
+     */
+    private String topic = "platform-cache-invalidation";
+
+    /**
+     * 按缓存名单独配置
+     */
+    private List<CacheSpec> caches = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getLocalTtl() {
+        return localTtl;
+    }
+
+    public void setLocalTtl(Duration localTtl) {
+        this.localTtl = localTtl;
+    }
+
+    public int getLocalMaxSize() {
+        return localMaxSize;
+    }
+
+    public void setLocalMaxSize(int localMaxSize) {
+        this.localMaxSize = localMaxSize;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    public List<CacheSpec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(List<CacheSpec> caches) {
+        this.caches = caches;
+    }
+
+    public static class CacheSpec {
+
+        /**
+         * 缓存名
+         */
+        private String name;
+
+        /**
+         * Redis 过期时间
+         */
+        private Duration ttl;
+
+        /**
+         * 本地缓存过期时间
+         */
+        private Duration localTtl;
+
+        /**
+         * 本地缓存最大条目数
+         */
+        private Integer localMaxSize;
+
+        /**
+         * 本地缓存是否直接共享对象：默认 false，保存序列化字节并在每次命中时反序列化出新对象；
+         * 设为 true 时回填保存一份集合不可变的副本，所有命中共享该副本，省去反序列化开销，仅用于调用方只读的缓存
+         */
+        private Boolean shareLocalValues;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getLocalTtl() {
+            return localTtl;
+        }
+
+        public void setLocalTtl(Duration localTtl) {
+            this.localTtl = localTtl;
+        }
+
+        public Integer getLocalMaxSize() {
+            return localMaxSize;
+        }
+
+        public void setLocalMaxSize(Integer localMaxSize) {
+            this.localMaxSize = localMaxSize;
+        }
+
+        public Boolean getShareLocalValues() {
+            return shareLocalValues;
+        }
+
+        public void setShareLocalValues(Boolean shareLocalValues) {
+            this.shareLocalValues = shareLocalValues;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.jiuxi.shared.infrastructure.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 基于 SCAN 的 Redis key 遍历与批量删除，替代会阻塞 Redis 的 KEYS
+ * <pre>
+ *     1. SCAN 带 MATCH 和 COUNT 逐步推进游标，每次只检查一小段 keyspace，不会长时间占用 Redis
+ *     2. 匹配的 key 按批回调给调用方，不在内存中汇总全部结果（{@link #collect} 除外）
+ *     3. 删除按批使用 UNLINK（后台释放内存），Redis 不支持时退回 DEL
+ *     4. 删除量大时每批之间暂停，给其它请求让出 Redis；进度通过回调和日志报告
+ *     5. SCAN 在 rehash 期间可能重复返回同一 key，{@link #count} 为近似值；删除重复 key 无副作用
+ *     6. 由 RedisConfig 注册为单例注入使用，UNLINK 不可用的探测结果保存在实例中，不要按次新建
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class RedisKeyScanner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisKeyScanner.class);
+
+    /**
+     * SCAN 每次迭代检查的 key 数（COUNT 提示值）
+     */
+    public static final int DEFAULT_SCAN_COUNT = 1000;
+
+    /**
+     * 每次回调和 UNLINK 的 key 数
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /**
+     * 删除超过该数量后开始在批次之间暂停
+     */
+    public static final long THROTTLE_THRESHOLD = 10_000L;
+
+    /**
+     * 批次之间的暂停时间
+     */
+    public static final long DEFAULT_PAUSE_MILLIS = 5L;
+
+    /**
+     * 删除进度日志间隔（key 数）
+     */
+    private static final long PROGRESS_LOG_INTERVAL = 50_000L;
+
+    private final KeyspaceOperations operations;
+
+    public RedisKeyScanner(RedisTemplate<String, ?> redisTemplate) {
+        this(new TemplateKeyspaceOperations(redisTemplate));
+    }
+
+    RedisKeyScanner(KeyspaceOperations operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * 分批遍历匹配的 key
+     *
+     * @param pattern   glob 模式，与 KEYS 相同
+     * @param batchSize 每批 key 数
+     * @param consumer  批处理，参数列表在回调后复用，需要保留时自行复制
+     * @return 遍历的 key 数
+     */
+    public long scan(String pattern, int batchSize, Consumer<List<String>> consumer) {
+        int size = Math.max(1, batchSize);
+        List<String> batch = new ArrayList<>(size);
+        long[] total = new long[1];
+        operations.scan(pattern, DEFAULT_SCAN_COUNT, key -> {
+            batch.add(key);
+            total[0]++;
+            if (batch.size() >= size) {
+                consumer.accept(batch);
+                batch.clear();
+            }
+        });
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+            batch.clear();
+        }
+        return total[0];
+    }
+
+    /**
+     * 逐个遍历匹配的 key
+     */
+    public long forEach(String pattern, Consumer<String> consumer) {
+        long[] total = new long[1];
+        operations.scan(pattern, DEFAULT_SCAN_COUNT, key -> {
+            total[0]++;
+            consumer.accept(key);
+        });
+        return total[0];
+    }
+
+    /**
+     * 统计匹配的 key 数（近似值）
+     */
+    public long count(String pattern) {
+        return forEach(pattern, key -> {
+        });
+    }
+
+    /**
+     * 收集全部匹配的 key，仅用于结果量可控的场景；大量 key 请使用 {@link #scan}
+     */
+    public Set<String> collect(String pattern) {
+        Set<String> keys = new LinkedHashSet<>();
+        forEach(pattern, keys::add);
+        return keys;
+    }
+
+    /**
+     * 按模式删除，使用默认批次和节流参数
+     *
+     * @return 删除的 key 数
+     */
+    public long deleteByPattern(String pattern) {
+        return deleteByPattern(pattern, DEFAULT_BATCH_SIZE, DEFAULT_PAUSE_MILLIS, null);
+    }
+
+    /**
+     * 按模式删除
+     *
+     * @param pattern     glob 模式
+     * @param batchSize   每次 UNLINK 的 key 数
+     * @param pauseMillis 删除超过 {@link #THROTTLE_THRESHOLD} 后每批之间的暂停毫秒数，0 表示不暂停
+     * @param listener    进度回调，可为 null
+     * @return 删除的 key 数
+     */
+    public long deleteByPattern(String pattern, int batchSize, long pauseMillis, ProgressListener listener) {
+        long start = System.currentTimeMillis();
+        long[] deleted = new long[1];
+        long[] nextLog = {PROGRESS_LOG_INTERVAL};
+        long scanned = scan(pattern, batchSize, batch -> {
+            if (deleted[0] >= THROTTLE_THRESHOLD && pauseMillis > 0) {
+                pause(pauseMillis);
+            }
+            deleted[0] += operations.unlink(batch);
+            if (listener != null) {
+                listener.onProgress(pattern, deleted[0]);
+            }
+            if (deleted[0] >= nextLog[0]) {
+                LOGGER.info("按模式删除Redis key进行中: pattern={}, 已删除={}, 耗时={}ms",
+                        pattern, deleted[0], System.currentTimeMillis() - start);
+                nextLog[0] += PROGRESS_LOG_INTERVAL;
+            }
+        });
+        if (scanned > 0) {
+            LOGGER.debug("按模式删除Redis key完成: pattern={}, 匹配={}, 删除={}, 耗时={}ms",
+                    pattern, scanned, deleted[0], System.currentTimeMillis() - start);
+        }
+        return deleted[0];
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("按模式删除Redis key被中断", e);
+        }
+    }
+
+    /**
+     * 删除进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * 每批删除后调用
+         *
+         * @param pattern 模式
+         * @param deleted 累计删除数
+         */
+        void onProgress(String pattern, long deleted);
+    }
+
+    /**
+     * keyspace 操作入口，测试中可替换为内存实现
+     */
+    interface KeyspaceOperations {
+
+        void scan(String pattern, int count, Consumer<String> consumer);
+
+        long unlink(Collection<String> keys);
+    }
+
+    private static final class TemplateKeyspaceOperations implements KeyspaceOperations {
+
+        private final RedisTemplate<String, ?> redisTemplate;
+
+        /**
+         * Redis 不支持 UNLINK（4.0 以下）时置为 false，之后直接使用 DEL
+         */
+        private volatile boolean unlinkSupported = true;
+
+        private TemplateKeyspaceOperations(RedisTemplate<String, ?> redisTemplate) {
+            this.redisTemplate = redisTemplate;
+        }
+
+        @Override
+        public void scan(String pattern, int count, Consumer<String> consumer) {
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(count).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    consumer.accept(cursor.next());
+                }
+            }
+        }
+
+        @Override
+        public long unlink(Collection<String> keys) {
+            if (unlinkSupported) {
+                try {
+                    Long removed = redisTemplate.unlink(keys);
+                    return removed != null ? removed : 0L;
+                } catch (RuntimeException e) {
+                    if (!isUnknownCommand(e)) {
+                        throw e;
+                    }
+                    LOGGER.warn("Redis不支持UNLINK，改用DEL: {}", e.getMessage());
+                    unlinkSupported = false;
+                }
+            }
+            Long removed = redisTemplate.delete(keys);
+            return removed != null ? removed : 0L;
+        }
+
+        private static boolean isUnknownCommand(Throwable e) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                String message = t.getMessage();
+                if (message != null && message.toLowerCase().contains("unknown command")) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
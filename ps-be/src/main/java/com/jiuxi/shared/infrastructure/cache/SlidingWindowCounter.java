@@ -0,0 +1,213 @@
+package com.jiuxi.shared.infrastructure.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按 key 计数的内存滑动窗口计数器
+ * <pre>
+ *     1. 每个 key 一个定长环形桶数组，桶宽 bucketMillis，共 bucketCount 个桶
+ *     2. 每个桶用一个 long 同时存放桶序号（高 32 位）和计数（低 32 位），CAS 更新，无锁
+ *     3. 桶序号过期的桶在下一次写入时原地清零复用，查询时跳过
+ *     4. key 数量达到上限时先清理已整体过期的 key，需要遍历全部 key，每个桶宽内最多由一个请求执行一次，
+ *        避免大量新 key（如伪造来源 IP）涌入时每个请求都遍历一遍
+ *     5. 清理后仍无空位时按 CLOCK 近似 LRU 淘汰一个 key：从准入队列队头取出，上次检查后有写入的清除标记移到队尾，
+ *        没有写入的直接淘汰，最多检查 EVICT_SCAN 个，都有写入时淘汰最后一个；新 key 总能被跟踪，
+ *        持续访问的 key 不会因大量一次性的新 key 涌入而被淘汰
+ * </pre>
+ * 计数只反映当前节点，窗口精度为一个桶宽。
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class SlidingWindowCounter {
+
+    private final long bucketMillis;
+
+    private final int bucketCount;
+
+    private final int maxKeys;
+
+    /**
+     * 超限淘汰时每次从队头检查的 key 数
+     */
+    private static final int EVICT_SCAN = 8;
+
+    private final ConcurrentHashMap<String, Window> windows = new ConcurrentHashMap<>();
+
+    /**
+     * 按准入顺序排列的窗口，与 windows 中的窗口一一对应
+     */
+    private final ConcurrentLinkedQueue<Window> admission = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 上一次因超限触发清理时的桶序号
+     */
+    private final AtomicLong lastEvictEpoch = new AtomicLong(Long.MIN_VALUE);
+
+    public SlidingWindowCounter(long bucketMillis, int bucketCount, int maxKeys) {
+        if (bucketMillis <= 0 || bucketCount <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("bucketMillis、bucketCount、maxKeys 必须大于0");
+        }
+        this.bucketMillis = bucketMillis;
+        this.bucketCount = bucketCount;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * 当前时刻计数加一
+     */
+    public void increment(String key) {
+        increment(key, System.currentTimeMillis());
+    }
+
+    public void increment(String key, long nowMillis) {
+        if (key == null) {
+            return;
+        }
+        long epoch = nowMillis / bucketMillis;
+        Window window = windows.get(key);
+        if (window == null) {
+            if (windows.size() >= maxKeys) {
+                tryEvictIdle(nowMillis);
+                if (windows.size() >= maxKeys) {
+                    evictOldest();
+                }
+            }
+            Window created = new Window(key, bucketCount, epoch);
+            window = windows.putIfAbsent(key, created);
+            if (window == null) {
+                window = created;
+                admission.offer(created);
+            }
+        }
+        window.add(epoch);
+    }
+
+    /**
+     * 最近 windowMillis 内的计数，窗口超过 bucketMillis * bucketCount 时按最大跨度统计
+     */
+    public long count(String key, long windowMillis) {
+        return count(key, windowMillis, System.currentTimeMillis());
+    }
+
+    public long count(String key, long windowMillis, long nowMillis) {
+        Window window = key == null ? null : windows.get(key);
+        if (window == null || windowMillis <= 0) {
+            return 0;
+        }
+        int buckets = (int) Math.min(bucketCount, (windowMillis + bucketMillis - 1) / bucketMillis);
+        return window.sum(nowMillis / bucketMillis, buckets);
+    }
+
+    /**
+     * 清理最近一个完整跨度内没有写入的 key
+     *
+     * @return int 清理数量
+     */
+    public int evictIdle(long nowMillis) {
+        long oldestLive = nowMillis / bucketMillis - bucketCount + 1;
+        int before = windows.size();
+        admission.removeIf(window -> window.lastEpoch < oldestLive && windows.remove(window.key, window));
+        return Math.max(0, before - windows.size());
+    }
+
+    /**
+     * 超限时的清理，每个桶宽内只有抢到的一个请求执行，其余请求跳过
+     */
+    private void tryEvictIdle(long nowMillis) {
+        long epoch = nowMillis / bucketMillis;
+        long last = lastEvictEpoch.get();
+        if (epoch > last && lastEvictEpoch.compareAndSet(last, epoch)) {
+            evictIdle(nowMillis);
+        }
+    }
+
+    /**
+     * 从队头取至多 EVICT_SCAN 个窗口，有写入标记的清除标记后移到队尾，淘汰第一个没有标记的，都有标记时淘汰最后一个
+     */
+    private void evictOldest() {
+        int scan = Math.min(EVICT_SCAN, windows.size());
+        for (int i = 0; i < scan; i++) {
+            Window window = admission.poll();
+            if (window == null) {
+                return;
+            }
+            if (window.referenced && i < scan - 1) {
+                window.referenced = false;
+                admission.offer(window);
+                continue;
+            }
+            windows.remove(window.key, window);
+            return;
+        }
+    }
+
+    public int size() {
+        return windows.size();
+    }
+
+    public long getSpanMillis() {
+        return bucketMillis * bucketCount;
+    }
+
+    private static final class Window {
+
+        private final String key;
+
+        private final AtomicLongArray buckets;
+
+        private volatile long lastEpoch;
+
+        /**
+         * 上次淘汰检查后是否有写入
+         */
+        private volatile boolean referenced;
+
+        Window(String key, int bucketCount, long epoch) {
+            this.key = key;
+            this.buckets = new AtomicLongArray(bucketCount);
+            this.lastEpoch = epoch;
+        }
+
+        void add(long epoch) {
+            int index = (int) (epoch % buckets.length());
+            int tag = (int) epoch;
+            while (true) {
+                long current = buckets.get(index);
+                long next = (int) (current >>> 32) == tag
+                        ? saturatedIncrement(current)
+                        : ((long) tag << 32) | 1L;
+                if (buckets.compareAndSet(index, current, next)) {
+                    break;
+                }
+            }
+            if (epoch > lastEpoch) {
+                lastEpoch = epoch;
+            }
+            if (!referenced) {
+                referenced = true;
+            }
+        }
+
+        long sum(long currentEpoch, int count) {
+            long total = 0;
+            for (long epoch = currentEpoch - count + 1; epoch <= currentEpoch; epoch++) {
+                if (epoch < 0) {
+                    continue;
+                }
+                long value = buckets.get((int) (epoch % buckets.length()));
+                if ((int) (value >>> 32) == (int) epoch) {
+                    total += value & 0xFFFFFFFFL;
+                }
+            }
+            return total;
+        }
+
+        private static long saturatedIncrement(long value) {
+            return (value & 0xFFFFFFFFL) == 0xFFFFFFFFL ? value : value + 1;
+        }
+    }
+}
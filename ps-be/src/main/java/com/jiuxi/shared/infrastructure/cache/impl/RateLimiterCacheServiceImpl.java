@@ -2,15 +2,15 @@ package com.jiuxi.shared.infrastructure.cache.impl;
 
 import cn.hutool.cache.CacheUtil;
 import cn.hutool.cache.impl.TimedCache;
-import cn.hutool.core.util.StrUtil;
 import com.jiuxi.shared.infrastructure.cache.RateLimiterCacheService;
 import com.jiuxi.shared.infrastructure.cache.RedisCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * @Description: 限流缓存实现
+ * @Description: 限流缓存实现（固定窗口计数），接口限流请使用 {@link com.jiuxi.shared.infrastructure.ratelimit.RateLimiterEngine}
  * @ClassName: RateLimiterCacheServiceImpl
  * @Author: pdd
  * @Date: 2022-12-13 16:34
@@ -28,12 +28,7 @@ public class RateLimiterCacheServiceImpl implements RateLimiterCacheService {
     /**
      * 本地缓存
      */
-    private TimedCache<String, String> timedCache = null;
-
-    /**
-     * 本地缓存默认清理周期，单位毫秒
-     */
-    private int schedulePrune = 5;
+    private volatile TimedCache<String, AtomicLong> timedCache = null;
 
     /**
      * 创建本地缓存
@@ -43,12 +38,13 @@ public class RateLimiterCacheServiceImpl implements RateLimiterCacheService {
      * @author pand
      * @date 2022-12-13 17:08
      */
-    public void init(Long timeout) {
+    public synchronized void init(Long timeout) {
         if (timedCache == null) {
             // 创建缓存，过期单位：毫秒
-            timedCache = CacheUtil.newTimedCache(timeout);
-            // 启动定时任务，每5毫秒清理一次过期条目，注释此行首次启动仍会清理过期条目
-            timedCache.schedulePrune(schedulePrune);
+            TimedCache<String, AtomicLong> cache = CacheUtil.newTimedCache(timeout);
+            // 按过期时间周期清理过期条目，过期条目在读取时也会被忽略
+            cache.schedulePrune(timeout);
+            timedCache = cache;
         }
     }
 
@@ -66,20 +62,21 @@ public class RateLimiterCacheServiceImpl implements RateLimiterCacheService {
 
         if (redisCacheService == null) {
 
-            this.init(timeout);
-            // 获取原来的请求次数, false， 不重新计算超时时间
-            String count = timedCache.get(requestId, false);
-            // 如果不为空，则说明一分钟内请求过
-            if (StrUtil.isNotBlank(count)) {
-                int n = Integer.parseInt(count);
-                // + 1
-                count = String.valueOf(++n);
-            } else {
-                // 初始化为 1
-                count = 1 + "";
+            if (timedCache == null) {
+                this.init(timeout);
+            }
+            // 获取原来的计数器, false， 不重新计算超时时间
+            AtomicLong counter = timedCache.get(requestId, false);
+            if (counter == null) {
+                synchronized (this) {
+                    counter = timedCache.get(requestId, false);
+                    if (counter == null) {
+                        counter = new AtomicLong();
+                        timedCache.put(requestId, counter);
+                    }
+                }
             }
-            timedCache.put(requestId, count);
-            return Long.valueOf(count);
+            return counter.incrementAndGet();
         } else {
 
             long count = redisCacheService.opsForValueIncrement(requestId, 1);
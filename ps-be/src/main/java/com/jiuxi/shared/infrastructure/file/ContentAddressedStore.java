@@ -0,0 +1,171 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * 按内容寻址的文件存储
+ * <pre>
+ *     1. 文件以 SHA-256 命名，按摘要前两级分片存放：{root}/cas/ab/cd/abcd...，单个目录下文件数可控
+ *     2. 上传时边写临时文件边计算摘要，只读一遍上传内容；相同内容只保留一份
+ *     3. 临时文件与正式文件位于同一文件系统，提交时原子改名，并发提交相同内容时只保留先到的一份
+ *     4. 只负责文件本身，引用计数由调用方维护
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class ContentAddressedStore {
+
+    /**
+     * 相对路径前缀，SAVE_PATH 以此开头的附件存放在本存储中
+     */
+    public static final String PATH_PREFIX = "/cas/";
+
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    private final Path tmpDir;
+
+    /**
+     * @param rootDir 上传根目录，存储位于其下的 cas 目录
+     */
+    public ContentAddressedStore(String rootDir) {
+        this.root = Paths.get(rootDir, "cas");
+        this.tmpDir = root.resolve("tmp");
+    }
+
+    /**
+     * 把上传内容写入临时文件并计算摘要，不关闭输入流
+     */
+    public StagedBlob stage(InputStream in) throws IOException {
+        Files.createDirectories(tmpDir);
+        Path temp = tmpDir.resolve(UUID.randomUUID() + ".tmp");
+        MessageDigest digest = sha256();
+        try {
+            long size = DirectBufferPool.SHARED.copy(new DigestInputStream(in, digest), temp);
+            return new StagedBlob(toHex(digest.digest()), size, temp);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * 提交临时文件：内容已存在时丢弃临时文件，否则改名为正式文件
+     *
+     * @return 正式文件的相对路径
+     */
+    public String commit(StagedBlob blob) throws IOException {
+        Path target = resolve(blob.getDigest());
+        if (Files.exists(target)) {
+            discard(blob);
+        } else {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(blob.getTempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                discard(blob);
+            }
+        }
+        return relativePath(blob.getDigest());
+    }
+
+    public void discard(StagedBlob blob) throws IOException {
+        Files.deleteIfExists(blob.getTempFile());
+    }
+
+    public boolean exists(String digest) {
+        return isDigest(digest) && Files.isRegularFile(resolve(digest));
+    }
+
+    public boolean delete(String digest) throws IOException {
+        return isDigest(digest) && Files.deleteIfExists(resolve(digest));
+    }
+
+    /**
+     * 摘要对应的相对路径，如：/cas/ab/cd/abcd...
+     */
+    public static String relativePath(String digest) {
+        return PATH_PREFIX + digest.substring(0, 2) + "/" + digest.substring(2, 4) + "/" + digest;
+    }
+
+    /**
+     * 从相对路径中取出摘要，不是本存储的路径时返回 null
+     */
+    public static String digestOf(String relativePath) {
+        if (relativePath == null || !relativePath.startsWith(PATH_PREFIX)) {
+            return null;
+        }
+        String digest = relativePath.substring(relativePath.lastIndexOf('/') + 1);
+        return isDigest(digest) && relativePath.equals(relativePath(digest)) ? digest : null;
+    }
+
+    public static boolean isDigest(String digest) {
+        return digest != null && DIGEST_PATTERN.matcher(digest).matches();
+    }
+
+    private Path resolve(String digest) {
+        return root.resolve(digest.substring(0, 2)).resolve(digest.substring(2, 4)).resolve(digest);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 已写入临时文件、尚未提交的内容
+     */
+    public static final class StagedBlob {
+
+        private final String digest;
+
+        private final long size;
+
+        private final Path tempFile;
+
+        StagedBlob(String digest, long size, Path tempFile) {
+            this.digest = digest;
+            this.size = size;
+            this.tempFile = tempFile;
+        }
+
+        /**
+         * SHA-256（小写十六进制）
+         */
+        public String getDigest() {
+            return digest;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        Path getTempFile() {
+            return tempFile;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 直接内存缓冲池，用于上传文件落盘
+ * <pre>
+ *     1. FileOutputStream 写入超过 8KB 的堆数组时每次都要在本地内存中临时分配并复制一份，
+ *        改为直接缓冲区经 FileChannel 写入，缓冲区复用，不再为每次上传分配
+ *     2. 来源本身是文件时直接 transferFrom，由内核在文件间复制
+ *     3. 池满时归还的缓冲区直接丢弃，池空时临时分配，不会阻塞上传
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class DirectBufferPool {
+
+    /**
+     * 共享实例：64KB × 最多32个，常驻直接内存不超过2MB
+     */
+    public static final DirectBufferPool SHARED = new DirectBufferPool(64 * 1024, 32);
+
+    private final int bufferSize;
+
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    public DirectBufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /**
+     * 取出一个已清空的缓冲区，用完必须 {@link #release(ByteBuffer)}
+     */
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.isDirect() && buffer.capacity() == bufferSize) {
+            buffer.clear();
+            buffers.offer(buffer);
+        }
+    }
+
+    /**
+     * 把输入流写入文件，已存在的文件会被覆盖，不关闭输入流
+     *
+     * @return 写入的字节数
+     */
+    public long copy(InputStream in, Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (in instanceof FileInputStream) {
+                FileChannel source = ((FileInputStream) in).getChannel();
+                long total = 0;
+                long size = source.size() - source.position();
+                while (total < size) {
+                    long n = out.transferFrom(source, total, size - total);
+                    if (n <= 0) {
+                        break;
+                    }
+                    total += n;
+                }
+                return total;
+            }
+
+            ReadableByteChannel source = Channels.newChannel(in);
+            ByteBuffer buffer = acquire();
+            try {
+                long total = 0;
+                while (source.read(buffer) != -1) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        total += out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                return total;
+            } finally {
+                release(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * 上传目录扫描，用于从磁盘重建文件目录索引
+ * <pre>
+ *     1. 一次遍历整棵目录树，文件大小和修改时间取自遍历时已读到的属性，不再逐个 stat
+ *     2. 结果按批交给调用方写入索引，内存中只保留一批
+ *     3. 无法访问的文件或目录跳过，不中断扫描
+ *     4. 相对路径统一使用 '/' 分隔，第一级目录为分类
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class FileCatalogScanner {
+
+    private FileCatalogScanner() {
+    }
+
+    /**
+     * 扫描目录下的所有文件
+     *
+     * @param root      上传根目录
+     * @param batchSize 每批文件数
+     * @param consumer  批处理，收到的列表在返回后不再使用
+     * @return 扫描到的文件数
+     */
+    public static long scan(Path root, int batchSize, Consumer<List<ScannedFile>> consumer) throws IOException {
+        List<ScannedFile> batch = new ArrayList<>(batchSize);
+        long[] total = {0};
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (!attrs.isRegularFile()) {
+                    return FileVisitResult.CONTINUE;
+                }
+                batch.add(new ScannedFile(relativize(root, file), attrs.size(), attrs.lastModifiedTime().toMillis()));
+                total[0]++;
+                if (batch.size() >= batchSize) {
+                    consumer.accept(new ArrayList<>(batch));
+                    batch.clear();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return total[0];
+    }
+
+    /**
+     * 规范化相对路径：统一 '/' 分隔，去掉开头的 '/'
+     */
+    public static String normalize(String relativePath) {
+        if (relativePath == null) {
+            return null;
+        }
+        String path = relativePath.replace('\\', '/');
+        int start = 0;
+        while (start < path.length() && path.charAt(start) == '/') {
+            start++;
+        }
+        return path.substring(start);
+    }
+
+    /**
+     * 相对路径的分类（第一级目录），直接位于根目录下的文件分类为空字符串
+     */
+    public static String categoryOf(String relativePath) {
+        String path = normalize(relativePath);
+        int slash = path.indexOf('/');
+        return slash > 0 ? path.substring(0, slash) : "";
+    }
+
+    public static String fileNameOf(String relativePath) {
+        String path = normalize(relativePath);
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    /**
+     * 小写的扩展名，不含 '.'，没有扩展名时返回空字符串
+     */
+    public static String extensionOf(String fileName) {
+        if (fileName == null) {
+            return "";
+        }
+        int dot = fileName.lastIndexOf('.');
+        int slash = Math.max(fileName.lastIndexOf('/'), fileName.lastIndexOf('\\'));
+        return dot > slash + 1 && dot < fileName.length() - 1 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static String relativize(Path root, Path file) {
+        StringBuilder sb = new StringBuilder();
+        for (Path name : root.relativize(file)) {
+            if (sb.length() > 0) {
+                sb.append('/');
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 扫描到的文件
+     */
+    public static final class ScannedFile {
+
+        private final String relativePath;
+
+        private final long size;
+
+        private final long lastModified;
+
+        ScannedFile(String relativePath, long size, long lastModified) {
+            this.relativePath = relativePath;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        public String getRelativePath() {
+            return relativePath;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+    }
+}
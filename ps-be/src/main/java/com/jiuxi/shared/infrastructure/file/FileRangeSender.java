@@ -0,0 +1,246 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import org.springframework.http.HttpRange;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 本地文件下载/预览输出
+ * <pre>
+ *     1. 支持 Range 单段、多段（multipart/byteranges）请求，用于断点续传和视频拖动预览
+ *     2. 支持 ETag/Last-Modified 条件请求，未修改时返回 304；If-Range 不匹配时返回完整文件
+ *     3. 文件内容经 FileChannel.transferTo 输出；容器为 Tomcat 且支持 sendfile 时，单段输出交给 Tomcat 用 sendfile 直接从磁盘写到 socket
+ *     4. 不带 request 调用时（旧接口）不处理 Range 和条件请求，只输出完整文件
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class FileRangeSender {
+
+    private static final String SENDFILE_SUPPORTED_ATTR = "org.apache.tomcat.sendfile.support";
+
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+
+    private static final String SENDFILE_FILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+
+    private static final String SENDFILE_FILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    private FileRangeSender() {
+    }
+
+    /**
+     * 输出文件
+     *
+     * @param file        本地文件
+     * @param fileName    下载后的文件名称
+     * @param contentType 内容类型，为空时按下载处理
+     * @param inline      true:在浏览器中预览 false:作为附件下载
+     * @param request     可以为空，为空时不处理 Range 和条件请求
+     * @param response    响应
+     */
+    public static void send(File file, String fileName, String contentType, boolean inline,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = file.length();
+        long lastModified = file.lastModified() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        String type = contentType != null ? contentType : DEFAULT_CONTENT_TYPE;
+
+        response.setHeader("Accept-Ranges", "bytes");
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+
+        if (request != null && notModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(type);
+        response.setHeader("Content-Disposition", contentDisposition(fileName, inline && contentType != null));
+        boolean head = request != null && "HEAD".equalsIgnoreCase(request.getMethod());
+
+        List<long[]> ranges = request != null && ifRangeMatches(request, etag, lastModified)
+                ? parseRanges(request.getHeader("Range"), length)
+                : null;
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Range", "bytes */" + length);
+            return;
+        }
+
+        if (ranges == null) {
+            response.setContentLengthLong(length);
+            if (!head) {
+                transfer(file, 0, length, request, response);
+            }
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            response.setHeader("Content-Range", "bytes " + range[0] + "-" + range[1] + "/" + length);
+            response.setContentLengthLong(range[1] - range[0] + 1);
+            if (!head) {
+                transfer(file, range[0], range[1] - range[0] + 1, request, response);
+            }
+            return;
+        }
+
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        List<byte[]> partHeaders = new ArrayList<>(ranges.size());
+        long contentLength = 0;
+        for (long[] range : ranges) {
+            byte[] header = ("\r\n--" + boundary + "\r\nContent-Type: " + type + "\r\nContent-Range: bytes "
+                    + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1);
+            partHeaders.add(header);
+            contentLength += header.length + range[1] - range[0] + 1;
+        }
+        byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        contentLength += end.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            for (int i = 0; i < ranges.size(); i++) {
+                long[] range = ranges.get(i);
+                out.write(partHeaders.get(i));
+                transferTo(channel, range[0], range[1] - range[0] + 1, target);
+            }
+        }
+        out.write(end);
+        out.flush();
+    }
+
+    /**
+     * 解析 Range 请求头
+     *
+     * @return null:没有或无法解析 Range，按完整文件输出；空列表:所有区间都超出文件长度
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        if (header == null || header.isEmpty()) {
+            return null;
+        }
+        List<HttpRange> httpRanges;
+        try {
+            httpRanges = HttpRange.parseRanges(header);
+        } catch (IllegalArgumentException e) {
+            // 格式错误或区间过多时忽略 Range
+            return null;
+        }
+
+        List<long[]> ranges = new ArrayList<>(httpRanges.size());
+        long total = 0;
+        for (HttpRange httpRange : httpRanges) {
+            long start = httpRange.getRangeStart(length);
+            long end = Math.min(httpRange.getRangeEnd(length), length - 1);
+            if (start < 0 || start >= length || end < start) {
+                continue;
+            }
+            ranges.add(new long[]{start, end});
+            total += end - start + 1;
+        }
+        // 多段区间合计超过文件本身时（大量重叠区间）按完整文件输出，避免放大响应
+        return total > length ? null : ranges;
+    }
+
+    private static boolean notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, "If-Modified-Since");
+        return ifModifiedSince != -1 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * 带 If-Range 时只有 ETag 或修改时间一致才按 Range 输出
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.trim().equals(etag);
+        }
+        return dateHeader(request, "If-Range") == lastModified;
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if ("*".equals(value) || value.equals(etag) || value.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    private static String contentDisposition(String fileName, boolean inline) throws IOException {
+        String encoded = URLEncoder.encode(fileName, "UTF-8");
+        return inline
+                ? "inline; filename*=utf-8''" + encoded
+                : "attachment; filename=\"" + encoded + "\"";
+    }
+
+    /**
+     * 单段输出，Tomcat 支持时交给 sendfile，否则经 FileChannel.transferTo 写出
+     */
+    private static void transfer(File file, long position, long count, HttpServletRequest request,
+                                 HttpServletResponse response) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        if (request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED_ATTR))) {
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.getCanonicalPath());
+            request.setAttribute(SENDFILE_FILE_START_ATTR, position);
+            request.setAttribute(SENDFILE_FILE_END_ATTR, position + count);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            transferTo(channel, position, count, Channels.newChannel(out));
+        }
+        out.flush();
+    }
+
+    private static void transferTo(FileChannel channel, long position, long count, WritableByteChannel target) throws IOException {
+        long end = position + count;
+        while (position < end) {
+            long n = channel.transferTo(position, end - position, target);
+            if (n <= 0) {
+                throw new IOException("文件在输出过程中被截断");
+            }
+            position += n;
+        }
+    }
+}
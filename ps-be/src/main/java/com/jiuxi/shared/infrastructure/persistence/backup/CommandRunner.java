@@ -0,0 +1,34 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 外部命令执行入口，测试中可替换为内存实现
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+interface CommandRunner {
+
+    /**
+     * 执行命令，标准输出和错误输出边产生边写入给定的流
+     *
+     * @param command       命令及参数
+     * @param environment   追加的环境变量
+     * @param stdout        标准输出
+     * @param stderr        错误输出
+     * @param timeoutMillis 超时时间
+     * @return 退出码
+     * @throws IOException 命令无法启动、超时或被取消
+     */
+    int run(List<String> command, Map<String, String> environment, OutputStream stdout, OutputStream stderr,
+            long timeoutMillis) throws IOException;
+
+    /**
+     * 终止所有正在执行的命令
+     */
+    void cancelAll();
+}
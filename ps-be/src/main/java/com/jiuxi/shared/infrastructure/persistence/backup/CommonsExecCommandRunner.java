@@ -0,0 +1,61 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import org.apache.commons.exec.CommandLine;
+import org.apache.commons.exec.DefaultExecutor;
+import org.apache.commons.exec.ExecuteWatchdog;
+import org.apache.commons.exec.PumpStreamHandler;
+import org.apache.commons.exec.environment.EnvironmentUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 基于 commons-exec 的命令执行，子进程输出由泵线程直接写入目标流，不在内存中缓存
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+class CommonsExecCommandRunner implements CommandRunner {
+
+    private final Set<ExecuteWatchdog> running = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public int run(List<String> command, Map<String, String> environment, OutputStream stdout, OutputStream stderr,
+                   long timeoutMillis) throws IOException {
+        CommandLine cmdLine = new CommandLine(command.get(0));
+        for (int i = 1; i < command.size(); i++) {
+            // 参数逐个传递，不经过 shell 解析，无需转义
+            cmdLine.addArgument(command.get(i), false);
+        }
+
+        DefaultExecutor executor = new DefaultExecutor();
+        // 退出码由调用方判断
+        executor.setExitValues(null);
+        executor.setStreamHandler(new PumpStreamHandler(stdout, stderr));
+        ExecuteWatchdog watchdog = new ExecuteWatchdog(timeoutMillis);
+        executor.setWatchdog(watchdog);
+
+        Map<String, String> env = EnvironmentUtils.getProcEnvironment();
+        env.putAll(environment);
+
+        running.add(watchdog);
+        try {
+            int exitCode = executor.execute(cmdLine, env);
+            if (watchdog.killedProcess()) {
+                throw new IOException("命令执行超时或已被取消: " + command.get(0));
+            }
+            return exitCode;
+        } finally {
+            running.remove(watchdog);
+        }
+    }
+
+    @Override
+    public void cancelAll() {
+        running.forEach(ExecuteWatchdog::destroyProcess);
+    }
+}
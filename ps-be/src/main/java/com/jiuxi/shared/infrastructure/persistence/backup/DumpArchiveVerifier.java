@@ -0,0 +1,138 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 备份文件校验：一次顺序读取完成 SHA-256 比对、gzip 完整性检查和 mysqldump 结束标记检查
+ * <pre>
+ *     mysqldump 正常结束时最后一行是 "-- Dump completed on ..."，被中断的导出没有这一行。
+ *     并行备份由多个片段拼接，每个片段都有自己的结束标记，标记数需与备份时记录的片段数一致
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class DumpArchiveVerifier {
+
+    private static final byte[] COMPLETED_MARKER = "\n-- Dump completed".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 最后一个结束标记之后允许的尾随字节数（日期时间和换行）
+     */
+    private static final int TRAILER_LIMIT = 64;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private DumpArchiveVerifier() {
+    }
+
+    /**
+     * 校验备份文件
+     *
+     * @param file           备份文件
+     * @param expectedSha256 备份时记录的 SHA-256，为空时不比对
+     * @param expectedParts  备份时记录的片段数，小于1时只要求至少一个结束标记
+     * @return 校验结果，文件损坏时返回不通过而不是抛出异常
+     */
+    public static DumpVerifyResult verify(Path file, String expectedSha256, int expectedParts) {
+        if (!Files.isRegularFile(file)) {
+            return new DumpVerifyResult(false, "备份文件不存在", null, 0, 0, 0);
+        }
+
+        MessageDigest digest = MysqlDumpEngine.sha256();
+        long fileBytes;
+        MarkerScanner scanner = new MarkerScanner();
+        String readError = null;
+        try (DigestInputStream hashed = new DigestInputStream(Files.newInputStream(file), digest)) {
+            BufferedInputStream in = new BufferedInputStream(hashed, BUFFER_SIZE);
+            try {
+                InputStream content = isGzip(in) ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+                scanner.consume(content);
+            } catch (IOException e) {
+                readError = e.getMessage();
+            }
+            // 内容损坏时仍把剩余字节读完，保证摘要覆盖整个文件
+            drain(in);
+            fileBytes = Files.size(file);
+        } catch (IOException e) {
+            return new DumpVerifyResult(false, "读取备份文件失败: " + e.getMessage(), null, 0, 0, 0);
+        }
+
+        String sha256 = MysqlDumpEngine.toHex(digest.digest());
+        String message = null;
+        if (expectedSha256 != null && !expectedSha256.isEmpty() && !expectedSha256.equalsIgnoreCase(sha256)) {
+            message = "SHA-256 不一致，备份文件已被修改或损坏";
+        } else if (readError != null) {
+            message = "备份文件解压失败: " + readError;
+        } else if (scanner.markers == 0) {
+            message = "缺少导出结束标记，备份不完整";
+        } else if (expectedParts > 0 && scanner.markers != expectedParts) {
+            message = "导出结束标记数 " + scanner.markers + " 与片段数 " + expectedParts + " 不一致，备份不完整";
+        } else if (scanner.total - scanner.lastMarkerEnd > TRAILER_LIMIT) {
+            message = "导出结束标记之后存在多余内容，备份文件异常";
+        }
+        return new DumpVerifyResult(message == null, message, sha256, scanner.total, fileBytes, scanner.markers);
+    }
+
+    private static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        return b1 == 0x1f && b2 == 0x8b;
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        while (in.read(buffer) != -1) {
+            // 仅用于更新摘要
+        }
+    }
+
+    /**
+     * 流式查找结束标记，标记可能跨越两次读取的边界
+     */
+    private static final class MarkerScanner {
+
+        private long total;
+
+        private int markers;
+
+        private long lastMarkerEnd;
+
+        private int matched;
+
+        void consume(InputStream in) throws IOException {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                for (int i = 0; i < n; i++) {
+                    accept(buffer[i]);
+                }
+            }
+        }
+
+        private void accept(byte b) {
+            total++;
+            if (b == COMPLETED_MARKER[matched]) {
+                matched++;
+            } else {
+                // 标记只在开头含有换行，失配时只需判断当前字节能否重新开始匹配
+                matched = b == COMPLETED_MARKER[0] ? 1 : 0;
+            }
+            if (matched == COMPLETED_MARKER.length) {
+                markers++;
+                matched = 0;
+                lastMarkerEnd = total;
+            }
+        }
+    }
+}
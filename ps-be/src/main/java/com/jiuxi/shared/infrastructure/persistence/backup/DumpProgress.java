@@ -0,0 +1,59 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 备份实时进度，导出线程写入，进度上报线程读取
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class DumpProgress {
+
+    private final LongAdder rawBytes = new LongAdder();
+
+    private final LongAdder writtenBytes = new LongAdder();
+
+    private final AtomicInteger totalParts = new AtomicInteger();
+
+    private final AtomicInteger completedParts = new AtomicInteger();
+
+    void addRawBytes(long bytes) {
+        rawBytes.add(bytes);
+    }
+
+    void addWrittenBytes(long bytes) {
+        writtenBytes.add(bytes);
+    }
+
+    void setTotalParts(int parts) {
+        totalParts.set(parts);
+    }
+
+    void partCompleted() {
+        completedParts.incrementAndGet();
+    }
+
+    /**
+     * mysqldump 已输出的原始字节数
+     */
+    public long getRawBytes() {
+        return rawBytes.sum();
+    }
+
+    /**
+     * 已写入磁盘的字节数（压缩后）
+     */
+    public long getWrittenBytes() {
+        return writtenBytes.sum();
+    }
+
+    public int getTotalParts() {
+        return totalParts.get();
+    }
+
+    public int getCompletedParts() {
+        return completedParts.get();
+    }
+}
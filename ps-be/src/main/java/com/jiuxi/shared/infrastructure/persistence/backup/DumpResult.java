@@ -0,0 +1,53 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+/**
+ * 备份结果
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class DumpResult {
+
+    private final String sha256;
+
+    private final long rawBytes;
+
+    private final long fileBytes;
+
+    private final int parts;
+
+    public DumpResult(String sha256, long rawBytes, long fileBytes, int parts) {
+        this.sha256 = sha256;
+        this.rawBytes = rawBytes;
+        this.fileBytes = fileBytes;
+        this.parts = parts;
+    }
+
+    /**
+     * 备份文件的 SHA-256（十六进制）
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * 未压缩的导出字节数
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    /**
+     * 备份文件字节数
+     */
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * 导出片段数，每个片段以 mysqldump 的 "-- Dump completed" 结尾
+     */
+    public int getParts() {
+        return parts;
+    }
+}
@@ -0,0 +1,67 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+/**
+ * 备份文件校验结果
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class DumpVerifyResult {
+
+    private final boolean valid;
+
+    private final String message;
+
+    private final String sha256;
+
+    private final long rawBytes;
+
+    private final long fileBytes;
+
+    private final int completedParts;
+
+    public DumpVerifyResult(boolean valid, String message, String sha256, long rawBytes, long fileBytes, int completedParts) {
+        this.valid = valid;
+        this.message = message;
+        this.sha256 = sha256;
+        this.rawBytes = rawBytes;
+        this.fileBytes = fileBytes;
+        this.completedParts = completedParts;
+    }
+
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * 校验不通过的原因
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * 重新计算出的文件 SHA-256，文件无法读取时为空
+     */
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * 解压后的字节数
+     */
+    public long getRawBytes() {
+        return rawBytes;
+    }
+
+    public long getFileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * 读到的 "-- Dump completed" 结束标记数
+     */
+    public int getCompletedParts() {
+        return completedParts;
+    }
+}
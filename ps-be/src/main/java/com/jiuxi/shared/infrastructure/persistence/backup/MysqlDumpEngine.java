@@ -0,0 +1,406 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 流式 mysqldump 备份引擎
+ * <pre>
+ *     1. mysqldump 的标准输出经管道边读边 gzip 压缩写入文件，写盘的同时滚动计算 SHA-256，不在内存中缓存导出内容
+ *     2. 原始字节数与写盘字节数实时累加到 {@link DumpProgress}，供调用方定期上报
+ *     3. 并行度大于1时拆成“库结构 -> 各表数据 -> 触发器”多个片段，表数据按并行度同时导出到临时片段文件，
+ *        全部成功后按顺序拼接。gzip 支持多成员串联，解压结果与各片段依次相连相同，可直接用 mysql 客户端恢复。
+ *        注意各表各自开启一致性快照，表与表之间不再是同一时间点
+ *     4. 密码通过 MYSQL_PWD 环境变量传给子进程，不出现在命令行和日志中
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class MysqlDumpEngine {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * 错误输出最多保留的字节数
+     */
+    private static final int STDERR_LIMIT = 16 * 1024;
+
+    private final MysqlDumpOptions options;
+
+    private final CommandRunner runner;
+
+    private volatile boolean cancelled;
+
+    public MysqlDumpEngine(MysqlDumpOptions options) {
+        this(options, new CommonsExecCommandRunner());
+    }
+
+    MysqlDumpEngine(MysqlDumpOptions options, CommandRunner runner) {
+        this.options = options;
+        this.runner = runner;
+    }
+
+    /**
+     * 执行备份
+     *
+     * @param target   备份文件
+     * @param progress 实时进度
+     * @return 备份结果
+     * @throws IOException 导出失败、超时或被取消
+     */
+    public DumpResult dump(Path target, DumpProgress progress) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        if (options.getParallelism() <= 1) {
+            return singleDump(target, progress);
+        }
+        return parallelDump(target, progress);
+    }
+
+    /**
+     * 取消备份，终止正在执行的导出进程
+     */
+    public void cancel() {
+        cancelled = true;
+        runner.cancelAll();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 备份命令描述，用于记录到备份日志
+     */
+    public String describeCommand() {
+        List<String> command = options.getParallelism() <= 1 ? singleCommand() : schemaCommand();
+        String description = String.join(" ", command);
+        if (options.getParallelism() > 1) {
+            description += " ... (按表并行，并行度 " + options.getParallelism() + ")";
+        }
+        return options.isCompress() ? description + " | gzip" : description;
+    }
+
+    private DumpResult singleDump(Path target, DumpProgress progress) throws IOException {
+        progress.setTotalParts(1);
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+            dumpPart(singleCommand(), out, progress);
+        }
+        return new DumpResult(toHex(digest.digest()), progress.getRawBytes(), Files.size(target), 1);
+    }
+
+    private DumpResult parallelDump(Path target, DumpProgress progress) throws IOException {
+        List<List<String>> commands = new ArrayList<>();
+        commands.add(schemaCommand());
+        for (String table : listTables()) {
+            commands.add(tableDataCommand(table));
+        }
+        commands.add(triggerCommand());
+        progress.setTotalParts(commands.size());
+
+        List<Path> parts = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            parts.add(target.resolveSibling(target.getFileName() + ".part" + i));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(options.getParallelism(), commands.size()),
+                new DumpThreadFactory(target.getFileName().toString()));
+        try {
+            List<Future<?>> futures = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                List<String> command = commands.get(i);
+                Path part = parts.get(i);
+                futures.add(pool.submit(() -> {
+                    try (OutputStream out = Files.newOutputStream(part)) {
+                        dumpPart(command, out, progress);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // 任一片段失败即终止其余片段
+                    cancel();
+                    Throwable cause = e.getCause();
+                    throw cause instanceof IOException ? (IOException) cause : new IOException(cause.getMessage(), cause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    throw new InterruptedIOException("备份被中断");
+                }
+            }
+
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+                for (Path part : parts) {
+                    Files.copy(part, out);
+                }
+            }
+            return new DumpResult(toHex(digest.digest()), progress.getRawBytes(), Files.size(target), commands.size());
+        } finally {
+            pool.shutdownNow();
+            awaitTermination(pool);
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    /**
+     * 等待已取消的片段退出，避免清理临时片段后又被重新创建
+     */
+    private static void awaitTermination(ExecutorService pool) {
+        try {
+            pool.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 导出一个片段：命令输出 -> 计数 -> 压缩 -> 计数 -> sink，sink 由调用方关闭
+     */
+    private void dumpPart(List<String> command, OutputStream sink, DumpProgress progress) throws IOException {
+        checkCancelled();
+        OutputStream written = new CountingOutputStream(sink, progress::addWrittenBytes);
+        OutputStream encoder = options.isCompress()
+                ? new GZIPOutputStream(written, BUFFER_SIZE)
+                : new BufferedOutputStream(written, BUFFER_SIZE);
+        OutputStream raw = new CountingOutputStream(encoder, progress::addRawBytes);
+        LimitedBuffer stderr = new LimitedBuffer(STDERR_LIMIT);
+
+        int exitCode = runner.run(command, environment(), raw, stderr, options.getTimeoutMillis());
+        checkCancelled();
+        if (exitCode != 0) {
+            throw new IOException("备份命令执行失败，退出码: " + exitCode + "，错误输出: " + stderr);
+        }
+        if (encoder instanceof GZIPOutputStream) {
+            ((GZIPOutputStream) encoder).finish();
+        }
+        encoder.flush();
+        progress.partCompleted();
+    }
+
+    /**
+     * 查询需要导出的表，按数据量从大到小排列，让大表先开始
+     */
+    List<String> listTables() throws IOException {
+        String sql = "SELECT TABLE_NAME FROM information_schema.TABLES WHERE TABLE_SCHEMA = '"
+                + options.getDatabaseName().replace("\\", "\\\\").replace("'", "''")
+                + "' AND TABLE_TYPE = 'BASE TABLE' ORDER BY DATA_LENGTH DESC";
+        List<String> command = new ArrayList<>();
+        command.add(options.getMysqlPath());
+        command.addAll(connectionArgs());
+        command.addAll(Arrays.asList("-N", "-B", "-e", sql));
+
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        LimitedBuffer stderr = new LimitedBuffer(STDERR_LIMIT);
+        int exitCode = runner.run(command, environment(), stdout, stderr, options.getTimeoutMillis());
+        if (exitCode != 0) {
+            throw new IOException("查询表清单失败，退出码: " + exitCode + "，错误输出: " + stderr);
+        }
+
+        List<String> tables = new ArrayList<>();
+        for (String line : stdout.toString(StandardCharsets.UTF_8.name()).split("\\r?\\n")) {
+            if (!line.trim().isEmpty()) {
+                tables.add(line.trim());
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * 单进程导出：与原有备份选项一致，整库在同一个一致性快照中
+     */
+    private List<String> singleCommand() {
+        List<String> command = baseCommand();
+        command.addAll(Arrays.asList("--single-transaction", "--routines", "--triggers", "--lock-tables=false",
+                "--add-drop-database", "--databases", options.getDatabaseName()));
+        return command;
+    }
+
+    /**
+     * 并行片段一：建库、表结构、存储过程，不含数据和触发器
+     */
+    private List<String> schemaCommand() {
+        List<String> command = baseCommand();
+        command.addAll(Arrays.asList("--no-data", "--skip-triggers", "--routines", "--add-drop-database",
+                "--databases", options.getDatabaseName()));
+        return command;
+    }
+
+    /**
+     * 并行片段二：单表数据
+     */
+    private List<String> tableDataCommand(String table) {
+        List<String> command = baseCommand();
+        command.addAll(Arrays.asList("--single-transaction", "--lock-tables=false", "--no-create-info",
+                "--skip-triggers", options.getDatabaseName(), table));
+        return command;
+    }
+
+    /**
+     * 并行片段三：触发器，放在数据之后，避免恢复数据时触发
+     */
+    private List<String> triggerCommand() {
+        List<String> command = baseCommand();
+        command.addAll(Arrays.asList("--no-data", "--no-create-info", "--no-create-db", "--skip-routines",
+                "--triggers", options.getDatabaseName()));
+        return command;
+    }
+
+    private List<String> baseCommand() {
+        List<String> command = new ArrayList<>();
+        command.add(options.getMysqldumpPath());
+        command.addAll(connectionArgs());
+        command.add("--default-character-set=utf8");
+        return command;
+    }
+
+    private List<String> connectionArgs() {
+        return new ArrayList<>(Arrays.asList("-h", options.getHost(), "-P", options.getPort(), "-u", options.getUsername()));
+    }
+
+    private Map<String, String> environment() {
+        String password = options.getPassword();
+        return password == null || password.isEmpty()
+                ? Collections.emptyMap()
+                : Collections.singletonMap("MYSQL_PWD", password);
+    }
+
+    private void checkCancelled() throws IOException {
+        if (cancelled) {
+            throw new IOException("备份已取消");
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 写入计数，不关闭下游
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final LongConsumer counter;
+
+        CountingOutputStream(OutputStream out, LongConsumer counter) {
+            super(out);
+            this.counter = counter;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            counter.accept(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            counter.accept(len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 只保留前 limit 个字节的缓冲，用于收集错误输出
+     */
+    static final class LimitedBuffer extends OutputStream {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private final int limit;
+
+        private boolean truncated;
+
+        LimitedBuffer(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            int accept = Math.min(len, limit - buffer.size());
+            if (accept > 0) {
+                buffer.write(b, off, accept);
+            }
+            truncated |= accept < len;
+        }
+
+        @Override
+        public synchronized String toString() {
+            String text = new String(buffer.toByteArray(), StandardCharsets.UTF_8).trim();
+            return truncated ? text + "...(已截断)" : text;
+        }
+    }
+
+    private static final class DumpThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        DumpThreadFactory(String name) {
+            this.prefix = "db-dump-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
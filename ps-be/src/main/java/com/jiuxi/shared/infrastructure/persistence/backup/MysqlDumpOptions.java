@@ -0,0 +1,128 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+/**
+ * mysqldump 备份参数
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class MysqlDumpOptions {
+
+    /**
+     * mysqldump 程序路径
+     */
+    private String mysqldumpPath = "mysqldump";
+
+    /**
+     * mysql 客户端路径，并行备份时用于查询表清单
+     */
+    private String mysqlPath = "mysql";
+
+    private String host = "localhost";
+
+    private String port = "3306";
+
+    private String username;
+
+    /**
+     * 密码通过 MYSQL_PWD 环境变量传给子进程，不出现在命令行中
+     */
+    private String password;
+
+    private String databaseName;
+
+    /**
+     * 并行度，大于1时按表并行导出数据
+     */
+    private int parallelism = 1;
+
+    /**
+     * 是否 gzip 压缩
+     */
+    private boolean compress = true;
+
+    /**
+     * 单个导出进程的超时时间
+     */
+    private long timeoutMillis = 30 * 60 * 1000L;
+
+    public String getMysqldumpPath() {
+        return mysqldumpPath;
+    }
+
+    public void setMysqldumpPath(String mysqldumpPath) {
+        this.mysqldumpPath = mysqldumpPath;
+    }
+
+    public String getMysqlPath() {
+        return mysqlPath;
+    }
+
+    public void setMysqlPath(String mysqlPath) {
+        this.mysqlPath = mysqlPath;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public void setHost(String host) {
+        this.host = host;
+    }
+
+    public String getPort() {
+        return port;
+    }
+
+    public void setPort(String port) {
+        this.port = port;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public void setDatabaseName(String databaseName) {
+        this.databaseName = databaseName;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public boolean isCompress() {
+        return compress;
+    }
+
+    public void setCompress(boolean compress) {
+        this.compress = compress;
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public void setTimeoutMillis(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+    }
+}
@@ -0,0 +1,269 @@
+package com.jiuxi.shared.infrastructure.persistence.batch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 日志行异步批量写入器
+ * <pre>
+ *     1. 请求线程只把日志行放入有界缓冲区，缓冲区满时立即丢弃并计数，不阻塞业务
+ *     2. 单个后台线程按条数阈值（batchSize）或时间阈值（flushInterval）批量刷盘，
+ *        最早入队的一行最多等待一个 flushInterval
+ *     3. 关闭时停止接收新行，把缓冲区剩余数据全部写完后退出
+ *     4. 写入失败的批次只记录日志和失败计数，不重试
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class BatchLogWriter<T> implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchLogWriter.class);
+
+    private final String name;
+
+    private final BlockingQueue<T> buffer;
+
+    private final int batchSize;
+
+    private final long flushIntervalMillis;
+
+    private final Consumer<List<T>> sink;
+
+    private final Thread worker;
+
+    private volatile boolean running = true;
+
+    /**
+     * 后台线程是否阻塞在等待新数据上，关闭时只在此状态下中断它，避免打断正在进行的写库
+     */
+    private boolean waiting;
+
+    private final Object wakeLock = new Object();
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder failed = new LongAdder();
+
+    private final LongAdder flushes = new LongAdder();
+
+    /**
+     * 上次告警时的丢弃数，仅后台线程读写
+     */
+    private long reportedDropped;
+
+    /**
+     * @param name                名称，用于线程名和日志
+     * @param capacity            缓冲区容量
+     * @param batchSize           单批最大行数
+     * @param flushIntervalMillis 最长攒批时间
+     * @param sink                批量写入逻辑，例如多行 INSERT
+     */
+    public BatchLogWriter(String name, int capacity, int batchSize, long flushIntervalMillis, Consumer<List<T>> sink) {
+        if (capacity <= 0 || batchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("capacity、batchSize、flushIntervalMillis 必须大于0");
+        }
+        this.name = name;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.sink = sink;
+        this.worker = new Thread(this::runLoop, "batch-log-writer-" + name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * 提交一行日志，缓冲区已满或写入器已关闭时返回 false
+     */
+    public boolean offer(T row) {
+        if (row == null) {
+            return false;
+        }
+        if (running && buffer.offer(row)) {
+            accepted.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    /**
+     * 停止接收新行，等待缓冲区写完
+     *
+     * @param timeoutMillis 最长等待时间
+     * @return boolean 是否在超时前写完
+     */
+    public boolean shutdown(long timeoutMillis) {
+        running = false;
+        synchronized (wakeLock) {
+            if (waiting) {
+                worker.interrupt();
+            }
+        }
+        try {
+            worker.join(timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        boolean drained = !worker.isAlive();
+        if (!drained) {
+            LOGGER.warn("[{}] 关闭超时，仍有 {} 条日志未写入", name, buffer.size());
+        }
+        return drained;
+    }
+
+    @Override
+    public void close() {
+        shutdown(flushIntervalMillis * 10);
+    }
+
+    private void runLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                T first = await(flushIntervalMillis);
+                if (first == null) {
+                    reportDropped();
+                    continue;
+                }
+                batch.add(first);
+                collect(batch, System.currentTimeMillis() + flushIntervalMillis);
+            } catch (InterruptedException e) {
+                // 关闭时的唤醒，靠 running 标志退出，保证缓冲区写完
+            }
+            flush(batch);
+            reportDropped();
+        }
+        LOGGER.info("[{}] 写入器已停止，累计写入 {} 条，失败 {} 条，丢弃 {} 条",
+                name, written.sum(), failed.sum(), dropped.sum());
+    }
+
+    /**
+     * 攒满一批或到达截止时间；关闭时不再等待
+     */
+    private void collect(List<T> batch, long deadline) throws InterruptedException {
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            if (batch.size() >= batchSize || !running) {
+                return;
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return;
+            }
+            T next = await(remaining);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * 等待下一行数据；已关闭时不再阻塞
+     */
+    private T await(long timeoutMillis) throws InterruptedException {
+        synchronized (wakeLock) {
+            if (!running) {
+                return buffer.poll();
+            }
+            waiting = true;
+        }
+        try {
+            return buffer.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            synchronized (wakeLock) {
+                waiting = false;
+            }
+            // 清除 poll 返回后才到达的中断标记
+            Thread.interrupted();
+        }
+    }
+
+    private void flush(List<T> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            sink.accept(batch);
+            written.add(batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            LOGGER.error("[{}] 批量写入 {} 条日志失败", name, batch.size(), e);
+        } finally {
+            flushes.increment();
+            batch.clear();
+        }
+    }
+
+    private void reportDropped() {
+        long total = dropped.sum();
+        if (total > reportedDropped) {
+            LOGGER.warn("[{}] 缓冲区已满，新增丢弃 {} 条，累计丢弃 {} 条", name, total - reportedDropped, total);
+            reportedDropped = total;
+        }
+    }
+
+    /**
+     * 运行统计：待写入、已接收、已写入、失败、丢弃行数及刷盘次数
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("name", name);
+        statistics.put("running", running);
+        statistics.put("pending", getPending());
+        statistics.put("accepted", getAccepted());
+        statistics.put("written", getWritten());
+        statistics.put("failed", getFailed());
+        statistics.put("dropped", getDropped());
+        statistics.put("flushes", getFlushes());
+        return statistics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getPending() {
+        return buffer.size();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getFlushes() {
+        return flushes.sum();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
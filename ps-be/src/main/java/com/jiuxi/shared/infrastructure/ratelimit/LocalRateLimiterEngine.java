@@ -0,0 +1,204 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内无锁限流引擎
+ * <pre>
+ *     1. 滑动窗口：每个 key 保存 [窗口序号, 上一窗口计数, 当前窗口 LongAdder]，跨窗口时 CAS 整体替换，
+ *        计数走 LongAdder 分段累加，高并发下不争用同一缓存行
+ *     2. 令牌桶：按 GCRA 只保存一个“理论到达时间”（纳秒），一次 CAS 完成补充与扣减
+ *     3. 先计数后判断，超限时回退，因此并发下只会偏严不会超发
+ *     4. 超过两个窗口未访问的 key 在后续请求中被顺带清理
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class LocalRateLimiterEngine implements RateLimiterEngine {
+
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * 清理空闲 key 的最小间隔
+     */
+    private static final long SWEEP_INTERVAL_NANOS = 10_000L * NANOS_PER_MILLI;
+
+    private final ConcurrentHashMap<String, SlidingWindowState> windows = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, TokenBucketState> buckets = new ConcurrentHashMap<>();
+
+    private final RateLimiterMetrics metrics = new RateLimiterMetrics();
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong nextSweep;
+
+    public LocalRateLimiterEngine() {
+        this(System::nanoTime);
+    }
+
+    LocalRateLimiterEngine(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.nextSweep = new AtomicLong(nanoClock.getAsLong() + SWEEP_INTERVAL_NANOS);
+        this.metrics.trackKeys(() -> windows.size() + buckets.size());
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String resource, String key, RateLimitRule rule) {
+        long now = nanoClock.getAsLong();
+        sweepIfDue(now);
+
+        String stateKey = resource + ":" + key;
+        RateLimitDecision decision = rule.getAlgorithm() == RateLimitAlgorithm.TOKEN_BUCKET
+                ? buckets.computeIfAbsent(stateKey, k -> new TokenBucketState(rule)).acquire(now)
+                : windows.computeIfAbsent(stateKey, k -> new SlidingWindowState(rule)).acquire(now);
+        metrics.record(resource, decision.isAllowed());
+        return decision;
+    }
+
+    @Override
+    public RateLimiterMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getType() {
+        return "local";
+    }
+
+    private void sweepIfDue(long now) {
+        long due = nextSweep.get();
+        if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+            return;
+        }
+        windows.values().removeIf(state -> state.isIdle(now));
+        buckets.values().removeIf(state -> state.isIdle(now));
+    }
+
+    /**
+     * 滑动窗口计数状态
+     */
+    static final class SlidingWindowState {
+
+        private final double limit;
+
+        private final long windowNanos;
+
+        private final AtomicReference<Window> window;
+
+        SlidingWindowState(RateLimitRule rule) {
+            this.limit = rule.getLimit();
+            this.windowNanos = rule.getWindowMillis() * NANOS_PER_MILLI;
+            this.window = new AtomicReference<>(new Window(Long.MIN_VALUE, 0));
+        }
+
+        RateLimitDecision acquire(long now) {
+            long epoch = Math.floorDiv(now, windowNanos);
+            Window current = window.get();
+            while (current.epoch < epoch) {
+                long previous = current.epoch == epoch - 1 ? current.count.sum() : 0;
+                Window next = new Window(epoch, previous);
+                if (window.compareAndSet(current, next)) {
+                    current = next;
+                    break;
+                }
+                current = window.get();
+            }
+
+            long elapsed = Math.max(0, Math.min(windowNanos, now - current.epoch * windowNanos));
+            current.count.increment();
+            long count = current.count.sum();
+            double estimate = current.previous * (double) (windowNanos - elapsed) / windowNanos + count;
+            if (estimate <= limit) {
+                return RateLimitDecision.allow((long) (limit - estimate));
+            }
+
+            current.count.decrement();
+            long retryNanos = windowNanos - elapsed;
+            if (count <= limit && current.previous > 0) {
+                // 上一窗口的权重随时间线性衰减，算出衰减到足够放行一次所需的时间
+                double excess = estimate - limit;
+                retryNanos = Math.min(retryNanos, (long) Math.ceil(excess * windowNanos / current.previous));
+            }
+            return RateLimitDecision.reject(Math.max(1, retryNanos / NANOS_PER_MILLI));
+        }
+
+        boolean isIdle(long now) {
+            return window.get().epoch < Math.floorDiv(now, windowNanos) - 1;
+        }
+    }
+
+    /**
+     * 单个计数窗口
+     */
+    static final class Window {
+
+        private final long epoch;
+
+        private final long previous;
+
+        private final LongAdder count = new LongAdder();
+
+        Window(long epoch, long previous) {
+            this.epoch = epoch;
+            this.previous = previous;
+        }
+    }
+
+    /**
+     * 令牌桶状态（GCRA）
+     */
+    static final class TokenBucketState {
+
+        private static final long UNSET = Long.MIN_VALUE;
+
+        /**
+         * 补充一个令牌的间隔
+         */
+        private final long intervalNanos;
+
+        /**
+         * 允许提前于理论到达时间的时长，对应“桶容量 - 1”个令牌
+         */
+        private final long toleranceNanos;
+
+        private final long windowNanos;
+
+        /**
+         * 理论到达时间，尚未使用时为 UNSET
+         */
+        private final AtomicLong theoreticalArrival = new AtomicLong(UNSET);
+
+        TokenBucketState(RateLimitRule rule) {
+            this.windowNanos = rule.getWindowMillis() * NANOS_PER_MILLI;
+            this.intervalNanos = Math.max(1, (long) (windowNanos / rule.getLimit()));
+            long capacity = Math.max(1, (long) Math.floor(rule.getLimit()));
+            this.toleranceNanos = intervalNanos * (capacity - 1);
+        }
+
+        RateLimitDecision acquire(long now) {
+            while (true) {
+                long tat = theoreticalArrival.get();
+                long base = tat == UNSET || tat - now < 0 ? now : tat;
+                long ahead = base - now;
+                if (ahead > toleranceNanos) {
+                    long retryNanos = ahead - toleranceNanos;
+                    return RateLimitDecision.reject(Math.max(1, (retryNanos + NANOS_PER_MILLI - 1) / NANOS_PER_MILLI));
+                }
+                if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                    return RateLimitDecision.allow((toleranceNanos - ahead) / intervalNanos);
+                }
+            }
+        }
+
+        boolean isIdle(long now) {
+            long tat = theoreticalArrival.get();
+            return tat == UNSET || now - tat > windowNanos;
+        }
+    }
+}
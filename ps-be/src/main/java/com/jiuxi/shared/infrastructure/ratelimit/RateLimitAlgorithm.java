@@ -0,0 +1,20 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+/**
+ * 限流算法
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public enum RateLimitAlgorithm {
+
+    /**
+     * 令牌桶：桶容量为窗口内允许的次数，按 窗口/次数 的间隔匀速补充，允许突发
+     */
+    TOKEN_BUCKET,
+
+    /**
+     * 滑动窗口计数：当前窗口计数 + 上一窗口计数按剩余重叠比例加权，近似滑动日志且只需两个计数
+     */
+    SLIDING_WINDOW
+}
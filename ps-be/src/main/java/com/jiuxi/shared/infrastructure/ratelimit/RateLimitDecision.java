@@ -0,0 +1,53 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+/**
+ * 限流判定结果
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class RateLimitDecision {
+
+    private final boolean allowed;
+
+    /**
+     * 本次放行后剩余可用次数，拒绝时为 0
+     */
+    private final long remaining;
+
+    /**
+     * 拒绝时建议的重试等待时间（毫秒），放行时为 0
+     */
+    private final long retryAfterMillis;
+
+    private RateLimitDecision(boolean allowed, long remaining, long retryAfterMillis) {
+        this.allowed = allowed;
+        this.remaining = Math.max(0, remaining);
+        this.retryAfterMillis = Math.max(0, retryAfterMillis);
+    }
+
+    public static RateLimitDecision allow(long remaining) {
+        return new RateLimitDecision(true, remaining, 0);
+    }
+
+    public static RateLimitDecision reject(long retryAfterMillis) {
+        return new RateLimitDecision(false, 0, retryAfterMillis);
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public long getRemaining() {
+        return remaining;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    @Override
+    public String toString() {
+        return allowed ? "allowed(remaining=" + remaining + ")" : "rejected(retryAfter=" + retryAfterMillis + "ms)";
+    }
+}
@@ -0,0 +1,46 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+/**
+ * 限流规则：windowMillis 毫秒内最多 limit 次
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class RateLimitRule {
+
+    private final double limit;
+
+    private final long windowMillis;
+
+    private final RateLimitAlgorithm algorithm;
+
+    public RateLimitRule(double limit, long windowMillis, RateLimitAlgorithm algorithm) {
+        if (limit <= 0 || windowMillis <= 0) {
+            throw new IllegalArgumentException("limit、windowMillis 必须大于0");
+        }
+        this.limit = limit;
+        this.windowMillis = windowMillis;
+        this.algorithm = algorithm == null ? RateLimitAlgorithm.SLIDING_WINDOW : algorithm;
+    }
+
+    public static RateLimitRule of(double limit, long windowMillis, RateLimitAlgorithm algorithm) {
+        return new RateLimitRule(limit, windowMillis, algorithm);
+    }
+
+    public double getLimit() {
+        return limit;
+    }
+
+    public long getWindowMillis() {
+        return windowMillis;
+    }
+
+    public RateLimitAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    @Override
+    public String toString() {
+        return algorithm + "(" + limit + "/" + windowMillis + "ms)";
+    }
+}
@@ -0,0 +1,30 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+/**
+ * 限流引擎
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public interface RateLimiterEngine {
+
+    /**
+     * 尝试获取一次许可
+     *
+     * @param resource 受保护的资源（接口），用于指标统计
+     * @param key      限流维度，同一资源下不同 key 独立计数
+     * @param rule     限流规则
+     * @return RateLimitDecision
+     */
+    RateLimitDecision tryAcquire(String resource, String key, RateLimitRule rule);
+
+    /**
+     * 运行指标
+     */
+    RateLimiterMetrics getMetrics();
+
+    /**
+     * 引擎类型，如 local、redis
+     */
+    String getType();
+}
@@ -0,0 +1,87 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * 限流指标：按资源统计放行/拒绝次数，另含降级次数和当前跟踪的 key 数
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class RateLimiterMetrics {
+
+    private final ConcurrentHashMap<String, Counter> resources = new ConcurrentHashMap<>();
+
+    private final LongAdder allowed = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder fallbacks = new LongAdder();
+
+    private volatile IntSupplier trackedKeys = () -> -1;
+
+    void record(String resource, boolean pass) {
+        Counter counter = resources.computeIfAbsent(resource, r -> new Counter());
+        if (pass) {
+            allowed.increment();
+            counter.allowed.increment();
+        } else {
+            rejected.increment();
+            counter.rejected.increment();
+        }
+    }
+
+    void recordFallback() {
+        fallbacks.increment();
+    }
+
+    void trackKeys(IntSupplier supplier) {
+        this.trackedKeys = supplier;
+    }
+
+    public long getAllowed() {
+        return allowed.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * 后端异常时降级到本地引擎的次数
+     */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /**
+     * 本地维护的限流状态数，不适用时为 -1
+     */
+    public int getTrackedKeys() {
+        return trackedKeys.getAsInt();
+    }
+
+    /**
+     * 各资源的放行/拒绝次数，按资源名排序
+     */
+    public Map<String, Map<String, Long>> getResourceStatistics() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        resources.forEach((resource, counter) -> {
+            Map<String, Long> stats = new LinkedHashMap<>();
+            stats.put("allowed", counter.allowed.sum());
+            stats.put("rejected", counter.rejected.sum());
+            result.put(resource, stats);
+        });
+        return result;
+    }
+
+    private static final class Counter {
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+}
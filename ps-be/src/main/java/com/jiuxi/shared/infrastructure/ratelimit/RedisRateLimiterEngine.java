@@ -0,0 +1,155 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于 Redis 的分布式限流引擎
+ * <pre>
+ *     1. 判断与计数在一个 Lua 脚本内完成，一次往返、原子执行，时间取 Redis 服务端 TIME，不依赖各节点时钟
+ *     2. 滑动窗口：一个 HASH 保存 窗口序号/当前计数/上一窗口计数，过期时间为两个窗口
+ *     3. 令牌桶：按 GCRA 只保存一个理论到达时间（微秒），过期时间为其与当前时间的差
+ *     4. Redis 不可用时降级到本地引擎，并计入 fallbacks 指标
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class RedisRateLimiterEngine implements RateLimiterEngine {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RedisRateLimiterEngine.class);
+
+    public static final String KEY_PREFIX = "ps:ratelimit:";
+
+    /**
+     * KEYS[1] 状态 key；ARGV[1] 次数上限，ARGV[2] 窗口毫秒
+     * 返回 {是否放行, 剩余次数, 重试等待毫秒}
+     */
+    static final RedisScript<List> SLIDING_WINDOW_SCRIPT = script(
+            "if redis.replicate_commands then redis.replicate_commands() end\n" +
+            "local limit = tonumber(ARGV[1])\n" +
+            "local window = tonumber(ARGV[2])\n" +
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n" +
+            "local epoch = math.floor(now / window)\n" +
+            "local state = redis.call('HMGET', KEYS[1], 'e', 'c', 'p')\n" +
+            "local e = tonumber(state[1])\n" +
+            "local cur = tonumber(state[2]) or 0\n" +
+            "local prev = tonumber(state[3]) or 0\n" +
+            "if e ~= epoch then\n" +
+            "  if e == epoch - 1 then prev = cur else prev = 0 end\n" +
+            "  cur = 0\n" +
+            "end\n" +
+            "local elapsed = now - epoch * window\n" +
+            "local estimate = prev * (window - elapsed) / window + cur + 1\n" +
+            "if estimate > limit then\n" +
+            "  local retry = window - elapsed\n" +
+            "  if cur + 1 <= limit and prev > 0 then\n" +
+            "    retry = math.min(retry, math.ceil((estimate - limit) * window / prev))\n" +
+            "  end\n" +
+            "  return {0, 0, math.max(retry, 1)}\n" +
+            "end\n" +
+            "redis.call('HSET', KEYS[1], 'e', epoch, 'c', cur + 1, 'p', prev)\n" +
+            "redis.call('PEXPIRE', KEYS[1], window * 2)\n" +
+            "return {1, math.floor(limit - estimate), 0}\n");
+
+    /**
+     * KEYS[1] 状态 key；ARGV[1] 次数上限，ARGV[2] 窗口毫秒
+     * 返回 {是否放行, 剩余令牌, 重试等待毫秒}
+     */
+    static final RedisScript<List> TOKEN_BUCKET_SCRIPT = script(
+            "if redis.replicate_commands then redis.replicate_commands() end\n" +
+            "local limit = tonumber(ARGV[1])\n" +
+            "local window = tonumber(ARGV[2])\n" +
+            "local t = redis.call('TIME')\n" +
+            "local now = tonumber(t[1]) * 1000000 + tonumber(t[2])\n" +
+            "local interval = math.max(math.floor(window * 1000 / limit), 1)\n" +
+            "local tolerance = interval * (math.max(math.floor(limit), 1) - 1)\n" +
+            "local tat = tonumber(redis.call('GET', KEYS[1])) or now\n" +
+            "if tat < now then tat = now end\n" +
+            "local ahead = tat - now\n" +
+            "if ahead > tolerance then\n" +
+            "  return {0, 0, math.max(math.ceil((ahead - tolerance) / 1000), 1)}\n" +
+            "end\n" +
+            "local nextTat = tat + interval\n" +
+            "redis.call('SET', KEYS[1], string.format('%.0f', nextTat), 'PX', math.ceil((nextTat - now) / 1000) + 1)\n" +
+            "return {1, math.floor((tolerance - ahead) / interval), 0}\n");
+
+    private final ScriptRunner scriptRunner;
+
+    private final LocalRateLimiterEngine fallback;
+
+    private final RateLimiterMetrics metrics = new RateLimiterMetrics();
+
+    public RedisRateLimiterEngine(StringRedisTemplate stringRedisTemplate) {
+        this((script, key, args) -> stringRedisTemplate.execute(script, Collections.singletonList(key), (Object[]) args),
+                new LocalRateLimiterEngine());
+    }
+
+    RedisRateLimiterEngine(ScriptRunner scriptRunner, LocalRateLimiterEngine fallback) {
+        this.scriptRunner = scriptRunner;
+        this.fallback = fallback;
+        this.metrics.trackKeys(() -> fallback.getMetrics().getTrackedKeys());
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(String resource, String key, RateLimitRule rule) {
+        RedisScript<List> script = rule.getAlgorithm() == RateLimitAlgorithm.TOKEN_BUCKET
+                ? TOKEN_BUCKET_SCRIPT : SLIDING_WINDOW_SCRIPT;
+        String redisKey = KEY_PREFIX + rule.getAlgorithm().name().toLowerCase() + ":" + resource + ":" + key;
+
+        RateLimitDecision decision;
+        try {
+            List<?> result = scriptRunner.run(script, redisKey,
+                    String.valueOf(rule.getLimit()), String.valueOf(rule.getWindowMillis()));
+            decision = toDecision(result);
+        } catch (Exception e) {
+            LOGGER.warn("Redis限流脚本执行失败，降级为本地限流: resource={}, error={}", resource, e.getMessage());
+            metrics.recordFallback();
+            decision = fallback.tryAcquire(resource, key, rule);
+        }
+        metrics.record(resource, decision.isAllowed());
+        return decision;
+    }
+
+    @Override
+    public RateLimiterMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public String getType() {
+        return "redis";
+    }
+
+    private static RateLimitDecision toDecision(List<?> result) {
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("限流脚本返回值无效: " + result);
+        }
+        long allowed = ((Number) result.get(0)).longValue();
+        long remaining = ((Number) result.get(1)).longValue();
+        long retryAfter = ((Number) result.get(2)).longValue();
+        return allowed == 1 ? RateLimitDecision.allow(remaining) : RateLimitDecision.reject(retryAfter);
+    }
+
+    private static RedisScript<List> script(String text) {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText(text);
+        script.setResultType(List.class);
+        return script;
+    }
+
+    /**
+     * 脚本执行入口，测试中可替换为内嵌实现
+     */
+    @FunctionalInterface
+    interface ScriptRunner {
+        List<?> run(RedisScript<List> script, String key, String... args);
+    }
+}
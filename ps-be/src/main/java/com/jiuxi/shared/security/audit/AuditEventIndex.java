@@ -0,0 +1,230 @@
+package com.jiuxi.shared.security.audit;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计事件二级索引
+ * <pre>
+ *     1. 每个维度一个 ZSET，member 为事件ID，score 为事件时间戳（毫秒），天然按时间有序
+ *        ps:security:audit:index:all / user:{userId} / type:{eventType} / category:{category}
+ *        / level:{level} / result:{result} / ip:{clientIp}
+ *     2. 按小时预聚合计数：HASH ps:security:audit:stats:hour:{yyyyMMddHH}，
+ *        字段 total、category:X、level:X、result:X；用户和IP 用同前缀的 :users/:ips ZSET 计数
+ *     3. 索引与计数随事件写入同一个 pipeline，过期时间与事件保留期一致；
+ *        写入频繁的索引键过期时间不断顺延，因此每次写入时按分数裁掉超过保留期的事件ID，
+ *        长期不再写入的索引由 {@link AuditEventPublisher#cleanupExpiredEvents()} 定时裁剪
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public final class AuditEventIndex {
+
+    public static final String INDEX_PREFIX = "ps:security:audit:index:";
+
+    public static final String INDEX_ALL = INDEX_PREFIX + "all";
+
+    public static final String TEMP_PREFIX = INDEX_PREFIX + "tmp:";
+
+    /**
+     * 各维度索引键的前缀，{@link #INDEX_ALL} 之外的索引键都以其中之一开头
+     */
+    private static final String[] DIMENSION_PREFIXES = {
+        INDEX_PREFIX + "user:", INDEX_PREFIX + "type:", INDEX_PREFIX + "category:",
+        INDEX_PREFIX + "level:", INDEX_PREFIX + "result:", INDEX_PREFIX + "ip:"
+    };
+
+    public static final String HOUR_STATS_PREFIX = "ps:security:audit:stats:hour:";
+
+    /**
+     * 与事件本身的过期时间保持一致
+     */
+    public static final int RETENTION_DAYS = 30;
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHH");
+
+    private AuditEventIndex() {
+    }
+
+    /**
+     * 在 pipeline 中写入一批事件的索引与小时计数，每个键只设置一次过期时间
+     */
+    public static void write(RedisOperations<String, Object> ops, List<AuditEvent> events) {
+        Set<String> touched = new LinkedHashSet<>();
+        for (AuditEvent event : events) {
+            double score = toMillis(timestampOf(event));
+            for (String key : keysOf(event)) {
+                ops.opsForZSet().add(key, event.getEventId(), score);
+                touched.add(key);
+            }
+
+            String hourKey = hourKey(timestampOf(event));
+            ops.opsForHash().increment(hourKey, "total", 1);
+            if (event.getCategory() != null) {
+                ops.opsForHash().increment(hourKey, "category:" + event.getCategory().name(), 1);
+            }
+            if (event.getLevel() != null) {
+                ops.opsForHash().increment(hourKey, "level:" + event.getLevel().name(), 1);
+            }
+            if (event.getResult() != null) {
+                ops.opsForHash().increment(hourKey, "result:" + event.getResult().name(), 1);
+            }
+            touched.add(hourKey);
+            if (StringUtils.hasText(event.getUserId())) {
+                ops.opsForZSet().incrementScore(hourKey + ":users", event.getUserId(), 1);
+                touched.add(hourKey + ":users");
+            }
+            if (StringUtils.hasText(event.getClientIp())) {
+                ops.opsForZSet().incrementScore(hourKey + ":ips", event.getClientIp(), 1);
+                touched.add(hourKey + ":ips");
+            }
+        }
+
+        double cutoff = expiredScore();
+        for (String key : touched) {
+            ops.expire(key, RETENTION_DAYS + 1, TimeUnit.DAYS);
+            // 索引键每次写入都会顺延过期时间，按分数裁掉超过保留期（事件本身已过期）的部分
+            if (key.startsWith(INDEX_PREFIX)) {
+                ops.opsForZSet().removeRangeByScore(key, 0, cutoff);
+            }
+        }
+    }
+
+    /**
+     * 超过保留期的事件分数上限，索引中分数不大于该值的事件ID可以删除
+     */
+    public static double expiredScore() {
+        return toMillis(LocalDateTime.now().minusDays(RETENTION_DAYS));
+    }
+
+    /**
+     * 是否为事件索引 ZSET。索引前缀下还有查询用的临时集合，以及旧版本写入的字符串标记
+     * ps:security:audit:index:built，对它们执行 ZSET 命令会报 WRONGTYPE
+     */
+    public static boolean isIndexKey(String key) {
+        if (key == null) {
+            return false;
+        }
+        if (INDEX_ALL.equals(key)) {
+            return true;
+        }
+        for (String prefix : DIMENSION_PREFIXES) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 事件所在的全部索引键
+     */
+    public static List<String> keysOf(AuditEvent event) {
+        List<String> keys = new ArrayList<>(7);
+        keys.add(INDEX_ALL);
+        if (StringUtils.hasText(event.getUserId())) {
+            keys.add(userKey(event.getUserId()));
+        }
+        if (event.getEventType() != null) {
+            keys.add(INDEX_PREFIX + "type:" + event.getEventType().name());
+        }
+        if (event.getCategory() != null) {
+            keys.add(INDEX_PREFIX + "category:" + event.getCategory().name());
+        }
+        if (event.getLevel() != null) {
+            keys.add(INDEX_PREFIX + "level:" + event.getLevel().name());
+        }
+        if (event.getResult() != null) {
+            keys.add(INDEX_PREFIX + "result:" + event.getResult().name());
+        }
+        if (StringUtils.hasText(event.getClientIp())) {
+            keys.add(INDEX_PREFIX + "ip:" + event.getClientIp());
+        }
+        return keys;
+    }
+
+    /**
+     * 查询条件命中的索引键，不含时间范围和关键词；没有可用索引时返回空列表
+     */
+    public static List<String> keysOf(AuditLogService.AuditQueryCriteria criteria) {
+        List<String> keys = new ArrayList<>(6);
+        if (criteria == null) {
+            return keys;
+        }
+        if (StringUtils.hasText(criteria.getUserId())) {
+            keys.add(userKey(criteria.getUserId()));
+        }
+        if (criteria.getEventType() != null) {
+            keys.add(INDEX_PREFIX + "type:" + criteria.getEventType().name());
+        }
+        if (criteria.getCategory() != null) {
+            keys.add(INDEX_PREFIX + "category:" + criteria.getCategory().name());
+        }
+        if (criteria.getLevel() != null) {
+            keys.add(INDEX_PREFIX + "level:" + criteria.getLevel().name());
+        }
+        if (criteria.getResult() != null) {
+            keys.add(INDEX_PREFIX + "result:" + criteria.getResult().name());
+        }
+        if (StringUtils.hasText(criteria.getClientIp())) {
+            keys.add(INDEX_PREFIX + "ip:" + criteria.getClientIp());
+        }
+        return keys;
+    }
+
+    /**
+     * [start, end] 覆盖到的小时计数键，区间被限制在保留期内
+     */
+    public static List<String> hourKeys(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime floor = now.minusDays(RETENTION_DAYS + 1L);
+        LocalDateTime from = (start == null || start.isBefore(floor) ? floor : start).truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime to = (end == null || end.isAfter(now) ? now : end).truncatedTo(ChronoUnit.HOURS);
+
+        List<String> keys = new ArrayList<>();
+        for (LocalDateTime hour = from; !hour.isAfter(to); hour = hour.plusHours(1)) {
+            keys.add(hourKey(hour));
+        }
+        return keys;
+    }
+
+    public static String hourKey(LocalDateTime time) {
+        return HOUR_STATS_PREFIX + HOUR_FORMATTER.format(time);
+    }
+
+    public static String userKey(String userId) {
+        return INDEX_PREFIX + "user:" + userId;
+    }
+
+    public static double minScore(LocalDateTime start) {
+        return start == null ? 0 : toMillis(start);
+    }
+
+    public static double maxScore(LocalDateTime end) {
+        return end == null ? Long.MAX_VALUE : toMillis(end);
+    }
+
+    public static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static LocalDateTime fromMillis(double millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) millis), ZoneId.systemDefault());
+    }
+
+    private static LocalDateTime timestampOf(AuditEvent event) {
+        return event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now();
+    }
+}
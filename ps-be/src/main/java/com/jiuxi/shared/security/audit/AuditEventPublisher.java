@@ -1,25 +1,53 @@
 package com.jiuxi.shared.security.audit;
 
+import com.alibaba.fastjson.JSON;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import com.jiuxi.shared.security.config.SecurityProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * 审计事件发布器
- * 负责审计事件的异步发布、持久化和过滤
+ * 负责审计事件的过滤、入队和批量持久化
+ * <pre>
+ *     1. 请求线程只做过滤和入队，入队使用有界无锁环形缓冲区
+ *     2. 独立的消费线程按批次（batchSize 或 batchInterval）通过 Redis pipeline 持久化，并通知监听器
+ *     3. 队列满时按 backpressure 配置处理：BLOCK 阻塞等待、DROP_LOWEST 按级别逐级丢弃、SPILL 溢出到本地文件
+ *     4. 只有写入 Redis 成功的事件才通知监听器并计入 publishedEvents；写入失败时 SPILL 策略把整批写入溢出文件，其它策略计入 failedEvents
+ *     5. 回放溢出文件时按批写入并记录已回放的字节偏移，写入失败即停止并保留文件，间隔 {@link #REPLAY_RETRY_MILLIS} 后从偏移处继续
+ * </pre>
  * 
  * @author Security Refactoring
  * @since Phase 4.2.5
@@ -39,6 +67,9 @@ public class AuditEventPublisher {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
+
     // 事件过滤器列表
     private final List<AuditEventFilter> eventFilters = new CopyOnWriteArrayList<>();
 
@@ -50,12 +81,37 @@ public class AuditEventPublisher {
     private final AtomicLong filteredEvents = new AtomicLong(0);
     private final AtomicLong publishedEvents = new AtomicLong(0);
     private final AtomicLong failedEvents = new AtomicLong(0);
+    private final AtomicLong droppedEvents = new AtomicLong(0);
+    private final AtomicLong spilledEvents = new AtomicLong(0);
+    private final AtomicLong batchCount = new AtomicLong(0);
+    private final AtomicLong batchedEvents = new AtomicLong(0);
+    private volatile int lastBatchSize;
+    private volatile long lastLagMillis;
+    private final AtomicLong maxLagMillis = new AtomicLong(0);
+
+    // 审计事件缓冲区及消费线程
+    private AuditEventRingBuffer<AuditEvent> buffer;
+    private Backpressure backpressure;
+    private Path spillFile;
+    private final Object spillLock = new Object();
+    private volatile boolean running;
+    private Thread drainer;
 
     // Redis键前缀
     private static final String AUDIT_EVENT_PREFIX = "ps:security:audit:event:";
     private static final String AUDIT_QUEUE_KEY = "ps:security:audit:queue";
     private static final String AUDIT_STATS_KEY = "ps:security:audit:stats";
 
+    /**
+     * Redis 写入失败后，间隔多久再回放溢出文件
+     */
+    static final long REPLAY_RETRY_MILLIS = 5000;
+
+    /**
+     * 在此时间之前不回放溢出文件，Redis 不可用时避免消费线程反复重试
+     */
+    private volatile long replayNotBefore;
+
     @PostConstruct
     public void init() {
         // 添加默认过滤器
@@ -63,9 +119,32 @@ public class AuditEventPublisher {
         
         // 添加默认监听器
         addDefaultListeners();
-        
-        logger.info("AuditEventPublisher initialized with {} filters and {} listeners", 
-            eventFilters.size(), eventListeners.size());
+
+        SecurityProperties.Audit audit = securityProperties.getAudit();
+        buffer = new AuditEventRingBuffer<>(Math.max(1024, audit.getMaxQueueSize()));
+        backpressure = Backpressure.of(audit.getBackpressure());
+        spillFile = Paths.get(audit.getSpillFile());
+
+        running = true;
+        drainer = new Thread(this::drainLoop, "audit-event-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+
+        logger.info("AuditEventPublisher initialized with {} filters and {} listeners, queue capacity {}, backpressure {}",
+            eventFilters.size(), eventListeners.size(), buffer.capacity(), backpressure);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            try {
+                drainer.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
@@ -86,8 +165,8 @@ public class AuditEventPublisher {
                 return;
             }
 
-            // 异步发布事件
-            publishEventAsync(event);
+            // 入队，由消费线程批量持久化
+            enqueue(event);
             
         } catch (Exception e) {
             failedEvents.incrementAndGet();
@@ -97,34 +176,16 @@ public class AuditEventPublisher {
 
     /**
      * 异步发布事件
+     * @deprecated 事件统一由消费线程持久化，请使用 {@link #publishEvent(AuditEvent)}
      */
-    @Async
+    @Deprecated
     public void publishEventAsync(AuditEvent event) {
-        try {
-            // 持久化事件
-            persistEvent(event);
-            
-            // 通知监听器
-            notifyListeners(event);
-            
-            // 发布Spring事件（如果可用）
-            if (applicationEventPublisher != null) {
-                applicationEventPublisher.publishEvent(new AuditEventPublishedEvent(event));
-            }
-            
-            publishedEvents.incrementAndGet();
-            logger.debug("Audit event published successfully: {}", event.getEventId());
-            
-        } catch (Exception e) {
-            failedEvents.incrementAndGet();
-            logger.error("Failed to process audit event: {}", event.getEventId(), e);
-        }
+        publishEvent(event);
     }
 
     /**
      * 批量发布事件
      */
-    @Async
     public void publishEvents(List<AuditEvent> events) {
         if (events == null || events.isEmpty()) {
             return;
@@ -188,6 +249,15 @@ public class AuditEventPublisher {
         stats.setFailedEvents(failedEvents.get());
         stats.setActiveFilters(eventFilters.size());
         stats.setActiveListeners(eventListeners.size());
+        stats.setDroppedEvents(droppedEvents.get());
+        stats.setSpilledEvents(spilledEvents.get());
+        stats.setQueueDepth(buffer == null ? 0 : buffer.size());
+        stats.setQueueCapacity(buffer == null ? 0 : buffer.capacity());
+        stats.setBatchCount(batchCount.get());
+        stats.setLastBatchSize(lastBatchSize);
+        stats.setAvgBatchSize(batchCount.get() == 0 ? 0 : (double) batchedEvents.get() / batchCount.get());
+        stats.setLastLagMillis(lastLagMillis);
+        stats.setMaxLagMillis(maxLagMillis.get());
         
         if (totalEvents.get() > 0) {
             stats.setSuccessRate((double) publishedEvents.get() / totalEvents.get() * 100);
@@ -198,17 +268,48 @@ public class AuditEventPublisher {
     }
 
     /**
-     * 清理过期的审计事件
+     * 清理过期的审计事件：事件本身按 TTL 过期，这里按分数裁掉各索引中已超过保留期的事件ID，
+     * 覆盖长期没有新事件写入（写入时不会被裁剪）的索引键
      */
+    @Scheduled(fixedDelayString = "${ps.security.audit.cleanup-interval:3600000}")
     public void cleanupExpiredEvents() {
-        if (redisTemplate == null) {
+        if (redisTemplate == null || redisKeyScanner == null) {
             return;
         }
 
         try {
-            // 这里可以实现清理逻辑
-            logger.debug("Cleaning up expired audit events");
-            
+            double cutoff = AuditEventIndex.expiredScore();
+            long[] removed = new long[1];
+            long scanned = redisKeyScanner.scan(AuditEventIndex.INDEX_PREFIX + "*",
+                    RedisKeyScanner.DEFAULT_BATCH_SIZE, batch -> {
+                        List<String> keys = new ArrayList<>(batch.size());
+                        for (String key : batch) {
+                            // 只处理索引 ZSET：临时集合有自己的短 TTL，其它类型的键会让整个 pipeline 失败
+                            if (AuditEventIndex.isIndexKey(key)) {
+                                keys.add(key);
+                            }
+                        }
+                        if (keys.isEmpty()) {
+                            return;
+                        }
+                        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                            @Override
+                            @SuppressWarnings("unchecked")
+                            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                                for (String key : keys) {
+                                    ops.opsForZSet().removeRangeByScore(key, 0, cutoff);
+                                }
+                                return null;
+                            }
+                        });
+                        for (Object result : results) {
+                            if (result instanceof Number) {
+                                removed[0] += ((Number) result).longValue();
+                            }
+                        }
+                    });
+            logger.debug("Cleaned up audit indexes: keys={}, expiredIds={}", scanned, removed[0]);
         } catch (Exception e) {
             logger.error("Failed to cleanup expired audit events", e);
         }
@@ -234,27 +335,327 @@ public class AuditEventPublisher {
     }
 
     /**
-     * 持久化事件
+     * 入队，队列满时按背压策略处理
+     */
+    private void enqueue(AuditEvent event) {
+        if (!admit(event)) {
+            droppedEvents.incrementAndGet();
+            return;
+        }
+        if (buffer.offer(event)) {
+            return;
+        }
+
+        switch (backpressure) {
+            case BLOCK:
+                if (!offerWithin(event, securityProperties.getAudit().getOfferTimeout())) {
+                    droppedEvents.incrementAndGet();
+                    logger.warn("Audit queue full, event dropped after waiting: {}", event.getEventId());
+                }
+                break;
+            case SPILL:
+                spill(event);
+                break;
+            case DROP_LOWEST:
+            default:
+                // 队列满时只有严重级别事件等待空位，其余直接丢弃
+                if (event.getLevel() != AuditLevel.CRITICAL
+                        || !offerWithin(event, securityProperties.getAudit().getOfferTimeout())) {
+                    droppedEvents.incrementAndGet();
+                    logger.debug("Audit queue full, event dropped: {}", event.getEventId());
+                }
+                break;
+        }
+    }
+
+    /**
+     * 按级别判断是否允许入队：队列水位越高，允许入队的最低级别越高
+     */
+    private boolean admit(AuditEvent event) {
+        if (backpressure != Backpressure.DROP_LOWEST || event.getLevel() == null) {
+            return true;
+        }
+        double fill = (double) buffer.size() / buffer.capacity();
+        switch (event.getLevel()) {
+            case LOW:
+                return fill < 0.5;
+            case INFO:
+                return fill < 0.7;
+            case MEDIUM:
+                return fill < 0.85;
+            default:
+                return true;
+        }
+    }
+
+    private boolean offerWithin(AuditEvent event, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+            if (buffer.offer(event)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 溢出到本地文件，每行一个事件
+     */
+    private void spill(AuditEvent event) {
+        spill(Collections.singletonList(event));
+    }
+
+    /**
+     * 一次追加写入多个事件，写入失败时整批计入丢弃
+     */
+    private void spill(List<AuditEvent> events) {
+        StringBuilder lines = new StringBuilder();
+        for (AuditEvent event : events) {
+            lines.append(JSON.toJSONString(event)).append('\n');
+        }
+        synchronized (spillLock) {
+            try {
+                if (spillFile.getParent() != null) {
+                    Files.createDirectories(spillFile.getParent());
+                }
+                Files.write(spillFile, lines.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                spilledEvents.addAndGet(events.size());
+            } catch (IOException e) {
+                droppedEvents.addAndGet(events.size());
+                logger.error("Failed to spill {} audit events", events.size(), e);
+            }
+        }
+    }
+
+    /**
+     * 消费线程：攒够一批或超过批次间隔后持久化，队列空闲时回放溢出文件
+     */
+    private void drainLoop() {
+        SecurityProperties.Audit audit = securityProperties.getAudit();
+        int batchSize = Math.max(1, audit.getBatchSize());
+        long batchIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, audit.getBatchInterval()));
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long batchStart = 0;
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                int drained = buffer.drainTo(batch, batchSize - batch.size());
+                if (drained > 0 && batchStart == 0) {
+                    batchStart = System.nanoTime();
+                }
+                boolean full = batch.size() >= batchSize;
+                boolean due = !batch.isEmpty() && (System.nanoTime() - batchStart >= batchIntervalNanos || !running);
+                if (full || due) {
+                    flush(batch, false);
+                    batch.clear();
+                    batchStart = 0;
+                    continue;
+                }
+                if (drained == 0) {
+                    if (batch.isEmpty() && backpressure == Backpressure.SPILL) {
+                        replaySpill(batchSize);
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+            } catch (Exception e) {
+                logger.error("Audit event drainer error", e);
+                batch.clear();
+                batchStart = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch, false);
+        }
+    }
+
+    /**
+     * 持久化一批事件，成功后通知监听器
+     *
+     * @param replaying 是否来自溢出文件回放，回放失败时事件仍在溢出文件中，不再计入失败或重复溢出
+     * @return 是否写入成功
      */
-    private void persistEvent(AuditEvent event) {
+    boolean flush(List<AuditEvent> batch, boolean replaying) {
+        LocalDateTime oldest = batch.get(0).getTimestamp();
+        if (!persistEvents(batch)) {
+            replayNotBefore = System.currentTimeMillis() + REPLAY_RETRY_MILLIS;
+            if (replaying) {
+                return false;
+            }
+            if (backpressure == Backpressure.SPILL) {
+                spill(batch);
+            } else {
+                failedEvents.addAndGet(batch.size());
+            }
+            return false;
+        }
+
+        for (AuditEvent event : batch) {
+            try {
+                // 通知监听器
+                notifyListeners(event);
+
+                // 发布Spring事件（如果可用）
+                if (applicationEventPublisher != null) {
+                    applicationEventPublisher.publishEvent(new AuditEventPublishedEvent(event));
+                }
+
+                publishedEvents.incrementAndGet();
+            } catch (Exception e) {
+                failedEvents.incrementAndGet();
+                logger.error("Failed to process audit event: {}", event.getEventId(), e);
+            }
+        }
+
+        batchCount.incrementAndGet();
+        batchedEvents.addAndGet(batch.size());
+        lastBatchSize = batch.size();
+        if (oldest != null) {
+            long lag = Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis());
+            lastLagMillis = lag;
+            maxLagMillis.accumulateAndGet(lag, Math::max);
+        }
+        return true;
+    }
+
+    /**
+     * 通过 Redis pipeline 批量持久化事件，未配置 Redis 时不持久化，视为成功
+     */
+    private boolean persistEvents(List<AuditEvent> events) {
         if (redisTemplate == null) {
             logger.debug("Redis not available, skipping event persistence");
+            return true;
+        }
+
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                    for (AuditEvent event : events) {
+                        // 将事件存储到Redis
+                        ops.opsForValue().set(AUDIT_EVENT_PREFIX + event.getEventId(), event, 30, TimeUnit.DAYS);
+                        // 将事件ID添加到队列（用于批量处理）
+                        ops.opsForList().leftPush(AUDIT_QUEUE_KEY, event.getEventId());
+                    }
+                    // 限制队列长度
+                    ops.opsForList().trim(AUDIT_QUEUE_KEY, 0, 10000);
+                    // 二级索引与小时计数
+                    AuditEventIndex.write(ops, events);
+                    return null;
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to persist {} audit events", events.size(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 回放溢出文件：先改名再读取，回放期间的新溢出写入新文件。
+     * 每写入一批后把已回放的字节偏移写入 .offset 文件，写入 Redis 失败或读取出错时停止并保留文件，
+     * 下次从偏移处继续；只有进程在写入成功与记录偏移之间退出时才会重复写入一批
+     */
+    void replaySpill(int batchSize) {
+        if (System.currentTimeMillis() < replayNotBefore) {
             return;
         }
+        Path replaying = spillFile.resolveSibling(spillFile.getFileName() + ".replaying");
+        Path offsetFile = spillFile.resolveSibling(spillFile.getFileName() + ".replaying.offset");
+        synchronized (spillLock) {
+            if (!Files.exists(replaying)) {
+                if (!Files.exists(spillFile)) {
+                    return;
+                }
+                try {
+                    Files.deleteIfExists(offsetFile);
+                    Files.move(spillFile, replaying, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    logger.error("Failed to rotate audit spill file", e);
+                    return;
+                }
+            }
+        }
+
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(replaying))) {
+            long position = readOffset(offsetFile);
+            skipFully(in, position);
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                parseSpillLine(line, batch);
+                if (batch.size() >= batchSize) {
+                    if (!flush(batch, true)) {
+                        logger.warn("Audit spill replay paused at offset {} of {}", position, replaying);
+                        return;
+                    }
+                    batch.clear();
+                    writeOffset(offsetFile, position);
+                }
+            }
+            parseSpillLine(line, batch);
+            if (!batch.isEmpty() && !flush(batch, true)) {
+                logger.warn("Audit spill replay paused near the end of {}", replaying);
+                return;
+            }
+            Files.deleteIfExists(replaying);
+            Files.deleteIfExists(offsetFile);
+            logger.info("Replayed audit spill file {}", replaying);
+        } catch (IOException e) {
+            replayNotBefore = System.currentTimeMillis() + REPLAY_RETRY_MILLIS;
+            logger.error("Failed to replay audit spill file {}", replaying, e);
+        }
+    }
 
+    private void parseSpillLine(ByteArrayOutputStream line, List<AuditEvent> batch) {
+        String text = new String(line.toByteArray(), StandardCharsets.UTF_8);
+        line.reset();
+        if (!StringUtils.hasText(text)) {
+            return;
+        }
         try {
-            // 将事件存储到Redis
-            String eventKey = AUDIT_EVENT_PREFIX + event.getEventId();
-            redisTemplate.opsForValue().set(eventKey, event, 30, TimeUnit.DAYS);
-            
-            // 将事件ID添加到队列（用于批量处理）
-            redisTemplate.opsForList().leftPush(AUDIT_QUEUE_KEY, event.getEventId());
-            
-            // 限制队列长度
-            redisTemplate.opsForList().trim(AUDIT_QUEUE_KEY, 0, 10000);
-            
+            batch.add(JSON.parseObject(text.trim(), AuditEvent.class));
         } catch (Exception e) {
-            logger.error("Failed to persist audit event: {}", event.getEventId(), e);
+            logger.warn("Skip malformed audit spill line");
+        }
+    }
+
+    private static long readOffset(Path offsetFile) throws IOException {
+        if (!Files.exists(offsetFile)) {
+            return 0;
+        }
+        String text = new String(Files.readAllBytes(offsetFile), StandardCharsets.UTF_8).trim();
+        try {
+            return text.isEmpty() ? 0 : Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid audit spill offset: " + text, e);
+        }
+    }
+
+    private static void writeOffset(Path offsetFile, long position) throws IOException {
+        Files.write(offsetFile, Long.toString(position).getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long skipped = in.skip(remaining);
+            if (skipped <= 0) {
+                if (in.read() == -1) {
+                    throw new EOFException("Audit spill offset " + count + " beyond end of file");
+                }
+                skipped = 1;
+            }
+            remaining -= skipped;
         }
     }
 
@@ -298,6 +699,22 @@ public class AuditEventPublisher {
 
     // ================================ 内部类定义 ================================
 
+    /**
+     * 队列满时的处理策略
+     */
+    public enum Backpressure {
+        BLOCK, DROP_LOWEST, SPILL;
+
+        static Backpressure of(String value) {
+            for (Backpressure item : values()) {
+                if (item.name().equalsIgnoreCase(value)) {
+                    return item;
+                }
+            }
+            return DROP_LOWEST;
+        }
+    }
+
     /**
      * 审计事件过滤器接口
      */
@@ -407,6 +824,15 @@ public class AuditEventPublisher {
         private int activeListeners;
         private double successRate;
         private double filterRate;
+        private long droppedEvents;
+        private long spilledEvents;
+        private int queueDepth;
+        private int queueCapacity;
+        private long batchCount;
+        private int lastBatchSize;
+        private double avgBatchSize;
+        private long lastLagMillis;
+        private long maxLagMillis;
 
         // Getters and setters
         public long getTotalEvents() { return totalEvents; }
@@ -432,6 +858,33 @@ public class AuditEventPublisher {
 
         public double getFilterRate() { return filterRate; }
         public void setFilterRate(double filterRate) { this.filterRate = filterRate; }
+
+        public long getDroppedEvents() { return droppedEvents; }
+        public void setDroppedEvents(long droppedEvents) { this.droppedEvents = droppedEvents; }
+
+        public long getSpilledEvents() { return spilledEvents; }
+        public void setSpilledEvents(long spilledEvents) { this.spilledEvents = spilledEvents; }
+
+        public int getQueueDepth() { return queueDepth; }
+        public void setQueueDepth(int queueDepth) { this.queueDepth = queueDepth; }
+
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+        public long getBatchCount() { return batchCount; }
+        public void setBatchCount(long batchCount) { this.batchCount = batchCount; }
+
+        public int getLastBatchSize() { return lastBatchSize; }
+        public void setLastBatchSize(int lastBatchSize) { this.lastBatchSize = lastBatchSize; }
+
+        public double getAvgBatchSize() { return avgBatchSize; }
+        public void setAvgBatchSize(double avgBatchSize) { this.avgBatchSize = avgBatchSize; }
+
+        public long getLastLagMillis() { return lastLagMillis; }
+        public void setLastLagMillis(long lastLagMillis) { this.lastLagMillis = lastLagMillis; }
+
+        public long getMaxLagMillis() { return maxLagMillis; }
+        public void setMaxLagMillis(long maxLagMillis) { this.maxLagMillis = maxLagMillis; }
     }
 
     /**
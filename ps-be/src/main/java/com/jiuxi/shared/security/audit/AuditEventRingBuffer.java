@@ -0,0 +1,114 @@
+package com.jiuxi.shared.security.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁环形缓冲区，多生产者单消费者
+ * <pre>
+ *     1. 生产者通过 CAS 抢占写入序号，缓冲区满时立即返回 false，不阻塞
+ *     2. 只允许一个消费者线程调用 poll/drainTo
+ *     3. 容量向上取整为 2 的幂
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class AuditEventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int capacity;
+
+    private final int mask;
+
+    /**
+     * 下一个写入序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取序号，只有消费者写
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    public AuditEventRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * 写入，缓冲区满返回 false
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        while (true) {
+            long t = tail.get();
+            if (t - head.get() >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), element);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取一个元素，没有则返回 null；仅消费者线程调用
+     */
+    public E poll() {
+        long h = head.get();
+        int index = (int) (h & mask);
+        E element = slots.get(index);
+        if (element == null) {
+            // 为空，或生产者已抢占序号但尚未写入
+            return null;
+        }
+        slots.lazySet(index, null);
+        head.lazySet(h + 1);
+        return element;
+    }
+
+    /**
+     * 批量读取，最多 max 个；仅消费者线程调用
+     *
+     * @return int 读取数量
+     */
+    public int drainTo(List<? super E> target, int max) {
+        int count = 0;
+        E element;
+        while (count < max && (element = poll()) != null) {
+            target.add(element);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 当前元素数量（近似值）
+     */
+    public int size() {
+        long size = tail.get() - head.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
@@ -1,11 +1,16 @@
 package com.jiuxi.shared.security.audit;
 
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import com.jiuxi.shared.security.config.SecurityProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -34,14 +39,33 @@ public class AuditLogService {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
+
     // Redis键前缀
     private static final String AUDIT_EVENT_PREFIX = "ps:security:audit:event:";
     private static final String AUDIT_QUEUE_KEY = "ps:security:audit:queue";
     private static final String AUDIT_STATS_KEY = "ps:security:audit:stats";
-    private static final String AUDIT_INDEX_PREFIX = "ps:security:audit:index:";
+    // 补建索引的标记，补建成功后写入；不能放在索引前缀下，否则会被当作索引扫描
+    private static final String INDEX_BUILT_KEY = "ps:security:audit:meta:index-built";
+    // 补建索引的锁，防止多个节点同时补建；补建中途节点退出时按过期时间释放
+    private static final String INDEX_BUILDING_KEY = "ps:security:audit:meta:index-building";
+    private static final long INDEX_BUILDING_TTL_SECONDS = 300;
+
+    // 每次 MGET 的事件数
+    private static final int FETCH_CHUNK = 500;
+    // 交集/并集临时键的存活时间
+    private static final long TEMP_KEY_TTL_SECONDS = 30;
+
+    private volatile boolean indexed;
 
     /**
      * 根据条件查询审计事件
+     * <pre>
+     *     1. 用户/类型/类别/级别/结果/IP 走 ZSET 索引，多个条件时 ZINTERSTORE 到短期临时键
+     *     2. 时间范围映射为分数区间，ZREVRANGEBYSCORE 只取当前页的事件ID
+     *     3. 一次 MGET 取回整页事件；有关键词时按块扫描候选ID直到凑满一页
+     * </pre>
      */
     public List<AuditEvent> queryAuditEvents(AuditQueryCriteria criteria) {
         if (redisTemplate == null) {
@@ -50,29 +74,43 @@ public class AuditLogService {
         }
 
         try {
-            List<String> eventIds = getEventIdsByCriteria(criteria);
-            List<AuditEvent> events = new ArrayList<>();
-
-            for (String eventId : eventIds) {
-                String eventKey = AUDIT_EVENT_PREFIX + eventId;
-                AuditEvent event = (AuditEvent) redisTemplate.opsForValue().get(eventKey);
-                if (event != null && matchesCriteria(event, criteria)) {
-                    events.add(event);
-                }
+            AuditQueryCriteria query = criteria != null ? criteria : new AuditQueryCriteria();
+            if (query.getLimit() <= 0) {
+                return Collections.emptyList();
             }
+            ensureIndexed();
 
-            // 排序
-            events.sort((e1, e2) -> e2.getTimestamp().compareTo(e1.getTimestamp()));
+            String source = resolveIndexKey(query);
+            double min = AuditEventIndex.minScore(query.getStartTime());
+            double max = AuditEventIndex.maxScore(query.getEndTime());
 
-            // 分页
-            int startIndex = criteria.getOffset();
-            int endIndex = Math.min(startIndex + criteria.getLimit(), events.size());
-            
-            if (startIndex >= events.size()) {
-                return Collections.emptyList();
+            if (!StringUtils.hasText(query.getKeyword())) {
+                Set<Object> ids = redisTemplate.opsForZSet().reverseRangeByScore(source, min, max,
+                    Math.max(0, query.getOffset()), query.getLimit());
+                return fetchEvents(ids, query);
             }
 
-            return events.subList(startIndex, endIndex);
+            // 关键词无法建索引，按块扫描候选ID
+            int chunk = Math.max(query.getLimit() * 4, 200);
+            int skip = Math.max(0, query.getOffset());
+            List<AuditEvent> page = new ArrayList<>(query.getLimit());
+            for (long position = 0; page.size() < query.getLimit(); position += chunk) {
+                Set<Object> ids = redisTemplate.opsForZSet().reverseRangeByScore(source, min, max, position, chunk);
+                if (ids == null || ids.isEmpty()) {
+                    break;
+                }
+                for (AuditEvent event : fetchEvents(ids, query)) {
+                    if (skip > 0) {
+                        skip--;
+                    } else if (page.size() < query.getLimit()) {
+                        page.add(event);
+                    }
+                }
+                if (ids.size() < chunk) {
+                    break;
+                }
+            }
+            return page;
 
         } catch (Exception e) {
             logger.error("Failed to query audit events", e);
@@ -99,6 +137,10 @@ public class AuditLogService {
 
     /**
      * 统计审计事件
+     * <pre>
+     *     仅按时间范围统计时直接读取小时预聚合计数，总数由总索引 ZCOUNT 精确得到，
+     *     分项计数以小时为粒度；带其他过滤条件时先走索引取出匹配事件再聚合
+     * </pre>
      */
     public AuditStatistics getAuditStatistics(AuditQueryCriteria criteria) {
         if (redisTemplate == null) {
@@ -107,10 +149,16 @@ public class AuditLogService {
         }
 
         try {
+            AuditQueryCriteria query = criteria != null ? criteria : new AuditQueryCriteria();
+            ensureIndexed();
+            if (AuditEventIndex.keysOf(query).isEmpty() && !StringUtils.hasText(query.getKeyword())) {
+                return aggregatedStatistics(query);
+            }
+
             AuditStatistics statistics = new AuditStatistics();
             
             // 获取匹配条件的事件
-            List<AuditEvent> events = queryAllEventsByCriteria(criteria);
+            List<AuditEvent> events = queryAllEventsByCriteria(query);
             
             statistics.setTotalEvents(events.size());
             
@@ -141,16 +189,10 @@ public class AuditLogService {
                 .collect(Collectors.groupingBy(AuditEvent::getClientIp, Collectors.counting()));
             statistics.setTopIpAddresses(getTopEntries(ipStats, 10));
             
-            // 时间范围
+            // 时间范围，事件按时间倒序
             if (!events.isEmpty()) {
-                statistics.setStartTime(events.stream()
-                    .map(AuditEvent::getTimestamp)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null));
-                statistics.setEndTime(events.stream()
-                    .map(AuditEvent::getTimestamp)
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null));
+                statistics.setStartTime(events.get(events.size() - 1).getTimestamp());
+                statistics.setEndTime(events.get(0).getTimestamp());
             }
             
             return statistics;
@@ -186,6 +228,9 @@ public class AuditLogService {
                 if (event != null && event.getTimestamp().isBefore(cutoffTime)) {
                     // 归档事件（这里简化为删除，实际可以移动到归档存储）
                     redisTemplate.delete(eventKey);
+                    for (String indexKey : AuditEventIndex.keysOf(event)) {
+                        redisTemplate.opsForZSet().remove(indexKey, eventId);
+                    }
                     redisTemplate.opsForList().remove(AUDIT_QUEUE_KEY, 1, eventId);
                     archivedCount++;
                     
@@ -206,16 +251,16 @@ public class AuditLogService {
      * 清理所有审计数据
      */
     public void clearAllAuditData() {
-        if (redisTemplate == null) {
+        if (redisKeyScanner == null) {
             return;
         }
 
         try {
-            // 获取所有审计相关的键
-            Set<String> auditKeys = redisTemplate.keys("ps:security:audit:*");
-            if (auditKeys != null && !auditKeys.isEmpty()) {
-                redisTemplate.delete(auditKeys);
-                logger.info("Cleared {} audit data keys", auditKeys.size());
+            // SCAN 分批删除所有审计相关的键
+            long deleted = redisKeyScanner.deleteByPattern("ps:security:audit:*");
+            if (deleted > 0) {
+                indexed = false;
+                logger.info("Cleared {} audit data keys", deleted);
             }
         } catch (Exception e) {
             logger.error("Failed to clear audit data", e);
@@ -283,36 +328,243 @@ public class AuditLogService {
     // ================================ 私有方法 ================================
 
     /**
-     * 根据条件获取事件ID列表
+     * 首次查询时把索引建立之前写入的事件补进索引，之后的事件由发布器随写入维护。
+     * 补建成功后才写入标记；其它节点正在补建或本次补建失败时，本次查询使用现有索引，下次查询再检查
+     */
+    private void ensureIndexed() {
+        if (indexed) {
+            return;
+        }
+        synchronized (this) {
+            if (indexed) {
+                return;
+            }
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(INDEX_BUILT_KEY))) {
+                indexed = true;
+                return;
+            }
+            String token = UUID.randomUUID().toString();
+            Boolean locked = redisTemplate.opsForValue().setIfAbsent(INDEX_BUILDING_KEY, token,
+                INDEX_BUILDING_TTL_SECONDS, TimeUnit.SECONDS);
+            if (!Boolean.TRUE.equals(locked)) {
+                logger.debug("Audit indexes are being rebuilt by another node");
+                return;
+            }
+            try {
+                rebuildIndexes();
+                redisTemplate.opsForValue().set(INDEX_BUILT_KEY, LocalDateTime.now().toString());
+                indexed = true;
+            } catch (Exception e) {
+                logger.warn("Failed to rebuild audit indexes, will retry on next query", e);
+            } finally {
+                if (token.equals(redisTemplate.opsForValue().get(INDEX_BUILDING_KEY))) {
+                    redisTemplate.delete(INDEX_BUILDING_KEY);
+                }
+            }
+        }
+    }
+
+    /**
+     * 按队列中的事件ID分块补建索引，重复写入同一事件的索引无副作用
+     */
+    private void rebuildIndexes() {
+        List<Object> queued = redisTemplate.opsForList().range(AUDIT_QUEUE_KEY, 0, -1);
+        if (queued == null || queued.isEmpty()) {
+            return;
+        }
+        int rebuilt = 0;
+        for (int from = 0; from < queued.size(); from += FETCH_CHUNK) {
+            List<Object> ids = queued.subList(from, Math.min(from + FETCH_CHUNK, queued.size()));
+            List<AuditEvent> events = multiGet(ids);
+            if (events.isEmpty()) {
+                continue;
+            }
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    AuditEventIndex.write((RedisOperations<String, Object>) operations, events);
+                    return null;
+                }
+            });
+            rebuilt += events.size();
+        }
+        logger.info("Rebuilt audit indexes for {} existing events", rebuilt);
+    }
+
+    /**
+     * 解析查询条件对应的索引键：无条件用总索引，单条件直接用该索引，多条件 ZINTERSTORE 到临时键
+     */
+    private String resolveIndexKey(AuditQueryCriteria criteria) {
+        List<String> keys = AuditEventIndex.keysOf(criteria);
+        if (keys.isEmpty()) {
+            return AuditEventIndex.INDEX_ALL;
+        }
+        if (keys.size() == 1) {
+            return keys.get(0);
+        }
+
+        // 分数即时间戳，取 MAX 保持原值；每次查询使用独立的临时键，避免并发查询互相覆盖
+        String dest = AuditEventIndex.TEMP_PREFIX + UUID.randomUUID();
+        redisTemplate.opsForZSet().intersectAndStore(keys.get(0), keys.subList(1, keys.size()), dest,
+            RedisZSetCommands.Aggregate.MAX);
+        redisTemplate.expire(dest, TEMP_KEY_TTL_SECONDS, TimeUnit.SECONDS);
+        return dest;
+    }
+
+    /**
+     * 按ID顺序批量取回事件，并做最终条件校验（关键词、已过期的事件）
      */
-    private List<String> getEventIdsByCriteria(AuditQueryCriteria criteria) {
-        // 从队列获取所有事件ID
-        List<Object> allEventIds = redisTemplate.opsForList().range(AUDIT_QUEUE_KEY, 0, -1);
-        if (allEventIds == null) {
+    private List<AuditEvent> fetchEvents(Collection<Object> ids, AuditQueryCriteria criteria) {
+        if (ids == null || ids.isEmpty()) {
             return Collections.emptyList();
         }
+        List<AuditEvent> events = multiGet(ids);
+        events.removeIf(event -> !matchesCriteria(event, criteria));
+        return events;
+    }
 
-        return allEventIds.stream()
-            .map(Object::toString)
-            .collect(Collectors.toList());
+    /**
+     * MGET 一组事件，保持入参顺序，忽略已过期的事件
+     */
+    private List<AuditEvent> multiGet(Collection<Object> ids) {
+        List<String> eventKeys = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            eventKeys.add(AUDIT_EVENT_PREFIX + id);
+        }
+        List<Object> values = redisTemplate.opsForValue().multiGet(eventKeys);
+        List<AuditEvent> events = new ArrayList<>(eventKeys.size());
+        if (values != null) {
+            for (Object value : values) {
+                if (value instanceof AuditEvent) {
+                    events.add((AuditEvent) value);
+                }
+            }
+        }
+        return events;
     }
 
     /**
-     * 查询所有匹配条件的事件（不分页）
+     * 查询所有匹配条件的事件（不分页），按时间倒序
      */
     private List<AuditEvent> queryAllEventsByCriteria(AuditQueryCriteria criteria) {
-        List<String> eventIds = getEventIdsByCriteria(criteria);
-        List<AuditEvent> events = new ArrayList<>();
+        String source = resolveIndexKey(criteria);
+        Set<Object> ids = redisTemplate.opsForZSet().reverseRangeByScore(source,
+            AuditEventIndex.minScore(criteria.getStartTime()), AuditEventIndex.maxScore(criteria.getEndTime()));
+        if (ids == null || ids.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        for (String eventId : eventIds) {
-            String eventKey = AUDIT_EVENT_PREFIX + eventId;
-            AuditEvent event = (AuditEvent) redisTemplate.opsForValue().get(eventKey);
-            if (event != null && matchesCriteria(event, criteria)) {
-                events.add(event);
+        List<Object> ordered = new ArrayList<>(ids);
+        List<AuditEvent> events = new ArrayList<>(ordered.size());
+        for (int from = 0; from < ordered.size(); from += FETCH_CHUNK) {
+            events.addAll(fetchEvents(ordered.subList(from, Math.min(from + FETCH_CHUNK, ordered.size())), criteria));
+        }
+        return events;
+    }
+
+    /**
+     * 从小时预聚合计数汇总统计信息
+     */
+    private AuditStatistics aggregatedStatistics(AuditQueryCriteria criteria) {
+        AuditStatistics statistics = new AuditStatistics();
+        double min = AuditEventIndex.minScore(criteria.getStartTime());
+        double max = AuditEventIndex.maxScore(criteria.getEndTime());
+
+        Long total = redisTemplate.opsForZSet().count(AuditEventIndex.INDEX_ALL, min, max);
+        statistics.setTotalEvents(total != null ? total : 0);
+        if (statistics.getTotalEvents() == 0) {
+            return statistics;
+        }
+
+        Set<ZSetOperations.TypedTuple<Object>> first = redisTemplate.opsForZSet()
+            .rangeByScoreWithScores(AuditEventIndex.INDEX_ALL, min, max, 0, 1);
+        Set<ZSetOperations.TypedTuple<Object>> last = redisTemplate.opsForZSet()
+            .reverseRangeByScoreWithScores(AuditEventIndex.INDEX_ALL, min, max, 0, 1);
+        if (first != null && !first.isEmpty()) {
+            statistics.setStartTime(AuditEventIndex.fromMillis(first.iterator().next().getScore()));
+        }
+        if (last != null && !last.isEmpty()) {
+            statistics.setEndTime(AuditEventIndex.fromMillis(last.iterator().next().getScore()));
+        }
+
+        List<String> hourKeys = AuditEventIndex.hourKeys(criteria.getStartTime(), criteria.getEndTime());
+        List<Object> hours = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (String hourKey : hourKeys) {
+                    ops.opsForHash().entries(hourKey);
+                }
+                return null;
+            }
+        });
+
+        Map<AuditCategory, Long> categoryStats = new EnumMap<>(AuditCategory.class);
+        Map<AuditLevel, Long> levelStats = new EnumMap<>(AuditLevel.class);
+        Map<AuditResult, Long> resultStats = new EnumMap<>(AuditResult.class);
+        for (Object hour : hours) {
+            if (!(hour instanceof Map)) {
+                continue;
+            }
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) hour).entrySet()) {
+                String field = String.valueOf(entry.getKey());
+                long count = entry.getValue() instanceof Number ? ((Number) entry.getValue()).longValue() : 0L;
+                int colon = field.indexOf(':');
+                if (colon < 0 || count == 0) {
+                    continue;
+                }
+                String name = field.substring(colon + 1);
+                try {
+                    switch (field.substring(0, colon)) {
+                        case "category":
+                            categoryStats.merge(AuditCategory.valueOf(name), count, Long::sum);
+                            break;
+                        case "level":
+                            levelStats.merge(AuditLevel.valueOf(name), count, Long::sum);
+                            break;
+                        case "result":
+                            resultStats.merge(AuditResult.valueOf(name), count, Long::sum);
+                            break;
+                        default:
+                            break;
+                    }
+                } catch (IllegalArgumentException e) {
+                    logger.debug("Ignoring unknown audit counter field: {}", field);
+                }
             }
         }
+        statistics.setCategoryStatistics(new HashMap<>(categoryStats));
+        statistics.setLevelStatistics(new HashMap<>(levelStats));
+        statistics.setResultStatistics(new HashMap<>(resultStats));
+        statistics.setTopUsers(topCounters(hourKeys, ":users", 10));
+        statistics.setTopIpAddresses(topCounters(hourKeys, ":ips", 10));
+        return statistics;
+    }
 
-        return events;
+    /**
+     * ZUNIONSTORE 合并各小时的计数 ZSET 后取前N项
+     */
+    private Map<String, Long> topCounters(List<String> hourKeys, String suffix, int limit) {
+        if (hourKeys.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        List<String> keys = hourKeys.stream().map(key -> key + suffix).collect(Collectors.toList());
+        String dest = AuditEventIndex.TEMP_PREFIX + "top" + suffix + ":" + UUID.randomUUID();
+        redisTemplate.opsForZSet().unionAndStore(keys.get(0), keys.subList(1, keys.size()), dest);
+        redisTemplate.expire(dest, TEMP_KEY_TTL_SECONDS, TimeUnit.SECONDS);
+
+        Map<String, Long> top = new LinkedHashMap<>();
+        Set<ZSetOperations.TypedTuple<Object>> tuples = redisTemplate.opsForZSet().reverseRangeWithScores(dest, 0, limit - 1);
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<Object> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    top.put(tuple.getValue().toString(), tuple.getScore().longValue());
+                }
+            }
+        }
+        return top;
     }
 
     /**
@@ -2,6 +2,7 @@ package com.jiuxi.shared.security.config;
 
 import com.auth0.jwt.algorithms.Algorithm;
 import com.jiuxi.security.sso.service.KeycloakJwtService;
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -29,6 +30,9 @@ public class JwtSecurityConfig {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
+
     /**
      * JWT签名算法配置
      */
@@ -44,8 +48,8 @@ public class JwtSecurityConfig {
      */
     @Bean
     public JwtCacheService jwtCacheService() {
-        if (redisTemplate != null && securityProperties.getJwt().isCacheEnabled()) {
-            return new RedisJwtCacheService(redisTemplate, securityProperties);
+        if (redisTemplate != null && redisKeyScanner != null && securityProperties.getJwt().isCacheEnabled()) {
+            return new RedisJwtCacheService(redisTemplate, redisKeyScanner, securityProperties);
         }
         return new MemoryJwtCacheService(securityProperties);
     }
@@ -75,12 +79,14 @@ public class JwtSecurityConfig {
      */
     public static class RedisJwtCacheService implements JwtCacheService {
         private final RedisTemplate<String, Object> redisTemplate;
+        private final RedisKeyScanner keyScanner;
         private final SecurityProperties securityProperties;
         private final String cachePrefix = "jwt:cache:";
 
-        public RedisJwtCacheService(RedisTemplate<String, Object> redisTemplate, 
+        public RedisJwtCacheService(RedisTemplate<String, Object> redisTemplate, RedisKeyScanner keyScanner,
                                    SecurityProperties securityProperties) {
             this.redisTemplate = redisTemplate;
+            this.keyScanner = keyScanner;
             this.securityProperties = securityProperties;
         }
 
@@ -111,8 +117,8 @@ public class JwtSecurityConfig {
 
         @Override
         public void clear() {
-            // 清空所有JWT缓存
-            redisTemplate.delete(redisTemplate.keys(cachePrefix + "*"));
+            // 清空所有JWT缓存（SCAN + 分批UNLINK，不阻塞Redis）
+            keyScanner.deleteByPattern(cachePrefix + "*");
         }
     }
 
@@ -707,6 +707,21 @@ public class SecurityProperties {
          */
         private int batchInterval = 5000;
 
+        /**
+         * 审计队列满时的处理策略：BLOCK 阻塞等待，DROP_LOWEST 按级别逐级丢弃，SPILL 溢出到本地文件；默认 DROP_LOWEST
+         */
+        private String backpressure = "DROP_LOWEST";
+
+        /**
+         * 阻塞等待队列空位的最长时间（毫秒），默认100毫秒，超时后丢弃
+         */
+        private long offerTimeout = 100;
+
+        /**
+         * 溢出文件路径，SPILL 策略使用，队列空闲时回放
+         */
+        private String spillFile = "logs/audit-spill.jsonl";
+
         // getters and setters
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
@@ -738,6 +753,15 @@ public class SecurityProperties {
 
         public int getBatchInterval() { return batchInterval; }
         public void setBatchInterval(int batchInterval) { this.batchInterval = batchInterval; }
+
+        public String getBackpressure() { return backpressure; }
+        public void setBackpressure(String backpressure) { this.backpressure = backpressure; }
+
+        public long getOfferTimeout() { return offerTimeout; }
+        public void setOfferTimeout(long offerTimeout) { this.offerTimeout = offerTimeout; }
+
+        public String getSpillFile() { return spillFile; }
+        public void setSpillFile(String spillFile) { this.spillFile = spillFile; }
     }
 
     /**
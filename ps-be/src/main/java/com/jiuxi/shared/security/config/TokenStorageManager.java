@@ -1,7 +1,9 @@
 package com.jiuxi.shared.security.config;
 
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import com.jiuxi.shared.security.config.TokenService.TokenInfo;
 import com.jiuxi.shared.security.config.TokenService.UserInfo;
+import com.jiuxi.shared.security.revocation.TokenRevocationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +11,7 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -32,6 +35,12 @@ public class TokenStorageManager {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
+
+    @Autowired(required = false)
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
     // Redis键前缀
     private static final String TOKEN_PREFIX = "ps:security:token:";
     private static final String USER_TOKENS_PREFIX = "ps:security:user_tokens:";
@@ -39,6 +48,36 @@ public class TokenStorageManager {
     private static final String REFRESH_TOKEN_PREFIX = "ps:security:refresh:";
     private static final String TOKEN_METADATA_PREFIX = "ps:security:token_meta:";
 
+    /**
+     * 启用吊销登记表后黑名单只查登记表，启动时把 redis 中已有的黑名单（含升级前写入的）导入本节点登记表，
+     * 否则升级前拉黑的令牌在过期前会重新可用
+     */
+    @PostConstruct
+    public void restoreBlacklist() {
+        if (tokenRevocationRegistry == null || redisTemplate == null || redisKeyScanner == null) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long defaultTtlMillis = TimeUnit.SECONDS.toMillis(securityProperties.getJwt().getExpiration());
+            long[] restored = new long[1];
+            redisKeyScanner.forEach(BLACKLIST_PREFIX + "*", key -> {
+                Long ttl = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+                // -2 表示已过期删除，-1 表示未设置过期时间
+                if (ttl == null || ttl == -2) {
+                    return;
+                }
+                tokenRevocationRegistry.restore(key.substring(BLACKLIST_PREFIX.length()), now + (ttl < 0 ? defaultTtlMillis : ttl));
+                restored[0]++;
+            });
+            if (restored[0] > 0) {
+                logger.info("Restored {} blacklisted tokens into revocation registry", restored[0]);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to restore token blacklist into revocation registry", e);
+        }
+    }
+
     /**
      * 存储令牌信息
      */
@@ -141,6 +180,10 @@ public class TokenStorageManager {
      * 将令牌加入黑名单
      */
     public void blacklistToken(String tokenId, long ttlSeconds) {
+        if (tokenRevocationRegistry != null) {
+            // 本地立即生效并广播给其它节点
+            tokenRevocationRegistry.revoke(tokenId, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        }
         if (redisTemplate == null) {
             return;
         }
@@ -161,8 +204,12 @@ public class TokenStorageManager {
 
     /**
      * 检查令牌是否在黑名单中
+     * 优先使用本地吊销登记表，未吊销的常见情况不访问redis
      */
     public boolean isTokenBlacklisted(String tokenId) {
+        if (tokenRevocationRegistry != null) {
+            return tokenRevocationRegistry.isRevoked(tokenId);
+        }
         if (redisTemplate == null) {
             return false;
         }
@@ -323,24 +370,22 @@ public class TokenStorageManager {
      * 获取令牌统计信息
      */
     public TokenStatistics getTokenStatistics() {
-        if (redisTemplate == null) {
+        if (redisKeyScanner == null) {
             return new TokenStatistics();
         }
 
         try {
             TokenStatistics stats = new TokenStatistics();
+            // SCAN 计数，不加载 key 列表，结果为近似值
             
             // 统计活跃令牌数量
-            Set<String> tokenKeys = redisTemplate.keys(TOKEN_PREFIX + "*");
-            stats.setActiveTokenCount(tokenKeys != null ? tokenKeys.size() : 0);
+            stats.setActiveTokenCount((int) redisKeyScanner.count(TOKEN_PREFIX + "*"));
             
             // 统计黑名单令牌数量
-            Set<String> blacklistKeys = redisTemplate.keys(BLACKLIST_PREFIX + "*");
-            stats.setBlacklistedTokenCount(blacklistKeys != null ? blacklistKeys.size() : 0);
+            stats.setBlacklistedTokenCount((int) redisKeyScanner.count(BLACKLIST_PREFIX + "*"));
             
             // 统计刷新令牌数量
-            Set<String> refreshKeys = redisTemplate.keys(REFRESH_TOKEN_PREFIX + "*");
-            stats.setRefreshTokenCount(refreshKeys != null ? refreshKeys.size() : 0);
+            stats.setRefreshTokenCount((int) redisKeyScanner.count(REFRESH_TOKEN_PREFIX + "*"));
             
             return stats;
 
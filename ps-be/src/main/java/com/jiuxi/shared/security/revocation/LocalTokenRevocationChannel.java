@@ -0,0 +1,57 @@
+package com.jiuxi.shared.security.revocation;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 进程内的令牌吊销通道
+ * 未启用 redis 时使用，也可以在测试中让多个 TokenRevocationRegistry 共享同一个实例来模拟集群
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class LocalTokenRevocationChannel implements TokenRevocationChannel {
+
+    private final List<BiConsumer<String, Long>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * 模拟共享存储中的吊销记录
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(String jti, long expireAtMillis) {
+        revoked.put(jti, expireAtMillis);
+        for (BiConsumer<String, Long> listener : listeners) {
+            listener.accept(jti, expireAtMillis);
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Long> loadActive(long nowMillis) {
+        if (revoked.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> active = new ConcurrentHashMap<>();
+        revoked.forEach((jti, expireAt) -> {
+            if (expireAt > nowMillis) {
+                active.put(jti, expireAt);
+            }
+        });
+        return active;
+    }
+
+    @Override
+    public void purgeExpired(long nowMillis) {
+        revoked.values().removeIf(expireAt -> expireAt <= nowMillis);
+    }
+}
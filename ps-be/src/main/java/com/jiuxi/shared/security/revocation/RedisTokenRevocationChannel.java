@@ -0,0 +1,115 @@
+package com.jiuxi.shared.security.revocation;
+
+import com.jiuxi.shared.common.constants.SecurityConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于 redis 发布订阅的令牌吊销通道
+ * <pre>
+ *     1. 吊销记录写入有序集合，score 为令牌过期时间，新节点启动时据此追平
+ *     2. 通过发布订阅通知所有节点，消息格式：jti|过期时间
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class RedisTokenRevocationChannel implements TokenRevocationChannel, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenRevocationChannel.class);
+
+    /**
+     * 吊销记录有序集合
+     */
+    private static final String REVOKED_KEY = "ps:security:revoked_tokens";
+
+    private static final char SEPARATOR = '|';
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final RedisMessageListenerContainer container;
+
+    private final List<BiConsumer<String, Long>> listeners = new CopyOnWriteArrayList<>();
+
+    public RedisTokenRevocationChannel(RedisConnectionFactory connectionFactory, StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.container = new RedisMessageListenerContainer();
+        this.container.setConnectionFactory(connectionFactory);
+        this.container.addMessageListener(this::onMessage, new ChannelTopic(SecurityConstants.RedisTopic.USER_LOGOUT));
+        this.container.afterPropertiesSet();
+        this.container.start();
+    }
+
+    @Override
+    public void publish(String jti, long expireAtMillis) {
+        stringRedisTemplate.opsForZSet().add(REVOKED_KEY, jti, expireAtMillis);
+        stringRedisTemplate.convertAndSend(SecurityConstants.RedisTopic.USER_LOGOUT, jti + SEPARATOR + expireAtMillis);
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public Map<String, Long> loadActive(long nowMillis) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                stringRedisTemplate.opsForZSet().rangeByScoreWithScores(REVOKED_KEY, nowMillis, Double.MAX_VALUE);
+        Map<String, Long> active = new HashMap<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                if (tuple.getValue() != null && tuple.getScore() != null) {
+                    active.put(tuple.getValue(), tuple.getScore().longValue());
+                }
+            }
+        }
+        return active;
+    }
+
+    @Override
+    public void purgeExpired(long nowMillis) {
+        stringRedisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, nowMillis);
+    }
+
+    private void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        // 兼容 json 序列化后带引号的消息
+        if (body.length() > 1 && body.charAt(0) == '"' && body.charAt(body.length() - 1) == '"') {
+            body = body.substring(1, body.length() - 1);
+        }
+        int index = body.lastIndexOf(SEPARATOR);
+        if (index <= 0) {
+            logger.warn("Ignore malformed revocation message: {}", body);
+            return;
+        }
+        try {
+            String jti = body.substring(0, index);
+            long expireAt = Long.parseLong(body.substring(index + 1));
+            for (BiConsumer<String, Long> listener : listeners) {
+                listener.accept(jti, expireAt);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignore malformed revocation message: {}", body);
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        container.destroy();
+    }
+}
@@ -0,0 +1,203 @@
+package com.jiuxi.shared.security.revocation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按过期时间分桶的布隆过滤器
+ * <p>
+ * 每个桶覆盖一段过期时间窗口，元素按自身过期时间落入对应的桶；桶的窗口整体过期后直接丢弃，
+ * 不需要逐个删除元素。查询时只计算一次哈希，不分配对象。
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class TimeBucketedBloomFilter {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 每个桶覆盖的时间窗口（毫秒）
+     */
+    private final long bucketMillis;
+
+    /**
+     * 每个桶的位数，2 的幂
+     */
+    private final int bitsPerBucket;
+
+    /**
+     * 哈希函数个数
+     */
+    private final int hashCount;
+
+    /**
+     * 当前存活的桶，写时复制，读取不加锁
+     */
+    private volatile Bucket[] buckets = new Bucket[0];
+
+    /**
+     * @param bucketMillis  每个桶覆盖的过期时间窗口（毫秒）
+     * @param bitsPerBucket 每个桶的位数，会向上取整为 2 的幂
+     * @param hashCount     哈希函数个数
+     */
+    public TimeBucketedBloomFilter(long bucketMillis, int bitsPerBucket, int hashCount) {
+        this.bucketMillis = Math.max(1000L, bucketMillis);
+        this.bitsPerBucket = Integer.highestOneBit(Math.max(64, bitsPerBucket - 1)) << 1;
+        this.hashCount = Math.max(1, hashCount);
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value         元素
+     * @param expireAtMillis 元素过期时间
+     */
+    public void put(String value, long expireAtMillis) {
+        long hash = hash(value);
+        Bucket bucket = bucketFor(expireAtMillis / bucketMillis);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int mask = bitsPerBucket - 1;
+        for (int i = 0; i < hashCount; i++) {
+            bucket.set((h1 + i * h2) & mask);
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在，返回 false 时一定不存在
+     *
+     * @param value 元素
+     * @return boolean
+     */
+    public boolean mightContain(String value) {
+        Bucket[] current = buckets;
+        if (current.length == 0) {
+            return false;
+        }
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int mask = bitsPerBucket - 1;
+        for (Bucket bucket : current) {
+            boolean all = true;
+            for (int i = 0; i < hashCount && all; i++) {
+                all = bucket.get((h1 + i * h2) & mask);
+            }
+            if (all) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 丢弃时间窗口已整体过期的桶
+     *
+     * @param nowMillis 当前时间
+     * @return int 丢弃的桶数量
+     */
+    public synchronized int expire(long nowMillis) {
+        long currentSlot = nowMillis / bucketMillis;
+        List<Bucket> alive = new ArrayList<>(buckets.length);
+        for (Bucket bucket : buckets) {
+            if (bucket.slot >= currentSlot) {
+                alive.add(bucket);
+            }
+        }
+        int removed = buckets.length - alive.size();
+        if (removed > 0) {
+            buckets = alive.toArray(new Bucket[0]);
+        }
+        return removed;
+    }
+
+    /**
+     * 当前存活的桶数量
+     */
+    public int bucketCount() {
+        return buckets.length;
+    }
+
+    /**
+     * 占用的内存字节数（仅位数组）
+     */
+    public long memoryBytes() {
+        return (long) buckets.length * bitsPerBucket / 8;
+    }
+
+    private Bucket bucketFor(long slot) {
+        for (Bucket bucket : buckets) {
+            if (bucket.slot == slot) {
+                return bucket;
+            }
+        }
+        synchronized (this) {
+            for (Bucket bucket : buckets) {
+                if (bucket.slot == slot) {
+                    return bucket;
+                }
+            }
+            Bucket[] current = buckets;
+            Bucket[] next = new Bucket[current.length + 1];
+            System.arraycopy(current, 0, next, 0, current.length);
+            Bucket bucket = new Bucket(slot, bitsPerBucket);
+            next[current.length] = bucket;
+            buckets = next;
+            return bucket;
+        }
+    }
+
+    /**
+     * FNV-1a 64 位哈希，直接遍历字符，不分配对象
+     */
+    private static long hash(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0, len = value.length(); i < len; i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        // 再做一次混淆，保证高低 32 位都足够分散
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+
+    /**
+     * 单个时间桶
+     */
+    private static final class Bucket {
+
+        /**
+         * 时间槽：过期时间 / 桶时间窗口
+         */
+        private final long slot;
+
+        private final AtomicLongArray words;
+
+        private Bucket(long slot, int bits) {
+            this.slot = slot;
+            this.words = new AtomicLongArray(bits >>> 6);
+        }
+
+        private void set(int bit) {
+            int index = bit >>> 6;
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+        }
+
+        private boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+    }
+}
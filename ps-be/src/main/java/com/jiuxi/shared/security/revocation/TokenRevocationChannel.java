@@ -0,0 +1,45 @@
+package com.jiuxi.shared.security.revocation;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 令牌吊销广播通道
+ * 负责把本节点吊销的令牌同步给集群内的其它节点
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public interface TokenRevocationChannel {
+
+    /**
+     * 广播吊销的令牌
+     *
+     * @param jti            令牌唯一标识
+     * @param expireAtMillis 令牌过期时间，过期后无需再保留吊销记录
+     */
+    void publish(String jti, long expireAtMillis);
+
+    /**
+     * 订阅吊销消息，包括本节点自己发布的消息
+     *
+     * @param listener 参数：jti、过期时间
+     */
+    void subscribe(BiConsumer<String, Long> listener);
+
+    /**
+     * 加载当前仍然有效的吊销记录，新节点启动时用于追平
+     *
+     * @param nowMillis 当前时间
+     * @return key: jti    val: 过期时间
+     */
+    Map<String, Long> loadActive(long nowMillis);
+
+    /**
+     * 清理已过期的吊销记录
+     *
+     * @param nowMillis 当前时间
+     */
+    default void purgeExpired(long nowMillis) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.jiuxi.shared.security.revocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 令牌吊销配置
+ * ps.security.revocation.channel=redis（默认）时通过 redis 在集群内同步，=local 时仅在本节点生效
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@Configuration
+public class TokenRevocationConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationConfiguration.class);
+
+    @Value("${ps.security.revocation.channel:redis}")
+    private String channel;
+
+    /**
+     * 布隆过滤器每个时间桶覆盖的时间窗口，默认 15 分钟
+     */
+    @Value("${ps.security.revocation.bucket-millis:900000}")
+    private long bucketMillis;
+
+    /**
+     * 每个时间桶的位数，默认 2^18（32KB），约 2.7 万条吊销记录时误判率 1%
+     */
+    @Value("${ps.security.revocation.bits-per-bucket:262144}")
+    private int bitsPerBucket;
+
+    @Value("${ps.security.revocation.hash-count:7}")
+    private int hashCount;
+
+    @Bean
+    public TokenRevocationChannel tokenRevocationChannel(ObjectProvider<RedisConnectionFactory> connectionFactory,
+                                                         ObjectProvider<StringRedisTemplate> stringRedisTemplate) {
+        RedisConnectionFactory factory = connectionFactory.getIfAvailable();
+        StringRedisTemplate template = stringRedisTemplate.getIfAvailable();
+        if ("redis".equalsIgnoreCase(channel) && factory != null && template != null) {
+            return new RedisTokenRevocationChannel(factory, template);
+        }
+        logger.warn("Token revocation uses local channel, revocations will not be shared across nodes");
+        return new LocalTokenRevocationChannel();
+    }
+
+    @Bean
+    public TokenRevocationRegistry tokenRevocationRegistry(TokenRevocationChannel tokenRevocationChannel) {
+        return new TokenRevocationRegistry(tokenRevocationChannel,
+                new TimeBucketedBloomFilter(bucketMillis, bitsPerBucket, hashCount));
+    }
+}
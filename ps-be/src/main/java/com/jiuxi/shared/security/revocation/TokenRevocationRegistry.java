@@ -0,0 +1,175 @@
+package com.jiuxi.shared.security.revocation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 令牌吊销登记表
+ * <pre>
+ *     1. 本地保存按过期时间分桶的布隆过滤器 + 精确集合
+ *     2. 判断令牌是否被吊销：集合为空或布隆过滤器判定不存在时直接返回，不访问网络、不分配对象；
+ *        布隆过滤器判定可能存在时再查精确集合
+ *     3. 吊销时先写本地，再通过 TokenRevocationChannel 广播给其它节点
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class TokenRevocationRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private final TokenRevocationChannel channel;
+
+    private final TimeBucketedBloomFilter bloomFilter;
+
+    /**
+     * 精确集合，key: jti    val: 过期时间
+     */
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    /**
+     * 吊销回调，用于清理各处的本地缓存
+     */
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder fastPathCount = new LongAdder();
+    private final LongAdder exactCheckCount = new LongAdder();
+    private final LongAdder falsePositiveCount = new LongAdder();
+
+    public TokenRevocationRegistry(TokenRevocationChannel channel, TimeBucketedBloomFilter bloomFilter) {
+        this.channel = channel;
+        this.bloomFilter = bloomFilter;
+    }
+
+    @PostConstruct
+    public void init() {
+        channel.subscribe(this::apply);
+        try {
+            Map<String, Long> active = channel.loadActive(System.currentTimeMillis());
+            active.forEach(this::apply);
+            logger.info("Token revocation registry initialized with {} active revocations", active.size());
+        } catch (Exception e) {
+            logger.warn("Failed to load active token revocations, starting empty: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 吊销令牌，本地立即生效并广播给其它节点
+     *
+     * @param jti            令牌唯一标识
+     * @param expireAtMillis 令牌过期时间
+     */
+    public void revoke(String jti, long expireAtMillis) {
+        if (jti == null || expireAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        apply(jti, expireAtMillis);
+        try {
+            channel.publish(jti, expireAtMillis);
+        } catch (Exception e) {
+            logger.error("Failed to broadcast token revocation, only effective on this node: {}", jti, e);
+        }
+    }
+
+    /**
+     * 恢复已有的吊销记录，只写本地不广播，用于从其它存储（如旧的黑名单）导入
+     *
+     * @param jti            令牌唯一标识
+     * @param expireAtMillis 令牌过期时间
+     */
+    public void restore(String jti, long expireAtMillis) {
+        if (jti == null) {
+            return;
+        }
+        apply(jti, expireAtMillis);
+    }
+
+    /**
+     * 判断令牌是否已被吊销
+     *
+     * @param jti 令牌唯一标识
+     * @return boolean
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null || revoked.isEmpty() || !bloomFilter.mightContain(jti)) {
+            fastPathCount.increment();
+            return false;
+        }
+        exactCheckCount.increment();
+        Long expireAt = revoked.get(jti);
+        if (expireAt == null) {
+            falsePositiveCount.increment();
+            return false;
+        }
+        return expireAt > System.currentTimeMillis();
+    }
+
+    /**
+     * 注册吊销回调，本节点和其它节点的吊销都会触发
+     *
+     * @param listener 参数：jti
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 定时清理已过期的吊销记录和布隆过滤器时间桶
+     */
+    @Scheduled(fixedDelayString = "${ps.security.revocation.cleanup-interval:60000}")
+    public void cleanup() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expireAt -> expireAt <= now);
+        int buckets = bloomFilter.expire(now);
+        try {
+            channel.purgeExpired(now);
+        } catch (Exception e) {
+            logger.warn("Failed to purge expired token revocations: {}", e.getMessage());
+        }
+        if (buckets > 0) {
+            logger.debug("Expired {} revocation bloom buckets, {} revocations remaining", buckets, revoked.size());
+        }
+    }
+
+    /**
+     * 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("revokedCount", revoked.size());
+        stats.put("bloomBuckets", bloomFilter.bucketCount());
+        stats.put("bloomMemoryBytes", bloomFilter.memoryBytes());
+        stats.put("fastPathCount", fastPathCount.sum());
+        stats.put("exactCheckCount", exactCheckCount.sum());
+        stats.put("falsePositiveCount", falsePositiveCount.sum());
+        stats.put("channel", channel.getClass().getSimpleName());
+        return stats;
+    }
+
+    private void apply(String jti, Long expireAtMillis) {
+        if (expireAtMillis == null || expireAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        // 先写布隆过滤器再写精确集合，保证读取方看到集合非空时布隆过滤器已经包含该元素
+        bloomFilter.put(jti, expireAtMillis);
+        revoked.merge(jti, expireAtMillis, Math::max);
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(jti);
+            } catch (Exception e) {
+                logger.warn("Token revocation listener failed: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.jiuxi.shared.security.service;
 
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
 import com.jiuxi.shared.security.config.KeycloakClient;
 import com.jiuxi.shared.security.config.SecurityProperties;
 import org.slf4j.Logger;
@@ -42,6 +43,9 @@ public class KeycloakUserSyncService {
     @Autowired(required = false)
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired(required = false)
+    private RedisKeyScanner redisKeyScanner;
+
     // 同步状态跟踪
     private final Map<String, SyncOperation> activeSyncOperations = new ConcurrentHashMap<>();
     private final AtomicLong syncCounter = new AtomicLong(0);
@@ -274,16 +278,18 @@ public class KeycloakUserSyncService {
     public List<SyncConflict> getSyncConflicts() {
         List<SyncConflict> conflicts = new ArrayList<>();
         
-        if (redisTemplate != null) {
-            Set<String> conflictKeys = redisTemplate.keys(SYNC_CONFLICT_PREFIX + "*");
-            if (conflictKeys != null) {
-                for (String key : conflictKeys) {
-                    Object conflictObj = redisTemplate.opsForValue().get(key);
-                    if (conflictObj instanceof SyncConflict) {
-                        conflicts.add((SyncConflict) conflictObj);
+        if (redisTemplate != null && redisKeyScanner != null) {
+            // SCAN 分批取 key，每批一次 MGET
+            redisKeyScanner.scan(SYNC_CONFLICT_PREFIX + "*", RedisKeyScanner.DEFAULT_BATCH_SIZE, batch -> {
+                List<Object> values = redisTemplate.opsForValue().multiGet(batch);
+                if (values != null) {
+                    for (Object conflictObj : values) {
+                        if (conflictObj instanceof SyncConflict) {
+                            conflicts.add((SyncConflict) conflictObj);
+                        }
                     }
                 }
-            }
+            });
         }
         
         return conflicts;
@@ -0,0 +1,116 @@
+package com.jiuxi.admin.core.interceptor;
+
+import com.jiuxi.admin.core.bean.entity.TpApiDefinition;
+import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 开放API鉴权快照测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("开放API鉴权快照测试")
+class OpenApiAuthorizationSnapshotTest {
+
+    private static OpenApiAuthorizationSnapshot sample() {
+        List<TpApiDefinition> apis = List.of(
+                api("u1", "/open-api/v1/users", "GET"),
+                api("u2", "/open-api/v1/users/{personId}", "GET"),
+                api("u3", "/open-api/v1/users/search", "GET"),
+                api("u4", "/open-api/v1/users/{personId}", "DELETE"),
+                api("d1", "/open-api/v1/departments/{deptId}/children", "get"),
+                api("dup", "/open-api/v1/users/", "GET"));
+        List<TpThirdPartyApp> apps = List.of(
+                app("a1", "key-1", 1, null, null),
+                app("a2", "key-2", 0, null, null),
+                app("a3", "key-3", 1, "20200101000000", "10.0.0.1, 10.0.0.2"));
+        List<TpAppApiPermission> permissions = List.of(
+                permission("a1", "u2"),
+                permission("a1", "d1"),
+                permission("a1", "missing"),
+                permission("a3", "u1"));
+        return OpenApiAuthorizationSnapshot.build(apps, apis, permissions);
+    }
+
+    @Test
+    @DisplayName("常量路径、路径变量和方法匹配")
+    void matchApi() {
+        OpenApiAuthorizationSnapshot snapshot = sample();
+
+        assertEquals(5, snapshot.apiCount());
+        assertEquals("u1", snapshot.getApi(snapshot.matchApi("/open-api/v1/users", "GET")).getApiId());
+        assertEquals("u1", snapshot.getApi(snapshot.matchApi("/open-api/v1/users/", "get")).getApiId());
+        assertEquals("u2", snapshot.getApi(snapshot.matchApi("/open-api/v1/users/1001", "GET")).getApiId());
+        // 常量路径优先于路径变量
+        assertEquals("u3", snapshot.getApi(snapshot.matchApi("/open-api/v1/users/search", "GET")).getApiId());
+        assertEquals("u4", snapshot.getApi(snapshot.matchApi("/open-api/v1/users/1001", "DELETE")).getApiId());
+        assertEquals("d1", snapshot.getApi(snapshot.matchApi("/open-api/v1/departments/9/children", "GET")).getApiId());
+
+        assertEquals(-1, snapshot.matchApi("/open-api/v1/users/1001", "POST"));
+        assertEquals(-1, snapshot.matchApi("/open-api/v1/users/1001/roles", "GET"));
+        assertEquals(-1, snapshot.matchApi("/open-api/v1/departments/9/parent", "GET"));
+        assertNull(snapshot.getApi(-1));
+    }
+
+    @Test
+    @DisplayName("按 API Key 查找应用并判断状态、白名单和授权")
+    void findApp() {
+        OpenApiAuthorizationSnapshot snapshot = sample();
+        int user = snapshot.matchApi("/open-api/v1/users/1001", "GET");
+        int users = snapshot.matchApi("/open-api/v1/users", "GET");
+
+        OpenApiAuthorizationSnapshot.AppEntry a1 = snapshot.findApp("key-1");
+        assertEquals("a1", a1.getApp().getAppId());
+        assertTrue(a1.isEnabled());
+        assertFalse(a1.isExpired("20261018120000"));
+        assertTrue(a1.isIpAllowed("192.168.1.1"));
+        assertTrue(a1.isPermitted(user));
+        assertFalse(a1.isPermitted(users));
+        assertFalse(a1.isPermitted(-1));
+
+        assertFalse(snapshot.findApp("key-2").isEnabled());
+
+        OpenApiAuthorizationSnapshot.AppEntry a3 = snapshot.findApp("key-3");
+        assertTrue(a3.isExpired("20261018120000"));
+        assertTrue(a3.isIpAllowed("10.0.0.2"));
+        assertFalse(a3.isIpAllowed("10.0.0.3"));
+        assertTrue(a3.isPermitted(users));
+
+        assertNull(snapshot.findApp("key-x"));
+        assertNull(snapshot.findApp(" "));
+        assertEquals(0, OpenApiAuthorizationSnapshot.empty().appCount());
+        assertEquals(64, OpenApiAuthorizationSnapshot.hashKey("key-1").length());
+    }
+
+    private static TpApiDefinition api(String apiId, String path, String method) {
+        TpApiDefinition api = new TpApiDefinition();
+        api.setApiId(apiId);
+        api.setApiPath(path);
+        api.setHttpMethod(method);
+        return api;
+    }
+
+    private static TpThirdPartyApp app(String appId, String apiKey, Integer status, String expireTime, String ipWhitelist) {
+        TpThirdPartyApp app = new TpThirdPartyApp();
+        app.setAppId(appId);
+        app.setApiKey(apiKey);
+        app.setStatus(status);
+        app.setExpireTime(expireTime);
+        app.setIpWhitelist(ipWhitelist);
+        return app;
+    }
+
+    private static TpAppApiPermission permission(String appId, String apiId) {
+        TpAppApiPermission permission = new TpAppApiPermission();
+        permission.setAppId(appId);
+        permission.setApiId(apiId);
+        return permission;
+    }
+}
@@ -0,0 +1,243 @@
+package com.jiuxi.admin.core.interceptor;
+
+import com.jiuxi.admin.core.bean.entity.TpAppApiPermission;
+import com.jiuxi.admin.core.bean.entity.TpAppApiUsage;
+import com.jiuxi.admin.core.bean.entity.TpThirdPartyApp;
+import com.jiuxi.admin.core.bean.vo.TpAppApiUsageVO;
+import com.jiuxi.admin.core.mapper.TpAppApiUsageMapper;
+import com.jiuxi.shared.infrastructure.ratelimit.LocalRateLimiterEngine;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 开放API配额限制测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("开放API配额限制测试")
+class OpenApiQuotaLimiterTest {
+
+    @Test
+    @DisplayName("并发数超限拒绝，归还后可再次申请")
+    void concurrency() {
+        OpenApiQuotaLimiter limiter = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), new MemoryUsageMapper(), () -> "20261018");
+        TpThirdPartyApp app = app("a1", null, null, 2);
+
+        OpenApiQuotaLimiter.Permit first = limiter.tryAcquire(app, "u1", null);
+        OpenApiQuotaLimiter.Permit second = limiter.tryAcquire(app, "u1", null);
+        OpenApiQuotaLimiter.Permit third = limiter.tryAcquire(app, "u1", null);
+        assertTrue(first.isAllowed());
+        assertTrue(second.isAllowed());
+        assertFalse(third.isAllowed());
+        assertEquals("并发请求数超过限制", third.getMessage());
+
+        first.release();
+        first.release();
+        assertTrue(limiter.tryAcquire(app, "u1", null).isAllowed());
+        assertFalse(limiter.tryAcquire(app, "u1", null).isAllowed());
+    }
+
+    @Test
+    @DisplayName("应用频率和单API频率分别限制")
+    void rateLimit() {
+        OpenApiQuotaLimiter limiter = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), new MemoryUsageMapper(), () -> "20261018");
+        TpThirdPartyApp app = app("a1", 5, null, null);
+        TpAppApiPermission quota = quota("a1", "u1", 2, null);
+
+        assertTrue(limiter.tryAcquire(app, "u1", quota).isAllowed());
+        assertTrue(limiter.tryAcquire(app, "u1", quota).isAllowed());
+        OpenApiQuotaLimiter.Permit rejected = limiter.tryAcquire(app, "u1", quota);
+        assertFalse(rejected.isAllowed());
+        assertEquals("调用频率超过限制", rejected.getMessage());
+        assertTrue(rejected.getRetryAfterMillis() > 0);
+
+        // 其它API只受应用频率限制，应用令牌在上面被消耗了3个
+        assertTrue(limiter.tryAcquire(app, "u2", null).isAllowed());
+        assertTrue(limiter.tryAcquire(app, "u2", null).isAllowed());
+        assertFalse(limiter.tryAcquire(app, "u2", null).isAllowed());
+    }
+
+    @Test
+    @DisplayName("每日次数按各节点合计判断，写入用量表后以库中合计为基数")
+    void dailyQuota() {
+        MemoryUsageMapper mapper = new MemoryUsageMapper();
+        AtomicReference<String> today = new AtomicReference<>("20261018");
+        OpenApiQuotaLimiter node1 = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), mapper, today::get);
+        OpenApiQuotaLimiter node2 = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), mapper, today::get);
+        TpThirdPartyApp app = app("a1", null, 10, null);
+        TpAppApiPermission quota = quota("a1", "u1", null, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(node1.tryAcquire(app, "u1", quota).isAllowed());
+        }
+        OpenApiQuotaLimiter.Permit rejected = node1.tryAcquire(app, "u1", quota);
+        assertEquals("今日调用次数已达上限", rejected.getMessage());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(node1.tryAcquire(app, "u2", null).isAllowed());
+        }
+        assertEquals(7, node1.usedToday("a1", null));
+
+        node1.flush();
+        assertEquals(3, (long) mapper.rows.get("20261018|a1|u1").getCallCount());
+        assertEquals(1, (long) mapper.rows.get("20261018|a1|u1").getRejectedCount());
+        assertEquals(4, (long) mapper.rows.get("20261018|a1|u2").getCallCount());
+        assertEquals(7, node1.usedToday("a1", null));
+
+        // 另一节点启动后读取当天合计，只剩3次
+        node2.init();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(node2.tryAcquire(app, "u2", null).isAllowed());
+        }
+        assertFalse(node2.tryAcquire(app, "u2", null).isAllowed());
+        assertFalse(node2.tryAcquire(app, "u1", quota).isAllowed());
+        node2.flush();
+        node1.flush();
+        assertEquals(10, node1.usedToday("a1", null));
+        assertEquals(7, (long) mapper.rows.get("20261018|a1|u2").getCallCount());
+
+        // 次日重新计数，前一天的计数器写入后移除
+        today.set("20261019");
+        assertTrue(node1.tryAcquire(app, "u1", quota).isAllowed());
+        node1.flush();
+        assertEquals(1, (long) mapper.rows.get("20261019|a1|u1").getCallCount());
+        assertEquals(0, node1.usedToday("a1", "u2"));
+    }
+
+    @Test
+    @DisplayName("写入失败时计数放回，下次写入")
+    void flushFailure() {
+        MemoryUsageMapper mapper = new MemoryUsageMapper();
+        OpenApiQuotaLimiter limiter = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), mapper, () -> "20261018");
+        TpThirdPartyApp app = app("a1", null, 5, null);
+
+        assertTrue(limiter.tryAcquire(app, null, null).isAllowed());
+        assertTrue(limiter.tryAcquire(app, null, null).isAllowed());
+        mapper.fail = true;
+        limiter.flush();
+        assertEquals(2, limiter.usedToday("a1", null));
+        assertEquals(1L, limiter.getStatistics().get("flushFailures"));
+
+        mapper.fail = false;
+        limiter.flush();
+        assertEquals(2, (long) mapper.rows.get("20261018|a1|").getCallCount());
+        assertEquals(2, limiter.usedToday("a1", null));
+    }
+
+    @Test
+    @DisplayName("调用与写入并发时计数不丢失，写入的次数与放行次数一致")
+    void concurrentFlush() throws InterruptedException {
+        MemoryUsageMapper mapper = new MemoryUsageMapper();
+        OpenApiQuotaLimiter limiter = new OpenApiQuotaLimiter(new LocalRateLimiterEngine(), mapper, () -> "20261018");
+        TpThirdPartyApp app = app("a1", null, 10_000, null);
+        int threads = 4;
+        int perThread = 5_000;
+        AtomicLong allowed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    if (limiter.tryAcquire(app, "u1", null).isAllowed()) {
+                        allowed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            limiter.flush();
+        }
+        executor.shutdown();
+
+        // 回退与写入交错留下的负数计数在下一次写入时抵消
+        limiter.flush();
+        limiter.flush();
+        assertEquals(threads * perThread, allowed.get() + rejected.get());
+        assertEquals(allowed.get(), (long) mapper.rows.get("20261018|a1|u1").getCallCount());
+        assertEquals(rejected.get(), (long) mapper.rows.get("20261018|a1|u1").getRejectedCount());
+        assertEquals(allowed.get(), limiter.usedToday("a1", null));
+        assertEquals(allowed.get(), limiter.usedToday("a1", "u1"));
+    }
+
+    private static TpThirdPartyApp app(String appId, Integer rateLimit, Integer dailyQuota, Integer maxConcurrency) {
+        TpThirdPartyApp app = new TpThirdPartyApp();
+        app.setAppId(appId);
+        app.setRateLimit(rateLimit);
+        app.setDailyQuota(dailyQuota);
+        app.setMaxConcurrency(maxConcurrency);
+        return app;
+    }
+
+    private static TpAppApiPermission quota(String appId, String apiId, Integer rateLimit, Integer dailyQuota) {
+        TpAppApiPermission permission = new TpAppApiPermission();
+        permission.setAppId(appId);
+        permission.setApiId(apiId);
+        permission.setRateLimit(rateLimit);
+        permission.setDailyQuota(dailyQuota);
+        return permission;
+    }
+
+    /**
+     * 内存中的用量表，按 日期|应用|API 累加
+     */
+    private static final class MemoryUsageMapper implements TpAppApiUsageMapper {
+
+        private final Map<String, TpAppApiUsage> rows = new HashMap<>();
+
+        private boolean fail;
+
+        @Override
+        public synchronized int batchIncrease(List<TpAppApiUsage> list) {
+            if (fail) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            for (TpAppApiUsage item : list) {
+                TpAppApiUsage row = rows.computeIfAbsent(item.getStatDate() + "|" + item.getAppId() + "|" + item.getApiId(), k -> {
+                    TpAppApiUsage usage = new TpAppApiUsage();
+                    usage.setStatDate(item.getStatDate());
+                    usage.setAppId(item.getAppId());
+                    usage.setApiId(item.getApiId());
+                    usage.setCallCount(0L);
+                    usage.setRejectedCount(0L);
+                    return usage;
+                });
+                row.setCallCount(row.getCallCount() + item.getCallCount());
+                row.setRejectedCount(row.getRejectedCount() + item.getRejectedCount());
+            }
+            return list.size();
+        }
+
+        @Override
+        public synchronized List<TpAppApiUsage> selectByDate(String statDate) {
+            List<TpAppApiUsage> result = new ArrayList<>();
+            for (TpAppApiUsage row : rows.values()) {
+                if (row.getStatDate().equals(statDate)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public List<TpAppApiUsageVO> selectUsage(String appId, String startDate, String endDate) {
+            return new ArrayList<>();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
+import com.jiuxi.admin.core.bean.entity.TpAttachinfo;
+import com.jiuxi.admin.core.service.TpAttachBlobService;
+import com.jiuxi.admin.core.service.TpAttachinfoService;
+import com.jiuxi.common.util.SnowflakeIdUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * 附件秒传测试：只能复用调用方自己上传过的内容
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("附件秒传测试")
+class FileServiceImplTest {
+
+    /**
+     * "hello" 的 SHA-256
+     */
+    private static final String HELLO_DIGEST = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private static final String HELLO_PATH = "/cas/2c/f2/" + HELLO_DIGEST;
+
+    private TpAttachinfoService tpAttachInfoService;
+
+    private TpAttachBlobService tpAttachBlobService;
+
+    private FileServiceImpl fileService;
+
+    @BeforeAll
+    static void initIdGenerator() {
+        SnowflakeIdUtil.newInstance(1, 1);
+    }
+
+    @BeforeEach
+    void setUp() {
+        tpAttachInfoService = mock(TpAttachinfoService.class);
+        tpAttachBlobService = mock(TpAttachBlobService.class);
+        TpAttachBlob blob = new TpAttachBlob();
+        blob.setDigest(HELLO_DIGEST);
+        blob.setSavePath(HELLO_PATH);
+        blob.setBlobSize(5L);
+        when(tpAttachBlobService.acquire(HELLO_DIGEST, 5)).thenReturn(blob);
+
+        fileService = new FileServiceImpl();
+        ReflectionTestUtils.setField(fileService, "tpAttachInfoService", tpAttachInfoService);
+        ReflectionTestUtils.setField(fileService, "tpAttachBlobService", tpAttachBlobService);
+        ReflectionTestUtils.setField(fileService, "fileExpService", new FileExpServiceImpl());
+        ReflectionTestUtils.setField(fileService, "dedupEnabled", true);
+    }
+
+    @Test
+    @DisplayName("调用方上传过相同内容时直接生成附件记录")
+    void testOwnContent() {
+        when(tpAttachInfoService.referencedBy(HELLO_PATH, "P1")).thenReturn(true);
+
+        TpAttachinfo model = fileService.uploadByDigest(HELLO_DIGEST.toUpperCase(), 5, "hello.txt", "P1", "doc", "R1");
+        assertNotNull(model);
+        assertEquals(HELLO_PATH, model.getSavePath());
+        assertEquals("P1", model.getCreator());
+        assertEquals("R1", model.getReferId());
+        verify(tpAttachBlobService).acquire(HELLO_DIGEST, 5);
+        verify(tpAttachInfoService).save(model);
+    }
+
+    @Test
+    @DisplayName("只知道摘要和大小不能取得他人上传的内容")
+    void testOtherCallersContent() {
+        when(tpAttachInfoService.referencedBy(HELLO_PATH, "P1")).thenReturn(true);
+
+        assertNull(fileService.uploadByDigest(HELLO_DIGEST, 5, "hello.txt", "P2", "doc", "R1"));
+        assertNull(fileService.uploadByDigest(HELLO_DIGEST, 5, "hello.txt", null, "doc", "R1"));
+        verify(tpAttachBlobService, never()).acquire(anyString(), anyLong());
+        verify(tpAttachInfoService, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("摘要格式不正确时不查询引用")
+    void testInvalidDigest() {
+        assertNull(fileService.uploadByDigest("../" + HELLO_DIGEST, 5, "hello.txt", "P1", "doc", "R1"));
+        assertNull(fileService.uploadByDigest(null, 5, "hello.txt", "P1", "doc", "R1"));
+        verify(tpAttachInfoService, never()).referencedBy(anyString(), anyString());
+        verify(tpAttachBlobService, never()).acquire(anyString(), anyLong());
+    }
+}
@@ -0,0 +1,128 @@
+package com.jiuxi.admin.core.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keycloak管理会话测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("Keycloak管理会话测试")
+class KeycloakAdminSessionTest {
+
+    @Test
+    @DisplayName("令牌复用，临近过期时用刷新令牌续期，管理员账号只读取一次")
+    void tokenReuse() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            server.addUser("alice", true);
+            AtomicLong clock = new AtomicLong(1_000_000L);
+            AtomicInteger loads = new AtomicInteger();
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm", () -> {
+                loads.incrementAndGet();
+                return new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", "secret");
+            }, 4, clock::get);
+
+            for (int i = 0; i < 50; i++) {
+                assertNotNull(session.findUserId("alice"));
+            }
+            assertEquals(1, server.passwordGrants.get());
+
+            // 有效期 60 秒，到期前 15 秒内续期
+            clock.addAndGet(44_000L);
+            assertNotNull(session.findUserId("alice"));
+            assertEquals(0, server.refreshGrants.get());
+            clock.addAndGet(2_000L);
+            assertNotNull(session.findUserId("alice"));
+            assertEquals(1, server.refreshGrants.get());
+            assertEquals(1, server.passwordGrants.get());
+            assertEquals(1, loads.get());
+
+            // 定时检查提前到到期前 30 秒续期
+            clock.addAndGet(31_000L);
+            session.refreshIfNeeded();
+            assertEquals(2, server.refreshGrants.get());
+            session.close();
+        }
+    }
+
+    @Test
+    @DisplayName("令牌被注销时收到401，作废后重新登录并重试一次")
+    void unauthorizedRetry() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            String id = server.addUser("alice", true);
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm",
+                    () -> new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", "secret"), 4, () -> 1_000_000L);
+
+            assertEquals(id, session.findUserId("alice"));
+            server.revokeAll();
+            assertEquals(id, session.findUserId("alice"));
+            assertEquals(2, server.passwordGrants.get());
+            assertEquals(1L, session.getStatistics().get("unauthorizedRetries"));
+            session.close();
+        }
+    }
+
+    @Test
+    @DisplayName("管理员密码错误时返回null，下次获取重新读取配置")
+    void wrongCredentials() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            AtomicReference<String> password = new AtomicReference<>("wrong");
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm",
+                    () -> new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", password.get()), 4, () -> 1_000_000L);
+
+            assertNull(session.getAccessToken());
+            password.set("secret");
+            assertNotNull(session.getAccessToken());
+            assertEquals(1, server.passwordGrants.get());
+            assertEquals(1L, session.getStatistics().get("grantFailures"));
+            session.close();
+        }
+    }
+
+    @Test
+    @DisplayName("批量操作并发不超过上限，结果与输入顺序一致")
+    void boundedConcurrency() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            List<String> usernames = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                usernames.add("user" + i);
+            }
+            server.adminDelayMillis = 20;
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm",
+                    () -> new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", "secret"), 3, System::currentTimeMillis);
+
+            List<String> ids = session.executeAll(usernames, username -> {
+                try {
+                    Map<String, Object> representation = Collections.singletonMap("username", username);
+                    return session.createUser(representation);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            assertEquals(20, ids.size());
+            for (int i = 0; i < 20; i++) {
+                assertEquals(server.user("user" + i).get("id"), ids.get(i));
+            }
+            assertTrue(server.maxInFlight.get() <= 3);
+            assertTrue(server.maxInFlight.get() > 1);
+            assertEquals(1, server.passwordGrants.get());
+
+            // 已存在的用户返回原有ID
+            assertEquals(ids.get(0), session.createUser(Collections.singletonMap("username", "USER0")));
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpKeycloakAccount;
+import com.jiuxi.admin.core.service.KeycloakSyncService.ReconcileResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Keycloak用户批量对账测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("Keycloak用户批量对账测试")
+class KeycloakUserReconcilerTest {
+
+    @Test
+    @DisplayName("分页读取一遍用户，只处理缺失、ID不一致和状态不一致的账号")
+    void reconcile() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            String aliceId = server.addUser("alice", true);
+            String bobId = server.addUser("bob", true);
+            server.addUser("carol", true);
+            server.addUser("13800138000", true);
+            server.addUser("dave", false);
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm",
+                    () -> new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", "secret"), 4, System::currentTimeMillis);
+            KeycloakUserReconciler reconciler = new KeycloakUserReconciler(session, null, 2);
+
+            List<TpKeycloakAccount> accounts = new ArrayList<>();
+            accounts.add(account("1", "alice", aliceId, 1, null));
+            accounts.add(account("2", "Bob", "stale-id", 1, null));
+            accounts.add(account("3", "carol", null, 0, null));
+            accounts.add(account("4", "dave", null, 1, null));
+            accounts.add(account("5", "erin", null, 1, "Passw0rd!"));
+            accounts.add(account("6", "ALICE", "other", 1, null));
+            accounts.add(account("7", " ", null, 1, null));
+
+            KeycloakUserReconciler.Reconciliation dryRun = reconciler.reconcile(accounts, true);
+            ReconcileResult preview = dryRun.getResult();
+            assertTrue(preview.isSuccess());
+            assertEquals(5, preview.getRemoteTotal());
+            assertEquals(1, preview.getRemoteOnly());
+            assertEquals(1, preview.getToCreate());
+            assertEquals(3, preview.getToFixUserId());
+            assertEquals(2, preview.getToUpdateEnabled());
+            assertEquals(3, server.userPages.get());
+            assertEquals(5, server.userCount());
+            assertEquals(0, server.updates.get());
+
+            KeycloakUserReconciler.Reconciliation applied = reconciler.reconcile(accounts, false);
+            ReconcileResult result = applied.getResult();
+            assertTrue(result.isSuccess());
+            assertEquals(1, result.getCreated());
+            assertEquals(2, result.getEnabledUpdated());
+            assertEquals(4, result.getUserIdFixed());
+            assertEquals(1, server.creates.get());
+            assertEquals(2, server.updates.get());
+            assertEquals(Boolean.FALSE, server.user("carol").get("enabled"));
+            assertEquals(Boolean.TRUE, server.user("dave").get("enabled"));
+            assertNotNull(server.user("erin").get("credentials"));
+            assertEquals(1, server.passwordGrants.get());
+
+            // 写回校准结果后再次对账没有差异
+            for (TpKeycloakAccount fix : applied.getIdFixes()) {
+                assertNull(fix.getKcUsername());
+                for (TpKeycloakAccount account : accounts) {
+                    if (account.getId().equals(fix.getId())) {
+                        account.setKcUserId(fix.getKcUserId());
+                    }
+                }
+            }
+            assertEquals(bobId, accounts.get(1).getKcUserId());
+            ReconcileResult again = reconciler.reconcile(accounts, false).getResult();
+            assertEquals(0, again.getToCreate());
+            assertEquals(0, again.getToFixUserId());
+            assertEquals(0, again.getToUpdateEnabled());
+            session.close();
+        }
+    }
+
+    @Test
+    @DisplayName("读取用户失败时终止对账，不做修改")
+    void listFailure() throws Exception {
+        try (StubKeycloakServer server = new StubKeycloakServer("ps-realm", "admin", "secret")) {
+            KeycloakAdminSession session = new KeycloakAdminSession(server.url(), "ps-realm",
+                    () -> new KeycloakAdminSession.AdminCredentials("admin-cli", "admin", "wrong"), 4, System::currentTimeMillis);
+            KeycloakUserReconciler reconciler = new KeycloakUserReconciler(session, null, 100);
+
+            List<TpKeycloakAccount> accounts = new ArrayList<>();
+            accounts.add(account("1", "erin", null, 1, null));
+            KeycloakUserReconciler.Reconciliation reconciliation = reconciler.reconcile(accounts, false);
+
+            assertFalse(reconciliation.getResult().isSuccess());
+            assertTrue(reconciliation.getIdFixes().isEmpty());
+            assertEquals(0, server.creates.get());
+            session.close();
+        }
+    }
+
+    @Test
+    @DisplayName("差异清单按用户名忽略大小写比对")
+    void plan() {
+        List<TpKeycloakAccount> accounts = new ArrayList<>();
+        accounts.add(account("1", "Alice", "kc-1", 1, null));
+        accounts.add(account("2", "bob", "kc-2", null, null));
+        Map<String, KeycloakUserReconciler.RemoteUser> remote = Map.of(
+                "alice", new KeycloakUserReconciler.RemoteUser("kc-1", true),
+                "bob", new KeycloakUserReconciler.RemoteUser("kc-2", false));
+
+        KeycloakUserReconciler.Plan plan = KeycloakUserReconciler.plan(accounts, remote);
+        assertTrue(plan.getCreates().isEmpty());
+        assertTrue(plan.getIdFixes().isEmpty());
+        assertEquals(1, plan.getEnabledUpdates().size());
+        assertEquals("bob", plan.getEnabledUpdates().get(0).getKcUsername());
+        assertEquals(0, plan.getRemoteOnly());
+    }
+
+    private static TpKeycloakAccount account(String id, String username, String kcUserId, Integer enabled, String password) {
+        TpKeycloakAccount account = new TpKeycloakAccount();
+        account.setId(id);
+        account.setKcUsername(username);
+        account.setKcUserId(kcUserId);
+        account.setEnabled(enabled);
+        account.setKcPassword(password);
+        return account;
+    }
+}
@@ -0,0 +1,276 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 本地 Keycloak 替身：实现管理员令牌（password / refresh_token）和 realm 用户的查询、分页、创建、更新接口，
+ * 记录各类请求次数和同时在途的最大请求数
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+class StubKeycloakServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(16);
+
+    private final String realm;
+
+    private final String adminUsername;
+
+    private final String adminPassword;
+
+    /**
+     * 按创建顺序保存的用户
+     */
+    private final Map<String, Map<String, Object>> users = new LinkedHashMap<>();
+
+    private final Set<String> accessTokens = ConcurrentHashMap.newKeySet();
+
+    private final Set<String> refreshTokens = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    final AtomicInteger passwordGrants = new AtomicInteger();
+
+    final AtomicInteger refreshGrants = new AtomicInteger();
+
+    final AtomicInteger userPages = new AtomicInteger();
+
+    final AtomicInteger creates = new AtomicInteger();
+
+    final AtomicInteger updates = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    final AtomicInteger maxInFlight = new AtomicInteger();
+
+    /**
+     * 每个管理接口请求的处理耗时，用于观察并发
+     */
+    volatile long adminDelayMillis;
+
+    StubKeycloakServer(String realm, String adminUsername, String adminPassword) throws IOException {
+        this.realm = realm;
+        this.adminUsername = adminUsername;
+        this.adminPassword = adminPassword;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/realms/master/protocol/openid-connect/token", this::token);
+        server.createContext("/admin/realms/" + realm + "/users", this::users);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * 直接写入用户（不经过接口、不计数）
+     */
+    synchronized String addUser(String username, boolean enabled) {
+        String id = "kc-" + sequence.incrementAndGet();
+        Map<String, Object> user = new LinkedHashMap<>();
+        user.put("id", id);
+        user.put("username", username.toLowerCase());
+        user.put("enabled", enabled);
+        users.put(id, user);
+        return id;
+    }
+
+    synchronized Map<String, Object> user(String username) {
+        for (Map<String, Object> user : users.values()) {
+            if (user.get("username").equals(username.toLowerCase())) {
+                return user;
+            }
+        }
+        return null;
+    }
+
+    synchronized int userCount() {
+        return users.size();
+    }
+
+    /**
+     * 作废所有已签发的令牌，模拟管理员会话被注销
+     */
+    void revokeAll() {
+        accessTokens.clear();
+        refreshTokens.clear();
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parseQuery(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String grantType = form.get("grant_type");
+        boolean granted;
+        if ("password".equals(grantType)) {
+            granted = adminUsername.equals(form.get("username")) && adminPassword.equals(form.get("password"));
+            if (granted) {
+                passwordGrants.incrementAndGet();
+            }
+        } else if ("refresh_token".equals(grantType)) {
+            granted = refreshTokens.remove(form.get("refresh_token"));
+            if (granted) {
+                refreshGrants.incrementAndGet();
+            }
+        } else {
+            granted = false;
+        }
+        if (!granted) {
+            respond(exchange, 401, "{\"error\":\"invalid_grant\"}", null);
+            return;
+        }
+        int n = sequence.incrementAndGet();
+        accessTokens.add("access-" + n);
+        refreshTokens.add("refresh-" + n);
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("access_token", "access-" + n);
+        body.put("expires_in", 60);
+        body.put("refresh_token", "refresh-" + n);
+        body.put("refresh_expires_in", 1800);
+        respond(exchange, 200, MAPPER.writeValueAsString(body), null);
+    }
+
+    private void users(HttpExchange exchange) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !accessTokens.contains(authorization.substring("Bearer ".length()))) {
+            respond(exchange, 401, "", null);
+            return;
+        }
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            if (adminDelayMillis > 0) {
+                Thread.sleep(adminDelayMillis);
+            }
+            // 响应发出前离开计数，避免客户端收到响应后发出的下一个请求被重复计入
+            inFlight.decrementAndGet();
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            String userId = path.substring(("/admin/realms/" + realm + "/users").length()).replace("/", "");
+            if ("GET".equals(method) && userId.isEmpty()) {
+                list(exchange, parseQuery(exchange.getRequestURI().getRawQuery()));
+            } else if ("POST".equals(method) && userId.isEmpty()) {
+                create(exchange, MAPPER.readValue(exchange.getRequestBody(), new TypeReference<Map<String, Object>>() {
+                }));
+            } else if ("PUT".equals(method) && !userId.isEmpty()) {
+                update(exchange, userId, MAPPER.readValue(exchange.getRequestBody(), new TypeReference<Map<String, Object>>() {
+                }));
+            } else {
+                respond(exchange, 405, "", null);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            inFlight.decrementAndGet();
+            respond(exchange, 500, "", null);
+        }
+    }
+
+    private void list(HttpExchange exchange, Map<String, String> query) throws IOException {
+        List<Map<String, Object>> result = new ArrayList<>();
+        synchronized (this) {
+            String username = query.get("username");
+            if (username != null) {
+                Map<String, Object> user = user(username);
+                if (user != null) {
+                    result.add(user);
+                }
+            } else {
+                userPages.incrementAndGet();
+                int first = Integer.parseInt(query.getOrDefault("first", "0"));
+                int max = Integer.parseInt(query.getOrDefault("max", "100"));
+                List<Map<String, Object>> all = new ArrayList<>(users.values());
+                result.addAll(all.subList(Math.min(first, all.size()), Math.min(first + max, all.size())));
+            }
+            respond(exchange, 200, MAPPER.writeValueAsString(result), null);
+        }
+    }
+
+    private void create(HttpExchange exchange, Map<String, Object> representation) throws IOException {
+        String id;
+        synchronized (this) {
+            String username = (String) representation.get("username");
+            if (user(username) != null) {
+                respond(exchange, 409, "{\"errorMessage\":\"User exists with same username\"}", null);
+                return;
+            }
+            id = addUser(username, !Boolean.FALSE.equals(representation.get("enabled")));
+            if (representation.containsKey("credentials")) {
+                users.get(id).put("credentials", representation.get("credentials"));
+            }
+        }
+        creates.incrementAndGet();
+        respond(exchange, 201, "", url() + "/admin/realms/" + realm + "/users/" + id);
+    }
+
+    private void update(HttpExchange exchange, String userId, Map<String, Object> representation) throws IOException {
+        synchronized (this) {
+            Map<String, Object> user = users.get(userId);
+            if (user == null) {
+                respond(exchange, 404, "", null);
+                return;
+            }
+            user.putAll(representation);
+        }
+        updates.incrementAndGet();
+        respond(exchange, 204, null, null);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body, String location) throws IOException {
+        if (location != null) {
+            exchange.getResponseHeaders().add("Location", location);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        byte[] bytes = body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,249 @@
+package com.jiuxi.admin.core.service.impl;
+
+import com.jiuxi.admin.core.bean.entity.TpAttachBlob;
+import com.jiuxi.admin.core.mapper.TpAttachBlobMapper;
+import com.jiuxi.shared.infrastructure.file.ContentAddressedStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 附件内容去重存储测试，引用计数使用内存中的记录，文件写入临时目录
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("附件内容去重存储测试")
+class TpAttachBlobServiceImplTest {
+
+    /**
+     * "hello" 的 SHA-256
+     */
+    private static final String HELLO_DIGEST = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    private static final String HELLO_PATH = "/cas/2c/f2/" + HELLO_DIGEST;
+
+    @TempDir
+    Path tempDir;
+
+    private InMemoryBlobs blobs;
+
+    private PlatformTransactionManager transactionManager;
+
+    private ContentAddressedStore store;
+
+    private TpAttachBlobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        blobs = new InMemoryBlobs();
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        store = new ContentAddressedStore(tempDir.toString());
+        service = new TpAttachBlobServiceImpl(store);
+        ReflectionTestUtils.setField(service, "tpAttachBlobMapper", blobs);
+        ReflectionTestUtils.setField(service, "transactionManager", transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("相同内容只保存一份，每次上传增加一次引用")
+    void testStore() throws Exception {
+        TpAttachBlob first = service.store(input("hello"));
+        assertEquals(HELLO_DIGEST, first.getDigest());
+        assertEquals(HELLO_PATH, first.getSavePath());
+        assertEquals(5L, first.getBlobSize());
+
+        service.store(input("hello"));
+        assertEquals(2, blobs.refCount(HELLO_DIGEST));
+        try (Stream<Path> files = Files.walk(tempDir.resolve("cas"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+        assertTrue(store.exists(HELLO_DIGEST));
+    }
+
+    @Test
+    @DisplayName("秒传：摘要和大小一致且文件存在时增加引用，否则需要上传")
+    void testAcquire() throws Exception {
+        service.store(input("hello"));
+
+        TpAttachBlob blob = service.acquire(HELLO_DIGEST, 5);
+        assertEquals(HELLO_PATH, blob.getSavePath());
+        assertEquals(2, blobs.refCount(HELLO_DIGEST));
+
+        assertNull(service.acquire(HELLO_DIGEST, 6));
+        assertNull(service.acquire(HELLO_DIGEST.replace('2', '3'), 5));
+        assertNull(service.acquire(HELLO_DIGEST.toUpperCase(), 5));
+        assertNull(service.acquire(null, 5));
+        assertEquals(2, blobs.refCount(HELLO_DIGEST));
+
+        // 记录还在但文件已丢失，不能秒传
+        store.delete(HELLO_DIGEST);
+        assertNull(service.acquire(HELLO_DIGEST, 5));
+        assertEquals(2, blobs.refCount(HELLO_DIGEST));
+    }
+
+    @Test
+    @DisplayName("释放引用，引用数归零时在新事务中删除记录和文件")
+    void testReleaseToZero() throws Exception {
+        service.store(input("hello"));
+        service.store(input("hello"));
+
+        service.release(HELLO_PATH);
+        assertEquals(1, blobs.refCount(HELLO_DIGEST));
+        assertTrue(store.exists(HELLO_DIGEST));
+        verify(transactionManager, never()).getTransaction(any());
+
+        service.release(HELLO_PATH);
+        assertNull(blobs.rows.get(HELLO_DIGEST));
+        assertFalse(store.exists(HELLO_DIGEST));
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRES_NEW, definition.getValue().getPropagationBehavior());
+        verify(transactionManager).commit(any());
+
+        // 不是去重存储的路径、重复释放都忽略
+        service.release("/20261018/hello.txt");
+        service.release(HELLO_PATH);
+        assertNull(blobs.rows.get(HELLO_DIGEST));
+    }
+
+    @Test
+    @DisplayName("在事务中释放时，提交后才删除文件，回滚时保留")
+    void testDeleteAfterCommit() throws Exception {
+        service.store(input("hello"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.release(HELLO_PATH);
+        assertNull(blobs.rows.get(HELLO_DIGEST));
+        assertTrue(store.exists(HELLO_DIGEST));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertTrue(store.exists(HELLO_DIGEST));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertFalse(store.exists(HELLO_DIGEST));
+    }
+
+    @Test
+    @DisplayName("释放提交后、删除文件前并发上传相同内容，加锁读看到未提交的引用，保留文件")
+    void testConcurrentStoreKeepsFile() throws Exception {
+        service.store(input("hello"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.release(HELLO_PATH);
+
+        // 并发上传插入了记录但所在事务尚未提交，文件仍在，落盘时已丢弃临时文件
+        blobs.insertUncommitted(HELLO_DIGEST, 5L);
+        assertNull(blobs.view(HELLO_DIGEST));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertTrue(store.exists(HELLO_DIGEST));
+        assertEquals(1, blobs.refCount(HELLO_DIGEST));
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 内存中的 tp_attach_blob：普通读看不到其它事务未提交的插入，加锁读等待其提交后可见
+     */
+    private static final class InMemoryBlobs implements TpAttachBlobMapper {
+
+        private final Map<String, TpAttachBlob> rows = new HashMap<>();
+
+        private final Set<String> uncommitted = new HashSet<>();
+
+        void insertUncommitted(String digest, long size) {
+            TpAttachBlob blob = new TpAttachBlob();
+            blob.setDigest(digest);
+            blob.setSavePath(ContentAddressedStore.relativePath(digest));
+            blob.setBlobSize(size);
+            acquire(blob);
+            uncommitted.add(digest);
+        }
+
+        int refCount(String digest) {
+            TpAttachBlob blob = rows.get(digest);
+            return blob == null ? 0 : blob.getRefCount();
+        }
+
+        @Override
+        public TpAttachBlob view(String digest) {
+            return uncommitted.contains(digest) ? null : rows.get(digest);
+        }
+
+        @Override
+        public TpAttachBlob viewForUpdate(String digest) {
+            return rows.get(digest);
+        }
+
+        @Override
+        public int acquire(TpAttachBlob bean) {
+            TpAttachBlob existing = rows.get(bean.getDigest());
+            if (existing == null) {
+                bean.setRefCount(1);
+                rows.put(bean.getDigest(), bean);
+            } else {
+                existing.setRefCount(existing.getRefCount() + 1);
+            }
+            return 1;
+        }
+
+        @Override
+        public int release(String digest, String updateTime) {
+            TpAttachBlob existing = rows.get(digest);
+            if (existing == null || existing.getRefCount() <= 0) {
+                return 0;
+            }
+            existing.setRefCount(existing.getRefCount() - 1);
+            return 1;
+        }
+
+        @Override
+        public int deleteUnreferenced(String digest) {
+            TpAttachBlob existing = rows.get(digest);
+            if (existing == null || existing.getRefCount() != 0) {
+                return 0;
+            }
+            rows.remove(digest);
+            return 1;
+        }
+    }
+}
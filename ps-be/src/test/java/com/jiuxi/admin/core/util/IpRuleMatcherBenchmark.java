@@ -0,0 +1,52 @@
+package com.jiuxi.admin.core.util;
+
+/**
+ * 一万条规则的编译与匹配耗时，规则与 {@link IpRuleMatcherTest} 相同
+ * <pre>
+ *     工程未引入 JMH，这里用预热后多轮取平均的方式粗略测量，直接运行 main 方法即可
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class IpRuleMatcherBenchmark {
+
+    private static final int WARMUP = 5;
+
+    private static final int ROUNDS = 10;
+
+    private static final int ITERATIONS = 1_000_000;
+
+    private static final String[] PROBES = {"1.0.0.7", "1.1.1.25", "1.1.2.1", "40.3.3.3", "2001:db8:2::1", "2001:db8:ffff::1"};
+
+    public static void main(String[] args) {
+        String rules = IpRuleMatcherTest.tenThousandRuleText();
+        for (int i = 0; i < WARMUP; i++) {
+            match(IpRuleMatcher.compile(rules));
+        }
+        long compile = 0;
+        long match = 0;
+        int hits = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            IpRuleMatcher matcher = IpRuleMatcher.compile(rules);
+            compile += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            hits += match(matcher);
+            match += System.nanoTime() - start;
+        }
+        System.out.printf("10k rules: compile %.2f ms, match %d ns/op (hits %d)%n",
+                compile / 1e6 / ROUNDS, match / ((long) ITERATIONS * ROUNDS), hits);
+    }
+
+    private static int match(IpRuleMatcher matcher) {
+        int hits = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (matcher.matches(PROBES[i % PROBES.length])) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,87 @@
+package com.jiuxi.common.util;
+
+import com.jiuxi.common.bean.TreeNode;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 树结构组装耗时对比，旧实现每追加一个下级就排序一次，新实现每个节点只排序一次
+ * <pre>
+ *     工程未引入 JMH，这里用预热后多轮取平均的方式粗略对比，直接运行 main 方法即可
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class CommonTreeUtilBenchmark {
+
+    private static final int WARMUP = 5;
+
+    private static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            for (int i = 0; i < WARMUP; i++) {
+                legacyBuildTree(nodes(size));
+                CommonTreeUtil.buildTree(nodes(size));
+            }
+            long legacy = 0;
+            long current = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                List<TreeNode> a = nodes(size);
+                long start = System.nanoTime();
+                legacyBuildTree(a);
+                legacy += System.nanoTime() - start;
+
+                List<TreeNode> b = nodes(size);
+                start = System.nanoTime();
+                CommonTreeUtil.buildTree(b);
+                current += System.nanoTime() - start;
+            }
+            System.out.printf("nodes=%d legacy=%.2fms current=%.2fms%n", size, legacy / 1e6 / ROUNDS, current / 1e6 / ROUNDS);
+        }
+    }
+
+    /**
+     * 模拟组织树：宽而浅，部分节点有上百个下级
+     */
+    private static List<TreeNode> nodes(int size) {
+        Random random = new Random(size);
+        List<TreeNode> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TreeNode node = new TreeNode();
+            node.setId(String.valueOf(i));
+            node.setPid(i == 0 ? null : String.valueOf(random.nextInt(Math.max(1, i / 50 + 1))));
+            node.setOrderNo(BigDecimal.valueOf(random.nextInt(1000)));
+            list.add(node);
+        }
+        return list;
+    }
+
+    /**
+     * 旧实现
+     */
+    private static List<TreeNode> legacyBuildTree(List<TreeNode> list) {
+        Map<Object, TreeNode> tempmap = new HashMap<>();
+        for (TreeNode model : list) {
+            model.setTreeLeaf(true);
+            tempmap.put(model.getTreeId(), model);
+        }
+        List<TreeNode> result = new ArrayList<>();
+        for (TreeNode model : list) {
+            TreeNode tree = tempmap.get(model.getTreePid());
+            if (tree != null && !model.getTreeId().equals(model.getTreePid())) {
+                tree.getTreeChildren().add(model);
+                tree.getTreeChildren().sort((t1, t2) -> t1.getOrderNo().compareTo(t2.getOrderNo()));
+            } else {
+                result.add(model);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package com.jiuxi.common.util;
+
+import com.jiuxi.common.bean.TreeNode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 树结构组装测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("树结构组装测试")
+class CommonTreeUtilTest {
+
+    @Test
+    @DisplayName("下级按排序号排序，并设置叶子节点")
+    void buildTreeSortsChildrenAndSetsLeaf() {
+        TreeNode root = node("1", null, 1);
+        List<TreeNode> list = Arrays.asList(root, node("13", "1", 3), node("11", "1", 1), node("12", "1", 2), node("111", "11", 1));
+
+        List<TreeNode> roots = CommonTreeUtil.buildTree(list);
+
+        assertEquals(1, roots.size());
+        assertSame(root, roots.get(0));
+        assertFalse(root.getLeaf());
+        assertEquals(Arrays.asList("11", "12", "13"), ids(root.getChildren()));
+        assertFalse(root.getChildren().get(0).getLeaf());
+        assertTrue(root.getChildren().get(1).getLeaf());
+    }
+
+    @Test
+    @DisplayName("找不到上级的节点默认作为根节点")
+    void buildTreeKeepsMissingParentAsRoot() {
+        List<TreeNode> list = Arrays.asList(node("2", "0", 2), node("1", "0", 1), node("21", "2", 1));
+
+        List<TreeNode> roots = CommonTreeUtil.buildTree(list);
+
+        assertEquals(Arrays.asList("2", "1"), ids(roots));
+    }
+
+    @Test
+    @DisplayName("指定根节点后区分孤儿节点和循环引用节点")
+    void assembleTreeDetectsOrphansAndCycles() {
+        TreeNode root = node("1", "0", 1);
+        List<TreeNode> list = Arrays.asList(root, node("11", "1", 1), node("x", "missing", 1),
+                node("a", "b", 1), node("b", "a", 2), node("c", "a", 3));
+
+        CommonTreeUtil.TreeResult<TreeNode> result = CommonTreeUtil.assembleTree(list, true, null, n -> n == root);
+
+        assertEquals(Arrays.asList("1"), ids(result.getRoots()));
+        assertEquals(Arrays.asList("x"), ids(result.getOrphans()));
+        assertEquals(Arrays.asList("a", "b", "c"), ids(result.getCyclic()));
+    }
+
+    @Test
+    @DisplayName("不指定排序规则时保持原有顺序")
+    void assembleTreeKeepsInputOrderWithoutComparator() {
+        TreeNode root = node("1", null, 1);
+        List<TreeNode> list = Arrays.asList(root, node("13", "1", 3), node("11", "1", 1), node("12", "1", 2));
+
+        CommonTreeUtil.assembleTree(list, true, null, null);
+
+        assertEquals(Arrays.asList("13", "11", "12"), ids(root.getChildren()));
+    }
+
+    private static TreeNode node(String id, String pid, int orderNo) {
+        TreeNode node = new TreeNode();
+        node.setId(id);
+        node.setValue(id);
+        node.setPid(pid);
+        node.setOrderNo(BigDecimal.valueOf(orderNo));
+        return node;
+    }
+
+    private static List<String> ids(List<TreeNode> list) {
+        List<String> ids = new ArrayList<>();
+        for (TreeNode node : list) {
+            ids.add(node.getId());
+        }
+        return ids;
+    }
+}
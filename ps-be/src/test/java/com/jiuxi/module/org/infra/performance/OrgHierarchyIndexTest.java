@@ -0,0 +1,145 @@
+package com.jiuxi.module.org.infra.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 部门层级索引测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("部门层级索引测试")
+class OrgHierarchyIndexTest {
+
+    /**
+     * root(100)
+     * ├── a(100100)
+     * │   ├── a1(100100100)
+     * │   └── a2(100100101)
+     * └── b(100101)
+     *     └── b1(100101100)
+     * other(101)
+     */
+    private static Map<String, String> sample() {
+        Map<String, String> levelCodes = new HashMap<>();
+        levelCodes.put("root", "100");
+        levelCodes.put("a", "100100");
+        levelCodes.put("a1", "100100100");
+        levelCodes.put("a2", "100100101");
+        levelCodes.put("b", "100101");
+        levelCodes.put("b1", "100101100");
+        levelCodes.put("other", "101");
+        return levelCodes;
+    }
+
+    @Test
+    @DisplayName("上下级判断、子树区间和祖先链")
+    void queries() {
+        OrgHierarchyIndex index = OrgHierarchyIndex.build(sample());
+
+        assertEquals(7, index.size());
+        assertEquals(List.of("root", "a", "a1", "a2", "b", "b1"), index.descendantIds("root"));
+        assertEquals(List.of("a", "a1", "a2"), index.descendantIds("a"));
+        assertEquals(List.of("b1"), index.descendantIds("b1"));
+        assertTrue(index.descendantIds("missing").isEmpty());
+        assertEquals(3, index.descendantCount("a"));
+
+        assertTrue(index.isDescendantOrSelf("a2", "root"));
+        assertTrue(index.isDescendantOrSelf("a", "a"));
+        assertFalse(index.isDescendantOrSelf("b1", "a"));
+        assertFalse(index.isDescendantOrSelf("root", "a"));
+        assertFalse(index.isDescendantOrSelf("other", "root"));
+
+        assertEquals(List.of("a", "root"), index.ancestorIds("a1"));
+        assertTrue(index.ancestorIds("other").isEmpty());
+        assertEquals("b", index.parentId("b1"));
+        assertEquals(2, index.depth("a1"));
+        assertEquals(-1, index.depth("missing"));
+    }
+
+    @Test
+    @DisplayName("按层级编码取下级与 like 前缀匹配一致")
+    void byLevelCode() {
+        OrgHierarchyIndex index = OrgHierarchyIndex.build(sample());
+
+        assertEquals(List.of("a", "a1", "a2"), index.descendantIdsByLevelCode("100100"));
+        // 不是任何部门的编码，仍按前缀匹配
+        assertEquals(List.of("root", "a", "a1", "a2", "b", "b1", "other"), index.descendantIdsByLevelCode("10"));
+        assertEquals(List.of("a1", "a2"), index.descendantIdsByLevelCode("1001001"));
+        assertTrue(index.descendantIdsByLevelCode("2").isEmpty());
+        assertTrue(index.descendantIdsByLevelCode("").isEmpty());
+
+        Random random = new Random(42);
+        Map<String, String> levelCodes = new HashMap<>();
+        List<String> codes = new ArrayList<>();
+        codes.add("100");
+        for (int i = 0; i < 500; i++) {
+            String parent = codes.get(random.nextInt(codes.size()));
+            String code = parent + (100 + random.nextInt(900));
+            if (!codes.contains(code)) {
+                codes.add(code);
+                levelCodes.put("d" + i, code);
+            }
+        }
+        OrgHierarchyIndex large = OrgHierarchyIndex.build(levelCodes);
+        for (String code : codes) {
+            List<String> expected = levelCodes.entrySet().stream()
+                    .filter(e -> e.getValue().startsWith(code))
+                    .sorted(Map.Entry.comparingByValue())
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            assertEquals(expected, large.descendantIdsByLevelCode(code), code);
+        }
+    }
+
+    @Test
+    @DisplayName("增量新增、移动、删除后与全量构建结果一致")
+    void incremental() {
+        Map<String, String> levelCodes = sample();
+        OrgHierarchyIndex index = OrgHierarchyIndex.build(levelCodes);
+
+        index = index.put("a3", "100100102");
+        levelCodes.put("a3", "100100102");
+        assertEquals(List.of("a", "a1", "a2", "a3"), index.descendantIds("a"));
+
+        // 移动只修改本部门编码，下级编码不变，按编码重新挂接
+        index = index.put("a", "100101101");
+        levelCodes.put("a", "100101101");
+        assertEquals(List.of("b", "b1", "a"), index.descendantIds("b"));
+        assertEquals("root", index.parentId("a1"));
+        assertTrue(index.isDescendantOrSelf("a", "b"));
+
+        index = index.remove("b");
+        levelCodes.remove("b");
+        assertEquals("root", index.parentId("b1"));
+        assertFalse(index.contains("b"));
+
+        OrgHierarchyIndex rebuilt = OrgHierarchyIndex.build(levelCodes);
+        assertEquals(rebuilt.size(), index.size());
+        assertEquals(rebuilt.checksum(), index.checksum());
+        assertEquals(rebuilt.descendantIds("root"), index.descendantIds("root"));
+
+        assertSame(index, index.put("a1", "100100100"));
+        assertSame(index, index.remove("missing"));
+        assertFalse(index.put("a1", null).contains("a1"));
+    }
+
+    @Test
+    @DisplayName("校验和与 CRC32(CONCAT_WS('|', id, code)) 一致")
+    void checksum() {
+        // SELECT CRC32('root|100') = 4270201044
+        assertEquals(4270201044L, OrgHierarchyIndex.crc32("root", "100"));
+        assertEquals(0L, OrgHierarchyIndex.empty().checksum());
+        assertEquals(0, OrgHierarchyIndex.empty().size());
+    }
+}
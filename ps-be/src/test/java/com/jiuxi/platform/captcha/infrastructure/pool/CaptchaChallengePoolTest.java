@@ -0,0 +1,155 @@
+package com.jiuxi.platform.captcha.infrastructure.pool;
+
+import com.jiuxi.platform.captcha.domain.entity.CaptchaChallenge;
+import com.jiuxi.platform.captcha.domain.service.CaptchaGenerator;
+import com.jiuxi.platform.captcha.domain.valueobject.CaptchaType;
+import com.jiuxi.platform.captcha.infrastructure.generator.CaptchaImageEncoder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 预生成验证码池测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("预生成验证码池测试")
+class CaptchaChallengePoolTest {
+
+    @Test
+    @DisplayName("后台补满队列，取出的挑战不重复且有效期从取出时开始")
+    void refillAndTake() throws Exception {
+        FakeGenerator generator = new FakeGenerator();
+        try (CaptchaChallengePool pool = new CaptchaChallengePool(List.of(generator), 5, 2, Duration.ofMinutes(10))) {
+            pool.start();
+            awaitDepth(pool, CaptchaType.SLIDER, 5);
+            Thread.sleep(1100);
+
+            Set<String> ids = new HashSet<>();
+            for (int i = 0; i < 5; i++) {
+                CaptchaChallenge challenge = pool.take(CaptchaType.SLIDER);
+                assertTrue(ids.add(challenge.getChallengeId()));
+                assertTrue(Duration.between(challenge.getCreateTime(), LocalDateTime.now()).toMillis() < 1000);
+                assertEquals(CaptchaType.SLIDER.getDefaultExpirationSeconds(),
+                        Duration.between(challenge.getCreateTime(), challenge.getExpireTime()).getSeconds());
+            }
+
+            awaitDepth(pool, CaptchaType.SLIDER, 5);
+            Map<String, Object> slider = typeStats(pool, "slider");
+            assertEquals(5L, slider.get("hits"));
+            assertEquals(0L, slider.get("misses"));
+            assertTrue((Long) slider.get("generated") >= 10);
+            assertEquals(0, pool.depth(CaptchaType.CLICK));
+        }
+    }
+
+    @Test
+    @DisplayName("队列为空时同步生成，不支持的类型抛出异常")
+    void fallbackWhenEmpty() {
+        FakeGenerator generator = new FakeGenerator();
+        CaptchaChallengePool pool = new CaptchaChallengePool(List.of(generator), 5, 1, Duration.ofMinutes(10));
+
+        CaptchaChallenge challenge = pool.take(CaptchaType.SLIDER);
+
+        assertEquals(CaptchaType.SLIDER, challenge.getCaptchaType());
+        assertEquals(1, generator.count.get());
+        Map<String, Object> slider = typeStats(pool, "slider");
+        assertEquals(1L, slider.get("misses"));
+        assertEquals(1L, slider.get("generated"));
+        assertThrows(IllegalArgumentException.class, () -> pool.take(CaptchaType.CLICK));
+    }
+
+    @Test
+    @DisplayName("超过最长保留时间的挑战被丢弃，生成失败计入失败次数")
+    void staleAndFailure() throws Exception {
+        FakeGenerator generator = new FakeGenerator();
+        try (CaptchaChallengePool pool = new CaptchaChallengePool(List.of(generator), 3, 1, Duration.ofMillis(200))) {
+            pool.start();
+            awaitDepth(pool, CaptchaType.SLIDER, 3);
+            Thread.sleep(1500);
+            assertTrue((Long) typeStats(pool, "slider").get("expired") >= 3);
+        }
+
+        FakeGenerator failing = new FakeGenerator();
+        failing.fail = true;
+        CaptchaChallengePool pool = new CaptchaChallengePool(List.of(failing), 3, 1, Duration.ofMinutes(10));
+        assertThrows(IllegalStateException.class, () -> pool.take(CaptchaType.SLIDER));
+        assertEquals(1L, typeStats(pool, "slider").get("failures"));
+    }
+
+    @Test
+    @DisplayName("图片编码为可解码的 data URI，压缩级别影响输出大小")
+    void encodeImage() throws Exception {
+        BufferedImage image = new BufferedImage(120, 60, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 120; x++) {
+            for (int y = 0; y < 60; y++) {
+                image.setRGB(x, y, (x * 2) << 16 | (y * 4) << 8 | ((x + y) & 0xFF));
+            }
+        }
+
+        String fast = CaptchaImageEncoder.toDataUri(image, CaptchaImageEncoder.PNG, 0);
+        String small = CaptchaImageEncoder.toDataUri(image, CaptchaImageEncoder.PNG, 9);
+        String jpeg = CaptchaImageEncoder.toDataUri(image, CaptchaImageEncoder.JPEG, -1);
+
+        assertTrue(fast.startsWith("data:image/png;base64,"));
+        assertTrue(jpeg.startsWith("data:image/jpeg;base64,"));
+        assertTrue(fast.length() > small.length());
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(
+                Base64.getDecoder().decode(small.substring(small.indexOf(',') + 1))));
+        assertEquals(120, decoded.getWidth());
+        assertEquals(image.getRGB(37, 21), decoded.getRGB(37, 21));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> typeStats(CaptchaChallengePool pool, String code) {
+        return (Map<String, Object>) ((Map<String, Object>) pool.getStatistics().get("types")).get(code);
+    }
+
+    private static void awaitDepth(CaptchaChallengePool pool, CaptchaType type, int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pool.depth(type) < depth) {
+            assertTrue(System.currentTimeMillis() < deadline, "队列未在5秒内补满");
+            Thread.sleep(10);
+        }
+    }
+
+    private static final class FakeGenerator implements CaptchaGenerator {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private volatile boolean fail;
+
+        @Override
+        public CaptchaChallenge generateChallenge(CaptchaType captchaType) {
+            if (fail) {
+                throw new IllegalStateException("图片资源不存在");
+            }
+            count.incrementAndGet();
+            return new CaptchaChallenge(captchaType);
+        }
+
+        @Override
+        public boolean supports(CaptchaType captchaType) {
+            return captchaType == CaptchaType.SLIDER || captchaType == CaptchaType.ROTATE;
+        }
+
+        @Override
+        public String getGeneratorName() {
+            return "FakeGenerator";
+        }
+    }
+}
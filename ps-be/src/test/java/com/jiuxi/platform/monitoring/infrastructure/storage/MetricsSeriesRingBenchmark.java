@@ -0,0 +1,46 @@
+package com.jiuxi.platform.monitoring.infrastructure.storage;
+
+import com.jiuxi.platform.monitoring.domain.entity.MetricsRecord;
+import com.jiuxi.platform.monitoring.domain.valueobject.MetricValue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 每百万样本内存占用对比：列式环固定 20 字节/样本，按 MetricsRecord 对象存储时用实测堆增量推算
+ * <pre>
+ *     结果受 GC 时机影响，只作粗略参考，直接运行 main 方法即可
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class MetricsSeriesRingBenchmark {
+
+    private static final int SAMPLE_COUNT = 100_000;
+
+    public static void main(String[] args) {
+        int million = 1 << 20;
+        MetricsSeriesRing ring = new MetricsSeriesRing(million);
+
+        LocalDateTime base = LocalDateTime.now();
+        long before = usedHeap();
+        List<MetricsRecord> records = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            records.add(new MetricsRecord("node-1", new MetricValue("cpu.usage", (double) i, "%", base.plusSeconds(i), "system")));
+        }
+        long objectBytesPerMillion = (usedHeap() - before) * (million / SAMPLE_COUNT);
+
+        System.out.printf("columnar ring: %d MB / 1M samples, MetricsRecord list: ~%d MB / 1M samples (%d records held)%n",
+                ring.footprintBytes() >> 20, objectBytesPerMillion >> 20, records.size());
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,224 @@
+package com.jiuxi.platform.monitoring.infrastructure.storage;
+
+import com.jiuxi.platform.monitoring.domain.entity.MetricsRecord;
+import com.jiuxi.platform.monitoring.domain.valueobject.MetricValue;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式环形时序存储测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("列式环形时序存储测试")
+class MetricsSeriesRingTest {
+
+    @Test
+    @DisplayName("区间查询包含两端，写满后覆盖最旧样本")
+    void rangeAndWrapAround() {
+        MetricsSeriesRing ring = new MetricsSeriesRing(5);
+        assertEquals(8, ring.capacity());
+
+        for (int i = 0; i < 10; i++) {
+            ring.append(i * 1000L, i);
+        }
+        assertEquals(8, ring.size());
+
+        MetricsSeriesRing.Snapshot all = ring.range(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(8, all.size());
+        assertEquals(2000L, all.timestampAt(0));
+        assertEquals(9.0, all.valueAt(7));
+
+        MetricsSeriesRing.Snapshot window = ring.range(3000L, 5000L);
+        assertEquals(3, window.size());
+        assertEquals(3.0, window.valueAt(0));
+        assertEquals(5.0, window.valueAt(2));
+        assertEquals(9.0, ring.latest().valueAt(0));
+    }
+
+    @Test
+    @DisplayName("乱序写入后退化为线性扫描，结果仍然正确")
+    void outOfOrderAppends() {
+        MetricsSeriesRing ring = new MetricsSeriesRing(16);
+        ring.append(3000L, 3);
+        ring.append(1000L, 1);
+        ring.append(2000L, 2);
+
+        MetricsSeriesRing.Snapshot window = ring.range(1500L, 3000L);
+        assertFalse(window.isOrdered());
+        assertEquals(2, window.size());
+        assertEquals(3000L, ring.latest().timestampAt(0));
+    }
+
+    @Test
+    @DisplayName("乱序样本被覆盖后恢复二分查找")
+    void disorderLeavesWindow() {
+        MetricsSeriesRing ring = new MetricsSeriesRing(4);
+        ring.append(1000L, 1);
+        ring.append(500L, 0);
+        assertFalse(ring.range(Long.MIN_VALUE, Long.MAX_VALUE).isOrdered());
+        assertEquals(1000L, ring.latest().timestampAt(0));
+
+        for (int i = 2; i <= 5; i++) {
+            ring.append(i * 1000L, i);
+        }
+        MetricsSeriesRing.Snapshot window = ring.range(3000L, 4000L);
+        assertTrue(window.isOrdered());
+        assertEquals(2, window.size());
+        assertEquals(3.0, window.valueAt(0));
+        assertEquals(5000L, ring.latest().timestampAt(0));
+        assertEquals(0, ring.range(6000L, 7000L).size());
+    }
+
+    @Test
+    @DisplayName("降采样按桶给出 count/sum/min/max")
+    void downsample() {
+        MetricsSeriesRing ring = new MetricsSeriesRing(64);
+        for (int i = 0; i < 6; i++) {
+            ring.append(i * 30_000L, i);
+        }
+
+        Map<Long, double[]> buckets = ring.downsample(0, Long.MAX_VALUE, 60_000L).asMap();
+        assertEquals(3, buckets.size());
+        double[] second = buckets.get(60_000L);
+        assertEquals(2.0, MetricsSeriesRing.Buckets.valueOf(second, "COUNT"));
+        assertEquals(2.5, MetricsSeriesRing.Buckets.valueOf(second, "AVG"));
+        assertEquals(2.0, MetricsSeriesRing.Buckets.valueOf(second, "MIN"));
+        assertEquals(3.0, MetricsSeriesRing.Buckets.valueOf(second, "MAX"));
+    }
+
+    @Test
+    @DisplayName("过期删除只前移逻辑下界")
+    void expireBefore() {
+        MetricsSeriesRing ring = new MetricsSeriesRing(16);
+        for (int i = 0; i < 10; i++) {
+            ring.append(i * 1000L, i);
+        }
+
+        assertEquals(4, ring.expireBefore(4000L));
+        assertEquals(0, ring.expireBefore(4000L));
+        assertEquals(6, ring.size());
+        assertEquals(4000L, ring.range(Long.MIN_VALUE, Long.MAX_VALUE).timestampAt(0));
+    }
+
+    @Test
+    @DisplayName("多线程并发写入不丢样本")
+    void concurrentAppends() throws InterruptedException {
+        int threads = 4;
+        int perThread = 10_000;
+        MetricsSeriesRing ring = new MetricsSeriesRing(threads * perThread);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    ring.append(System.nanoTime(), 1.0);
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        MetricsSeriesRing.Snapshot all = ring.range(Long.MIN_VALUE, Long.MAX_VALUE);
+        assertEquals(threads * perThread, all.size());
+        double sum = 0;
+        for (int i = 0; i < all.size(); i++) {
+            sum += all.valueAt(i);
+        }
+        assertEquals(threads * perThread, sum);
+    }
+
+    @Test
+    @DisplayName("仓库按原接口读写，聚合查询在无预聚合数据时降采样")
+    void repositoryRoundTrip() {
+        InMemoryMetricsRepository repository = new InMemoryMetricsRepository();
+        LocalDateTime base = LocalDateTime.of(2026, 10, 18, 10, 0);
+        List<MetricsRecord> records = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            records.add(new MetricsRecord("node-1", new MetricValue("cpu.usage", (double) i, "%", base.plusSeconds(i * 30L), "system")));
+        }
+        repository.batchSave(records);
+
+        List<MetricsRecord> latest = repository.findRawRecords("node-1", "cpu.usage", base, base.plusHours(1), 2);
+        assertEquals(2, latest.size());
+        assertEquals(118.0, latest.get(0).getMetricValue());
+        assertEquals("%", latest.get(1).getUnit());
+        assertEquals(records.get(119).getRecordId(), latest.get(1).getRecordId());
+
+        assertEquals(119.0, repository.findLatestRecord("node-1", "cpu.usage").get().getMetricValue());
+        assertEquals(120L, repository.countRecords("node-1", base, base.plusHours(1)));
+        assertEquals(120, repository.getMetricStatistics("node-1", "cpu.usage", base, base.plusHours(1)).get("count"));
+
+        List<MetricsRecord> hourly = repository.findAggregatedRecords("node-1", "cpu.usage", "MAX", 60, base, base.plusHours(1));
+        assertEquals(1, hourly.size());
+        assertEquals(119.0, hourly.get(0).getMetricValue());
+    }
+
+    @Test
+    @DisplayName("亚毫秒时间戳的记录按保存时的ID能查回")
+    void findByIdWithSubMillisTimestamp() {
+        InMemoryMetricsRepository repository = new InMemoryMetricsRepository();
+        LocalDateTime base = LocalDateTime.of(2026, 10, 18, 10, 0, 0, 123_456_789);
+        MetricsRecord fine = new MetricsRecord("node-1", new MetricValue("cpu.usage", 1.0, "%", base, "system"));
+        MetricsRecord whole = new MetricsRecord("node-1", new MetricValue("cpu.usage", 2.0, "%", base.plusSeconds(1).withNano(0), "system"));
+        repository.save(fine);
+        repository.save(whole);
+
+        assertEquals(1.0, repository.findById(fine.getRecordId()).get().getMetricValue());
+        assertEquals(fine.getRecordId(), repository.findById(fine.getRecordId()).get().getRecordId());
+        assertEquals(2.0, repository.findById(whole.getRecordId()).get().getMetricValue());
+        // 同一毫秒内的时间戳生成相同的ID
+        assertEquals(fine.getRecordId(), new MetricsRecord("node-1",
+                new MetricValue("cpu.usage", 3.0, "%", base.withNano(123_999_999), "system")).getRecordId());
+        assertFalse(repository.findById("node-1_cpu_usage_20261018T100000.124").isPresent());
+    }
+
+    @Test
+    @DisplayName("按指标配置环容量，未配置或格式错误时使用默认容量")
+    void capacityPerMetric() {
+        InMemoryMetricsRepository repository = new InMemoryMetricsRepository();
+        ReflectionTestUtils.setField(repository, "seriesCapacities", "cpu.usage:16, jvm.threads.count:2048,memory.usage:x");
+        assertEquals(16, repository.capacityOf("cpu.usage"));
+        assertEquals(2048, repository.capacityOf("jvm.threads.count"));
+        assertEquals(32768, repository.capacityOf("memory.usage"));
+        assertEquals(32768, repository.capacityOf("disk.usage"));
+
+        LocalDateTime base = LocalDateTime.of(2026, 10, 18, 10, 0);
+        for (int i = 0; i < 20; i++) {
+            repository.save(new MetricsRecord("node-1", new MetricValue("cpu.usage", (double) i, "%", base.plusSeconds(i), "system")));
+        }
+        assertEquals(16L, repository.countRecords("node-1", base, base.plusHours(1)));
+    }
+
+    /**
+     * 每百万样本内存占用：列式环固定 20 字节/样本，与按对象存储的对比见 {@link MetricsSeriesRingBenchmark}
+     */
+    @Test
+    @DisplayName("每百万样本的内存占用")
+    void memoryPerMillionSamples() {
+        int million = 1 << 20;
+        MetricsSeriesRing ring = new MetricsSeriesRing(million);
+        assertEquals(20L * million, ring.footprintBytes());
+
+        // 写满并覆盖后占用不变
+        for (int i = 0; i < million + 1000; i++) {
+            ring.append(i * 1000L, i);
+        }
+        assertEquals(million, ring.size());
+        assertEquals(20L * million, ring.footprintBytes());
+    }
+}
@@ -0,0 +1,171 @@
+package com.jiuxi.security.core.holder;
+
+import com.alibaba.fastjson.JSON;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.jiuxi.common.bean.SessionVO;
+import com.jiuxi.common.util.JwtUtil;
+import com.jiuxi.common.util.SmUtils;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 已校验 token 上下文缓存测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("已校验token上下文缓存测试")
+class TokenContextCacheTest {
+
+    private static final long HOUR = 3600_000L;
+
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("token-context-cache-test");
+
+    @BeforeAll
+    static void initSm4() {
+        // 应用启动时由 CoreCommandLineRunner 初始化，已初始化时不会覆盖
+        SmUtils.newInstanceSM4("0123456789abcdef", "fedcba9876543210");
+    }
+
+    @Test
+    @DisplayName("命中返回同一上下文，未命中返回null，并计入统计")
+    void testHitAndMiss() {
+        TokenContextCache cache = new TokenContextCache(16);
+        TokenContext context = context("jti-1", System.currentTimeMillis() + HOUR);
+
+        assertNull(cache.get(context.getToken()));
+        cache.put(context);
+        assertSame(context, cache.get(context.getToken()));
+        assertNull(cache.get("other-token"));
+
+        assertEquals(1L, cache.getHitCount());
+        assertEquals(2L, cache.getMissCount());
+        assertEquals(1, cache.getStats().get("size"));
+    }
+
+    @Test
+    @DisplayName("已过期或没有过期时间的token不缓存，缓存后过期的在读取时剔除")
+    void testExpiry() throws InterruptedException {
+        TokenContextCache cache = new TokenContextCache(16);
+        TokenContext expired = context("jti-1", System.currentTimeMillis() - 1_000L);
+        TokenContext noExp = context("jti-2", null);
+        cache.put(expired);
+        cache.put(noExp);
+        assertNull(cache.get(expired.getToken()));
+        assertNull(cache.get(noExp.getToken()));
+
+        // jwt 的过期时间精度为秒
+        TokenContext shortLived = context("jti-3", System.currentTimeMillis() + 2_000L);
+        cache.put(shortLived);
+        assertSame(shortLived, cache.get(shortLived.getToken()));
+        Thread.sleep(2_100L);
+        assertNull(cache.get(shortLived.getToken()));
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
+    @Test
+    @DisplayName("按jti剔除后不再命中，其它token不受影响")
+    void testEvict() {
+        TokenContextCache cache = new TokenContextCache(16);
+        TokenContext first = context("jti-1", System.currentTimeMillis() + HOUR);
+        TokenContext second = context("jti-2", System.currentTimeMillis() + HOUR);
+        cache.put(first);
+        cache.put(second);
+
+        cache.evict("jti-1");
+        cache.evict("unknown");
+        cache.evict(null);
+
+        assertNull(cache.get(first.getToken()));
+        assertSame(second, cache.get(second.getToken()));
+        assertEquals(1L, cache.getStats().get("evictCount"));
+    }
+
+    @Test
+    @DisplayName("容量满时淘汰最早过期的token")
+    void testCapacity() {
+        TokenContextCache cache = new TokenContextCache(8, Runnable::run);
+        long now = System.currentTimeMillis();
+        TokenContext earliest = context("jti-0", now + HOUR);
+        cache.put(earliest);
+        for (int i = 1; i < 8; i++) {
+            cache.put(context("jti-" + i, now + HOUR * (i + 1)));
+        }
+        TokenContext latest = context("jti-8", now + HOUR * 10);
+        cache.put(latest);
+
+        assertNull(cache.get(earliest.getToken()));
+        assertSame(latest, cache.get(latest.getToken()));
+        assertTrue((int) cache.getStats().get("size") <= 8);
+    }
+
+    @Test
+    @DisplayName("容量满时只提交一次后台清理，清理完成前超出上限的token不缓存")
+    void testBackgroundPrune() {
+        List<Runnable> tasks = new ArrayList<>();
+        TokenContextCache cache = new TokenContextCache(8, tasks::add);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 12; i++) {
+            cache.put(context("jti-" + i, now + HOUR * (i + 1)));
+        }
+
+        // 请求线程不做清理，允许超出 1/8 后不再缓存
+        assertEquals(1, tasks.size());
+        assertEquals(9, cache.getStats().get("size"));
+        TokenContext skipped = context("jti-skipped", now + HOUR * 20);
+        cache.put(skipped);
+        assertNull(cache.get(skipped.getToken()));
+
+        tasks.get(0).run();
+        assertEquals(7, cache.getStats().get("size"));
+        assertNull(cache.get(context("jti-0", now + HOUR).getToken()));
+
+        cache.put(skipped);
+        assertSame(skipped, cache.get(skipped.getToken()));
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    @DisplayName("缓存的上下文每次返回会话副本，修改不影响其它请求")
+    void testSessionIsolated() {
+        TokenContextCache cache = new TokenContextCache(16);
+        SessionVO session = new SessionVO();
+        session.setAccountId("A001");
+        session.setPersonName("张三");
+        session.setCategory(1);
+        TokenContext context = context("jti-1", System.currentTimeMillis() + HOUR, JSON.toJSONString(session));
+        cache.put(context);
+
+        SessionVO first = cache.get(context.getToken()).getSession();
+        assertEquals("A001", first.getAccountId());
+        first.setAccountId("A002");
+        first.setCategory(2);
+
+        SessionVO second = cache.get(context.getToken()).getSession();
+        assertNotSame(first, second);
+        assertEquals("A001", second.getAccountId());
+        assertEquals("张三", second.getPersonName());
+        assertEquals(1, second.getCategory());
+    }
+
+    private static TokenContext context(String jti, Long expiresAt) {
+        return context(jti, expiresAt, "{}");
+    }
+
+    private static TokenContext context(String jti, Long expiresAt, String sessionJson) {
+        String token = JWT.create()
+                .withClaim("sub", SmUtils.encryptHexSM4(sessionJson))
+                .withClaim(JwtUtil.JTI, jti)
+                .withExpiresAt(null == expiresAt ? null : new Date(expiresAt))
+                .sign(ALGORITHM);
+        return new TokenContext(token, JWT.decode(token));
+    }
+}
@@ -0,0 +1,267 @@
+package com.jiuxi.security.core.service.impl;
+
+import com.jiuxi.shared.infrastructure.cache.RedisCacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 鉴权内存索引测试，两个索引共享同一份授权数据和版本号模拟两个节点
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("鉴权内存索引测试")
+class AuthorizationIndexServiceImplTest {
+
+    private InMemoryGrants grants;
+
+    private InMemoryVersion redis;
+
+    @BeforeEach
+    void setUp() {
+        grants = new InMemoryGrants();
+        redis = new InMemoryVersion();
+        grants.grant("R1", "/sys/user/list", "/sys/user/add");
+        grants.grant("R2", "/sys/role/list");
+    }
+
+    private AuthorizationIndexServiceImpl newNode(RedisCacheService redisCacheService) {
+        AuthorizationIndexServiceImpl service = new AuthorizationIndexServiceImpl();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", grants);
+        ReflectionTestUtils.setField(service, "redisCacheService", redisCacheService);
+        // 在调用线程上执行首次加载，便于断言
+        ReflectionTestUtils.setField(service, "loader", (Executor) Runnable::run);
+        return service;
+    }
+
+    @Test
+    @DisplayName("首次使用时全量加载，按角色位图鉴权")
+    void testRebuild() {
+        AuthorizationIndexServiceImpl service = newNode(null);
+        assertFalse(service.hasPermission("R1", "/sys/user/list"));
+
+        assertTrue(service.isReady());
+        assertEquals(1, grants.fullLoads);
+        assertTrue(service.hasPermission("R1", "/sys/user/list"));
+        assertTrue(service.hasPermission("R1", "/sys/user/add"));
+        assertFalse(service.hasPermission("R2", "/sys/user/list"));
+        assertTrue(service.hasPermission("R2, R1", "/sys/user/add"));
+        assertTrue(service.hasPermission("R3,R2", "/sys/role/list"));
+        assertFalse(service.hasPermission("R1", "/sys/unknown"));
+        assertFalse(service.hasPermission("", "/sys/user/list"));
+
+        // 已加载后不再访问数据库
+        assertTrue(service.isReady());
+        assertEquals(1, grants.fullLoads);
+
+        grants.grant("R2", "/sys/user/list");
+        service.rebuild();
+        assertEquals(2, grants.fullLoads);
+        assertTrue(service.hasPermission("R2", "/sys/user/list"));
+    }
+
+    @Test
+    @DisplayName("没有数据源时不可用，回退到数据库鉴权")
+    void testNotReadyWithoutDataSource() {
+        AuthorizationIndexServiceImpl service = new AuthorizationIndexServiceImpl();
+        assertFalse(service.isReady());
+        service.refreshRole("R1");
+        assertFalse(service.hasPermission("R1", "/sys/user/list"));
+    }
+
+    @Test
+    @DisplayName("首次加载失败后在退避期内不再访问数据库，期满后重试")
+    void testLoadBackoff() {
+        AuthorizationIndexServiceImpl service = newNode(null);
+        grants.failing = true;
+        assertFalse(service.isReady());
+        assertFalse(service.isReady());
+        assertEquals(1, grants.fullLoads);
+
+        grants.failing = false;
+        ReflectionTestUtils.setField(service, "retryAt", 0L);
+        assertTrue(service.isReady());
+        assertEquals(2, grants.fullLoads);
+        assertTrue(service.hasPermission("R1", "/sys/user/list"));
+    }
+
+    @Test
+    @DisplayName("角色授权变更时只重建该角色的位图")
+    void testRefreshRole() {
+        AuthorizationIndexServiceImpl service = newNode(null);
+        assertTrue(service.isReady());
+
+        grants.revoke("R2");
+        grants.grant("R2", "/sys/user/list", "/sys/log/list");
+        service.refreshRole("R2");
+
+        assertEquals(1, grants.fullLoads);
+        assertEquals(Arrays.asList("R2"), grants.roleLoads);
+        assertTrue(service.hasPermission("R2", "/sys/user/list"));
+        assertTrue(service.hasPermission("R2", "/sys/log/list"));
+        assertFalse(service.hasPermission("R2", "/sys/role/list"));
+        // 其它角色不受影响
+        assertTrue(service.hasPermission("R1", "/sys/user/add"));
+        assertFalse(service.hasPermission("R1", "/sys/log/list"));
+
+        grants.revoke("R2");
+        service.refreshRole("R2");
+        assertFalse(service.hasPermission("R2", "/sys/user/list"));
+    }
+
+    @Test
+    @DisplayName("其它节点修改授权后，本节点比对版本号全量重建")
+    void testSyncVersion() {
+        AuthorizationIndexServiceImpl nodeA = newNode(redis);
+        AuthorizationIndexServiceImpl nodeB = newNode(redis);
+        assertTrue(nodeA.isReady());
+        assertTrue(nodeB.isReady());
+
+        grants.grant("R2", "/sys/user/list");
+        nodeA.refreshRole("R2");
+        assertEquals(1L, redis.version.get());
+        assertTrue(nodeA.hasPermission("R2", "/sys/user/list"));
+        assertFalse(nodeB.hasPermission("R2", "/sys/user/list"));
+
+        int loads = grants.fullLoads;
+        nodeB.syncVersion();
+        assertEquals(loads + 1, grants.fullLoads);
+        assertTrue(nodeB.hasPermission("R2", "/sys/user/list"));
+
+        // 版本号未变时不重建
+        nodeA.syncVersion();
+        nodeB.syncVersion();
+        assertEquals(loads + 1, grants.fullLoads);
+    }
+
+    @Test
+    @DisplayName("发布版本号时发现未同步的变更，先全量重建再记录版本号")
+    void testPublishCatchesUp() {
+        AuthorizationIndexServiceImpl nodeA = newNode(redis);
+        AuthorizationIndexServiceImpl nodeB = newNode(redis);
+        assertTrue(nodeA.isReady());
+        assertTrue(nodeB.isReady());
+
+        grants.grant("R2", "/sys/user/list");
+        nodeA.refreshRole("R2");
+
+        // 节点B尚未定时同步就修改了另一个角色，INCR 跳过了节点A的版本
+        grants.grant("R1", "/sys/role/list");
+        nodeB.refreshRole("R1");
+        assertEquals(2L, redis.version.get());
+        assertTrue(nodeB.hasPermission("R1", "/sys/role/list"));
+        assertTrue(nodeB.hasPermission("R2", "/sys/user/list"));
+
+        // 节点B已经是最新版本，定时同步不再重建；节点A同步到节点B的变更
+        int loads = grants.fullLoads;
+        nodeB.syncVersion();
+        assertEquals(loads, grants.fullLoads);
+        nodeA.syncVersion();
+        assertEquals(loads + 1, grants.fullLoads);
+        assertTrue(nodeA.hasPermission("R1", "/sys/role/list"));
+    }
+
+    /**
+     * 内存中的角色菜单授权，按 AuthorizationIndexServiceImpl 使用的两个查询返回数据并记录查询次数
+     */
+    private static final class InMemoryGrants extends JdbcTemplate {
+
+        private final Map<String, List<String>> roleUris = new LinkedHashMap<>();
+
+        private int fullLoads;
+
+        private boolean failing;
+
+        private final List<String> roleLoads = new ArrayList<>();
+
+        void grant(String roleId, String... uris) {
+            roleUris.computeIfAbsent(roleId, key -> new ArrayList<>()).addAll(Arrays.asList(uris));
+        }
+
+        void revoke(String roleId) {
+            roleUris.remove(roleId);
+        }
+
+        @Override
+        public void query(String sql, RowCallbackHandler rch) {
+            fullLoads++;
+            if (failing) {
+                throw new IllegalStateException("数据库不可用");
+            }
+            try {
+                for (Map.Entry<String, List<String>> entry : roleUris.entrySet()) {
+                    for (String uri : entry.getValue()) {
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getString(1)).thenReturn(entry.getKey());
+                        when(rs.getString(2)).thenReturn(uri);
+                        rch.processRow(rs);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> queryForList(String sql, Class<T> elementType, Object... args) {
+            String roleId = (String) args[0];
+            roleLoads.add(roleId);
+            return (List<T>) new ArrayList<>(roleUris.getOrDefault(roleId, new ArrayList<>()));
+        }
+    }
+
+    /**
+     * 内存中的集群版本号
+     */
+    private static final class InMemoryVersion implements RedisCacheService {
+
+        private final AtomicLong version = new AtomicLong();
+
+        @Override
+        public Object getOpsForValue(String key) {
+            return version.get() == 0 ? null : String.valueOf(version.get());
+        }
+
+        @Override
+        public Long opsForValueIncrement(String key, long value) {
+            return version.addAndGet(value);
+        }
+
+        @Override
+        public void putOpsForHash(String key, String hashKey, Object value) {
+        }
+
+        @Override
+        public void expire(String key, long timeout, TimeUnit unit) {
+        }
+
+        @Override
+        public Object getOpsForHash(String key, String hashKey) {
+            return null;
+        }
+
+        @Override
+        public void deleteOpsForHash(String key) {
+        }
+    }
+}
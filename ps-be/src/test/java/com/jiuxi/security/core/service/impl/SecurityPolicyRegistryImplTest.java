@@ -0,0 +1,170 @@
+package com.jiuxi.security.core.service.impl;
+
+import com.jiuxi.security.core.entity.vo.SecurityPolicyVO;
+import com.jiuxi.shared.common.annotation.Authorization;
+import com.jiuxi.shared.common.annotation.IgnoreAuthorization;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 接口安全策略注册表测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("接口安全策略注册表测试")
+class SecurityPolicyRegistryImplTest {
+
+    @Test
+    @DisplayName("容器刷新后按注解注册所有接口的策略")
+    void testRegister() throws Exception {
+        SecurityPolicyRegistryImpl registry = new SecurityPolicyRegistryImpl(true);
+        Map<RequestMappingInfo, HandlerMethod> handlers = new LinkedHashMap<>();
+        handlers.put(mapping("/sample/open", RequestMethod.GET), handler(new SampleController(), "open"));
+        handlers.put(mapping("/sample/method", RequestMethod.POST), handler(new SampleController(), "methodLevel"));
+        handlers.put(mapping("/sample/class", RequestMethod.GET), handler(new SampleController(), "classLevel"));
+        handlers.put(mapping("/plain", RequestMethod.GET), handler(new PlainController(), "plain"));
+        registry.onApplicationEvent(refreshed(handlers));
+
+        assertEquals(4, registry.getPolicies().size());
+
+        SecurityPolicyVO open = registry.getPolicy(handler(new SampleController(), "open"));
+        assertTrue(open.isIgnore());
+        assertFalse(open.isProtect());
+        assertEquals(SecurityPolicyVO.SOURCE_METHOD, open.getSource());
+        assertEquals(Collections.singleton("/sample/open"), open.getPatterns());
+        assertEquals(Collections.singleton("GET"), open.getMethods());
+        assertEquals(SampleController.class.getName() + "#open", open.getHandler());
+
+        // 方法上的注解优先于类上的，空白 businessKey 视为不校验横向越权
+        SecurityPolicyVO methodLevel = registry.getPolicy(handler(new SampleController(), "methodLevel"));
+        assertTrue(methodLevel.isProtect());
+        assertTrue(methodLevel.isRoleAuth());
+        assertNull(methodLevel.getBusinessKey());
+        assertEquals(SecurityPolicyVO.SOURCE_METHOD, methodLevel.getSource());
+        assertEquals(Collections.singleton("POST"), methodLevel.getMethods());
+
+        SecurityPolicyVO classLevel = registry.getPolicy(handler(new SampleController(), "classLevel"));
+        assertTrue(classLevel.isProtect());
+        assertTrue(classLevel.isSuperAdminBypass());
+        assertFalse(classLevel.isRoleAuth());
+        assertEquals("user", classLevel.getBusinessKey());
+        assertEquals(SecurityPolicyVO.SOURCE_CLASS, classLevel.getSource());
+
+        SecurityPolicyVO plain = registry.getPolicy(handler(new PlainController(), "plain"));
+        assertFalse(plain.isIgnore());
+        assertFalse(plain.isProtect());
+        assertEquals(SecurityPolicyVO.SOURCE_NONE, plain.getSource());
+    }
+
+    @Test
+    @DisplayName("同一处理方法重复查询返回同一个策略，不再解析注解")
+    void testLookupCached() throws Exception {
+        SecurityPolicyRegistryImpl registry = new SecurityPolicyRegistryImpl(true);
+        Map<RequestMappingInfo, HandlerMethod> handlers = new LinkedHashMap<>();
+        handlers.put(mapping("/sample/class", RequestMethod.GET), handler(new SampleController(), "classLevel"));
+        registry.onApplicationEvent(refreshed(handlers));
+
+        SecurityPolicyVO first = registry.getPolicy(handler(new SampleController(), "classLevel"));
+        // 处理器 bean 不同但方法相同，命中同一条策略
+        SecurityPolicyVO second = registry.getPolicy(handler(new SampleController(), "classLevel"));
+        assertSame(first, second);
+        assertEquals(1, registry.getPolicies().size());
+    }
+
+    @Test
+    @DisplayName("启动后动态注册的接口首次访问时解析并缓存")
+    void testFallbackForUnregistered() throws Exception {
+        SecurityPolicyRegistryImpl registry = new SecurityPolicyRegistryImpl(true);
+        registry.onApplicationEvent(refreshed(Collections.emptyMap()));
+        assertTrue(registry.getPolicies().isEmpty());
+
+        SecurityPolicyVO policy = registry.getPolicy(handler(new SampleController(), "methodLevel"));
+        assertTrue(policy.isProtect());
+        assertEquals(SecurityPolicyVO.SOURCE_METHOD, policy.getSource());
+        // 没有映射信息，路径和请求方法为空
+        assertTrue(policy.getPatterns().isEmpty());
+        assertTrue(policy.getMethods().isEmpty());
+
+        assertSame(policy, registry.getPolicy(handler(new SampleController(), "methodLevel")));
+        assertEquals(1, registry.getPolicies().size());
+    }
+
+    @Test
+    @DisplayName("注解冲突时按配置启动失败或跳过冲突接口")
+    void testConflict() throws Exception {
+        Map<RequestMappingInfo, HandlerMethod> handlers = new LinkedHashMap<>();
+        handlers.put(mapping("/plain", RequestMethod.GET), handler(new PlainController(), "plain"));
+        handlers.put(mapping("/plain/conflict", RequestMethod.GET), handler(new PlainController(), "conflict"));
+
+        SecurityPolicyRegistryImpl failFast = new SecurityPolicyRegistryImpl(true);
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> failFast.onApplicationEvent(refreshed(handlers)));
+        assertTrue(e.getMessage().contains(PlainController.class.getName() + "#conflict"));
+
+        SecurityPolicyRegistryImpl lenient = new SecurityPolicyRegistryImpl(false);
+        lenient.onApplicationEvent(refreshed(handlers));
+        assertEquals(1, lenient.getPolicies().size());
+        assertEquals(PlainController.class.getName() + "#plain", lenient.getPolicies().iterator().next().getHandler());
+
+        // 冲突接口访问时按原拦截器的规则处理，@IgnoreAuthorization 优先
+        assertTrue(lenient.getPolicy(handler(new PlainController(), "conflict")).isIgnore());
+    }
+
+    private static RequestMappingInfo mapping(String path, RequestMethod method) {
+        return RequestMappingInfo.paths(path).methods(method).build();
+    }
+
+    private static HandlerMethod handler(Object bean, String methodName) throws NoSuchMethodException {
+        return new HandlerMethod(bean, bean.getClass().getMethod(methodName));
+    }
+
+    private static ContextRefreshedEvent refreshed(Map<RequestMappingInfo, HandlerMethod> handlers) {
+        RequestMappingHandlerMapping mapping = mock(RequestMappingHandlerMapping.class);
+        when(mapping.getHandlerMethods()).thenReturn(handlers);
+        ApplicationContext context = mock(ApplicationContext.class);
+        when(context.getBeansOfType(RequestMappingHandlerMapping.class))
+                .thenReturn(Collections.singletonMap("requestMappingHandlerMapping", mapping));
+        return new ContextRefreshedEvent(context);
+    }
+
+    @Authorization(roleAuth = false, businessKey = "user")
+    static class SampleController {
+
+        @IgnoreAuthorization
+        public void open() {
+        }
+
+        @Authorization(businessKey = " ")
+        public void methodLevel() {
+        }
+
+        public void classLevel() {
+        }
+    }
+
+    static class PlainController {
+
+        public void plain() {
+        }
+
+        @IgnoreAuthorization
+        @Authorization
+        public void conflict() {
+        }
+    }
+}
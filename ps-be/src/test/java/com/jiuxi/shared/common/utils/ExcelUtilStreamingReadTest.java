@@ -0,0 +1,136 @@
+package com.jiuxi.shared.common.utils;
+
+import com.jiuxi.module.user.app.dto.UserImportDTO;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 导入文件流式读取测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("导入文件流式读取测试")
+class ExcelUtilStreamingReadTest {
+
+    private static final String[] HEADERS = {
+        "账号名", "初始密码", "姓名", "性别", "部门",
+        "参加工作时间", "职务职级", "职称", "身份证号码"
+    };
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("按块回调，跳过空行，行号与Excel一致")
+    void readsInChunks() throws Exception {
+        File file = tempDir.resolve("users.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("用户导入模板");
+            writeRow(sheet.createRow(0), HEADERS);
+            writeRow(sheet.createRow(1), new String[]{" zhangsan ", "123456", "张三", "男", "办公室", "2001-08-15", "", "", ""});
+            writeRow(sheet.createRow(2), new String[]{"lisi", "123456", "李四", "女", "办公室", "", "", "", ""});
+            // 第4行为空行
+            sheet.createRow(3).createCell(0).setCellValue("");
+            writeRow(sheet.createRow(4), new String[]{"wangwu", "123456", "王五", "", "财务处", "", "", "", ""});
+            save(workbook, file);
+        }
+
+        List<List<UserImportDTO>> chunks = new ArrayList<>();
+        int rowCount = ExcelUtil.readImportExcel(file, 2, chunks::add);
+
+        assertEquals(3, rowCount);
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+
+        UserImportDTO first = chunks.get(0).get(0);
+        assertEquals(2, first.getRowNumber());
+        assertEquals("zhangsan", first.getUsername());
+        assertEquals("办公室", first.getDeptPath());
+        assertEquals("", first.getIdcard());
+
+        UserImportDTO last = chunks.get(1).get(0);
+        assertEquals(5, last.getRowNumber());
+        assertEquals("wangwu", last.getUsername());
+    }
+
+    @Test
+    @DisplayName("数值与日期单元格的格式化与逐单元格读取一致")
+    void formatsNumericCells() throws Exception {
+        File file = tempDir.resolve("numeric.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("用户导入模板");
+            writeRow(sheet.createRow(0), HEADERS);
+            Row row = sheet.createRow(1);
+            writeRow(row, new String[]{"zhaoliu", "", "赵六", "男", "办公室", "", "", "", ""});
+            row.createCell(1).setCellValue(123456);
+            row.createCell(6).setCellValue(1.5);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy/m/d"));
+            Cell dateCell = row.createCell(5);
+            dateCell.setCellValue(LocalDate.of(2001, 8, 15));
+            dateCell.setCellStyle(dateStyle);
+            save(workbook, file);
+        }
+
+        List<UserImportDTO> rows = new ArrayList<>();
+        ExcelUtil.readImportExcel(file, 100, rows::addAll);
+
+        assertEquals(1, rows.size());
+        assertEquals("123456", rows.get(0).getPassword());
+        assertEquals("1.5", rows.get(0).getZwzj());
+        assertEquals("2001-08-15T00:00", rows.get(0).getPartWorkDate());
+    }
+
+    @Test
+    @DisplayName("表头不匹配或缺失时报错")
+    void rejectsInvalidHeaders() throws Exception {
+        File wrongHeader = tempDir.resolve("wrong.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            String[] headers = HEADERS.clone();
+            headers[2] = "名字";
+            writeRow(workbook.createSheet("用户导入模板").createRow(0), headers);
+            save(workbook, wrongHeader);
+        }
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> ExcelUtil.readImportExcel(wrongHeader, 10, chunk -> { }));
+        assertTrue(e.getMessage().contains("第3列"));
+
+        File empty = tempDir.resolve("empty.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("用户导入模板");
+            save(workbook, empty);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ExcelUtil.readImportExcel(empty, 10, chunk -> { }));
+    }
+
+    private static void writeRow(Row row, String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            row.createCell(i).setCellValue(values[i]);
+        }
+    }
+
+    private static void save(XSSFWorkbook workbook, File file) throws Exception {
+        try (OutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.jiuxi.shared.common.utils;
+
+import com.jiuxi.module.user.app.dto.UserExportDTO;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 用户导出耗时与堆占用对比：旧实现先把全部用户组装成列表再写入，新实现边读游标边写入
+ * <pre>
+ *     工程未引入 JMH，这里用预热后多轮取平均的方式粗略对比，直接运行 main 方法即可
+ *     数据源用生成器模拟游标，不含数据库耗时；堆占用为写入过程中每 10000 行采样一次的最大值
+ * </pre>
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+public class UserExportBenchmark {
+
+    private static final int WARMUP = 2;
+
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        for (int size : new int[]{10_000, 100_000}) {
+            for (int i = 0; i < WARMUP; i++) {
+                ExcelUtil.writeExportExcel(materialized(size), new CountingOutputStream());
+                ExcelUtil.writeExportExcel(streaming(size), new CountingOutputStream());
+            }
+
+            long legacyNanos = 0;
+            long legacyHeap = 0;
+            long currentNanos = 0;
+            long currentHeap = 0;
+            long bytes = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                HeapSampler sampler = new HeapSampler();
+                long start = System.nanoTime();
+                List<UserExportDTO> list = materialized(size);
+                ExcelUtil.writeExportExcel(sampler.wrap(list), new CountingOutputStream());
+                legacyNanos += System.nanoTime() - start;
+                legacyHeap = Math.max(legacyHeap, sampler.peak);
+                list = null;
+
+                sampler = new HeapSampler();
+                CountingOutputStream out = new CountingOutputStream();
+                start = System.nanoTime();
+                ExcelUtil.writeExportExcel(sampler.wrap(streaming(size)), out);
+                currentNanos += System.nanoTime() - start;
+                currentHeap = Math.max(currentHeap, sampler.peak);
+                bytes = out.count;
+            }
+            System.out.printf("rows=%d legacy=%.2fms/%.1fMB current=%.2fms/%.1fMB file=%.1fMB%n", size,
+                legacyNanos / 1e6 / ROUNDS, legacyHeap / 1048576.0,
+                currentNanos / 1e6 / ROUNDS, currentHeap / 1048576.0, bytes / 1048576.0);
+        }
+    }
+
+    /**
+     * 旧实现：全部数据先组装到列表
+     */
+    private static List<UserExportDTO> materialized(int size) {
+        List<UserExportDTO> list = new ArrayList<>(size);
+        for (UserExportDTO dto : streaming(size)) {
+            list.add(dto);
+        }
+        return list;
+    }
+
+    /**
+     * 新实现：每次只生成一行，模拟游标
+     */
+    private static Iterable<UserExportDTO> streaming(int size) {
+        return () -> new Iterator<UserExportDTO>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public UserExportDTO next() {
+                int i = next++;
+                UserExportDTO dto = new UserExportDTO();
+                dto.setUsername("user" + i);
+                dto.setPersonName("用户" + i);
+                dto.setSexName(i % 2 == 0 ? "男" : "女");
+                dto.setDeptFullPath("测试单位/部门" + (i % 200));
+                dto.setPartWorkDate("2001-08-15");
+                dto.setZwzj("四级调研员");
+                dto.setZhicheng("副教授");
+                dto.setIdcard(String.format("4117231967%08d", i));
+                return dto;
+            }
+        };
+    }
+
+    /**
+     * 遍历过程中定期采样堆占用
+     */
+    private static final class HeapSampler {
+
+        private long peak;
+
+        Iterable<UserExportDTO> wrap(Iterable<UserExportDTO> source) {
+            return () -> {
+                Iterator<UserExportDTO> it = source.iterator();
+                return new Iterator<UserExportDTO>() {
+                    private int count;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public UserExportDTO next() {
+                        if (++count % 10_000 == 0) {
+                            Runtime runtime = Runtime.getRuntime();
+                            System.gc();
+                            peak = Math.max(peak, runtime.totalMemory() - runtime.freeMemory());
+                        }
+                        return it.next();
+                    }
+                };
+            };
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.jiuxi.shared.config.cache;
+
+import com.jiuxi.common.bean.TreeNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 二级缓存管理器测试，L2 使用内存中的 RedisCacheWriter，失效广播使用 mock
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("二级缓存管理器测试")
+class MultiLevelCacheManagerTest {
+
+    private static final String CACHE = "platform.{TestService}";
+
+    private Map<String, byte[]> redis;
+
+    private RedisCacheWriter writer;
+
+    private CacheInvalidationChannel channel;
+
+    private MultiLevelCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        redis = new ConcurrentHashMap<>();
+        writer = mock(RedisCacheWriter.class);
+        when(writer.get(anyString(), any(byte[].class)))
+                .thenAnswer(inv -> redis.get(redisKey(inv.getArgument(0), inv.getArgument(1))));
+        doAnswer(inv -> redis.put(redisKey(inv.getArgument(0), inv.getArgument(1)), inv.getArgument(2)))
+                .when(writer).put(anyString(), any(byte[].class), any(byte[].class), any());
+        doAnswer(inv -> redis.remove(redisKey(inv.getArgument(0), inv.getArgument(1))))
+                .when(writer).remove(anyString(), any(byte[].class));
+        channel = mock(CacheInvalidationChannel.class);
+        properties = new MultiLevelCacheProperties();
+        properties.setLocalMaxSize(8);
+        properties.setLocalTtl(Duration.ofMinutes(5));
+    }
+
+    private MultiLevelCacheManager newManager() {
+        MultiLevelCacheManager manager = new MultiLevelCacheManager(writer, RedisCacheConfiguration.defaultCacheConfig(),
+                Collections.emptyMap(), properties, channel);
+        manager.afterPropertiesSet();
+        return manager;
+    }
+
+    @Test
+    @DisplayName("首次读取L2并回填L1，之后命中L1不再访问Redis")
+    void testLocalHit() {
+        Cache cache = newManager().getCache(CACHE);
+        assertTrue(cache instanceof MultiLevelCache);
+
+        cache.put("k1", new Sample("v1"));
+        verify(channel).publish(CACHE, "k1");
+
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+        verify(writer, times(1)).get(anyString(), any(byte[].class));
+
+        Map<String, Object> stats = ((MultiLevelCache) cache).getStats();
+        assertEquals(2L, stats.get("localHits"));
+        assertEquals(1L, stats.get("redisHits"));
+    }
+
+    @Test
+    @DisplayName("L1未命中时读取L2，L2也没有时返回null且不回填")
+    void testRedisFallback() {
+        Cache cache = newManager().getCache(CACHE);
+
+        // 其它节点写入 Redis，本节点 L1 中没有
+        newManager().getCache(CACHE).put("k1", new Sample("v1"));
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+
+        assertNull(cache.get("missing"));
+        assertNull(cache.get("missing"));
+        verify(writer, times(3)).get(anyString(), any(byte[].class));
+        assertEquals(2L, ((MultiLevelCache) cache).getStats().get("misses"));
+    }
+
+    @Test
+    @DisplayName("本地上限为0时不使用L1，直接返回Redis缓存")
+    void testLocalDisabled() {
+        MultiLevelCacheProperties.CacheSpec spec = new MultiLevelCacheProperties.CacheSpec();
+        spec.setName(CACHE);
+        spec.setLocalMaxSize(0);
+        properties.getCaches().add(spec);
+
+        Cache cache = newManager().getCache(CACHE);
+        assertTrue(cache instanceof RedisCache);
+        cache.put("k1", new Sample("v1"));
+        cache.get("k1");
+        cache.get("k1");
+        verify(writer, times(2)).get(anyString(), any(byte[].class));
+    }
+
+    @Test
+    @DisplayName("L1超出上限时淘汰最早过期的条目")
+    void testEviction() {
+        Cache cache = newManager().getCache(CACHE);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put("k" + i, new Sample("v" + i));
+            cache.get("k" + i);
+        }
+        verify(writer, times(20)).get(anyString(), any(byte[].class));
+
+        Map<String, Object> stats = ((MultiLevelCache) cache).getStats();
+        assertTrue((int) stats.get("localSize") <= 8, "localSize " + stats.get("localSize"));
+        assertTrue((long) stats.get("evictions") > 0);
+
+        // 被淘汰的条目重新从 L2 读取
+        for (int i = 0; i < 20; i++) {
+            assertEquals("v" + i, cache.get("k" + i, Sample.class).name);
+        }
+    }
+
+    @Test
+    @DisplayName("删除和远程失效后重新读取L2，其它缓存的广播不影响本缓存")
+    void testInvalidation() {
+        MultiLevelCacheManager manager = newManager();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<BiConsumer<String, String>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(channel).subscribe(listener.capture());
+        Cache cache = manager.getCache(CACHE);
+
+        cache.put("k1", new Sample("v1"));
+        cache.put("k2", new Sample("v2"));
+        cache.get("k1");
+        cache.get("k2");
+        cache.get("k1");
+        cache.get("k2");
+        verify(writer, times(2)).get(anyString(), any(byte[].class));
+
+        cache.evict("k1");
+        verify(channel).publish(CACHE, "k1");
+        assertNull(cache.get("k1"));
+        verify(writer, times(3)).get(anyString(), any(byte[].class));
+
+        listener.getValue().accept(CACHE, "k2");
+        assertEquals("v2", cache.get("k2", Sample.class).name);
+        verify(writer, times(4)).get(anyString(), any(byte[].class));
+
+        listener.getValue().accept("platform.{OtherService}", null);
+        cache.get("k2");
+        verify(writer, times(4)).get(anyString(), any(byte[].class));
+
+        listener.getValue().accept(CACHE, null);
+        cache.get("k2");
+        verify(writer, times(5)).get(anyString(), any(byte[].class));
+        assertEquals(2L, ((MultiLevelCache) cache).getStats().get("remoteInvalidations"));
+    }
+
+    @Test
+    @DisplayName("默认每次命中返回新对象，修改返回值不影响其它调用方")
+    void testCopyOnRead() {
+        Cache cache = newManager().getCache(CACHE);
+        cache.put("k1", new Sample("v1"));
+
+        Sample fromRedis = cache.get("k1", Sample.class);
+        fromRedis.name = "changed";
+        Sample first = cache.get("k1", Sample.class);
+        Sample second = cache.get("k1", Sample.class);
+
+        assertNotSame(first, second);
+        assertEquals("v1", first.name);
+        first.name = "changed";
+        assertEquals("v1", second.name);
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+    }
+
+    @Test
+    @DisplayName("配置共享本地值的缓存，L1命中返回同一对象")
+    void testSharedLocalValues() {
+        MultiLevelCacheProperties.CacheSpec spec = new MultiLevelCacheProperties.CacheSpec();
+        spec.setName(CACHE);
+        spec.setShareLocalValues(true);
+        properties.getCaches().add(spec);
+
+        Cache cache = newManager().getCache(CACHE);
+        cache.put("k1", new Sample("v1"));
+        cache.get("k1");
+
+        assertSame(cache.get("k1", Sample.class), cache.get("k1", Sample.class));
+    }
+
+    @Test
+    @DisplayName("共享本地值保存不可变副本，调用方修改原对象或返回值不影响缓存")
+    void testSharedLocalValuesImmutable() {
+        MultiLevelCacheProperties.CacheSpec spec = new MultiLevelCacheProperties.CacheSpec();
+        spec.setName(CACHE);
+        spec.setShareLocalValues(true);
+        properties.getCaches().add(spec);
+        Cache cache = newManager().getCache(CACHE);
+
+        TreeNode root = new TreeNode();
+        root.setId("r");
+        TreeNode child = new TreeNode();
+        child.setId("c");
+        root.addChildren(child);
+        List<TreeNode> loaded = new ArrayList<>(Collections.singletonList(root));
+        assertNull(cache.get("tree"));
+        cache.put("tree", loaded);
+        loaded.add(new TreeNode());
+        root.cleanChildren();
+
+        @SuppressWarnings("unchecked")
+        List<TreeNode> cached = cache.get("tree", List.class);
+        assertSame(cached, cache.get("tree", List.class));
+        assertEquals(1, cached.size());
+        assertEquals("c", cached.get(0).getChildren().get(0).getId());
+        assertThrows(UnsupportedOperationException.class, () -> cached.add(new TreeNode()));
+        assertThrows(UnsupportedOperationException.class, () -> cached.get(0).addChildren(new TreeNode()));
+        verify(writer, times(1)).get(anyString(), any(byte[].class));
+    }
+
+    @Test
+    @DisplayName("未命中后的回写只写L2并回填L1，不广播；显式写入仍广播")
+    void testMissFillNotBroadcast() {
+        Cache cache = newManager().getCache(CACHE);
+
+        assertNull(cache.get("k1"));
+        cache.put("k1", new Sample("v1"));
+        verify(channel, never()).publish(anyString(), any());
+        assertEquals("v1", cache.get("k1", Sample.class).name);
+        verify(writer, times(1)).get(anyString(), any(byte[].class));
+
+        // 另一节点读到的是同一份 L2
+        assertEquals("v1", newManager().getCache(CACHE).get("k1", Sample.class).name);
+
+        cache.put("k1", new Sample("v2"));
+        verify(channel).publish(CACHE, "k1");
+        assertEquals("v2", cache.get("k1", Sample.class).name);
+    }
+
+    @Test
+    @DisplayName("未命中与回写之间发生失效或读取了其它key时，回写按显式写入广播")
+    void testMissFillAfterInvalidation() {
+        MultiLevelCacheManager manager = newManager();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<BiConsumer<String, String>> listener = ArgumentCaptor.forClass(BiConsumer.class);
+        verify(channel).subscribe(listener.capture());
+        Cache cache = manager.getCache(CACHE);
+
+        assertNull(cache.get("k1"));
+        listener.getValue().accept(CACHE, "k1");
+        cache.put("k1", new Sample("v1"));
+        verify(channel).publish(CACHE, "k1");
+
+        assertNull(cache.get("k2"));
+        assertNull(cache.get("k3"));
+        cache.put("k2", new Sample("v2"));
+        verify(channel).publish(CACHE, "k2");
+    }
+
+    @Test
+    @DisplayName("缓存名以$[秒数]结尾时作为过期时间")
+    void testTtlSuffix() {
+        Duration fallback = Duration.ofHours(1);
+        assertEquals(Duration.ofSeconds(86400), MultiLevelCacheManager.ttlOf("platform.{TpCityService}$[86400]", fallback));
+        assertEquals(fallback, MultiLevelCacheManager.ttlOf("platform.{TpCityService}", fallback));
+        assertEquals(fallback, MultiLevelCacheManager.ttlOf("platform.$[60].{TpCityService}", fallback));
+
+        Cache cache = newManager().getCache(CACHE + "$[30]");
+        cache.put("k1", new Sample("v1"));
+        verify(writer).put(eq(CACHE + "$[30]"), any(byte[].class), any(byte[].class), eq(Duration.ofSeconds(30)));
+    }
+
+    private static String redisKey(String name, byte[] key) {
+        return name + "|" + new String(key, StandardCharsets.UTF_8);
+    }
+
+    static class Sample implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private String name;
+
+        Sample(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.jiuxi.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 基于 SCAN 的 key 遍历与批量删除测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("基于SCAN的key遍历与批量删除测试")
+class RedisKeyScannerTest {
+
+    @Test
+    @DisplayName("按批回调匹配的key，游标按COUNT分段推进")
+    void scanInBatches() {
+        InMemoryKeyspace keyspace = new InMemoryKeyspace();
+        keyspace.fill("dict:", 2_300);
+        keyspace.fill("config:", 700);
+        RedisKeyScanner scanner = new RedisKeyScanner(keyspace);
+
+        List<Integer> sizes = new ArrayList<>();
+        long total = scanner.scan("dict:*", 1_000, batch -> {
+            sizes.add(batch.size());
+            batch.forEach(key -> assertTrue(key.startsWith("dict:")));
+        });
+
+        assertEquals(2_300, total);
+        assertEquals(List.of(1_000, 1_000, 300), sizes);
+        // 3000 个 key，每次迭代检查 1000 个
+        assertEquals(3, keyspace.iterations);
+        assertEquals(700, scanner.count("config:*"));
+        assertEquals(0, scanner.count("missing:*"));
+    }
+
+    @Test
+    @DisplayName("按模式分批UNLINK，只删除匹配的key并报告进度")
+    void deleteByPattern() {
+        InMemoryKeyspace keyspace = new InMemoryKeyspace();
+        keyspace.fill("jwt:cache:", 1_234);
+        keyspace.fill("jwt:blacklist:", 10);
+        RedisKeyScanner scanner = new RedisKeyScanner(keyspace);
+
+        List<Long> progress = new ArrayList<>();
+        long deleted = scanner.deleteByPattern("jwt:cache:*", 500, 0, (pattern, count) -> progress.add(count));
+
+        assertEquals(1_234, deleted);
+        assertEquals(List.of(500L, 1_000L, 1_234L), progress);
+        assertEquals(3, keyspace.unlinks);
+        assertEquals(10, keyspace.keys.size());
+        assertEquals(0, scanner.deleteByPattern("jwt:cache:*"));
+        assertEquals(3, keyspace.unlinks);
+    }
+
+    @Test
+    @DisplayName("删除量超过阈值后批次之间暂停")
+    void throttle() {
+        InMemoryKeyspace keyspace = new InMemoryKeyspace();
+        keyspace.fill("audit:", (int) RedisKeyScanner.THROTTLE_THRESHOLD + 2_000);
+        RedisKeyScanner scanner = new RedisKeyScanner(keyspace);
+
+        long start = System.nanoTime();
+        long deleted = scanner.deleteByPattern("audit:*", 1_000, 20, null);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(RedisKeyScanner.THROTTLE_THRESHOLD + 2_000, deleted);
+        // 前 10 批不暂停，之后 2 批各暂停 20ms
+        assertTrue(elapsedMillis >= 40, "elapsed " + elapsedMillis);
+        assertTrue(keyspace.keys.isEmpty());
+    }
+
+    @Test
+    @DisplayName("collect返回全部匹配key，支持?和字面量前缀")
+    void collect() {
+        InMemoryKeyspace keyspace = new InMemoryKeyspace();
+        keyspace.keys.add("ps:sync:conflict:a1");
+        keyspace.keys.add("ps:sync:conflict:b2");
+        keyspace.keys.add("ps:sync:conflict:c33");
+        keyspace.keys.add("ps:sync:status:a1");
+        RedisKeyScanner scanner = new RedisKeyScanner(keyspace);
+
+        Set<String> keys = scanner.collect("ps:sync:conflict:??");
+        assertEquals(Set.of("ps:sync:conflict:a1", "ps:sync:conflict:b2"), keys);
+        assertEquals(3, scanner.collect("ps:sync:conflict:*").size());
+    }
+
+    /**
+     * 内存 keyspace：按字典序分段模拟 SCAN 游标，记录迭代和 UNLINK 次数
+     */
+    private static final class InMemoryKeyspace implements RedisKeyScanner.KeyspaceOperations {
+
+        private final TreeSet<String> keys = new TreeSet<>();
+
+        private int iterations;
+
+        private int unlinks;
+
+        void fill(String prefix, int count) {
+            for (int i = 0; i < count; i++) {
+                keys.add(prefix + i);
+            }
+        }
+
+        @Override
+        public void scan(String pattern, int count, Consumer<String> consumer) {
+            Pattern regex = glob(pattern);
+            List<String> snapshot = new ArrayList<>(keys);
+            for (int from = 0; from < snapshot.size(); from += count) {
+                iterations++;
+                List<String> matched = new ArrayList<>();
+                for (String key : snapshot.subList(from, Math.min(from + count, snapshot.size()))) {
+                    if (regex.matcher(key).matches()) {
+                        matched.add(key);
+                    }
+                }
+                matched.forEach(consumer);
+            }
+        }
+
+        @Override
+        public long unlink(Collection<String> batch) {
+            unlinks++;
+            long removed = 0;
+            for (String key : batch) {
+                if (keys.remove(key)) {
+                    removed++;
+                }
+            }
+            return removed;
+        }
+
+        private static Pattern glob(String pattern) {
+            StringBuilder regex = new StringBuilder();
+            for (char c : pattern.toCharArray()) {
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+}
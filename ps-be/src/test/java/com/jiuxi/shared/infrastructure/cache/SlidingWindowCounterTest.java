@@ -0,0 +1,81 @@
+package com.jiuxi.shared.infrastructure.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 内存滑动窗口计数器测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("内存滑动窗口计数器测试")
+class SlidingWindowCounterTest {
+
+    @Test
+    @DisplayName("按桶宽统计窗口内计数，过期的桶不计入")
+    void count() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000L, 5, 100);
+        for (int i = 0; i < 3; i++) {
+            counter.increment("10.0.0.1", 10_000L);
+        }
+        counter.increment("10.0.0.1", 12_500L);
+
+        assertEquals(4, counter.count("10.0.0.1", 5_000L, 12_900L));
+        assertEquals(1, counter.count("10.0.0.1", 2_000L, 12_900L));
+        assertEquals(1, counter.count("10.0.0.1", 5_000L, 15_500L));
+        assertEquals(0, counter.count("10.0.0.2", 5_000L, 12_900L));
+    }
+
+    @Test
+    @DisplayName("key数量达到上限后，每个桶宽内只清理一次过期key，仍无空位时按CLOCK淘汰，新key总被跟踪")
+    void evictionThrottled() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000L, 2, 3);
+        counter.increment("a", 0L);
+        counter.increment("b", 0L);
+        counter.increment("c", 1_000L);
+
+        // 桶 5 内首次超限时清理，a、b、c 均已过期
+        counter.increment("d", 5_000L);
+        assertEquals(1, counter.size());
+        counter.increment("e", 5_100L);
+        counter.increment("f", 5_200L);
+        assertEquals(3, counter.size());
+
+        // 同一桶宽内不再清理过期 key；d、e、f 都有写入，清除 d、e 的标记，淘汰最后检查的 f
+        counter.increment("g", 5_300L);
+        assertEquals(3, counter.size());
+        assertEquals(1, counter.count("g", 2_000L, 5_300L));
+        assertEquals(0, counter.count("f", 2_000L, 5_300L));
+
+        // d 再次写入，e 自上次检查后没有写入，淘汰 e
+        counter.increment("d", 5_400L);
+        counter.increment("h", 5_500L);
+        assertEquals(3, counter.size());
+        assertEquals(1, counter.count("h", 2_000L, 5_500L));
+        assertEquals(0, counter.count("e", 2_000L, 5_500L));
+        assertEquals(2, counter.count("d", 2_000L, 5_500L));
+
+        // 全部过期后整体清理
+        counter.increment("i", 8_000L);
+        assertEquals(1, counter.size());
+        assertEquals(1, counter.count("i", 2_000L, 8_000L));
+    }
+
+    @Test
+    @DisplayName("大量一次性的新key涌入时，持续访问的key不被淘汰，计数不丢失")
+    void activeKeySurvivesFlood() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(1_000L, 60, 16);
+        long now = 0L;
+        for (int i = 0; i < 1_000; i++) {
+            now += 10L;
+            counter.increment("attacker", now);
+            counter.increment("spoofed-" + i, now);
+        }
+
+        assertEquals(16, counter.size());
+        assertEquals(1_000, counter.count("attacker", 60_000L, now));
+    }
+}
@@ -0,0 +1,78 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 按内容寻址存储测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("按内容寻址存储测试")
+class ContentAddressedStoreTest {
+
+    /**
+     * "hello" 的 SHA-256
+     */
+    private static final String HELLO_DIGEST = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("写入时计算摘要，按摘要分片存放")
+    void stageAndCommit() throws Exception {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir.toString());
+
+        ContentAddressedStore.StagedBlob blob = store.stage(input("hello"));
+        assertEquals(HELLO_DIGEST, blob.getDigest());
+        assertEquals(5, blob.getSize());
+        assertFalse(store.exists(HELLO_DIGEST));
+
+        String path = store.commit(blob);
+        assertEquals("/cas/2c/f2/" + HELLO_DIGEST, path);
+        assertTrue(store.exists(HELLO_DIGEST));
+        assertEquals("hello", new String(Files.readAllBytes(tempDir.resolve("cas/2c/f2/" + HELLO_DIGEST)), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("相同内容只保留一份，临时文件被清理")
+    void deduplicates() throws Exception {
+        ContentAddressedStore store = new ContentAddressedStore(tempDir.toString());
+        ContentAddressedStore.StagedBlob first = store.stage(input("hello"));
+        ContentAddressedStore.StagedBlob second = store.stage(input("hello"));
+
+        assertEquals(store.commit(first), store.commit(second));
+        try (Stream<Path> files = Files.walk(tempDir.resolve("cas"))) {
+            assertEquals(1, files.filter(Files::isRegularFile).count());
+        }
+
+        assertTrue(store.delete(HELLO_DIGEST));
+        assertFalse(store.exists(HELLO_DIGEST));
+    }
+
+    @Test
+    @DisplayName("只识别本存储的路径")
+    void digestOf() {
+        assertEquals(HELLO_DIGEST, ContentAddressedStore.digestOf("/cas/2c/f2/" + HELLO_DIGEST));
+        assertNull(ContentAddressedStore.digestOf("/20240101/" + HELLO_DIGEST));
+        assertNull(ContentAddressedStore.digestOf("/cas/00/00/" + HELLO_DIGEST));
+        assertNull(ContentAddressedStore.digestOf("/cas/2c/f2/../../etc/passwd"));
+        assertNull(ContentAddressedStore.digestOf(null));
+        assertFalse(ContentAddressedStore.isDigest(HELLO_DIGEST.toUpperCase()));
+    }
+
+    private static ByteArrayInputStream input(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 上传目录扫描测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("上传目录扫描测试")
+class FileCatalogScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("递归扫描全部文件，按批输出相对路径、大小和修改时间")
+    void scan() throws Exception {
+        write("avatar/2026/10/18/a.png", 3, 1_000_000L);
+        write("avatar/2026/10/17/b.JPG", 5, 2_000_000L);
+        write("document/2026/10/18/c.pdf", 7, 3_000_000L);
+        write("readme.txt", 1, 4_000_000L);
+        Files.createDirectories(tempDir.resolve("empty/dir"));
+
+        List<Integer> batchSizes = new ArrayList<>();
+        Map<String, FileCatalogScanner.ScannedFile> files = new TreeMap<>();
+        long total = FileCatalogScanner.scan(tempDir, 3, batch -> {
+            batchSizes.add(batch.size());
+            batch.forEach(file -> files.put(file.getRelativePath(), file));
+        });
+
+        assertEquals(4, total);
+        assertEquals(4, files.size());
+        assertEquals(List.of(3, 1), batchSizes);
+        FileCatalogScanner.ScannedFile png = files.get("avatar/2026/10/18/a.png");
+        assertNotNull(png);
+        assertEquals(3, png.getSize());
+        assertEquals(1_000_000L, png.getLastModified());
+        assertEquals(7, files.get("document/2026/10/18/c.pdf").getSize());
+        assertTrue(files.containsKey("readme.txt"));
+    }
+
+    @Test
+    @DisplayName("空目录不输出批次")
+    void emptyRoot() throws Exception {
+        List<Integer> batchSizes = new ArrayList<>();
+        assertEquals(0, FileCatalogScanner.scan(tempDir, 10, batch -> batchSizes.add(batch.size())));
+        assertTrue(batchSizes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("路径规范化、分类、文件名和扩展名")
+    void pathParts() {
+        assertEquals("avatar/2026/a.png", FileCatalogScanner.normalize("\\avatar\\2026\\a.png"));
+        assertEquals("avatar/2026/a.png", FileCatalogScanner.normalize("//avatar/2026/a.png"));
+
+        assertEquals("avatar", FileCatalogScanner.categoryOf("/avatar/2026/a.png"));
+        assertEquals("", FileCatalogScanner.categoryOf("readme.txt"));
+
+        assertEquals("a.png", FileCatalogScanner.fileNameOf("avatar/2026/a.png"));
+        assertEquals("readme.txt", FileCatalogScanner.fileNameOf("readme.txt"));
+
+        assertEquals("jpg", FileCatalogScanner.extensionOf("B.JPG"));
+        assertEquals("gz", FileCatalogScanner.extensionOf("backup.sql.gz"));
+        assertEquals("", FileCatalogScanner.extensionOf(".gitignore"));
+        assertEquals("", FileCatalogScanner.extensionOf("noext"));
+        assertEquals("", FileCatalogScanner.extensionOf("trailing."));
+        assertEquals("", FileCatalogScanner.extensionOf("dir.d/file"));
+        assertEquals("", FileCatalogScanner.extensionOf(null));
+    }
+
+    private void write(String relativePath, int size, long lastModified) throws Exception {
+        Path file = tempDir.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified));
+    }
+}
@@ -0,0 +1,171 @@
+package com.jiuxi.shared.infrastructure.file;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 文件下载输出测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("文件下载输出测试")
+class FileRangeSenderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File file;
+
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        content = new byte[1000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        file = tempDir.resolve("video.mp4").toFile();
+        Files.write(file.toPath(), content);
+    }
+
+    @Test
+    @DisplayName("无 Range 时输出完整文件并带上 ETag 与 Last-Modified")
+    void fullFile() throws Exception {
+        MockHttpServletResponse response = send(new MockHttpServletRequest("GET", "/download"));
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(content, response.getContentAsByteArray());
+        assertEquals(1000, response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader("Accept-Ranges"));
+        assertNotNull(response.getHeader("ETag"));
+        assertTrue(response.getHeader("Content-Disposition").startsWith("attachment"));
+    }
+
+    @Test
+    @DisplayName("单段 Range 返回 206 和对应区间")
+    void singleRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=100-199");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 200), response.getContentAsByteArray());
+
+        request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=-10");
+        response = send(request);
+        assertEquals("bytes 990-999/1000", response.getHeader("Content-Range"));
+        assertArrayEquals(Arrays.copyOfRange(content, 990, 1000), response.getContentAsByteArray());
+    }
+
+    @Test
+    @DisplayName("多段 Range 返回 multipart/byteranges，长度与实际输出一致")
+    void multiRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=0-9, 500-509");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertTrue(response.getContentType().startsWith("multipart/byteranges; boundary="));
+        byte[] body = response.getContentAsByteArray();
+        assertEquals(body.length, response.getContentLengthLong());
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertTrue(text.contains("Content-Range: bytes 0-9/1000\r\n\r\n" + new String(content, 0, 10, StandardCharsets.ISO_8859_1)));
+        assertTrue(text.contains("Content-Range: bytes 500-509/1000\r\n\r\n" + new String(content, 500, 10, StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    @DisplayName("超出文件长度的 Range 返回 416，格式错误的 Range 忽略")
+    void invalidRange() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=2000-3000");
+        MockHttpServletResponse response = send(request);
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader("Content-Range"));
+
+        request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "items=1-2");
+        response = send(request);
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("ETag 或修改时间未变化时返回 304，If-Range 不匹配时返回完整文件")
+    void conditional() throws Exception {
+        String etag = send(new MockHttpServletRequest("GET", "/download")).getHeader("ETag");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("If-None-Match", etag);
+        MockHttpServletResponse response = send(request);
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("If-Modified-Since", file.lastModified() + 1000);
+        assertEquals(304, send(request).getStatus());
+
+        request = new MockHttpServletRequest("GET", "/download");
+        request.addHeader("Range", "bytes=0-9");
+        request.addHeader("If-Range", "\"stale\"");
+        response = send(request);
+        assertEquals(200, response.getStatus());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("Tomcat 支持 sendfile 时只设置请求属性，不经输出流写出")
+    void sendfile() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/download");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader("Range", "bytes=10-19");
+        MockHttpServletResponse response = send(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(file.getCanonicalPath(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    @DisplayName("上传写入使用直接缓冲区，内容一致")
+    void bufferPoolCopy() throws Exception {
+        byte[] data = new byte[200 * 1024 + 7];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        Path target = tempDir.resolve("upload.bin");
+        DirectBufferPool pool = new DirectBufferPool(4096, 2);
+
+        assertEquals(data.length, pool.copy(new ByteArrayInputStream(data), target));
+        assertArrayEquals(data, Files.readAllBytes(target));
+
+        Path copy = tempDir.resolve("copy.bin");
+        try (java.io.FileInputStream in = new java.io.FileInputStream(target.toFile())) {
+            assertEquals(data.length, pool.copy(in, copy));
+        }
+        assertArrayEquals(data, Files.readAllBytes(copy));
+    }
+
+    private MockHttpServletResponse send(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeSender.send(file, "视频.mp4", "video/mp4", false, request, response);
+        return response;
+    }
+}
@@ -0,0 +1,209 @@
+package com.jiuxi.shared.infrastructure.persistence.backup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式备份引擎与备份文件校验测试，用模拟的命令执行器代替 mysqldump
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("流式备份引擎测试")
+class MysqlDumpEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("单进程备份：压缩写入、摘要一致、密码不出现在命令中")
+    void singleDump() throws Exception {
+        FakeRunner runner = new FakeRunner();
+        MysqlDumpEngine engine = new MysqlDumpEngine(options(1), runner);
+        Path target = tempDir.resolve("db.sql.gz");
+        DumpProgress progress = new DumpProgress();
+
+        DumpResult result = engine.dump(target, progress);
+
+        assertEquals(1, result.getParts());
+        assertEquals(Files.size(target), result.getFileBytes());
+        assertEquals(progress.getWrittenBytes(), result.getFileBytes());
+        assertTrue(result.getRawBytes() > result.getFileBytes());
+        String content = gunzip(target);
+        assertEquals(result.getRawBytes(), content.getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(content.contains("--databases ps"));
+
+        assertEquals(1, runner.commands.size());
+        assertFalse(String.join(" ", runner.commands.get(0)).contains("secret"));
+        assertFalse(engine.describeCommand().contains("secret"));
+        assertEquals("secret", runner.passwords.get(0));
+
+        DumpVerifyResult verify = DumpArchiveVerifier.verify(target, result.getSha256(), result.getParts());
+        assertTrue(verify.isValid(), verify.getMessage());
+        assertEquals(result.getSha256(), verify.getSha256());
+        assertEquals(result.getRawBytes(), verify.getRawBytes());
+    }
+
+    @Test
+    @DisplayName("按表并行备份：片段按顺序拼接，临时片段被删除")
+    void parallelDump() throws Exception {
+        FakeRunner runner = new FakeRunner();
+        MysqlDumpEngine engine = new MysqlDumpEngine(options(3), runner);
+        Path target = tempDir.resolve("db.sql.gz");
+        DumpProgress progress = new DumpProgress();
+
+        DumpResult result = engine.dump(target, progress);
+
+        // 库结构 + 3张表 + 触发器
+        assertEquals(5, result.getParts());
+        assertEquals(5, progress.getCompletedParts());
+        String content = gunzip(target);
+        int schema = content.indexOf("--no-data --skip-triggers");
+        int big = content.indexOf("ps t_big");
+        int small = content.indexOf("ps t_small");
+        int trigger = content.indexOf("--triggers ps");
+        assertTrue(schema >= 0 && schema < big && big < small && small < trigger, content);
+
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(1, files.count());
+        }
+
+        DumpVerifyResult verify = DumpArchiveVerifier.verify(target, result.getSha256(), result.getParts());
+        assertTrue(verify.isValid(), verify.getMessage());
+        assertEquals(5, verify.getCompletedParts());
+    }
+
+    @Test
+    @DisplayName("不压缩时输出纯文本")
+    void plainDump() throws Exception {
+        MysqlDumpOptions options = options(1);
+        options.setCompress(false);
+        Path target = tempDir.resolve("db.sql");
+
+        DumpResult result = new MysqlDumpEngine(options, new FakeRunner()).dump(target, new DumpProgress());
+
+        assertEquals(result.getRawBytes(), result.getFileBytes());
+        assertTrue(new String(Files.readAllBytes(target), StandardCharsets.UTF_8).startsWith("-- MySQL dump"));
+        assertTrue(DumpArchiveVerifier.verify(target, result.getSha256(), 1).isValid());
+    }
+
+    @Test
+    @DisplayName("导出失败时抛出异常并清理片段")
+    void failedPart() {
+        FakeRunner runner = new FakeRunner();
+        runner.failTable = "t_mid";
+        Path target = tempDir.resolve("db.sql.gz");
+
+        IOException e = assertThrows(IOException.class,
+                () -> new MysqlDumpEngine(options(2), runner).dump(target, new DumpProgress()));
+        assertTrue(e.getMessage().contains("Access denied"), e.getMessage());
+        assertFalse(Files.exists(target.resolveSibling("db.sql.gz.part0")));
+    }
+
+    @Test
+    @DisplayName("篡改、截断和缺少片段的备份文件校验不通过")
+    void detectsCorruption() throws Exception {
+        Path target = tempDir.resolve("db.sql.gz");
+        DumpResult result = new MysqlDumpEngine(options(1), new FakeRunner()).dump(target, new DumpProgress());
+        byte[] bytes = Files.readAllBytes(target);
+
+        Path tampered = tempDir.resolve("tampered.sql.gz");
+        byte[] copy = bytes.clone();
+        copy[copy.length / 2] ^= 0x55;
+        Files.write(tampered, copy);
+        DumpVerifyResult verify = DumpArchiveVerifier.verify(tampered, result.getSha256(), 1);
+        assertFalse(verify.isValid());
+        assertNotEquals(result.getSha256(), verify.getSha256());
+        // 不比对摘要时由 gzip 校验发现损坏
+        assertFalse(DumpArchiveVerifier.verify(tampered, null, 1).isValid());
+
+        Path truncated = tempDir.resolve("truncated.sql");
+        Files.write(truncated, "-- MySQL dump\nINSERT INTO t VALUES (1);\n".getBytes(StandardCharsets.UTF_8));
+        verify = DumpArchiveVerifier.verify(truncated, null, 0);
+        assertFalse(verify.isValid());
+        assertTrue(verify.getMessage().contains("结束标记"));
+
+        verify = DumpArchiveVerifier.verify(target, result.getSha256(), 3);
+        assertFalse(verify.isValid());
+
+        assertFalse(DumpArchiveVerifier.verify(tempDir.resolve("missing.sql.gz"), null, 0).isValid());
+    }
+
+    private static MysqlDumpOptions options(int parallelism) {
+        MysqlDumpOptions options = new MysqlDumpOptions();
+        options.setUsername("root");
+        options.setPassword("secret");
+        options.setDatabaseName("ps");
+        options.setParallelism(parallelism);
+        return options;
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8.name());
+        }
+    }
+
+    /**
+     * 模拟 mysql/mysqldump：查询表清单时输出表名，导出时把命令参数写进一段重复的 SQL 并以结束标记收尾
+     */
+    private static final class FakeRunner implements CommandRunner {
+
+        private final List<List<String>> commands = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<String> passwords = Collections.synchronizedList(new ArrayList<>());
+
+        private String failTable;
+
+        @Override
+        public int run(List<String> command, Map<String, String> environment, OutputStream stdout,
+                       OutputStream stderr, long timeoutMillis) throws IOException {
+            if ("mysql".equals(command.get(0))) {
+                stdout.write("t_big\nt_mid\nt_small\n".getBytes(StandardCharsets.UTF_8));
+                return 0;
+            }
+            commands.add(command);
+            passwords.add(environment.get("MYSQL_PWD"));
+            if (failTable != null && command.contains(failTable)) {
+                stderr.write("mysqldump: Got error: 1045: Access denied".getBytes(StandardCharsets.UTF_8));
+                return 2;
+            }
+
+            String args = String.join(" ", command.subList(1, command.size()));
+            StringBuilder sql = new StringBuilder("-- MySQL dump 10.13\n-- args: ").append(args).append('\n');
+            for (int i = 0; i < 500; i++) {
+                sql.append("INSERT INTO `t` VALUES (").append(i).append(",'").append(args).append("');\n");
+            }
+            sql.append("\n-- Dump completed on 2026-10-18 10:00:00\n");
+            stdout.write(sql.toString().getBytes(StandardCharsets.UTF_8));
+            return 0;
+        }
+
+        @Override
+        public void cancelAll() {
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.jiuxi.shared.infrastructure.persistence.batch;
+
+import com.jiuxi.shared.infrastructure.cache.SlidingWindowCounter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日志异步批量写入器与滑动窗口计数器测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("日志异步批量写入测试")
+class BatchLogWriterTest {
+
+    @Test
+    @DisplayName("达到条数阈值即刷盘，批大小不超过 batchSize")
+    void flushesOnBatchSize() throws InterruptedException {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch flushed = new CountDownLatch(2);
+        BatchLogWriter<Integer> writer = new BatchLogWriter<>("test", 100, 10, 60_000L, batch -> {
+            batchSizes.add(batch.size());
+            flushed.countDown();
+        });
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(writer.offer(i));
+        }
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        assertTrue(writer.shutdown(5_000L));
+        assertEquals(20L, writer.getWritten());
+        for (Integer size : batchSizes) {
+            assertTrue(size <= 10);
+        }
+    }
+
+    @Test
+    @DisplayName("不足一批时按时间阈值刷盘")
+    void flushesOnInterval() throws InterruptedException {
+        CountDownLatch flushed = new CountDownLatch(1);
+        BatchLogWriter<String> writer = new BatchLogWriter<>("test", 100, 1000, 50L, batch -> flushed.countDown());
+
+        writer.offer("row");
+        assertTrue(flushed.await(5, TimeUnit.SECONDS));
+        writer.close();
+        assertEquals(1L, writer.getWritten());
+    }
+
+    @Test
+    @DisplayName("缓冲区满时丢弃并计数，关闭时写完剩余数据")
+    void dropsWhenFullAndDrainsOnShutdown() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> rows = Collections.synchronizedList(new ArrayList<>());
+        BatchLogWriter<String> writer = new BatchLogWriter<>("test", 4, 1, 10L, batch -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            rows.addAll(batch);
+        });
+
+        // 第一行被后台线程取走并阻塞在写入中，之后最多再缓存 4 行
+        writer.offer("r0");
+        while (writer.getPending() > 0) {
+            Thread.sleep(1);
+        }
+        int accepted = 0;
+        for (int i = 1; i <= 10; i++) {
+            if (writer.offer("r" + i)) {
+                accepted++;
+            }
+        }
+        assertEquals(4, accepted);
+        assertEquals(6L, writer.getDropped());
+
+        release.countDown();
+        assertTrue(writer.shutdown(5_000L));
+        assertEquals(5, rows.size());
+        assertFalse(writer.offer("late"));
+        assertEquals(7L, writer.getDropped());
+    }
+
+    @Test
+    @DisplayName("写入失败只计数，不影响后续批次")
+    void failedBatchIsCounted() {
+        BatchLogWriter<String> writer = new BatchLogWriter<>("test", 100, 1, 10L, batch -> {
+            if ("bad".equals(batch.get(0))) {
+                throw new IllegalStateException("db down");
+            }
+        });
+        writer.offer("bad");
+        writer.offer("good");
+        assertTrue(writer.shutdown(5_000L));
+        assertEquals(1L, writer.getFailed());
+        assertEquals(1L, writer.getWritten());
+    }
+
+    @Test
+    @DisplayName("滑动窗口按分钟桶统计，过期桶被复用")
+    void slidingWindowCounter() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 5, 2);
+        long base = 10 * 60_000L;
+
+        counter.increment("1.1.1.1", base);
+        counter.increment("1.1.1.1", base + 60_000L);
+        counter.increment("1.1.1.1", base + 61_000L);
+
+        assertEquals(2L, counter.count("1.1.1.1", 60_000L, base + 61_000L));
+        assertEquals(3L, counter.count("1.1.1.1", 120_000L, base + 61_000L));
+        assertEquals(3L, counter.count("1.1.1.1", 3_600_000L, base + 61_000L));
+
+        // 5 个桶之后原桶位被新分钟复用
+        counter.increment("1.1.1.1", base + 5 * 60_000L);
+        assertEquals(3L, counter.count("1.1.1.1", 300_000L, base + 5 * 60_000L));
+        assertEquals(0L, counter.count("2.2.2.2", 300_000L, base));
+    }
+
+    @Test
+    @DisplayName("key 超限时先清理空闲 key，仍无空位时淘汰一个 key 跟踪新 key")
+    void slidingWindowEviction() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(60_000L, 5, 2);
+        counter.increment("a", 0L);
+        counter.increment("b", 0L);
+        counter.increment("c", 0L);
+        assertEquals(2, counter.size());
+        assertEquals(1L, counter.count("c", 60_000L, 0L));
+
+        counter.increment("d", 10 * 60_000L);
+        assertEquals(1, counter.size());
+        assertEquals(1L, counter.count("d", 60_000L, 10 * 60_000L));
+    }
+}
@@ -0,0 +1,92 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 限流 Lua 脚本的内嵌替身：按脚本逐行对应的 Java 实现，串行执行以模拟 Redis 单线程原子语义
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+class EmbeddedRateLimitScriptRunner implements RedisRateLimiterEngine.ScriptRunner {
+
+    private final Map<String, double[]> hashes = new HashMap<>();
+
+    private final Map<String, Double> values = new HashMap<>();
+
+    /**
+     * 模拟 Redis TIME，单位微秒
+     */
+    private final LongSupplier microClock;
+
+    private boolean failing;
+
+    EmbeddedRateLimitScriptRunner(LongSupplier microClock) {
+        this.microClock = microClock;
+    }
+
+    void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    @Override
+    public synchronized List<?> run(RedisScript<List> script, String key, String... args) {
+        if (failing) {
+            throw new IllegalStateException("redis unavailable");
+        }
+        double limit = Double.parseDouble(args[0]);
+        double window = Double.parseDouble(args[1]);
+        if (script == RedisRateLimiterEngine.SLIDING_WINDOW_SCRIPT) {
+            return slidingWindow(key, limit, window);
+        }
+        if (script == RedisRateLimiterEngine.TOKEN_BUCKET_SCRIPT) {
+            return tokenBucket(key, limit, window);
+        }
+        throw new IllegalArgumentException("unknown script");
+    }
+
+    private List<Long> slidingWindow(String key, double limit, double window) {
+        double now = Math.floor(microClock.getAsLong() / 1000.0);
+        double epoch = Math.floor(now / window);
+        double[] state = hashes.get(key);
+        double cur = state == null ? 0 : state[1];
+        double prev = state == null ? 0 : state[2];
+        if (state == null || state[0] != epoch) {
+            prev = state != null && state[0] == epoch - 1 ? cur : 0;
+            cur = 0;
+        }
+        double elapsed = now - epoch * window;
+        double estimate = prev * (window - elapsed) / window + cur + 1;
+        if (estimate > limit) {
+            double retry = window - elapsed;
+            if (cur + 1 <= limit && prev > 0) {
+                retry = Math.min(retry, Math.ceil((estimate - limit) * window / prev));
+            }
+            return Arrays.asList(0L, 0L, (long) Math.max(retry, 1));
+        }
+        hashes.put(key, new double[]{epoch, cur + 1, prev});
+        return Arrays.asList(1L, (long) Math.floor(limit - estimate), 0L);
+    }
+
+    private List<Long> tokenBucket(String key, double limit, double window) {
+        double now = microClock.getAsLong();
+        double interval = Math.max(Math.floor(window * 1000 / limit), 1);
+        double tolerance = interval * (Math.max(Math.floor(limit), 1) - 1);
+        double tat = values.getOrDefault(key, now);
+        if (tat < now) {
+            tat = now;
+        }
+        double ahead = tat - now;
+        if (ahead > tolerance) {
+            return Arrays.asList(0L, 0L, (long) Math.max(Math.ceil((ahead - tolerance) / 1000), 1));
+        }
+        values.put(key, tat + interval);
+        return Arrays.asList(1L, (long) Math.floor((tolerance - ahead) / interval), 0L);
+    }
+}
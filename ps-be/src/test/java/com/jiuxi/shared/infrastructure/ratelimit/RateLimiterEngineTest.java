@@ -0,0 +1,148 @@
+package com.jiuxi.shared.infrastructure.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 限流引擎测试，本地引擎与 Redis 引擎（内嵌脚本替身）使用同一组场景
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("限流引擎测试")
+class RateLimiterEngineTest {
+
+    private static final long MILLI = 1_000_000L;
+
+    private static final long START = 1_000_000L * MILLI;
+
+    private final AtomicLong nanos = new AtomicLong(START);
+
+    private LocalRateLimiterEngine local() {
+        return new LocalRateLimiterEngine(nanos::get);
+    }
+
+    private RedisRateLimiterEngine redis(EmbeddedRateLimitScriptRunner runner) {
+        return new RedisRateLimiterEngine(runner, local());
+    }
+
+    private EmbeddedRateLimitScriptRunner runner() {
+        return new EmbeddedRateLimitScriptRunner(() -> nanos.get() / 1000);
+    }
+
+    private void advanceMillis(long millis) {
+        nanos.addAndGet(millis * MILLI);
+    }
+
+    @Test
+    @DisplayName("滑动窗口：窗口内超限拒绝，上一窗口计数按比例衰减")
+    void slidingWindow() {
+        for (RateLimiterEngine engine : new RateLimiterEngine[]{local(), redis(runner())}) {
+            // 从窗口起点开始
+            nanos.set(START);
+            RateLimitRule rule = RateLimitRule.of(4, 1000, RateLimitAlgorithm.SLIDING_WINDOW);
+            for (int i = 0; i < 4; i++) {
+                assertTrue(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+            }
+            RateLimitDecision rejected = engine.tryAcquire("api", "c1", rule);
+            assertFalse(rejected.isAllowed(), engine.getType());
+            assertTrue(rejected.getRetryAfterMillis() > 0);
+
+            // 其他 key 不受影响
+            assertTrue(engine.tryAcquire("api", "c2", rule).isAllowed());
+
+            // 进入下一窗口 50%：上一窗口 4 次按一半计入，只能再放行 2 次
+            advanceMillis(1500);
+            assertTrue(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+            assertTrue(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+            assertFalse(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+
+            // 两个窗口后完全恢复
+            advanceMillis(2000);
+            assertEquals(3L, engine.tryAcquire("api", "c1", rule).getRemaining(), engine.getType());
+
+            assertEquals(8L, engine.getMetrics().getAllowed());
+            assertEquals(2L, engine.getMetrics().getRejected());
+            assertEquals(2L, engine.getMetrics().getResourceStatistics().get("api").get("rejected").longValue());
+        }
+    }
+
+    @Test
+    @DisplayName("令牌桶：允许突发到容量，之后按间隔匀速补充")
+    void tokenBucket() {
+        for (RateLimiterEngine engine : new RateLimiterEngine[]{local(), redis(runner())}) {
+            RateLimitRule rule = RateLimitRule.of(5, 1000, RateLimitAlgorithm.TOKEN_BUCKET);
+            for (int i = 4; i >= 0; i--) {
+                RateLimitDecision decision = engine.tryAcquire("api", "c1", rule);
+                assertTrue(decision.isAllowed(), engine.getType());
+                assertEquals(i, decision.getRemaining(), engine.getType());
+            }
+            RateLimitDecision rejected = engine.tryAcquire("api", "c1", rule);
+            assertFalse(rejected.isAllowed(), engine.getType());
+            assertEquals(200L, rejected.getRetryAfterMillis(), engine.getType());
+
+            advanceMillis(200);
+            assertTrue(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+            assertFalse(engine.tryAcquire("api", "c1", rule).isAllowed(), engine.getType());
+
+            advanceMillis(1000);
+            assertEquals(4L, engine.tryAcquire("api", "c1", rule).getRemaining(), engine.getType());
+        }
+    }
+
+    @Test
+    @DisplayName("Redis 异常时降级到本地引擎")
+    void fallsBackToLocal() {
+        EmbeddedRateLimitScriptRunner runner = runner();
+        RedisRateLimiterEngine engine = redis(runner);
+        RateLimitRule rule = RateLimitRule.of(1, 1000, RateLimitAlgorithm.SLIDING_WINDOW);
+
+        runner.setFailing(true);
+        assertTrue(engine.tryAcquire("api", "c1", rule).isAllowed());
+        assertFalse(engine.tryAcquire("api", "c1", rule).isAllowed());
+        assertEquals(2L, engine.getMetrics().getFallbacks());
+        assertEquals(1, engine.getMetrics().getTrackedKeys());
+    }
+
+    @Test
+    @DisplayName("本地引擎并发下不超发")
+    void localConcurrentNeverExceedsLimit() throws InterruptedException {
+        LocalRateLimiterEngine engine = local();
+        RateLimitRule window = RateLimitRule.of(1000, 60_000, RateLimitAlgorithm.SLIDING_WINDOW);
+        RateLimitRule bucket = RateLimitRule.of(1000, 60_000, RateLimitAlgorithm.TOKEN_BUCKET);
+        AtomicInteger windowAllowed = new AtomicInteger();
+        AtomicInteger bucketAllowed = new AtomicInteger();
+
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (engine.tryAcquire("api", "hot", window).isAllowed()) {
+                        windowAllowed.incrementAndGet();
+                    }
+                    if (engine.tryAcquire("api", "hot", bucket).isAllowed()) {
+                        bucketAllowed.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+
+        assertTrue(windowAllowed.get() <= 1000);
+        assertTrue(windowAllowed.get() >= 990);
+        assertEquals(1000, bucketAllowed.get());
+    }
+}
@@ -0,0 +1,279 @@
+package com.jiuxi.shared.security.audit;
+
+import com.jiuxi.shared.infrastructure.cache.RedisKeyScanner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计事件二级索引测试：索引写入、按索引查询、过期ID清理
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("审计事件二级索引测试")
+class AuditEventIndexTest {
+
+    private static final String EVENT_PREFIX = "ps:security:audit:event:";
+
+    private static final String QUEUE_KEY = "ps:security:audit:queue";
+
+    /**
+     * 旧版本写在索引前缀下的补建标记，字符串类型
+     */
+    private static final String LEGACY_BUILT_KEY = AuditEventIndex.INDEX_PREFIX + "built";
+
+    private static final String INDEX_BUILT_KEY = "ps:security:audit:meta:index-built";
+
+    private static final String INDEX_BUILDING_KEY = "ps:security:audit:meta:index-building";
+
+    private InMemoryAuditRedis redis;
+
+    private AuditLogService auditLogService;
+
+    private AuditEventPublisher auditEventPublisher;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        redis = new InMemoryAuditRedis();
+        RedisKeyScanner redisKeyScanner = new RedisKeyScanner(redis.template());
+        auditLogService = new AuditLogService();
+        ReflectionTestUtils.setField(auditLogService, "redisTemplate", redis.template());
+        ReflectionTestUtils.setField(auditLogService, "redisKeyScanner", redisKeyScanner);
+        auditEventPublisher = new AuditEventPublisher();
+        ReflectionTestUtils.setField(auditEventPublisher, "redisTemplate", redis.template());
+        ReflectionTestUtils.setField(auditEventPublisher, "redisKeyScanner", redisKeyScanner);
+        base = LocalDateTime.now().minusHours(5);
+    }
+
+    @Test
+    @DisplayName("每个维度写入一个按时间排序的索引，并按小时计数")
+    void testWriteIndexes() {
+        AuditEvent event = event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 0);
+        persist(event);
+
+        List<String> keys = AuditEventIndex.keysOf(event);
+        assertEquals(Arrays.asList(
+                AuditEventIndex.INDEX_ALL,
+                AuditEventIndex.userKey("U1"),
+                AuditEventIndex.INDEX_PREFIX + "type:LOGIN_SUCCESS",
+                AuditEventIndex.INDEX_PREFIX + "category:AUTHENTICATION",
+                AuditEventIndex.INDEX_PREFIX + "level:INFO",
+                AuditEventIndex.INDEX_PREFIX + "result:SUCCESS",
+                AuditEventIndex.INDEX_PREFIX + "ip:10.0.0.1"), keys);
+        for (String key : keys) {
+            assertTrue(AuditEventIndex.isIndexKey(key), key);
+            assertEquals(Set.of("e1"), redis.members(key), key);
+        }
+
+        String hourKey = AuditEventIndex.hourKey(event.getTimestamp());
+        assertEquals(1L, redis.hash(hourKey).get("total"));
+        assertEquals(1L, redis.hash(hourKey).get("result:SUCCESS"));
+        assertEquals(Set.of("U1"), redis.members(hourKey + ":users"));
+        assertEquals(Set.of("10.0.0.1"), redis.members(hourKey + ":ips"));
+    }
+
+    @Test
+    @DisplayName("写入时裁掉索引中超过保留期的事件ID")
+    void testWriteTrimsExpired() {
+        redis.addMember(AuditEventIndex.INDEX_ALL, "old", expiredScore());
+        redis.addMember(AuditEventIndex.userKey("U1"), "old", expiredScore());
+
+        persist(event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, null, 0));
+
+        assertEquals(Set.of("e1"), redis.members(AuditEventIndex.INDEX_ALL));
+        assertEquals(Set.of("e1"), redis.members(AuditEventIndex.userKey("U1")));
+    }
+
+    @Test
+    @DisplayName("只有事件索引ZSET被识别为索引键")
+    void testIsIndexKey() {
+        assertTrue(AuditEventIndex.isIndexKey(AuditEventIndex.INDEX_ALL));
+        assertTrue(AuditEventIndex.isIndexKey(AuditEventIndex.userKey("U1")));
+        assertTrue(AuditEventIndex.isIndexKey(AuditEventIndex.INDEX_PREFIX + "ip:10.0.0.1"));
+
+        assertFalse(AuditEventIndex.isIndexKey(LEGACY_BUILT_KEY));
+        assertFalse(AuditEventIndex.isIndexKey(AuditEventIndex.TEMP_PREFIX + "abc"));
+        assertFalse(AuditEventIndex.isIndexKey(AuditEventIndex.hourKey(LocalDateTime.now())));
+        assertFalse(AuditEventIndex.isIndexKey(null));
+    }
+
+    @Test
+    @DisplayName("按单个条件、多个条件、时间范围和关键词查询，结果按时间倒序分页")
+    void testQuery() {
+        persist(event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 0),
+                event("e2", "U2", AuditEventType.LOGIN_FAILURE, AuditResult.FAILURE, "10.0.0.2", 10),
+                event("e3", "U1", AuditEventType.LOGIN_FAILURE, AuditResult.FAILURE, "10.0.0.1", 20),
+                event("e4", "U1", AuditEventType.LOGOUT_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 30),
+                event("e5", "U2", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.2", 40));
+
+        assertEquals(List.of("e5", "e4", "e3", "e2", "e1"), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        assertEquals(List.of("e4", "e3", "e1"), ids(AuditLogService.AuditQueryCriteria.builder().userId("U1").build()));
+        assertEquals(List.of("e3"), ids(AuditLogService.AuditQueryCriteria.builder()
+                .userId("U1").result(AuditResult.FAILURE).build()));
+        assertEquals(List.of("e2"), ids(AuditLogService.AuditQueryCriteria.builder()
+                .eventType(AuditEventType.LOGIN_FAILURE).clientIp("10.0.0.2").build()));
+        assertEquals(List.of(), ids(AuditLogService.AuditQueryCriteria.builder()
+                .userId("U2").clientIp("10.0.0.1").build()));
+
+        assertEquals(List.of("e4", "e3", "e2"), ids(AuditLogService.AuditQueryCriteria.builder()
+                .startTime(base.plusMinutes(5)).endTime(base.plusMinutes(35)).build()));
+        assertEquals(List.of("e3", "e2"), ids(AuditLogService.AuditQueryCriteria.builder().offset(2).limit(2).build()));
+        assertEquals(List.of("e1"), ids(AuditLogService.AuditQueryCriteria.builder().offset(4).limit(10).build()));
+
+        // 关键词不走索引，在候选事件中过滤
+        assertEquals(List.of("e4"), ids(AuditLogService.AuditQueryCriteria.builder().keyword("注销").build()));
+    }
+
+    @Test
+    @DisplayName("首次查询时为建索引之前写入的事件补建索引，补建标记不在索引前缀下")
+    void testRebuildBeforeFirstQuery() {
+        AuditEvent older = event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, null, 0);
+        AuditEvent newer = event("e2", "U1", AuditEventType.LOGIN_FAILURE, AuditResult.FAILURE, null, 10);
+        for (AuditEvent event : Arrays.asList(older, newer)) {
+            redis.template().opsForValue().set(EVENT_PREFIX + event.getEventId(), event, 30, TimeUnit.DAYS);
+            redis.template().opsForList().leftPush(QUEUE_KEY, event.getEventId());
+        }
+        assertFalse(redis.exists(AuditEventIndex.INDEX_ALL));
+
+        assertEquals(List.of("e2", "e1"), ids(AuditLogService.AuditQueryCriteria.builder().userId("U1").build()));
+        assertEquals(Set.of("e1", "e2"), redis.members(AuditEventIndex.INDEX_ALL));
+        assertTrue(redis.exists(INDEX_BUILT_KEY));
+        assertFalse(redis.exists(LEGACY_BUILT_KEY));
+    }
+
+    @Test
+    @DisplayName("补建中途失败时不写入标记，下次查询重新补建")
+    void testRebuildRetriedAfterFailure() {
+        AuditEvent event = event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, null, 0);
+        redis.template().opsForValue().set(EVENT_PREFIX + event.getEventId(), event, 30, TimeUnit.DAYS);
+        redis.template().opsForList().leftPush(QUEUE_KEY, event.getEventId());
+
+        redis.failPipelines(1);
+        assertEquals(List.of(), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        assertFalse(redis.exists(INDEX_BUILT_KEY));
+        assertFalse(redis.exists(INDEX_BUILDING_KEY));
+
+        assertEquals(List.of("e1"), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        assertTrue(redis.exists(INDEX_BUILT_KEY));
+    }
+
+    @Test
+    @DisplayName("其它节点正在补建时不重复补建，锁释放后由本节点补建")
+    void testRebuildSkippedWhileLocked() {
+        AuditEvent event = event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, null, 0);
+        redis.template().opsForValue().set(EVENT_PREFIX + event.getEventId(), event, 30, TimeUnit.DAYS);
+        redis.template().opsForList().leftPush(QUEUE_KEY, event.getEventId());
+        redis.putString(INDEX_BUILDING_KEY, "other-node");
+
+        assertEquals(List.of(), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        assertFalse(redis.exists(INDEX_BUILT_KEY));
+        assertEquals("other-node", redis.value(INDEX_BUILDING_KEY));
+
+        redis.delete(INDEX_BUILDING_KEY);
+        assertEquals(List.of("e1"), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        assertTrue(redis.exists(INDEX_BUILT_KEY));
+    }
+
+    @Test
+    @DisplayName("多条件查询的临时集合每次查询各不相同")
+    void testTempKeysPerQuery() {
+        persist(event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 0));
+        AuditLogService.AuditQueryCriteria criteria = AuditLogService.AuditQueryCriteria.builder()
+                .userId("U1").clientIp("10.0.0.1").build();
+
+        assertEquals(List.of("e1"), ids(criteria));
+        assertEquals(List.of("e1"), ids(criteria));
+        assertEquals(2, redis.keysWithPrefix(AuditEventIndex.TEMP_PREFIX).size());
+    }
+
+    @Test
+    @DisplayName("定时清理裁掉所有索引中的过期ID，跳过补建标记和临时集合")
+    void testCleanupSkipsNonIndexKeys() {
+        persist(event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 0));
+        List<String> indexKeys = AuditEventIndex.keysOf(
+                event("x", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, "10.0.0.1", 0));
+        for (String key : indexKeys) {
+            redis.addMember(key, "expired", expiredScore());
+        }
+        String tempKey = AuditEventIndex.TEMP_PREFIX + "abc";
+        redis.addMember(tempKey, "expired", expiredScore());
+        // 升级前的节点写入的字符串标记，对它执行 ZREMRANGEBYSCORE 会报 WRONGTYPE
+        redis.putString(LEGACY_BUILT_KEY, LocalDateTime.now().toString());
+
+        auditEventPublisher.cleanupExpiredEvents();
+
+        for (String key : indexKeys) {
+            assertEquals(Set.of("e1"), redis.members(key), key);
+        }
+        assertEquals(Set.of("expired"), redis.members(tempKey));
+        assertTrue(redis.value(LEGACY_BUILT_KEY) instanceof String);
+    }
+
+    @Test
+    @DisplayName("查询写入补建标记后，定时清理仍然正常执行")
+    void testCleanupAfterQuery() {
+        persist(event("e1", "U1", AuditEventType.LOGIN_SUCCESS, AuditResult.SUCCESS, null, 0));
+        assertEquals(List.of("e1"), ids(AuditLogService.AuditQueryCriteria.builder().build()));
+        redis.addMember(AuditEventIndex.INDEX_ALL, "expired", expiredScore());
+
+        auditEventPublisher.cleanupExpiredEvents();
+
+        assertEquals(Set.of("e1"), redis.members(AuditEventIndex.INDEX_ALL));
+    }
+
+    private List<String> ids(AuditLogService.AuditQueryCriteria criteria) {
+        return auditLogService.queryAuditEvents(criteria).stream()
+                .map(AuditEvent::getEventId)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 与发布器持久化一批事件时的写入相同
+     */
+    private void persist(AuditEvent... events) {
+        List<AuditEvent> batch = new ArrayList<>(Arrays.asList(events));
+        redis.template().executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                for (AuditEvent event : batch) {
+                    ops.opsForValue().set(EVENT_PREFIX + event.getEventId(), event, 30, TimeUnit.DAYS);
+                    ops.opsForList().leftPush(QUEUE_KEY, event.getEventId());
+                }
+                AuditEventIndex.write(ops, batch);
+                return null;
+            }
+        });
+    }
+
+    private AuditEvent event(String id, String userId, AuditEventType type, AuditResult result, String clientIp, int minutes) {
+        AuditEvent event = new AuditEvent(type, type.getDisplayName(), type.getDescription());
+        event.setEventId(id);
+        event.setUserId(userId);
+        event.setClientIp(clientIp);
+        event.setResult(result);
+        event.setTimestamp(base.plusMinutes(minutes));
+        return event;
+    }
+
+    private static double expiredScore() {
+        return AuditEventIndex.toMillis(LocalDateTime.now().minusDays(AuditEventIndex.RETENTION_DAYS + 1L));
+    }
+}
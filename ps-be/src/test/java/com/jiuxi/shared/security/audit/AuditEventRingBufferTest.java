@@ -0,0 +1,86 @@
+package com.jiuxi.shared.security.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 审计环形缓冲区测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("审计环形缓冲区测试")
+class AuditEventRingBufferTest {
+
+    @Test
+    @DisplayName("容量取整为2的幂，满时拒绝写入，先进先出")
+    void boundedFifo() {
+        AuditEventRingBuffer<Integer> buffer = new AuditEventRingBuffer<>(3);
+        assertEquals(4, buffer.capacity());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        assertEquals(0, buffer.poll());
+        assertTrue(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals(Arrays.asList(1, 2, 3, 4), drained);
+        assertNull(buffer.poll());
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    @DisplayName("多生产者并发写入不丢失、不重复")
+    void concurrentProducers() throws InterruptedException {
+        int producers = 4;
+        int perProducer = 20000;
+        AuditEventRingBuffer<Integer> buffer = new AuditEventRingBuffer<>(1024);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+
+        Set<Integer> seen = new HashSet<>();
+        List<Integer> batch = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + 30000;
+        while (seen.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+            batch.clear();
+            buffer.drainTo(batch, 256);
+            for (Integer value : batch) {
+                assertTrue(seen.add(value), "duplicate " + value);
+            }
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(producers * perProducer, seen.size());
+        assertTrue(buffer.isEmpty());
+    }
+}
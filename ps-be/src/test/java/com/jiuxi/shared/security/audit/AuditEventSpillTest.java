@@ -0,0 +1,162 @@
+package com.jiuxi.shared.security.audit;
+
+import com.alibaba.fastjson.JSON;
+import com.jiuxi.shared.security.config.SecurityProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 审计事件写入失败与溢出文件回放测试
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("审计事件溢出回放测试")
+class AuditEventSpillTest {
+
+    private static final String QUEUE_KEY = "ps:security:audit:queue";
+
+    @TempDir
+    Path tempDir;
+
+    private Path spillFile;
+
+    private InMemoryAuditRedis redis;
+
+    /**
+     * 第 failAt 次 pipeline 调用抛出连接异常，0 表示不失败
+     */
+    private int failAt;
+
+    private AtomicInteger pipelines;
+
+    private AuditEventPublisher publisher;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        spillFile = tempDir.resolve("audit-spill.jsonl");
+        redis = new InMemoryAuditRedis();
+        pipelines = new AtomicInteger();
+        RedisTemplate<String, Object> flaky = mock(RedisTemplate.class);
+        doAnswer(inv -> {
+            if (pipelines.incrementAndGet() == failAt) {
+                throw new RedisConnectionFailureException("Redis不可用");
+            }
+            return redis.template().executePipelined(inv.<SessionCallback<?>>getArgument(0));
+        }).when(flaky).executePipelined(any(SessionCallback.class));
+
+        publisher = new AuditEventPublisher();
+        ReflectionTestUtils.setField(publisher, "securityProperties", new SecurityProperties());
+        ReflectionTestUtils.setField(publisher, "redisTemplate", flaky);
+        ReflectionTestUtils.setField(publisher, "backpressure", AuditEventPublisher.Backpressure.SPILL);
+        ReflectionTestUtils.setField(publisher, "spillFile", spillFile);
+    }
+
+    @Test
+    @DisplayName("写入失败时SPILL策略整批溢出，不计入已发布")
+    void testFailedBatchSpilled() throws Exception {
+        failAt = 1;
+
+        assertFalse(publisher.flush(Arrays.asList(event("e1"), event("e2")), false));
+
+        assertEquals(2, Files.readAllLines(spillFile, StandardCharsets.UTF_8).size());
+        AuditEventPublisher.AuditPublishStatistics stats = publisher.getStatistics();
+        assertEquals(0, stats.getPublishedEvents());
+        assertEquals(0, stats.getFailedEvents());
+        assertEquals(2, stats.getSpilledEvents());
+        assertFalse(redis.exists(QUEUE_KEY));
+    }
+
+    @Test
+    @DisplayName("其它策略写入失败时计入失败，不计入已发布")
+    void testFailedBatchCounted() {
+        ReflectionTestUtils.setField(publisher, "backpressure", AuditEventPublisher.Backpressure.DROP_LOWEST);
+        failAt = 1;
+
+        assertFalse(publisher.flush(Arrays.asList(event("e1"), event("e2")), false));
+
+        assertFalse(Files.exists(spillFile));
+        assertEquals(0, publisher.getStatistics().getPublishedEvents());
+        assertEquals(2, publisher.getStatistics().getFailedEvents());
+    }
+
+    @Test
+    @DisplayName("回放中途写入失败时保留文件，恢复后从偏移处继续，不重复写入")
+    void testReplayResumesFromOffset() throws Exception {
+        writeSpill("e1", "e2", "e3", "e4", "e5");
+        failAt = 2;
+
+        publisher.replaySpill(2);
+        Path replaying = tempDir.resolve("audit-spill.jsonl.replaying");
+        assertTrue(Files.exists(replaying));
+        assertEquals(Set.of("e1", "e2"), redis.members(AuditEventIndex.INDEX_ALL));
+        assertEquals(2, publisher.getStatistics().getPublishedEvents());
+        assertEquals(0, publisher.getStatistics().getFailedEvents());
+
+        // 重试间隔内不再回放
+        publisher.replaySpill(2);
+        assertEquals(2, pipelines.get());
+
+        ReflectionTestUtils.setField(publisher, "replayNotBefore", 0L);
+        publisher.replaySpill(2);
+        assertFalse(Files.exists(replaying));
+        assertFalse(Files.exists(tempDir.resolve("audit-spill.jsonl.replaying.offset")));
+        assertEquals(Set.of("e1", "e2", "e3", "e4", "e5"), redis.members(AuditEventIndex.INDEX_ALL));
+        assertEquals(5, (long) redis.template().opsForList().size(QUEUE_KEY));
+        assertEquals(5, publisher.getStatistics().getPublishedEvents());
+    }
+
+    @Test
+    @DisplayName("Redis不可用时回放不删除溢出文件")
+    void testReplayKeepsFileWhileRedisDown() throws Exception {
+        writeSpill("e1");
+        failAt = 1;
+
+        publisher.replaySpill(10);
+
+        Path replaying = tempDir.resolve("audit-spill.jsonl.replaying");
+        assertTrue(Files.exists(replaying));
+        assertEquals(1, Files.readAllLines(replaying, StandardCharsets.UTF_8).size());
+        assertEquals(0, publisher.getStatistics().getPublishedEvents());
+    }
+
+    private void writeSpill(String... ids) throws Exception {
+        List<String> lines = new ArrayList<>();
+        for (String id : ids) {
+            lines.add(JSON.toJSONString(event(id)));
+        }
+        Files.write(spillFile, lines, StandardCharsets.UTF_8);
+    }
+
+    private static AuditEvent event(String id) {
+        AuditEvent event = new AuditEvent(AuditEventType.LOGIN_SUCCESS,
+                AuditEventType.LOGIN_SUCCESS.getDisplayName(), AuditEventType.LOGIN_SUCCESS.getDescription());
+        event.setEventId(id);
+        event.setUserId("U1");
+        event.setResult(AuditResult.SUCCESS);
+        event.setTimestamp(LocalDateTime.now().minusMinutes(1));
+        return event;
+    }
+}
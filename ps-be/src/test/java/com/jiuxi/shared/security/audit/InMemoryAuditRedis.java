@@ -0,0 +1,315 @@
+package com.jiuxi.shared.security.audit;
+
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 审计测试用的内存 Redis：只实现审计索引、查询、清理用到的命令，
+ * 键的类型与 Redis 一致，对非 ZSET 键执行 ZSET 命令时抛出 WRONGTYPE
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+final class InMemoryAuditRedis {
+
+    private final Map<String, Object> keyspace = new TreeMap<>();
+
+    private final RedisTemplate<String, Object> template;
+
+    /**
+     * pipeline 中各命令的返回值，不在 pipeline 中时为 null
+     */
+    private List<Object> pipelineResults;
+
+    /**
+     * 还需失败的 pipeline 次数
+     */
+    private int failingPipelines;
+
+    @SuppressWarnings("unchecked")
+    InMemoryAuditRedis() {
+        template = mock(RedisTemplate.class);
+        ZSetOperations<String, Object> zSetOps = mock(ZSetOperations.class);
+        ValueOperations<String, Object> valueOps = mock(ValueOperations.class);
+        HashOperations<String, Object, Object> hashOps = mock(HashOperations.class);
+        ListOperations<String, Object> listOps = mock(ListOperations.class);
+        when(template.opsForZSet()).thenReturn(zSetOps);
+        when(template.opsForValue()).thenReturn(valueOps);
+        when(template.<Object, Object>opsForHash()).thenReturn(hashOps);
+        when(template.opsForList()).thenReturn(listOps);
+
+        when(template.expire(anyString(), anyLong(), any(TimeUnit.class))).thenAnswer(inv -> keyspace.containsKey(inv.<String>getArgument(0)));
+        when(template.hasKey(anyString())).thenAnswer(inv -> keyspace.containsKey(inv.<String>getArgument(0)));
+        when(template.delete(anyString())).thenAnswer(inv -> keyspace.remove(inv.<String>getArgument(0)) != null);
+        when(template.executePipelined(any(SessionCallback.class))).thenAnswer(inv -> {
+            if (failingPipelines > 0) {
+                failingPipelines--;
+                throw new RedisSystemException("Connection reset", null);
+            }
+            pipelineResults = new ArrayList<>();
+            try {
+                inv.<SessionCallback<?>>getArgument(0).execute(template);
+                return pipelineResults;
+            } finally {
+                pipelineResults = null;
+            }
+        });
+        when(template.scan(any(ScanOptions.class))).thenAnswer(inv -> cursor(inv.<ScanOptions>getArgument(0).getPattern()));
+
+        when(zSetOps.add(anyString(), any(), anyDouble())).thenAnswer(inv ->
+                record(zset(inv.getArgument(0), true).put(inv.getArgument(1), inv.<Double>getArgument(2)) == null));
+        when(zSetOps.incrementScore(anyString(), any(), anyDouble())).thenAnswer(inv ->
+                record(zset(inv.getArgument(0), true).merge(inv.getArgument(1), inv.<Double>getArgument(2), Double::sum)));
+        when(zSetOps.removeRangeByScore(anyString(), anyDouble(), anyDouble())).thenAnswer(inv -> {
+            Map<Object, Double> zset = zset(inv.getArgument(0), false);
+            long removed = 0;
+            if (zset != null) {
+                double min = inv.getArgument(1);
+                double max = inv.getArgument(2);
+                for (Iterator<Double> it = zset.values().iterator(); it.hasNext(); ) {
+                    double score = it.next();
+                    if (score >= min && score <= max) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+                removeIfEmpty(inv.getArgument(0));
+            }
+            return record(removed);
+        });
+        when(zSetOps.count(anyString(), anyDouble(), anyDouble())).thenAnswer(inv ->
+                (long) reverseRange(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), 0, -1).size());
+        when(zSetOps.reverseRangeByScore(anyString(), anyDouble(), anyDouble())).thenAnswer(inv ->
+                reverseRange(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), 0, -1));
+        when(zSetOps.reverseRangeByScore(anyString(), anyDouble(), anyDouble(), anyLong(), anyLong())).thenAnswer(inv ->
+                reverseRange(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3), inv.getArgument(4)));
+        when(zSetOps.intersectAndStore(anyString(), anyCollection(), anyString(), any(RedisZSetCommands.Aggregate.class))).thenAnswer(inv -> {
+            Map<Object, Double> result = new HashMap<>();
+            Map<Object, Double> first = zset(inv.getArgument(0), false);
+            if (first != null) {
+                result.putAll(first);
+            }
+            for (Object other : inv.<Collection<?>>getArgument(1)) {
+                Map<Object, Double> zset = zset((String) other, false);
+                if (zset == null) {
+                    result.clear();
+                    break;
+                }
+                result.keySet().retainAll(zset.keySet());
+                result.replaceAll((member, score) -> Math.max(score, zset.get(member)));
+            }
+            keyspace.remove(inv.<String>getArgument(2));
+            if (!result.isEmpty()) {
+                zset(inv.getArgument(2), true).putAll(result);
+            }
+            return (long) result.size();
+        });
+
+        when(valueOps.get(any())).thenAnswer(inv -> {
+            Object value = keyspace.get(inv.<String>getArgument(0));
+            return value instanceof ZSet || value instanceof Hash || value instanceof LinkedList ? null : value;
+        });
+        when(valueOps.multiGet(anyCollection())).thenAnswer(inv -> {
+            List<Object> values = new ArrayList<>();
+            for (Object key : inv.<Collection<?>>getArgument(0)) {
+                values.add(keyspace.get((String) key));
+            }
+            return values;
+        });
+        when(valueOps.setIfAbsent(anyString(), any())).thenAnswer(inv ->
+                keyspace.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        when(valueOps.setIfAbsent(anyString(), any(), anyLong(), any(TimeUnit.class))).thenAnswer(inv ->
+                keyspace.putIfAbsent(inv.getArgument(0), inv.getArgument(1)) == null);
+        doAnswer(inv -> keyspace.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOps).set(anyString(), any());
+        doAnswer(inv -> keyspace.put(inv.getArgument(0), inv.getArgument(1)))
+                .when(valueOps).set(anyString(), any(), anyLong(), any(TimeUnit.class));
+
+        when(hashOps.increment(anyString(), any(), anyLong())).thenAnswer(inv -> {
+            Hash hash = (Hash) keyspace.computeIfAbsent(inv.getArgument(0), key -> new Hash());
+            return record(hash.merge(inv.getArgument(1), inv.<Long>getArgument(2), (a, b) -> (Long) a + (Long) b));
+        });
+
+        when(listOps.leftPush(anyString(), any())).thenAnswer(inv -> {
+            LinkedList<Object> list = list(inv.getArgument(0));
+            list.addFirst(inv.getArgument(1));
+            return record((long) list.size());
+        });
+        when(listOps.range(anyString(), anyLong(), anyLong())).thenAnswer(inv -> {
+            LinkedList<Object> list = list(inv.getArgument(0));
+            long end = inv.<Long>getArgument(2);
+            int to = end < 0 ? list.size() : (int) Math.min(list.size(), end + 1);
+            return new ArrayList<>(list.subList((int) Math.min(inv.<Long>getArgument(1), to), to));
+        });
+        when(listOps.size(anyString())).thenAnswer(inv -> (long) list(inv.getArgument(0)).size());
+    }
+
+    RedisTemplate<String, Object> template() {
+        return template;
+    }
+
+    boolean exists(String key) {
+        return keyspace.containsKey(key);
+    }
+
+    Object value(String key) {
+        return keyspace.get(key);
+    }
+
+    /**
+     * ZSET 的全部成员，键不存在时为空集合
+     */
+    Set<Object> members(String key) {
+        Map<Object, Double> zset = zset(key, false);
+        return zset == null ? new LinkedHashSet<>() : new LinkedHashSet<>(zset.keySet());
+    }
+
+    Map<Object, Object> hash(String key) {
+        Object value = keyspace.get(key);
+        return value instanceof Hash ? (Hash) value : new HashMap<>();
+    }
+
+    void putString(String key, String value) {
+        keyspace.put(key, value);
+    }
+
+    List<String> keysWithPrefix(String prefix) {
+        List<String> keys = new ArrayList<>();
+        for (String key : keyspace.keySet()) {
+            if (key.startsWith(prefix)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    void delete(String key) {
+        keyspace.remove(key);
+    }
+
+    /**
+     * 接下来的 count 次 pipeline 抛出异常，模拟连接中断
+     */
+    void failPipelines(int count) {
+        failingPipelines = count;
+    }
+
+    void addMember(String key, Object member, double score) {
+        zset(key, true).put(member, score);
+    }
+
+    private Object record(Object result) {
+        if (pipelineResults != null) {
+            pipelineResults.add(result);
+        }
+        return result;
+    }
+
+    private Map<Object, Double> zset(String key, boolean create) {
+        Object value = keyspace.get(key);
+        if (value == null) {
+            if (!create) {
+                return null;
+            }
+            value = new ZSet();
+            keyspace.put(key, value);
+        }
+        if (!(value instanceof ZSet)) {
+            throw new RedisSystemException("WRONGTYPE Operation against a key holding the wrong kind of value: " + key, null);
+        }
+        return (ZSet) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private LinkedList<Object> list(String key) {
+        return (LinkedList<Object>) keyspace.computeIfAbsent(key, k -> new LinkedList<>());
+    }
+
+    private void removeIfEmpty(String key) {
+        Object value = keyspace.get(key);
+        if (value instanceof Map && ((Map<?, ?>) value).isEmpty()) {
+            keyspace.remove(key);
+        }
+    }
+
+    /**
+     * 按分数倒序、同分按成员倒序取区间，count 为负表示不限
+     */
+    private Set<Object> reverseRange(String key, double min, double max, long offset, long count) {
+        Map<Object, Double> zset = zset(key, false);
+        Set<Object> result = new LinkedHashSet<>();
+        if (zset == null) {
+            return result;
+        }
+        List<Map.Entry<Object, Double>> entries = new ArrayList<>(zset.entrySet());
+        entries.sort(Comparator.<Map.Entry<Object, Double>>comparingDouble(Map.Entry::getValue)
+                .thenComparing(e -> String.valueOf(e.getKey())).reversed());
+        long skipped = 0;
+        for (Map.Entry<Object, Double> entry : entries) {
+            if (entry.getValue() < min || entry.getValue() > max) {
+                continue;
+            }
+            if (skipped++ < offset) {
+                continue;
+            }
+            if (count >= 0 && result.size() >= count) {
+                break;
+            }
+            result.add(entry.getKey());
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Cursor<String> cursor(String pattern) {
+        Pattern regex = Pattern.compile(Pattern.quote(pattern).replace("*", "\\E.*\\Q"));
+        List<String> matched = new ArrayList<>();
+        for (String key : keyspace.keySet()) {
+            if (regex.matcher(key).matches()) {
+                matched.add(key);
+            }
+        }
+        Iterator<String> iterator = matched.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(inv -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(inv -> iterator.next());
+        return cursor;
+    }
+
+    private static final class ZSet extends HashMap<Object, Double> {
+    }
+
+    private static final class Hash extends HashMap<Object, Object> {
+    }
+}
@@ -0,0 +1,116 @@
+package com.jiuxi.shared.security.revocation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 令牌吊销登记表测试，两个登记表共享同一个本地通道模拟两个节点
+ *
+ * @author jiuxx
+ * @since 2026-10-18
+ */
+@DisplayName("令牌吊销登记表测试")
+class TokenRevocationRegistryTest {
+
+    private static final long HOUR = 3600_000L;
+
+    private LocalTokenRevocationChannel channel;
+
+    private TokenRevocationRegistry nodeA;
+
+    private TokenRevocationRegistry nodeB;
+
+    @BeforeEach
+    void setUp() {
+        channel = new LocalTokenRevocationChannel();
+        nodeA = newNode(channel);
+        nodeB = newNode(channel);
+    }
+
+    private static TokenRevocationRegistry newNode(TokenRevocationChannel channel) {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(channel,
+                new TimeBucketedBloomFilter(60_000L, 1 << 12, 5));
+        registry.init();
+        return registry;
+    }
+
+    @Test
+    @DisplayName("未吊销的令牌走快速路径")
+    void testNotRevoked() {
+        assertFalse(nodeA.isRevoked("jti-1"));
+        nodeA.revoke("jti-2", System.currentTimeMillis() + HOUR);
+        assertFalse(nodeA.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("导入的吊销记录只在本节点生效，已过期的忽略")
+    void testRestoreLocalOnly() {
+        nodeA.restore("jti-1", System.currentTimeMillis() + HOUR);
+        nodeA.restore("jti-2", System.currentTimeMillis() - 1);
+
+        assertTrue(nodeA.isRevoked("jti-1"));
+        assertFalse(nodeA.isRevoked("jti-2"));
+        assertFalse(nodeB.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("一个节点吊销后其它节点立即生效")
+    void testRevocationReplicated() {
+        nodeA.revoke("jti-1", System.currentTimeMillis() + HOUR);
+
+        assertTrue(nodeA.isRevoked("jti-1"));
+        assertTrue(nodeB.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("新节点启动时加载仍然有效的吊销记录")
+    void testLateJoinerCatchesUp() {
+        nodeA.revoke("jti-1", System.currentTimeMillis() + HOUR);
+
+        TokenRevocationRegistry nodeC = newNode(channel);
+        assertTrue(nodeC.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("已过期的令牌不再登记")
+    void testExpiredIgnored() {
+        nodeA.revoke("jti-1", System.currentTimeMillis() - 1);
+
+        assertFalse(nodeA.isRevoked("jti-1"));
+        assertFalse(nodeB.isRevoked("jti-1"));
+    }
+
+    @Test
+    @DisplayName("吊销回调在所有节点触发")
+    void testListenerNotified() {
+        List<String> evicted = new ArrayList<>();
+        nodeB.addListener(evicted::add);
+
+        nodeA.revoke("jti-1", System.currentTimeMillis() + HOUR);
+
+        assertEquals(1, evicted.size());
+        assertEquals("jti-1", evicted.get(0));
+    }
+
+    @Test
+    @DisplayName("布隆过滤器按时间桶整体过期")
+    void testBloomBucketExpiry() {
+        TimeBucketedBloomFilter filter = new TimeBucketedBloomFilter(60_000L, 1 << 12, 5);
+        long now = System.currentTimeMillis();
+        filter.put("jti-1", now + 1_000L);
+        filter.put("jti-2", now + HOUR);
+        assertTrue(filter.mightContain("jti-1"));
+        assertEquals(2, filter.bucketCount());
+
+        filter.expire(now + 120_000L);
+
+        assertEquals(1, filter.bucketCount());
+        assertTrue(filter.mightContain("jti-2"));
+    }
+}